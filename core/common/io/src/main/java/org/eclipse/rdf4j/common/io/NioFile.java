@@ -14,14 +14,18 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * File wrapper that protects against concurrent file closing events due to e.g. {@link Thread#interrupt() thread
@@ -29,6 +33,14 @@ import java.util.Set;
  * reopen the channel. The thread that causes the {@link ClosedByInterruptException} is not protected, assuming the
  * interrupt is intended to end the thread's operation.
  *
+ * <p>
+ * A file can optionally be opened in memory-mapped mode. In that mode, reads are served from read-only
+ * {@link MappedByteBuffer}s that each map a fixed-size segment of the file. Segments are mapped lazily and remapped
+ * when the file has grown beyond the mapped part of the segment. Writes still go through the file channel; the
+ * operating system's page cache keeps the mapped segments coherent with written data. Reads that span two segments or
+ * extend past the end of the file fall back to regular channel reads. Truncating the file waits for reads from the
+ * mapped segments to finish, as accessing a mapped page beyond the end of the file crashes the JVM.
+ *
  * @author Arjohn Kampman
  */
 public final class NioFile implements Closeable {
@@ -40,11 +52,42 @@ public final class NioFile implements Closeable {
 			StandardOpenOption.CREATE, StandardOpenOption.SYNC);
 	public static final EnumSet<StandardOpenOption> RWD = EnumSet.of(StandardOpenOption.READ, StandardOpenOption.WRITE,
 			StandardOpenOption.CREATE, StandardOpenOption.DSYNC);
+	/**
+	 * The number of bits of a file offset that address a position within a memory-mapped segment.
+	 */
+	private static final int MAPPED_SEGMENT_SHIFT = 26;
+
+	/**
+	 * The maximum size of a memory-mapped segment: 64 MB.
+	 */
+	private static final long MAPPED_SEGMENT_SIZE = 1L << MAPPED_SEGMENT_SHIFT;
+
+	/**
+	 * The minimum number of bytes that a file must have grown by before a partially mapped segment is remapped. Reads
+	 * of recently appended data are served by the file channel until then, which avoids remapping on every append.
+	 */
+	private static final long MIN_REMAP_GROWTH = 1L << 20;
+
+	private static final MappedByteBuffer[] NO_SEGMENTS = new MappedByteBuffer[0];
+
 	private final File file;
 	private final Set<StandardOpenOption> openOptions;
+	private final boolean memoryMapped;
 
 	private volatile FileChannel fc;
 
+	/**
+	 * The memory-mapped segments of the file, only used in memory-mapped mode. The array is replaced when segments are
+	 * (re)mapped, entries may be <var>null</var> for segments that have not been read yet.
+	 */
+	private volatile MappedByteBuffer[] segments = NO_SEGMENTS;
+
+	/**
+	 * Held shared while reading from the memory-mapped segments and exclusively while the file is truncated, so that
+	 * the segments are never accessed beyond the end of the file.
+	 */
+	private final ReentrantReadWriteLock mappingLock = new ReentrantReadWriteLock();
+
 	private volatile boolean explictlyClosed;
 
 	/**
@@ -68,8 +111,25 @@ public final class NioFile implements Closeable {
 		this(file, toOpenOptions(mode));
 	}
 
+	/**
+	 * Constructor Opens a file in a specific mode, creating a new one if the file doesn't exist.
+	 *
+	 * @param file         file
+	 * @param mode         file mode
+	 * @param memoryMapped whether reads should be served from memory-mapped segments of the file
+	 * @throws IOException
+	 */
+	public NioFile(File file, String mode, boolean memoryMapped) throws IOException {
+		this(file, toOpenOptions(mode), memoryMapped);
+	}
+
 	public NioFile(File file, Set<StandardOpenOption> openOptions) throws IOException {
+		this(file, openOptions, false);
+	}
+
+	public NioFile(File file, Set<StandardOpenOption> openOptions, boolean memoryMapped) throws IOException {
 		this.openOptions = openOptions;
+		this.memoryMapped = memoryMapped;
 		explictlyClosed = false;
 		this.file = file;
 		open();
@@ -124,6 +184,7 @@ public final class NioFile implements Closeable {
 	@Override
 	public synchronized void close() throws IOException {
 		explictlyClosed = true;
+		segments = NO_SEGMENTS;
 		fc.close();
 	}
 
@@ -140,6 +201,15 @@ public final class NioFile implements Closeable {
 		return file;
 	}
 
+	/**
+	 * Check if reads are served from memory-mapped segments of the file.
+	 *
+	 * @return true if the file is read in memory-mapped mode
+	 */
+	public boolean isMemoryMapped() {
+		return memoryMapped;
+	}
+
 	/**
 	 * Close any open channels and then deletes the file.
 	 *
@@ -178,6 +248,21 @@ public final class NioFile implements Closeable {
 	 * @throws IOException
 	 */
 	public void truncate(long size) throws IOException {
+		if (!memoryMapped) {
+			truncateChannel(size);
+			return;
+		}
+		Lock lock = mappingLock.writeLock();
+		lock.lock();
+		try {
+			unmapSegments();
+			truncateChannel(size);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void truncateChannel(long size) throws IOException {
 		while (true) {
 			try {
 				fc.truncate(size);
@@ -258,6 +343,12 @@ public final class NioFile implements Closeable {
 	 * @throws IOException
 	 */
 	public int read(ByteBuffer buf, long offset) throws IOException {
+		if (memoryMapped) {
+			int bytesRead = readMapped(buf, offset);
+			if (bytesRead >= 0) {
+				return bytesRead;
+			}
+		}
 		while (true) {
 			try {
 				return fc.read(buf, offset);
@@ -269,6 +360,99 @@ public final class NioFile implements Closeable {
 		}
 	}
 
+	/**
+	 * Reads from a memory-mapped segment of the file.
+	 *
+	 * @return the number of bytes read, or <var>-1</var> if the requested range is not within a single segment of the
+	 *         file
+	 */
+	private int readMapped(ByteBuffer buf, long offset) throws IOException {
+		int length = buf.remaining();
+		int segmentIdx = (int) (offset >>> MAPPED_SEGMENT_SHIFT);
+		int segmentOffset = (int) (offset & (MAPPED_SEGMENT_SIZE - 1));
+		if (segmentOffset + (long) length > MAPPED_SEGMENT_SIZE) {
+			return -1;
+		}
+
+		Lock lock = mappingLock.readLock();
+		lock.lock();
+		try {
+			MappedByteBuffer segment = getSegment(segmentIdx, segmentOffset + length);
+			if (segment == null) {
+				return -1;
+			}
+
+			ByteBuffer src = segment.duplicate();
+			src.position(segmentOffset);
+			src.limit(segmentOffset + length);
+			buf.put(src);
+			return length;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the memory-mapped segment with the specified index, (re)mapping it if it does not yet cover
+	 * <var>minLength</var> bytes.
+	 *
+	 * @return the segment, or <var>null</var> if the file is too small
+	 */
+	private MappedByteBuffer getSegment(int segmentIdx, int minLength) throws IOException {
+		MappedByteBuffer[] segments = this.segments;
+		if (segmentIdx < segments.length) {
+			MappedByteBuffer segment = segments[segmentIdx];
+			if (segment != null && segment.capacity() >= minLength) {
+				return segment;
+			}
+		}
+		return mapSegment(segmentIdx, minLength);
+	}
+
+	private synchronized MappedByteBuffer mapSegment(int segmentIdx, int minLength) throws IOException {
+		MappedByteBuffer[] segments = this.segments;
+		MappedByteBuffer currentSegment = segmentIdx < segments.length ? segments[segmentIdx] : null;
+		if (currentSegment != null && currentSegment.capacity() >= minLength) {
+			// segment has been remapped by another thread
+			return currentSegment;
+		}
+
+		long segmentStart = (long) segmentIdx << MAPPED_SEGMENT_SHIFT;
+		long segmentLength = Math.min(MAPPED_SEGMENT_SIZE, size() - segmentStart);
+		if (segmentLength < minLength) {
+			return null;
+		}
+		if (currentSegment != null && segmentLength < MAPPED_SEGMENT_SIZE
+				&& segmentLength - currentSegment.capacity() < MIN_REMAP_GROWTH) {
+			return null;
+		}
+
+		MappedByteBuffer segment;
+		while (true) {
+			try {
+				segment = fc.map(FileChannel.MapMode.READ_ONLY, segmentStart, segmentLength);
+				break;
+			} catch (ClosedByInterruptException e) {
+				throw e;
+			} catch (ClosedChannelException e) {
+				reopen(e);
+			}
+		}
+
+		MappedByteBuffer[] newSegments = Arrays.copyOf(segments, Math.max(segments.length, segmentIdx + 1));
+		newSegments[segmentIdx] = segment;
+		this.segments = newSegments;
+		return segment;
+	}
+
+	/**
+	 * Drops all memory-mapped segments before the file is truncated. The mappings themselves are released once the
+	 * segments are garbage collected. Must be called while holding the write lock of {@link #mappingLock}.
+	 */
+	private synchronized void unmapSegments() {
+		segments = NO_SEGMENTS;
+	}
+
 	/**
 	 * Write byte array to channel starting at offset.
 	 *
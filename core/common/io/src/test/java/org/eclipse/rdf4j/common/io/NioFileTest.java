@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.common.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class NioFileTest {
+
+	@TempDir
+	File tmpDir;
+
+	@Test
+	public void testMemoryMappedReadsOfGrowingFile() throws Exception {
+		try (NioFile nioFile = new NioFile(new File(tmpDir, "test.dat"), "rw", true)) {
+			assertTrue(nioFile.isMemoryMapped());
+
+			for (int i = 0; i < 500000; i++) {
+				nioFile.writeInt(i, i * 4L);
+				assertEquals(i, nioFile.readInt(i * 4L));
+			}
+			for (int i = 0; i < 500000; i += 7) {
+				assertEquals(i, nioFile.readInt(i * 4L));
+			}
+
+			// overwritten data is visible through the mapped segment
+			nioFile.writeInt(-1, 400);
+			assertEquals(-1, nioFile.readInt(400));
+
+			// reads past the end of the file only return the available bytes
+			ByteBuffer buf = ByteBuffer.allocate(8);
+			assertEquals(4, nioFile.read(buf, nioFile.size() - 4));
+		}
+	}
+
+	@Test
+	public void testMemoryMappedReadsAcrossSegments() throws Exception {
+		try (NioFile nioFile = new NioFile(new File(tmpDir, "test.dat"), "rw", true)) {
+			long segmentEnd = 1L << 26;
+			byte[] data = new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 };
+			nioFile.writeBytes(data, segmentEnd - 4);
+			nioFile.writeLong(42L, segmentEnd + 16);
+
+			assertArrayEquals(data, nioFile.readBytes(segmentEnd - 4, data.length));
+			assertEquals(42L, nioFile.readLong(segmentEnd + 16));
+		}
+	}
+
+	@Test
+	public void testMemoryMappedReadsAfterTruncate() throws Exception {
+		try (NioFile nioFile = new NioFile(new File(tmpDir, "test.dat"), "rw", true)) {
+			nioFile.writeLong(1L, 0);
+			nioFile.writeLong(2L, 8);
+			assertEquals(2L, nioFile.readLong(8));
+
+			nioFile.truncate(8);
+			assertEquals(1L, nioFile.readLong(0));
+
+			nioFile.writeLong(3L, 8);
+			assertEquals(3L, nioFile.readLong(8));
+		}
+	}
+
+	@Test
+	public void testMemoryMappedReadsDuringTruncate() throws Exception {
+		long fileSize = 4L << 20;
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try (NioFile nioFile = new NioFile(new File(tmpDir, "test.dat"), "rw", true)) {
+			nioFile.writeByte((byte) 1, fileSize - 1);
+
+			AtomicBoolean done = new AtomicBoolean();
+			List<Future<?>> readers = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				readers.add(executor.submit(() -> {
+					while (!done.get()) {
+						// reads of truncated data fail in the JVM rather than returning fewer bytes
+						nioFile.readLong(ThreadLocalRandom.current().nextLong(fileSize - 8));
+					}
+					return null;
+				}));
+			}
+
+			for (int i = 0; i < 2000; i++) {
+				nioFile.truncate(0);
+				nioFile.writeByte((byte) 1, fileSize - 1);
+			}
+			done.set(true);
+			for (Future<?> reader : readers) {
+				reader.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
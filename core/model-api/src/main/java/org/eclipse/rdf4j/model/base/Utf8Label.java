@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+
+package org.eclipse.rdf4j.model.base;
+
+import org.eclipse.rdf4j.common.annotation.InternalUseOnly;
+import org.eclipse.rdf4j.model.Literal;
+
+/**
+ * Implemented by {@link Literal literals} that can provide their label in UTF-8 encoded form without decoding it to a
+ * {@link String} first, for example because they were read from a store that keeps labels in that form. Writers of
+ * binary formats may copy these bytes directly to their output.
+ */
+@InternalUseOnly
+public interface Utf8Label {
+
+	/**
+	 * Gets the UTF-8 encoded label of this literal.
+	 *
+	 * @return the encoded label, which must not be modified, or <code>null</code> if the label is currently not
+	 *         available in encoded form
+	 */
+	byte[] getLabelUtf8();
+}
@@ -241,6 +241,21 @@ public class CONFIG {
 
 		/** <var>tag:rdf4j.org,2023:config/mem.syncDelay</var> */
 		public final static IRI syncDelay = createIRI(NAMESPACE, "mem.syncDelay");
+
+		/** <var>tag:rdf4j.org,2023:config/mem.writeAheadLog</var> */
+		public final static IRI writeAheadLog = createIRI(NAMESPACE, "mem.writeAheadLog");
+
+		/** <var>tag:rdf4j.org,2023:config/mem.checkpointThreshold</var> */
+		public final static IRI checkpointThreshold = createIRI(NAMESPACE, "mem.checkpointThreshold");
+
+		/** <var>tag:rdf4j.org,2023:config/mem.compactStorage</var> */
+		public final static IRI compactStorage = createIRI(NAMESPACE, "mem.compactStorage");
+
+		/** <var>tag:rdf4j.org,2023:config/mem.cardinalityStatistics</var> */
+		public final static IRI cardinalityStatistics = createIRI(NAMESPACE, "mem.cardinalityStatistics");
+
+		/** <var>tag:rdf4j.org,2023:config/mem.multiWriter</var> */
+		public final static IRI multiWriter = createIRI(NAMESPACE, "mem.multiWriter");
 	}
 
 	/**
@@ -276,6 +291,26 @@ public class CONFIG {
 		 * <var>tag:rdf4j.org,2023:config/native.namespaceIDCacheSize</var>
 		 */
 		public final static IRI namespaceIDCacheSize = createIRI(NAMESPACE, "native.namespaceIDCacheSize");
+
+		/**
+		 * <var>tag:rdf4j.org,2023:config/native.compressIndexes</var>
+		 */
+		public final static IRI compressIndexes = createIRI(NAMESPACE, "native.compressIndexes");
+
+		/**
+		 * <var>tag:rdf4j.org,2023:config/native.longValueIDs</var>
+		 */
+		public final static IRI longValueIDs = createIRI(NAMESPACE, "native.longValueIDs");
+
+		/**
+		 * <var>tag:rdf4j.org,2023:config/native.memoryMappedReads</var>
+		 */
+		public final static IRI memoryMappedReads = createIRI(NAMESPACE, "native.memoryMappedReads");
+
+		/**
+		 * <var>tag:rdf4j.org,2023:config/native.onlineReindex</var>
+		 */
+		public final static IRI onlineReindex = createIRI(NAMESPACE, "native.onlineReindex");
 	}
 
 	/**
@@ -72,6 +72,9 @@ public class GenericPlanNode {
 	// the name of the algorithm used as an annotation to the node type
 	private String algorithm;
 
+	// The number of times the algorithm spilled to disk while the query was executed.
+	private Long spillCount;
+
 	// Child plans for this node
 	private List<GenericPlanNode> plans = new ArrayList<>();
 
@@ -232,6 +235,22 @@ public class GenericPlanNode {
 		this.algorithm = algorithm;
 	}
 
+	/**
+	 * Join nodes can spill their arguments to disk when they exceed the memory budget of the query.
+	 *
+	 * @return the number of times the algorithm spilled to disk while the query was executed, or null if it did not
+	 *         spill.
+	 */
+	public Long getSpillCount() {
+		return spillCount;
+	}
+
+	public void setSpillCount(Long spillCount) {
+		if (spillCount != null && spillCount > 0) {
+			this.spillCount = spillCount;
+		}
+	}
+
 	private static final int prettyBoxDrawingType = 0;
 
 	/**
@@ -417,7 +436,8 @@ public class GenericPlanNode {
 				"resultSizeEstimate=" + toHumanReadableNumber(getResultSizeEstimate()),
 				"resultSizeActual=" + toHumanReadableNumber(getResultSizeActual()),
 				"totalTimeActual=" + toHumanReadableTime(getTotalTimeActual()),
-				"selfTimeActual=" + toHumanReadableTime(getSelfTimeActual()))
+				"selfTimeActual=" + toHumanReadableTime(getSelfTimeActual()),
+				"spillCount=" + (spillCount != null ? spillCount : UNKNOWN))
 				.filter(s -> !s.endsWith(UNKNOWN)) // simple but hacky way of removing essentially null values
 				.reduce((a, b) -> a + ", " + b)
 				.orElse("");
@@ -474,6 +494,7 @@ public class GenericPlanNode {
 				"<tr><td COLSPAN=\"2\" BGCOLOR=\"" + totalTimeColor + "\"><U>" + StringEscapeUtils.escapeHtml4(type)
 						+ "</U></td></tr>",
 				"<tr><td>Algorithm</td><td>" + (algorithm != null ? algorithm : UNKNOWN) + "</td></tr>",
+				"<tr><td>Spill count</td><td>" + (spillCount != null ? spillCount : UNKNOWN) + "</td></tr>",
 				"<tr><td><B>New scope</B></td><td>" + (newScope != null && newScope ? "<B>true</B>" : UNKNOWN)
 						+ "</td></tr>",
 				"<tr><td>Cost estimate</td><td>" + toHumanReadableNumber(getCostEstimate()) + "</td></tr>",
@@ -170,4 +170,15 @@ public interface EvaluationStrategy extends FederatedServiceResolver {
 	default Supplier<CollectionFactory> getCollectionFactory() {
 		return DefaultCollectionFactory::new;
 	}
+
+	/**
+	 * The number of solutions that operators such as ORDER BY and hash joins may keep in memory before they spill to
+	 * disk.
+	 *
+	 * @return the threshold, or 0 if all solutions are kept in memory
+	 */
+	@Experimental
+	default long getIterationCacheSyncThreshold() {
+		return 0;
+	}
 }
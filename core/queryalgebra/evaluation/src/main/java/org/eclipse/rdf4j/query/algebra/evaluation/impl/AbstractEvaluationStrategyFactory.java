@@ -11,9 +11,12 @@
 package org.eclipse.rdf4j.query.algebra.evaluation.impl;
 
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
 import org.eclipse.rdf4j.query.algebra.evaluation.EvaluationStrategyFactory;
 import org.eclipse.rdf4j.query.algebra.evaluation.QueryOptimizerPipeline;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.GroupIterator;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.OrderIterator;
 
 /**
  * Abstract base class for {@link ExtendedEvaluationStrategy}.
@@ -29,6 +32,14 @@ public abstract class AbstractEvaluationStrategyFactory implements EvaluationStr
 
 	private QueryOptimizerPipeline pipeline;
 
+	private int groupByParallelism;
+
+	private ExecutorService groupByExecutor;
+
+	private int readAheadConcurrency;
+
+	private int orderByMergeFanIn = OrderIterator.DEFAULT_MERGE_FAN_IN;
+
 	@Override
 	public void setQuerySolutionCacheThreshold(long threshold) {
 		this.querySolutionCacheThreshold = threshold;
@@ -49,6 +60,74 @@ public abstract class AbstractEvaluationStrategyFactory implements EvaluationStr
 		return Optional.ofNullable(pipeline);
 	}
 
+	/**
+	 * @return the number of partitions that GROUP BY aggregation is spread over
+	 * @see DefaultEvaluationStrategy#setGroupByParallelism(int)
+	 */
+	public int getGroupByParallelism() {
+		return groupByParallelism;
+	}
+
+	/**
+	 * @param groupByParallelism the number of partitions that GROUP BY aggregation is spread over, values lower than 2
+	 *                           disable parallel aggregation
+	 * @see DefaultEvaluationStrategy#setGroupByParallelism(int)
+	 */
+	public void setGroupByParallelism(int groupByParallelism) {
+		this.groupByParallelism = groupByParallelism;
+	}
+
+	/**
+	 * @return the executor that GROUP BY partitions are aggregated on by the strategies that this factory creates, or
+	 *         null if they use the {@link GroupIterator#getSharedExecutor() shared executor}
+	 * @see DefaultEvaluationStrategy#setGroupByExecutor(ExecutorService)
+	 */
+	public synchronized ExecutorService getGroupByExecutor() {
+		return groupByExecutor;
+	}
+
+	/**
+	 * @param groupByExecutor the executor that GROUP BY partitions are aggregated on, or null to use the
+	 *                        {@link GroupIterator#getSharedExecutor() shared executor}
+	 * @see DefaultEvaluationStrategy#setGroupByExecutor(ExecutorService)
+	 */
+	public synchronized void setGroupByExecutor(ExecutorService groupByExecutor) {
+		this.groupByExecutor = groupByExecutor;
+	}
+
+	/**
+	 * @return the number of read-ahead tasks that a query runs at the same time
+	 * @see DefaultEvaluationStrategy#setReadAheadConcurrency(int)
+	 */
+	public int getReadAheadConcurrency() {
+		return readAheadConcurrency;
+	}
+
+	/**
+	 * @param readAheadConcurrency the number of read-ahead tasks that a query runs at the same time, values lower than
+	 *                             1 disable read-ahead
+	 * @see DefaultEvaluationStrategy#setReadAheadConcurrency(int)
+	 */
+	public void setReadAheadConcurrency(int readAheadConcurrency) {
+		this.readAheadConcurrency = readAheadConcurrency;
+	}
+
+	/**
+	 * @return the number of sorted runs that ORDER BY merges at a time
+	 * @see DefaultEvaluationStrategy#setOrderByMergeFanIn(int)
+	 */
+	public int getOrderByMergeFanIn() {
+		return orderByMergeFanIn;
+	}
+
+	/**
+	 * @param orderByMergeFanIn the number of sorted runs that ORDER BY merges at a time, at least 2
+	 * @see DefaultEvaluationStrategy#setOrderByMergeFanIn(int)
+	 */
+	public void setOrderByMergeFanIn(int orderByMergeFanIn) {
+		this.orderByMergeFanIn = orderByMergeFanIn;
+	}
+
 	@Override
 	public boolean isTrackResultSize() {
 		return trackResultSize;
@@ -103,6 +103,11 @@ public final class ArrayBindingBasedQueryEvaluationContext implements QueryEvalu
 		return comparator;
 	}
 
+	@Override
+	public long getIterationCacheSyncThreshold() {
+		return context.getIterationCacheSyncThreshold();
+	}
+
 	@Override
 	public Literal getNow() {
 		return context.getNow();
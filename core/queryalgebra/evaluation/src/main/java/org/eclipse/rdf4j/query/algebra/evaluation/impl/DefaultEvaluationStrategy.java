@@ -14,6 +14,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -22,6 +23,7 @@ import java.util.function.Supplier;
 
 import org.eclipse.rdf4j.collection.factory.api.CollectionFactory;
 import org.eclipse.rdf4j.collection.factory.impl.DefaultCollectionFactory;
+import org.eclipse.rdf4j.common.annotation.Experimental;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.iteration.DistinctIteration;
 import org.eclipse.rdf4j.common.iteration.IterationWrapper;
@@ -152,12 +154,15 @@ import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.values.Li
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.values.OrValueEvaluationStep;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.values.QueryValueEvaluationStepSupplier;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps.values.ValueExprTripleRefEvaluationStep;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.AsyncIteratorReadAhead;
 import org.eclipse.rdf4j.query.algebra.evaluation.iterator.DescribeIteration;
 import org.eclipse.rdf4j.query.algebra.evaluation.iterator.ExtensionIterator;
 import org.eclipse.rdf4j.query.algebra.evaluation.iterator.FilterIterator;
 import org.eclipse.rdf4j.query.algebra.evaluation.iterator.GroupIterator;
 import org.eclipse.rdf4j.query.algebra.evaluation.iterator.MultiProjectionIterator;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.OrderIterator;
 import org.eclipse.rdf4j.query.algebra.evaluation.iterator.PathIteration;
+import org.eclipse.rdf4j.query.algebra.evaluation.iterator.ReadAheadExecutor;
 import org.eclipse.rdf4j.query.algebra.evaluation.util.MathUtil;
 import org.eclipse.rdf4j.query.algebra.evaluation.util.OrderComparator;
 import org.eclipse.rdf4j.query.algebra.evaluation.util.QueryEvaluationUtil;
@@ -212,6 +217,21 @@ public class DefaultEvaluationStrategy implements EvaluationStrategy, FederatedS
 
 	private Supplier<CollectionFactory> collectionFactory = DefaultCollectionFactory::new;
 
+	// number of partitions that GROUP BY aggregation is spread over, parallel aggregation is disabled below 2
+	private int groupByParallelism;
+
+	private ExecutorService groupByExecutor;
+
+	// number of read-ahead tasks that this strategy runs at the same time, read-ahead is disabled below 1
+	private int readAheadConcurrency;
+
+	private ReadAheadExecutor readAheadExecutor;
+
+	private ReadAheadExecutor.Scope readAheadScope;
+
+	// number of sorted runs that ORDER BY merges at a time when it spills to disk
+	private int orderByMergeFanIn = OrderIterator.DEFAULT_MERGE_FAN_IN;
+
 	protected static CloseableIteration<BindingSet> evaluate(TupleFunction func,
 			final List<Var> resultVars, final BindingSet bindings, ValueFactory valueFactory, Value... argValues)
 			throws QueryEvaluationException {
@@ -436,7 +456,7 @@ public class DefaultEvaluationStrategy implements EvaluationStrategy, FederatedS
 	@Override
 	public QueryEvaluationStep precompile(TupleExpr expr) {
 		QueryEvaluationContext context = new QueryEvaluationContext.Minimal(dataset, tripleSource.getValueFactory(),
-				tripleSource.getComparator());
+				tripleSource.getComparator(), iterationCacheSyncThreshold);
 		if (expr instanceof QueryRoot) {
 			String[] allVariables = ArrayBindingBasedQueryEvaluationContext
 					.findAllVariablesUsedInQuery((QueryRoot) expr);
@@ -533,7 +553,12 @@ public class DefaultEvaluationStrategy implements EvaluationStrategy, FederatedS
 	}
 
 	protected QueryEvaluationStep prepare(Group node, QueryEvaluationContext context) throws QueryEvaluationException {
-		return bindings -> new GroupIterator(DefaultEvaluationStrategy.this, node, bindings, context);
+		if (groupByParallelism < 2) {
+			return bindings -> new GroupIterator(DefaultEvaluationStrategy.this, node, bindings, context);
+		}
+		ExecutorService executor = getGroupByExecutor();
+		return bindings -> new GroupIterator(DefaultEvaluationStrategy.this, node, bindings, context,
+				groupByParallelism, executor);
 	}
 
 	protected QueryEvaluationStep prepare(Intersection node, QueryEvaluationContext context)
@@ -592,6 +617,12 @@ public class DefaultEvaluationStrategy implements EvaluationStrategy, FederatedS
 		QueryEvaluationStep leftQes = precompile(node.getLeftArg(), context);
 		QueryEvaluationStep rightQes = precompile(node.getRightArg(), context);
 
+		if (readAheadConcurrency > 0) {
+			ReadAheadExecutor.Scope scope = getReadAheadScope();
+			return new UnionQueryEvaluationStep(
+					bindings -> AsyncIteratorReadAhead.getInstance(leftQes, bindings, scope),
+					bindings -> AsyncIteratorReadAhead.getInstance(rightQes, bindings, scope));
+		}
 		return new UnionQueryEvaluationStep(leftQes, rightQes);
 	}
 
@@ -626,7 +657,8 @@ public class DefaultEvaluationStrategy implements EvaluationStrategy, FederatedS
 		boolean reduced = isReducedOrDistinct(node);
 		long limit = getLimit(node);
 		QueryEvaluationStep preparedArg = precompile(node.getArg(), context);
-		return new OrderQueryEvaluationStep(cmp, limit, reduced, preparedArg, iterationCacheSyncThreshold);
+		return new OrderQueryEvaluationStep(cmp, limit, reduced, preparedArg, iterationCacheSyncThreshold,
+				orderByMergeFanIn);
 	}
 
 	protected QueryEvaluationStep prepare(BindingSetAssignment node, QueryEvaluationContext context)
@@ -1485,6 +1517,102 @@ public class DefaultEvaluationStrategy implements EvaluationStrategy, FederatedS
 		}
 	}
 
+	/**
+	 * Set the number of partitions that the solutions of a GROUP BY are hash partitioned into by their group key. The
+	 * partitions are aggregated in parallel on the {@link #getGroupByExecutor() group by executor}. Only the built-in
+	 * aggregates, except for GROUP_CONCAT without DISTINCT, are aggregated in parallel, and only if their arguments
+	 * consist of stateless operators. Other aggregates, such as custom aggregate functions or aggregates over function
+	 * calls, are always aggregated sequentially.
+	 *
+	 * @param groupByParallelism the number of partitions, values lower than 2 disable parallel aggregation
+	 */
+	@Experimental
+	public void setGroupByParallelism(int groupByParallelism) {
+		this.groupByParallelism = groupByParallelism;
+	}
+
+	@Experimental
+	public int getGroupByParallelism() {
+		return groupByParallelism;
+	}
+
+	/**
+	 * @param groupByExecutor the executor that GROUP BY partitions are aggregated on, or null to use the
+	 *                        {@link GroupIterator#getSharedExecutor() shared executor}
+	 */
+	@Experimental
+	public void setGroupByExecutor(ExecutorService groupByExecutor) {
+		this.groupByExecutor = groupByExecutor;
+	}
+
+	/**
+	 * @return the executor that GROUP BY partitions are aggregated on
+	 */
+	@Experimental
+	public ExecutorService getGroupByExecutor() {
+		ExecutorService executor = groupByExecutor;
+		return executor != null ? executor : GroupIterator.getSharedExecutor();
+	}
+
+	/**
+	 * Set the number of read-ahead tasks that the arguments of a UNION may run at the same time for a query evaluated
+	 * by this strategy. Read-ahead beyond this limit is done by the thread that consumes the results.
+	 *
+	 * @param readAheadConcurrency the maximum number of concurrent read-ahead tasks, values lower than 1 disable
+	 *                             read-ahead
+	 */
+	@Experimental
+	public void setReadAheadConcurrency(int readAheadConcurrency) {
+		this.readAheadConcurrency = readAheadConcurrency;
+		this.readAheadScope = null;
+	}
+
+	@Experimental
+	public int getReadAheadConcurrency() {
+		return readAheadConcurrency;
+	}
+
+	/**
+	 * @param readAheadExecutor the executor that read-ahead tasks run on, or null to use the
+	 *                          {@link ReadAheadExecutor#getShared() shared} executor
+	 */
+	@Experimental
+	public void setReadAheadExecutor(ReadAheadExecutor readAheadExecutor) {
+		this.readAheadExecutor = readAheadExecutor;
+		this.readAheadScope = null;
+	}
+
+	@Experimental
+	public ReadAheadExecutor getReadAheadExecutor() {
+		return readAheadExecutor != null ? readAheadExecutor : ReadAheadExecutor.getShared();
+	}
+
+	/**
+	 * Set the number of sorted runs that ORDER BY merges at a time once it has spilled more solutions to disk than the
+	 * iteration cache sync threshold allows to keep in memory. Each run that is merged holds a read buffer in memory.
+	 *
+	 * @param orderByMergeFanIn the number of runs that are merged at a time, at least 2
+	 */
+	@Experimental
+	public void setOrderByMergeFanIn(int orderByMergeFanIn) {
+		if (orderByMergeFanIn < 2) {
+			throw new IllegalArgumentException("Merge fan-in must be at least 2: " + orderByMergeFanIn);
+		}
+		this.orderByMergeFanIn = orderByMergeFanIn;
+	}
+
+	@Experimental
+	public int getOrderByMergeFanIn() {
+		return orderByMergeFanIn;
+	}
+
+	private ReadAheadExecutor.Scope getReadAheadScope() {
+		if (readAheadScope == null) {
+			readAheadScope = getReadAheadExecutor().newScope(readAheadConcurrency);
+		}
+		return readAheadScope;
+	}
+
 	@Override
 	public void setTrackResultSize(boolean trackResultSize) {
 		this.trackResultSize = trackResultSize;
@@ -1572,6 +1700,11 @@ public class DefaultEvaluationStrategy implements EvaluationStrategy, FederatedS
 		this.queryEvaluationMode = Objects.requireNonNull(queryEvaluationMode);
 	}
 
+	@Override
+	public long getIterationCacheSyncThreshold() {
+		return iterationCacheSyncThreshold;
+	}
+
 	@Override
 	public Supplier<CollectionFactory> getCollectionFactory() {
 		return collectionFactory;
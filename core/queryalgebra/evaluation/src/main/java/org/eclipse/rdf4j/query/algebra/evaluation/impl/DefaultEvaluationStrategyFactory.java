@@ -54,6 +54,10 @@ public class DefaultEvaluationStrategyFactory extends AbstractEvaluationStrategy
 				getQuerySolutionCacheThreshold(), evaluationStatistics, isTrackResultSize());
 		getOptimizerPipeline().ifPresent(strategy::setOptimizerPipeline);
 		strategy.setCollectionFactory(collectionFactorySupplier);
+		strategy.setGroupByParallelism(getGroupByParallelism());
+		strategy.setGroupByExecutor(getGroupByExecutor());
+		strategy.setReadAheadConcurrency(getReadAheadConcurrency());
+		strategy.setOrderByMergeFanIn(getOrderByMergeFanIn());
 		return strategy;
 	}
 
@@ -11,9 +11,11 @@
 package org.eclipse.rdf4j.query.algebra.evaluation.impl;
 
 import java.util.Collection;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.eclipse.rdf4j.common.annotation.Experimental;
 import org.eclipse.rdf4j.query.algebra.AbstractQueryModelNode;
 import org.eclipse.rdf4j.query.algebra.ArbitraryLengthPath;
 import org.eclipse.rdf4j.query.algebra.BinaryTupleOperator;
@@ -62,6 +64,23 @@ public class EvaluationStatistics {
 		return calculator.getCardinality();
 	}
 
+	/**
+	 * Estimates the number of results that a tuple expression produces for each solution of the tuple expressions that
+	 * are evaluated before it in a join, which bind the variables with the supplied names. Implementations that keep
+	 * statistics about the distribution of values, such as the number of distinct values per predicate, can override
+	 * this to let the {@link org.eclipse.rdf4j.query.algebra.evaluation.optimizer.QueryJoinOptimizer} order joins by
+	 * the estimated size of the intermediate results instead of by its heuristics. The optimizer only does so for joins
+	 * for which all arguments have an estimate.
+	 *
+	 * @param boundVars the names of the variables that are bound when the tuple expression is evaluated
+	 * @param expr      the tuple expression
+	 * @return the estimated number of results per solution, or a negative value if there is no estimate
+	 */
+	@Experimental
+	public double getJoinCardinality(Set<String> boundVars, TupleExpr expr) {
+		return -1;
+	}
+
 	protected CardinalityCalculator createCardinalityCalculator() {
 		return new CardinalityCalculator();
 	}
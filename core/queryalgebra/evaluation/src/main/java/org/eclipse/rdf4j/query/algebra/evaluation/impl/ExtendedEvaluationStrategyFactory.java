@@ -58,6 +58,10 @@ public class ExtendedEvaluationStrategyFactory extends AbstractEvaluationStrateg
 				serviceResolver, getQuerySolutionCacheThreshold(),
 				evaluationStatistics);
 		extendedEvaluationStrategy.setCollectionFactory(collectionFactorySupplier);
+		extendedEvaluationStrategy.setGroupByParallelism(getGroupByParallelism());
+		extendedEvaluationStrategy.setGroupByExecutor(getGroupByExecutor());
+		extendedEvaluationStrategy.setReadAheadConcurrency(getReadAheadConcurrency());
+		extendedEvaluationStrategy.setOrderByMergeFanIn(getOrderByMergeFanIn());
 		return extendedEvaluationStrategy;
 	}
 
@@ -42,6 +42,14 @@ public interface QueryEvaluationContext {
 		return null;
 	}
 
+	/**
+	 * @return the number of solutions that an operator may keep in memory before it spills to disk, or 0 if all
+	 *         solutions are kept in memory
+	 */
+	default long getIterationCacheSyncThreshold() {
+		return 0;
+	}
+
 	class Minimal implements QueryEvaluationContext {
 
 		private static final VarHandle NOW;
@@ -63,6 +71,7 @@ public interface QueryEvaluationContext {
 		private final Dataset dataset;
 		private final ValueFactory valueFactory;
 		private final Comparator<Value> comparator;
+		private final long iterationCacheSyncThreshold;
 
 		/**
 		 * Set the shared now value to a preexisting object
@@ -77,6 +86,7 @@ public interface QueryEvaluationContext {
 			this.dataset = dataset;
 			this.valueFactory = SimpleValueFactory.getInstance();
 			this.comparator = comparator;
+			this.iterationCacheSyncThreshold = 0;
 		}
 
 		/**
@@ -111,9 +121,22 @@ public interface QueryEvaluationContext {
 		 *
 		 */
 		public Minimal(Dataset dataset, ValueFactory valueFactory, Comparator<Value> comparator) {
+			this(dataset, valueFactory, comparator, 0);
+		}
+
+		/**
+		 * @param dataset                     that a query should use to the evaluate
+		 * @param valueFactory                that a query should use to the evaluate
+		 * @param comparator                  to use for ordering
+		 * @param iterationCacheSyncThreshold number of solutions an operator may keep in memory before it spills to
+		 *                                    disk, 0 to keep everything in memory
+		 */
+		public Minimal(Dataset dataset, ValueFactory valueFactory, Comparator<Value> comparator,
+				long iterationCacheSyncThreshold) {
 			this.dataset = dataset;
 			this.valueFactory = valueFactory;
 			this.comparator = comparator;
+			this.iterationCacheSyncThreshold = iterationCacheSyncThreshold;
 		}
 
 		/**
@@ -129,6 +152,11 @@ public interface QueryEvaluationContext {
 			return comparator;
 		}
 
+		@Override
+		public long getIterationCacheSyncThreshold() {
+			return iterationCacheSyncThreshold;
+		}
+
 		@Override
 		public Literal getNow() {
 			Literal now = (Literal) NOW.get(this);
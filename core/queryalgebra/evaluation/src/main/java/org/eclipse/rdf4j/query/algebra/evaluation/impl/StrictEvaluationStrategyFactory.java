@@ -58,6 +58,10 @@ public class StrictEvaluationStrategyFactory extends AbstractEvaluationStrategyF
 				getQuerySolutionCacheThreshold(), evaluationStatistics, isTrackResultSize());
 		getOptimizerPipeline().ifPresent(strategy::setOptimizerPipeline);
 		strategy.setCollectionFactory(collectionFactorySupplier);
+		strategy.setGroupByParallelism(getGroupByParallelism());
+		strategy.setGroupByExecutor(getGroupByExecutor());
+		strategy.setReadAheadConcurrency(getReadAheadConcurrency());
+		strategy.setOrderByMergeFanIn(getOrderByMergeFanIn());
 		return strategy;
 	}
 
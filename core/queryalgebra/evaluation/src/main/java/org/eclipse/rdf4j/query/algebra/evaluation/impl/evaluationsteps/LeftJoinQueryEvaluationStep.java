@@ -12,6 +12,7 @@ package org.eclipse.rdf4j.query.algebra.evaluation.impl.evaluationsteps;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.query.BindingSet;
@@ -43,7 +44,13 @@ public final class LeftJoinQueryEvaluationStep implements QueryEvaluationStep {
 			String[] joinAttributes = leftBindingNames.stream()
 					.filter(rightBindingNames::contains)
 					.toArray(String[]::new);
-			return bs -> new HashJoinIteration(left, right, bs, true, joinAttributes, context);
+			AtomicLong spills = new AtomicLong();
+			return bs -> new HashJoinIteration(left, right, bs, true, joinAttributes, context) {
+				@Override
+				protected void spilled(int partitions) {
+					leftJoin.setSpillCount(spills.incrementAndGet());
+				}
+			};
 		}
 
 		// Check whether optional join is "well designed" as defined in section
@@ -24,19 +24,27 @@ public class OrderQueryEvaluationStep implements QueryEvaluationStep {
 	private final long limit;
 	private final boolean reduced;
 	private final QueryEvaluationStep preparedArg;
+	private final int mergeFanIn;
 
 	public OrderQueryEvaluationStep(Comparator<BindingSet> cmp, long limit, boolean reduced,
 			QueryEvaluationStep preparedArg, long iterationCacheSyncThreshold) {
+		this(cmp, limit, reduced, preparedArg, iterationCacheSyncThreshold, OrderIterator.DEFAULT_MERGE_FAN_IN);
+	}
+
+	public OrderQueryEvaluationStep(Comparator<BindingSet> cmp, long limit, boolean reduced,
+			QueryEvaluationStep preparedArg, long iterationCacheSyncThreshold, int mergeFanIn) {
 		super();
 		this.cmp = cmp;
 		this.limit = limit;
 		this.reduced = reduced;
 		this.preparedArg = preparedArg;
 		this.iterationCacheSyncThreshold = iterationCacheSyncThreshold;
+		this.mergeFanIn = mergeFanIn;
 	}
 
 	@Override
 	public CloseableIteration<BindingSet> evaluate(BindingSet bs) {
-		return new OrderIterator(preparedArg.evaluate(bs), cmp, limit, reduced, iterationCacheSyncThreshold);
+		return new OrderIterator(preparedArg.evaluate(bs), cmp, limit, reduced, iterationCacheSyncThreshold,
+				mergeFanIn);
 	}
 }
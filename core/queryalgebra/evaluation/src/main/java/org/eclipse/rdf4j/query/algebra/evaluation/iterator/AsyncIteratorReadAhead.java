@@ -13,9 +13,9 @@ package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
 
 import java.util.ArrayDeque;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.eclipse.rdf4j.common.annotation.Experimental;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
@@ -26,25 +26,52 @@ import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.QueryEvaluationContext;
 
 /**
+ * Reads the wrapped iteration ahead on a {@link ReadAheadExecutor}. At most one read-ahead task is outstanding per
+ * iteration and the next one is only scheduled once the consumer has taken the buffer of the previous one, so a slow
+ * consumer holds back the producer.
+ * <p>
+ * Iterations that are not given a {@link ReadAheadExecutor.Scope} read ahead on a thread of their own, which is
+ * stopped when the iteration is closed.
+ *
  * @author Håvard M. Ottestad
  */
 @Experimental
 public class AsyncIteratorReadAhead extends LookAheadIteration<BindingSet> {
 
-	private final int READ_AHEAD_LIMIT = 1024 * 1024 * 16;
+	// upper bound on the number of solutions that a single read-ahead task buffers
+	private static final int READ_AHEAD_LIMIT = 1024;
 
-	private final ExecutorService executorService;
+	private final ReadAheadExecutor.Scope scope;
+	// the executor that this iteration created for itself, if it was not given a scope
+	private final ReadAheadExecutor ownExecutor;
 	private int readAhead = 4;
 
 	private final CloseableIteration<BindingSet> iteration;
 
+	// held by read-ahead tasks while they use the iteration, so that closing does not race with them
+	private final ReentrantLock iterationLock = new ReentrantLock();
+	private volatile boolean closed;
+	// guarded by iterationLock
+	private boolean iterationClosed;
+
 	private Future<ArrayDeque<BindingSet>> future;
 
 	public AsyncIteratorReadAhead(CloseableIteration<BindingSet> iteration)
 			throws QueryEvaluationException {
+		this(iteration, new ReadAheadExecutor(Executors.newSingleThreadExecutor()));
+	}
+
+	public AsyncIteratorReadAhead(CloseableIteration<BindingSet> iteration, ReadAheadExecutor.Scope scope)
+			throws QueryEvaluationException {
 		this.iteration = iteration;
-		this.executorService = Executors.newSingleThreadExecutor();
+		this.scope = scope;
+		this.ownExecutor = null;
+	}
 
+	private AsyncIteratorReadAhead(CloseableIteration<BindingSet> iteration, ReadAheadExecutor ownExecutor) {
+		this.iteration = iteration;
+		this.scope = ownExecutor.newScope(1);
+		this.ownExecutor = ownExecutor;
 	}
 
 	public static CloseableIteration<BindingSet> getInstance(QueryEvaluationStep iterationPrepared, BindingSet bindings,
@@ -57,6 +84,16 @@ public class AsyncIteratorReadAhead extends LookAheadIteration<BindingSet> {
 		return new AsyncIteratorReadAhead(iter);
 	}
 
+	public static CloseableIteration<BindingSet> getInstance(QueryEvaluationStep iterationPrepared, BindingSet bindings,
+			ReadAheadExecutor.Scope scope) {
+		CloseableIteration<BindingSet> iter = iterationPrepared.evaluate(bindings);
+		if (iter == QueryEvaluationStep.EMPTY_ITERATION) {
+			return iter;
+		}
+
+		return new AsyncIteratorReadAhead(iter, scope);
+	}
+
 	ArrayDeque<BindingSet> nextBuffer;
 	BindingSet next;
 
@@ -75,17 +112,32 @@ public class AsyncIteratorReadAhead extends LookAheadIteration<BindingSet> {
 				next = nextBuffer.removeFirst();
 				return;
 			}
-		} catch (ExecutionException | InterruptedException e) {
-			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new QueryEvaluationException(cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new QueryEvaluationException(e);
 		}
 	}
 
 	private ArrayDeque<BindingSet> async() throws ExecutionException, InterruptedException {
-		ArrayDeque<BindingSet> ret = null;
+		ArrayDeque<BindingSet> ret;
 
 		if (future != null) {
+			if (!future.isDone()) {
+				scope.stalled();
+			}
 			ret = future.get();
 			future = null;
+			if (ret == null) {
+				return null;
+			}
 		} else {
 			if (iteration.hasNext()) {
 				ret = new ArrayDeque<>(1);
@@ -107,20 +159,30 @@ public class AsyncIteratorReadAhead extends LookAheadIteration<BindingSet> {
 			buffer = new ArrayDeque<>();
 		}
 
-		future = executorService.submit(() -> {
-			int currentReadAhead = readAhead;
+		int currentReadAhead = readAhead;
+		future = scope.submit(() -> readAhead(buffer, currentReadAhead));
 
-			for (int i = 0; i < currentReadAhead && iteration.hasNext(); i++) {
+		return ret;
+	}
+
+	private ArrayDeque<BindingSet> readAhead(ArrayDeque<BindingSet> buffer, int currentReadAhead) {
+		iterationLock.lock();
+		try {
+			for (int i = 0; i < currentReadAhead && !closed && iteration.hasNext(); i++) {
 				buffer.addLast(iteration.next());
 			}
-
-			if (buffer.isEmpty()) {
-				return null;
+		} finally {
+			iterationLock.unlock();
+			if (closed) {
+				// closing did not get hold of the iteration while this task was reading from it
+				closeIteration();
 			}
-			return buffer;
-		});
+		}
 
-		return ret;
+		if (buffer.isEmpty()) {
+			return null;
+		}
+		return buffer;
 	}
 
 	@Override
@@ -133,18 +195,41 @@ public class AsyncIteratorReadAhead extends LookAheadIteration<BindingSet> {
 
 	@Override
 	protected void handleClose() throws QueryEvaluationException {
+		closed = true;
 		try {
 			if (future != null) {
+				// interrupts a read-ahead task that is waiting for the source, one that has not started yet will not
+				// run at all
 				future.cancel(true);
 			}
 		} finally {
+			future = null;
+			nextBuffer = null;
 			try {
-				executorService.shutdownNow();
+				if (ownExecutor != null) {
+					ownExecutor.shutdownNow();
+				}
 			} finally {
-				iteration.close();
+				closeIteration();
 			}
 		}
+	}
 
+	/**
+	 * Closes the source unless a read-ahead task is reading from it. In that case the task closes the source once it
+	 * is done with it.
+	 */
+	private void closeIteration() {
+		if (iterationLock.tryLock()) {
+			try {
+				if (!iterationClosed) {
+					iterationClosed = true;
+					iteration.close();
+				}
+			} finally {
+				iterationLock.unlock();
+			}
+		}
 	}
 
 }
@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Triple;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XSD;
+import org.eclipse.rdf4j.query.Binding;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+
+/**
+ * A temporary file that binding sets are spilled to, and read back from in the order in which they were added. Values
+ * are written in a compact binary form, similar to the binary query result format: binding names and datatypes are
+ * written once per file and referred to by number afterwards. Used for the sorted runs of {@link OrderIterator} and the
+ * unsorted partitions of {@link HashJoinIteration}.
+ */
+final class BindingSetSpillFile implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private static final byte IRI_VALUE = 0;
+
+	private static final byte BNODE_VALUE = 1;
+
+	private static final byte PLAIN_LITERAL_VALUE = 2;
+
+	private static final byte LANG_LITERAL_VALUE = 3;
+
+	private static final byte DATATYPE_LITERAL_VALUE = 4;
+
+	private static final byte TRIPLE_VALUE = 5;
+
+	private final File file;
+
+	private final DataOutputStream output;
+
+	private final Map<String, Integer> dictionary = new HashMap<>();
+
+	private final List<Binding> bindings = new ArrayList<>();
+
+	private DataInputStream input;
+
+	private long size;
+
+	private BindingSet last;
+
+	/**
+	 * @param prefix the prefix of the name of the temporary file
+	 */
+	BindingSetSpillFile(String prefix) throws IOException {
+		file = File.createTempFile(prefix, "");
+		try {
+			output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+		} catch (IOException e) {
+			file.delete();
+			throw e;
+		}
+	}
+
+	void add(BindingSet bindingSet) throws IOException {
+		bindings.clear();
+		for (Binding binding : bindingSet) {
+			// array binding sets return null for bindings without a value
+			if (binding != null && binding.getValue() != null) {
+				bindings.add(binding);
+			}
+		}
+
+		writeVarInt(bindings.size());
+		for (Binding binding : bindings) {
+			writeDictionaryString(binding.getName());
+			writeValue(binding.getValue());
+		}
+		last = bindingSet;
+		size++;
+	}
+
+	long size() {
+		return size;
+	}
+
+	/**
+	 * @return the binding set that was added last, or null if the file is empty
+	 */
+	BindingSet getLast() {
+		return last;
+	}
+
+	/**
+	 * Finishes writing the file and reads it back. May only be called once.
+	 */
+	Iterator<BindingSet> iterator() throws IOException {
+		output.close();
+		dictionary.clear();
+		input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+
+		return new Iterator<>() {
+
+			private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+			private final List<String> dictionary = new ArrayList<>();
+
+			private long remaining = size;
+
+			@Override
+			public boolean hasNext() {
+				return remaining > 0;
+			}
+
+			@Override
+			public BindingSet next() {
+				if (remaining <= 0) {
+					throw new NoSuchElementException();
+				}
+				try {
+					int n = readVarInt();
+					QueryBindingSet bindingSet = new QueryBindingSet(n);
+					for (int i = 0; i < n; i++) {
+						String name = readDictionaryString();
+						bindingSet.addBinding(name, readValue());
+					}
+					remaining--;
+					return bindingSet;
+				} catch (IOException e) {
+					throw new QueryEvaluationException(e);
+				}
+			}
+
+			private Value readValue() throws IOException {
+				byte type = input.readByte();
+				switch (type) {
+				case IRI_VALUE:
+					return vf.createIRI(readString());
+				case BNODE_VALUE:
+					return vf.createBNode(readString());
+				case PLAIN_LITERAL_VALUE:
+					return vf.createLiteral(readString());
+				case LANG_LITERAL_VALUE:
+					return vf.createLiteral(readString(), readDictionaryString());
+				case DATATYPE_LITERAL_VALUE:
+					String label = readString();
+					return vf.createLiteral(label, vf.createIRI(readDictionaryString()));
+				case TRIPLE_VALUE:
+					return vf.createTriple((Resource) readValue(), (IRI) readValue(), readValue());
+				default:
+					throw new IOException("Unknown value type: " + type);
+				}
+			}
+
+			private String readDictionaryString() throws IOException {
+				int id = readVarInt();
+				if (id == dictionary.size()) {
+					dictionary.add(readString());
+				}
+				return dictionary.get(id);
+			}
+		};
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			output.close();
+			if (input != null) {
+				input.close();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	private void writeValue(Value value) throws IOException {
+		if (value.isIRI()) {
+			output.writeByte(IRI_VALUE);
+			writeString(value.stringValue());
+		} else if (value.isBNode()) {
+			output.writeByte(BNODE_VALUE);
+			writeString(((BNode) value).getID());
+		} else if (value.isLiteral()) {
+			Literal literal = (Literal) value;
+			Optional<String> language = literal.getLanguage();
+			if (language.isPresent()) {
+				output.writeByte(LANG_LITERAL_VALUE);
+				writeString(literal.getLabel());
+				writeDictionaryString(language.get());
+			} else if (XSD.STRING.equals(literal.getDatatype())) {
+				output.writeByte(PLAIN_LITERAL_VALUE);
+				writeString(literal.getLabel());
+			} else {
+				output.writeByte(DATATYPE_LITERAL_VALUE);
+				writeString(literal.getLabel());
+				writeDictionaryString(literal.getDatatype().stringValue());
+			}
+		} else if (value.isTriple()) {
+			Triple triple = (Triple) value;
+			output.writeByte(TRIPLE_VALUE);
+			writeValue(triple.getSubject());
+			writeValue(triple.getPredicate());
+			writeValue(triple.getObject());
+		} else {
+			throw new IOException("Unsupported value: " + value);
+		}
+	}
+
+	private void writeDictionaryString(String s) throws IOException {
+		Integer id = dictionary.get(s);
+		if (id != null) {
+			writeVarInt(id);
+		} else {
+			id = dictionary.size();
+			dictionary.put(s, id);
+			writeVarInt(id);
+			writeString(s);
+		}
+	}
+
+	private void writeString(String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private String readString() throws IOException {
+		byte[] bytes = new byte[readVarInt()];
+		input.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private void writeVarInt(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			output.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		output.writeByte(value);
+	}
+
+	private int readVarInt() throws IOException {
+		int value = 0;
+		for (int shift = 0;; shift += 7) {
+			byte b = input.readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+	}
+}
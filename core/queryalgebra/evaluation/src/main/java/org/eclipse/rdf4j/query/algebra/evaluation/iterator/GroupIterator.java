@@ -16,8 +16,20 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -42,18 +54,37 @@ import org.eclipse.rdf4j.query.MutableBindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.algebra.AggregateFunctionCall;
 import org.eclipse.rdf4j.query.algebra.AggregateOperator;
+import org.eclipse.rdf4j.query.algebra.And;
 import org.eclipse.rdf4j.query.algebra.Avg;
+import org.eclipse.rdf4j.query.algebra.Bound;
+import org.eclipse.rdf4j.query.algebra.Coalesce;
+import org.eclipse.rdf4j.query.algebra.Compare;
 import org.eclipse.rdf4j.query.algebra.Count;
+import org.eclipse.rdf4j.query.algebra.Datatype;
 import org.eclipse.rdf4j.query.algebra.Group;
 import org.eclipse.rdf4j.query.algebra.GroupConcat;
 import org.eclipse.rdf4j.query.algebra.GroupElem;
+import org.eclipse.rdf4j.query.algebra.If;
+import org.eclipse.rdf4j.query.algebra.IsBNode;
+import org.eclipse.rdf4j.query.algebra.IsLiteral;
+import org.eclipse.rdf4j.query.algebra.IsNumeric;
+import org.eclipse.rdf4j.query.algebra.IsURI;
+import org.eclipse.rdf4j.query.algebra.Lang;
+import org.eclipse.rdf4j.query.algebra.MathExpr;
 import org.eclipse.rdf4j.query.algebra.MathExpr.MathOp;
 import org.eclipse.rdf4j.query.algebra.Max;
 import org.eclipse.rdf4j.query.algebra.Min;
+import org.eclipse.rdf4j.query.algebra.Not;
+import org.eclipse.rdf4j.query.algebra.Or;
+import org.eclipse.rdf4j.query.algebra.QueryModelNode;
+import org.eclipse.rdf4j.query.algebra.SameTerm;
 import org.eclipse.rdf4j.query.algebra.Sample;
+import org.eclipse.rdf4j.query.algebra.Str;
 import org.eclipse.rdf4j.query.algebra.Sum;
 import org.eclipse.rdf4j.query.algebra.UnaryValueOperator;
+import org.eclipse.rdf4j.query.algebra.ValueConstant;
 import org.eclipse.rdf4j.query.algebra.ValueExpr;
+import org.eclipse.rdf4j.query.algebra.Var;
 import org.eclipse.rdf4j.query.algebra.evaluation.EvaluationStrategy;
 import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
 import org.eclipse.rdf4j.query.algebra.evaluation.QueryValueEvaluationStep;
@@ -61,6 +92,7 @@ import org.eclipse.rdf4j.query.algebra.evaluation.ValueExprEvaluationException;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.QueryEvaluationContext;
 import org.eclipse.rdf4j.query.algebra.evaluation.util.MathUtil;
 import org.eclipse.rdf4j.query.algebra.evaluation.util.ValueComparator;
+import org.eclipse.rdf4j.query.algebra.helpers.AbstractQueryModelVisitor;
 import org.eclipse.rdf4j.query.impl.EmptyBindingSet;
 import org.eclipse.rdf4j.query.parser.sparql.aggregate.AggregateCollector;
 import org.eclipse.rdf4j.query.parser.sparql.aggregate.AggregateFunction;
@@ -80,6 +112,14 @@ public class GroupIterator extends AbstractCloseableIteratorIteration<BindingSet
 	 * Constants *
 	 *-----------*/
 
+	// number of solutions per partition that are handed to the executor at once
+	private static final int PARALLEL_BATCH_SIZE = 1024;
+
+	// number of batches per partition that may wait for aggregation before reading the solutions is held up
+	private static final int MAX_QUEUED_BATCHES_PER_PARTITION = 4;
+
+	private static volatile ExecutorService sharedExecutor;
+
 	private final EvaluationStrategy strategy;
 
 	private final BindingSet parentBindings;
@@ -97,6 +137,15 @@ public class GroupIterator extends AbstractCloseableIteratorIteration<BindingSet
 
 	private final CollectionFactory cf;
 
+	private final int parallelism;
+
+	private final ExecutorService executor;
+
+	// the aggregation that is in progress, its tasks are cancelled when the iterator is closed
+	private volatile ParallelAggregation parallelAggregation;
+
+	private volatile boolean cancelled;
+
 	/*--------------*
 	 * Constructors *
 	 *--------------*/
@@ -106,6 +155,18 @@ public class GroupIterator extends AbstractCloseableIteratorIteration<BindingSet
 		this(strategy, group, parentBindings, 0, context);
 	}
 
+	/**
+	 * @param parallelism the number of partitions that the solutions are hash partitioned into by their group key, and
+	 *                    that are aggregated in parallel. Values lower than 2 disable parallel aggregation.
+	 * @param executor    the executor that the partitions are aggregated on, see {@link #createExecutor(int)}
+	 */
+	public GroupIterator(EvaluationStrategy strategy, Group group, BindingSet parentBindings,
+			QueryEvaluationContext context, int parallelism, ExecutorService executor)
+			throws QueryEvaluationException {
+		this(strategy, group, parentBindings, 0, context, SimpleValueFactory.getInstance(),
+				new DefaultCollectionFactory(), parallelism, executor);
+	}
+
 	@Deprecated
 	public GroupIterator(EvaluationStrategy strategy, Group group, BindingSet parentBindings,
 			long iterationCacheSyncThreshold, QueryEvaluationContext context) throws QueryEvaluationException {
@@ -116,6 +177,12 @@ public class GroupIterator extends AbstractCloseableIteratorIteration<BindingSet
 	public GroupIterator(EvaluationStrategy strategy, Group group, BindingSet parentBindings,
 			long iterationCacheSyncThreshold, QueryEvaluationContext context, ValueFactory vf, CollectionFactory cf)
 			throws QueryEvaluationException {
+		this(strategy, group, parentBindings, iterationCacheSyncThreshold, context, vf, cf, 0, null);
+	}
+
+	public GroupIterator(EvaluationStrategy strategy, Group group, BindingSet parentBindings,
+			long iterationCacheSyncThreshold, QueryEvaluationContext context, ValueFactory vf, CollectionFactory cf,
+			int parallelism, ExecutorService executor) throws QueryEvaluationException {
 		this.strategy = strategy;
 		this.group = group;
 		this.parentBindings = parentBindings;
@@ -124,6 +191,8 @@ public class GroupIterator extends AbstractCloseableIteratorIteration<BindingSet
 		this.context = context;
 		this.vf = vf;
 		this.cf = cf;
+		this.parallelism = parallelism;
+		this.executor = executor;
 		this.arguments = strategy.precompile(group.getArg(), context);
 	}
 
@@ -131,8 +200,50 @@ public class GroupIterator extends AbstractCloseableIteratorIteration<BindingSet
 	 * Methods *
 	 *---------*/
 
+	/**
+	 * Create an executor for parallel aggregation. The executor runs at most <var>threads</var> tasks at the same time
+	 * on daemon threads, which are stopped when they have been idle for a minute.
+	 *
+	 * @param threads the maximum number of threads
+	 * @return a new executor
+	 */
+	public static ExecutorService createExecutor(int threads) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), r -> {
+					Thread t = Executors.defaultThreadFactory().newThread(r);
+					t.setDaemon(true);
+					t.setName("rdf4j-group-by-" + t.getId());
+					return t;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * @return the executor that is shared by all queries that do not supply their own executor for parallel
+	 *         aggregation, with one thread per available processor
+	 */
+	public static ExecutorService getSharedExecutor() {
+		ExecutorService result = sharedExecutor;
+		if (result == null) {
+			synchronized (GroupIterator.class) {
+				result = sharedExecutor;
+				if (result == null) {
+					sharedExecutor = result = createExecutor(Runtime.getRuntime().availableProcessors());
+				}
+			}
+		}
+		return result;
+	}
+
 	@Override
 	public void handleClose() throws QueryEvaluationException {
+		// stop the aggregation tasks, the thread that waits for them notices that this iterator has been closed
+		cancelled = true;
+		ParallelAggregation aggregation = parallelAggregation;
+		if (aggregation != null) {
+			aggregation.cancel();
+		}
 		try {
 			cf.close();
 		} finally {
@@ -278,34 +389,252 @@ public class GroupIterator extends AbstractCloseableIteratorIteration<BindingSet
 					.map(n -> context.getValue(n))
 					.collect(Collectors.toList());
 
+			// Make an optimized hash function valid during this query evaluation step.
+			ToIntFunction<BindingSet> hashMaker = cf.hashOfBindingSetFuntion(getValues);
+
+			if (isParallelizable()) {
+				return buildEntriesInParallel(iter, aggregates, getValues, hashMaker);
+			}
+
 			// TODO: this is an in memory map with no backing into any disk form.
 			// Fixing this requires separating the computation of the aggregates and their
 			// distinct sets if needed from the intermediary values.
 
 			Map<BindingSetKey, Entry> entries = cf.createGroupByMap();
-			// Make an optimized hash function valid during this query evaluation step.
-			ToIntFunction<BindingSet> hashMaker = cf.hashOfBindingSetFuntion(getValues);
 			while (!isClosed() && iter.hasNext()) {
-				BindingSet sol = iter.next();
-				// The binding set key will be constant
-				BindingSetKey key = cf.createBindingSetKey(sol, getValues, hashMaker);
-				Entry entry = entries.get(key);
-				if (entry == null) {
-					List<AggregateCollector> collectors = makeCollectors(aggregates);
-					List<Predicate<?>> predicates = new ArrayList<>(aggregates.size());
-					for (AggregatePredicateCollectorSupplier<?, ?> a : aggregates) {
-						predicates.add(a.makePotentialDistinctTest.get());
+				addSolution(entries, iter.next(), aggregates, getValues, hashMaker);
+			}
+			return entries.values();
+		} finally {
+			this.argumentsIter = null;
+		}
+	}
+
+	private void addSolution(Map<BindingSetKey, Entry> entries, BindingSet sol,
+			List<AggregatePredicateCollectorSupplier<?, ?>> aggregates, List<Function<BindingSet, Value>> getValues,
+			ToIntFunction<BindingSet> hashMaker) {
+		// The binding set key will be constant
+		BindingSetKey key = cf.createBindingSetKey(sol, getValues, hashMaker);
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			List<AggregateCollector> collectors = makeCollectors(aggregates);
+			List<Predicate<?>> predicates = new ArrayList<>(aggregates.size());
+			for (AggregatePredicateCollectorSupplier<?, ?> a : aggregates) {
+				predicates.add(a.makePotentialDistinctTest.get());
+			}
+
+			entry = new Entry(sol, collectors, predicates);
+			entries.put(key, entry);
+		}
+
+		entry.addSolution(sol, aggregates);
+	}
+
+	/**
+	 * Parallel aggregation partitions the solutions by their group key, so that every group is aggregated by a single
+	 * task and no partial results need to be merged. This is only possible when there is a group key to partition on,
+	 * when the collections are in memory and when every aggregate is a built-in aggregate that does not depend on the
+	 * order of the solutions. The arguments of the aggregates are evaluated concurrently, so they may only consist of
+	 * operators that are known to be stateless. Function calls, which include custom functions and functions like
+	 * RAND() and BNODE(), keep the aggregation sequential.
+	 */
+	private boolean isParallelizable() {
+		if (parallelism < 2 || executor == null || group.getGroupBindingNames().isEmpty()
+				|| !(cf instanceof DefaultCollectionFactory) || vf != SimpleValueFactory.getInstance()) {
+			return false;
+		}
+		for (GroupElem ge : group.getGroupElements()) {
+			AggregateOperator operator = ge.getOperator();
+			boolean builtIn = operator instanceof Count || operator instanceof Min || operator instanceof Max
+					|| operator instanceof Sum || operator instanceof Avg || operator instanceof Sample
+					|| operator instanceof GroupConcat && operator.isDistinct();
+			if (!builtIn) {
+				return false;
+			}
+			ValueExpr arg = ((UnaryValueOperator) operator).getArg();
+			if (arg != null && !StatelessExpressionChecker.isStateless(arg)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Collection<Entry> buildEntriesInParallel(CloseableIteration<BindingSet> iter,
+			List<AggregatePredicateCollectorSupplier<?, ?>> aggregates, List<Function<BindingSet, Value>> getValues,
+			ToIntFunction<BindingSet> hashMaker) throws QueryEvaluationException {
+		ParallelAggregation aggregation = new ParallelAggregation(aggregates, getValues, hashMaker);
+		parallelAggregation = aggregation;
+		try {
+			while (!cancelled && iter.hasNext()) {
+				aggregation.add(iter.next());
+			}
+			return aggregation.finish();
+		} catch (InterruptedException e) {
+			aggregation.cancel();
+			Thread.currentThread().interrupt();
+			throw new QueryEvaluationException(e);
+		} catch (RuntimeException | Error e) {
+			aggregation.cancel();
+			throw e;
+		} finally {
+			parallelAggregation = null;
+		}
+	}
+
+	/**
+	 * Aggregates the partitions on the executor while the solutions are still being read. The batches of a partition
+	 * are aggregated in order by at most one task at a time, so the entries of a partition need no synchronization. The
+	 * thread that reads the solutions only waits when too many batches are queued, and for the remaining batches once
+	 * all solutions have been read.
+	 */
+	private final class ParallelAggregation {
+
+		private final List<AggregatePredicateCollectorSupplier<?, ?>> aggregates;
+
+		private final List<Function<BindingSet, Value>> getValues;
+
+		private final ToIntFunction<BindingSet> hashMaker;
+
+		private final List<Partition> partitions = new ArrayList<>(parallelism);
+
+		// the batches that have been handed off but not yet aggregated
+		private final Semaphore queuedBatches = new Semaphore(parallelism * MAX_QUEUED_BATCHES_PER_PARTITION);
+
+		private volatile Throwable failure;
+
+		ParallelAggregation(List<AggregatePredicateCollectorSupplier<?, ?>> aggregates,
+				List<Function<BindingSet, Value>> getValues, ToIntFunction<BindingSet> hashMaker) {
+			this.aggregates = aggregates;
+			this.getValues = getValues;
+			this.hashMaker = hashMaker;
+			for (int i = 0; i < parallelism; i++) {
+				partitions.add(new Partition(cf.createGroupByMap()));
+			}
+		}
+
+		void add(BindingSet sol) throws InterruptedException {
+			Partition partition = partitions.get(Math.floorMod(hashMaker.applyAsInt(sol), parallelism));
+			partition.batch.add(sol);
+			if (partition.batch.size() == PARALLEL_BATCH_SIZE) {
+				handOff(partition);
+			}
+		}
+
+		Collection<Entry> finish() throws InterruptedException {
+			for (Partition partition : partitions) {
+				if (!partition.batch.isEmpty()) {
+					handOff(partition);
+				}
+			}
+			try {
+				for (Partition partition : partitions) {
+					Future<?> task = partition.task;
+					if (task != null) {
+						task.get();
 					}
+				}
+			} catch (CancellationException e) {
+				// the iterator has been closed, there are no results to wait for
+			} catch (ExecutionException e) {
+				failure = e.getCause();
+			}
+			throwFailure();
+
+			List<Entry> entries = new ArrayList<>();
+			for (Partition partition : partitions) {
+				entries.addAll(partition.entries.values());
+			}
+			return entries;
+		}
 
-					entry = new Entry(sol, collectors, predicates);
-					entries.put(key, entry);
+		void cancel() {
+			for (Partition partition : partitions) {
+				Future<?> task = partition.task;
+				if (task != null) {
+					task.cancel(true);
 				}
+			}
+		}
 
-				entry.addSolution(sol, aggregates);
+		private void handOff(Partition partition) throws InterruptedException {
+			List<BindingSet> batch = partition.batch;
+			partition.batch = new ArrayList<>(PARALLEL_BATCH_SIZE);
+			// back-pressure, the iterator may be closed or a task may fail while waiting
+			while (!queuedBatches.tryAcquire(10, TimeUnit.MILLISECONDS)) {
+				if (cancelled) {
+					return;
+				}
+				throwFailure();
 			}
-			return entries.values();
-		} finally {
-			this.argumentsIter = null;
+			partition.queue.add(batch);
+			if (partition.scheduled.compareAndSet(false, true)) {
+				partition.task = executor.submit(() -> drain(partition));
+			}
+			throwFailure();
+		}
+
+		private void drain(Partition partition) {
+			do {
+				List<BindingSet> batch;
+				while ((batch = partition.queue.poll()) != null) {
+					try {
+						aggregate(partition, batch);
+					} catch (Throwable t) {
+						if (failure == null) {
+							failure = t;
+						}
+					} finally {
+						queuedBatches.release();
+					}
+				}
+				partition.scheduled.set(false);
+				// a batch may have been queued after the queue was found empty, but before the flag was cleared
+			} while (!partition.queue.isEmpty() && partition.scheduled.compareAndSet(false, true));
+		}
+
+		private void aggregate(Partition partition, List<BindingSet> batch) {
+			for (BindingSet sol : batch) {
+				if (cancelled || failure != null || Thread.currentThread().isInterrupted()) {
+					// the iterator has been closed or the results are lost anyway
+					return;
+				}
+				addSolution(partition.entries, sol, aggregates, getValues, hashMaker);
+			}
+		}
+
+		private void throwFailure() {
+			Throwable t = failure;
+			if (t == null) {
+				return;
+			}
+			cancel();
+			if (t instanceof RuntimeException) {
+				throw (RuntimeException) t;
+			} else if (t instanceof Error) {
+				throw (Error) t;
+			}
+			throw new QueryEvaluationException(t);
+		}
+	}
+
+	private static final class Partition {
+
+		private final Map<BindingSetKey, Entry> entries;
+
+		// the batch that the reading thread is filling
+		private List<BindingSet> batch = new ArrayList<>(PARALLEL_BATCH_SIZE);
+
+		// batches that have been handed off, in the order of the solutions
+		private final Queue<List<BindingSet>> queue = new ConcurrentLinkedQueue<>();
+
+		// whether a task is draining the queue
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		// the most recently submitted task, which aggregates every batch that its predecessors left in the queue
+		private volatile Future<?> task;
+
+		Partition(Map<BindingSetKey, Entry> entries) {
+			this.entries = entries;
 		}
 	}
 
@@ -827,6 +1156,121 @@ public class GroupIterator extends AbstractCloseableIteratorIteration<BindingSet
 		}
 	}
 
+	/**
+	 * Checks that a value expression only consists of operators that are evaluated without state, so that it can be
+	 * evaluated by several threads at the same time.
+	 */
+	private static class StatelessExpressionChecker extends AbstractQueryModelVisitor<RuntimeException> {
+
+		private boolean stateless = true;
+
+		static boolean isStateless(ValueExpr expr) {
+			StatelessExpressionChecker checker = new StatelessExpressionChecker();
+			expr.visit(checker);
+			return checker.stateless;
+		}
+
+		@Override
+		protected void meetNode(QueryModelNode node) {
+			// function calls, subqueries and any operator that is not listed here
+			stateless = false;
+		}
+
+		private void meetStateless(QueryModelNode node) {
+			node.visitChildren(this);
+		}
+
+		@Override
+		public void meet(Var node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(ValueConstant node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(Bound node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(Str node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(Lang node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(Datatype node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(IsURI node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(IsBNode node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(IsLiteral node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(IsNumeric node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(SameTerm node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(Compare node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(MathExpr node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(And node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(Or node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(Not node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(If node) {
+			meetStateless(node);
+		}
+
+		@Override
+		public void meet(Coalesce node) {
+			meetStateless(node);
+		}
+	}
+
 	private static class QueryStepEvaluator implements Function<BindingSet, Value> {
 		private final QueryValueEvaluationStep evaluationStep;
 
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -36,13 +37,28 @@ import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.QueryEvaluationContext;
 import org.eclipse.rdf4j.query.impl.EmptyBindingSet;
 
+import com.google.common.collect.Iterators;
+
 /**
  * Generic hash join implementation suitable for use by Sail implementations.
+ * <p>
+ * If an iteration cache sync threshold is configured on the {@link QueryEvaluationContext} and the build side of the
+ * join grows beyond it, both sides are partitioned on the hash of their join attributes into temporary files. The
+ * partitions are then joined one at a time, so that only a single partition of the build side needs to be kept in
+ * memory (grace hash join).
+ * <p>
+ * The threshold is a number of solutions, not an amount of memory: the size of the solutions is not taken into
+ * account, so a join over solutions with many or long values uses more memory before it spills than one over small
+ * solutions. A single partition that exceeds the threshold is still joined in memory.
  *
  * @author MJAHale
  */
 public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 
+	private static final int PARTITION_BITS = 5;
+
+	private static final int PARTITIONS = 1 << PARTITION_BITS;
+
 	protected final String[] joinAttributes;
 	private final CloseableIteration<BindingSet> leftIter;
 	private final CloseableIteration<BindingSet> rightIter;
@@ -59,6 +75,20 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 	private final IntFunction<List<BindingSet>> mapValueMaker;
 	private final Function<BindingSet, MutableBindingSet> bsMaker;
 
+	/**
+	 * Number of solutions of the build side that are kept in memory before both sides are partitioned to disk. If set
+	 * to 0, no disk-syncing is done and the whole build side is kept in memory.
+	 */
+	private final long iterationCacheSyncThreshold;
+
+	private BindingSetSpillFile[] leftPartitions;
+	private BindingSetSpillFile[] rightPartitions;
+	private long leftEmptyCount;
+	private long rightEmptyCount;
+	private boolean buildLeft;
+	private int partition = -1;
+	private BindingSetSpillFile probePartition;
+
 	/*--------------*
 	 * Constructors *
 	 *--------------*/
@@ -74,6 +104,7 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 		this.mapMaker = this::makeHashTable;
 		this.mapValueMaker = this::makeHashValue;
 		this.bsMaker = context::createBindingSet;
+		this.iterationCacheSyncThreshold = context.getIterationCacheSyncThreshold();
 	}
 
 	@Deprecated(since = "5.0.0", forRemoval = true) // there are still some tests that use this constructor
@@ -91,6 +122,7 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 		this.leftJoin = leftJoin;
 		this.mapValueMaker = this::makeHashValue;
 		this.bsMaker = QueryBindingSet::new;
+		this.iterationCacheSyncThreshold = 0;
 	}
 
 	/*---------*
@@ -114,6 +146,15 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 
 				if (restIter.hasNext()) {
 					currentScanElem = restIter.next();
+				} else if (leftPartitions != null) {
+					// move on to the next spilled partition, if any
+					disposeHashTable(nextHashTable);
+					nextHashTable = hashTable = nextPartition();
+					if (nextHashTable == null) {
+						// no more elements available
+						return null;
+					}
+					continue;
 				} else {
 					// no more elements available
 					return null;
@@ -201,10 +242,14 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 							disposeCache(toCloseScanList);
 						}
 					} finally {
-						Map<BindingSetHashKey, List<BindingSet>> toCloseHashTable = hashTable;
-						hashTable = null;
-						if (toCloseHashTable != null) {
-							disposeHashTable(toCloseHashTable);
+						try {
+							Map<BindingSetHashKey, List<BindingSet>> toCloseHashTable = hashTable;
+							hashTable = null;
+							if (toCloseHashTable != null) {
+								disposeHashTable(toCloseHashTable);
+							}
+						} finally {
+							closePartitions();
 						}
 					}
 				}
@@ -222,12 +267,19 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 			while (leftIter.hasNext() && rightIter.hasNext()) {
 				add(leftArgResults, leftIter.next());
 				add(rightArgResults, rightIter.next());
+				if (exceedsThreshold(rightArgResults)) {
+					// both sides are larger than the threshold, so the build side will be as well
+					return spill(leftArgResults, rightArgResults);
+				}
 			}
 		} else {
 			leftArgResults = Collections.emptyList();
 
 			while (rightIter.hasNext()) {
 				add(rightArgResults, rightIter.next());
+				if (exceedsThreshold(rightArgResults)) {
+					return spill(leftArgResults, rightArgResults);
+				}
 			}
 		}
 
@@ -247,6 +299,11 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 		leftArgResults = null;
 		rightArgResults = null;
 
+		return buildHashTable(smallestResult);
+	}
+
+	private Map<BindingSetHashKey, List<BindingSet>> buildHashTable(Collection<BindingSet> smallestResult)
+			throws QueryEvaluationException {
 		// create the hash table for our join
 		// hash table will never be any bigger than smallestResult.size()
 		Map<BindingSetHashKey, List<BindingSet>> resultHashTable = mapMaker.apply(smallestResult.size());
@@ -269,6 +326,188 @@ public class HashJoinIteration extends LookAheadIteration<BindingSet> {
 		return resultHashTable;
 	}
 
+	private boolean exceedsThreshold(Collection<BindingSet> buildSide) {
+		// without join attributes all solutions share the same key and can not be partitioned
+		return iterationCacheSyncThreshold > 0 && joinAttributes.length > 0
+				&& buildSide.size() > iterationCacheSyncThreshold;
+	}
+
+	/**
+	 * Partitions the solutions read so far and the remainder of both arguments to disk, and prepares the hash table
+	 * of the first partition.
+	 */
+	private Map<BindingSetHashKey, List<BindingSet>> spill(Collection<BindingSet> leftArgResults,
+			Collection<BindingSet> rightArgResults) throws QueryEvaluationException {
+		leftPartitions = new BindingSetSpillFile[PARTITIONS];
+		rightPartitions = new BindingSetSpillFile[PARTITIONS];
+		try {
+			long leftSize = leftArgResults.size();
+			long rightSize = rightArgResults.size();
+			for (BindingSet b : leftArgResults) {
+				leftEmptyCount += addToPartition(leftPartitions, b);
+			}
+			for (BindingSet b : rightArgResults) {
+				rightEmptyCount += addToPartition(rightPartitions, b);
+			}
+			// help free memory before reading the rest of the arguments
+			leftArgResults = null;
+			rightArgResults = null;
+
+			while (leftIter.hasNext()) {
+				leftEmptyCount += addToPartition(leftPartitions, leftIter.next());
+				leftSize++;
+			}
+			while (rightIter.hasNext()) {
+				rightEmptyCount += addToPartition(rightPartitions, rightIter.next());
+				rightSize++;
+			}
+
+			// the left argument must be scanned for a left join, otherwise we build on the smallest relation
+			buildLeft = !leftJoin && leftSize <= rightSize;
+		} catch (IOException e) {
+			throw new QueryEvaluationException(e);
+		}
+
+		spilled(PARTITIONS);
+
+		// the arguments are exhausted, the partitions are scanned instead
+		restIter = leftIter;
+		Map<BindingSetHashKey, List<BindingSet>> first = nextPartition();
+		if (first == null) {
+			scanList = Collections.emptyIterator();
+			return Collections.emptyMap();
+		}
+		return first;
+	}
+
+	/**
+	 * Writes a solution to the partition of its join key. The empty binding set is not partitioned, as it is
+	 * compatible with every key, but only counted.
+	 *
+	 * @return 1 if the binding set is the empty binding set, 0 otherwise
+	 */
+	private int addToPartition(BindingSetSpillFile[] partitions, BindingSet b) throws IOException {
+		if (b instanceof EmptyBindingSet) {
+			return 1;
+		}
+		int index = partitionOf(BindingSetHashKey.create(joinAttributes, b));
+		BindingSetSpillFile file = partitions[index];
+		if (file == null) {
+			file = partitions[index] = new BindingSetSpillFile("hashjoin");
+		}
+		file.add(b);
+		return 0;
+	}
+
+	private static int partitionOf(BindingSetHashKey key) {
+		// spread the hash so that the hash tables of the partitions don't all share the same low bits
+		return (key.hashCode() * 0x9E3779B9) >>> (Integer.SIZE - PARTITION_BITS);
+	}
+
+	/**
+	 * Loads the build side of the next partition into a hash table and sets up the scan of its probe side.
+	 *
+	 * @return the hash table, or null if all partitions have been joined
+	 */
+	private Map<BindingSetHashKey, List<BindingSet>> nextPartition() throws QueryEvaluationException {
+		closeProbePartition();
+		BindingSetSpillFile[] buildPartitions = buildLeft ? leftPartitions : rightPartitions;
+		BindingSetSpillFile[] probePartitions = buildLeft ? rightPartitions : leftPartitions;
+		long buildEmptyCount = buildLeft ? leftEmptyCount : rightEmptyCount;
+		long probeEmptyCount = buildLeft ? rightEmptyCount : leftEmptyCount;
+		int emptyKeyPartition = partitionOf(BindingSetHashKey.create(joinAttributes, EmptyBindingSet.getInstance()));
+
+		while (++partition < PARTITIONS) {
+			BindingSetSpillFile build = buildPartitions[partition];
+			buildPartitions[partition] = null;
+			BindingSetSpillFile probe = probePartitions[partition];
+			probePartitions[partition] = null;
+			long buildEmpties = partition == emptyKeyPartition ? buildEmptyCount : 0;
+
+			try {
+				boolean noBuild = build == null && buildEmpties == 0;
+				boolean noProbe = probe == null && probeEmptyCount == 0;
+				if (noProbe || noBuild && !leftJoin) {
+					// this partition can not produce any results
+					closePartition(probe);
+					continue;
+				}
+
+				List<BindingSet> buildSide = new ArrayList<>(build != null ? (int) build.size() : 0);
+				if (build != null) {
+					build.iterator().forEachRemaining(buildSide::add);
+				}
+				for (long i = 0; i < buildEmpties; i++) {
+					buildSide.add(EmptyBindingSet.getInstance());
+				}
+
+				// the empty binding set needs to be merged with the build side of every partition
+				Iterator<BindingSet> emptyScans = Iterators.limit(
+						Iterators.<BindingSet>cycle(EmptyBindingSet.getInstance()),
+						(int) Math.min(probeEmptyCount, Integer.MAX_VALUE));
+				probePartition = probe;
+				scanList = probe != null ? Iterators.concat(emptyScans, probe.iterator()) : emptyScans;
+
+				return buildHashTable(buildSide);
+			} catch (IOException e) {
+				throw new QueryEvaluationException(e);
+			} finally {
+				closePartition(build);
+			}
+		}
+		return null;
+	}
+
+	private void closeProbePartition() throws QueryEvaluationException {
+		BindingSetSpillFile toClose = probePartition;
+		probePartition = null;
+		closePartition(toClose);
+	}
+
+	private void closePartitions() throws QueryEvaluationException {
+		try {
+			closeProbePartition();
+		} finally {
+			QueryEvaluationException exception = null;
+			for (BindingSetSpillFile[] partitions : new BindingSetSpillFile[][] { leftPartitions, rightPartitions }) {
+				if (partitions == null) {
+					continue;
+				}
+				for (int i = 0; i < partitions.length; i++) {
+					try {
+						closePartition(partitions[i]);
+					} catch (QueryEvaluationException e) {
+						exception = e;
+					}
+					partitions[i] = null;
+				}
+			}
+			if (exception != null) {
+				throw exception;
+			}
+		}
+	}
+
+	private static void closePartition(BindingSetSpillFile file) throws QueryEvaluationException {
+		if (file != null) {
+			try {
+				file.close();
+			} catch (IOException e) {
+				throw new QueryEvaluationException(e);
+			}
+		}
+	}
+
+	/**
+	 * Called when the join exceeded the iteration cache sync threshold and both arguments have been partitioned to
+	 * disk.
+	 *
+	 * @param partitions the number of partitions the arguments have been split into
+	 */
+	protected void spilled(int partitions) {
+		// give subclasses a chance to report the spill
+	}
+
 	protected void putHashTableEntry(Map<BindingSetHashKey, List<BindingSet>> nextHashTable, BindingSetHashKey hashKey,
 			List<BindingSet> hashValue, boolean newEntry) throws QueryEvaluationException {
 		// by default, we use a standard memory hash map
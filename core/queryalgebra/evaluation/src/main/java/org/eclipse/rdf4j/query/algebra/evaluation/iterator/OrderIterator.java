@@ -10,24 +10,18 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
 
-import java.io.Closeable;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.Serializable;
-import java.util.AbstractQueue;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.TreeMap;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
@@ -39,12 +33,22 @@ import org.eclipse.rdf4j.query.QueryEvaluationException;
 
 /**
  * Sorts the input and optionally applies limit and distinct.
+ * <p>
+ * If the limit fits in the number of solutions that may be kept in memory, the smallest solutions are kept in a
+ * bounded heap. Otherwise the input is sorted with an external merge sort: whenever the number of solutions in memory
+ * reaches the iteration sync threshold, they are sorted and written to disk as a run. Runs are merged
+ * <var>mergeFanIn</var> at a time until few enough remain to be merged while the results are read.
  *
  * @author James Leigh
  * @author Arjohn Kampman
  */
 public class OrderIterator extends DelayedIteration<BindingSet> {
 
+	/**
+	 * The default number of sorted runs that are merged at a time.
+	 */
+	public static final int DEFAULT_MERGE_FAN_IN = 64;
+
 	/*-----------*
 	 * Variables *
 	 *-----------*/
@@ -57,14 +61,20 @@ public class OrderIterator extends DelayedIteration<BindingSet> {
 
 	private final boolean distinct;
 
-	private final List<SerializedQueue<BindingSet>> serialized = new LinkedList<>();
-
 	/**
 	 * Number of items cached before internal collection is synced to disk. If set to 0, no disk-syncing is done and all
 	 * internal caching is kept in memory.
 	 */
 	private final long iterationSyncThreshold;
 
+	private final int mergeFanIn;
+
+	/**
+	 * The sorted runs on disk, by the number of merges they went through. All runs of a level hold solutions that came
+	 * before those of the runs of lower levels.
+	 */
+	private final List<List<BindingSetSpillFile>> levels = new ArrayList<>();
+
 	/*--------------*
 	 * Constructors *
 	 *--------------*/
@@ -80,11 +90,21 @@ public class OrderIterator extends DelayedIteration<BindingSet> {
 
 	public OrderIterator(CloseableIteration<BindingSet> iter, Comparator<BindingSet> comparator, long limit,
 			boolean distinct, long iterationSyncThreshold) {
+		this(iter, comparator, limit, distinct, iterationSyncThreshold, DEFAULT_MERGE_FAN_IN);
+	}
+
+	/**
+	 * @param mergeFanIn the number of sorted runs that are merged at a time, at least 2
+	 */
+	public OrderIterator(CloseableIteration<BindingSet> iter, Comparator<BindingSet> comparator, long limit,
+			boolean distinct, long iterationSyncThreshold, int mergeFanIn) {
+		assert mergeFanIn >= 2;
 		this.iter = iter;
 		this.comparator = comparator;
 		this.limit = limit;
 		this.distinct = distinct;
 		this.iterationSyncThreshold = iterationSyncThreshold > 0 ? iterationSyncThreshold : Integer.MAX_VALUE;
+		this.mergeFanIn = mergeFanIn;
 	}
 
 	/*---------*
@@ -93,36 +113,13 @@ public class OrderIterator extends DelayedIteration<BindingSet> {
 
 	@Override
 	protected CloseableIteration<BindingSet> createIteration() throws QueryEvaluationException {
-		BindingSet threshold = null;
-		List<BindingSet> list = new LinkedList<>();
-		int limit2 = limit >= Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : (int) limit * 2;
 		int syncThreshold = (int) Math.min(iterationSyncThreshold, Integer.MAX_VALUE);
+		Iterator<BindingSet> iterator;
 		try {
-			while (iter.hasNext()) {
-				if (list.size() >= syncThreshold && list.size() < limit) {
-					SerializedQueue<BindingSet> queue = new SerializedQueue<>("orderiter");
-					sort(list).forEach(queue::add);
-					serialized.add(queue);
-					decrement(list.size() - queue.size());
-					list = new ArrayList<>(list.size());
-					if (threshold == null && serialized.stream().mapToLong(SerializedQueue::size).sum() >= limit) {
-						Stream<BindingSet> stream = serialized.stream().map(SerializedQueue::peekLast);
-						threshold = stream.sorted(comparator).skip(serialized.size() - 1).findFirst().orElseThrow();
-					}
-				} else if (list.size() >= limit2 || !distinct && threshold == null && list.size() >= limit) {
-					List<BindingSet> sorted = new ArrayList<>(limit2);
-					sort(list).forEach(sorted::add);
-					decrement(list.size() - sorted.size());
-					list = sorted;
-					if (sorted.size() >= limit) {
-						threshold = sorted.get(sorted.size() - 1);
-					}
-				}
-				BindingSet next = iter.next();
-				if (threshold == null || comparator.compare(next, threshold) < 0) {
-					list.add(next);
-					increment();
-				}
+			if (limit <= syncThreshold) {
+				iterator = topK();
+			} else {
+				iterator = externalSort(syncThreshold);
 			}
 		} catch (IOException e) {
 			throw new QueryEvaluationException(e);
@@ -130,17 +127,140 @@ public class OrderIterator extends DelayedIteration<BindingSet> {
 			iter.close();
 		}
 
-		List<Iterator<BindingSet>> iterators = new ArrayList<>(serialized.size() + 1);
-		serialized
-				.stream()
-				.map(SerializedQueue::iterator)
-				.forEach(iterators::add);
+		return new LimitIteration<>(new CloseableIteratorIteration<>(iterator), limit);
+	}
+
+	/**
+	 * Keeps the <var>limit</var> smallest solutions in a heap, so that they never need to be written to disk.
+	 */
+	private Iterator<BindingSet> topK() {
+		if (limit <= 0) {
+			return Collections.emptyIterator();
+		}
+		PriorityQueue<BindingSet> heap = new PriorityQueue<>(comparator.reversed());
+		Set<BindingSet> members = distinct ? new HashSet<>() : null;
+		while (iter.hasNext()) {
+			BindingSet next = iter.next();
+			if (heap.size() < limit) {
+				if (members == null || members.add(next)) {
+					heap.add(next);
+					increment();
+				}
+			} else if (comparator.compare(next, heap.peek()) < 0 && (members == null || !members.contains(next))) {
+				BindingSet removed = heap.poll();
+				if (members != null) {
+					members.remove(removed);
+					members.add(next);
+				}
+				heap.add(next);
+				increment();
+				decrement(1);
+			}
+		}
 
+		BindingSet[] array = heap.toArray(new BindingSet[heap.size()]);
+		Arrays.sort(array, comparator);
+		return Arrays.asList(array).iterator();
+	}
+
+	private Iterator<BindingSet> externalSort(int syncThreshold) throws IOException {
+		// once the runs on disk hold at least limit solutions, any larger solution can be skipped
+		BindingSet threshold = null;
+		long spilled = 0;
+		List<BindingSet> list = new ArrayList<>();
+		while (iter.hasNext()) {
+			if (list.size() >= syncThreshold) {
+				BindingSetSpillFile run = new BindingSetSpillFile("orderiter");
+				try {
+					writeRun(sort(list).iterator(), run);
+				} catch (IOException | RuntimeException e) {
+					run.close();
+					throw e;
+				}
+				decrement((int) (list.size() - run.size()));
+				list.clear();
+				spilled += run.size();
+				if (!distinct && threshold == null && spilled >= limit) {
+					threshold = levels.stream()
+							.flatMap(List::stream)
+							.map(BindingSetSpillFile::getLast)
+							.reduce(run.getLast(), (a, b) -> comparator.compare(a, b) >= 0 ? a : b);
+				}
+				addRun(run, 0);
+			}
+			BindingSet next = iter.next();
+			if (threshold == null || comparator.compare(next, threshold) < 0) {
+				list.add(next);
+				increment();
+			}
+		}
+
+		List<BindingSetSpillFile> runs = new ArrayList<>();
+		for (int i = levels.size() - 1; i >= 0; i--) {
+			runs.addAll(levels.get(i));
+		}
+		// keep one slot for the solutions that are still in memory
+		while (runs.size() >= mergeFanIn) {
+			List<BindingSetSpillFile> newest = runs.subList(runs.size() - mergeFanIn, runs.size());
+			BindingSetSpillFile merged = merge(new ArrayList<>(newest));
+			newest.clear();
+			runs.add(merged);
+			levels.add(new ArrayList<>(List.of(merged)));
+		}
+
+		List<Iterator<BindingSet>> iterators = new ArrayList<>(runs.size() + 1);
+		for (BindingSetSpillFile run : runs) {
+			iterators.add(run.iterator());
+		}
 		iterators.add(sort(list).iterator());
 
-		SortedIterators<BindingSet> iterator = new SortedIterators<>(comparator, distinct, iterators);
+		return new SortedIterators(comparator, distinct, iterators);
+	}
 
-		return new LimitIteration<>(new CloseableIteratorIteration<>(iterator), limit);
+	private void addRun(BindingSetSpillFile run, int level) throws IOException {
+		while (levels.size() <= level) {
+			levels.add(new ArrayList<>());
+		}
+		List<BindingSetSpillFile> runs = levels.get(level);
+		runs.add(run);
+		if (runs.size() >= mergeFanIn) {
+			BindingSetSpillFile merged = merge(new ArrayList<>(runs));
+			runs.clear();
+			addRun(merged, level + 1);
+		}
+	}
+
+	/**
+	 * Merges the given runs into a new run and deletes them.
+	 */
+	private BindingSetSpillFile merge(List<BindingSetSpillFile> runs) throws IOException {
+		BindingSetSpillFile merged = new BindingSetSpillFile("orderiter");
+		try {
+			List<Iterator<BindingSet>> iterators = new ArrayList<>(runs.size());
+			for (BindingSetSpillFile run : runs) {
+				iterators.add(run.iterator());
+			}
+			writeRun(new SortedIterators(comparator, distinct, iterators), merged);
+		} catch (IOException | RuntimeException e) {
+			// the runs that were being merged are still tracked by their level and are deleted on close
+			merged.close();
+			throw e;
+		}
+
+		for (List<BindingSetSpillFile> level : levels) {
+			level.removeAll(runs);
+		}
+		for (BindingSetSpillFile run : runs) {
+			run.close();
+		}
+		return merged;
+	}
+
+	private void writeRun(Iterator<BindingSet> sorted, BindingSetSpillFile run) throws IOException {
+		// solutions beyond the limit of a sorted run can never be part of the result
+		while (sorted.hasNext() && run.size() < limit) {
+			run.add(sorted.next());
+		}
 	}
 
 	protected void increment() throws QueryEvaluationException {
@@ -177,195 +297,104 @@ public class OrderIterator extends DelayedIteration<BindingSet> {
 			try {
 				iter.close();
 			} finally {
-				serialized.stream().map(queue -> {
-					try {
-						queue.close();
-						return null;
-					} catch (IOException e) {
-						return e;
+				IOException exception = null;
+				for (List<BindingSetSpillFile> level : levels) {
+					for (BindingSetSpillFile run : level) {
+						try {
+							run.close();
+						} catch (IOException e) {
+							exception = e;
+						}
 					}
-				}).filter(exec -> exec != null).findFirst().ifPresent(exec -> {
-					throw new QueryEvaluationException(exec);
-				});
+				}
+				levels.clear();
+				if (exception != null) {
+					throw new QueryEvaluationException(exception);
+				}
 			}
 		}
 	}
 
-	private static class SerializedQueue<E extends Serializable> extends AbstractQueue<E> implements Closeable {
-
-		private final File file;
-
-		private final ObjectOutputStream output;
-
-		private ObjectInputStream input;
-
-		private int size;
+	/**
+	 * Merges sorted iterators. Solutions that compare equal are returned in the order of the iterators they came from.
+	 */
+	private static class SortedIterators implements Iterator<BindingSet> {
 
-		private E next;
+		private final Comparator<BindingSet> comparator;
 
-		private E last;
+		private final List<Iterator<BindingSet>> iterators;
 
-		public SerializedQueue(String prefix) throws IOException {
-			this(prefix, null);
-		}
+		private final PriorityQueue<Head> heads;
 
-		public SerializedQueue(String prefix, File directory) throws IOException {
-			file = File.createTempFile(prefix, "", directory);
-			output = new ObjectOutputStream(new FileOutputStream(file));
-		}
+		/**
+		 * The solutions returned since the last one that compared greater than its predecessor, used to skip duplicates
+		 * if distinct.
+		 */
+		private final Set<BindingSet> ties;
 
-		public E peekLast() {
-			return last;
-		}
+		private BindingSet next;
 
-		@Override
-		public boolean offer(E e) {
-			if (output == null) {
-				return false;
-			}
-			try {
-				output.writeObject(e);
-				last = e;
-				size++;
-				return true;
-			} catch (IOException exc) {
-				return false;
+		public SortedIterators(Comparator<BindingSet> comparator, boolean distinct,
+				List<Iterator<BindingSet>> iterators) {
+			this.comparator = comparator;
+			this.iterators = iterators;
+			this.ties = distinct ? new HashSet<>() : null;
+			this.heads = new PriorityQueue<>(Math.max(1, iterators.size()), (a, b) -> {
+				int result = comparator.compare(a.value, b.value);
+				return result != 0 ? result : Integer.compare(a.index, b.index);
+			});
+			for (int i = 0; i < iterators.size(); i++) {
+				advance(i);
 			}
 		}
 
 		@Override
-		@SuppressWarnings("unchecked")
-		public E poll() {
-			try {
-				if (next != null) {
-					return next;
-				} else if (input == null) {
-					output.close();
-					input = new ObjectInputStream(new FileInputStream(file));
+		public boolean hasNext() {
+			while (next == null && !heads.isEmpty()) {
+				Head head = heads.poll();
+				advance(head.index);
+				if (ties == null) {
+					next = head.value;
+				} else {
+					if (!ties.isEmpty() && comparator.compare(ties.iterator().next(), head.value) != 0) {
+						ties.clear();
+					}
+					if (ties.add(head.value)) {
+						next = head.value;
+					}
 				}
-				size--;
-				return (E) input.readObject();
-			} catch (IOException | ClassNotFoundException exc) {
-				return null;
-			} finally {
-				next = null;
-			}
-		}
-
-		@Override
-		public E peek() {
-			if (size <= 0) {
-				return null;
-			} else if (next != null) {
-				return next;
-			} else {
-				return next = poll();
 			}
+			return next != null;
 		}
 
 		@Override
-		public Iterator<E> iterator() {
-			return new Iterator<E>() {
-
-				@Override
-				public boolean hasNext() {
-					return peek() != null;
-				}
-
-				@Override
-				public E next() {
-					return poll();
-				}
-			};
-		}
-
-		@Override
-		public int size() {
-			if (next == null) {
-				return size;
-			} else {
-				return size + 1;
+		public BindingSet next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
 			}
+			BindingSet result = next;
+			next = null;
+			return result;
 		}
 
-		@Override
-		public void close() throws IOException {
-			if (output != null) {
-				output.close();
-			}
-			if (input != null) {
-				input.close();
+		private void advance(int i) {
+			Iterator<BindingSet> iterator = iterators.get(i);
+			if (iterator.hasNext()) {
+				heads.add(new Head(iterator.next(), i));
 			}
-			file.delete();
 		}
 
-	}
-
-	private static class SortedIterators<E> implements Iterator<E> {
-
-		private final List<Iterator<E>> iterators;
-
-		private final TreeMap<E, List<Integer>> head;
+		private static class Head {
 
-		private final boolean distinct;
+			private final BindingSet value;
 
-		private E next;
+			private final int index;
 
-		public SortedIterators(Comparator<E> comparator, boolean distinct, List<Iterator<E>> iterators) {
-			this.iterators = iterators;
-			this.distinct = distinct;
-			head = new TreeMap<>(comparator);
-		}
-
-		@Override
-		public boolean hasNext() {
-			if (next != null) {
-				return true;
-			} else {
-				next = next();
-				return next != null;
+			Head(BindingSet value, int index) {
+				this.value = value;
+				this.index = index;
 			}
 		}
-
-		@Override
-		public E next() {
-			if (next != null) {
-				try {
-					return next;
-				} finally {
-					next = null;
-				}
-			}
-			if (head.isEmpty()) {
-				for (int i = 0, n = iterators.size(); i < n; i++) {
-					advance(i);
-				}
-			}
-			if (head.isEmpty()) {
-				return null;
-			} else {
-				Entry<E, List<Integer>> e = head.firstEntry();
-				advance(e.getValue().remove(0));
-				if (e.getValue().isEmpty()) {
-					head.remove(e.getKey());
-				}
-				return e.getKey();
-			}
-		}
-
-		private void advance(int i) {
-			while (iterators.get(i).hasNext()) {
-				E key = iterators.get(i).next();
-				if (!head.containsKey(key)) {
-					head.put(key, new LinkedList<>(List.of(i)));
-					break;
-				} else if (!distinct) {
-					head.get(key).add(i);
-					break;
-				}
-			}
-		}
-
 	}
 
 }
@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ******************************************************************************/
+
+package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the read-ahead tasks of {@link AsyncIteratorReadAhead} on a bounded pool of threads that is shared by all
+ * queries. The number of read-ahead tasks that a single query runs at the same time is limited through a
+ * {@link Scope}; read-ahead that exceeds this limit is done by the consuming thread itself.
+ * <p>
+ * A task is only handed to the pool if a thread is free to pick it up right away, and tasks that are submitted by a
+ * read-ahead task of the same executor, e.g. for a nested UNION, run on the submitting thread. Otherwise a task could
+ * wait for a nested task that is queued behind it while all threads of the pool are taken.
+ */
+@Experimental
+public class ReadAheadExecutor {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReadAheadExecutor.class);
+
+	private static volatile ReadAheadExecutor shared;
+
+	// the executor whose read-ahead task the current thread is running, if any
+	private static final ThreadLocal<ReadAheadExecutor> currentExecutor = new ThreadLocal<>();
+
+	private final ExecutorService executorService;
+
+	// the number of tasks that the executor runs at the same time
+	private final int threads;
+
+	// tasks that have been handed to the executor and are queued or running
+	private final AtomicInteger busy = new AtomicInteger();
+
+	private final AtomicInteger queued = new AtomicInteger();
+
+	private final AtomicInteger running = new AtomicInteger();
+
+	private final LongAdder stalls = new LongAdder();
+
+	private final LongAdder throttled = new LongAdder();
+
+	public ReadAheadExecutor(ExecutorService executorService) {
+		this.executorService = executorService;
+		if (executorService instanceof ThreadPoolExecutor) {
+			this.threads = ((ThreadPoolExecutor) executorService).getMaximumPoolSize();
+		} else {
+			this.threads = Integer.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * @return the executor that is shared by all queries, with one thread per available processor
+	 */
+	public static ReadAheadExecutor getShared() {
+		ReadAheadExecutor result = shared;
+		if (result == null) {
+			synchronized (ReadAheadExecutor.class) {
+				result = shared;
+				if (result == null) {
+					shared = result = create(Runtime.getRuntime().availableProcessors(), false);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Create a new executor. Virtual threads are only used if the running JVM supports them, otherwise a pool of
+	 * <var>threads</var> daemon threads is used. The threads of the pool are stopped when they have been idle for a
+	 * minute.
+	 *
+	 * @param threads        the number of platform threads
+	 * @param virtualThreads whether to prefer a virtual thread per task over a pool of platform threads
+	 * @return a new executor
+	 */
+	public static ReadAheadExecutor create(int threads, boolean virtualThreads) {
+		if (virtualThreads) {
+			try {
+				ExecutorService executorService = (ExecutorService) Executors.class
+						.getMethod("newVirtualThreadPerTaskExecutor")
+						.invoke(null);
+				return new ReadAheadExecutor(executorService);
+			} catch (ReflectiveOperationException e) {
+				logger.debug("Virtual threads are not supported by this JVM, using platform threads for read-ahead");
+			}
+		}
+
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), r -> {
+					Thread t = Executors.defaultThreadFactory().newThread(r);
+					// read-ahead is only useful while a query is consuming the results, so it must not keep the JVM
+					// alive
+					t.setDaemon(true);
+					t.setName("rdf4j-read-ahead-" + t.getId());
+					return t;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return new ReadAheadExecutor(executor);
+	}
+
+	/**
+	 * @param maxConcurrency the maximum number of read-ahead tasks that run at the same time within the scope
+	 * @return a new scope, typically one per query
+	 */
+	public Scope newScope(int maxConcurrency) {
+		return new Scope(maxConcurrency);
+	}
+
+	/**
+	 * @return the number of read-ahead tasks that have been submitted but have not started yet
+	 */
+	public int getQueueDepth() {
+		return queued.get();
+	}
+
+	/**
+	 * @return the number of read-ahead tasks that are running
+	 */
+	public int getActiveCount() {
+		return running.get();
+	}
+
+	/**
+	 * @return how often a consumer had to wait for a read-ahead task that had not finished yet
+	 */
+	public long getPrefetchStalls() {
+		return stalls.sum();
+	}
+
+	/**
+	 * @return how often read-ahead was done by the consumer because its scope had reached its concurrency limit, no
+	 *         thread was free or the consumer was itself a read-ahead task
+	 */
+	public long getThrottledCount() {
+		return throttled.sum();
+	}
+
+	/**
+	 * Shut down the underlying executor service. Must not be called on the {@link #getShared() shared} executor.
+	 */
+	public void shutdown() {
+		assert this != shared;
+		executorService.shutdown();
+	}
+
+	void shutdownNow() {
+		assert this != shared;
+		executorService.shutdownNow();
+	}
+
+	/**
+	 * Limits the number of read-ahead tasks of a single query that run at the same time.
+	 */
+	public final class Scope {
+
+		private final Semaphore permits;
+
+		private Scope(int maxConcurrency) {
+			assert maxConcurrency > 0;
+			this.permits = new Semaphore(maxConcurrency);
+		}
+
+		<T> Future<T> submit(Callable<T> task) {
+			if (currentExecutor.get() == ReadAheadExecutor.this || !permits.tryAcquire()) {
+				return runInline(task);
+			}
+			if (busy.incrementAndGet() > threads) {
+				busy.decrementAndGet();
+				permits.release();
+				return runInline(task);
+			}
+
+			ReadAheadTask<T> future = new ReadAheadTask<>(task, this);
+			queued.incrementAndGet();
+			try {
+				executorService.execute(future);
+			} catch (RejectedExecutionException e) {
+				future.cancel(false);
+				throw e;
+			}
+			return future;
+		}
+
+		private <T> Future<T> runInline(Callable<T> task) {
+			throttled.increment();
+			FutureTask<T> future = new FutureTask<>(task);
+			future.run();
+			return future;
+		}
+
+		void stalled() {
+			stalls.increment();
+		}
+	}
+
+	/**
+	 * A task that has been handed to the executor. Its slot in the executor and its permit in the scope are given
+	 * back once it has run, or once it has been cancelled before it started.
+	 */
+	private final class ReadAheadTask<T> extends FutureTask<T> {
+
+		private final Scope scope;
+
+		private final AtomicBoolean started = new AtomicBoolean();
+
+		ReadAheadTask(Callable<T> callable, Scope scope) {
+			super(callable);
+			this.scope = scope;
+		}
+
+		@Override
+		public void run() {
+			if (!started.compareAndSet(false, true)) {
+				// cancelled before it started
+				return;
+			}
+			queued.decrementAndGet();
+			running.incrementAndGet();
+			currentExecutor.set(ReadAheadExecutor.this);
+			try {
+				super.run();
+			} finally {
+				currentExecutor.remove();
+			}
+		}
+
+		// set and setException are called once the task has run, before the result is published to the consumer
+
+		@Override
+		protected void set(T v) {
+			running.decrementAndGet();
+			release();
+			super.set(v);
+		}
+
+		@Override
+		protected void setException(Throwable t) {
+			running.decrementAndGet();
+			release();
+			super.setException(t);
+		}
+
+		@Override
+		protected void done() {
+			if (started.compareAndSet(false, true)) {
+				queued.decrementAndGet();
+				release();
+			}
+		}
+
+		private void release() {
+			busy.decrementAndGet();
+			scope.permits.release();
+		}
+	}
+}
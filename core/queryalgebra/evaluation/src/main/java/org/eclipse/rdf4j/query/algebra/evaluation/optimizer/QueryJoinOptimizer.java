@@ -108,6 +108,13 @@ public class QueryJoinOptimizer implements QueryOptimizer {
 		private Set<String> boundVars = new HashSet<>();
 		private double currentHighestCost = 1;
 
+		/**
+		 * Whether the arguments of the join that is being ordered are compared by their
+		 * {@link EvaluationStatistics#getJoinCardinality(Set, TupleExpr) join cardinality} instead of by the heuristic
+		 * cost. The two are on different scales, so this is only the case if all arguments have a join cardinality.
+		 */
+		private boolean useJoinCardinality;
+
 		protected JoinVisitor() {
 			super(trackResultSize);
 
@@ -147,6 +154,7 @@ public class QueryJoinOptimizer implements QueryOptimizer {
 		@Override
 		public void meet(Join node) {
 			Set<String> origBoundVars = boundVars;
+			boolean origUseJoinCardinality = useJoinCardinality;
 			try {
 				boundVars = new HashSet<>(boundVars);
 
@@ -215,8 +223,12 @@ public class QueryJoinOptimizer implements QueryOptimizer {
 						fillVarFreqMap(varList, varFreqMap);
 					}
 
+					boolean joinCardinalities = hasJoinCardinalities(joinArgs);
+
 					// order all other join arguments based on available statistics
 					while (!joinArgs.isEmpty()) {
+						// the recursive optimization of the previous argument may have ordered a join of its own
+						useJoinCardinality = joinCardinalities;
 						TupleExpr tupleExpr = selectNextTupleExpr(joinArgs, cardinalityMap, varsMap, varFreqMap);
 						this.currentHighestCost = Math.max(currentHighestCost, tupleExpr.getCostEstimate());
 
@@ -322,9 +334,22 @@ public class QueryJoinOptimizer implements QueryOptimizer {
 				}
 			} finally {
 				boundVars = origBoundVars;
+				useJoinCardinality = origUseJoinCardinality;
 			}
 		}
 
+		/**
+		 * @return <var>true</var> if the statistics estimate the join cardinality of all the supplied join arguments
+		 */
+		private boolean hasJoinCardinalities(List<TupleExpr> joinArgs) {
+			for (TupleExpr joinArg : joinArgs) {
+				if (statistics.getJoinCardinality(boundVars, joinArg) < 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
 		private void optimizeInNewScope(List<TupleExpr> subSelects) {
 			for (TupleExpr subSelect : subSelects) {
 				subSelect.visit(new JoinVisitor());
@@ -647,6 +672,16 @@ public class QueryJoinOptimizer implements QueryOptimizer {
 				}
 			}
 
+			if (useJoinCardinality) {
+				// The statistics estimate how many results the tuple expression adds for each solution of the tuple
+				// expressions that have already been ordered, so choosing the lowest estimate keeps the intermediate
+				// results small. Cartesian products are accounted for by the estimate.
+				double joinCardinality = statistics.getJoinCardinality(boundVars, tupleExpr);
+				if (joinCardinality >= 0) {
+					return joinCardinality;
+				}
+			}
+
 			double cost;
 
 			if (hasCachedCardinality(tupleExpr)) {
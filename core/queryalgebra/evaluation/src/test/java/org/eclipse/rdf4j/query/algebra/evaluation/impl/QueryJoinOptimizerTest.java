@@ -18,6 +18,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.eclipse.rdf4j.common.exception.RDF4JException;
 import org.eclipse.rdf4j.query.MalformedQueryException;
@@ -192,6 +194,55 @@ public class QueryJoinOptimizerTest extends QueryOptimizerTest {
 
 	}
 
+	@Test
+	public void testJoinCardinalityOrder() {
+		String query = "prefix ex: <ex:> select * where { ?s ex:a ?a. ?s ex:b ?b. }";
+
+		assertEquals(List.of("ex:a", "ex:b"), getPredicateOrder(query, new EvaluationStatistics()));
+		assertEquals(List.of("ex:b", "ex:a"), getPredicateOrder(query, new JoinCardinalityStatistics()));
+	}
+
+	@Test
+	public void testJoinCardinalityOnlyUsedIfAllArgumentsHaveOne() {
+		// the statistics have no join cardinality for ex:c, so the heuristic costs are used for the whole join
+		String query = "prefix ex: <ex:> select * where { ?s ex:a ?a. ?s ex:b ?b. ?s ex:c ?c. }";
+
+		assertEquals(getPredicateOrder(query, new EvaluationStatistics()),
+				getPredicateOrder(query, new JoinCardinalityStatistics()));
+	}
+
+	private List<String> getPredicateOrder(String query, EvaluationStatistics statistics) {
+		ParsedQuery q = new SPARQLParser().parseQuery(query, null);
+		QueryRoot optRoot = new QueryRoot(q.getTupleExpr());
+		new QueryJoinOptimizer(statistics, new EmptyTripleSource()).optimize(optRoot, null, null);
+
+		StatementFinder stmtFinder = new StatementFinder();
+		optRoot.visit(stmtFinder);
+		return stmtFinder.getStatements()
+				.stream()
+				.map(st -> st.getPredicateVar().getValue().stringValue())
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Estimates a join cardinality for statement patterns with the predicates ex:a and ex:b only.
+	 */
+	private static class JoinCardinalityStatistics extends EvaluationStatistics {
+
+		@Override
+		public double getJoinCardinality(Set<String> boundVars, TupleExpr expr) {
+			if (expr instanceof StatementPattern) {
+				String pred = ((StatementPattern) expr).getPredicateVar().getValue().stringValue();
+				if (pred.equals("ex:a")) {
+					return 1000;
+				} else if (pred.equals("ex:b")) {
+					return 0.5;
+				}
+			}
+			return -1;
+		}
+	}
+
 	@Override
 	public QueryJoinOptimizer getOptimizer() {
 		return new QueryJoinOptimizer(new EvaluationStatistics(), new EmptyTripleSource());
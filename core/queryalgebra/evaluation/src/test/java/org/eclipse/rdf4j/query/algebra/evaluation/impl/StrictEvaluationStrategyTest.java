@@ -249,4 +249,14 @@ public class StrictEvaluationStrategyTest {
 			assertTrue(p == n);
 		}
 	}
+
+	@Test
+	public void testGroupByExecutorIsShared() {
+		StrictEvaluationStrategy first = new StrictEvaluationStrategy(new EmptyTripleSource(), null);
+		first.setGroupByParallelism(4);
+		StrictEvaluationStrategy second = new StrictEvaluationStrategy(new EmptyTripleSource(), null);
+		second.setGroupByParallelism(4);
+
+		assertThat(first.getGroupByExecutor()).isSameAs(second.getGroupByExecutor());
+	}
 }
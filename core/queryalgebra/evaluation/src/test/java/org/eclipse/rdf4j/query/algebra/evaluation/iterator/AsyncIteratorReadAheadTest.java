@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class AsyncIteratorReadAheadTest {
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	private final ReadAheadExecutor executor = ReadAheadExecutor.create(2, false);
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void testKeepsOrder() {
+		List<BindingSet> input = bindingSets(10_000);
+
+		List<BindingSet> result = Iterations.asList(
+				new AsyncIteratorReadAhead(new CloseableIteratorIteration<>(input.iterator()), executor.newScope(4)));
+
+		assertEquals(input, result);
+	}
+
+	@Test
+	public void testConcurrencyLimit() throws Exception {
+		ReadAheadExecutor.Scope scope = executor.newScope(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<Boolean> blocking = scope.submit(() -> release.await(10, TimeUnit.SECONDS));
+
+		// the only permit of the scope is taken, so this task has to run on the calling thread
+		Future<Thread> throttled = scope.submit(Thread::currentThread);
+		assertTrue(throttled.isDone());
+		assertSame(Thread.currentThread(), throttled.get());
+		assertEquals(1, executor.getThrottledCount());
+
+		release.countDown();
+		assertTrue(blocking.get());
+
+		Future<Thread> async = scope.submit(Thread::currentThread);
+		assertNotSame(Thread.currentThread(), async.get());
+		assertEquals(1, executor.getThrottledCount());
+	}
+
+	@Test
+	public void testCloseClosesSource() {
+		AtomicBoolean closed = new AtomicBoolean();
+		CloseableIteration<BindingSet> source = new CloseableIteratorIteration<>(bindingSets(10_000).iterator()) {
+			@Override
+			protected void handleClose() {
+				closed.set(true);
+				super.handleClose();
+			}
+		};
+
+		AsyncIteratorReadAhead iter = new AsyncIteratorReadAhead(source, executor.newScope(4));
+		for (int i = 0; i < 100; i++) {
+			assertTrue(iter.hasNext());
+			iter.next();
+		}
+		iter.close();
+
+		assertTrue(closed.get());
+		assertFalse(iter.hasNext());
+	}
+
+	@Test
+	public void testNestedReadAheadDoesNotDeadlock() {
+		ReadAheadExecutor single = ReadAheadExecutor.create(1, false);
+		try {
+			ReadAheadExecutor.Scope scope = single.newScope(Integer.MAX_VALUE);
+			List<BindingSet> input = bindingSets(10_000);
+
+			// the outer read-ahead task consumes the inner iteration, whose own read-ahead can't get the only thread
+			AsyncIteratorReadAhead inner = new AsyncIteratorReadAhead(
+					new CloseableIteratorIteration<>(input.iterator()), scope);
+			AsyncIteratorReadAhead outer = new AsyncIteratorReadAhead(inner, scope);
+
+			List<BindingSet> result = assertTimeoutPreemptively(Duration.ofSeconds(30),
+					() -> Iterations.asList(outer));
+			assertEquals(input, result);
+		} finally {
+			single.shutdown();
+		}
+	}
+
+	@Test
+	public void testCloseInterruptsReadAhead() throws Exception {
+		CountDownLatch reading = new CountDownLatch(1);
+		CountDownLatch closed = new CountDownLatch(1);
+		CloseableIteration<BindingSet> source = new LookAheadIteration<>() {
+			private boolean first = true;
+
+			@Override
+			protected BindingSet getNextElement() {
+				if (first) {
+					first = false;
+					return new QueryBindingSet();
+				}
+				reading.countDown();
+				try {
+					// a source that takes forever to produce its next solution
+					new CountDownLatch(1).await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new QueryEvaluationException(e);
+				}
+				return null;
+			}
+
+			@Override
+			protected void handleClose() {
+				closed.countDown();
+			}
+		};
+
+		AsyncIteratorReadAhead iter = new AsyncIteratorReadAhead(source, executor.newScope(4));
+		assertTrue(iter.hasNext());
+		iter.next();
+		assertTrue(reading.await(10, TimeUnit.SECONDS));
+
+		assertTimeoutPreemptively(Duration.ofSeconds(10), iter::close);
+		assertTrue(closed.await(10, TimeUnit.SECONDS));
+	}
+
+	private List<BindingSet> bindingSets(int n) {
+		List<BindingSet> bindingSets = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			QueryBindingSet b = new QueryBindingSet();
+			b.addBinding("a", vf.createLiteral(i));
+			bindingSets.add(b);
+		}
+		return bindingSets;
+	}
+}
@@ -18,13 +18,20 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
 import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Value;
@@ -60,9 +67,11 @@ public class GroupIteratorTest {
 	private static BindingSetAssignment EMPTY_ASSIGNMENT;
 	private static BindingSetAssignment NONEMPTY_ASSIGNMENT;
 	private static AggregateFunctionFactory aggregateFunctionFactory;
+	private static ExecutorService executor;
 
 	@BeforeAll
 	public static void init() {
+		executor = GroupIterator.createExecutor(4);
 		EMPTY_ASSIGNMENT = new BindingSetAssignment();
 		EMPTY_ASSIGNMENT.setBindingSets(Collections.emptyList());
 		NONEMPTY_ASSIGNMENT = new BindingSetAssignment();
@@ -121,6 +130,7 @@ public class GroupIteratorTest {
 	@AfterAll
 	public static void cleanUp() {
 		CustomAggregateFunctionRegistry.getInstance().remove(aggregateFunctionFactory);
+		executor.shutdownNow();
 	}
 
 	@Test
@@ -298,6 +308,216 @@ public class GroupIteratorTest {
 		}
 	}
 
+	@Test
+	public void testParallelAggregation() throws QueryEvaluationException {
+		var list = new ArrayList<BindingSet>();
+		for (int i = 0; i < 10_000; i++) {
+			var bindings = new QueryBindingSet();
+			bindings.addBinding("g", vf.createLiteral(i % 100));
+			bindings.addBinding("a", vf.createLiteral(i));
+			list.add(bindings);
+		}
+		BindingSetAssignment assignment = new BindingSetAssignment();
+		assignment.setBindingSets(list);
+
+		Group group = new Group(assignment, List.of("g"));
+		group.addGroupElement(new GroupElem("count", new Count(new Var("a"))));
+		group.addGroupElement(new GroupElem("sum", new Sum(new Var("a"))));
+		group.addGroupElement(new GroupElem("avg", new Avg(new Var("a"))));
+		group.addGroupElement(new GroupElem("max", new Max(new Var("a"))));
+		group.addGroupElement(new GroupElem("distinct", new Count(new Var("a"), true)));
+
+		Set<BindingSet> sequential = new HashSet<>();
+		try (GroupIterator gi = new GroupIterator(evaluator, group, EmptyBindingSet.getInstance(), context)) {
+			gi.forEachRemaining(sequential::add);
+		}
+		Set<BindingSet> parallel = new HashSet<>();
+		try (GroupIterator gi = new GroupIterator(evaluator, group, EmptyBindingSet.getInstance(), context, 4,
+				executor)) {
+			gi.forEachRemaining(parallel::add);
+		}
+
+		assertThat(sequential).hasSize(100);
+		assertThat(parallel).isEqualTo(sequential);
+	}
+
+	@Test
+	public void testParallelAggregationKeepsGroupConcatOrder() throws QueryEvaluationException {
+		var list = new ArrayList<BindingSet>();
+		for (int i = 0; i < 100; i++) {
+			var bindings = new QueryBindingSet();
+			bindings.addBinding("g", vf.createLiteral(i % 2));
+			bindings.addBinding("a", vf.createLiteral(i));
+			list.add(bindings);
+		}
+		BindingSetAssignment assignment = new BindingSetAssignment();
+		assignment.setBindingSets(list);
+
+		Group group = new Group(assignment, List.of("g"));
+		group.addGroupElement(new GroupElem("concat", new GroupConcat(new Var("a"))));
+
+		try (GroupIterator gi = new GroupIterator(evaluator, group, EmptyBindingSet.getInstance(), context, 4,
+				executor)) {
+			while (gi.hasNext()) {
+				BindingSet next = gi.next();
+				String[] values = next.getValue("concat").stringValue().split(" ");
+				assertThat(values).hasSize(50);
+				for (int i = 1; i < values.length; i++) {
+					assertThat(Integer.parseInt(values[i])).isGreaterThan(Integer.parseInt(values[i - 1]));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testParallelAggregationIsSequentialForFunctionCalls() throws QueryEvaluationException {
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		EvaluationStrategy evaluator = new StrictEvaluationStrategy(null, null) {
+			@Override
+			public QueryValueEvaluationStep precompile(ValueExpr expr, QueryEvaluationContext context) {
+				if (expr instanceof FunctionCall) {
+					return bindings -> {
+						threads.add(Thread.currentThread());
+						return bindings.getValue("a");
+					};
+				}
+				return super.precompile(expr, context);
+			}
+		};
+
+		Group group = new Group(createGroupedAssignment(10_000, 100), List.of("g"));
+		group.addGroupElement(new GroupElem("sum", new Sum(new FunctionCall("urn:f", new Var("a")))));
+		try (GroupIterator gi = new GroupIterator(evaluator, group, EmptyBindingSet.getInstance(), context, 4,
+				executor)) {
+			assertThat(gi.hasNext()).isTrue();
+		}
+
+		assertThat(threads).containsExactly(Thread.currentThread());
+	}
+
+	@Test
+	public void testParallelAggregationClose() throws QueryEvaluationException, InterruptedException {
+		// Latch to rendezvous on with an aggregation task
+		CountDownLatch aggregating = new CountDownLatch(1);
+		// Latch to record whether the aggregation task was interrupted
+		CountDownLatch interrupted = new CountDownLatch(1);
+
+		EvaluationStrategy evaluator = new StrictEvaluationStrategy(null, null) {
+			@Override
+			public QueryValueEvaluationStep precompile(ValueExpr expr, QueryEvaluationContext context) {
+				QueryValueEvaluationStep step = super.precompile(expr, context);
+				return bindings -> {
+					aggregating.countDown();
+					try {
+						Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+					} catch (InterruptedException e) {
+						interrupted.countDown();
+						Thread.currentThread().interrupt();
+					}
+					return step.evaluate(bindings);
+				};
+			}
+		};
+
+		Group group = new Group(createGroupedAssignment(10_000, 100), List.of("g"));
+		group.addGroupElement(new GroupElem("count", new Count(new Var("a"))));
+		GroupIterator groupIterator = new GroupIterator(evaluator, group, EmptyBindingSet.getInstance(), context, 4,
+				executor);
+
+		Thread iteratorThread = new Thread(() -> {
+			try {
+				groupIterator.hasNext();
+			} catch (RuntimeException e) {
+				// closed while aggregating
+			}
+		}, "GroupIteratorTest#testParallelAggregationClose");
+		try {
+			iteratorThread.start();
+			assertThat(aggregating.await(5, TimeUnit.SECONDS)).isTrue();
+			groupIterator.close();
+			assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+		} finally {
+			iteratorThread.join(Duration.ofSeconds(5).toMillis());
+			assertThat(iteratorThread.isAlive()).isFalse();
+		}
+	}
+
+	@Test
+	public void testParallelAggregationWhileReading() throws QueryEvaluationException {
+		// Latch that is released once all solutions have been read
+		CountDownLatch read = new CountDownLatch(1);
+		AtomicBoolean aggregatedAfterRead = new AtomicBoolean(true);
+
+		EvaluationStrategy evaluator = new StrictEvaluationStrategy(null, null) {
+			@Override
+			public QueryEvaluationStep precompile(TupleExpr expr, QueryEvaluationContext context) {
+				QueryEvaluationStep step = super.precompile(expr, context);
+				if (!(expr instanceof BindingSetAssignment)) {
+					return step;
+				}
+				return bindings -> new LookAheadIteration<>() {
+					private final CloseableIteration<BindingSet> iter = step.evaluate(bindings);
+
+					@Override
+					protected BindingSet getNextElement() {
+						if (iter.hasNext()) {
+							return iter.next();
+						}
+						read.countDown();
+						return null;
+					}
+
+					@Override
+					protected void handleClose() {
+						iter.close();
+					}
+				};
+			}
+
+			@Override
+			public QueryValueEvaluationStep precompile(ValueExpr expr, QueryEvaluationContext context) {
+				QueryValueEvaluationStep step = super.precompile(expr, context);
+				return bindings -> {
+					// the first batches are only aggregated once all solutions have been read
+					try {
+						if (aggregatedAfterRead.get() && !read.await(5, TimeUnit.SECONDS)) {
+							aggregatedAfterRead.set(false);
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return step.evaluate(bindings);
+				};
+			}
+		};
+
+		Group group = new Group(createGroupedAssignment(4_000, 100), List.of("g"));
+		group.addGroupElement(new GroupElem("count", new Count(new Var("a"))));
+		long count = 0;
+		try (GroupIterator gi = new GroupIterator(evaluator, group, EmptyBindingSet.getInstance(), context, 2,
+				executor)) {
+			while (gi.hasNext()) {
+				count += ((Literal) gi.next().getValue("count")).longValue();
+			}
+		}
+
+		assertThat(count).isEqualTo(4_000);
+		assertThat(aggregatedAfterRead).isTrue();
+	}
+
+	private static BindingSetAssignment createGroupedAssignment(int size, int groups) {
+		var list = new ArrayList<BindingSet>();
+		for (int i = 0; i < size; i++) {
+			var bindings = new QueryBindingSet();
+			bindings.addBinding("g", vf.createLiteral(i % groups));
+			bindings.addBinding("a", vf.createLiteral(i));
+			list.add(bindings);
+		}
+		BindingSetAssignment assignment = new BindingSetAssignment();
+		assignment.setBindingSets(list);
+		return assignment;
+	}
+
 	/**
 	 * Dummy collector to verify custom aggregate functions
 	 */
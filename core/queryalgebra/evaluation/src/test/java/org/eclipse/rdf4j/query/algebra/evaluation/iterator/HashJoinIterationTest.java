@@ -12,10 +12,16 @@ package org.eclipse.rdf4j.query.algebra.evaluation.iterator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
@@ -25,9 +31,18 @@ import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.algebra.BindingSetAssignment;
+import org.eclipse.rdf4j.query.algebra.Join;
+import org.eclipse.rdf4j.query.algebra.Projection;
+import org.eclipse.rdf4j.query.algebra.ProjectionElem;
+import org.eclipse.rdf4j.query.algebra.ProjectionElemList;
 import org.eclipse.rdf4j.query.algebra.evaluation.EvaluationStrategy;
 import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryEvaluationStep;
 import org.eclipse.rdf4j.query.algebra.evaluation.TripleSource;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.DefaultEvaluationStrategy;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.EmptyTripleSource;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.QueryEvaluationContext;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.StrictEvaluationStrategy;
 import org.eclipse.rdf4j.query.impl.EmptyBindingSet;
 import org.junit.jupiter.api.Test;
@@ -134,4 +149,98 @@ public class HashJoinIterationTest {
 		assertEquals("x", actual.getValue("i").stringValue());
 		assertFalse(actual.hasBinding("b"));
 	}
+
+	@Test
+	public void testSpilledInnerJoin() throws QueryEvaluationException {
+		List<BindingSet> left = createBindingSets("a", 100, 1);
+		List<BindingSet> right = createBindingSets("b", 100, 2);
+
+		AtomicInteger spills = new AtomicInteger();
+		Set<String> actual = new HashSet<>();
+		try (HashJoinIteration iter = createSpillingIteration(left, right, false, spills)) {
+			while (iter.hasNext()) {
+				BindingSet next = iter.next();
+				assertEquals(next.getValue("a"), next.getValue("b"));
+				assertTrue(actual.add(next.getValue("i").stringValue()));
+			}
+		}
+
+		assertEquals(1, spills.get());
+		assertEquals(50, actual.size());
+	}
+
+	@Test
+	public void testSpilledLeftJoin() throws QueryEvaluationException {
+		List<BindingSet> left = createBindingSets("a", 100, 1);
+		List<BindingSet> right = createBindingSets("b", 100, 2);
+
+		AtomicInteger spills = new AtomicInteger();
+		int count = 0;
+		int matches = 0;
+		try (HashJoinIteration iter = createSpillingIteration(left, right, true, spills)) {
+			while (iter.hasNext()) {
+				BindingSet next = iter.next();
+				count++;
+				if (next.hasBinding("b")) {
+					assertEquals(next.getValue("a"), next.getValue("b"));
+					matches++;
+				}
+			}
+		}
+
+		assertEquals(1, spills.get());
+		assertEquals(100, count);
+		assertEquals(50, matches);
+	}
+
+	@Test
+	public void testSpillCountInQueryPlan() throws QueryEvaluationException {
+		BindingSetAssignment left = new BindingSetAssignment();
+		left.setBindingSets(createBindingSets("a", 100, 1));
+		BindingSetAssignment right = new BindingSetAssignment();
+		right.setBindingSets(createBindingSets("b", 100, 2));
+		// a subquery on the right hand side is joined with a hash join
+		Join join = new Join(left,
+				new Projection(right, new ProjectionElemList(new ProjectionElem("b"), new ProjectionElem("i"))));
+
+		EvaluationStrategy strategy = new DefaultEvaluationStrategy(new EmptyTripleSource(), null, null, 10,
+				new EvaluationStatistics());
+		try (CloseableIteration<BindingSet> iter = strategy.precompile(join).evaluate(EmptyBindingSet.getInstance())) {
+			int count = 0;
+			while (iter.hasNext()) {
+				iter.next();
+				count++;
+			}
+			assertEquals(50, count);
+		}
+
+		assertEquals(HashJoinIteration.class.getSimpleName(), join.getAlgorithmName());
+		assertEquals(1, join.getSpillCount());
+	}
+
+	private HashJoinIteration createSpillingIteration(List<BindingSet> left, List<BindingSet> right,
+			boolean leftJoin, AtomicInteger spills) {
+		QueryEvaluationStep leftStep = bindings -> new CloseableIteratorIteration<>(left.iterator());
+		QueryEvaluationStep rightStep = bindings -> new CloseableIteratorIteration<>(right.iterator());
+		QueryEvaluationContext context = new QueryEvaluationContext.Minimal(null, vf, null, 10);
+
+		return new HashJoinIteration(leftStep, rightStep, EmptyBindingSet.getInstance(), leftJoin,
+				new String[] { "i" }, context) {
+			@Override
+			protected void spilled(int partitions) {
+				spills.incrementAndGet();
+			}
+		};
+	}
+
+	private List<BindingSet> createBindingSets(String name, int max, int step) {
+		List<BindingSet> bindingSets = new ArrayList<>();
+		for (int i = 0; i < max; i += step) {
+			QueryBindingSet bs = new QueryBindingSet();
+			bs.addBinding(name, vf.createLiteral(i));
+			bs.addBinding("i", vf.createLiteral(i));
+			bindingSets.add(bs);
+		}
+		return bindingSets;
+	}
 }
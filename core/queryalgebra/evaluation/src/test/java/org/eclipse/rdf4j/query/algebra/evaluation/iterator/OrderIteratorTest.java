@@ -24,10 +24,16 @@ import java.util.NoSuchElementException;
 import java.util.Set;
 
 import org.eclipse.rdf4j.common.iteration.AbstractCloseableIteration;
+import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.query.Binding;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -212,6 +218,110 @@ public class OrderIteratorTest {
 		assertFalse(order.hasNext());
 	}
 
+	@Test
+	public void testExternalSort() {
+		List<BindingSet> input = numbers(10_000, 7919);
+		Comparator<BindingSet> byNumber = byNumber();
+
+		// 100 solutions per run and two runs per merge spill through several merge levels
+		OrderIterator external = new OrderIterator(new CloseableIteratorIteration<>(input.iterator()), byNumber,
+				Long.MAX_VALUE, false, 100, 2);
+
+		List<BindingSet> expected = new ArrayList<>(input);
+		expected.sort(byNumber);
+		assertEquals(expected, Iterations.asList(external));
+	}
+
+	@Test
+	public void testExternalSortDistinct() {
+		List<BindingSet> input = new ArrayList<>(numbers(1000, 7));
+		input.addAll(numbers(1000, 13));
+
+		OrderIterator external = new OrderIterator(new CloseableIteratorIteration<>(input.iterator()), byNumber(),
+				Long.MAX_VALUE, true, 64, 3);
+
+		List<BindingSet> result = Iterations.asList(external);
+		assertEquals(1000, result.size());
+		for (int i = 0; i < result.size(); i++) {
+			assertEquals(i, ((Literal) result.get(i).getValue("n")).intValue());
+		}
+	}
+
+	@Test
+	public void testExternalSortWithLimit() {
+		List<BindingSet> input = numbers(5000, 31);
+
+		OrderIterator external = new OrderIterator(new CloseableIteratorIteration<>(input.iterator()), byNumber(),
+				250, false, 100, 4);
+
+		List<BindingSet> result = Iterations.asList(external);
+		assertEquals(250, result.size());
+		for (int i = 0; i < result.size(); i++) {
+			assertEquals(i, ((Literal) result.get(i).getValue("n")).intValue());
+		}
+	}
+
+	@Test
+	public void testTopK() {
+		List<BindingSet> input = new ArrayList<>(numbers(1000, 17));
+		input.addAll(numbers(1000, 19));
+
+		OrderIterator topK = new OrderIterator(new CloseableIteratorIteration<>(input.iterator()), byNumber(), 10,
+				false, 100);
+		List<BindingSet> result = Iterations.asList(topK);
+		assertEquals(10, result.size());
+		for (int i = 0; i < result.size(); i++) {
+			assertEquals(i / 2, ((Literal) result.get(i).getValue("n")).intValue());
+		}
+
+		OrderIterator distinctTopK = new OrderIterator(new CloseableIteratorIteration<>(input.iterator()),
+				byNumber(), 10, true, 100);
+		result = Iterations.asList(distinctTopK);
+		assertEquals(10, result.size());
+		for (int i = 0; i < result.size(); i++) {
+			assertEquals(i, ((Literal) result.get(i).getValue("n")).intValue());
+		}
+	}
+
+	@Test
+	public void testSpilledValues() {
+		ValueFactory vf = SimpleValueFactory.getInstance();
+		List<Value> values = List.of(vf.createIRI("urn:a"), vf.createBNode("b1"), vf.createLiteral("plain"),
+				vf.createLiteral("chat", "fr"), vf.createLiteral(42), vf.createLiteral("\u00e9t\u00e9 \ud83c\udf1e"),
+				vf.createTriple(vf.createIRI("urn:s"), vf.createIRI("urn:p"), vf.createLiteral(1.5)));
+
+		List<BindingSet> input = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			QueryBindingSet bindings = new QueryBindingSet();
+			bindings.addBinding("n", vf.createLiteral(i));
+			bindings.addBinding("v" + (i % 3), values.get(i % values.size()));
+			input.add(bindings);
+		}
+
+		OrderIterator external = new OrderIterator(new CloseableIteratorIteration<>(input.iterator()), byNumber(),
+				Long.MAX_VALUE, false, 10);
+
+		assertEquals(input, Iterations.asList(external));
+	}
+
+	private static Comparator<BindingSet> byNumber() {
+		return Comparator.comparingInt(bindings -> ((Literal) bindings.getValue("n")).intValue());
+	}
+
+	/**
+	 * @return the numbers 0 to n - 1 in a shuffled order, <var>step</var> must not share a factor with <var>n</var>
+	 */
+	private static List<BindingSet> numbers(int n, int step) {
+		ValueFactory vf = SimpleValueFactory.getInstance();
+		List<BindingSet> numbers = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			QueryBindingSet bindings = new QueryBindingSet();
+			bindings.addBinding("n", vf.createLiteral((int) ((long) i * step % n)));
+			numbers.add(bindings);
+		}
+		return numbers;
+	}
+
 	@BeforeEach
 	protected void setUp() {
 		list = Arrays.asList(b3, b5, b2, b1, b4, b2);
@@ -40,6 +40,9 @@ public abstract class BinaryTupleOperator extends AbstractQueryModelNode impleme
 	// the name of the algorithm used to combine leftArg and rightArg
 	private String algorithmName;
 
+	// the number of times the algorithm spilled its arguments to disk
+	private long spillCount;
+
 	/*--------------*
 	 * Constructors *
 	 *--------------*/
@@ -164,6 +167,22 @@ public abstract class BinaryTupleOperator extends AbstractQueryModelNode impleme
 		return algorithmName;
 	}
 
+	/**
+	 * @param spillCount the number of times the algorithm spilled its arguments to disk while the query was executed
+	 */
+	@Experimental
+	public void setSpillCount(long spillCount) {
+		this.spillCount = spillCount;
+	}
+
+	/**
+	 * @return the number of times the algorithm spilled its arguments to disk while the query was executed
+	 */
+	@Experimental
+	public long getSpillCount() {
+		return spillCount;
+	}
+
 	@Override
 	public Set<Var> getSupportedOrders(AvailableStatementOrder tripleSource) {
 		Set<Var> leftArgSupportedOrders = leftArg.getSupportedOrders(tripleSource);
@@ -139,12 +139,23 @@ public class QueryModelTreePrinter extends AbstractQueryModelVisitor<RuntimeExce
 		return humanReadbleString;
 	}
 
+	/**
+	 * @return the number of times the node spilled to disk, or UNKNOWN if it did not spill.
+	 */
+	private static String toHumanReadableSpillCount(QueryModelNode node) {
+		if (node instanceof BinaryTupleOperator && ((BinaryTupleOperator) node).getSpillCount() > 0) {
+			return Long.toString(((BinaryTupleOperator) node).getSpillCount());
+		}
+		return "UNKNOWN";
+	}
+
 	private static void appendCostAnnotation(QueryModelNode node, StringBuilder sb) {
 		String costs = Stream.of(
 				"costEstimate=" + toHumanReadableNumber(node.getCostEstimate()),
 				"resultSizeEstimate=" + toHumanReadableNumber(node.getResultSizeEstimate()),
 				"resultSizeActual=" + toHumanReadableNumber(node.getResultSizeActual()),
-				"totalTimeActual=" + toHumanReadableTime(node.getTotalTimeNanosActual()))
+				"totalTimeActual=" + toHumanReadableTime(node.getTotalTimeNanosActual()),
+				"spillCount=" + toHumanReadableSpillCount(node))
 				.filter(s -> !s.endsWith("UNKNOWN"))
 				.reduce((a, b) -> a + ", " + b)
 				.orElse("");
@@ -56,6 +56,7 @@ public class QueryModelTreeToGenericPlanNode extends AbstractQueryModelVisitor<R
 		if (node instanceof BinaryTupleOperator) {
 			String algorithmName = ((BinaryTupleOperator) node).getAlgorithmName();
 			genericPlanNode.setAlgorithm(algorithmName);
+			genericPlanNode.setSpillCount(((BinaryTupleOperator) node).getSpillCount());
 		}
 
 		// convert from nanoseconds to milliseconds
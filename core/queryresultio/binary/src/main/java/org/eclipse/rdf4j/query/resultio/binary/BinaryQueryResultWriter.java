@@ -46,6 +46,7 @@ import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Triple;
 import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.base.Utf8Label;
 import org.eclipse.rdf4j.model.util.Literals;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.QueryResultHandlerException;
@@ -249,7 +250,6 @@ public class BinaryQueryResultWriter extends AbstractQueryResultWriter implement
 	}
 
 	private void writeLiteral(Literal literal) throws IOException {
-		String label = literal.getLabel();
 		IRI datatype = literal.getDatatype();
 
 		int marker;
@@ -268,7 +268,7 @@ public class BinaryQueryResultWriter extends AbstractQueryResultWriter implement
 		}
 
 		out.writeByte(marker);
-		writeString(label);
+		writeLabel(literal);
 
 		if (Literals.isLanguageLiteral(literal)) {
 			writeString(literal.getLanguage().get());
@@ -316,6 +316,19 @@ public class BinaryQueryResultWriter extends AbstractQueryResultWriter implement
 		return result;
 	}
 
+	private void writeLabel(Literal literal) throws IOException {
+		if (literal instanceof Utf8Label) {
+			// copy the encoded label without decoding and re-encoding it
+			byte[] labelData = ((Utf8Label) literal).getLabelUtf8();
+			if (labelData != null) {
+				out.writeInt(labelData.length);
+				out.write(labelData);
+				return;
+			}
+		}
+		writeString(literal.getLabel());
+	}
+
 	private void writeString(String s) throws IOException {
 		ByteBuffer byteBuf = charsetEncoder.encode(CharBuffer.wrap(s));
 		out.writeInt(byteBuf.remaining());
@@ -57,7 +57,7 @@ abstract class HDTArray extends HDTPart {
 	}
 
 	int nrbits;
-	int entries;
+	long entries;
 
 	/**
 	 * Get the type of the array
@@ -78,9 +78,9 @@ abstract class HDTArray extends HDTPart {
 	/**
 	 * Get number of entries in this array
 	 *
-	 * @return positive integer value
+	 * @return positive long value
 	 */
-	int size() {
+	long size() {
 		return entries;
 	}
 
@@ -90,7 +90,17 @@ abstract class HDTArray extends HDTPart {
 	 * @param i zero-based index
 	 * @return entry
 	 */
-	abstract int get(int i);
+	int get(int i) {
+		return (int) getLong(i);
+	}
+
+	/**
+	 * Get entry from this array
+	 *
+	 * @param i zero-based index
+	 * @return entry
+	 */
+	abstract long getLong(long i);
 
 	@Override
 	void parse(InputStream is) throws IOException {
@@ -102,11 +112,7 @@ abstract class HDTArray extends HDTPart {
 				CheckedInputStream cis = new CheckedInputStream(uis, crc8)) {
 
 			nrbits = cis.read();
-			long l = VByte.decode(cis);
-			if (l > Integer.MAX_VALUE) {
-				throw new UnsupportedOperationException("Maximum number of bytes in array exceeded: " + l);
-			}
-			entries = (int) l;
+			entries = VByte.decode(cis);
 
 			checkCRC(cis, is, 1);
 		}
@@ -34,7 +34,7 @@ import org.eclipse.rdf4j.common.io.UncloseableInputStream;
  * @author Bart Hanssens
  */
 class HDTArrayLog64 extends HDTArray {
-	private byte[] buffer;
+	private HDTBuffer buffer;
 
 	@Override
 	int getType() {
@@ -42,10 +42,10 @@ class HDTArrayLog64 extends HDTArray {
 	}
 
 	@Override
-	int get(int i) {
+	long getLong(long i) {
 		// start byte of the value, and start bit in that start byte
-		int bytePos = (i * nrbits) / 8;
-		int bitPos = (i * nrbits) % 8;
+		long bytePos = (i * nrbits) / 8;
+		int bitPos = (int) ((i * nrbits) % 8);
 
 		// value bits may be encoded across boundaries of bytes
 		int tmplen = (bitPos + nrbits + 7) / 8;
@@ -53,13 +53,13 @@ class HDTArrayLog64 extends HDTArray {
 		long val = 0L;
 		// little-endian to big-endian
 		for (int j = 0; j < tmplen; j++) {
-			val |= (buffer[bytePos + j] & 0xFFL) << (j * 8);
+			val |= (buffer.get(bytePos + j) & 0xFFL) << (j * 8);
 		}
 
 		val >>= bitPos;
 		val &= 0xFFFFFFFFFFFFFFFFL >>> (64 - nrbits);
 
-		return (int) val;
+		return val;
 	}
 
 	@Override
@@ -70,15 +70,28 @@ class HDTArrayLog64 extends HDTArray {
 		try (UncloseableInputStream uis = new UncloseableInputStream(is);
 				CheckedInputStream cis = new CheckedInputStream(uis, new CRC32())) {
 			// read bytes, minimum 1
-			long bytes = ((long) nrbits * entries + 7) / 8;
+			long bytes = getByteLength();
 			if (bytes > Integer.MAX_VALUE) {
 				throw new UnsupportedOperationException("Maximum number of bytes in array exceeded: " + bytes);
 			}
 
-			buffer = new byte[(int) bytes];
-			cis.read(buffer);
+			byte[] b = new byte[(int) bytes];
+			cis.read(b);
+			buffer = HDTBuffer.wrap(b);
 
 			checkCRC(cis, is, 4);
 		}
 	}
+
+	@Override
+	void map(HDTFileInputStream is) throws IOException {
+		super.parse(is);
+
+		buffer = is.map(getByteLength());
+		is.skip(4); // CRC32
+	}
+
+	private long getByteLength() {
+		return (nrbits * entries + 7) / 8;
+	}
 }
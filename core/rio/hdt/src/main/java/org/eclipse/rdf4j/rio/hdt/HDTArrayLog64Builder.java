@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.rio.hdt;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.zip.CheckedOutputStream;
+
+import org.eclipse.rdf4j.common.io.UncloseableOutputStream;
+
+/**
+ * Builds an {@link HDTArrayLog64}, using a fixed number of bits per entry.
+ */
+class HDTArrayLog64Builder extends HDTPartBuilder {
+	private final HDTBitWriter bitWriter;
+	private final int nrbits;
+	private long entries;
+
+	/**
+	 * Constructor
+	 *
+	 * @param dir    directory for the temporary file
+	 * @param maxVal largest value that will be added
+	 * @throws IOException
+	 */
+	HDTArrayLog64Builder(Path dir, long maxVal) throws IOException {
+		super(dir);
+		bitWriter = new HDTBitWriter(getDataStream());
+		nrbits = Math.max(1, 64 - Long.numberOfLeadingZeros(maxVal));
+	}
+
+	/**
+	 * Add an entry
+	 *
+	 * @param val value, not larger than the maximum value
+	 * @throws IOException
+	 */
+	void add(long val) throws IOException {
+		bitWriter.write(val, nrbits);
+		entries++;
+	}
+
+	@Override
+	void write(OutputStream os) throws IOException {
+		bitWriter.flush();
+
+		// don't close CheckedOutputStream, as it will close the underlying outputstream
+		try (UncloseableOutputStream uos = new UncloseableOutputStream(os);
+				CheckedOutputStream cos = new CheckedOutputStream(uos, new CRC8())) {
+
+			cos.write(HDTArray.Type.LOG64.getValue());
+			cos.write(nrbits);
+			VByte.encode(cos, entries);
+
+			HDTPart.writeCRC(cos, os, 1);
+		}
+		writeData(os);
+	}
+}
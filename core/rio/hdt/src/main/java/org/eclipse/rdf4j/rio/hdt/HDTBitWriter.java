@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.rio.hdt;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes values using a fixed number of bits, packed the way {@link HDTArrayLog64} and {@link HDTBitmap} read them:
+ * starting with the least significant bit of the first byte.
+ */
+class HDTBitWriter {
+	private final OutputStream os;
+
+	// bits not yet written, and the number of those bits
+	private int current;
+	private int used;
+
+	/**
+	 * Constructor
+	 *
+	 * @param os output stream
+	 */
+	HDTBitWriter(OutputStream os) {
+		this.os = os;
+	}
+
+	/**
+	 * Write the lowest bits of a value
+	 *
+	 * @param value  value
+	 * @param nrbits number of bits
+	 * @throws IOException
+	 */
+	void write(long value, int nrbits) throws IOException {
+		while (nrbits > 0) {
+			int len = Math.min(nrbits, 8 - used);
+			current |= (int) (value & ((1L << len) - 1)) << used;
+			used += len;
+			value >>>= len;
+			nrbits -= len;
+
+			if (used == 8) {
+				os.write(current);
+				current = 0;
+				used = 0;
+			}
+		}
+	}
+
+	/**
+	 * Write the remaining bits, padding the last byte with zeros
+	 *
+	 * @throws IOException
+	 */
+	void flush() throws IOException {
+		if (used > 0) {
+			os.write(current);
+			current = 0;
+			used = 0;
+		}
+	}
+}
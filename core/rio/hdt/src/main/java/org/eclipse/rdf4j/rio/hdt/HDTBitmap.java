@@ -17,13 +17,25 @@ import java.util.zip.CheckedInputStream;
 import org.eclipse.rdf4j.common.io.UncloseableInputStream;
 
 /**
+ * HDT Bitmap.
+ * <p>
+ * When the bitmap is mapped from a file, a directory with the number of 1-bits before every block of
+ * {@value #BLOCK_BITS} bits is built, which allows quick {@link #rank1(long) rank} and {@link #select1(long) select}
+ * operations.
+ *
  * @author Bart Hanssens
  */
 class HDTBitmap extends HDTPart {
 	protected final static int BITMAP1 = 1;
 
-	private int bits;
-	private byte[] buffer;
+	// number of bits per entry in the rank directory, a multiple of 8
+	protected final static int BLOCK_BITS = 4096;
+
+	private long bits;
+	private HDTBuffer buffer;
+
+	// number of 1-bits before the start of each block, only available for mapped bitmaps
+	private long[] ranks;
 
 	/**
 	 * Get bit
@@ -31,27 +43,117 @@ class HDTBitmap extends HDTPart {
 	 * @param i
 	 * @return 0 or 1
 	 */
-	protected int get(int i) {
-		int bytePos = i / 8;
-		int bitPos = i % 8;
+	protected int get(long i) {
+		long bytePos = i / 8;
+		int bitPos = (int) (i % 8);
 
-		byte b = buffer[bytePos];
+		byte b = buffer.get(bytePos);
 		return ((b & 0xFF) >> bitPos) & 1;
 	}
 
 	/**
 	 * Get number of entries in this bitmap
 	 *
-	 * @return positive integer value
+	 * @return positive long value
 	 */
-	protected int size() {
+	protected long size() {
 		return bits;
 	}
 
+	/**
+	 * Count the number of 1-bits before a position
+	 *
+	 * @param i zero-based position (exclusive)
+	 * @return number of 1-bits
+	 */
+	protected long rank1(long i) {
+		long block = i / BLOCK_BITS;
+		long count = ranks[(int) block];
+
+		long bytePos = block * (BLOCK_BITS / 8);
+		long end = i / 8;
+		for (; bytePos < end; bytePos++) {
+			count += Integer.bitCount(buffer.get(bytePos) & 0xFF);
+		}
+		int bitPos = (int) (i % 8);
+		if (bitPos > 0) {
+			count += Integer.bitCount(buffer.get(bytePos) & ((1 << bitPos) - 1));
+		}
+		return count;
+	}
+
+	/**
+	 * Get the position of the n-th 1-bit
+	 *
+	 * @param n one-based number of the 1-bit
+	 * @return zero-based position, or -1 if there are less than n 1-bits
+	 */
+	protected long select1(long n) {
+		if (n < 1) {
+			return -1;
+		}
+
+		// find the last block that starts with less than n 1-bits
+		int lo = 0;
+		int hi = ranks.length - 1;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (ranks[mid] < n) {
+				lo = mid;
+			} else {
+				hi = mid - 1;
+			}
+		}
+
+		long count = ranks[lo];
+		long bytes = buffer.length();
+		for (long bytePos = (long) lo * (BLOCK_BITS / 8); bytePos < bytes; bytePos++) {
+			int b = buffer.get(bytePos) & 0xFF;
+			int c = Integer.bitCount(b);
+			if (count + c >= n) {
+				for (int bitPos = 0;; bitPos++) {
+					if (((b >> bitPos) & 1) == 1 && ++count == n) {
+						long pos = bytePos * 8 + bitPos;
+						return (pos < bits) ? pos : -1;
+					}
+				}
+			}
+			count += c;
+		}
+		return -1;
+	}
+
 	@Override
 	protected void parse(InputStream is) throws IOException {
-		long bytes;
+		parseControl(is);
+
+		// don't close CheckedInputStream, as it will close the underlying inputstream
+		try (UncloseableInputStream uis = new UncloseableInputStream(is);
+				CheckedInputStream cis = new CheckedInputStream(uis, new CRC32())) {
+
+			long bytes = getByteLength();
+			if (bytes > Integer.MAX_VALUE) {
+				throw new UnsupportedOperationException("Maximum number of entries in bitmap exceeded: " + bits);
+			}
+			byte[] b = new byte[(int) bytes];
+			cis.read(b);
+			buffer = HDTBuffer.wrap(b);
+
+			checkCRC(cis, is, 4);
+		}
+	}
+
+	@Override
+	void map(HDTFileInputStream is) throws IOException {
+		parseControl(is);
+
+		buffer = is.map(getByteLength());
+		is.skip(4); // CRC32
 
+		buildRanks();
+	}
+
+	private void parseControl(InputStream is) throws IOException {
 		// don't close CheckedInputStream, as it will close the underlying inputstream
 		try (UncloseableInputStream uis = new UncloseableInputStream(is);
 				CheckedInputStream cis = new CheckedInputStream(uis, new CRC8())) {
@@ -62,24 +164,34 @@ class HDTBitmap extends HDTPart {
 						", but only bitmap v1 is supported");
 			}
 
-			long b = VByte.decode(cis);
-			if (b > Integer.MAX_VALUE) {
-				throw new UnsupportedOperationException("Maximum number of entries in bitmap exceeded: " + b);
-			}
-			bits = (int) b;
-			bytes = (bits + 7) / 8;
+			bits = VByte.decode(cis);
 
 			checkCRC(cis, is, 1);
 		}
+	}
 
-		// don't close CheckedInputStream, as it will close the underlying inputstream
-		try (UncloseableInputStream uis = new UncloseableInputStream(is);
-				CheckedInputStream cis = new CheckedInputStream(uis, new CRC32())) {
+	private long getByteLength() {
+		return (bits + 7) / 8;
+	}
 
-			buffer = new byte[(int) bytes];
-			cis.read(buffer);
+	private void buildRanks() {
+		long blocks = bits / BLOCK_BITS + 1;
+		if (blocks > Integer.MAX_VALUE) {
+			throw new UnsupportedOperationException("Maximum number of entries in bitmap exceeded: " + bits);
+		}
+		ranks = new long[(int) blocks];
 
-			checkCRC(cis, is, 4);
+		long count = 0;
+		long bytes = buffer.length();
+		for (long bytePos = 0; bytePos < bytes; bytePos++) {
+			if (bytePos % (BLOCK_BITS / 8) == 0) {
+				ranks[(int) (bytePos / (BLOCK_BITS / 8))] = count;
+			}
+			count += Integer.bitCount(buffer.get(bytePos) & 0xFF);
+		}
+		// a block starting right at the end of the bitmap
+		if (bytes % (BLOCK_BITS / 8) == 0) {
+			ranks[ranks.length - 1] = count;
 		}
 	}
 }
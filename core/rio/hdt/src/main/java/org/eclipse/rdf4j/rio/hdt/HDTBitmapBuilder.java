@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.rio.hdt;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.zip.CheckedOutputStream;
+
+import org.eclipse.rdf4j.common.io.UncloseableOutputStream;
+
+/**
+ * Builds an {@link HDTBitmap}, one bit at a time.
+ */
+class HDTBitmapBuilder extends HDTPartBuilder {
+	private final HDTBitWriter bitWriter;
+	private long bits;
+
+	/**
+	 * Constructor
+	 *
+	 * @param dir directory for the temporary file
+	 * @throws IOException
+	 */
+	HDTBitmapBuilder(Path dir) throws IOException {
+		super(dir);
+		bitWriter = new HDTBitWriter(getDataStream());
+	}
+
+	/**
+	 * Add a bit
+	 *
+	 * @param bit true for 1, false for 0
+	 * @throws IOException
+	 */
+	void add(boolean bit) throws IOException {
+		bitWriter.write(bit ? 1 : 0, 1);
+		bits++;
+	}
+
+	@Override
+	void write(OutputStream os) throws IOException {
+		bitWriter.flush();
+
+		// don't close CheckedOutputStream, as it will close the underlying outputstream
+		try (UncloseableOutputStream uos = new UncloseableOutputStream(os);
+				CheckedOutputStream cos = new CheckedOutputStream(uos, new CRC8())) {
+
+			cos.write(HDTBitmap.BITMAP1);
+			VByte.encode(cos, bits);
+
+			HDTPart.writeCRC(cos, os, 1);
+		}
+		writeData(os);
+	}
+}
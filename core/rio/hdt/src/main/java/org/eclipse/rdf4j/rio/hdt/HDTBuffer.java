@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.rio.hdt;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only random access to the data of an HDT part, addressed by (long) byte position.
+ * <p>
+ * The data is either held in a byte array, when a part is parsed from a stream, or mapped from a file. Mapped files are
+ * split into segments of at most 1 GiB, so parts larger than 2 GiB can be accessed as well.
+ */
+abstract class HDTBuffer {
+
+	/**
+	 * Get the byte at a position
+	 *
+	 * @param pos zero-based position
+	 * @return byte
+	 */
+	abstract byte get(long pos);
+
+	/**
+	 * Get the number of bytes
+	 *
+	 * @return length
+	 */
+	abstract long length();
+
+	/**
+	 * Get the first position of the NULL byte
+	 *
+	 * @param start position to start from
+	 * @return position of first NULL byte
+	 * @throws IOException
+	 */
+	long countToNull(long start) throws IOException {
+		long len = length();
+		for (long i = start; i < len; i++) {
+			if (get(i) == 0b00) {
+				return i;
+			}
+		}
+		throw new IOException("No null byte found in buffer starting at byte " + start);
+	}
+
+	/**
+	 * Copy a range of bytes
+	 *
+	 * @param from start position (inclusive)
+	 * @param to   end position (exclusive)
+	 * @return bytes
+	 */
+	byte[] copyOfRange(long from, long to) {
+		byte[] b = new byte[(int) (to - from)];
+		for (int i = 0; i < b.length; i++) {
+			b[i] = get(from + i);
+		}
+		return b;
+	}
+
+	/**
+	 * Decode a VByte-encoded value
+	 *
+	 * @param start position of the first byte
+	 * @return value
+	 */
+	long decodeVByte(long start) {
+		byte[] buffer = new byte[8];
+
+		int i = 0;
+		do {
+			buffer[i] = get(start + i);
+		} while (i + 1 < buffer.length && VByte.hasNext(buffer[i++]));
+		return VByte.decode(buffer, i);
+	}
+
+	/**
+	 * Wrap a byte array
+	 *
+	 * @param b byte array
+	 * @return buffer
+	 */
+	static HDTBuffer wrap(byte[] b) {
+		return new HeapBuffer(b);
+	}
+
+	/**
+	 * Map a region of a file into memory
+	 *
+	 * @param channel file channel
+	 * @param pos     start position of the region in the file
+	 * @param len     length of the region
+	 * @return buffer
+	 * @throws IOException
+	 */
+	static HDTBuffer map(FileChannel channel, long pos, long len) throws IOException {
+		return new MappedBuffer(channel, pos, len);
+	}
+
+	private static final class HeapBuffer extends HDTBuffer {
+		private final byte[] buffer;
+
+		private HeapBuffer(byte[] buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		byte get(long pos) {
+			return buffer[(int) pos];
+		}
+
+		@Override
+		long length() {
+			return buffer.length;
+		}
+
+		@Override
+		byte[] copyOfRange(long from, long to) {
+			byte[] b = new byte[(int) (to - from)];
+			System.arraycopy(buffer, (int) from, b, 0, b.length);
+			return b;
+		}
+	}
+
+	private static final class MappedBuffer extends HDTBuffer {
+		// 1 GiB segments
+		private static final int SEGMENT_SHIFT = 30;
+		private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+		private final MappedByteBuffer[] segments;
+		private final long length;
+
+		private MappedBuffer(FileChannel channel, long pos, long len) throws IOException {
+			int count = (int) ((len + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+			segments = new MappedByteBuffer[count];
+			for (int i = 0; i < count; i++) {
+				long start = (long) i << SEGMENT_SHIFT;
+				long size = Math.min(len - start, 1L << SEGMENT_SHIFT);
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, pos + start, size);
+			}
+			length = len;
+		}
+
+		@Override
+		byte get(long pos) {
+			return segments[(int) (pos >>> SEGMENT_SHIFT)].get((int) (pos & SEGMENT_MASK));
+		}
+
+		@Override
+		long length() {
+			return length;
+		}
+	}
+}
@@ -12,10 +12,13 @@ package org.eclipse.rdf4j.rio.hdt;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
 import org.eclipse.rdf4j.common.io.UncloseableInputStream;
+import org.eclipse.rdf4j.common.io.UncloseableOutputStream;
 
 /**
  * HDT Dictionary Part.
@@ -40,6 +43,7 @@ class HDTDictionary extends HDTPart {
 			.getBytes(StandardCharsets.US_ASCII);
 	final static String DICT_MAPPING = "mapping";
 	final static String DICT_ELEMENTS = "elements";
+	final static String DICT_SIZE_STRINGS = "sizeStrings";
 
 	@Override
 	void parse(InputStream is) throws IOException {
@@ -55,4 +59,23 @@ class HDTDictionary extends HDTPart {
 			checkCRC(cis, is, 2);
 		}
 	}
+
+	/**
+	 * Write to output stream
+	 *
+	 * @param os output stream
+	 * @throws IOException
+	 */
+	void write(OutputStream os) throws IOException {
+		// don't close CheckedOutputStream, as it will close the underlying outputstream
+		try (UncloseableOutputStream uos = new UncloseableOutputStream(os);
+				CheckedOutputStream cos = new CheckedOutputStream(uos, new CRC16())) {
+
+			writeControl(cos, HDTPart.Type.DICTIONARY);
+			writeFormat(cos, DICT_FORMAT);
+			writeProperties(cos, properties);
+
+			writeCRC(cos, os, 2);
+		}
+	}
 }
@@ -42,15 +42,23 @@ abstract class HDTDictionarySection extends HDTPart {
 	 *
 	 * @return
 	 */
-	abstract int size();
+	abstract long size();
 
 	/**
 	 * Get the entry
 	 *
-	 * @param i zero-based index
+	 * @param i one-based index
 	 * @return
 	 */
-	abstract byte[] get(int i) throws IOException;
+	abstract byte[] get(long i) throws IOException;
+
+	/**
+	 * Find an entry
+	 *
+	 * @param str entry to search for
+	 * @return one-based index, or 0 if the entry is not present
+	 */
+	abstract long find(byte[] str) throws IOException;
 
 	/**
 	 * Constructor
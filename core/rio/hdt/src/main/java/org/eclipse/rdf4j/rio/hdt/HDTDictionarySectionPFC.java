@@ -54,14 +54,14 @@ import org.eclipse.rdf4j.common.io.UncloseableInputStream;
  * @author Bart Hanssens
  */
 class HDTDictionarySectionPFC extends HDTDictionarySection {
-	private byte[] buffer;
+	private HDTBuffer buffer;
 
-	private int totalStrings;
+	private long totalStrings;
 	private int stringsBlock;
 	private HDTArray blockStarts;
 
 	// keep most recently used blocks in memory as decoded values
-	private final LinkedHashMap<Integer, ArrayList<byte[]>> cache = new LinkedHashMap<>(100, 1, true) {
+	private final LinkedHashMap<Long, ArrayList<byte[]>> cache = new LinkedHashMap<>(100, 1, true) {
 		@Override
 		protected boolean removeEldestEntry(Map.Entry eldest) {
 			return size() > 99;
@@ -79,51 +79,103 @@ class HDTDictionarySectionPFC extends HDTDictionarySection {
 	}
 
 	@Override
-	int size() {
+	long size() {
 		return totalStrings;
 	}
 
 	@Override
-	byte[] get(int i) throws IOException {
+	byte[] get(long i) throws IOException {
 		// HDT index start counting from 1
-		int idx = i - 1;
+		long idx = i - 1;
 
 		// get the block this string belongs to, and maintain the cache of recently used blocks
-		int block = idx / stringsBlock;
+		long block = idx / stringsBlock;
 
-		ArrayList<byte[]> strings = cache.get(block);
-		if (strings == null) {
-			int blockStart = blockStarts.get(block);
-			strings = decodeBlock(block, blockStart);
-			cache.put(block, strings);
+		return getBlock(block).get((int) (idx - (block * stringsBlock)));
+	}
+
+	@Override
+	long find(byte[] str) throws IOException {
+		long blocks = (totalStrings + stringsBlock - 1) / stringsBlock;
+		if (blocks == 0) {
+			return 0;
+		}
+
+		// strings are sorted, so look for the last block starting with a string that is not larger
+		long lo = 0;
+		long hi = blocks - 1;
+		while (lo < hi) {
+			long mid = (lo + hi + 1) >>> 1;
+			if (compareAt(blockStarts.getLong(mid), str) <= 0) {
+				lo = mid;
+			} else {
+				hi = mid - 1;
+			}
+		}
+
+		ArrayList<byte[]> strings = getBlock(lo);
+		for (int j = 0; j < strings.size(); j++) {
+			if (Arrays.equals(strings.get(j), str)) {
+				return lo * stringsBlock + j + 1;
+			}
 		}
-		return strings.get(idx - (block * stringsBlock));
+		return 0;
 	}
 
 	@Override
 	void parse(InputStream is) throws IOException {
+		long buflen = parseControl(is);
+		if (buflen > Integer.MAX_VALUE) {
+			throw new UnsupportedOperationException(getDebugPartStr() + " max buffer length exceeded: " + buflen);
+		}
+
+		// keep track of starting positions of the blocks
+		blockStarts = HDTArrayFactory.parse(is);
+		blockStarts.parse(is);
+
+		// don't close CheckedInputStream, as it will close the underlying inputstream
+		try (UncloseableInputStream uis = new UncloseableInputStream(is);
+				CheckedInputStream cis = new CheckedInputStream(uis, new CRC32())) {
+
+			byte[] b = new byte[(int) buflen];
+			cis.read(b);
+			buffer = HDTBuffer.wrap(b);
+			checkCRC(cis, is, 4);
+		}
+	}
+
+	@Override
+	void map(HDTFileInputStream is) throws IOException {
+		long buflen = parseControl(is);
+
+		blockStarts = HDTArrayFactory.parse(is);
+		blockStarts.map(is);
+
+		buffer = is.map(buflen);
+		is.skip(4); // CRC32
+	}
+
+	/**
+	 * Parse the number of strings, the buffer length and the number of strings per block
+	 *
+	 * @param is input stream
+	 * @return buffer length
+	 * @throws IOException
+	 */
+	private long parseControl(InputStream is) throws IOException {
 		CRC8 crc8 = new CRC8();
 		crc8.update((byte) HDTDictionarySection.Type.FRONT.getValue());
 
-		int buflen;
+		long buflen;
 
 		// don't close CheckedInputStream, as it will close the underlying inputstream
 		try (UncloseableInputStream uis = new UncloseableInputStream(is);
 				CheckedInputStream cis = new CheckedInputStream(uis, crc8)) {
 
-			long val = VByte.decode(cis);
-			if (val > Integer.MAX_VALUE) {
-				throw new UnsupportedOperationException(getDebugPartStr() + " max number of strings exceeded: " + val);
-			}
-			totalStrings = (int) val;
-
-			val = VByte.decode(cis);
-			if (val > Integer.MAX_VALUE) {
-				throw new UnsupportedOperationException(getDebugPartStr() + " max buffer length exceeded: " + val);
-			}
-			buflen = (int) val;
+			totalStrings = VByte.decode(cis);
+			buflen = VByte.decode(cis);
 
-			val = VByte.decode(cis);
+			long val = VByte.decode(cis);
 			if (val > Integer.MAX_VALUE) {
 				throw new UnsupportedOperationException(
 						getDebugPartStr() + "max number of strings per exceeded: " + val);
@@ -132,18 +184,42 @@ class HDTDictionarySectionPFC extends HDTDictionarySection {
 
 			checkCRC(cis, is, 1);
 		}
+		return buflen;
+	}
 
-		// keep track of starting positions of the blocks
-		blockStarts = HDTArrayFactory.parse(is);
-		blockStarts.parse(is);
-
-		// don't close CheckedInputStream, as it will close the underlying inputstream
-		try (UncloseableInputStream uis = new UncloseableInputStream(is);
-				CheckedInputStream cis = new CheckedInputStream(uis, new CRC32())) {
+	/**
+	 * Get the decoded strings of a block, using the cache of recently used blocks
+	 *
+	 * @param block block number
+	 * @return list of decoded byte strings
+	 * @throws IOException
+	 */
+	private ArrayList<byte[]> getBlock(long block) throws IOException {
+		synchronized (cache) {
+			ArrayList<byte[]> strings = cache.get(block);
+			if (strings == null) {
+				long blockStart = blockStarts.getLong(block);
+				strings = decodeBlock(block, blockStart);
+				cache.put(block, strings);
+			}
+			return strings;
+		}
+	}
 
-			buffer = new byte[buflen];
-			cis.read(buffer);
-			checkCRC(cis, is, 4);
+	/**
+	 * Compare the (null terminated) string starting at a position in the buffer to another string, byte by byte
+	 *
+	 * @param start starting position
+	 * @param str   string to compare to
+	 * @return negative, zero or positive value
+	 */
+	private int compareAt(long start, byte[] str) {
+		for (int i = 0;; i++) {
+			int a = buffer.get(start + i) & 0xFF;
+			int b = (i < str.length) ? str[i] & 0xFF : 0;
+			if (a != b || a == 0) {
+				return a - b;
+			}
 		}
 	}
 
@@ -155,23 +231,23 @@ class HDTDictionarySectionPFC extends HDTDictionarySection {
 	 * @return list of decoded byte strings
 	 * @throws IOException
 	 */
-	private ArrayList<byte[]> decodeBlock(int block, int start) throws IOException {
+	private ArrayList<byte[]> decodeBlock(long block, long start) throws IOException {
 		ArrayList<byte[]> arr = new ArrayList<>(stringsBlock);
 
 		// initial string
-		int idx = start;
-		int end = HDTPart.countToNull(buffer, idx);
-		byte[] str = Arrays.copyOfRange(buffer, idx, end);
+		long idx = start;
+		long end = buffer.countToNull(idx);
+		byte[] str = buffer.copyOfRange(idx, end);
 		arr.add(str);
 		idx = end + 1;
 
 		// read the remaining strings, with a maximum of stringsBlock
-		int remaining = totalStrings - (block * stringsBlock);
+		long remaining = totalStrings - (block * stringsBlock);
 		for (int j = 1; j < stringsBlock && j < remaining; j++) {
-			int common = (int) VByte.decodeFrom(buffer, idx);
+			int common = (int) buffer.decodeVByte(idx);
 			idx += VByte.encodedLength(common);
-			end = HDTPart.countToNull(buffer, idx);
-			byte[] suffix = Arrays.copyOfRange(buffer, idx, end);
+			end = buffer.countToNull(idx);
+			byte[] suffix = buffer.copyOfRange(idx, end);
 
 			// copy the common part and add the suffix
 			str = Arrays.copyOf(str, common + suffix.length);
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.rio.hdt;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CheckedOutputStream;
+
+import org.eclipse.rdf4j.common.io.UncloseableOutputStream;
+
+/**
+ * Builds an {@link HDTDictionarySectionPFC} from strings that are added in (unsigned) byte order.
+ * <p>
+ * The starting positions of the blocks are kept in a second temporary file, since the number of bits needed to encode
+ * them is only known at the end.
+ */
+class HDTDictionarySectionPFCBuilder extends HDTPartBuilder {
+	private final Path dir;
+	private final int stringsBlock;
+
+	private final Path startsFile;
+	private final DataOutputStream starts;
+
+	private long totalStrings;
+	private byte[] prev;
+
+	/**
+	 * Constructor
+	 *
+	 * @param dir          directory for the temporary files
+	 * @param stringsBlock number of strings per block
+	 * @throws IOException
+	 */
+	HDTDictionarySectionPFCBuilder(Path dir, int stringsBlock) throws IOException {
+		super(dir);
+		this.dir = dir;
+		this.stringsBlock = stringsBlock;
+
+		startsFile = Files.createTempFile(dir, "starts", ".tmp");
+		starts = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(startsFile)));
+	}
+
+	/**
+	 * Get the number of strings added so far
+	 *
+	 * @return number of strings
+	 */
+	long size() {
+		return totalStrings;
+	}
+
+	/**
+	 * Add a string, which must be larger than the previously added string and can not contain a NULL byte.
+	 *
+	 * @param str byte string
+	 * @throws IOException
+	 */
+	void add(byte[] str) throws IOException {
+		OutputStream data = getDataStream();
+
+		if (totalStrings % stringsBlock == 0) {
+			// each block starts with a full string
+			starts.writeLong(getDataLength());
+			data.write(str);
+		} else {
+			int common = Arrays.mismatch(prev, str);
+			VByte.encode(data, common);
+			data.write(str, common, str.length - common);
+		}
+		data.write(0b00);
+
+		prev = str;
+		totalStrings++;
+	}
+
+	@Override
+	void write(OutputStream os) throws IOException {
+		starts.close();
+		long buflen = getDataLength();
+
+		// don't close CheckedOutputStream, as it will close the underlying outputstream
+		try (UncloseableOutputStream uos = new UncloseableOutputStream(os);
+				CheckedOutputStream cos = new CheckedOutputStream(uos, new CRC8())) {
+
+			cos.write(HDTDictionarySection.Type.FRONT.getValue());
+			VByte.encode(cos, totalStrings);
+			VByte.encode(cos, buflen);
+			VByte.encode(cos, stringsBlock);
+
+			HDTPart.writeCRC(cos, os, 1);
+		}
+
+		// the array contains the starting position of each block, followed by the end of the last block
+		try (HDTArrayLog64Builder blockStarts = new HDTArrayLog64Builder(dir, buflen);
+				DataInputStream dis = new DataInputStream(
+						new BufferedInputStream(Files.newInputStream(startsFile)))) {
+			long blocks = (totalStrings + stringsBlock - 1) / stringsBlock;
+			for (long i = 0; i < blocks; i++) {
+				blockStarts.add(dis.readLong());
+			}
+			blockStarts.add(buflen);
+			blockStarts.write(os);
+		}
+
+		writeData(os);
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			starts.close();
+			Files.deleteIfExists(startsFile);
+		} finally {
+			super.close();
+		}
+	}
+}
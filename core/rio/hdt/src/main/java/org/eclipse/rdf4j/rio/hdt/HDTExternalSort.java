@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.rio.hdt;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts a (potentially) large number of records using a bounded amount of memory.
+ * <p>
+ * Records are collected in a buffer, which is sorted and written to a temporary file (a "run") each time it is full.
+ * The runs are merged when the sorted records are requested. When there are too many runs to merge at once, some of
+ * them are merged into a larger run first.
+ *
+ * @param <T> type of the records
+ */
+class HDTExternalSort<T> implements Closeable {
+	// maximum number of runs that are merged at once
+	private static final int MAX_FAN_IN = 64;
+	private static final int IO_BUFFER = 64 * 1024;
+
+	/**
+	 * Reads and writes records from and to the temporary files.
+	 *
+	 * @param <T> type of the records
+	 */
+	interface Codec<T> {
+		void write(DataOutput out, T record) throws IOException;
+
+		T read(DataInput in) throws IOException;
+	}
+
+	/**
+	 * Cursor over the sorted records.
+	 *
+	 * @param <T> type of the records
+	 */
+	interface Cursor<T> {
+		/**
+		 * Get the next record
+		 *
+		 * @return record, or null when there are no more records
+		 * @throws IOException
+		 */
+		T next() throws IOException;
+	}
+
+	private final Path dir;
+	private final Comparator<T> comparator;
+	private final Codec<T> codec;
+	private final int bufferSize;
+
+	private final List<T> buffer = new ArrayList<>();
+	private final List<Run> runs = new ArrayList<>();
+	private final List<RunReader> readers = new ArrayList<>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param dir        directory for the temporary files
+	 * @param comparator sort order
+	 * @param codec      codec for the records
+	 * @param bufferSize maximum number of records kept in memory
+	 */
+	HDTExternalSort(Path dir, Comparator<T> comparator, Codec<T> codec, int bufferSize) {
+		this.dir = dir;
+		this.comparator = comparator;
+		this.codec = codec;
+		this.bufferSize = Math.max(1, bufferSize);
+	}
+
+	/**
+	 * Add a record
+	 *
+	 * @param record record
+	 * @throws IOException
+	 */
+	void add(T record) throws IOException {
+		buffer.add(record);
+		if (buffer.size() >= bufferSize) {
+			spill();
+		}
+	}
+
+	/**
+	 * Get the records in sorted order. Records can not be added after calling this method.
+	 *
+	 * @return cursor
+	 * @throws IOException
+	 */
+	Cursor<T> sorted() throws IOException {
+		if (runs.isEmpty()) {
+			buffer.sort(comparator);
+			return new Cursor<>() {
+				private int i = 0;
+
+				@Override
+				public T next() {
+					return (i < buffer.size()) ? buffer.get(i++) : null;
+				}
+			};
+		}
+
+		if (!buffer.isEmpty()) {
+			spill();
+		}
+		while (runs.size() > MAX_FAN_IN) {
+			mergeFirstRuns();
+		}
+		return open(runs);
+	}
+
+	@Override
+	public void close() throws IOException {
+		buffer.clear();
+		IOException ex = null;
+		for (RunReader reader : readers) {
+			try {
+				reader.in.close();
+			} catch (IOException e) {
+				ex = e;
+			}
+		}
+		readers.clear();
+		for (Run run : runs) {
+			try {
+				Files.deleteIfExists(run.file);
+			} catch (IOException e) {
+				ex = e;
+			}
+		}
+		runs.clear();
+		if (ex != null) {
+			throw ex;
+		}
+	}
+
+	/**
+	 * Sort the buffer and write it to a new run
+	 *
+	 * @throws IOException
+	 */
+	private void spill() throws IOException {
+		buffer.sort(comparator);
+
+		Path file = Files.createTempFile(dir, "sort", ".tmp");
+		runs.add(new Run(file, buffer.size()));
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(file), IO_BUFFER))) {
+			for (T record : buffer) {
+				codec.write(out, record);
+			}
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Merge the first runs into a single new run, which is added at the end, and delete the merged runs
+	 *
+	 * @throws IOException
+	 */
+	private void mergeFirstRuns() throws IOException {
+		List<Run> merged = new ArrayList<>(runs.subList(0, MAX_FAN_IN));
+
+		Path file = Files.createTempFile(dir, "sort", ".tmp");
+		Run run = new Run(file, 0);
+		// register the new run first, so it gets deleted on close in case of errors
+		runs.add(run);
+
+		Cursor<T> cursor = open(merged);
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(file), IO_BUFFER))) {
+			for (T record = cursor.next(); record != null; record = cursor.next()) {
+				codec.write(out, record);
+				run.count++;
+			}
+		}
+
+		runs.subList(0, MAX_FAN_IN).clear();
+		for (Run r : merged) {
+			Files.deleteIfExists(r.file);
+		}
+	}
+
+	/**
+	 * Open a cursor merging the sorted records of multiple runs
+	 *
+	 * @param toMerge runs
+	 * @return cursor
+	 * @throws IOException
+	 */
+	private Cursor<T> open(List<Run> toMerge) throws IOException {
+		PriorityQueue<RunReader> queue = new PriorityQueue<>(toMerge.size(),
+				(a, b) -> comparator.compare(a.head, b.head));
+		for (Run run : toMerge) {
+			RunReader reader = new RunReader(run);
+			readers.add(reader);
+			if (reader.advance()) {
+				queue.add(reader);
+			}
+		}
+
+		return () -> {
+			RunReader reader = queue.poll();
+			if (reader == null) {
+				return null;
+			}
+			T record = reader.head;
+			if (reader.advance()) {
+				queue.add(reader);
+			}
+			return record;
+		};
+	}
+
+	private static class Run {
+		private final Path file;
+		private long count;
+
+		private Run(Path file, long count) {
+			this.file = file;
+			this.count = count;
+		}
+	}
+
+	private class RunReader {
+		private final DataInputStream in;
+		private long remaining;
+		private T head;
+
+		private RunReader(Run run) throws IOException {
+			in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run.file), IO_BUFFER));
+			remaining = run.count;
+		}
+
+		private boolean advance() throws IOException {
+			if (remaining == 0) {
+				head = null;
+				in.close();
+				return false;
+			}
+			remaining--;
+			head = codec.read(in);
+			return true;
+		}
+	}
+}
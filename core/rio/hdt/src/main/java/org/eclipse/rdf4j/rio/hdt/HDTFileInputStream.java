@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.rio.hdt;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Buffered input stream on a file channel, which can also map the next bytes of the file into memory instead of
+ * reading them. Used to read the (small) control information of HDT parts, while leaving the (large) data sections in
+ * the file.
+ */
+class HDTFileInputStream extends InputStream {
+	private static final int BUFLEN = 8 * 1024;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFLEN);
+
+	// position in the file of the first byte in the buffer
+	private long bufferPos;
+
+	/**
+	 * Constructor
+	 *
+	 * @param channel file channel
+	 */
+	HDTFileInputStream(FileChannel channel) {
+		this.channel = channel;
+		buffer.limit(0);
+	}
+
+	/**
+	 * Get the position of the next byte to be read
+	 *
+	 * @return position in the file
+	 */
+	long getPosition() {
+		return bufferPos + buffer.position();
+	}
+
+	/**
+	 * Map the next bytes of the file, and move past them
+	 *
+	 * @param len number of bytes
+	 * @return mapped buffer
+	 * @throws IOException
+	 */
+	HDTBuffer map(long len) throws IOException {
+		long pos = getPosition();
+		if (pos + len > channel.size()) {
+			throw new EOFException("Section of " + len + " bytes at byte " + pos + " exceeds the end of the file");
+		}
+		HDTBuffer mapped = HDTBuffer.map(channel, pos, len);
+		seek(pos + len);
+		return mapped;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!buffer.hasRemaining() && !fill()) {
+			return -1;
+		}
+		return buffer.get() & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		// the parts read fixed-length fields with a single read() call, so fill the array as far as possible
+		int total = 0;
+		while (total < len) {
+			if (!buffer.hasRemaining() && !fill()) {
+				return (total == 0) ? -1 : total;
+			}
+			int n = Math.min(len - total, buffer.remaining());
+			buffer.get(b, off + total, n);
+			total += n;
+		}
+		return total;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long pos = getPosition();
+		long skipped = Math.max(0, Math.min(n, channel.size() - pos));
+		seek(pos + skipped);
+		return skipped;
+	}
+
+	@Override
+	public void close() {
+		// the channel is owned by the caller
+	}
+
+	private void seek(long pos) {
+		bufferPos = pos;
+		buffer.clear();
+		buffer.limit(0);
+	}
+
+	private boolean fill() throws IOException {
+		long pos = getPosition();
+		buffer.clear();
+		int n = channel.read(buffer, pos);
+		buffer.flip();
+		bufferPos = pos;
+		return n > 0;
+	}
+}
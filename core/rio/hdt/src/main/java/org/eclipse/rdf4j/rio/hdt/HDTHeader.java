@@ -12,10 +12,14 @@ package org.eclipse.rdf4j.rio.hdt;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
 import org.eclipse.rdf4j.common.io.UncloseableInputStream;
+import org.eclipse.rdf4j.common.io.UncloseableOutputStream;
 
 /**
  * HDT Header Part.
@@ -79,4 +83,34 @@ class HDTHeader extends HDTPart {
 		is.read(b);
 		return b;
 	}
+
+	/**
+	 * Set raw header data (byte array data stored as NTriples), and the length property
+	 *
+	 * @param headerData byte array
+	 */
+	void setHeaderData(byte[] headerData) {
+		this.headerData = headerData;
+		properties = Map.of(HEADER_LENGTH, Integer.toString(headerData.length));
+	}
+
+	/**
+	 * Write to output stream
+	 *
+	 * @param os output stream
+	 * @throws IOException
+	 */
+	void write(OutputStream os) throws IOException {
+		// don't close CheckedOutputStream, as it will close the underlying outputstream
+		try (UncloseableOutputStream uos = new UncloseableOutputStream(os);
+				CheckedOutputStream cos = new CheckedOutputStream(uos, new CRC16())) {
+
+			writeControl(cos, HDTPart.Type.HEADER);
+			writeFormat(cos, HEADER_FORMAT);
+			writeProperties(cos, properties);
+
+			writeCRC(cos, os, 2);
+		}
+		os.write(headerData);
+	}
 }
@@ -0,0 +1,395 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.rio.hdt;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+
+/**
+ * Read-only access to an HDT file that is mapped into memory, instead of being parsed into a stream of statements.
+ * <p>
+ * The dictionaries and triples stay in the file and are only paged in when accessed, so files larger than the
+ * available heap (and with more than 2^31 entries) can be used. All positions and identifiers are longs.
+ * <p>
+ * Terms are identified by their position in the dictionaries, starting with 1. Subjects and objects that are present
+ * in the shared dictionary have the same identifier in both roles. Only the SPO order is available, so triple patterns
+ * with a bound subject are answered directly from the index, while other patterns require a scan over part of (or
+ * all) triples.
+ * <p>
+ * Instances are safe for concurrent use.
+ */
+@Experimental
+public class HDTMappedFile implements Closeable {
+	private final FileChannel channel;
+
+	private final HDTDictionarySection shared;
+	private final HDTDictionarySection subjects;
+	private final HDTDictionarySection predicates;
+	private final HDTDictionarySection objects;
+
+	private final HDTBitmap bitmapY;
+	private final HDTBitmap bitmapZ;
+	private final HDTArray arrY;
+	private final HDTArray arrZ;
+
+	/**
+	 * Open an HDT file
+	 *
+	 * @param path path to the file
+	 * @return mapped file
+	 * @throws IOException
+	 */
+	public static HDTMappedFile open(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			return new HDTMappedFile(channel);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private HDTMappedFile(FileChannel channel) throws IOException {
+		this.channel = channel;
+
+		HDTFileInputStream is = new HDTFileInputStream(channel);
+		new HDTGlobal().map(is);
+		new HDTHeader().map(is);
+		new HDTDictionary().map(is);
+
+		shared = HDTDictionarySectionFactory.parse(is, "S+O", is.getPosition());
+		shared.map(is);
+		subjects = HDTDictionarySectionFactory.parse(is, "S", is.getPosition());
+		subjects.map(is);
+		predicates = HDTDictionarySectionFactory.parse(is, "P", is.getPosition());
+		predicates.map(is);
+		objects = HDTDictionarySectionFactory.parse(is, "O", is.getPosition());
+		objects.map(is);
+
+		new HDTTriples().map(is);
+		HDTTriplesSectionBitmap section = (HDTTriplesSectionBitmap) HDTTriplesSectionFactory
+				.parse(new String(HDTTriples.FORMAT_BITMAP));
+		section.map(is);
+
+		bitmapY = section.getBitmapY();
+		bitmapZ = section.getBitmapZ();
+		arrY = section.getArrayY();
+		arrZ = section.getArrayZ();
+	}
+
+	/**
+	 * Get the number of triples
+	 *
+	 * @return number of triples
+	 */
+	public long getTripleCount() {
+		return bitmapZ.size();
+	}
+
+	/**
+	 * Get the number of terms used as subject as well as object
+	 *
+	 * @return number of shared terms
+	 */
+	public long getSharedCount() {
+		return shared.size();
+	}
+
+	/**
+	 * Get the number of distinct subjects
+	 *
+	 * @return number of subjects
+	 */
+	public long getSubjectCount() {
+		return shared.size() + subjects.size();
+	}
+
+	/**
+	 * Get the number of distinct predicates
+	 *
+	 * @return number of predicates
+	 */
+	public long getPredicateCount() {
+		return predicates.size();
+	}
+
+	/**
+	 * Get the number of distinct objects
+	 *
+	 * @return number of objects
+	 */
+	public long getObjectCount() {
+		return shared.size() + objects.size();
+	}
+
+	/**
+	 * Get the dictionary entry of a subject
+	 *
+	 * @param id identifier
+	 * @return byte string, see {@link HDTTerms}
+	 * @throws IOException
+	 */
+	public byte[] getSubject(long id) throws IOException {
+		checkID(id, getSubjectCount());
+		long size = shared.size();
+		return (id <= size) ? shared.get(id) : subjects.get(id - size);
+	}
+
+	/**
+	 * Get the dictionary entry of a predicate
+	 *
+	 * @param id identifier
+	 * @return byte string, see {@link HDTTerms}
+	 * @throws IOException
+	 */
+	public byte[] getPredicate(long id) throws IOException {
+		checkID(id, getPredicateCount());
+		return predicates.get(id);
+	}
+
+	/**
+	 * Get the dictionary entry of an object
+	 *
+	 * @param id identifier
+	 * @return byte string, see {@link HDTTerms}
+	 * @throws IOException
+	 */
+	public byte[] getObject(long id) throws IOException {
+		checkID(id, getObjectCount());
+		long size = shared.size();
+		return (id <= size) ? shared.get(id) : objects.get(id - size);
+	}
+
+	/**
+	 * Get the identifier of a subject
+	 *
+	 * @param term byte string, see {@link HDTTerms}
+	 * @return identifier, or 0 if the term is not used as subject
+	 * @throws IOException
+	 */
+	public long getSubjectID(byte[] term) throws IOException {
+		return find(term, subjects);
+	}
+
+	/**
+	 * Get the identifier of a predicate
+	 *
+	 * @param term byte string, see {@link HDTTerms}
+	 * @return identifier, or 0 if the term is not used as predicate
+	 * @throws IOException
+	 */
+	public long getPredicateID(byte[] term) throws IOException {
+		return predicates.find(term);
+	}
+
+	/**
+	 * Get the identifier of an object
+	 *
+	 * @param term byte string, see {@link HDTTerms}
+	 * @return identifier, or 0 if the term is not used as object
+	 * @throws IOException
+	 */
+	public long getObjectID(byte[] term) throws IOException {
+		return find(term, objects);
+	}
+
+	/**
+	 * Search triples matching a pattern. The triples are returned in SPO order.
+	 *
+	 * @param subj subject identifier, or 0 as wildcard
+	 * @param pred predicate identifier, or 0 as wildcard
+	 * @param obj  object identifier, or 0 as wildcard
+	 * @return iterator over subject, predicate and object identifiers
+	 */
+	public Iterator<long[]> search(long subj, long pred, long obj) {
+		return new SearchIterator(subj, pred, obj);
+	}
+
+	/**
+	 * Estimate the cost of searching triples matching a pattern, as the number of triples that are visited. For
+	 * patterns with a bound subject, this is the number of matching triples: exact for patterns with only a bound
+	 * subject, and an upper bound for other patterns. Patterns without a subject can not use the SPO index, so their
+	 * cost is the number of triples in the file, regardless of the number of matching triples.
+	 *
+	 * @param subj subject identifier, or 0 as wildcard
+	 * @param pred predicate identifier, or 0 as wildcard
+	 * @param obj  object identifier, or 0 as wildcard
+	 * @return estimated number of visited triples
+	 */
+	public long estimate(long subj, long pred, long obj) {
+		if (subj == 0) {
+			// a scan over all triples
+			return getTripleCount();
+		}
+
+		long yLast = bitmapY.select1(subj);
+		if (yLast < 0) {
+			return 0;
+		}
+		long yFirst = (subj == 1) ? 0 : bitmapY.select1(subj - 1) + 1;
+		if (pred == 0 && obj == 0) {
+			return zStart(yLast + 1) - zStart(yFirst);
+		}
+
+		long count = 0;
+		for (long y = yFirst; y <= yLast; y++) {
+			if (pred == 0 || arrY.getLong(y) == pred) {
+				// a subject and predicate have each object at most once
+				count += (obj == 0) ? zStart(y + 1) - zStart(y) : 1;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public void close() throws IOException {
+		// the mapped buffers are released by the garbage collector
+		channel.close();
+	}
+
+	private long find(byte[] term, HDTDictionarySection other) throws IOException {
+		long id = shared.find(term);
+		if (id > 0) {
+			return id;
+		}
+		id = other.find(term);
+		return (id > 0) ? id + shared.size() : 0;
+	}
+
+	private static void checkID(long id, long max) {
+		if (id < 1 || id > max) {
+			throw new IllegalArgumentException("Identifier out of range: " + id);
+		}
+	}
+
+	/**
+	 * Get the first Z position (object) of a Y position (subject and predicate pair)
+	 *
+	 * @param y zero-based Y position
+	 * @return zero-based Z position
+	 */
+	private long zStart(long y) {
+		return (y == 0) ? 0 : bitmapZ.select1(y) + 1;
+	}
+
+	private final class SearchIterator implements Iterator<long[]> {
+		private final long subj;
+		private final long pred;
+		private final long obj;
+
+		// next Y position to visit, and the (exclusive) end of the Y positions to visit
+		private long nextY;
+		private final long endY;
+		// subject of the next Y position
+		private long nextX;
+
+		// subject and predicate of the current Y position, and its remaining range of Z positions
+		private long curX;
+		private long curP;
+		private long z;
+		private long endZ;
+		// whether endZ is the start of the Z positions of the next Y position
+		private boolean sequential;
+
+		private long[] next;
+
+		SearchIterator(long subj, long pred, long obj) {
+			this.subj = subj;
+			this.pred = pred;
+			this.obj = obj;
+
+			if (subj > 0) {
+				long yLast = bitmapY.select1(subj);
+				if (yLast < 0) {
+					// unknown subject
+					nextY = 0;
+					endY = 0;
+				} else {
+					nextY = (subj == 1) ? 0 : bitmapY.select1(subj - 1) + 1;
+					endY = yLast + 1;
+				}
+				nextX = subj;
+			} else {
+				nextY = 0;
+				endY = bitmapY.size();
+				nextX = 1;
+			}
+			sequential = (nextY == 0);
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (next == null) {
+				next = computeNext();
+			}
+			return next != null;
+		}
+
+		@Override
+		public long[] next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			long[] result = next;
+			next = null;
+			return result;
+		}
+
+		private long[] computeNext() {
+			while (true) {
+				while (z < endZ) {
+					long o = arrZ.getLong(z++);
+					if (obj == 0 || o == obj) {
+						return new long[] { curX, curP, o };
+					}
+					if (o > obj) {
+						// objects are sorted per subject and predicate
+						z = endZ;
+					}
+				}
+
+				if (nextY >= endY) {
+					return null;
+				}
+				long y = nextY++;
+				curX = nextX;
+				if (bitmapY.get(y) == 1) {
+					nextX++;
+				}
+
+				curP = arrY.getLong(y);
+				if (pred != 0 && curP != pred) {
+					if (subj > 0 && curP > pred) {
+						// predicates are sorted per subject
+						nextY = endY;
+					}
+					sequential = false;
+					continue;
+				}
+
+				z = sequential ? endZ : zStart(y);
+				endZ = z;
+				while (bitmapZ.get(endZ) == 0) {
+					endZ++;
+				}
+				endZ++;
+				sequential = true;
+			}
+		}
+	}
+}
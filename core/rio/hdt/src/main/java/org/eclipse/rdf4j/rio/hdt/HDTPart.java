@@ -12,11 +12,13 @@ package org.eclipse.rdf4j.rio.hdt;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
 /**
  * Helper class for different HDT parts.
@@ -73,6 +75,19 @@ abstract class HDTPart {
 	 */
 	abstract void parse(InputStream is) throws IOException;
 
+	/**
+	 * Read from a file, mapping the data into memory instead of copying it. The checksums of mapped data are not
+	 * verified, as that would require reading all of it.
+	 * <p>
+	 * By default the part is simply parsed, which is fine for parts that do not contain much data.
+	 *
+	 * @param is file input stream
+	 * @throws IOException
+	 */
+	void map(HDTFileInputStream is) throws IOException {
+		parse(is);
+	}
+
 	/**
 	 * Get properties, if any.
 	 *
@@ -82,6 +97,15 @@ abstract class HDTPart {
 		return properties;
 	}
 
+	/**
+	 * Set properties, to be written as <code>key=value;</code> pairs.
+	 *
+	 * @param properties key, value map
+	 */
+	void setProperties(Map<String, String> properties) {
+		this.properties = properties;
+	}
+
 	/**
 	 * Constructor
 	 *
@@ -270,4 +294,61 @@ abstract class HDTPart {
 					Long.toHexString(calc) + " instead of " + Long.toHexString(expect));
 		}
 	}
+
+	/**
+	 * Write the start of a part: <code>$HDT</code> and the byte indicating the type
+	 *
+	 * @param os    output stream
+	 * @param ctype control type
+	 * @throws IOException
+	 */
+	static void writeControl(OutputStream os, HDTPart.Type ctype) throws IOException {
+		os.write(COOKIE);
+		os.write(ctype.getValue());
+	}
+
+	/**
+	 * Write <code>null</code> terminated format string
+	 *
+	 * @param os     output stream
+	 * @param format format
+	 * @throws IOException
+	 */
+	static void writeFormat(OutputStream os, byte[] format) throws IOException {
+		os.write(format);
+		os.write(0b00);
+	}
+
+	/**
+	 * Write the properties as a <code>null</code> terminated string of <code>key=value;</code> pairs.
+	 *
+	 * @param os    output stream
+	 * @param props key, value map
+	 * @throws IOException
+	 */
+	static void writeProperties(OutputStream os, Map<String, String> props) throws IOException {
+		if (props != null) {
+			for (Map.Entry<String, String> prop : props.entrySet()) {
+				os.write((prop.getKey() + "=" + prop.getValue() + ";").getBytes(StandardCharsets.US_ASCII));
+			}
+		}
+		os.write(0b00);
+	}
+
+	/**
+	 * Write the calculated checksum, little-endian like HDT-It does.
+	 *
+	 * @param cos checked output stream
+	 * @param os  (unchecked) output stream
+	 * @param len number of bytes of the checksum
+	 * @throws IOException
+	 */
+	static void writeCRC(CheckedOutputStream cos, OutputStream os, int len) throws IOException {
+		cos.flush();
+		long calc = cos.getChecksum().getValue();
+		for (int i = 0; i < len; i++) {
+			os.write((int) (calc & 0xFF));
+			calc >>>= 8;
+		}
+	}
 }
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.rio.hdt;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CheckedOutputStream;
+
+import org.apache.commons.io.output.CountingOutputStream;
+
+/**
+ * Helper class for writing HDT parts with a (potentially) large amount of data.
+ * <p>
+ * The control information at the start of these parts contains the size of the data, which is only known when all
+ * entries have been added. Therefore the data is first written to a temporary file, and then copied to the output
+ * stream after the control information.
+ */
+abstract class HDTPartBuilder implements Closeable {
+	private final Path file;
+	private final CountingOutputStream data;
+
+	/**
+	 * Constructor
+	 *
+	 * @param dir directory for the temporary file
+	 * @throws IOException
+	 */
+	HDTPartBuilder(Path dir) throws IOException {
+		file = Files.createTempFile(dir, "part", ".tmp");
+		data = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+	}
+
+	/**
+	 * Get the stream the data must be written to
+	 *
+	 * @return output stream
+	 */
+	OutputStream getDataStream() {
+		return data;
+	}
+
+	/**
+	 * Get the number of bytes of data written so far
+	 *
+	 * @return number of bytes
+	 */
+	long getDataLength() {
+		return data.getByteCount();
+	}
+
+	/**
+	 * Write the complete part, including control information and checksums
+	 *
+	 * @param os output stream
+	 * @throws IOException
+	 */
+	abstract void write(OutputStream os) throws IOException;
+
+	/**
+	 * Copy the data to the output stream, followed by its 32-bit CRC
+	 *
+	 * @param os output stream
+	 * @throws IOException
+	 */
+	void writeData(OutputStream os) throws IOException {
+		data.close();
+
+		// not closed, as that would close the underlying output stream
+		CheckedOutputStream cos = new CheckedOutputStream(os, new CRC32());
+		Files.copy(file, cos);
+		HDTPart.writeCRC(cos, os, 4);
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			data.close();
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.rio.hdt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XSD;
+
+/**
+ * Conversion between RDF values and the byte strings stored in the HDT dictionaries.
+ * <p>
+ * IRIs are stored as is, blank nodes with a <code>_:</code> prefix (unless HDT-It would already recognize the identifier
+ * as a blank node). Literals are stored with their quotes and, if present, language tag or datatype:
+ * <code>"label"</code>, <code>"label"@lang</code> or <code>"label"^^&lt;datatype&gt;</code>.
+ */
+@Experimental
+public final class HDTTerms {
+	private static final byte[] BNODE_PREFIX = "_:".getBytes(StandardCharsets.US_ASCII);
+
+	private HDTTerms() {
+	}
+
+	/**
+	 * Create subject IRI or blank node
+	 *
+	 * @param vf value factory
+	 * @param b  byte buffer
+	 * @return IRI or blank node
+	 */
+	public static Resource createSubject(ValueFactory vf, byte[] b) {
+		return isBNodeID(b) ? createBNode(vf, b) : vf.createIRI(new String(b, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Create predicate IRI
+	 *
+	 * @param vf value factory
+	 * @param b  byte buffer
+	 * @return IRI
+	 */
+	public static IRI createPredicate(ValueFactory vf, byte[] b) {
+		return vf.createIRI(new String(b, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Create object (typed) literal, IRI or blank node
+	 *
+	 * @param vf value factory
+	 * @param b  byte buffer
+	 * @return literal, IRI or blank node
+	 */
+	public static Value createObject(ValueFactory vf, byte[] b) {
+		if (b[0] == '"') {
+			int i = b.length - 1;
+			for (; i > 1 && b[i] != '"'; i--) {
+				if (b[i] == '@') {
+					String lang = new String(b, i + 1, b.length - i - 1, StandardCharsets.US_ASCII);
+					return vf.createLiteral(new String(b, 1, i - 2, StandardCharsets.UTF_8), lang);
+				} else if (b[i] == '^') {
+					IRI datatype = vf.createIRI(new String(b, i + 2, b.length - i - 3, StandardCharsets.US_ASCII));
+					return vf.createLiteral(new String(b, 1, i - 3, StandardCharsets.UTF_8), datatype);
+				}
+			}
+			return vf.createLiteral(new String(b, 1, i - 1, StandardCharsets.UTF_8));
+		}
+		return isBNodeID(b) ? createBNode(vf, b) : vf.createIRI(new String(b, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Get the byte string of a value, as it is stored in the dictionary
+	 *
+	 * @param value IRI, blank node or literal
+	 * @return byte buffer, or null for values that can not be stored in HDT (e.g. RDF-star triples)
+	 */
+	public static byte[] toBytes(Value value) {
+		if (value.isIRI()) {
+			return value.stringValue().getBytes(StandardCharsets.UTF_8);
+		}
+		if (value.isBNode()) {
+			byte[] id = ((BNode) value).getID().getBytes(StandardCharsets.UTF_8);
+			if (id.length > 0 && isBNodeID(id)) {
+				return id;
+			}
+			byte[] b = new byte[id.length + BNODE_PREFIX.length];
+			System.arraycopy(BNODE_PREFIX, 0, b, 0, BNODE_PREFIX.length);
+			System.arraycopy(id, 0, b, BNODE_PREFIX.length, id.length);
+			return b;
+		}
+		if (value.isLiteral()) {
+			Literal literal = (Literal) value;
+			StringBuilder sb = new StringBuilder(literal.getLabel().length() + 2);
+			sb.append('"').append(literal.getLabel()).append('"');
+
+			Optional<String> lang = literal.getLanguage();
+			if (lang.isPresent()) {
+				sb.append('@').append(lang.get());
+			} else if (!XSD.STRING.equals(literal.getDatatype())) {
+				sb.append("^^<").append(literal.getDatatype().stringValue()).append('>');
+			}
+			return sb.toString().getBytes(StandardCharsets.UTF_8);
+		}
+		return null;
+	}
+
+	/**
+	 * Create a blank node, without the <code>_:</code> prefix of the dictionary entry (if present) in its identifier
+	 *
+	 * @param vf value factory
+	 * @param b  byte buffer
+	 * @return blank node
+	 */
+	private static BNode createBNode(ValueFactory vf, byte[] b) {
+		int start = (b.length > BNODE_PREFIX.length && b[0] == '_' && b[1] == ':') ? BNODE_PREFIX.length : 0;
+		return vf.createBNode(new String(b, start, b.length - start, StandardCharsets.UTF_8));
+	}
+
+	private static boolean isBNodeID(byte[] b) {
+		// HDT-It generates "genid" for blank nodes in RDF/XML
+		return (b[0] == '_' || (b.length > 5 && b[0] == 'g' && b[1] == 'e'));
+	}
+}
@@ -46,12 +46,12 @@ class HDTTriplesSectionBitmap extends HDTTriplesSection {
 	private HDTArray arrY;
 	private HDTArray arrZ;
 
-	private int sizeY = 0;
-	private int sizeZ = 0;
+	private long sizeY = 0;
+	private long sizeZ = 0;
 
-	private int posX = 1;
-	private int posY = 0;
-	private int posZ = 0;
+	private long posX = 1;
+	private long posY = 0;
+	private long posZ = 0;
 
 	@Override
 	public boolean hasNext() {
@@ -61,9 +61,9 @@ class HDTTriplesSectionBitmap extends HDTTriplesSection {
 
 	@Override
 	public int[] next() {
-		int z = arrZ.get(posZ);
-		int y = arrY.get(posY);
-		int x = posX;
+		int z = (int) arrZ.getLong(posZ);
+		int y = (int) arrY.getLong(posY);
+		int x = (int) posX;
 
 		if (bitmapZ.get(posZ) == 1 && posZ < sizeZ) {
 			// move to next Y position (predicate) when there is no Z (predicate) left
@@ -78,6 +78,22 @@ class HDTTriplesSectionBitmap extends HDTTriplesSection {
 		return new int[] { x, y, z };
 	}
 
+	HDTBitmap getBitmapY() {
+		return bitmapY;
+	}
+
+	HDTBitmap getBitmapZ() {
+		return bitmapZ;
+	}
+
+	HDTArray getArrayY() {
+		return arrY;
+	}
+
+	HDTArray getArrayZ() {
+		return arrZ;
+	}
+
 	@Override
 	void parse(InputStream is) throws IOException {
 		parse(is, HDTTriples.Order.SPO);
@@ -99,4 +115,21 @@ class HDTTriplesSectionBitmap extends HDTTriplesSection {
 		arrZ = HDTArrayFactory.parse(is);
 		arrZ.parse(is);
 	}
+
+	@Override
+	void map(HDTFileInputStream is) throws IOException {
+		bitmapY = new HDTBitmap();
+		bitmapY.map(is);
+		sizeY = bitmapY.size();
+
+		bitmapZ = new HDTBitmap();
+		bitmapZ.map(is);
+		sizeZ = bitmapZ.size();
+
+		arrY = HDTArrayFactory.parse(is);
+		arrY.map(is);
+
+		arrZ = HDTArrayFactory.parse(is);
+		arrZ.map(is);
+	}
 }
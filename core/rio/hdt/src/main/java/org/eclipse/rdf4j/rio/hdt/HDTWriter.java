@@ -0,0 +1,500 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.rio.hdt;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.rdf4j.common.annotation.Experimental;
+import org.eclipse.rdf4j.common.io.ByteSink;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.VOID;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.RioSetting;
+import org.eclipse.rdf4j.rio.WriterConfig;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFWriter;
+
+/**
+ * RDF writer for HDT v1.0 files, using plain front coding for the dictionaries and bitmap triples in SPO order, like
+ * HDT-It does.
+ * <p>
+ * Statements are not kept in memory. Instead, the subjects, predicates and objects are sorted using temporary files,
+ * and the file is created when {@link #endRDF()} is called:
+ * <ol>
+ * <li>The sorted subjects and objects are merged, to find the terms that are used in both roles and to create the
+ * dictionaries. Each term gets an identifier, which is recorded for every statement the term occurs in.</li>
+ * <li>These identifiers are sorted per statement, to turn each statement into a triple of identifiers.</li>
+ * <li>The triples are sorted in SPO order, and stored as bitmap triples.</li>
+ * </ol>
+ * The amount of memory used is determined by {@link HDTWriterSettings#BUFFER_SIZE}.
+ * <p>
+ * Since HDT only stores triples, contexts are ignored and duplicate triples are removed. Namespaces and comments are
+ * not stored either.
+ *
+ * @see <a href="http://www.rdfhdt.org/hdt-binary-format/">HDT draft (2015)</a>
+ */
+@Experimental
+public class HDTWriter extends AbstractRDFWriter implements ByteSink {
+	private static final int STRINGS_BLOCK = 16;
+
+	private static final String HDT_DATASET = "http://purl.org/HDT/hdt#Dataset";
+
+	private static final Comparator<Term> TERM_ORDER = (a, b) -> Arrays.compareUnsigned(a.value, b.value);
+	private static final Comparator<long[]> FIRST_ORDER = Comparator.comparingLong(a -> a[0]);
+	private static final Comparator<long[]> SPO_ORDER = Arrays::compare;
+
+	private final OutputStream out;
+	private final String baseURI;
+
+	private Path tmpDir;
+	private int bufferSize;
+	private long nrStatements;
+
+	// sorted terms, with the statement they occur in
+	private HDTExternalSort<Term> subjTerms;
+	private HDTExternalSort<Term> predTerms;
+	private HDTExternalSort<Term> objTerms;
+
+	// identifiers per statement
+	private HDTExternalSort<long[]> subjIDs;
+	private HDTExternalSort<long[]> predIDs;
+	private HDTExternalSort<long[]> objIDs;
+	private HDTExternalSort<long[]> triples;
+
+	private HDTDictionarySectionPFCBuilder shared;
+	private HDTDictionarySectionPFCBuilder subjects;
+	private HDTDictionarySectionPFCBuilder predicates;
+	private HDTDictionarySectionPFCBuilder objects;
+	private long sizeStrings;
+
+	private HDTBitmapBuilder bitmapY;
+	private HDTBitmapBuilder bitmapZ;
+	private HDTArrayLog64Builder arrY;
+	private HDTArrayLog64Builder arrZ;
+	private long nrTriples;
+
+	/**
+	 * Creates a new HDTWriter that will write to the supplied OutputStream.
+	 *
+	 * @param out The OutputStream to write the HDT document to.
+	 */
+	public HDTWriter(OutputStream out) {
+		this(out, null);
+	}
+
+	/**
+	 * Creates a new HDTWriter that will write to the supplied OutputStream.
+	 *
+	 * @param out     The OutputStream to write the HDT document to.
+	 * @param baseURI The base URI, used as the subject of the metadata in the HDT header, may be null.
+	 */
+	public HDTWriter(OutputStream out, String baseURI) {
+		this.out = new BufferedOutputStream(out);
+		this.baseURI = baseURI;
+	}
+
+	@Override
+	public RDFFormat getRDFFormat() {
+		return RDFFormat.HDT;
+	}
+
+	@Override
+	public Collection<RioSetting<?>> getSupportedSettings() {
+		Set<RioSetting<?>> result = new HashSet<>(super.getSupportedSettings());
+		result.add(HDTWriterSettings.BUFFER_SIZE);
+		result.add(HDTWriterSettings.TMP_DIR);
+		return result;
+	}
+
+	@Override
+	public OutputStream getOutputStream() {
+		return out;
+	}
+
+	@Override
+	public void startRDF() throws RDFHandlerException {
+		super.startRDF();
+
+		WriterConfig config = getWriterConfig();
+		bufferSize = Math.toIntExact(config.get(HDTWriterSettings.BUFFER_SIZE));
+
+		try {
+			String dir = config.get(HDTWriterSettings.TMP_DIR);
+			tmpDir = (dir != null) ? Files.createTempDirectory(Paths.get(dir), "rdf4j-hdt")
+					: Files.createTempDirectory("rdf4j-hdt");
+		} catch (IOException e) {
+			throw new RDFHandlerException(e);
+		}
+
+		subjTerms = new HDTExternalSort<>(tmpDir, TERM_ORDER, Term.CODEC, bufferSize);
+		predTerms = new HDTExternalSort<>(tmpDir, TERM_ORDER, Term.CODEC, bufferSize);
+		objTerms = new HDTExternalSort<>(tmpDir, TERM_ORDER, Term.CODEC, bufferSize);
+	}
+
+	@Override
+	public void endRDF() throws RDFHandlerException {
+		checkWritingStarted();
+		try {
+			buildDictionary();
+			buildTriples();
+			writeParts();
+			out.flush();
+		} catch (IOException e) {
+			throw new RDFHandlerException(e);
+		} finally {
+			cleanup();
+		}
+	}
+
+	@Override
+	public void handleComment(String comment) throws RDFHandlerException {
+		checkWritingStarted();
+		// comments can not be stored in HDT
+	}
+
+	@Override
+	protected void consumeStatement(Statement st) {
+		long seq = nrStatements++;
+		try {
+			subjTerms.add(new Term(toBytes(st.getSubject()), seq));
+			predTerms.add(new Term(toBytes(st.getPredicate()), seq));
+			objTerms.add(new Term(toBytes(st.getObject()), seq));
+		} catch (IOException e) {
+			throw new RDFHandlerException(e);
+		}
+	}
+
+	/**
+	 * Get the dictionary entry of a value
+	 *
+	 * @param value value
+	 * @return byte string
+	 */
+	private static byte[] toBytes(Value value) {
+		byte[] b = HDTTerms.toBytes(value);
+		if (b == null) {
+			throw new RDFHandlerException("Value can not be stored in HDT: " + value);
+		}
+		for (byte c : b) {
+			if (c == 0b00) {
+				// dictionary entries are NULL terminated
+				throw new RDFHandlerException("Value containing a NULL character can not be stored in HDT: " + value);
+			}
+		}
+		return b;
+	}
+
+	/**
+	 * Create the four dictionary sections from the sorted terms, and record the identifiers for each statement.
+	 *
+	 * @throws IOException
+	 */
+	private void buildDictionary() throws IOException {
+		shared = new HDTDictionarySectionPFCBuilder(tmpDir, STRINGS_BLOCK);
+		subjects = new HDTDictionarySectionPFCBuilder(tmpDir, STRINGS_BLOCK);
+		predicates = new HDTDictionarySectionPFCBuilder(tmpDir, STRINGS_BLOCK);
+		objects = new HDTDictionarySectionPFCBuilder(tmpDir, STRINGS_BLOCK);
+
+		subjIDs = new HDTExternalSort<>(tmpDir, FIRST_ORDER, LongsCodec.PAIR, bufferSize);
+		predIDs = new HDTExternalSort<>(tmpDir, FIRST_ORDER, LongsCodec.PAIR, bufferSize);
+		objIDs = new HDTExternalSort<>(tmpDir, FIRST_ORDER, LongsCodec.PAIR, bufferSize);
+
+		// merge subjects and objects, terms used in both roles go into the shared section
+		HDTExternalSort.Cursor<Term> subjCursor = subjTerms.sorted();
+		HDTExternalSort.Cursor<Term> objCursor = objTerms.sorted();
+		Term subj = subjCursor.next();
+		Term obj = objCursor.next();
+
+		while (subj != null || obj != null) {
+			int cmp = (subj == null) ? 1 : (obj == null) ? -1 : TERM_ORDER.compare(subj, obj);
+			byte[] term = (cmp <= 0) ? subj.value : obj.value;
+
+			// the number of shared terms is not known yet, so other subjects and objects get a negative identifier
+			long id;
+			if (cmp == 0) {
+				shared.add(term);
+				id = shared.size();
+			} else if (cmp < 0) {
+				subjects.add(term);
+				id = -subjects.size();
+			} else {
+				objects.add(term);
+				id = -objects.size();
+			}
+			sizeStrings += term.length;
+
+			if (cmp <= 0) {
+				subj = addIDs(subjCursor, subj, id, subjIDs);
+			}
+			if (cmp >= 0) {
+				obj = addIDs(objCursor, obj, id, objIDs);
+			}
+		}
+		subjTerms.close();
+		objTerms.close();
+
+		HDTExternalSort.Cursor<Term> predCursor = predTerms.sorted();
+		Term pred = predCursor.next();
+		while (pred != null) {
+			predicates.add(pred.value);
+			sizeStrings += pred.value.length;
+			pred = addIDs(predCursor, pred, predicates.size(), predIDs);
+		}
+		predTerms.close();
+	}
+
+	/**
+	 * Record the identifier of a term, for all the statements the term occurs in
+	 *
+	 * @param cursor  sorted terms
+	 * @param current current term
+	 * @param id      identifier
+	 * @param ids     identifiers per statement
+	 * @return next (different) term, or null
+	 * @throws IOException
+	 */
+	private static Term addIDs(HDTExternalSort.Cursor<Term> cursor, Term current, long id,
+			HDTExternalSort<long[]> ids) throws IOException {
+		byte[] value = current.value;
+		Term next = current;
+		do {
+			ids.add(new long[] { next.seq, id });
+			next = cursor.next();
+		} while (next != null && Arrays.equals(next.value, value));
+		return next;
+	}
+
+	/**
+	 * Create the bitmap triples from the identifiers per statement
+	 *
+	 * @throws IOException
+	 */
+	private void buildTriples() throws IOException {
+		long nrShared = shared.size();
+
+		// each statement has exactly one subject, predicate and object, so the sorted identifiers line up
+		triples = new HDTExternalSort<>(tmpDir, SPO_ORDER, LongsCodec.TRIPLE, bufferSize);
+		HDTExternalSort.Cursor<long[]> subjCursor = subjIDs.sorted();
+		HDTExternalSort.Cursor<long[]> predCursor = predIDs.sorted();
+		HDTExternalSort.Cursor<long[]> objCursor = objIDs.sorted();
+		for (long[] s = subjCursor.next(); s != null; s = subjCursor.next()) {
+			long[] p = predCursor.next();
+			long[] o = objCursor.next();
+			triples.add(new long[] { toID(s[1], nrShared), p[1], toID(o[1], nrShared) });
+		}
+		subjIDs.close();
+		predIDs.close();
+		objIDs.close();
+
+		bitmapY = new HDTBitmapBuilder(tmpDir);
+		bitmapZ = new HDTBitmapBuilder(tmpDir);
+		arrY = new HDTArrayLog64Builder(tmpDir, predicates.size());
+		arrZ = new HDTArrayLog64Builder(tmpDir, nrShared + objects.size());
+
+		HDTExternalSort.Cursor<long[]> cursor = triples.sorted();
+		long[] prev = null;
+		for (long[] t = cursor.next(); t != null; t = cursor.next()) {
+			boolean newSubj = (prev == null || t[0] != prev[0]);
+			boolean newPair = newSubj || t[1] != prev[1];
+
+			if (prev != null) {
+				if (!newPair && t[2] == prev[2]) {
+					// duplicate
+					continue;
+				}
+				// a 1-bit marks the last object of a subject and predicate, and the last predicate of a subject
+				bitmapZ.add(newPair);
+				if (newPair) {
+					bitmapY.add(newSubj);
+				}
+			}
+			if (newPair) {
+				arrY.add(t[1]);
+			}
+			arrZ.add(t[2]);
+
+			prev = t;
+			nrTriples++;
+		}
+		if (prev != null) {
+			bitmapZ.add(true);
+			bitmapY.add(true);
+		}
+		triples.close();
+	}
+
+	/**
+	 * Convert a (negative) identifier of a term that is not shared
+	 *
+	 * @param id       identifier
+	 * @param nrShared number of shared terms
+	 * @return final identifier
+	 */
+	private static long toID(long id, long nrShared) {
+		return (id < 0) ? nrShared - id : id;
+	}
+
+	/**
+	 * Write all parts to the output stream
+	 *
+	 * @throws IOException
+	 */
+	private void writeParts() throws IOException {
+		HDTGlobal global = new HDTGlobal();
+		global.setProperties(Map.of());
+		global.write(out);
+
+		HDTHeader header = new HDTHeader();
+		header.setHeaderData(getHeaderData());
+		header.write(out);
+
+		Map<String, String> props = new LinkedHashMap<>();
+		props.put(HDTDictionary.DICT_MAPPING, "1");
+		props.put(HDTDictionary.DICT_SIZE_STRINGS, Long.toString(sizeStrings));
+		HDTDictionary dict = new HDTDictionary();
+		dict.setProperties(props);
+		dict.write(out);
+
+		shared.write(out);
+		subjects.write(out);
+		predicates.write(out);
+		objects.write(out);
+
+		HDTTriples triplesPart = new HDTTriples();
+		triplesPart.setProperties(Map.of(HDTTriples.ORDER, Integer.toString(HDTTriples.Order.SPO.getValue())));
+		triplesPart.write(out);
+
+		bitmapY.write(out);
+		bitmapZ.write(out);
+		arrY.write(out);
+		arrZ.write(out);
+	}
+
+	/**
+	 * Get the header data, containing some statistics about the dataset as N-Triples
+	 *
+	 * @return byte array
+	 */
+	private byte[] getHeaderData() {
+		String subj = (baseURI != null && !baseURI.isEmpty()) ? "<" + baseURI + ">" : "_:dataset";
+
+		StringBuilder sb = new StringBuilder();
+		appendHeader(sb, subj, RDF.TYPE, "<" + HDT_DATASET + ">");
+		appendHeader(sb, subj, RDF.TYPE, "<" + VOID.DATASET + ">");
+		appendHeader(sb, subj, VOID.TRIPLES, "\"" + nrTriples + "\"");
+		appendHeader(sb, subj, VOID.PROPERTIES, "\"" + predicates.size() + "\"");
+		appendHeader(sb, subj, VOID.DISTINCT_SUBJECTS, "\"" + (shared.size() + subjects.size()) + "\"");
+		appendHeader(sb, subj, VOID.DISTINCT_OBJECTS, "\"" + (shared.size() + objects.size()) + "\"");
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static void appendHeader(StringBuilder sb, String subj, IRI pred, String obj) {
+		sb.append(subj).append(" <").append(pred).append("> ").append(obj).append(" .\n");
+	}
+
+	/**
+	 * Close all temporary files, and delete the temporary directory
+	 */
+	private void cleanup() {
+		for (Closeable c : new Closeable[] { subjTerms, predTerms, objTerms, subjIDs, predIDs, objIDs, triples,
+				shared, subjects, predicates, objects, bitmapY, bitmapZ, arrY, arrZ }) {
+			if (c != null) {
+				try {
+					c.close();
+				} catch (IOException e) {
+					// the directory is deleted anyway
+				}
+			}
+		}
+		if (tmpDir != null) {
+			FileUtils.deleteQuietly(tmpDir.toFile());
+		}
+	}
+
+	/**
+	 * Dictionary entry, and the statement it occurs in
+	 */
+	private static final class Term {
+		private static final HDTExternalSort.Codec<Term> CODEC = new HDTExternalSort.Codec<>() {
+			@Override
+			public void write(DataOutput out, Term term) throws IOException {
+				out.writeInt(term.value.length);
+				out.write(term.value);
+				out.writeLong(term.seq);
+			}
+
+			@Override
+			public Term read(DataInput in) throws IOException {
+				byte[] value = new byte[in.readInt()];
+				in.readFully(value);
+				return new Term(value, in.readLong());
+			}
+		};
+
+		private final byte[] value;
+		private final long seq;
+
+		private Term(byte[] value, long seq) {
+			this.value = value;
+			this.seq = seq;
+		}
+	}
+
+	/**
+	 * Codec for fixed size arrays of longs
+	 */
+	private static final class LongsCodec implements HDTExternalSort.Codec<long[]> {
+		private static final LongsCodec PAIR = new LongsCodec(2);
+		private static final LongsCodec TRIPLE = new LongsCodec(3);
+
+		private final int len;
+
+		private LongsCodec(int len) {
+			this.len = len;
+		}
+
+		@Override
+		public void write(DataOutput out, long[] record) throws IOException {
+			for (int i = 0; i < len; i++) {
+				out.writeLong(record[i]);
+			}
+		}
+
+		@Override
+		public long[] read(DataInput in) throws IOException {
+			long[] record = new long[len];
+			for (int i = 0; i < len; i++) {
+				record[i] = in.readLong();
+			}
+			return record;
+		}
+	}
+}
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.rio.hdt;
+
+import org.eclipse.rdf4j.rio.helpers.LongRioSetting;
+import org.eclipse.rdf4j.rio.helpers.StringRioSetting;
+
+/**
+ * WriterSettings for the HDT writer.
+ */
+public class HDTWriterSettings {
+
+	/**
+	 * Setting for the number of statements kept in memory before the (partially) sorted dictionary entries and triples
+	 * are written to temporary files. Larger values use more memory, but result in fewer temporary files to merge.
+	 * <p>
+	 * Defaults to {@code 100000}.
+	 * <p>
+	 * Can be overridden by setting system property {@code org.eclipse.rdf4j.rio.hdt.buffer_size}
+	 */
+	public static final LongRioSetting BUFFER_SIZE = new LongRioSetting(
+			"org.eclipse.rdf4j.rio.hdt.buffer_size", "Buffer size", 100_000L);
+
+	/**
+	 * Setting for the directory used for temporary files. These files are deleted when writing has finished.
+	 * <p>
+	 * Defaults to {@code null}, using the default temporary-file directory of the JVM.
+	 * <p>
+	 * Can be overridden by setting system property {@code org.eclipse.rdf4j.rio.hdt.tmp_dir}
+	 */
+	public static final StringRioSetting TMP_DIR = new StringRioSetting(
+			"org.eclipse.rdf4j.rio.hdt.tmp_dir", "Directory for temporary files", null);
+
+	/**
+	 * Private constructor
+	 */
+	private HDTWriterSettings() {
+	}
+}
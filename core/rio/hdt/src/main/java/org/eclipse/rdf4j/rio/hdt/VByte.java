@@ -12,6 +12,7 @@ package org.eclipse.rdf4j.rio.hdt;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * Variable byte encoding for numbers.
@@ -100,18 +101,25 @@ public class VByte {
 	 * @return number of bytes
 	 */
 	public static int encodedLength(long value) {
-		if (value < 127) {
-			return 1;
+		int len = 1;
+		while ((value >>>= 7) != 0) {
+			len++;
 		}
-		if (value < 16_384) {
-			return 2;
-		}
-		if (value < 2_097_152) {
-			return 3;
-		}
-		if (value < 268_435_456) {
-			return 4;
+		return len;
+	}
+
+	/**
+	 * Encode a value to the output stream.
+	 *
+	 * @param os    output stream
+	 * @param value (unsigned) numeric value
+	 * @throws IOException
+	 */
+	public static void encode(OutputStream os, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			os.write((int) (value & 0x7F));
+			value >>>= 7;
 		}
-		return 5;
+		os.write((int) (value | 0x80));
 	}
 }
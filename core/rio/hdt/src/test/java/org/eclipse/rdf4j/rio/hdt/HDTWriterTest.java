@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.rio.hdt;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.RDFWriter;
+import org.eclipse.rdf4j.rio.Rio;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class HDTWriterTest {
+	private static final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	@TempDir
+	File tmpDir;
+
+	@Test
+	public void writeSimpleSPO() throws Exception {
+		Model orig;
+		try (InputStream is = HDTWriterTest.class.getResourceAsStream("/test-orig.nt")) {
+			orig = Rio.parse(is, "", RDFFormat.NTRIPLES);
+		}
+
+		Model m = Rio.parse(new ByteArrayInputStream(write(orig, 100_000)), "", RDFFormat.HDT);
+		assertEquals(43, m.size(), "Number of statements does not match");
+		assertTrue(Models.isomorphic(orig, m), "HDT model does not match original NT file");
+	}
+
+	@Test
+	public void writeSmallBuffer() throws Exception {
+		List<Statement> statements = generate(2000);
+
+		// many temporary files, which need to be merged in multiple steps
+		byte[] small = write(statements, 3);
+		byte[] large = write(statements, 100_000);
+		assertArrayEquals(large, small, "Output depends on buffer size");
+
+		Model m = Rio.parse(new ByteArrayInputStream(small), "", RDFFormat.HDT);
+		assertTrue(Models.isomorphic(new LinkedHashModel(statements), m), "HDT model does not match original");
+
+		assertEquals(0, tmpDir.list().length, "Temporary files not deleted");
+	}
+
+	@Test
+	public void writeDuplicatesAndContexts() throws Exception {
+		Resource s = vf.createIRI("http://example.org/s");
+		List<Statement> statements = List.of(
+				vf.createStatement(s, vf.createIRI("http://example.org/p"), vf.createLiteral("o")),
+				vf.createStatement(s, vf.createIRI("http://example.org/p"), vf.createLiteral("o"),
+						vf.createIRI("http://example.org/g")),
+				vf.createStatement(s, vf.createIRI("http://example.org/p"), s));
+
+		Model m = Rio.parse(new ByteArrayInputStream(write(statements, 10)), "", RDFFormat.HDT);
+		assertEquals(2, m.size());
+		assertTrue(m.contains(s, vf.createIRI("http://example.org/p"), s));
+	}
+
+	@Test
+	public void writeEmpty() throws Exception {
+		Model m = Rio.parse(new ByteArrayInputStream(write(List.of(), 10)), "", RDFFormat.HDT);
+		assertEquals(0, m.size());
+	}
+
+	@Test
+	public void writeNullCharacter() {
+		List<Statement> statements = List.of(vf.createStatement(vf.createIRI("http://example.org/s"),
+				vf.createIRI("http://example.org/p"), vf.createLiteral("a\u0000b")));
+		assertThrows(RDFHandlerException.class, () -> write(statements, 10));
+	}
+
+	private byte[] write(Collection<Statement> statements, long bufferSize) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		RDFWriter writer = Rio.createWriter(RDFFormat.HDT, out);
+		writer.getWriterConfig().set(HDTWriterSettings.BUFFER_SIZE, bufferSize);
+		writer.getWriterConfig().set(HDTWriterSettings.TMP_DIR, tmpDir.getAbsolutePath());
+		Rio.write(statements, writer);
+		return out.toByteArray();
+	}
+
+	private List<Statement> generate(int count) {
+		List<Statement> statements = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Resource subj = (i % 10 == 0) ? vf.createBNode("b" + (i % 70))
+					: vf.createIRI("http://example.org/s" + (i * 7 % 300));
+			Value obj;
+			switch (i % 4) {
+			case 0:
+				obj = vf.createIRI("http://example.org/s" + (i * 13 % 500));
+				break;
+			case 1:
+				obj = vf.createLiteral("lité " + (i % 250), "en");
+				break;
+			case 2:
+				obj = vf.createLiteral(i % 900);
+				break;
+			default:
+				obj = vf.createBNode("b" + (i % 50));
+			}
+			statements.add(vf.createStatement(subj, vf.createIRI("http://example.org/p" + (i % 17)), obj));
+		}
+		return statements;
+	}
+}
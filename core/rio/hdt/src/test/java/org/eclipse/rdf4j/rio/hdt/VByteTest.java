@@ -10,10 +10,12 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.rio.hdt;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import org.junit.jupiter.api.Test;
@@ -42,4 +44,20 @@ public class VByteTest {
 			fail(ioe.getMessage());
 		}
 	}
+
+	@Test
+	public void testEncode127() throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		VByte.encode(bos, 127);
+		assertArrayEquals(new byte[] { (byte) 0xff }, bos.toByteArray(), "127 not correctly encoded");
+		assertEquals(1, VByte.encodedLength(127), "127 length not correct");
+	}
+
+	@Test
+	public void testEncode128() throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		VByte.encode(bos, 128);
+		assertArrayEquals(new byte[] { (byte) 0x00, (byte) 0x81 }, bos.toByteArray(), "128 not correctly encoded");
+		assertEquals(2, VByte.encodedLength(128), "128 length not correct");
+	}
 }
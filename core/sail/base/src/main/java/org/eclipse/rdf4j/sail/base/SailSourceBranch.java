@@ -309,7 +309,14 @@ class SailSourceBranch implements SailSource {
 		} catch (SailException e) {
 			// clear changes if flush fails
 			changes.clear();
-			prepared = null;
+			try {
+				// release the locks held by the sink
+				if (prepared != null && prepared != serializable) {
+					prepared.close();
+				}
+			} finally {
+				prepared = null;
+			}
 			throw e;
 		} finally {
 			semaphore.unlock();
@@ -198,6 +198,10 @@ class UnionSailDataset implements SailDataset {
 
 	@Override
 	public Set<StatementOrder> getSupportedOrders(Resource subj, IRI pred, Value obj, Resource... contexts) {
+		if (getComparator() == null) {
+			// the two datasets can't be merged in order unless both sort their values the same way
+			return Set.of();
+		}
 
 		Set<StatementOrder> supportedOrders1 = dataset1.getSupportedOrders(subj, pred, obj, contexts);
 		if (supportedOrders1.isEmpty()) {
@@ -221,10 +225,10 @@ class UnionSailDataset implements SailDataset {
 	@Override
 	public Comparator<Value> getComparator() {
 		Comparator<Value> comparator1 = dataset1.getComparator();
-		Comparator<Value> comparator2 = dataset2.getComparator();
-
-		assert (comparator1 == null && comparator2 == null) || (comparator1 != null && comparator2 != null);
-
+		if (comparator1 == null || dataset2.getComparator() == null) {
+			// e.g. a store dataset combined with a changeset that has no native order
+			return null;
+		}
 		return comparator1;
 	}
 }
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.hdt;
+
+import java.io.IOException;
+
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.eclipse.rdf4j.sail.hdt.model.HDTValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cardinality estimates based on the HDT indexes: counts for patterns with a bound subject, and the number of triples
+ * otherwise. HDT only provides an SPO index, so every pattern without a subject is a full scan, which the join
+ * optimizer should evaluate as late as possible.
+ */
+class HDTEvaluationStatistics extends EvaluationStatistics {
+
+	private static final Logger log = LoggerFactory.getLogger(HDTEvaluationStatistics.class);
+
+	private final HDTValueStore valueStore;
+
+	public HDTEvaluationStatistics(HDTValueStore valueStore) {
+		this.valueStore = valueStore;
+	}
+
+	@Override
+	protected CardinalityCalculator createCardinalityCalculator() {
+		return new HDTCardinalityCalculator();
+	}
+
+	protected class HDTCardinalityCalculator extends CardinalityCalculator {
+
+		@Override
+		protected double getCardinality(StatementPattern sp) {
+			try {
+				Value subj = getConstantValue(sp.getSubjectVar());
+				Value pred = getConstantValue(sp.getPredicateVar());
+				Value obj = getConstantValue(sp.getObjectVar());
+				Value context = getConstantValue(sp.getContextVar());
+				return cardinality(subj, pred, obj, context);
+			} catch (IOException e) {
+				log.error("Failed to estimate statement pattern cardinality, falling back to generic implementation",
+						e);
+				return super.getCardinality(sp);
+			}
+		}
+
+		protected Value getConstantValue(Var var) {
+			return (var != null) ? var.getValue() : null;
+		}
+	}
+
+	private double cardinality(Value subj, Value pred, Value obj, Value context) throws IOException {
+		if (context != null) {
+			// all statements are in the default graph
+			return 0;
+		}
+
+		long subjID = 0;
+		if (subj != null) {
+			subjID = valueStore.getSubjectID(subj);
+			if (subjID == HDTValue.NO_ID) {
+				return 0;
+			}
+		}
+
+		long predID = 0;
+		if (pred != null) {
+			predID = valueStore.getPredicateID(pred);
+			if (predID == HDTValue.NO_ID) {
+				return 0;
+			}
+		}
+
+		long objID = 0;
+		if (obj != null) {
+			objID = valueStore.getObjectID(obj);
+			if (objID == HDTValue.NO_ID) {
+				return 0;
+			}
+		}
+
+		return valueStore.getFile().estimate(subjID, predID, objID);
+	}
+}
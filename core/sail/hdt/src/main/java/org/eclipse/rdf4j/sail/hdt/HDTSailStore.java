@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.hdt;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Set;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.EmptyIteration;
+import org.eclipse.rdf4j.common.order.StatementOrder;
+import org.eclipse.rdf4j.common.transaction.IsolationLevel;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Namespace;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.eclipse.rdf4j.rio.hdt.HDTMappedFile;
+import org.eclipse.rdf4j.sail.SailException;
+import org.eclipse.rdf4j.sail.SailReadOnlyException;
+import org.eclipse.rdf4j.sail.base.BackingSailSource;
+import org.eclipse.rdf4j.sail.base.SailDataset;
+import org.eclipse.rdf4j.sail.base.SailSink;
+import org.eclipse.rdf4j.sail.base.SailSource;
+import org.eclipse.rdf4j.sail.base.SailStore;
+import org.eclipse.rdf4j.sail.hdt.model.HDTValue;
+
+/**
+ * A read-only {@link SailStore} that answers statement patterns directly from the indexes of a memory-mapped HDT file.
+ * All statements are explicit and in the default graph.
+ * <p>
+ * Every pattern is answered from the SPO index, so the statements of a pattern without a subject come from a full scan
+ * of the triples, sorted by subject ID. Such patterns support {@link StatementOrder#S}, with values compared by their
+ * subject IDs, so that they can be merge joined on a shared subject.
+ */
+class HDTSailStore implements SailStore {
+
+	private final HDTMappedFile file;
+
+	private final HDTValueStore valueStore;
+
+	private final HDTEvaluationStatistics statistics;
+
+	private final Comparator<Value> subjectIdComparator = (v1, v2) -> Long.compare(subjectSortKey(v1),
+			subjectSortKey(v2));
+
+	HDTSailStore(HDTMappedFile file) {
+		this.file = file;
+		this.valueStore = new HDTValueStore(file);
+		this.statistics = new HDTEvaluationStatistics(valueStore);
+	}
+
+	@Override
+	public ValueFactory getValueFactory() {
+		return SimpleValueFactory.getInstance();
+	}
+
+	@Override
+	public EvaluationStatistics getEvaluationStatistics() {
+		return statistics;
+	}
+
+	@Override
+	public SailSource getExplicitSailSource() {
+		return new HDTSailSource(true);
+	}
+
+	@Override
+	public SailSource getInferredSailSource() {
+		return new HDTSailSource(false);
+	}
+
+	@Override
+	public void close() throws SailException {
+		try {
+			file.close();
+		} catch (IOException e) {
+			throw new SailException(e);
+		}
+	}
+
+	/**
+	 * Creates a statement iterator based on the supplied pattern.
+	 *
+	 * @param subj     The subject of the pattern, or <tt>null</tt> to indicate a wildcard.
+	 * @param pred     The predicate of the pattern, or <tt>null</tt> to indicate a wildcard.
+	 * @param obj      The object of the pattern, or <tt>null</tt> to indicate a wildcard.
+	 * @param contexts The context(s) of the pattern. Only the default graph contains statements.
+	 * @return A StatementIterator that can be used to iterate over the statements that match the specified pattern.
+	 */
+	CloseableIteration<? extends Statement> createStatementIterator(Resource subj, IRI pred, Value obj,
+			Resource... contexts) throws IOException {
+		if (!includesDefaultGraph(contexts)) {
+			return new EmptyIteration<>();
+		}
+
+		long subjID = 0;
+		if (subj != null) {
+			subjID = valueStore.getSubjectID(subj);
+			if (subjID == HDTValue.NO_ID) {
+				return new EmptyIteration<>();
+			}
+		}
+
+		long predID = 0;
+		if (pred != null) {
+			predID = valueStore.getPredicateID(pred);
+			if (predID == HDTValue.NO_ID) {
+				return new EmptyIteration<>();
+			}
+		}
+
+		long objID = 0;
+		if (obj != null) {
+			objID = valueStore.getObjectID(obj);
+			if (objID == HDTValue.NO_ID) {
+				return new EmptyIteration<>();
+			}
+		}
+
+		return new HDTStatementIterator(file.search(subjID, predID, objID), valueStore);
+	}
+
+	/**
+	 * Returns the ID of the given value that determines its position in the subject order of the SPO index, or
+	 * {@link HDTValue#NO_ID} if the value is not used as subject.
+	 */
+	private long subjectSortKey(Value value) {
+		try {
+			return valueStore.getSubjectID(value);
+		} catch (IOException e) {
+			throw new SailException(e);
+		}
+	}
+
+	static boolean includesDefaultGraph(Resource... contexts) {
+		if (contexts.length == 0) {
+			return true;
+		}
+		for (Resource context : contexts) {
+			if (context == null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private final class HDTSailSource extends BackingSailSource {
+
+		private final boolean explicit;
+
+		public HDTSailSource(boolean explicit) {
+			this.explicit = explicit;
+		}
+
+		@Override
+		public SailSink sink(IsolationLevel level) throws SailException {
+			return new HDTSailSink();
+		}
+
+		@Override
+		public SailDataset dataset(IsolationLevel level) throws SailException {
+			return new HDTSailDataset(explicit);
+		}
+	}
+
+	/**
+	 * Only accepts observations, which are used to check serializable transactions. Nothing can change in a read-only
+	 * store, so observed statements never conflict.
+	 */
+	private static final class HDTSailSink implements SailSink {
+
+		@Override
+		public void prepare() throws SailException {
+			// no-op
+		}
+
+		@Override
+		public void flush() throws SailException {
+			// no-op
+		}
+
+		@Override
+		public void close() throws SailException {
+			// no-op
+		}
+
+		@Override
+		public void observe(Resource subj, IRI pred, Value obj, Resource... contexts) throws SailException {
+			// no-op
+		}
+
+		@Override
+		public void setNamespace(String prefix, String name) throws SailException {
+			throw readOnly();
+		}
+
+		@Override
+		public void removeNamespace(String prefix) throws SailException {
+			throw readOnly();
+		}
+
+		@Override
+		public void clearNamespaces() throws SailException {
+			throw readOnly();
+		}
+
+		@Override
+		public void clear(Resource... contexts) throws SailException {
+			throw readOnly();
+		}
+
+		@Override
+		public void approve(Resource subj, IRI pred, Value obj, Resource ctx) throws SailException {
+			throw readOnly();
+		}
+
+		@Override
+		public void deprecate(Statement statement) throws SailException {
+			throw readOnly();
+		}
+
+		private SailReadOnlyException readOnly() {
+			return new SailReadOnlyException("HDT store is read-only");
+		}
+	}
+
+	private final class HDTSailDataset implements SailDataset {
+
+		private final boolean explicit;
+
+		public HDTSailDataset(boolean explicit) {
+			this.explicit = explicit;
+		}
+
+		@Override
+		public void close() {
+			// no-op
+		}
+
+		@Override
+		public String getNamespace(String prefix) throws SailException {
+			return null;
+		}
+
+		@Override
+		public CloseableIteration<? extends Namespace> getNamespaces() {
+			return new EmptyIteration<>();
+		}
+
+		@Override
+		public CloseableIteration<? extends Resource> getContextIDs() throws SailException {
+			// HDT has no named graphs
+			return new EmptyIteration<>();
+		}
+
+		@Override
+		public CloseableIteration<? extends Statement> getStatements(Resource subj, IRI pred, Value obj,
+				Resource... contexts) throws SailException {
+			if (!explicit) {
+				return new EmptyIteration<>();
+			}
+			try {
+				return createStatementIterator(subj, pred, obj, contexts);
+			} catch (IOException e) {
+				throw new SailException("Unable to get statements", e);
+			}
+		}
+
+		@Override
+		public CloseableIteration<? extends Statement> getStatements(StatementOrder statementOrder, Resource subj,
+				IRI pred, Value obj, Resource... contexts) throws SailException {
+			if (statementOrder != StatementOrder.S) {
+				throw new SailException("HDT store can only order statements by subject: " + statementOrder);
+			}
+			// the SPO index returns the triples sorted by subject ID
+			return getStatements(subj, pred, obj, contexts);
+		}
+
+		@Override
+		public Set<StatementOrder> getSupportedOrders(Resource subj, IRI pred, Value obj, Resource... contexts) {
+			if (subj != null) {
+				return Set.of();
+			}
+			return Set.of(StatementOrder.S);
+		}
+
+		@Override
+		public Comparator<Value> getComparator() {
+			return subjectIdComparator;
+		}
+	}
+}
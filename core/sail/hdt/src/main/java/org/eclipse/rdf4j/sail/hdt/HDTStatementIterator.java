@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.hdt;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.sail.SailException;
+
+/**
+ * A statement iterator that translates the identifiers of the triples found in an HDT file to {@link Statement}
+ * objects.
+ */
+class HDTStatementIterator extends LookAheadIteration<Statement> {
+
+	private static final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	private final Iterator<long[]> triples;
+
+	private final HDTValueStore valueStore;
+
+	// triples are sorted by subject, and often share the predicate with the previous triple
+	private long subjID;
+	private Resource subj;
+	private long predID;
+	private IRI pred;
+
+	HDTStatementIterator(Iterator<long[]> triples, HDTValueStore valueStore) {
+		this.triples = triples;
+		this.valueStore = valueStore;
+	}
+
+	@Override
+	protected Statement getNextElement() throws SailException {
+		if (!triples.hasNext()) {
+			return null;
+		}
+		long[] triple = triples.next();
+		try {
+			if (triple[0] != subjID) {
+				subj = valueStore.getSubject(triple[0]);
+				subjID = triple[0];
+			}
+			if (triple[1] != predID) {
+				pred = valueStore.getPredicate(triple[1]);
+				predID = triple[1];
+			}
+			Value obj = valueStore.getObject(triple[2]);
+			return vf.createStatement(subj, pred, obj);
+		} catch (IOException e) {
+			throw new SailException(e);
+		}
+	}
+
+	@Override
+	protected void handleClose() throws SailException {
+		// nothing to release, the file stays mapped
+	}
+}
@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.hdt;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.algebra.evaluation.EvaluationStrategy;
+import org.eclipse.rdf4j.query.algebra.evaluation.EvaluationStrategyFactory;
+import org.eclipse.rdf4j.query.algebra.evaluation.federation.FederatedServiceResolver;
+import org.eclipse.rdf4j.query.algebra.evaluation.federation.FederatedServiceResolverClient;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.StrictEvaluationStrategyFactory;
+import org.eclipse.rdf4j.repository.sparql.federation.SPARQLServiceResolver;
+import org.eclipse.rdf4j.rio.hdt.HDTMappedFile;
+import org.eclipse.rdf4j.sail.NotifyingSailConnection;
+import org.eclipse.rdf4j.sail.SailException;
+import org.eclipse.rdf4j.sail.base.SailStore;
+import org.eclipse.rdf4j.sail.hdt.config.HDTStoreConfig;
+import org.eclipse.rdf4j.sail.helpers.AbstractNotifyingSail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A read-only SAIL implementation that answers queries directly from an HDT file. The file is mapped into memory
+ * instead of being loaded, so opening even large files is fast and needs little heap.
+ * <p>
+ * Statement patterns with a bound subject are answered from the SPO index of the file. HDT files do not contain other
+ * indexes, so patterns without a subject scan all triples. These scans return the statements sorted by subject, which
+ * lets the query engine merge join patterns that share a subject variable.
+ *
+ * @implNote the HDT store is in an experimental state: its existence, signature or behavior may change without warning
+ *           from one release to the next.
+ */
+@Experimental
+public class HDTStore extends AbstractNotifyingSail implements FederatedServiceResolverClient {
+
+	private static final Logger logger = LoggerFactory.getLogger(HDTStore.class);
+
+	/*-----------*
+	 * Variables *
+	 *-----------*/
+
+	private File hdtFile;
+
+	private HDTSailStore store;
+
+	private EvaluationStrategyFactory evalStratFactory;
+
+	/**
+	 * independent life cycle
+	 */
+	private FederatedServiceResolver serviceResolver;
+
+	/**
+	 * dependent life cycle
+	 */
+	private SPARQLServiceResolver dependentServiceResolver;
+
+	/*--------------*
+	 * Constructors *
+	 *--------------*/
+
+	/**
+	 * Creates a new HDTStore, the HDT file needs to be set before initialization.
+	 */
+	public HDTStore() {
+		super();
+		// nothing can change, so every isolation level is trivially met
+		setSupportedIsolationLevels(IsolationLevels.NONE, IsolationLevels.READ_COMMITTED, IsolationLevels.SNAPSHOT_READ,
+				IsolationLevels.SNAPSHOT, IsolationLevels.SERIALIZABLE);
+		setDefaultIsolationLevel(IsolationLevels.SNAPSHOT_READ);
+	}
+
+	/**
+	 * Creates a new HDTStore for an HDT file.
+	 */
+	public HDTStore(File hdtFile) {
+		this();
+		setHdtFile(hdtFile);
+	}
+
+	/**
+	 * Creates a new HDTStore.
+	 */
+	public HDTStore(HDTStoreConfig config) {
+		this();
+		if (config.getHdtFile() != null) {
+			setHdtFile(new File(config.getHdtFile()));
+		}
+		config.getDefaultQueryEvaluationMode().ifPresent(this::setDefaultQueryEvaluationMode);
+		EvaluationStrategyFactory evalStrategyFactory = config.getEvaluationStrategyFactory();
+		if (evalStrategyFactory != null) {
+			setEvaluationStrategyFactory(evalStrategyFactory);
+		}
+	}
+
+	/*---------*
+	 * Methods *
+	 *---------*/
+
+	/**
+	 * Sets the HDT file. Relative paths are resolved against the data directory, if one is set.
+	 */
+	public void setHdtFile(File hdtFile) {
+		if (isInitialized()) {
+			throw new IllegalStateException("sail has already been initialized");
+		}
+		this.hdtFile = hdtFile;
+	}
+
+	public File getHdtFile() {
+		return hdtFile;
+	}
+
+	/**
+	 * @return Returns the {@link EvaluationStrategy}.
+	 */
+	public synchronized EvaluationStrategyFactory getEvaluationStrategyFactory() {
+		if (evalStratFactory == null) {
+			evalStratFactory = new StrictEvaluationStrategyFactory(getFederatedServiceResolver());
+		}
+		evalStratFactory.setQuerySolutionCacheThreshold(getIterationCacheSyncThreshold());
+		evalStratFactory.setTrackResultSize(isTrackResultSize());
+		evalStratFactory.setCollectionFactory(getCollectionFactory());
+		return evalStratFactory;
+	}
+
+	/**
+	 * Sets the {@link EvaluationStrategy} to use.
+	 */
+	public synchronized void setEvaluationStrategyFactory(EvaluationStrategyFactory factory) {
+		evalStratFactory = factory;
+	}
+
+	/**
+	 * @return Returns the SERVICE resolver.
+	 */
+	public synchronized FederatedServiceResolver getFederatedServiceResolver() {
+		if (serviceResolver == null) {
+			if (dependentServiceResolver == null) {
+				dependentServiceResolver = new SPARQLServiceResolver();
+			}
+			setFederatedServiceResolver(dependentServiceResolver);
+		}
+		return serviceResolver;
+	}
+
+	/**
+	 * Overrides the {@link FederatedServiceResolver} used by this instance, but the given resolver is not shutDown when
+	 * this instance is.
+	 *
+	 * @param resolver The SERVICE resolver to set.
+	 */
+	@Override
+	public synchronized void setFederatedServiceResolver(FederatedServiceResolver resolver) {
+		this.serviceResolver = resolver;
+		if (resolver != null && evalStratFactory instanceof FederatedServiceResolverClient) {
+			((FederatedServiceResolverClient) evalStratFactory).setFederatedServiceResolver(resolver);
+		}
+	}
+
+	/**
+	 * Initializes this HDTStore.
+	 *
+	 * @throws SailException If the HDT file could not be opened.
+	 */
+	@Override
+	protected void initializeInternal() throws SailException {
+		logger.debug("Initializing HDTStore...");
+
+		if (hdtFile == null) {
+			throw new SailException("No HDT file has been set");
+		}
+		File file = hdtFile;
+		if (!file.isAbsolute() && getDataDir() != null) {
+			file = new File(getDataDir(), file.getPath());
+		}
+		if (!file.isFile()) {
+			throw new SailException("The specified path does not denote a file: " + file);
+		} else if (!file.canRead()) {
+			throw new SailException("Not allowed to read from the specified file: " + file);
+		}
+
+		try {
+			store = new HDTSailStore(HDTMappedFile.open(file.toPath()));
+		} catch (IOException | RuntimeException e) {
+			throw new SailException("Unable to open HDT file " + file, e);
+		}
+
+		logger.debug("HDTStore initialized");
+	}
+
+	@Override
+	protected void shutDownInternal() throws SailException {
+		logger.debug("Shutting down HDTStore...");
+
+		try {
+			if (store != null) {
+				store.close();
+			}
+		} finally {
+			store = null;
+			if (dependentServiceResolver != null) {
+				dependentServiceResolver.shutDown();
+			}
+		}
+
+		logger.debug("HDTStore shut down");
+	}
+
+	@Override
+	public boolean isWritable() {
+		return false;
+	}
+
+	@Override
+	protected NotifyingSailConnection getConnectionInternal() throws SailException {
+		return new HDTStoreConnection(this);
+	}
+
+	@Override
+	public ValueFactory getValueFactory() {
+		return SimpleValueFactory.getInstance();
+	}
+
+	SailStore getSailStore() {
+		return store;
+	}
+}
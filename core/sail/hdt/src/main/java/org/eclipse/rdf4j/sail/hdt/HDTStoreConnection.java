@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.hdt;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.sail.SailException;
+import org.eclipse.rdf4j.sail.SailReadOnlyException;
+import org.eclipse.rdf4j.sail.UpdateContext;
+import org.eclipse.rdf4j.sail.base.SailSourceConnection;
+
+/**
+ * Connection to an {@link HDTStore}. Read-only transactions are supported, all modifications fail with a
+ * {@link SailReadOnlyException}.
+ */
+public class HDTStoreConnection extends SailSourceConnection {
+
+	protected HDTStoreConnection(HDTStore sail) {
+		super(sail, sail.getSailStore(), sail.getEvaluationStrategyFactory());
+	}
+
+	@Override
+	public void addStatement(UpdateContext op, Resource subj, IRI pred, Value obj, Resource... contexts)
+			throws SailException {
+		throw readOnly();
+	}
+
+	@Override
+	public void removeStatement(UpdateContext op, Resource subj, IRI pred, Value obj, Resource... contexts)
+			throws SailException {
+		throw readOnly();
+	}
+
+	@Override
+	protected void addStatementInternal(Resource subj, IRI pred, Value obj, Resource... contexts)
+			throws SailException {
+		throw readOnly();
+	}
+
+	@Override
+	protected void removeStatementsInternal(Resource subj, IRI pred, Value obj, Resource... contexts)
+			throws SailException {
+		throw readOnly();
+	}
+
+	@Override
+	public boolean addInferredStatement(Resource subj, IRI pred, Value obj, Resource... contexts)
+			throws SailException {
+		throw readOnly();
+	}
+
+	@Override
+	public boolean removeInferredStatement(Resource subj, IRI pred, Value obj, Resource... contexts)
+			throws SailException {
+		throw readOnly();
+	}
+
+	@Override
+	protected void clearInternal(Resource... contexts) throws SailException {
+		throw readOnly();
+	}
+
+	@Override
+	public void clearInferred(Resource... contexts) throws SailException {
+		throw readOnly();
+	}
+
+	@Override
+	protected void setNamespaceInternal(String prefix, String name) throws SailException {
+		throw readOnly();
+	}
+
+	@Override
+	protected void removeNamespaceInternal(String prefix) throws SailException {
+		throw readOnly();
+	}
+
+	@Override
+	protected void clearNamespacesInternal() throws SailException {
+		throw readOnly();
+	}
+
+	private SailReadOnlyException readOnly() {
+		return new SailReadOnlyException("HDT store is read-only");
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.hdt;
+
+import java.io.IOException;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.hdt.HDTMappedFile;
+import org.eclipse.rdf4j.rio.hdt.HDTTerms;
+import org.eclipse.rdf4j.sail.hdt.model.HDTBNode;
+import org.eclipse.rdf4j.sail.hdt.model.HDTIRI;
+import org.eclipse.rdf4j.sail.hdt.model.HDTLiteral;
+import org.eclipse.rdf4j.sail.hdt.model.HDTValue;
+
+/**
+ * Translates between the values and the dictionary identifiers of an {@link HDTMappedFile}.
+ */
+class HDTValueStore {
+
+	private static final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	private final HDTMappedFile file;
+
+	private final long sharedCount;
+
+	HDTValueStore(HDTMappedFile file) {
+		this.file = file;
+		this.sharedCount = file.getSharedCount();
+	}
+
+	HDTMappedFile getFile() {
+		return file;
+	}
+
+	/**
+	 * Gets the subject identifier of a value, using the identifiers of values that were read from the same file.
+	 *
+	 * @return the identifier, or {@link HDTValue#NO_ID} if the value is not used as subject
+	 */
+	long getSubjectID(Value value) throws IOException {
+		if (isOwnValue(value)) {
+			long id = ((HDTValue) value).getSubjectID();
+			if (id != HDTValue.UNKNOWN_ID) {
+				return id;
+			}
+		}
+		byte[] term = HDTTerms.toBytes(value);
+		return (term == null) ? HDTValue.NO_ID : file.getSubjectID(term);
+	}
+
+	/**
+	 * Gets the predicate identifier of a value, using the identifiers of values that were read from the same file.
+	 *
+	 * @return the identifier, or {@link HDTValue#NO_ID} if the value is not used as predicate
+	 */
+	long getPredicateID(Value value) throws IOException {
+		if (isOwnValue(value)) {
+			long id = ((HDTValue) value).getPredicateID();
+			if (id != HDTValue.UNKNOWN_ID) {
+				return id;
+			}
+		}
+		byte[] term = HDTTerms.toBytes(value);
+		return (term == null) ? HDTValue.NO_ID : file.getPredicateID(term);
+	}
+
+	/**
+	 * Gets the object identifier of a value, using the identifiers of values that were read from the same file.
+	 *
+	 * @return the identifier, or {@link HDTValue#NO_ID} if the value is not used as object
+	 */
+	long getObjectID(Value value) throws IOException {
+		if (isOwnValue(value)) {
+			long id = ((HDTValue) value).getObjectID();
+			if (id != HDTValue.UNKNOWN_ID) {
+				return id;
+			}
+		}
+		byte[] term = HDTTerms.toBytes(value);
+		return (term == null) ? HDTValue.NO_ID : file.getObjectID(term);
+	}
+
+	Resource getSubject(long id) throws IOException {
+		Resource subj = HDTTerms.createSubject(vf, file.getSubject(id));
+		// only terms in the shared section are used as subject as well as object
+		long objectID = (id <= sharedCount) ? id : HDTValue.NO_ID;
+		if (subj.isBNode()) {
+			return new HDTBNode(file, ((BNode) subj).getID(), id, objectID);
+		}
+		return new HDTIRI(file, subj.stringValue(), id, HDTValue.UNKNOWN_ID, objectID);
+	}
+
+	IRI getPredicate(long id) throws IOException {
+		IRI pred = HDTTerms.createPredicate(vf, file.getPredicate(id));
+		return new HDTIRI(file, pred.stringValue(), HDTValue.UNKNOWN_ID, id, HDTValue.UNKNOWN_ID);
+	}
+
+	Value getObject(long id) throws IOException {
+		Value obj = HDTTerms.createObject(vf, file.getObject(id));
+		long subjectID = (id <= sharedCount) ? id : HDTValue.NO_ID;
+		if (obj.isIRI()) {
+			return new HDTIRI(file, obj.stringValue(), subjectID, HDTValue.UNKNOWN_ID, id);
+		}
+		if (obj.isBNode()) {
+			return new HDTBNode(file, ((BNode) obj).getID(), subjectID, id);
+		}
+		Literal literal = (Literal) obj;
+		if (literal.getLanguage().isPresent()) {
+			return new HDTLiteral(file, literal.getLabel(), literal.getLanguage().get(), id);
+		}
+		return new HDTLiteral(file, literal.getLabel(), literal.getDatatype(), id);
+	}
+
+	private boolean isOwnValue(Value value) {
+		return value instanceof HDTValue && ((HDTValue) value).getFile() == file;
+	}
+}
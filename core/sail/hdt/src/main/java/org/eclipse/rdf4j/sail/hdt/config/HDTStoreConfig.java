@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.hdt.config;
+
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.ModelException;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.sail.base.config.BaseSailConfig;
+import org.eclipse.rdf4j.sail.config.SailConfigException;
+
+/**
+ * Configuration of an {@link org.eclipse.rdf4j.sail.hdt.HDTStore}.
+ */
+public class HDTStoreConfig extends BaseSailConfig {
+
+	private String hdtFile;
+
+	/*--------------*
+	 * Constructors *
+	 *--------------*/
+
+	public HDTStoreConfig() {
+		super(HDTStoreFactory.SAIL_TYPE);
+	}
+
+	public HDTStoreConfig(String hdtFile) {
+		this();
+		setHdtFile(hdtFile);
+	}
+
+	/*---------*
+	 * Methods *
+	 *---------*/
+
+	/**
+	 * @return the path of the HDT file, relative paths are resolved against the data directory of the repository
+	 */
+	public String getHdtFile() {
+		return hdtFile;
+	}
+
+	public HDTStoreConfig setHdtFile(String hdtFile) {
+		this.hdtFile = hdtFile;
+		return this;
+	}
+
+	@Override
+	public void validate() throws SailConfigException {
+		super.validate();
+		if (hdtFile == null || hdtFile.isEmpty()) {
+			throw new SailConfigException("No HDT file specified");
+		}
+	}
+
+	@Override
+	public Resource export(Model m) {
+		Resource implNode = super.export(m);
+		ValueFactory vf = SimpleValueFactory.getInstance();
+
+		m.setNamespace("hdt", HDTStoreSchema.NAMESPACE);
+		if (hdtFile != null) {
+			m.add(implNode, HDTStoreSchema.HDT_FILE, vf.createLiteral(hdtFile));
+		}
+		return implNode;
+	}
+
+	@Override
+	public void parse(Model m, Resource implNode) throws SailConfigException {
+		super.parse(m, implNode);
+
+		try {
+			Models.objectLiteral(m.getStatements(implNode, HDTStoreSchema.HDT_FILE, null))
+					.ifPresent(lit -> setHdtFile(lit.getLabel()));
+		} catch (ModelException e) {
+			throw new SailConfigException(e.getMessage(), e);
+		}
+	}
+}
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.hdt.model;
+
+import org.eclipse.rdf4j.model.impl.SimpleBNode;
+import org.eclipse.rdf4j.rio.hdt.HDTMappedFile;
+
+public class HDTBNode extends SimpleBNode implements HDTValue {
+
+	private static final long serialVersionUID = -7371964931409829504L;
+
+	private final transient HDTMappedFile file;
+
+	private final long subjectID;
+
+	private final long objectID;
+
+	public HDTBNode(HDTMappedFile file, String id, long subjectID, long objectID) {
+		super(id);
+		this.file = file;
+		this.subjectID = subjectID;
+		this.objectID = objectID;
+	}
+
+	@Override
+	public HDTMappedFile getFile() {
+		return file;
+	}
+
+	@Override
+	public long getSubjectID() {
+		return subjectID;
+	}
+
+	@Override
+	public long getPredicateID() {
+		// blank nodes are never used as predicate
+		return NO_ID;
+	}
+
+	@Override
+	public long getObjectID() {
+		return objectID;
+	}
+}
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.hdt.model;
+
+import org.eclipse.rdf4j.model.impl.SimpleIRI;
+import org.eclipse.rdf4j.rio.hdt.HDTMappedFile;
+
+public class HDTIRI extends SimpleIRI implements HDTValue {
+
+	private static final long serialVersionUID = 4523419208307591845L;
+
+	private final transient HDTMappedFile file;
+
+	private final long subjectID;
+
+	private final long predicateID;
+
+	private final long objectID;
+
+	public HDTIRI(HDTMappedFile file, String iri, long subjectID, long predicateID, long objectID) {
+		super(iri);
+		this.file = file;
+		this.subjectID = subjectID;
+		this.predicateID = predicateID;
+		this.objectID = objectID;
+	}
+
+	@Override
+	public HDTMappedFile getFile() {
+		return file;
+	}
+
+	@Override
+	public long getSubjectID() {
+		return subjectID;
+	}
+
+	@Override
+	public long getPredicateID() {
+		return predicateID;
+	}
+
+	@Override
+	public long getObjectID() {
+		return objectID;
+	}
+}
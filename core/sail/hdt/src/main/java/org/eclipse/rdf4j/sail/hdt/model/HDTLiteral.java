@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.hdt.model;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.impl.SimpleLiteral;
+import org.eclipse.rdf4j.rio.hdt.HDTMappedFile;
+
+public class HDTLiteral extends SimpleLiteral implements HDTValue {
+
+	private static final long serialVersionUID = 2071372587395290711L;
+
+	private final transient HDTMappedFile file;
+
+	private final long objectID;
+
+	public HDTLiteral(HDTMappedFile file, String label, String lang, long objectID) {
+		super(label, lang);
+		this.file = file;
+		this.objectID = objectID;
+	}
+
+	public HDTLiteral(HDTMappedFile file, String label, IRI datatype, long objectID) {
+		super(label, datatype);
+		this.file = file;
+		this.objectID = objectID;
+	}
+
+	@Override
+	public HDTMappedFile getFile() {
+		return file;
+	}
+
+	@Override
+	public long getSubjectID() {
+		// literals are only used as object
+		return NO_ID;
+	}
+
+	@Override
+	public long getPredicateID() {
+		return NO_ID;
+	}
+
+	@Override
+	public long getObjectID() {
+		return objectID;
+	}
+}
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.hdt.model;
+
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.rio.hdt.HDTMappedFile;
+
+/**
+ * A value read from an HDT file, which keeps the identifiers of the value in the dictionaries of that file. These
+ * allow patterns that are bound to values of earlier results to be answered without dictionary lookups.
+ */
+public interface HDTValue extends Value {
+
+	/**
+	 * The identifier of a value in a role is not known, and needs to be looked up in the dictionary.
+	 */
+	long UNKNOWN_ID = -1;
+
+	/**
+	 * The value is known not to be used in a role.
+	 */
+	long NO_ID = 0;
+
+	/**
+	 * Gets the file that this value was read from.
+	 *
+	 * @return the mapped HDT file
+	 */
+	HDTMappedFile getFile();
+
+	/**
+	 * @return the subject identifier, {@link #NO_ID} or {@link #UNKNOWN_ID}
+	 */
+	long getSubjectID();
+
+	/**
+	 * @return the predicate identifier, {@link #NO_ID} or {@link #UNKNOWN_ID}
+	 */
+	long getPredicateID();
+
+	/**
+	 * @return the object identifier, {@link #NO_ID} or {@link #UNKNOWN_ID}
+	 */
+	long getObjectID();
+}
@@ -0,0 +1,21 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+/**
+ * HDT implementations of the RDF Model interfaces.
+ *
+ * @apiNote This package is for internal use only: its existence, signature or behavior may change without warning from
+ *          one release to the next.
+ */
+
+@InternalUseOnly
+package org.eclipse.rdf4j.sail.hdt.model;
+
+import org.eclipse.rdf4j.common.annotation.InternalUseOnly;
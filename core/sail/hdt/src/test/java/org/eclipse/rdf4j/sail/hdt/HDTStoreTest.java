@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.hdt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.common.order.StatementOrder;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryResults;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.eclipse.rdf4j.query.explanation.Explanation;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.sail.SailConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class HDTStoreTest {
+	private static final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	private static final IRI DATASET = vf.createIRI("http://data.gov.be/dataset/fodbosadt/best");
+	private static final IRI DCAT_DATASET = vf.createIRI("http://www.w3.org/ns/dcat#Dataset");
+	private static final IRI DCAT_DISTRIBUTION = vf.createIRI("http://www.w3.org/ns/dcat#Distribution");
+	private static final IRI TITLE = vf.createIRI("http://purl.org/dc/terms/title");
+
+	@TempDir
+	File dataDir;
+
+	private SailRepository repo;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		Path hdt = dataDir.toPath().resolve("test.hdt");
+		try (InputStream is = HDTStoreTest.class.getResourceAsStream("/test.hdt")) {
+			Files.copy(is, hdt);
+		}
+		repo = new SailRepository(new HDTStore(hdt.toFile()));
+		repo.init();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		repo.shutDown();
+	}
+
+	@Test
+	public void testAllStatements() throws Exception {
+		Model orig;
+		try (InputStream is = HDTStoreTest.class.getResourceAsStream("/test-orig.nt")) {
+			orig = Rio.parse(is, "", RDFFormat.NTRIPLES);
+		}
+
+		try (RepositoryConnection conn = repo.getConnection()) {
+			Model m = QueryResults.asModel(conn.getStatements(null, null, null, false));
+			assertEquals(43, m.size(), "Number of statements does not match");
+			assertEquals(43, conn.size());
+
+			orig.removeAll(m);
+			assertEquals(0, orig.size(), "HDT store does not match original NT file");
+		}
+	}
+
+	@Test
+	public void testBoundSubject() {
+		try (RepositoryConnection conn = repo.getConnection()) {
+			List<Statement> st = Iterations.asList(conn.getStatements(DATASET, TITLE, null, false));
+			assertEquals(2, st.size());
+
+			assertEquals(17, Iterations.asList(conn.getStatements(DATASET, null, null, false)).size());
+			assertTrue(conn.hasStatement(DATASET, RDF.TYPE, DCAT_DATASET, false));
+			assertFalse(conn.hasStatement(DATASET, RDF.TYPE, DCAT_DISTRIBUTION, false));
+			assertFalse(conn.hasStatement(vf.createIRI("http://example.org/unknown"), null, null, false));
+		}
+	}
+
+	@Test
+	public void testBoundObject() {
+		try (RepositoryConnection conn = repo.getConnection()) {
+			assertEquals(2, Iterations.asList(conn.getStatements(null, RDF.TYPE, DCAT_DISTRIBUTION, false)).size());
+			assertEquals(6, Iterations.asList(conn.getStatements(null, RDF.TYPE, null, false)).size());
+			assertEquals(2, Iterations.asList(conn.getStatements(null, null, vf.createLiteral("text/xml"), false))
+					.size());
+			assertFalse(conn.hasStatement(null, null, vf.createLiteral("text/xml", "en"), false));
+		}
+	}
+
+	@Test
+	public void testContexts() {
+		try (RepositoryConnection conn = repo.getConnection()) {
+			assertEquals(0, Iterations.asList(conn.getContextIDs()).size());
+			assertEquals(43, Iterations.asList(conn.getStatements(null, null, null, false, (IRI) null)).size());
+			assertEquals(0, Iterations.asList(conn.getStatements(null, null, null, false, DATASET)).size());
+		}
+	}
+
+	@Test
+	public void testQuery() {
+		String query = "PREFIX dcat: <http://www.w3.org/ns/dcat#>\n"
+				+ "PREFIX dct: <http://purl.org/dc/terms/>\n"
+				+ "SELECT ?title WHERE { ?ds a dcat:Dataset ; dcat:distribution ?dist . ?dist dct:title ?title }";
+
+		try (RepositoryConnection conn = repo.getConnection()) {
+			List<BindingSet> result = QueryResults.asList(conn.prepareTupleQuery(query).evaluate());
+			assertEquals(2, result.size());
+		}
+	}
+
+	@Test
+	public void testCardinality() {
+		EvaluationStatistics statistics = ((HDTStore) repo.getSail()).getSailStore().getEvaluationStatistics();
+
+		assertEquals(17, statistics.getCardinality(pattern(DATASET, null, null)));
+		assertEquals(2, statistics.getCardinality(pattern(DATASET, TITLE, null)));
+		assertEquals(0, statistics.getCardinality(pattern(vf.createIRI("http://example.org/unknown"), null, null)));
+		// patterns without a subject are answered by a scan over all triples
+		assertEquals(43, statistics.getCardinality(pattern(null, RDF.TYPE, DCAT_DISTRIBUTION)));
+		assertEquals(43, statistics.getCardinality(pattern(null, null, null)));
+	}
+
+	@Test
+	public void testOrderedStatements() {
+		try (SailConnection conn = repo.getSail().getConnection()) {
+			Comparator<Value> comparator = conn.getComparator();
+			assertNotNull(comparator);
+			Comparator<Statement> bySubject = StatementOrder.S.getComparator(comparator);
+
+			List<Statement> st = Iterations.asList(conn.getStatements(StatementOrder.S, null, RDF.TYPE, null, false));
+			assertEquals(6, st.size());
+			for (int i = 1; i < st.size(); i++) {
+				assertTrue(bySubject.compare(st.get(i - 1), st.get(i)) <= 0, "Statements are not sorted: " + st);
+			}
+		}
+
+		String query = "PREFIX dct: <http://purl.org/dc/terms/>\n"
+				+ "SELECT * WHERE { ?s a ?type . ?s dct:title ?title }";
+		try (RepositoryConnection conn = repo.getConnection()) {
+			TupleQuery tupleQuery = conn.prepareTupleQuery(query);
+			assertEquals(4, QueryResults.asList(tupleQuery.evaluate()).size());
+			assertTrue(tupleQuery.explain(Explanation.Level.Executed).toString().contains("InnerMergeJoinIterator"));
+		}
+	}
+
+	private static StatementPattern pattern(IRI subj, IRI pred, IRI obj) {
+		return new StatementPattern(subj == null ? new Var("s") : new Var("s", subj),
+				pred == null ? new Var("p") : new Var("p", pred), obj == null ? new Var("o") : new Var("o", obj));
+	}
+
+	@Test
+	public void testReadOnly() {
+		assertFalse(repo.isWritable());
+		try (RepositoryConnection conn = repo.getConnection()) {
+			assertThrows(RepositoryException.class, () -> {
+				conn.begin();
+				conn.add(DATASET, RDF.TYPE, DCAT_DISTRIBUTION);
+				conn.commit();
+			});
+			if (conn.isActive()) {
+				conn.rollback();
+			}
+			assertEquals(43, conn.size());
+		}
+	}
+}
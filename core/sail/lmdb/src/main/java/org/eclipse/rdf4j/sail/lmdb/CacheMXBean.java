@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import org.eclipse.rdf4j.common.annotation.Experimental;
+
+/**
+ * Management interface of the caches used by the {@link LmdbStore}. The weight of a cache is either its number of
+ * entries or the estimated number of bytes that the entries occupy, depending on how the cache was configured.
+ */
+@Experimental
+public interface CacheMXBean {
+
+	/**
+	 * @return the number of lookups that found an entry in the cache
+	 */
+	long getHitCount();
+
+	/**
+	 * @return the number of lookups that did not find an entry in the cache
+	 */
+	long getMissCount();
+
+	/**
+	 * @return the number of entries that have been evicted to keep the cache within its capacity
+	 */
+	long getEvictionCount();
+
+	/**
+	 * @return the ratio of lookups that found an entry in the cache, or <tt>NaN</tt> if there were no lookups
+	 */
+	double getHitRate();
+
+	/**
+	 * @return the number of entries in the cache
+	 */
+	long getSize();
+
+	/**
+	 * @return the total weight of the entries in the cache
+	 */
+	long getWeight();
+
+	/**
+	 * @return the maximum total weight of the entries in the cache
+	 */
+	long getCapacity();
+
+	/**
+	 * Changes the maximum total weight of the entries in the cache. Entries are evicted immediately if the cache
+	 * exceeds the new capacity.
+	 */
+	void setCapacity(long capacity);
+
+	/**
+	 * Resets the hit, miss and eviction counters.
+	 */
+	void resetStatistics();
+}
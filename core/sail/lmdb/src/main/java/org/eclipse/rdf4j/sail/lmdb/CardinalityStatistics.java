@@ -0,0 +1,392 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import static org.eclipse.rdf4j.sail.lmdb.LmdbUtil.E;
+import static org.eclipse.rdf4j.sail.lmdb.LmdbUtil.openDatabase;
+import static org.eclipse.rdf4j.sail.lmdb.LmdbUtil.readTransaction;
+import static org.lwjgl.util.lmdb.LMDB.MDB_CREATE;
+import static org.lwjgl.util.lmdb.LMDB.MDB_NEXT;
+import static org.lwjgl.util.lmdb.LMDB.MDB_SUCCESS;
+import static org.lwjgl.util.lmdb.LMDB.mdb_cursor_close;
+import static org.lwjgl.util.lmdb.LMDB.mdb_cursor_get;
+import static org.lwjgl.util.lmdb.LMDB.mdb_cursor_open;
+import static org.lwjgl.util.lmdb.LMDB.mdb_del;
+import static org.lwjgl.util.lmdb.LMDB.mdb_put;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.rdf4j.sail.lmdb.model.LmdbValue;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.util.lmdb.MDBVal;
+
+/**
+ * Cardinality statistics of the statements in a {@link TripleStore}, which are stored in a separate LMDB database and
+ * maintained incrementally while statements are added and removed.
+ * <p>
+ * For each predicate the number of statements, sketches of the number of distinct subjects and objects and the most
+ * frequent objects are kept. The changes of a write transaction are applied to copies of the affected entries, which
+ * replace the current entries when the transaction has been committed. Cardinality estimates are therefore always
+ * based on committed data.
+ */
+class CardinalityStatistics {
+
+	/**
+	 * The number of bits of a hash code that select a register of a distinct count sketch.
+	 */
+	static final int SKETCH_BITS = 8;
+
+	static final int SKETCH_REGISTERS = 1 << SKETCH_BITS;
+
+	/**
+	 * The number of most frequent objects that are tracked for each predicate.
+	 */
+	static final int HEAVY_HITTERS = 16;
+
+	private static final int MAX_ENTRY_SIZE = Long.BYTES + 1 + 2 * SKETCH_REGISTERS + 1
+			+ HEAVY_HITTERS * 3 * (Long.BYTES + 1);
+
+	private final int dbi;
+
+	private final Map<Long, PredicateStatistics> predicates = new ConcurrentHashMap<>();
+
+	/**
+	 * The entries that have been changed by the current write transaction.
+	 */
+	private final Map<Long, PredicateStatistics> changed = new HashMap<>();
+
+	CardinalityStatistics(long env) throws IOException {
+		this.dbi = openDatabase(env, "statistics", MDB_CREATE, null);
+		readTransaction(env, (stack, txn) -> {
+			long cursor = 0;
+			try {
+				PointerBuffer pp = stack.mallocPointer(1);
+				E(mdb_cursor_open(txn, dbi, pp));
+				cursor = pp.get(0);
+
+				MDBVal keyData = MDBVal.calloc(stack);
+				MDBVal valueData = MDBVal.calloc(stack);
+				while (mdb_cursor_get(cursor, keyData, valueData, MDB_NEXT) == MDB_SUCCESS) {
+					long pred = Varint.readUnsigned(keyData.mv_data());
+					predicates.put(pred, PredicateStatistics.read(valueData.mv_data()));
+				}
+			} finally {
+				if (cursor != 0) {
+					mdb_cursor_close(cursor);
+				}
+			}
+			return null;
+		});
+	}
+
+	boolean isEmpty() {
+		return predicates.isEmpty();
+	}
+
+	/**
+	 * Records that a statement has been added by the current write transaction.
+	 */
+	void add(long subj, long pred, long obj) {
+		changed(pred).add(subj, obj);
+	}
+
+	/**
+	 * Records that a statement has been removed by the current write transaction.
+	 */
+	void remove(long pred, long obj) {
+		changed(pred).remove(obj);
+	}
+
+	private PredicateStatistics changed(long pred) {
+		PredicateStatistics stats = changed.get(pred);
+		if (stats == null) {
+			PredicateStatistics current = predicates.get(pred);
+			stats = current == null ? new PredicateStatistics() : current.copy();
+			changed.put(pred, stats);
+		}
+		return stats;
+	}
+
+	/**
+	 * Writes the entries that have been changed by the current write transaction.
+	 */
+	void persist(MemoryStack stack, long txn) throws IOException {
+		if (changed.isEmpty()) {
+			return;
+		}
+		MDBVal keyVal = MDBVal.calloc(stack);
+		MDBVal dataVal = MDBVal.calloc(stack);
+		ByteBuffer keyBuf = stack.malloc(Long.BYTES + 1);
+		ByteBuffer dataBuf = stack.malloc(MAX_ENTRY_SIZE);
+		for (Map.Entry<Long, PredicateStatistics> entry : changed.entrySet()) {
+			keyBuf.clear();
+			Varint.writeUnsigned(keyBuf, entry.getKey());
+			keyVal.mv_data(keyBuf.flip());
+			PredicateStatistics stats = entry.getValue();
+			if (stats.count <= 0) {
+				E(mdb_del(txn, dbi, keyVal, null));
+			} else {
+				dataBuf.clear();
+				stats.write(dataBuf);
+				dataVal.mv_data(dataBuf.flip());
+				E(mdb_put(txn, dbi, keyVal, dataVal, 0));
+			}
+		}
+	}
+
+	/**
+	 * Makes the changes of the current write transaction visible after it has been committed.
+	 */
+	void publish() {
+		for (Map.Entry<Long, PredicateStatistics> entry : changed.entrySet()) {
+			if (entry.getValue().count <= 0) {
+				predicates.remove(entry.getKey());
+			} else {
+				predicates.put(entry.getKey(), entry.getValue());
+			}
+		}
+		changed.clear();
+	}
+
+	/**
+	 * Discards the changes of the current write transaction.
+	 */
+	void discard() {
+		changed.clear();
+	}
+
+	/**
+	 * Estimates the number of statements with the given predicate, subject and object.
+	 *
+	 * @param subj the subject or {@link LmdbValue#UNKNOWN_ID}
+	 * @param pred the predicate
+	 * @param obj  the object or {@link LmdbValue#UNKNOWN_ID}
+	 */
+	double cardinality(long subj, long pred, long obj) {
+		PredicateStatistics stats = predicates.get(pred);
+		if (stats == null) {
+			return 0;
+		}
+		double cardinality = stats.count;
+		if (subj != LmdbValue.UNKNOWN_ID) {
+			cardinality /= stats.distinctSubjects();
+		}
+		if (obj != LmdbValue.UNKNOWN_ID) {
+			// assumes that subjects and objects are independent
+			cardinality *= stats.objectCardinality(obj) / stats.count;
+		}
+		return cardinality;
+	}
+
+	PredicateStatistics get(long pred) {
+		return predicates.get(pred);
+	}
+
+	/**
+	 * Statistics of the statements with a single predicate.
+	 */
+	static final class PredicateStatistics {
+
+		long count;
+
+		/**
+		 * HyperLogLog sketches of the distinct subjects and objects.
+		 */
+		final byte[] subjects;
+		final byte[] objects;
+
+		/**
+		 * The most frequent objects as tracked by the Space-Saving algorithm, where the actual count of an object lies
+		 * between its count minus its error and its count.
+		 */
+		final long[] hitterIds;
+		final long[] hitterCounts;
+		final long[] hitterErrors;
+		int hitters;
+
+		PredicateStatistics() {
+			this(new byte[SKETCH_REGISTERS], new byte[SKETCH_REGISTERS], new long[HEAVY_HITTERS],
+					new long[HEAVY_HITTERS], new long[HEAVY_HITTERS]);
+		}
+
+		private PredicateStatistics(byte[] subjects, byte[] objects, long[] hitterIds, long[] hitterCounts,
+				long[] hitterErrors) {
+			this.subjects = subjects;
+			this.objects = objects;
+			this.hitterIds = hitterIds;
+			this.hitterCounts = hitterCounts;
+			this.hitterErrors = hitterErrors;
+		}
+
+		PredicateStatistics copy() {
+			PredicateStatistics copy = new PredicateStatistics(subjects.clone(), objects.clone(), hitterIds.clone(),
+					hitterCounts.clone(), hitterErrors.clone());
+			copy.count = count;
+			copy.hitters = hitters;
+			return copy;
+		}
+
+		void add(long subj, long obj) {
+			count++;
+			offer(subjects, subj);
+			offer(objects, obj);
+
+			int min = -1;
+			for (int i = 0; i < hitters; i++) {
+				if (hitterIds[i] == obj) {
+					hitterCounts[i]++;
+					return;
+				}
+				if (min < 0 || hitterCounts[i] < hitterCounts[min]) {
+					min = i;
+				}
+			}
+			if (hitters < HEAVY_HITTERS) {
+				hitterIds[hitters] = obj;
+				hitterCounts[hitters] = 1;
+				hitterErrors[hitters] = 0;
+				hitters++;
+			} else {
+				// replace the least frequent object, which may have occurred as often as the replaced one
+				hitterIds[min] = obj;
+				hitterErrors[min] = hitterCounts[min];
+				hitterCounts[min]++;
+			}
+		}
+
+		/**
+		 * Removes a statement. The sketches cannot forget values, hence the distinct counts are limited by the number
+		 * of statements instead.
+		 */
+		void remove(long obj) {
+			count--;
+			for (int i = 0; i < hitters; i++) {
+				if (hitterIds[i] == obj) {
+					if (--hitterCounts[i] <= 0) {
+						hitters--;
+						hitterIds[i] = hitterIds[hitters];
+						hitterCounts[i] = hitterCounts[hitters];
+						hitterErrors[i] = hitterErrors[hitters];
+					} else {
+						hitterErrors[i] = Math.min(hitterErrors[i], hitterCounts[i]);
+					}
+					break;
+				}
+			}
+		}
+
+		double distinctSubjects() {
+			return Math.max(1, Math.min(count, estimate(subjects)));
+		}
+
+		double distinctObjects() {
+			return Math.max(1, Math.min(count, estimate(objects)));
+		}
+
+		/**
+		 * Estimates the number of statements with the given object.
+		 */
+		double objectCardinality(long obj) {
+			long frequentCount = 0;
+			for (int i = 0; i < hitters; i++) {
+				long guaranteedCount = hitterCounts[i] - hitterErrors[i];
+				if (hitterIds[i] == obj && guaranteedCount > 0) {
+					return guaranteedCount;
+				}
+				frequentCount += guaranteedCount;
+			}
+			// the remaining statements are evenly distributed over the remaining objects
+			double remainingObjects = Math.max(1, distinctObjects() - hitters);
+			return Math.max(1, (count - frequentCount) / remainingObjects);
+		}
+
+		void write(ByteBuffer bb) {
+			Varint.writeUnsigned(bb, count);
+			bb.put(subjects);
+			bb.put(objects);
+			Varint.writeUnsigned(bb, hitters);
+			for (int i = 0; i < hitters; i++) {
+				Varint.writeUnsigned(bb, hitterIds[i]);
+				Varint.writeUnsigned(bb, hitterCounts[i]);
+				Varint.writeUnsigned(bb, hitterErrors[i]);
+			}
+		}
+
+		static PredicateStatistics read(ByteBuffer bb) {
+			PredicateStatistics stats = new PredicateStatistics();
+			stats.count = Varint.readUnsigned(bb);
+			bb.get(stats.subjects);
+			bb.get(stats.objects);
+			stats.hitters = (int) Varint.readUnsigned(bb);
+			for (int i = 0; i < stats.hitters; i++) {
+				stats.hitterIds[i] = Varint.readUnsigned(bb);
+				stats.hitterCounts[i] = Varint.readUnsigned(bb);
+				stats.hitterErrors[i] = Varint.readUnsigned(bb);
+			}
+			return stats;
+		}
+
+		@Override
+		public String toString() {
+			return "PredicateStatistics [count=" + count + ", distinctSubjects=" + distinctSubjects()
+					+ ", distinctObjects=" + distinctObjects() + ", frequentObjects="
+					+ Arrays.toString(Arrays.copyOf(hitterIds, hitters)) + "]";
+		}
+	}
+
+	private static void offer(byte[] registers, long id) {
+		long hash = hash(id);
+		int register = (int) (hash >>> (Long.SIZE - SKETCH_BITS));
+		// position of the first 1-bit in the remaining bits
+		byte rank = (byte) (Long.numberOfLeadingZeros((hash << SKETCH_BITS) | (1L << (SKETCH_BITS - 1))) + 1);
+		if (rank > registers[register]) {
+			registers[register] = rank;
+		}
+	}
+
+	/**
+	 * Estimates the number of distinct values that have been offered to a sketch.
+	 */
+	static double estimate(byte[] registers) {
+		double sum = 0;
+		int zeros = 0;
+		for (byte register : registers) {
+			sum += 1.0 / (1L << register);
+			if (register == 0) {
+				zeros++;
+			}
+		}
+		int m = registers.length;
+		double alpha = 0.7213 / (1 + 1.079 / m);
+		double estimate = alpha * m * m / sum;
+		if (estimate <= 2.5 * m && zeros > 0) {
+			// linear counting is more accurate for small cardinalities
+			estimate = m * Math.log((double) m / zeros);
+		}
+		return estimate;
+	}
+
+	/**
+	 * Spreads the bits of an ID (finalizer of the SplitMix64 generator).
+	 */
+	private static long hash(long id) {
+		long z = id * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent cache with a limited total weight that evicts entries using the CLOCK (second chance) algorithm.
+ * <p>
+ * Lookups are lock-free and only mark the entry as recently used. The entries are partitioned by the hash code of their
+ * keys into stripes, each of which owns an equal share of the capacity and its own clock hand, so that concurrent
+ * insertions rarely contend for the same lock.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+class ClockCache<K, V> implements CacheMXBean {
+
+	private static final int MAX_STRIPES = 64;
+
+	/**
+	 * The minimal capacity of a stripe, which limits the number of stripes of small caches.
+	 */
+	private static final long MIN_STRIPE_CAPACITY = 16;
+
+	private final ConcurrentHashMap<K, Node<K, V>> map;
+
+	private final Stripe<K, V>[] stripes;
+
+	private volatile long capacity;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder evictions = new LongAdder();
+
+	@SuppressWarnings("unchecked")
+	ClockCache(long capacity) {
+		this.capacity = capacity;
+		int maxStripes = Math.min(MAX_STRIPES, Runtime.getRuntime().availableProcessors() * 4);
+		int stripeCount = (int) Math.max(1, Math.min(maxStripes, capacity / MIN_STRIPE_CAPACITY));
+		// round down to a power of two
+		stripeCount = Integer.highestOneBit(stripeCount);
+		this.stripes = new Stripe[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new Stripe<>();
+		}
+		this.map = new ConcurrentHashMap<>((int) Math.min(1 << 16, Math.max(16, capacity)));
+	}
+
+	/**
+	 * Returns the value that is cached for the given key and marks it as recently used.
+	 *
+	 * @return the cached value or <code>null</code> if there is none
+	 */
+	V get(Object key) {
+		Node<K, V> node = map.get(key);
+		if (node == null) {
+			misses.increment();
+			return null;
+		}
+		if (!node.referenced) {
+			// avoid writing to shared cache lines for hot entries
+			node.referenced = true;
+		}
+		hits.increment();
+		return node.value;
+	}
+
+	/**
+	 * Caches a value for the given key and evicts other entries of the same stripe if it exceeds its share of the
+	 * capacity.
+	 *
+	 * @param weight the weight of the entry, in the unit of the capacity
+	 */
+	void put(K key, V value, long weight) {
+		Node<K, V> node = new Node<>(key, value, weight);
+		Stripe<K, V> stripe = stripes[(spread(key.hashCode())) & (stripes.length - 1)];
+		synchronized (stripe) {
+			Node<K, V> old = map.put(key, node);
+			if (old != null) {
+				// keys of the same stripe are only replaced while holding its lock
+				old.removed = true;
+				stripe.weight -= old.weight;
+				if (++stripe.removed > stripe.nodes.size() / 2) {
+					stripe.nodes.removeIf(n -> n.removed);
+					stripe.removed = 0;
+					stripe.hand = 0;
+				}
+			}
+			stripe.nodes.add(node);
+			stripe.weight += weight;
+			evict(stripe);
+		}
+	}
+
+	void clear() {
+		for (Stripe<K, V> stripe : stripes) {
+			synchronized (stripe) {
+				for (Node<K, V> node : stripe.nodes) {
+					map.remove(node.key, node);
+				}
+				stripe.nodes.clear();
+				stripe.hand = 0;
+				stripe.weight = 0;
+				stripe.removed = 0;
+			}
+		}
+	}
+
+	/**
+	 * Advances the clock hand of the stripe until the stripe's weight fits its share of the capacity. Recently used
+	 * entries get a second chance and are only evicted if they are not used again before the hand comes back.
+	 */
+	private void evict(Stripe<K, V> stripe) {
+		long stripeCapacity = capacity / stripes.length;
+		ArrayList<Node<K, V>> nodes = stripe.nodes;
+		while (stripe.weight > stripeCapacity && !nodes.isEmpty()) {
+			if (stripe.hand >= nodes.size()) {
+				stripe.hand = 0;
+			}
+			Node<K, V> node = nodes.get(stripe.hand);
+			if (node.removed) {
+				removeAtHand(stripe);
+				stripe.removed--;
+			} else if (node.referenced) {
+				node.referenced = false;
+				stripe.hand++;
+			} else {
+				map.remove(node.key, node);
+				removeAtHand(stripe);
+				stripe.weight -= node.weight;
+				evictions.increment();
+			}
+		}
+	}
+
+	/**
+	 * Removes the node at the clock hand by replacing it with the last node, which is then visited next.
+	 */
+	private void removeAtHand(Stripe<K, V> stripe) {
+		ArrayList<Node<K, V>> nodes = stripe.nodes;
+		Node<K, V> last = nodes.remove(nodes.size() - 1);
+		if (stripe.hand < nodes.size()) {
+			nodes.set(stripe.hand, last);
+		}
+	}
+
+	private static int spread(int h) {
+		return h ^ (h >>> 16);
+	}
+
+	@Override
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	@Override
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	@Override
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	@Override
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long lookups = hitCount + misses.sum();
+		return lookups == 0 ? Double.NaN : (double) hitCount / lookups;
+	}
+
+	@Override
+	public long getSize() {
+		return map.size();
+	}
+
+	@Override
+	public long getWeight() {
+		long weight = 0;
+		for (Stripe<K, V> stripe : stripes) {
+			synchronized (stripe) {
+				weight += stripe.weight;
+			}
+		}
+		return weight;
+	}
+
+	@Override
+	public long getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	public void setCapacity(long capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+		}
+		this.capacity = capacity;
+		for (Stripe<K, V> stripe : stripes) {
+			synchronized (stripe) {
+				evict(stripe);
+			}
+		}
+	}
+
+	@Override
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+
+	private static final class Node<K, V> {
+
+		final K key;
+
+		final V value;
+
+		final long weight;
+
+		/**
+		 * Set on every lookup and cleared when the clock hand passes.
+		 */
+		volatile boolean referenced;
+
+		/**
+		 * Set when the node has been replaced by a node for the same key, guarded by the stripe's lock.
+		 */
+		boolean removed;
+
+		Node(K key, V value, long weight) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+
+	private static final class Stripe<K, V> {
+
+		final ArrayList<Node<K, V>> nodes = new ArrayList<>();
+
+		int hand;
+
+		long weight;
+
+		/**
+		 * The number of replaced nodes that are still in the list.
+		 */
+		int removed;
+	}
+}
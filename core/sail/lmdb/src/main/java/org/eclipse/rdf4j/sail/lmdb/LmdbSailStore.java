@@ -15,20 +15,29 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
 import org.eclipse.rdf4j.common.iteration.ConvertingIteration;
+import org.eclipse.rdf4j.common.iteration.DualUnionIteration;
 import org.eclipse.rdf4j.common.iteration.EmptyIteration;
 import org.eclipse.rdf4j.common.iteration.FilterIteration;
 import org.eclipse.rdf4j.common.iteration.UnionIteration;
@@ -74,6 +83,35 @@ class LmdbSailStore implements SailStore {
 
 	boolean enableMultiThreading = true;
 
+	/**
+	 * The minimal number of statements that are approved at once for which the statements are sorted and added to each
+	 * index in the order of its keys instead of being added one by one, see
+	 * {@link LmdbStoreConfig#setBulkLoadThreshold(int)}.
+	 */
+	int bulkLoadThreshold;
+
+	/**
+	 * The maximal number of statements whose values are stored together by a sink.
+	 */
+	static final int STATEMENT_BATCH_SIZE = 4096;
+
+	/**
+	 * The values that have been stored in the {@link ValueStore} by sinks, and the time that it took, since the last
+	 * commit.
+	 */
+	private final WriteStatistics valueStoreStatistics = new WriteStatistics();
+
+	/**
+	 * The statements that have been stored in the {@link TripleStore} by sinks, and the time that it took, since the
+	 * last commit.
+	 */
+	private final WriteStatistics tripleStoreStatistics = new WriteStatistics();
+
+	/**
+	 * Compares values by their internal IDs which is the order used by the {@link TripleStore} indexes.
+	 */
+	private final Comparator<Value> valueIdComparator = (v1, v2) -> Long.compare(sortKey(v1), sortKey(v2));
+
 	private PersistentSetFactory<Long> setFactory;
 	private PersistentSet<Long> unusedIds, nextUnusedIds;
 
@@ -133,23 +171,72 @@ class LmdbSailStore implements SailStore {
 	};
 
 	/**
-	 * Operation for adding a new quad.
+	 * Operation for adding a batch of quads.
 	 */
-	class AddQuadOperation implements Operation {
-		long s, p, o, c;
-		boolean explicit;
-		Resource context;
+	class AddQuadsOperation implements Operation {
+		final long[] quads;
+		final int count;
+		final boolean explicit;
+
+		/**
+		 * @param quads the IDs of subject, predicate, object and context of each quad
+		 * @param count the number of quads
+		 */
+		AddQuadsOperation(long[] quads, int count, boolean explicit) {
+			this.quads = quads;
+			this.count = count;
+			this.explicit = explicit;
+		}
 
 		@Override
 		public void execute() throws IOException {
-			if (!unusedIds.isEmpty()) {
-				// these ids are used again
-				unusedIds.remove(s);
-				unusedIds.remove(p);
-				unusedIds.remove(o);
-				unusedIds.remove(c);
+			long start = System.nanoTime();
+			for (int i = 0; i < count * 4; i += 4) {
+				long s = quads[i], p = quads[i + 1], o = quads[i + 2], c = quads[i + 3];
+				if (!unusedIds.isEmpty()) {
+					// these ids are used again
+					unusedIds.remove(s);
+					unusedIds.remove(p);
+					unusedIds.remove(o);
+					unusedIds.remove(c);
+				}
+				tripleStore.storeTriple(s, p, o, c, explicit);
 			}
-			tripleStore.storeTriple(s, p, o, c, explicit);
+			tripleStoreStatistics.record(count, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * The number of stored items and the time spent storing them.
+	 */
+	static final class WriteStatistics {
+		private final LongAdder count = new LongAdder();
+		private final LongAdder nanos = new LongAdder();
+
+		void record(long items, long time) {
+			count.add(items);
+			nanos.add(time);
+		}
+
+		long getCount() {
+			return count.sum();
+		}
+
+		long getMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(nanos.sum());
+		}
+
+		/**
+		 * @return the number of items stored per second
+		 */
+		long getThroughput() {
+			long time = nanos.sum();
+			return time == 0 ? 0 : (long) (count.sum() * (double) TimeUnit.SECONDS.toNanos(1) / time);
+		}
+
+		void reset() {
+			count.reset();
+			nanos.reset();
 		}
 	}
 
@@ -174,6 +261,31 @@ class LmdbSailStore implements SailStore {
 	 */
 	private final AtomicBoolean storeTxnStarted = new AtomicBoolean(false);
 
+	/**
+	 * The time in nanoseconds that {@link #awaitDurable()} waits for further commits before syncing, or <tt>-1</tt> if
+	 * every commit is synced on its own.
+	 */
+	private final long groupCommitWindow;
+
+	/**
+	 * The number of transactions that have been committed to the {@link TripleStore} and {@link ValueStore}.
+	 */
+	private final AtomicLong committedTxns = new AtomicLong();
+
+	/**
+	 * The number of committed transactions that have been synced to disk, guarded by {@link #groupCommitLock}.
+	 */
+	private long syncedTxns;
+
+	/**
+	 * Flag indicating whether a caller of {@link #awaitDurable()} is syncing, guarded by {@link #groupCommitLock}.
+	 */
+	private boolean syncInProgress;
+
+	private final ReentrantLock groupCommitLock = new ReentrantLock();
+
+	private final Condition txnsSynced = groupCommitLock.newCondition();
+
 	/**
 	 * Creates a new {@link LmdbSailStore}.
 	 */
@@ -187,6 +299,10 @@ class LmdbSailStore implements SailStore {
 		Function<ByteBuffer, Long> decode = buffer -> buffer.order(ByteOrder.BIG_ENDIAN).getLong();
 		this.unusedIds = setFactory.createSet("unusedIds", encode, decode);
 		this.nextUnusedIds = setFactory.createSet("nextUnusedIds", encode, decode);
+		this.groupCommitWindow = config.getForceSync() && config.getGroupCommitWindow() >= 0
+				? TimeUnit.MILLISECONDS.toNanos(config.getGroupCommitWindow())
+				: -1;
+		this.bulkLoadThreshold = config.getBulkLoadThreshold();
 		boolean initialized = false;
 		try {
 			namespaceStore = new NamespaceStore(dataDir);
@@ -232,6 +348,69 @@ class LmdbSailStore implements SailStore {
 		}
 	}
 
+	/**
+	 * Logs the throughput of the value store and the triple store since the last commit.
+	 */
+	private void logWriteStatistics() {
+		if (logger.isDebugEnabled() && tripleStoreStatistics.getCount() > 0) {
+			logger.debug("Stored {} values in {} ms ({} values/s) and {} statements in {} ms ({} statements/s)",
+					valueStoreStatistics.getCount(), valueStoreStatistics.getMillis(),
+					valueStoreStatistics.getThroughput(), tripleStoreStatistics.getCount(),
+					tripleStoreStatistics.getMillis(), tripleStoreStatistics.getThroughput());
+		}
+		valueStoreStatistics.reset();
+		tripleStoreStatistics.reset();
+	}
+
+	/**
+	 * Blocks until all transactions that have been committed so far are synced to disk. In group commit mode the
+	 * commits themselves do not sync. The first caller waits for the group commit window to let the commits of
+	 * concurrent connections arrive and then syncs all of them at once, while the other callers wait for this sync.
+	 */
+	void awaitDurable() throws SailException {
+		if (groupCommitWindow < 0) {
+			return;
+		}
+		long target = committedTxns.get();
+		groupCommitLock.lock();
+		try {
+			while (syncedTxns < target && syncInProgress) {
+				txnsSynced.awaitUninterruptibly();
+			}
+			if (syncedTxns >= target) {
+				return;
+			}
+			syncInProgress = true;
+		} finally {
+			groupCommitLock.unlock();
+		}
+
+		long synced = -1;
+		try {
+			if (groupCommitWindow > 0) {
+				LockSupport.parkNanos(groupCommitWindow);
+			}
+			long upTo = committedTxns.get();
+			// values first, so that a crash between the two syncs can not leave durable triples with unknown value IDs
+			valueStore.sync();
+			tripleStore.sync();
+			synced = upTo;
+		} catch (IOException e) {
+			logger.error("Encountered an unexpected problem while trying to sync", e);
+			throw new SailException(e);
+		} finally {
+			groupCommitLock.lock();
+			try {
+				syncInProgress = false;
+				syncedTxns = Math.max(syncedTxns, synced);
+				// waiting callers that are not covered by this sync take over
+				txnsSynced.signalAll();
+			} finally {
+				groupCommitLock.unlock();
+			}
+		}
+	}
+
 	@Override
 	public void close() throws SailException {
 		try {
@@ -276,6 +455,41 @@ class LmdbSailStore implements SailStore {
 		}
 	}
 
+	/**
+	 * Starts changing the triple indexes while the store remains available for reading and writing.
+	 *
+	 * @param tripleIndexes The new triple indexes, e.g. <var>spoc,posc</var>.
+	 * @see TripleStore#startReindex(String)
+	 */
+	public void reindex(String tripleIndexes) throws SailException {
+		try {
+			tripleStore.startReindex(tripleIndexes);
+		} catch (IOException e) {
+			throw new SailException(e);
+		}
+	}
+
+	public boolean isReindexing() {
+		return tripleStore.isReindexing();
+	}
+
+	public double getReindexProgress() {
+		return tripleStore.getReindexProgress();
+	}
+
+	/**
+	 * Waits until the running change of the triple indexes has finished.
+	 *
+	 * @throws SailException If building the new indexes failed.
+	 */
+	public void awaitReindex() throws SailException, InterruptedException {
+		try {
+			tripleStore.awaitReindex();
+		} catch (IOException e) {
+			throw new SailException(e);
+		}
+	}
+
 	SailException wrapTripleStoreException() {
 		return tripleStoreException instanceof SailException ? (SailException) tripleStoreException
 				: new SailException(tripleStoreException);
@@ -347,6 +561,22 @@ class LmdbSailStore implements SailStore {
 	 */
 	CloseableIteration<? extends Statement> createStatementIterator(
 			Txn txn, Resource subj, IRI pred, Value obj, boolean explicit, Resource... contexts) throws IOException {
+		return createStatementIterator(txn, null, subj, pred, obj, explicit, contexts);
+	}
+
+	/**
+	 * Creates a statement iterator based on the supplied pattern that returns the statements in the given order.
+	 *
+	 * @param order    The order in which the statements are returned, or <tt>null</tt> if the order is not relevant.
+	 * @param subj     The subject of the pattern, or <tt>null</tt> to indicate a wildcard.
+	 * @param pred     The predicate of the pattern, or <tt>null</tt> to indicate a wildcard.
+	 * @param obj      The object of the pattern, or <tt>null</tt> to indicate a wildcard.
+	 * @param contexts The context(s) of the pattern. Note that this parameter is a vararg and as such is optional. If
+	 *                 no contexts are supplied the method operates on the entire repository.
+	 * @return A StatementIterator that can be used to iterate over the statements that match the specified pattern.
+	 */
+	CloseableIteration<? extends Statement> createStatementIterator(Txn txn, StatementOrder order,
+			Resource subj, IRI pred, Value obj, boolean explicit, Resource... contexts) throws IOException {
 		long subjID = LmdbValue.UNKNOWN_ID;
 		if (subj != null) {
 			subjID = valueStore.getId(subj);
@@ -391,15 +621,53 @@ class LmdbSailStore implements SailStore {
 
 		ArrayList<LmdbStatementIterator> perContextIterList = new ArrayList<>(contextIDList.size());
 
-		for (long contextID : contextIDList) {
-			RecordIterator records = tripleStore.getTriples(txn, subjID, predID, objID, contextID, explicit);
-			perContextIterList.add(new LmdbStatementIterator(records, valueStore));
+		try {
+			for (long contextID : contextIDList) {
+				RecordIterator records;
+				if (order == null) {
+					records = tripleStore.getTriples(txn, subjID, predID, objID, contextID, explicit);
+				} else {
+					records = tripleStore.getTriples(txn, subjID, predID, objID, contextID, explicit, order);
+					if (records == null) {
+						throw new SailException("Statement order " + order + " is not supported for pattern");
+					}
+				}
+				perContextIterList.add(new LmdbStatementIterator(records, valueStore));
+			}
+		} catch (Throwable t) {
+			for (LmdbStatementIterator iter : perContextIterList) {
+				iter.close();
+			}
+			throw t;
 		}
 
 		if (perContextIterList.size() == 1) {
 			return perContextIterList.get(0);
-		} else {
+		} else if (order == null || perContextIterList.isEmpty()) {
 			return new UnionIteration<>(perContextIterList);
+		} else {
+			// merge the sorted per-context iterators to retain the requested order
+			Comparator<Statement> cmp = order.getComparator(valueIdComparator);
+			CloseableIteration<? extends Statement> result = perContextIterList.get(0);
+			for (int i = 1; i < perContextIterList.size(); i++) {
+				result = DualUnionIteration.getWildcardInstance(cmp, result, perContextIterList.get(i));
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Returns the ID of the given value that determines its position in the sort order of the triple indexes.
+	 */
+	private long sortKey(Value value) {
+		if (value == null) {
+			// the null context
+			return 0L;
+		}
+		try {
+			return valueStore.getId(value);
+		} catch (IOException e) {
+			throw new SailException(e);
 		}
 	}
 
@@ -432,13 +700,23 @@ class LmdbSailStore implements SailStore {
 
 		private final boolean explicit;
 
+		/**
+		 * Subject, predicate, object and context of the statements that have been approved, but whose values have not
+		 * been stored yet.
+		 */
+		private Value[] pending;
+
+		private int pendingCount;
+
 		public LmdbSailSink(boolean explicit) throws SailException {
 			this.explicit = explicit;
 		}
 
 		@Override
 		public void close() {
-			// do nothing
+			// statements that have not been flushed are discarded
+			pending = null;
+			pendingCount = 0;
 		}
 
 		@Override
@@ -470,6 +748,7 @@ class LmdbSailStore implements SailStore {
 
 		@Override
 		public void flush() throws SailException {
+			addPendingStatements();
 			sinkStoreAccessLock.lock();
 			boolean activeTxn = storeTxnStarted.get();
 			try {
@@ -504,6 +783,8 @@ class LmdbSailStore implements SailStore {
 						valueStore.commit();
 						// do not set flag to false until _after_ commit is successfully completed.
 						storeTxnStarted.set(false);
+						committedTxns.incrementAndGet();
+						logWriteStatistics();
 					}
 				}
 			} catch (IOException e) {
@@ -567,44 +848,45 @@ class LmdbSailStore implements SailStore {
 
 		@Override
 		public void approve(Resource subj, IRI pred, Value obj, Resource ctx) throws SailException {
-			addStatement(subj, pred, obj, explicit, ctx);
+			if (pending == null) {
+				pending = new Value[4 * STATEMENT_BATCH_SIZE];
+			}
+			int index = 4 * pendingCount++;
+			pending[index] = subj;
+			pending[index + 1] = pred;
+			pending[index + 2] = obj;
+			pending[index + 3] = ctx;
+			if (pendingCount == STATEMENT_BATCH_SIZE) {
+				addPendingStatements();
+			}
 		}
 
 		@Override
 		public void approveAll(Set<Statement> approved, Set<Resource> approvedContexts) {
+			addPendingStatements();
 			Statement last = null;
 
 			sinkStoreAccessLock.lock();
 			try {
 				startTransaction(true);
 
+				if (approved.size() >= bulkLoadThreshold) {
+					addAll(approved);
+					return;
+				}
+
+				Value[] batch = new Value[4 * Math.min(approved.size(), STATEMENT_BATCH_SIZE)];
+				int count = 0;
 				for (Statement statement : approved) {
 					last = statement;
-					Resource subj = statement.getSubject();
-					IRI pred = statement.getPredicate();
-					Value obj = statement.getObject();
-					Resource context = statement.getContext();
-
-					AddQuadOperation q = new AddQuadOperation();
-					q.s = valueStore.storeValue(subj);
-					q.p = valueStore.storeValue(pred);
-					q.o = valueStore.storeValue(obj);
-					q.c = context == null ? 0 : valueStore.storeValue(context);
-					q.context = context;
-					q.explicit = explicit;
-
-					if (multiThreadingActive) {
-						while (!opQueue.add(q)) {
-							if (tripleStoreException != null) {
-								throw wrapTripleStoreException();
-							}
-							Thread.onSpinWait();
-						}
-
-					} else {
-						q.execute();
+					toValues(statement, batch, count++);
+					if (count == STATEMENT_BATCH_SIZE) {
+						addStatements(batch, count);
+						count = 0;
 					}
-
+				}
+				if (count > 0) {
+					addStatements(batch, count);
 				}
 			} catch (IOException | RuntimeException e) {
 				rollback();
@@ -625,6 +907,167 @@ class LmdbSailStore implements SailStore {
 			}
 		}
 
+		/**
+		 * Adds a large number of statements by sorting their quads first, see
+		 * {@link TripleStore#storeTriples(QuadSorter, boolean, java.util.function.Consumer)}.
+		 */
+		private void addAll(Set<Statement> statements) throws IOException {
+			try (QuadSorter quads = tripleStore.createQuadSorter()) {
+				Value[] batch = new Value[4 * STATEMENT_BATCH_SIZE];
+				int count = 0;
+				Iterator<Statement> it = statements.iterator();
+				while (it.hasNext()) {
+					toValues(it.next(), batch, count++);
+					if (count == STATEMENT_BATCH_SIZE || !it.hasNext()) {
+						long[] ids = storeValues(batch, count);
+						for (int i = 0; i < count * 4; i += 4) {
+							quads.add(Arrays.copyOfRange(ids, i, i + 4));
+						}
+						count = 0;
+					}
+				}
+
+				if (multiThreadingActive) {
+					boolean[] failed = new boolean[1];
+					StatefulOperation addOp = new StatefulOperation() {
+						@Override
+						public void execute() throws Exception {
+							try {
+								storeQuads(quads);
+							} catch (Throwable t) {
+								failed[0] = true;
+								throw t;
+							} finally {
+								finished = true;
+							}
+						}
+					};
+
+					while (!opQueue.add(addOp)) {
+						if (tripleStoreException != null) {
+							throw wrapTripleStoreException();
+						}
+						Thread.onSpinWait();
+					}
+					while (!addOp.finished) {
+						if (tripleStoreException != null) {
+							throw wrapTripleStoreException();
+						}
+						Thread.yield();
+					}
+					if (failed[0]) {
+						// the executor may not have published the exception yet
+						while (tripleStoreException == null) {
+							Thread.yield();
+						}
+						throw wrapTripleStoreException();
+					}
+				} else {
+					storeQuads(quads);
+				}
+			}
+		}
+
+		private void storeQuads(QuadSorter quads) throws IOException {
+			long start = System.nanoTime();
+			tripleStore.storeTriples(quads, explicit, quad -> {
+				if (!unusedIds.isEmpty()) {
+					// these ids are used again
+					for (long id : quad) {
+						unusedIds.remove(id);
+					}
+				}
+			});
+			tripleStoreStatistics.record(quads.size(), System.nanoTime() - start);
+		}
+
+		private void toValues(Statement statement, Value[] values, int index) {
+			values[4 * index] = statement.getSubject();
+			values[4 * index + 1] = statement.getPredicate();
+			values[4 * index + 2] = statement.getObject();
+			values[4 * index + 3] = statement.getContext();
+		}
+
+		/**
+		 * Stores the distinct values of a batch of statements in the {@link ValueStore}.
+		 *
+		 * @param values subject, predicate, object and context of each statement, where the context may be
+		 *               <code>null</code>
+		 * @param count  the number of statements
+		 * @return the IDs of the values
+		 */
+		private long[] storeValues(Value[] values, int count) throws IOException {
+			long start = System.nanoTime();
+			Map<Value, Integer> positions = new HashMap<>();
+			List<Value> distinct = new ArrayList<>();
+			int[] valuePositions = new int[count * 4];
+			for (int i = 0; i < valuePositions.length; i++) {
+				Value value = values[i];
+				if (value == null) {
+					valuePositions[i] = -1;
+				} else {
+					Integer position = positions.putIfAbsent(value, distinct.size());
+					if (position == null) {
+						position = distinct.size();
+						distinct.add(value);
+					}
+					valuePositions[i] = position;
+				}
+			}
+
+			long[] distinctIds = valueStore.storeValues(distinct.toArray(new Value[0]));
+			long[] ids = new long[valuePositions.length];
+			for (int i = 0; i < ids.length; i++) {
+				// the default context has the ID 0
+				ids[i] = valuePositions[i] < 0 ? 0 : distinctIds[valuePositions[i]];
+			}
+			valueStoreStatistics.record(distinct.size(), System.nanoTime() - start);
+			return ids;
+		}
+
+		/**
+		 * Stores the values of a batch of statements and adds the statements to the {@link TripleStore}.
+		 */
+		private void addStatements(Value[] values, int count) throws IOException {
+			AddQuadsOperation op = new AddQuadsOperation(storeValues(values, count), count, explicit);
+			if (multiThreadingActive) {
+				while (!opQueue.add(op)) {
+					if (tripleStoreException != null) {
+						throw wrapTripleStoreException();
+					}
+					Thread.onSpinWait();
+				}
+			} else {
+				op.execute();
+			}
+		}
+
+		/**
+		 * Adds the statements that have been approved one by one, but not yet added.
+		 */
+		private void addPendingStatements() throws SailException {
+			if (pendingCount == 0) {
+				return;
+			}
+			int count = pendingCount;
+			pendingCount = 0;
+			sinkStoreAccessLock.lock();
+			try {
+				startTransaction(true);
+				addStatements(pending, count);
+			} catch (IOException e) {
+				rollback();
+				throw new SailException(e);
+			} catch (RuntimeException e) {
+				rollback();
+				logger.error("Encountered an unexpected problem while trying to add a statement", e);
+				throw e;
+			} finally {
+				Arrays.fill(pending, 0, 4 * count, null);
+				sinkStoreAccessLock.unlock();
+			}
+		}
+
 		@Override
 		public void deprecate(Statement statement) throws SailException {
 			removeStatements(statement.getSubject(), statement.getPredicate(), statement.getObject(), explicit,
@@ -723,43 +1166,6 @@ class LmdbSailStore implements SailStore {
 			}
 		}
 
-		private void addStatement(Resource subj, IRI pred, Value obj, boolean explicit, Resource context)
-				throws SailException {
-			sinkStoreAccessLock.lock();
-			try {
-				startTransaction(true);
-
-				AddQuadOperation q = new AddQuadOperation();
-				q.s = valueStore.storeValue(subj);
-				q.p = valueStore.storeValue(pred);
-				q.o = valueStore.storeValue(obj);
-				q.c = context == null ? 0 : valueStore.storeValue(context);
-				q.context = context;
-				q.explicit = explicit;
-
-				if (multiThreadingActive) {
-					while (!opQueue.add(q)) {
-						if (tripleStoreException != null) {
-							throw wrapTripleStoreException();
-						} else {
-							Thread.onSpinWait();
-						}
-					}
-				} else {
-					q.execute();
-				}
-			} catch (IOException e) {
-				rollback();
-				throw new SailException(e);
-			} catch (RuntimeException e) {
-				rollback();
-				logger.error("Encountered an unexpected problem while trying to add a statement", e);
-				throw e;
-			} finally {
-				sinkStoreAccessLock.unlock();
-			}
-		}
-
 		private long removeStatements(long subj, long pred, long obj, boolean explicit, long[] contexts)
 				throws IOException {
 			long[] removeCount = { 0 };
@@ -780,6 +1186,8 @@ class LmdbSailStore implements SailStore {
 				throws SailException {
 			Objects.requireNonNull(contexts,
 					"contexts argument may not be null; either the value should be cast to Resource or an empty array should be supplied");
+			// removals have to see the statements that have been approved before
+			addPendingStatements();
 
 			sinkStoreAccessLock.lock();
 			try {
@@ -943,17 +1351,26 @@ class LmdbSailStore implements SailStore {
 		@Override
 		public CloseableIteration<? extends Statement> getStatements(StatementOrder statementOrder, Resource subj,
 				IRI pred, Value obj, Resource... contexts) throws SailException {
-			throw new UnsupportedOperationException("Not implemented yet");
+			try {
+				return createStatementIterator(txn, statementOrder, subj, pred, obj, explicit, contexts);
+			} catch (IOException e) {
+				throw new SailException("Unable to get statements", e);
+			}
 		}
 
 		@Override
 		public Set<StatementOrder> getSupportedOrders(Resource subj, IRI pred, Value obj, Resource... contexts) {
-			return Set.of();
+			// only the bound or unbound state of the components is relevant for the choice of an index
+			long subjID = subj == null ? LmdbValue.UNKNOWN_ID : 0;
+			long predID = pred == null ? LmdbValue.UNKNOWN_ID : 0;
+			long objID = obj == null ? LmdbValue.UNKNOWN_ID : 0;
+			long contextID = contexts.length == 0 ? LmdbValue.UNKNOWN_ID : 0;
+			return tripleStore.getSupportedOrders(subjID, predID, objID, contextID);
 		}
 
 		@Override
 		public Comparator<Value> getComparator() {
-			return null;
+			return valueIdComparator;
 		}
 	}
 }
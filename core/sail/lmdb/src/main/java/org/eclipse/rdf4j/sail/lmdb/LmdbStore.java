@@ -391,6 +391,56 @@ public class LmdbStore extends AbstractNotifyingSail implements FederatedService
 		return disabledIsolationLockManager.isActiveLock();
 	}
 
+	/**
+	 * Changes the triple indexes of this store while it remains available. New indexes are built in the background
+	 * from the existing statements, while queries use the existing indexes and updates are applied to both the
+	 * existing and the new indexes. Once all statements have been copied, the store switches to the new set of indexes.
+	 * The databases of removed indexes are dropped when the store is shut down. To apply a change of the configured
+	 * indexes in the same way when the store is initialized, see {@link LmdbStoreConfig#setOnlineReindex(boolean)}.
+	 *
+	 * @param tripleIndexes The new triple indexes, e.g. <var>spoc,posc</var>.
+	 * @throws SailException If the indexes are invalid or already being changed.
+	 */
+	public void reindex(String tripleIndexes) throws SailException {
+		if (!isInitialized()) {
+			throw new IllegalStateException("sail has not been initialized");
+		}
+
+		backingStore.reindex(tripleIndexes);
+		config.setTripleIndexes(tripleIndexes);
+	}
+
+	/**
+	 * Checks whether the triple indexes are being changed, see {@link #reindex(String)}.
+	 */
+	public boolean isReindexing() {
+		LmdbSailStore backingStore = this.backingStore;
+		return backingStore != null && backingStore.isReindexing();
+	}
+
+	/**
+	 * Gets the estimated fraction of the statements that have been copied to the new indexes by the running or last
+	 * change of the triple indexes.
+	 *
+	 * @return A value between <var>0</var> and <var>1</var>.
+	 */
+	public double getReindexProgress() {
+		LmdbSailStore backingStore = this.backingStore;
+		return backingStore == null ? 1.0 : backingStore.getReindexProgress();
+	}
+
+	/**
+	 * Waits until the running change of the triple indexes has finished.
+	 *
+	 * @throws SailException If building the new indexes failed.
+	 */
+	public void awaitReindex() throws SailException, InterruptedException {
+		LmdbSailStore backingStore = this.backingStore;
+		if (backingStore != null) {
+			backingStore.awaitReindex();
+		}
+	}
+
 	SailStore getSailStore() {
 		return store;
 	}
@@ -95,6 +95,9 @@ public class LmdbStoreConnection extends SailSourceConnection {
 			}
 		}
 
+		// in group commit mode the changes are not durable until a shared sync has completed
+		lmdbStore.getBackingStore().awaitDurable();
+
 		lmdbStore.notifySailChanged(sailChangedEvent);
 
 		// create a fresh event object.
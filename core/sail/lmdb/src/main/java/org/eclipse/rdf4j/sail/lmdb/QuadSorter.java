@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.eclipse.rdf4j.sail.SailException;
+
+/**
+ * Sorts quads in the key order of a {@link TripleStore} index. The quads are collected in memory and, if they exceed
+ * the run size, written to temporary files in sorted runs that are merged while iterating. Duplicate quads are only
+ * returned once.
+ */
+class QuadSorter implements Closeable {
+
+	/**
+	 * The default number of quads that are sorted in memory.
+	 */
+	static final int RUN_SIZE = 1 << 20;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final File dir;
+
+	private final int[] fieldOrder;
+
+	private final Comparator<long[]> comparator;
+
+	private final int runSize;
+
+	private long[][] buffer;
+
+	private int count;
+
+	private boolean sorted;
+
+	private long size;
+
+	private final List<File> runs = new ArrayList<>();
+
+	/**
+	 * @param dir        the directory for temporary files
+	 * @param fieldOrder the positions of the quad components in the order in which they are compared
+	 * @param runSize    the maximum number of quads that are sorted in memory
+	 */
+	QuadSorter(File dir, int[] fieldOrder, int runSize) {
+		this.dir = dir;
+		this.fieldOrder = fieldOrder;
+		this.runSize = runSize;
+		this.buffer = new long[Math.min(runSize, 1024)][];
+		this.comparator = (q1, q2) -> {
+			for (int field : fieldOrder) {
+				int diff = Long.compare(q1[field], q2[field]);
+				if (diff != 0) {
+					return diff;
+				}
+			}
+			return 0;
+		};
+	}
+
+	/**
+	 * Checks whether the quads are sorted in the given order of their components.
+	 */
+	boolean isSortedBy(int[] fieldOrder) {
+		return Arrays.equals(this.fieldOrder, fieldOrder);
+	}
+
+	/**
+	 * Adds a quad, which must not be modified afterwards.
+	 */
+	void add(long[] quad) throws IOException {
+		if (count == runSize) {
+			writeRun();
+		}
+		if (count == buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.min(runSize, buffer.length * 2));
+		}
+		buffer[count++] = quad;
+		sorted = false;
+		size++;
+	}
+
+	/**
+	 * @return the number of quads that have been added, including duplicates
+	 */
+	long size() {
+		return size;
+	}
+
+	private void sortBuffer() {
+		if (!sorted) {
+			Arrays.sort(buffer, 0, count, comparator);
+			sorted = true;
+		}
+	}
+
+	private void writeRun() throws IOException {
+		sortBuffer();
+		File run = File.createTempFile("quads", ".run", dir);
+		runs.add(run);
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(run), BUFFER_SIZE))) {
+			for (int i = 0; i < count; i++) {
+				long[] quad = buffer[i];
+				for (long id : quad) {
+					out.writeLong(id);
+				}
+			}
+		}
+		Arrays.fill(buffer, 0, count, null);
+		count = 0;
+	}
+
+	/**
+	 * Returns the distinct quads in sorted order. The quads may be iterated multiple times, but no more quads may be
+	 * added while iterating.
+	 */
+	RecordIterator iterator() throws IOException {
+		sortBuffer();
+		List<Run> sources = new ArrayList<>(runs.size() + 1);
+		try {
+			for (File run : runs) {
+				sources.add(new FileRun(run));
+			}
+		} catch (IOException e) {
+			for (Run source : sources) {
+				source.close();
+			}
+			throw e;
+		}
+		sources.add(new BufferRun(buffer, count));
+		return new MergeIterator(sources, comparator);
+	}
+
+	@Override
+	public void close() {
+		buffer = null;
+		count = 0;
+		for (File run : runs) {
+			run.delete();
+		}
+		runs.clear();
+	}
+
+	private abstract static class Run implements Closeable {
+
+		long[] current;
+
+		/**
+		 * Advances to the next quad, which is <code>null</code> if the run is exhausted.
+		 */
+		abstract void advance() throws IOException;
+
+		@Override
+		public void close() {
+			// nothing to close by default
+		}
+	}
+
+	private static final class BufferRun extends Run {
+
+		private final long[][] quads;
+
+		private final int count;
+
+		private int next;
+
+		BufferRun(long[][] quads, int count) {
+			this.quads = quads;
+			this.count = count;
+		}
+
+		@Override
+		void advance() {
+			current = next < count ? quads[next++] : null;
+		}
+	}
+
+	private static final class FileRun extends Run {
+
+		private final DataInputStream in;
+
+		FileRun(File file) throws IOException {
+			this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+		}
+
+		@Override
+		void advance() throws IOException {
+			try {
+				long[] quad = new long[4];
+				for (int i = 0; i < quad.length; i++) {
+					quad[i] = in.readLong();
+				}
+				current = quad;
+			} catch (EOFException e) {
+				current = null;
+			}
+		}
+
+		@Override
+		public void close() {
+			try {
+				in.close();
+			} catch (IOException e) {
+				throw new SailException(e);
+			}
+		}
+	}
+
+	private static final class MergeIterator implements RecordIterator {
+
+		private final List<Run> sources;
+
+		private final Comparator<long[]> comparator;
+
+		private final PriorityQueue<Run> queue;
+
+		private long[] last;
+
+		MergeIterator(List<Run> sources, Comparator<long[]> comparator) throws IOException {
+			this.sources = sources;
+			this.comparator = comparator;
+			this.queue = new PriorityQueue<>(Math.max(1, sources.size()),
+					(r1, r2) -> comparator.compare(r1.current, r2.current));
+			try {
+				for (Run source : sources) {
+					source.advance();
+					if (source.current != null) {
+						queue.add(source);
+					}
+				}
+			} catch (IOException e) {
+				close();
+				throw e;
+			}
+		}
+
+		@Override
+		public long[] next() {
+			try {
+				while (!queue.isEmpty()) {
+					Run run = queue.poll();
+					long[] quad = run.current;
+					run.advance();
+					if (run.current != null) {
+						queue.add(run);
+					}
+					if (last == null || comparator.compare(last, quad) != 0) {
+						last = quad;
+						return quad;
+					}
+				}
+				return null;
+			} catch (IOException e) {
+				throw new SailException(e);
+			}
+		}
+
+		@Override
+		public void close() {
+			queue.clear();
+			for (Run source : sources) {
+				source.close();
+			}
+		}
+	}
+}
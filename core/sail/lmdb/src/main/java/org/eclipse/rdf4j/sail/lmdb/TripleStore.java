@@ -18,6 +18,7 @@ import static org.eclipse.rdf4j.sail.lmdb.Varint.readListUnsigned;
 import static org.eclipse.rdf4j.sail.lmdb.Varint.writeUnsigned;
 import static org.lwjgl.system.MemoryStack.stackPush;
 import static org.lwjgl.system.MemoryUtil.NULL;
+import static org.lwjgl.util.lmdb.LMDB.MDB_APPEND;
 import static org.lwjgl.util.lmdb.LMDB.MDB_CREATE;
 import static org.lwjgl.util.lmdb.LMDB.MDB_FIRST;
 import static org.lwjgl.util.lmdb.LMDB.MDB_KEYEXIST;
@@ -46,6 +47,7 @@ import static org.lwjgl.util.lmdb.LMDB.mdb_env_open;
 import static org.lwjgl.util.lmdb.LMDB.mdb_env_set_mapsize;
 import static org.lwjgl.util.lmdb.LMDB.mdb_env_set_maxdbs;
 import static org.lwjgl.util.lmdb.LMDB.mdb_env_set_maxreaders;
+import static org.lwjgl.util.lmdb.LMDB.mdb_env_sync;
 import static org.lwjgl.util.lmdb.LMDB.mdb_get;
 import static org.lwjgl.util.lmdb.LMDB.mdb_put;
 import static org.lwjgl.util.lmdb.LMDB.mdb_stat;
@@ -59,6 +61,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
@@ -66,7 +69,9 @@ import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -75,9 +80,11 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.Consumer;
 
+import org.eclipse.rdf4j.common.order.StatementOrder;
 import org.eclipse.rdf4j.sail.SailException;
 import org.eclipse.rdf4j.sail.lmdb.TxnManager.Mode;
 import org.eclipse.rdf4j.sail.lmdb.TxnManager.Txn;
@@ -137,6 +144,15 @@ class TripleStore implements Closeable {
 	 * </ul>
 	 */
 	private static final int SCHEME_VERSION = 1;
+	/**
+	 * The maximum number of databases in the environment: the contexts and statistics databases and two databases per
+	 * triple index, including the indexes that are built next to the current ones by an online reindex.
+	 */
+	private static final int MAX_DBS = 32;
+	/**
+	 * The number of quads that an online reindex copies to the new indexes in a single write transaction.
+	 */
+	private static final int REINDEX_CHUNK_SIZE = 16 * 1024;
 	/*-----------*
 	 * Variables *
 	 *-----------*/
@@ -150,9 +166,30 @@ class TripleStore implements Closeable {
 	 */
 	private final Properties properties;
 	/**
-	 * The list of triple indexes that are used to store and retrieve triples.
+	 * The list of triple indexes that are used to store and retrieve triples. Once the store has been initialized, the
+	 * list is not modified anymore, but replaced as a whole when the set of indexes is changed by an online reindex.
+	 */
+	private volatile List<TripleIndex> indexes = new ArrayList<>();
+	/**
+	 * New indexes that are being built by an online reindex. They receive all updates, but are not used for reading
+	 * triples until all existing triples have been copied to them.
 	 */
-	private final List<TripleIndex> indexes = new ArrayList<>();
+	private volatile List<TripleIndex> buildingIndexes = Collections.emptyList();
+	/**
+	 * Indexes that have been removed by an online reindex. Read transactions may still use them, so their databases
+	 * are dropped when the store is closed.
+	 */
+	private final List<TripleIndex> retiredIndexes = new ArrayList<>();
+	/**
+	 * Held by the write transactions of the store and by the write transactions of an online reindex, which allows the
+	 * reindex to resize the map and to switch to the new set of indexes while no write transaction is active. Threads
+	 * that wait for it can be interrupted, and an online reindex only holds it for a single chunk of quads.
+	 */
+	private final Semaphore writePermit = new Semaphore(1);
+	/**
+	 * The running or last online reindex, or <var>null</var>.
+	 */
+	private volatile IndexBuild indexBuild;
 
 	private long env;
 	private int contextsDbi;
@@ -166,6 +203,8 @@ class TripleStore implements Closeable {
 
 	private TxnRecordCache recordCache = null;
 
+	private final CardinalityStatistics statistics;
+
 	static final Comparator<ByteBuffer> COMPARATOR = new Comparator<ByteBuffer>() {
 		@Override
 		public int compare(ByteBuffer b1, ByteBuffer b2) {
@@ -189,7 +228,8 @@ class TripleStore implements Closeable {
 
 	TripleStore(File dir, LmdbStoreConfig config) throws IOException, SailException {
 		this.dir = dir;
-		this.forceSync = config.getForceSync();
+		// with group commit the environment is synced by the LmdbSailStore for several commits at once
+		this.forceSync = config.getForceSync() && config.getGroupCommitWindow() < 0;
 		this.autoGrow = config.getAutoGrow();
 
 		// create directory if it not exists
@@ -201,7 +241,7 @@ class TripleStore implements Closeable {
 			env = pp.get(0);
 		}
 
-		E(mdb_env_set_maxdbs(env, 12));
+		E(mdb_env_set_maxdbs(env, MAX_DBS));
 		E(mdb_env_set_maxreaders(env, 256));
 
 		// Open environment
@@ -224,6 +264,7 @@ class TripleStore implements Closeable {
 
 		File propFile = new File(this.dir, PROPERTIES_FILE);
 		String indexSpecStr = config.getTripleIndexes();
+		String reindexSpecStr = null;
 		if (!propFile.exists()) {
 			// newly created lmdb store
 			properties = new Properties();
@@ -254,7 +295,13 @@ class TripleStore implements Closeable {
 				indexSpecStr = properties.getProperty(INDEXES_KEY);
 			} else if (!reqIndexSpecs.equals(indexSpecs)) {
 				// Set of indexes needs to be changed
-				reindex(indexSpecs, reqIndexSpecs);
+				if (config.getOnlineReindex()) {
+					// keep using the existing indexes until the new ones have been built
+					reindexSpecStr = indexSpecStr;
+					indexSpecStr = properties.getProperty(INDEXES_KEY);
+				} else {
+					reindex(indexSpecs, reqIndexSpecs);
+				}
 			}
 		}
 
@@ -265,6 +312,47 @@ class TripleStore implements Closeable {
 			properties.setProperty(INDEXES_KEY, indexSpecStr);
 			storeProperties(propFile);
 		}
+
+		statistics = new CardinalityStatistics(env);
+		if (statistics.isEmpty()) {
+			// the store has been created by a version without statistics or it is empty
+			initStatistics();
+		}
+
+		if (reindexSpecStr != null) {
+			startReindex(reindexSpecStr);
+		}
+	}
+
+	private void initStatistics() throws IOException {
+		TripleIndex mainIndex = indexes.get(0);
+		transaction(env, (stack, txn) -> {
+			MDBVal keyVal = MDBVal.malloc(stack);
+			MDBVal dataVal = MDBVal.malloc(stack);
+			ByteBuffer keyBuf = stack.malloc(MAX_KEY_LENGTH);
+			for (boolean explicit : new boolean[] { true, false }) {
+				try (RecordIterator it = new LmdbRecordIterator(pool, mainIndex, false, -1, -1, -1, -1, explicit,
+						txnManager.createTxn(txn))) {
+					long[] quad;
+					while ((quad = it.next()) != null) {
+						if (!explicit) {
+							// a quad that is both explicit and inferred is counted once, as when it is stored
+							keyBuf.clear();
+							mainIndex.toKey(keyBuf, quad[SUBJ_IDX], quad[PRED_IDX], quad[OBJ_IDX], quad[CONTEXT_IDX]);
+							keyBuf.flip();
+							keyVal.mv_data(keyBuf);
+							if (mdb_get(txn, mainIndex.getDB(true), keyVal, dataVal) == MDB_SUCCESS) {
+								continue;
+							}
+						}
+						statistics.add(quad[SUBJ_IDX], quad[PRED_IDX], quad[OBJ_IDX]);
+					}
+				}
+			}
+			statistics.persist(stack, txn);
+			return null;
+		});
+		statistics.publish();
 	}
 
 	private void checkVersion() throws SailException {
@@ -387,6 +475,8 @@ class TripleStore implements Closeable {
 						logger.debug("Initializing new index '{}'...", fieldSeq);
 
 						TripleIndex addedIndex = new TripleIndex(fieldSeq);
+						// drop the data of an online reindex that has been interrupted
+						E(mdb_drop(txn, addedIndex.getDB(explicit), false));
 						RecordIterator[] sourceIter = { null };
 						try {
 							sourceIter[0] = new LmdbRecordIterator(pool, sourceIndex, false, -1, -1, -1, -1,
@@ -448,12 +538,157 @@ class TripleStore implements Closeable {
 		}
 	}
 
+	/**
+	 * Starts changing the set of triple indexes without making the triple store unavailable. New indexes are built in
+	 * the background from the triples of the first index, while triples can be read using the existing indexes and
+	 * all updates are applied to both the existing and the new indexes. Once the new indexes are complete, the triple
+	 * store switches to the new set of indexes. The databases of removed indexes are dropped when the triple store is
+	 * closed.
+	 * <p>
+	 * This method waits until the active write transaction has ended and must therefore not be called by the thread
+	 * that started it.
+	 *
+	 * @param indexSpecStr The new set of indexes, e.g. <var>spoc,posc</var>.
+	 * @throws SailException          If the index specification is invalid or if the indexes are already being
+	 *                                changed.
+	 * @throws InterruptedIOException If the thread has been interrupted while waiting for the active write
+	 *                                transaction.
+	 */
+	public void startReindex(String indexSpecStr) throws IOException, SailException {
+		Set<String> indexSpecs = parseIndexSpecList(indexSpecStr);
+		if (indexSpecs.isEmpty()) {
+			throw new SailException("No triple indexes specified");
+		}
+
+		acquireWritePermit();
+		try {
+			if (isReindexing()) {
+				throw new SailException("Triple indexes are already being changed");
+			}
+
+			Set<String> currentIndexSpecs = new HashSet<>();
+			for (TripleIndex index : indexes) {
+				currentIndexSpecs.add(index.toString());
+			}
+			Set<String> addedIndexSpecs = new HashSet<>(indexSpecs);
+			addedIndexSpecs.removeAll(currentIndexSpecs);
+			for (TripleIndex index : retiredIndexes) {
+				if (addedIndexSpecs.contains(index.toString())) {
+					throw new SailException("Index '" + index
+							+ "' has been removed and can not be added again before the store has been restarted");
+				}
+			}
+
+			List<TripleIndex> addedIndexes = new ArrayList<>();
+			for (String fieldSeq : addedIndexSpecs) {
+				logger.debug("Initializing new index '{}'...", fieldSeq);
+				addedIndexes.add(new TripleIndex(fieldSeq));
+			}
+			if (!addedIndexes.isEmpty()) {
+				transaction(env, (stack, txn) -> {
+					// drop the data of an online reindex that has been interrupted
+					for (TripleIndex index : addedIndexes) {
+						index.clear(txn);
+					}
+					return null;
+				});
+			}
+
+			IndexBuild build = new IndexBuild(indexSpecStr, indexSpecs, addedIndexes);
+			indexBuild = build;
+			if (addedIndexes.isEmpty()) {
+				// indexes are only removed or reordered
+				build.switchIndexes();
+			} else {
+				logger.info("Changing triple indexes to '{}', building index(es) {} in the background", indexSpecStr,
+						addedIndexSpecs);
+				buildingIndexes = addedIndexes;
+				build.thread.start();
+			}
+		} finally {
+			writePermit.release();
+		}
+	}
+
+	/**
+	 * Checks whether the triple indexes are being changed by {@link #startReindex(String)}.
+	 */
+	public boolean isReindexing() {
+		IndexBuild build = indexBuild;
+		return build != null && build.thread.isAlive();
+	}
+
+	/**
+	 * Gets the progress of the running or last change of the triple indexes.
+	 *
+	 * @return The estimated fraction of the triples that have been copied to the new indexes, between <var>0</var> and
+	 *         <var>1</var>.
+	 */
+	public double getReindexProgress() {
+		IndexBuild build = indexBuild;
+		return build == null ? 1.0 : build.getProgress();
+	}
+
+	/**
+	 * Waits until the running change of the triple indexes has finished.
+	 *
+	 * @throws IOException If building the new indexes failed.
+	 */
+	public void awaitReindex() throws IOException, InterruptedException {
+		IndexBuild build = indexBuild;
+		if (build != null) {
+			build.thread.join();
+			if (build.failure != null) {
+				throw new IOException("Failed to change triple indexes to '" + build.indexSpecStr + "'",
+						build.failure);
+			}
+		}
+	}
+
+	/**
+	 * Stops a running change of the triple indexes and waits until the new indexes are not modified anymore.
+	 */
+	private void cancelReindex() {
+		IndexBuild build = indexBuild;
+		if (build != null && build.thread.isAlive()) {
+			build.cancelled = true;
+			build.thread.interrupt();
+
+			boolean interrupted = false;
+			while (build.thread.isAlive()) {
+				try {
+					build.thread.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
 	@Override
 	public void close() throws IOException {
 		if (env != 0) {
 			endTransaction(false);
+			cancelReindex();
 
 			List<Throwable> caughtExceptions = new ArrayList<>();
+			if (!retiredIndexes.isEmpty()) {
+				try {
+					transaction(env, (stack, txn) -> {
+						for (TripleIndex index : retiredIndexes) {
+							index.destroy(txn);
+							logger.debug("Deleted database(s) for removed {} index", index);
+						}
+						return null;
+					});
+				} catch (Throwable e) {
+					logger.warn("Failed to delete database(s) of removed indexes");
+					caughtExceptions.add(e);
+				}
+			}
 			for (TripleIndex index : indexes) {
 				try {
 					index.close();
@@ -507,6 +742,46 @@ class TripleStore implements Closeable {
 		return getTriplesUsingIndex(txn, subj, pred, obj, context, explicit, index, doRangeSearch);
 	}
 
+	/**
+	 * Returns the triples matching the given pattern sorted by the IDs of the component selected by
+	 * <code>order</code>. The records are read directly from an index that delivers them in the requested order.
+	 *
+	 * @return An iterator over the matching triples or <tt>null</tt> if no index is able to deliver the requested
+	 *         order for the given pattern
+	 * @throws IOException
+	 */
+	public RecordIterator getTriples(Txn txn, long subj, long pred, long obj, long context, boolean explicit,
+			StatementOrder order) throws IOException {
+		TripleIndex index = getBestIndex(subj, pred, obj, context, order);
+		if (index == null) {
+			return null;
+		}
+		boolean doRangeSearch = index.getPatternScore(subj, pred, obj, context) > 0;
+		return getTriplesUsingIndex(txn, subj, pred, obj, context, explicit, index, doRangeSearch);
+	}
+
+	/**
+	 * Determines the statement orders that can be delivered by one of the existing indexes for the given pattern.
+	 *
+	 * @param subj    The subject for the pattern, or <tt>-1</tt> for a wildcard.
+	 * @param pred    The predicate for the pattern, or <tt>-1</tt> for a wildcard.
+	 * @param obj     The object for the pattern, or <tt>-1</tt> for a wildcard.
+	 * @param context The context for the pattern, or <tt>-1</tt> for a wildcard.
+	 * @return The set of supported statement orders
+	 */
+	public Set<StatementOrder> getSupportedOrders(long subj, long pred, long obj, long context) {
+		EnumSet<StatementOrder> supportedOrders = EnumSet.noneOf(StatementOrder.class);
+		for (StatementOrder order : StatementOrder.values()) {
+			for (TripleIndex index : indexes) {
+				if (index.isSortedBy(order, subj, pred, obj, context)) {
+					supportedOrders.add(order);
+					break;
+				}
+			}
+		}
+		return supportedOrders;
+	}
+
 	private RecordIterator getTriplesUsingIndex(Txn txn, long subj, long pred, long obj, long context,
 			boolean explicit, TripleIndex index, boolean rangeSearch) throws IOException {
 		return new LmdbRecordIterator(pool, index, rangeSearch, subj, pred, obj, context, explicit, txn);
@@ -656,6 +931,24 @@ class TripleStore implements Closeable {
 	}
 
 	protected double cardinality(long subj, long pred, long obj, long context) throws IOException {
+		if (pred >= 0 && context < 0) {
+			// use the statistics that are maintained for each predicate
+			return statistics.cardinality(subj, pred, obj);
+		} else if (subj < 0 && pred < 0 && obj < 0 && context >= 0) {
+			// the number of statements is maintained for each context
+			return txnManager.doWith((stack, txn) -> {
+				MDBVal keyData = MDBVal.calloc(stack);
+				ByteBuffer keyBuf = stack.malloc(1 + Long.BYTES);
+				Varint.writeUnsigned(keyBuf, context);
+				keyData.mv_data(keyBuf.flip());
+				MDBVal valueData = MDBVal.calloc(stack);
+				if (mdb_get(txn, contextsDbi, keyData, valueData) == MDB_SUCCESS) {
+					return (double) Varint.readUnsigned(valueData.mv_data());
+				}
+				return 0.0;
+			});
+		}
+
 		TripleIndex index = getBestIndex(subj, pred, obj, context);
 
 		int relevantParts = index.getPatternScore(subj, pred, obj, context);
@@ -835,6 +1128,29 @@ class TripleStore implements Closeable {
 		return bestIndex;
 	}
 
+	/**
+	 * Selects the index with the highest pattern score among those indexes that return the matching triples sorted
+	 * according to the given statement order.
+	 *
+	 * @return The best index or <tt>null</tt> if no index is sorted in the requested order for the given pattern
+	 */
+	protected TripleIndex getBestIndex(long subj, long pred, long obj, long context, StatementOrder order) {
+		int bestScore = -1;
+		TripleIndex bestIndex = null;
+
+		for (TripleIndex index : indexes) {
+			if (index.isSortedBy(order, subj, pred, obj, context)) {
+				int score = index.getPatternScore(subj, pred, obj, context);
+				if (score > bestScore) {
+					bestScore = score;
+					bestIndex = index;
+				}
+			}
+		}
+
+		return bestIndex;
+	}
+
 	private boolean requiresResize() {
 		if (autoGrow) {
 			return LmdbUtil.requiresResize(mapSize, pageSize, writeTxn, 0);
@@ -843,8 +1159,25 @@ class TripleStore implements Closeable {
 		}
 	}
 
+	/**
+	 * Gets the indexes that are updated by write transactions: the indexes that are used for reading, followed by the
+	 * indexes that are being built by an online reindex.
+	 */
+	private List<TripleIndex> getUpdatedIndexes() {
+		List<TripleIndex> indexes = this.indexes;
+		List<TripleIndex> buildingIndexes = this.buildingIndexes;
+		if (buildingIndexes.isEmpty()) {
+			return indexes;
+		}
+
+		List<TripleIndex> updatedIndexes = new ArrayList<>(indexes);
+		updatedIndexes.addAll(buildingIndexes);
+		return updatedIndexes;
+	}
+
 	public boolean storeTriple(long subj, long pred, long obj, long context, boolean explicit) throws IOException {
-		TripleIndex mainIndex = indexes.get(0);
+		List<TripleIndex> updatedIndexes = getUpdatedIndexes();
+		TripleIndex mainIndex = updatedIndexes.get(0);
 		boolean stAdded;
 		try (MemoryStack stack = MemoryStack.stackPush()) {
 			MDBVal keyVal = MDBVal.malloc(stack);
@@ -884,9 +1217,9 @@ class TripleStore implements Closeable {
 			}
 
 			if (stAdded) {
-				for (int i = 1; i < indexes.size(); i++) {
+				for (int i = 1; i < updatedIndexes.size(); i++) {
 
-					TripleIndex index = indexes.get(i);
+					TripleIndex index = updatedIndexes.get(i);
 					keyBuf.clear();
 					index.toKey(keyBuf, subj, pred, obj, context);
 					keyBuf.flip();
@@ -903,13 +1236,156 @@ class TripleStore implements Closeable {
 				if (stAdded) {
 					incrementContext(stack, context);
 				}
+				if (!foundImplicit) {
+					statistics.add(subj, pred, obj);
+				}
 			}
 		}
 
 		return stAdded;
 	}
 
+	/**
+	 * Creates a {@link QuadSorter} that sorts quads in the order of the main index, as required by
+	 * {@link #storeTriples(QuadSorter, boolean, Consumer)}.
+	 */
+	QuadSorter createQuadSorter() {
+		return new QuadSorter(dir, indexes.get(0).indexMap, QuadSorter.RUN_SIZE);
+	}
+
+	/**
+	 * Stores a large number of quads. In contrast to {@link #storeTriple(long, long, long, long, boolean)}, the quads
+	 * are written to each index in the order of its keys, which avoids splitting the same pages over and over again.
+	 * Quads are appended to indexes that were empty before.
+	 *
+	 * @param quads    the quads, sorted in the order of the main index
+	 * @param explicit whether the quads are explicit or inferred
+	 * @param handler  receives every distinct quad
+	 * @return the number of quads that have been added
+	 */
+	long storeTriples(QuadSorter quads, boolean explicit, Consumer<long[]> handler) throws IOException {
+		List<TripleIndex> updatedIndexes = getUpdatedIndexes();
+		TripleIndex mainIndex = updatedIndexes.get(0);
+		List<QuadSorter> sorters = new ArrayList<>(updatedIndexes.size() - 1);
+		Map<Long, Long> contextCounts = new HashMap<>();
+		long added = 0;
+		try (MemoryStack stack = MemoryStack.stackPush()) {
+			MDBVal keyVal = MDBVal.malloc(stack);
+			// use calloc to get an empty data value
+			MDBVal dataVal = MDBVal.calloc(stack);
+			ByteBuffer keyBuf = stack.malloc(MAX_KEY_LENGTH);
+
+			boolean[] append = new boolean[updatedIndexes.size()];
+			MDBStat stat = MDBStat.malloc(stack);
+			for (int i = 0; i < updatedIndexes.size(); i++) {
+				E(mdb_stat(writeTxn, updatedIndexes.get(i).getDB(explicit), stat));
+				append[i] = stat.ms_entries() == 0;
+				if (i > 0) {
+					sorters.add(new QuadSorter(dir, updatedIndexes.get(i).indexMap, QuadSorter.RUN_SIZE));
+				}
+			}
+			// the main index may have been changed by an online reindex after the quads have been sorted
+			append[0] = append[0] && quads.isSortedBy(mainIndex.indexMap);
+			E(mdb_stat(writeTxn, mainIndex.getDB(false), stat));
+			boolean removeImplicit = explicit && stat.ms_entries() > 0;
+
+			// add the quads to the main index to determine which of them are new
+			try (RecordIterator it = quads.iterator()) {
+				long[] quad;
+				while ((quad = it.next()) != null) {
+					handler.accept(quad);
+					if (recordCache == null && requiresResize()) {
+						startRecordCache(sorters.isEmpty() ? null : sorters.get(0), explicit);
+					}
+					if (recordCache != null) {
+						// the record cache adds the quad to all indexes when committing
+						storeTriple(quad[SUBJ_IDX], quad[PRED_IDX], quad[OBJ_IDX], quad[CONTEXT_IDX], explicit);
+						continue;
+					}
+
+					keyBuf.clear();
+					mainIndex.toKey(keyBuf, quad[SUBJ_IDX], quad[PRED_IDX], quad[OBJ_IDX], quad[CONTEXT_IDX]);
+					keyBuf.flip();
+					keyVal.mv_data(keyBuf);
+					int rc = mdb_put(writeTxn, mainIndex.getDB(explicit), keyVal, dataVal,
+							append[0] ? MDB_APPEND : MDB_NOOVERWRITE);
+					if (rc == MDB_KEYEXIST) {
+						continue;
+					}
+					E(rc);
+					if (!removeImplicit || mdb_del(writeTxn, mainIndex.getDB(false), keyVal, null) != MDB_SUCCESS) {
+						statistics.add(quad[SUBJ_IDX], quad[PRED_IDX], quad[OBJ_IDX]);
+					}
+					for (QuadSorter sorter : sorters) {
+						sorter.add(quad);
+					}
+					contextCounts.merge(quad[CONTEXT_IDX], 1L, Long::sum);
+					added++;
+				}
+			}
+
+			// add the new quads to the other indexes in the order of their keys
+			for (int i = 1; i < updatedIndexes.size() && recordCache == null; i++) {
+				TripleIndex index = updatedIndexes.get(i);
+				QuadSorter sorter = sorters.get(i - 1);
+				try (RecordIterator it = sorter.iterator()) {
+					long[] quad;
+					while ((quad = it.next()) != null) {
+						if (requiresResize()) {
+							startRecordCache(sorter, explicit);
+							break;
+						}
+						keyBuf.clear();
+						index.toKey(keyBuf, quad[SUBJ_IDX], quad[PRED_IDX], quad[OBJ_IDX], quad[CONTEXT_IDX]);
+						keyBuf.flip();
+						keyVal.mv_data(keyBuf);
+						if (removeImplicit) {
+							mdb_del(writeTxn, index.getDB(false), keyVal, null);
+						}
+						E(mdb_put(writeTxn, index.getDB(explicit), keyVal, dataVal, append[i] ? MDB_APPEND : 0));
+					}
+				}
+			}
+
+			for (Map.Entry<Long, Long> entry : contextCounts.entrySet()) {
+				incrementContext(stack, entry.getKey(), entry.getValue());
+			}
+		} finally {
+			for (QuadSorter sorter : sorters) {
+				sorter.close();
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * Switches to the record cache when the map is full while storing quads in bulk. All quads that have been added to
+	 * the main index so far are also put into the cache, so that they are added to the remaining indexes when
+	 * committing.
+	 *
+	 * @param added the quads that have been added to the main index, or <code>null</code>
+	 */
+	private void startRecordCache(QuadSorter added, boolean explicit) throws IOException {
+		recordCache = new TxnRecordCache(dir);
+		logger.debug("resize of map size {} required while adding in bulk - initialize record cache", mapSize);
+		if (added != null) {
+			try (RecordIterator it = added.iterator()) {
+				long[] quad;
+				while ((quad = it.next()) != null) {
+					if (explicit) {
+						recordCache.removeRecord(quad, false);
+					}
+					recordCache.storeRecord(quad, explicit);
+				}
+			}
+		}
+	}
+
 	private void incrementContext(MemoryStack stack, long context) throws IOException {
+		incrementContext(stack, context, 1);
+	}
+
+	private void incrementContext(MemoryStack stack, long context, long increment) throws IOException {
 		try {
 			stack.push();
 
@@ -919,10 +1395,10 @@ class TripleStore implements Closeable {
 			bb.flip();
 			idVal.mv_data(bb);
 			MDBVal dataVal = MDBVal.calloc(stack);
-			long newCount = 1;
+			long newCount = increment;
 			if (mdb_get(writeTxn, contextsDbi, idVal, dataVal) == MDB_SUCCESS) {
 				// update count
-				newCount = Varint.readUnsigned(dataVal.mv_data()) + 1;
+				newCount = Varint.readUnsigned(dataVal.mv_data()) + increment;
 			}
 			// write count
 			ByteBuffer countBb = stack.malloc(Varint.calcLengthUnsigned(newCount));
@@ -982,6 +1458,7 @@ class TripleStore implements Closeable {
 	}
 
 	public void removeTriples(RecordIterator it, boolean explicit, Consumer<long[]> handler) throws IOException {
+		List<TripleIndex> updatedIndexes = getUpdatedIndexes();
 		try (it; MemoryStack stack = MemoryStack.stackPush()) {
 			MDBVal keyValue = MDBVal.callocStack(stack);
 			ByteBuffer keyBuf = stack.malloc(MAX_KEY_LENGTH);
@@ -1002,7 +1479,7 @@ class TripleStore implements Closeable {
 					continue;
 				}
 
-				for (TripleIndex index : indexes) {
+				for (TripleIndex index : updatedIndexes) {
 					keyBuf.clear();
 					index.toKey(keyBuf, quad[SUBJ_IDX], quad[PRED_IDX], quad[OBJ_IDX], quad[CONTEXT_IDX]);
 					keyBuf.flip();
@@ -1013,12 +1490,14 @@ class TripleStore implements Closeable {
 				}
 
 				decrementContext(stack, quad[CONTEXT_IDX]);
+				statistics.remove(quad[PRED_IDX], quad[OBJ_IDX]);
 				handler.accept(quad);
 			}
 		}
 	}
 
 	protected void updateFromCache() throws IOException {
+		List<TripleIndex> updatedIndexes = getUpdatedIndexes();
 		recordCache.commit();
 		for (boolean explicit : new boolean[] { true, false }) {
 			RecordCacheIterator it = recordCache.getRecords(explicit);
@@ -1041,8 +1520,8 @@ class TripleStore implements Closeable {
 						writeTxn = pp.get(0);
 					}
 
-					for (int i = 0; i < indexes.size(); i++) {
-						TripleIndex index = indexes.get(i);
+					for (int i = 0; i < updatedIndexes.size(); i++) {
+						TripleIndex index = updatedIndexes.get(i);
 						keyBuf.clear();
 						index.toKey(keyBuf, r.quad[0], r.quad[1], r.quad[2], r.quad[3]);
 						keyBuf.flip();
@@ -1061,12 +1540,31 @@ class TripleStore implements Closeable {
 		recordCache.close();
 	}
 
+	/**
+	 * Waits for the {@link #writePermit}.
+	 *
+	 * @throws InterruptedIOException If the thread has been interrupted while waiting.
+	 */
+	private void acquireWritePermit() throws InterruptedIOException {
+		try {
+			writePermit.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the write transaction");
+		}
+	}
+
 	public void startTransaction() throws IOException {
+		acquireWritePermit();
 		try (MemoryStack stack = stackPush()) {
 			PointerBuffer pp = stack.mallocPointer(1);
 
 			E(mdb_txn_begin(env, NULL, 0, pp));
 			writeTxn = pp.get(0);
+		} finally {
+			if (writeTxn == 0) {
+				writePermit.release();
+			}
 		}
 	}
 
@@ -1078,7 +1576,11 @@ class TripleStore implements Closeable {
 			try {
 				if (commit) {
 					try {
+						try (MemoryStack stack = stackPush()) {
+							statistics.persist(stack, writeTxn);
+						}
 						E(mdb_txn_commit(writeTxn));
+						statistics.publish();
 						if (recordCache != null) {
 							StampedLock lock = txnManager.lock();
 							long stamp = lock.writeLock();
@@ -1119,13 +1621,18 @@ class TripleStore implements Closeable {
 				}
 			} finally {
 				writeTxn = 0;
-				// ensure that record cache is always reset
-				if (recordCache != null) {
-					try {
-						recordCache.close();
-					} finally {
-						recordCache = null;
+				try {
+					statistics.discard();
+					// ensure that record cache is always reset
+					if (recordCache != null) {
+						try {
+							recordCache.close();
+						} finally {
+							recordCache = null;
+						}
 					}
+				} finally {
+					writePermit.release();
 				}
 			}
 		}
@@ -1135,6 +1642,15 @@ class TripleStore implements Closeable {
 		endTransaction(true);
 	}
 
+	/**
+	 * Flushes all committed transactions to disk.
+	 *
+	 * @throws IOException If an I/O error occurred.
+	 */
+	void sync() throws IOException {
+		E(mdb_env_sync(env, true));
+	}
+
 	public void rollback() throws IOException {
 		endTransaction(false);
 	}
@@ -1153,6 +1669,264 @@ class TripleStore implements Closeable {
 		}
 	}
 
+	/**
+	 * An online change of the set of triple indexes. A background thread copies the quads of the first index to the
+	 * new indexes in chunks, every chunk in its own write transaction while holding the {@link #writePermit}, so that
+	 * it doesn't overwrite concurrent updates of the new indexes. The last chunk is followed by the switch to the new
+	 * set of indexes.
+	 */
+	private class IndexBuild implements Runnable {
+
+		private final String indexSpecStr;
+
+		private final Set<String> indexSpecs;
+
+		private final List<TripleIndex> addedIndexes;
+
+		private final long tripleCount;
+
+		private final Thread thread;
+
+		/**
+		 * Whether the explicit or the inferred quads are currently copied.
+		 */
+		private boolean explicit = true;
+
+		/**
+		 * The last quad that has been copied, or <var>null</var> if no quad of the current kind has been copied yet.
+		 */
+		private long[] lastQuad;
+
+		private volatile long copiedCount;
+
+		private volatile boolean completed;
+
+		private volatile boolean cancelled;
+
+		private volatile Throwable failure;
+
+		public IndexBuild(String indexSpecStr, Set<String> indexSpecs, List<TripleIndex> addedIndexes)
+				throws IOException {
+			this.indexSpecStr = indexSpecStr;
+			this.indexSpecs = indexSpecs;
+			this.addedIndexes = addedIndexes;
+			TripleIndex mainIndex = indexes.get(0);
+			this.tripleCount = readTransaction(env, (stack, txn) -> {
+				MDBStat stat = MDBStat.malloc(stack);
+				long count = 0;
+				for (boolean explicit : new boolean[] { true, false }) {
+					E(mdb_stat(txn, mainIndex.getDB(explicit), stat));
+					count += stat.ms_entries();
+				}
+				return count;
+			});
+			this.thread = new Thread(this, "LmdbStore reindex thread");
+			thread.setDaemon(true);
+		}
+
+		public double getProgress() {
+			if (completed) {
+				return 1.0;
+			}
+			return tripleCount == 0 ? 0.0 : Math.min(1.0, (double) copiedCount / tripleCount);
+		}
+
+		@Override
+		public void run() {
+			try {
+				copyQuads();
+			} catch (InterruptedException e) {
+				logger.info("Change of triple indexes to '{}' cancelled", indexSpecStr);
+				writePermit.acquireUninterruptibly();
+				try {
+					abort();
+				} finally {
+					writePermit.release();
+				}
+			} catch (Throwable e) {
+				failure = e;
+				logger.error("Failed to change triple indexes to '{}'", indexSpecStr, e);
+				writePermit.acquireUninterruptibly();
+				try {
+					abort();
+				} finally {
+					writePermit.release();
+				}
+			}
+		}
+
+		private void copyQuads() throws IOException, InterruptedException {
+			// an upper bound for the space that is required by a chunk
+			long requiredSize = 2L * REINDEX_CHUNK_SIZE * MAX_KEY_LENGTH * addedIndexes.size();
+			int reportedPercentage = 0;
+			while (true) {
+				writePermit.acquire();
+				try {
+					if (cancelled) {
+						logger.info("Change of triple indexes to '{}' cancelled", indexSpecStr);
+						abort();
+						return;
+					}
+
+					if (autoGrow && transaction(env,
+							(stack, txn) -> LmdbUtil.requiresResize(mapSize, pageSize, txn, requiredSize))) {
+						growMap();
+					}
+
+					int copied = transaction(env, this::copyChunk);
+					copiedCount += copied;
+
+					if (copied < REINDEX_CHUNK_SIZE) {
+						if (explicit) {
+							// continue with the inferred quads
+							explicit = false;
+							lastQuad = null;
+						} else {
+							switchIndexes();
+							return;
+						}
+					}
+				} finally {
+					writePermit.release();
+				}
+
+				int percentage = (int) (getProgress() * 100);
+				if (percentage >= reportedPercentage + 10) {
+					reportedPercentage = percentage - percentage % 10;
+					logger.info("Changing triple indexes to '{}': {}% of {} triples copied", indexSpecStr,
+							reportedPercentage, tripleCount);
+				}
+			}
+		}
+
+		/**
+		 * Copies the quads that follow the last copied quad in the first index to the new indexes.
+		 *
+		 * @return The number of copied quads, which is less than {@link #REINDEX_CHUNK_SIZE} if all quads of the
+		 *         current kind have been copied.
+		 */
+		private int copyChunk(MemoryStack stack, long txn) throws IOException {
+			TripleIndex sourceIndex = indexes.get(0);
+			MDBVal keyVal = MDBVal.calloc(stack);
+			// use calloc to get an empty data value
+			MDBVal dataVal = MDBVal.calloc(stack);
+			ByteBuffer keyBuf = stack.malloc(MAX_KEY_LENGTH);
+
+			List<long[]> quads = new ArrayList<>();
+			PointerBuffer pp = stack.mallocPointer(1);
+			E(mdb_cursor_open(txn, sourceIndex.getDB(explicit), pp));
+			long cursor = pp.get(0);
+			try {
+				int rc;
+				if (lastQuad == null) {
+					rc = mdb_cursor_get(cursor, keyVal, dataVal, MDB_FIRST);
+				} else {
+					sourceIndex.toKey(keyBuf, lastQuad[SUBJ_IDX], lastQuad[PRED_IDX], lastQuad[OBJ_IDX],
+							lastQuad[CONTEXT_IDX]);
+					keyBuf.flip();
+					keyVal.mv_data(keyBuf);
+					rc = mdb_cursor_get(cursor, keyVal, dataVal, MDB_SET_RANGE);
+				}
+				while (rc == MDB_SUCCESS && quads.size() < REINDEX_CHUNK_SIZE) {
+					long[] quad = new long[4];
+					sourceIndex.keyToQuad(keyVal.mv_data(), quad);
+					// the last quad is still there unless it has been removed in the meantime
+					if (lastQuad == null || !Arrays.equals(quad, lastQuad)) {
+						quads.add(quad);
+					}
+					rc = mdb_cursor_get(cursor, keyVal, dataVal, MDB_NEXT);
+				}
+				if (rc != MDB_SUCCESS && rc != MDB_NOTFOUND) {
+					throw new IOException(mdb_strerror(rc));
+				}
+			} finally {
+				mdb_cursor_close(cursor);
+			}
+
+			for (TripleIndex index : addedIndexes) {
+				ByteBuffer[] keys = new ByteBuffer[quads.size()];
+				for (int i = 0; i < keys.length; i++) {
+					long[] quad = quads.get(i);
+					keys[i] = ByteBuffer.allocate(MAX_KEY_LENGTH);
+					index.toKey(keys[i], quad[SUBJ_IDX], quad[PRED_IDX], quad[OBJ_IDX], quad[CONTEXT_IDX]);
+					keys[i].flip();
+				}
+				// insert the quads in the order of the index, they may already exist due to concurrent updates
+				Arrays.sort(keys, COMPARATOR);
+				for (ByteBuffer key : keys) {
+					keyBuf.clear();
+					keyBuf.put(key).flip();
+					keyVal.mv_data(keyBuf);
+					E(mdb_put(txn, index.getDB(explicit), keyVal, dataVal, 0));
+				}
+			}
+
+			if (!quads.isEmpty()) {
+				lastQuad = quads.get(quads.size() - 1);
+			}
+			return quads.size();
+		}
+
+		/**
+		 * Grows the map, must be called while holding the {@link #writePermit}.
+		 */
+		private void growMap() throws IOException {
+			StampedLock lock = txnManager.lock();
+			long stamp = lock.writeLock();
+			try {
+				txnManager.deactivate();
+				mapSize = LmdbUtil.autoGrowMapSize(mapSize, pageSize, 0);
+				E(mdb_env_set_mapsize(env, mapSize));
+				logger.debug("resized map to {}", mapSize);
+			} finally {
+				try {
+					txnManager.activate();
+				} finally {
+					lock.unlockWrite(stamp);
+				}
+			}
+		}
+
+		/**
+		 * Replaces the current set of indexes with the new one, must be called while holding the {@link #writePermit}.
+		 */
+		void switchIndexes() throws IOException {
+			Map<String, TripleIndex> currentIndexes = new HashMap<>();
+			for (TripleIndex index : indexes) {
+				currentIndexes.put(index.toString(), index);
+			}
+			for (TripleIndex index : addedIndexes) {
+				currentIndexes.put(index.toString(), index);
+			}
+
+			List<TripleIndex> newIndexes = new ArrayList<>();
+			for (String fieldSeq : indexSpecs) {
+				newIndexes.add(currentIndexes.remove(fieldSeq));
+			}
+
+			sync();
+			properties.setProperty(INDEXES_KEY, indexSpecStr);
+			storeProperties(new File(dir, PROPERTIES_FILE));
+
+			// renew the snapshots of active read transactions, which may not contain all quads of the new indexes
+			txnManager.reset();
+			indexes = newIndexes;
+			buildingIndexes = Collections.emptyList();
+			retiredIndexes.addAll(currentIndexes.values());
+			completed = true;
+			logger.info("Triple indexes changed to '{}'", indexSpecStr);
+		}
+
+		/**
+		 * Stops updating the new indexes, must be called while holding the {@link #writePermit}. Their databases are
+		 * dropped when the store is closed.
+		 */
+		private void abort() {
+			buildingIndexes = Collections.emptyList();
+			retiredIndexes.addAll(addedIndexes);
+		}
+	}
+
 	class TripleIndex {
 
 		private final char[] fieldSeq;
@@ -1249,6 +2023,45 @@ class TripleStore implements Closeable {
 			return score;
 		}
 
+		/**
+		 * Checks if a range scan on this index for the supplied pattern returns the matching triples sorted by the
+		 * component selected by <code>order</code>. This is the case if the component is bound by the pattern or if
+		 * all fields preceding the component in this index's field sequence are bound.
+		 */
+		public boolean isSortedBy(StatementOrder order, long subj, long pred, long obj, long context) {
+			char field;
+			long value;
+			switch (order) {
+			case S:
+				field = 's';
+				value = subj;
+				break;
+			case P:
+				field = 'p';
+				value = pred;
+				break;
+			case O:
+				field = 'o';
+				value = obj;
+				break;
+			case C:
+				field = 'c';
+				value = context;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown statement order: " + order);
+			}
+			if (value >= 0) {
+				// all matching triples share the same value for this component
+				return true;
+			}
+			int position = 0;
+			while (fieldSeq[position] != field) {
+				position++;
+			}
+			return position <= getPatternScore(subj, pred, obj, context);
+		}
+
 		void getMinKey(ByteBuffer bb, long subj, long pred, long obj, long context) {
 			subj = subj <= 0 ? 0 : subj;
 			pred = pred <= 0 ? 0 : pred;
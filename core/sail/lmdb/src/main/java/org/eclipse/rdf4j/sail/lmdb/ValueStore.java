@@ -22,6 +22,7 @@ import static org.lwjgl.util.lmdb.LMDB.MDB_NOMETASYNC;
 import static org.lwjgl.util.lmdb.LMDB.MDB_NOSYNC;
 import static org.lwjgl.util.lmdb.LMDB.MDB_NOTLS;
 import static org.lwjgl.util.lmdb.LMDB.MDB_PREV;
+import static org.lwjgl.util.lmdb.LMDB.MDB_RDONLY;
 import static org.lwjgl.util.lmdb.LMDB.MDB_RESERVE;
 import static org.lwjgl.util.lmdb.LMDB.MDB_SET_RANGE;
 import static org.lwjgl.util.lmdb.LMDB.MDB_SUCCESS;
@@ -37,6 +38,7 @@ import static org.lwjgl.util.lmdb.LMDB.mdb_env_open;
 import static org.lwjgl.util.lmdb.LMDB.mdb_env_set_mapsize;
 import static org.lwjgl.util.lmdb.LMDB.mdb_env_set_maxdbs;
 import static org.lwjgl.util.lmdb.LMDB.mdb_env_set_maxreaders;
+import static org.lwjgl.util.lmdb.LMDB.mdb_env_sync;
 import static org.lwjgl.util.lmdb.LMDB.mdb_get;
 import static org.lwjgl.util.lmdb.LMDB.mdb_put;
 import static org.lwjgl.util.lmdb.LMDB.mdb_stat;
@@ -48,20 +50,34 @@ import static org.lwjgl.util.lmdb.LMDB.mdb_txn_reset;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.StampedLock;
 import java.util.zip.CRC32;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.eclipse.rdf4j.common.concurrent.locks.diagnostics.ConcurrentCleaner;
 import org.eclipse.rdf4j.common.io.ByteArrayUtil;
 import org.eclipse.rdf4j.model.BNode;
@@ -114,6 +130,10 @@ class ValueStore extends AbstractValueFactory {
 	 * Maximum size of keys before hashing is used (size of two long values)
 	 */
 	private static final int MAX_KEY_SIZE = 16;
+	/**
+	 * The minimal number of values that are looked up by each task of {@link #storeValues(Value[])}.
+	 */
+	private static final int LOOKUP_CHUNK_SIZE = 512;
 	/**
 	 * Used to do the actual storage of values, once they're translated to byte arrays.
 	 */
@@ -123,22 +143,37 @@ class ValueStore extends AbstractValueFactory {
 	 */
 	private final StampedLock revisionLock = new StampedLock();
 	/**
-	 * A simple cache containing the [VALUE_CACHE_SIZE] most-recently used values stored by their ID.
+	 * The estimated memory in bytes of a cache entry without the value's data.
+	 */
+	private static final long CACHE_ENTRY_SIZE = 128;
+	/**
+	 * The estimated memory in bytes of the data of a lazy value, whose data is not known when it is cached.
+	 */
+	private static final long LAZY_VALUE_DATA_SIZE = 64;
+	/**
+	 * A cache containing recently used values stored by their ID.
 	 */
-	private final LmdbValue[] valueCache;
+	private final ClockCache<Long, LmdbValue> valueCache;
 	/**
-	 * A simple cache containing the [ID_CACHE_SIZE] most-recently used value-IDs stored by their value.
+	 * A cache containing recently used value-IDs stored by their value.
 	 */
-	private final ConcurrentCache<LmdbValue, Long> valueIDCache;
+	private final ClockCache<LmdbValue, Long> valueIDCache;
 	/**
-	 * A simple cache containing the [NAMESPACE_CACHE_SIZE] most-recently used namespaces stored by their ID.
+	 * A cache containing the [NAMESPACE_CACHE_SIZE] most-recently used namespaces stored by their ID.
 	 */
-	private final ConcurrentCache<Long, String> namespaceCache;
+	private final ClockCache<Long, String> namespaceCache;
 	/**
-	 * A simple cache containing the [NAMESPACE_ID_CACHE_SIZE] most-recently used namespace-IDs stored by their
-	 * namespace.
+	 * A cache containing the [NAMESPACE_ID_CACHE_SIZE] most-recently used namespace-IDs stored by their namespace.
 	 */
-	private final ConcurrentCache<String, Long> namespaceIDCache;
+	private final ClockCache<String, Long> namespaceIDCache;
+	/**
+	 * Flag indicating whether the value caches are sized by their estimated memory instead of their number of entries.
+	 */
+	private final boolean weighValues;
+	/**
+	 * The names under which the caches are registered with the platform MBean server.
+	 */
+	private final Map<ObjectName, CacheMXBean> cacheBeans = new ConcurrentHashMap<>();
 	/**
 	 * Used to do the actual storage of values, once they're translated to byte arrays.
 	 */
@@ -161,6 +196,11 @@ class ValueStore extends AbstractValueFactory {
 	 * This lock is required to block transactions while auto-growing the map size.
 	 */
 	private final ReadWriteLock txnLock = new ReentrantReadWriteLock();
+	/**
+	 * The read transaction that is used for lookups by the current thread while looking up IDs in parallel, instead of
+	 * a new read transaction or the write transaction.
+	 */
+	private final ThreadLocal<Long> lookupTxn = new ThreadLocal<>();
 
 	/**
 	 * An object that indicates the revision of the value store, which is used to check if cached value IDs are still
@@ -188,15 +228,25 @@ class ValueStore extends AbstractValueFactory {
 
 	ValueStore(File dir, LmdbStoreConfig config) throws IOException {
 		this.dir = dir;
-		this.forceSync = config.getForceSync();
+		// with group commit the environment is synced by the LmdbSailStore for several commits at once
+		this.forceSync = config.getForceSync() && config.getGroupCommitWindow() < 0;
 		this.autoGrow = config.getAutoGrow();
 		this.mapSize = config.getValueDBSize();
 		open();
 
-		valueCache = new LmdbValue[config.getValueCacheSize()];
-		valueIDCache = new ConcurrentCache<>(config.getValueIDCacheSize());
-		namespaceCache = new ConcurrentCache<>(config.getNamespaceCacheSize());
-		namespaceIDCache = new ConcurrentCache<>(config.getNamespaceIDCacheSize());
+		long valueCacheMemory = config.getValueCacheMemory();
+		weighValues = valueCacheMemory >= 0;
+		if (weighValues) {
+			// share the memory budget between both directions of the lookup
+			valueCache = new ClockCache<>(valueCacheMemory / 2);
+			valueIDCache = new ClockCache<>(valueCacheMemory / 2);
+		} else {
+			valueCache = new ClockCache<>(config.getValueCacheSize());
+			valueIDCache = new ClockCache<>(config.getValueIDCacheSize());
+		}
+		namespaceCache = new ClockCache<>(config.getNamespaceCacheSize());
+		namespaceIDCache = new ClockCache<>(config.getNamespaceIDCacheSize());
+		registerCaches();
 
 		setNewRevision();
 
@@ -438,33 +488,101 @@ class ValueStore extends AbstractValueFactory {
 		});
 	}
 
+	/**
+	 * Decodes the value with the specified ID directly from the database page that is mapped by the read transaction,
+	 * without copying the whole record to the heap first. Only the UTF-8 encoded parts that the value retains are
+	 * copied; the label of a literal is kept in its encoded form until it is requested.
+	 *
+	 * @param id    A value ID.
+	 * @param value Existing value that should be resolved, or <code>null</code> if a new value should be created.
+	 * @param cache Whether the value should be stored in the value cache.
+	 * @return The value, or <code>null</code> if no such value could be found.
+	 * @throws IOException If an I/O error occurred.
+	 */
+	private LmdbValue readValue(long id, LmdbValue value, boolean cache) throws IOException {
+		return readTransaction(env, (stack, txn) -> {
+			MDBVal keyData = MDBVal.calloc(stack);
+			keyData.mv_data(id2data(idBuffer(stack), id).flip());
+			MDBVal valueData = MDBVal.calloc(stack);
+			if (mdb_get(txn, dbi, keyData, valueData) != MDB_SUCCESS) {
+				return null;
+			}
+			// the buffer points into the memory map and must not be accessed after the transaction has ended
+			ByteBuffer data = valueData.mv_data();
+			int dataSize = data.remaining();
+			LmdbValue result = data2value(id, data, value);
+			if (cache) {
+				cacheValue(id, result, dataSize);
+			}
+			return result;
+		});
+	}
+
 	/**
 	 * Get value from cache by ID.
-	 * <p>
-	 * Thread-safety with synchronized is not required here.
 	 *
 	 * @param id ID of a value object
 	 * @return the value object or <code>null</code> if not found
 	 */
 	LmdbValue cachedValue(long id) {
-		LmdbValue value = valueCache[(int) (id % valueCache.length)];
-		if (value != null && value.getInternalID() == id) {
-			return value;
-		}
-		return null;
+		return valueCache.get(id);
 	}
 
 	/**
 	 * Cache value by ID.
-	 * <p>
-	 * Thread-safety with synchronized is not required here.
 	 *
-	 * @param id    ID of a value object
-	 * @param value ID of a value object
-	 * @return the value object or <code>null</code> if not found
+	 * @param id       ID of a value object
+	 * @param value    the value object
+	 * @param dataSize the size of the value's serialized data, or <tt>-1</tt> if it is not known
+	 */
+	void cacheValue(long id, LmdbValue value, int dataSize) {
+		valueCache.put(id, value, valueWeight(dataSize));
+	}
+
+	/**
+	 * Computes the weight of a value cache entry, which is its estimated memory if the caches are sized by memory.
+	 *
+	 * @param dataSize the size of the value's serialized data, or <tt>-1</tt> if it is not known
 	 */
-	void cacheValue(long id, LmdbValue value) {
-		valueCache[(int) (id % valueCache.length)] = value;
+	private long valueWeight(int dataSize) {
+		if (!weighValues) {
+			return 1;
+		}
+		return CACHE_ENTRY_SIZE + (dataSize >= 0 ? dataSize : LAZY_VALUE_DATA_SIZE);
+	}
+
+	/**
+	 * Registers the caches with the platform MBean server so that their hit rates can be monitored and their
+	 * capacities can be changed while the store is running.
+	 */
+	private void registerCaches() {
+		registerCache("values", valueCache);
+		registerCache("valueIds", valueIDCache);
+		registerCache("namespaces", namespaceCache);
+		registerCache("namespaceIds", namespaceIDCache);
+	}
+
+	private void registerCache(String name, CacheMXBean cache) {
+		try {
+			ObjectName objectName = new ObjectName("org.eclipse.rdf4j.sail.lmdb:type=Cache,store="
+					+ ObjectName.quote(dir.getAbsolutePath()) + ",name=" + name);
+			ManagementFactory.getPlatformMBeanServer().registerMBean(cache, objectName);
+			cacheBeans.put(objectName, cache);
+		} catch (JMException e) {
+			logger.debug("Unable to register cache {} of value store {}", name, dir, e);
+		}
+	}
+
+	private void unregisterCaches() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (ObjectName objectName : cacheBeans.keySet()) {
+			try {
+				server.unregisterMBean(objectName);
+			} catch (JMException e) {
+				logger.debug("Unable to unregister cache {}", objectName, e);
+			}
+		}
+		cacheBeans.clear();
 	}
 
 	/**
@@ -496,7 +614,7 @@ class ValueStore extends AbstractValueFactory {
 					throw new IOException("Unsupported value with type id " + (id & 0x3));
 				}
 				// Store value in cache
-				cacheValue(cacheID, resultValue);
+				cacheValue(cacheID, resultValue, -1);
 			}
 
 			return resultValue;
@@ -520,14 +638,8 @@ class ValueStore extends AbstractValueFactory {
 			LmdbValue resultValue = cachedValue(cacheID);
 
 			if (resultValue == null) {
-				// Value not in cache, fetch it from file
-				byte[] data = getData(id);
-
-				if (data != null) {
-					resultValue = data2value(id, data, null);
-					// Store value in cache
-					cacheValue(cacheID, resultValue);
-				}
+				// Value not in cache, decode it from the database and store it in the cache
+				resultValue = readValue(id, null, true);
 			}
 
 			return resultValue;
@@ -545,11 +657,7 @@ class ValueStore extends AbstractValueFactory {
 	 */
 	public boolean resolveValue(long id, LmdbValue value) {
 		try {
-			byte[] data = getData(id);
-			if (data != null) {
-				data2value(id, data, value);
-				return true;
-			}
+			return readValue(id, value, false) != null;
 		} catch (IOException e) {
 			// should not happen
 		}
@@ -808,6 +916,13 @@ class ValueStore extends AbstractValueFactory {
 	}
 
 	<T> T readTransaction(long env, Transaction<T> transaction) throws IOException {
+		Long txn = lookupTxn.get();
+		if (txn != null) {
+			// the read lock is already held by lookupIds
+			try (MemoryStack stack = MemoryStack.stackPush()) {
+				return transaction.exec(stack, txn);
+			}
+		}
 		txnLock.readLock().lock();
 		try {
 			return LmdbUtil.readTransaction(env, writeTxn, transaction);
@@ -903,7 +1018,7 @@ class ValueStore extends AbstractValueFactory {
 						// Store id in value for fast access in any consecutive calls
 						((LmdbValue) value).setInternalID(id, revision);
 						// Store id in cache
-						valueIDCache.put((LmdbValue) value, id);
+						valueIDCache.put((LmdbValue) value, id, valueWeight(data.length));
 					} else {
 						// Store id in cache
 						LmdbValue nv = getLmdbValue(value);
@@ -913,7 +1028,7 @@ class ValueStore extends AbstractValueFactory {
 							commonVocabulary.put(value, id);
 						}
 
-						valueIDCache.put(nv, id);
+						valueIDCache.put(nv, id, valueWeight(data.length));
 					}
 				}
 
@@ -1203,6 +1318,15 @@ class ValueStore extends AbstractValueFactory {
 		endTransaction(true);
 	}
 
+	/**
+	 * Flushes all committed transactions to disk.
+	 *
+	 * @throws IOException If an I/O error occurred.
+	 */
+	void sync() throws IOException {
+		E(mdb_env_sync(env, true));
+	}
+
 	public void rollback() throws IOException {
 		endTransaction(false);
 	}
@@ -1219,6 +1343,92 @@ class ValueStore extends AbstractValueFactory {
 		return getId(value, true);
 	}
 
+	/**
+	 * Stores the supplied values, if necessary, and returns their IDs. The IDs of values that are not cached are looked
+	 * up in parallel, each task using its own read transaction. The values that are not found are then stored one after
+	 * the other, ordered by their type and lexical value so that related values are written to the same pages.
+	 *
+	 * @param values The values to store, which should be distinct.
+	 * @return The IDs of the values, in the same order.
+	 * @throws IOException If an I/O error occurred.
+	 */
+	public long[] storeValues(Value[] values) throws IOException {
+		long[] ids = new long[values.length];
+		int chunks = Math.min(ForkJoinPool.getCommonPoolParallelism(), values.length / LOOKUP_CHUNK_SIZE);
+		if (chunks > 1) {
+			int chunkSize = (values.length + chunks - 1) / chunks;
+			List<Callable<Void>> tasks = new ArrayList<>(chunks);
+			for (int from = 0; from < values.length; from += chunkSize) {
+				int start = from;
+				int end = Math.min(values.length, from + chunkSize);
+				tasks.add(() -> {
+					lookupIds(values, ids, start, end);
+					return null;
+				});
+			}
+			for (Future<Void> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+				try {
+					future.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while looking up value IDs");
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof IOException) {
+						throw (IOException) cause;
+					} else if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					}
+					throw new IOException(cause);
+				}
+			}
+		} else {
+			Arrays.fill(ids, LmdbValue.UNKNOWN_ID);
+		}
+
+		// values created by the current write transaction are not visible to the lookups, hence getId is called
+		// again for all values that have not been found
+		List<Integer> missing = new ArrayList<>();
+		for (int i = 0; i < ids.length; i++) {
+			if (ids[i] == LmdbValue.UNKNOWN_ID) {
+				missing.add(i);
+			}
+		}
+		missing.sort(Comparator.comparingInt((Integer i) -> typeOrder(values[i]))
+				.thenComparing(i -> values[i].stringValue()));
+		for (int i : missing) {
+			ids[i] = getId(values[i], true);
+		}
+		return ids;
+	}
+
+	private static int typeOrder(Value value) {
+		return value.isIRI() ? URI_VALUE : value.isLiteral() ? LITERAL_VALUE : BNODE_VALUE;
+	}
+
+	/**
+	 * Looks up the IDs of the values within the given range using a separate read transaction.
+	 */
+	private void lookupIds(Value[] values, long[] ids, int from, int to) throws IOException {
+		txnLock.readLock().lock();
+		try (MemoryStack stack = stackPush()) {
+			PointerBuffer pp = stack.mallocPointer(1);
+			E(mdb_txn_begin(env, NULL, MDB_RDONLY, pp));
+			long txn = pp.get(0);
+			lookupTxn.set(txn);
+			try {
+				for (int i = from; i < to; i++) {
+					ids[i] = getId(values[i], false);
+				}
+			} finally {
+				lookupTxn.remove();
+				mdb_txn_abort(txn);
+			}
+		} finally {
+			txnLock.readLock().unlock();
+		}
+	}
+
 	/**
 	 * Computes a hash code for the supplied data.
 	 *
@@ -1244,11 +1454,12 @@ class ValueStore extends AbstractValueFactory {
 
 		clearCaches();
 		open();
+		registerCaches();
 		setNewRevision();
 	}
 
 	protected void clearCaches() {
-		Arrays.fill(valueCache, null);
+		valueCache.clear();
 		valueIDCache.clear();
 		namespaceCache.clear();
 		namespaceIDCache.clear();
@@ -1260,6 +1471,7 @@ class ValueStore extends AbstractValueFactory {
 	 * @throws IOException If an I/O error occurred.
 	 */
 	public void close() throws IOException {
+		unregisterCaches();
 		if (env != 0) {
 			endTransaction(false);
 			mdb_env_close(env);
@@ -1381,8 +1593,9 @@ class ValueStore extends AbstractValueFactory {
 		return data[0] == NAMESPACE_VALUE;
 	}
 
-	private LmdbValue data2value(long id, byte[] data, LmdbValue value) throws IOException {
-		switch (data[0]) {
+	private LmdbValue data2value(long id, ByteBuffer data, LmdbValue value) throws IOException {
+		byte type = data.get();
+		switch (type) {
 		case URI_VALUE:
 			return data2uri(id, data, (LmdbIRI) value);
 		case BNODE_VALUE:
@@ -1390,17 +1603,27 @@ class ValueStore extends AbstractValueFactory {
 		case LITERAL_VALUE:
 			return data2literal(id, data, (LmdbLiteral) value);
 		default:
-			throw new IllegalArgumentException("Invalid type " + data[0] + " for value with id " + id);
+			throw new IllegalArgumentException("Invalid type " + type + " for value with id " + id);
 		}
 	}
 
-	private LmdbIRI data2uri(long id, byte[] data, LmdbIRI value) throws IOException {
-		ByteBuffer bb = ByteBuffer.wrap(data);
-		// skip type marker
-		bb.get();
+	/**
+	 * Reads the next <code>length</code> bytes of the buffer, which is usually a direct buffer into the memory map.
+	 */
+	private static byte[] readBytes(ByteBuffer bb, int length) {
+		byte[] bytes = new byte[length];
+		bb.get(bytes);
+		return bytes;
+	}
+
+	private static String readString(ByteBuffer bb, int length) {
+		return new String(readBytes(bb, length), StandardCharsets.UTF_8);
+	}
+
+	private LmdbIRI data2uri(long id, ByteBuffer bb, LmdbIRI value) throws IOException {
 		long nsID = Varint.readUnsigned(bb);
 		String namespace = getNamespace(nsID);
-		String localName = new String(data, bb.position(), bb.remaining(), StandardCharsets.UTF_8);
+		String localName = readString(bb, bb.remaining());
 
 		if (value == null) {
 			return new LmdbIRI(revision, namespace, localName, id);
@@ -1410,8 +1633,8 @@ class ValueStore extends AbstractValueFactory {
 		}
 	}
 
-	private LmdbBNode data2bnode(long id, byte[] data, LmdbBNode value) {
-		String nodeID = new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+	private LmdbBNode data2bnode(long id, ByteBuffer bb, LmdbBNode value) {
+		String nodeID = readString(bb, bb.remaining());
 		if (value == null) {
 			return new LmdbBNode(revision, nodeID, id);
 		} else {
@@ -1420,10 +1643,7 @@ class ValueStore extends AbstractValueFactory {
 		}
 	}
 
-	private LmdbLiteral data2literal(long id, byte[] data, LmdbLiteral value) throws IOException {
-		ByteBuffer bb = ByteBuffer.wrap(data);
-		// skip type marker
-		bb.get();
+	private LmdbLiteral data2literal(long id, ByteBuffer bb, LmdbLiteral value) throws IOException {
 		// Get datatype
 		long datatypeID = Varint.readUnsigned(bb);
 		IRI datatype = null;
@@ -1435,23 +1655,21 @@ class ValueStore extends AbstractValueFactory {
 		String lang = null;
 		int langLength = bb.get() & 0xFF;
 		if (langLength > 0) {
-			lang = new String(data, bb.position(), langLength, StandardCharsets.UTF_8);
+			lang = readString(bb, langLength);
 		}
 
-		// Get label
-		String label = new String(data, bb.position() + langLength, data.length - bb.position() - langLength,
-				StandardCharsets.UTF_8);
+		// Get label, which is only decoded on demand
+		byte[] labelData = readBytes(bb, bb.remaining());
 
 		if (value == null) {
 			if (lang != null) {
-				return new LmdbLiteral(revision, label, lang, id);
+				value = new LmdbLiteral(revision, (String) null, lang, id);
 			} else if (datatype != null) {
-				return new LmdbLiteral(revision, label, datatype, id);
+				value = new LmdbLiteral(revision, (String) null, datatype, id);
 			} else {
-				return new LmdbLiteral(revision, label, org.eclipse.rdf4j.model.vocabulary.XSD.STRING, id);
+				value = new LmdbLiteral(revision, (String) null, org.eclipse.rdf4j.model.vocabulary.XSD.STRING, id);
 			}
 		} else {
-			value.setLabel(label);
 			if (lang != null) {
 				value.setLanguage(lang);
 				value.setDatatype(CoreDatatype.RDF.LANGSTRING);
@@ -1460,8 +1678,9 @@ class ValueStore extends AbstractValueFactory {
 			} else {
 				value.setDatatype(CoreDatatype.XSD.STRING);
 			}
-			return value;
 		}
+		value.setLabel(labelData);
+		return value;
 	}
 
 	private String data2namespace(byte[] data) {
@@ -1481,7 +1700,7 @@ class ValueStore extends AbstractValueFactory {
 
 		long id = findId(namespaceData, create);
 		if (id != LmdbValue.UNKNOWN_ID) {
-			namespaceIDCache.put(namespace, id);
+			namespaceIDCache.put(namespace, id, 1);
 		}
 
 		return id;
@@ -1499,7 +1718,7 @@ class ValueStore extends AbstractValueFactory {
 			byte[] namespaceData = getData(id);
 			if (namespaceData != null) {
 				namespace = data2namespace(namespaceData);
-				namespaceCache.put(cacheID, namespace);
+				namespaceCache.put(cacheID, namespace, 1);
 			}
 		}
 
@@ -53,6 +53,11 @@ public class LmdbStoreConfig extends BaseSailConfig {
 	 */
 	public static final int NAMESPACE_ID_CACHE_SIZE = 32;
 
+	/**
+	 * The default minimal number of statements in a transaction for which they are bulk loaded.
+	 */
+	public static final int BULK_LOAD_THRESHOLD = 100_000;
+
 	private String tripleIndexes;
 
 	private long tripleDBSize = -1;
@@ -65,12 +70,20 @@ public class LmdbStoreConfig extends BaseSailConfig {
 
 	private int valueIDCacheSize = -1;
 
+	private long valueCacheMemory = -1;
+
 	private int namespaceCacheSize = -1;
 
 	private int namespaceIDCacheSize = -1;
 
 	private boolean autoGrow = true;
 
+	private long groupCommitWindow = -1;
+
+	private boolean onlineReindex = false;
+
+	private int bulkLoadThreshold = -1;
+
 	/*--------------*
 	 * Constructors *
 	 *--------------*/
@@ -151,6 +164,21 @@ public class LmdbStoreConfig extends BaseSailConfig {
 		return this;
 	}
 
+	public long getValueCacheMemory() {
+		return valueCacheMemory;
+	}
+
+	/**
+	 * Sets the memory in bytes that the caches of values and value IDs may occupy. The budget is shared equally by
+	 * both caches and their entries are weighed by the estimated size of the values. If set, this replaces
+	 * {@link #setValueCacheSize(int) valueCacheSize} and {@link #setValueIDCacheSize(int) valueIDCacheSize}. By
+	 * default, the value is <tt>-1</tt> and the caches are sized by their number of entries.
+	 */
+	public LmdbStoreConfig setValueCacheMemory(long valueCacheMemory) {
+		this.valueCacheMemory = valueCacheMemory;
+		return this;
+	}
+
 	public int getNamespaceCacheSize() {
 		return namespaceCacheSize >= 0 ? namespaceCacheSize : NAMESPACE_CACHE_SIZE;
 	}
@@ -178,6 +206,51 @@ public class LmdbStoreConfig extends BaseSailConfig {
 		return this;
 	}
 
+	public long getGroupCommitWindow() {
+		return groupCommitWindow;
+	}
+
+	/**
+	 * Sets the time in milliseconds that a commit waits for commits of concurrent connections before the store is
+	 * synced to disk. All commits that arrive within this window are made durable by a single sync, and each
+	 * connection's commit only returns once its changes are durable. A window of <tt>0</tt> only groups the commits
+	 * that arrive while a sync is in progress. This setting only has an effect if {@link #setForceSync(boolean)
+	 * forceSync} is enabled. By default, the value is <tt>-1</tt> and every commit is synced on its own.
+	 */
+	public LmdbStoreConfig setGroupCommitWindow(long groupCommitWindow) {
+		this.groupCommitWindow = groupCommitWindow;
+		return this;
+	}
+
+	public boolean getOnlineReindex() {
+		return onlineReindex;
+	}
+
+	/**
+	 * Sets whether a change of the {@link #setTripleIndexes(String) triple indexes} of an existing store is applied in
+	 * the background while the store is in use, instead of while initializing the store. The existing indexes are used
+	 * until the new ones have been built.
+	 */
+	public LmdbStoreConfig setOnlineReindex(boolean onlineReindex) {
+		this.onlineReindex = onlineReindex;
+		return this;
+	}
+
+	public int getBulkLoadThreshold() {
+		return bulkLoadThreshold >= 0 ? bulkLoadThreshold : BULK_LOAD_THRESHOLD;
+	}
+
+	/**
+	 * Sets the minimal number of statements that a transaction adds at once for which they are bulk loaded: the
+	 * statements are sorted and added to each index in the order of its keys, instead of being added one by one. Bulk
+	 * loading is faster for large transactions, but needs memory for sorting the statements. By default, the value is
+	 * <tt>-1</tt> and a threshold of {@value #BULK_LOAD_THRESHOLD} statements is used.
+	 */
+	public LmdbStoreConfig setBulkLoadThreshold(int bulkLoadThreshold) {
+		this.bulkLoadThreshold = bulkLoadThreshold;
+		return this;
+	}
+
 	@Override
 	public Resource export(Model m) {
 		Resource implNode = super.export(m);
@@ -202,6 +275,9 @@ public class LmdbStoreConfig extends BaseSailConfig {
 		if (valueIDCacheSize >= 0) {
 			m.add(implNode, LmdbStoreSchema.VALUE_ID_CACHE_SIZE, vf.createLiteral(valueIDCacheSize));
 		}
+		if (valueCacheMemory >= 0) {
+			m.add(implNode, LmdbStoreSchema.VALUE_CACHE_MEMORY, vf.createLiteral(valueCacheMemory));
+		}
 		if (namespaceCacheSize >= 0) {
 			m.add(implNode, LmdbStoreSchema.NAMESPACE_CACHE_SIZE, vf.createLiteral(namespaceCacheSize));
 		}
@@ -211,6 +287,15 @@ public class LmdbStoreConfig extends BaseSailConfig {
 		if (!autoGrow) {
 			m.add(implNode, LmdbStoreSchema.AUTO_GROW, vf.createLiteral(false));
 		}
+		if (groupCommitWindow >= 0) {
+			m.add(implNode, LmdbStoreSchema.GROUP_COMMIT_WINDOW, vf.createLiteral(groupCommitWindow));
+		}
+		if (onlineReindex) {
+			m.add(implNode, LmdbStoreSchema.ONLINE_REINDEX, vf.createLiteral(true));
+		}
+		if (bulkLoadThreshold >= 0) {
+			m.add(implNode, LmdbStoreSchema.BULK_LOAD_THRESHOLD, vf.createLiteral(bulkLoadThreshold));
+		}
 		return implNode;
 	}
 
@@ -274,6 +359,17 @@ public class LmdbStoreConfig extends BaseSailConfig {
 						}
 					});
 
+			Models.objectLiteral(m.getStatements(implNode, LmdbStoreSchema.VALUE_CACHE_MEMORY, null))
+					.ifPresent(lit -> {
+						try {
+							setValueCacheMemory(lit.longValue());
+						} catch (NumberFormatException e) {
+							throw new SailConfigException(
+									"Long value required for " + LmdbStoreSchema.VALUE_CACHE_MEMORY
+											+ " property, found " + lit);
+						}
+					});
+
 			Models.objectLiteral(m.getStatements(implNode, LmdbStoreSchema.NAMESPACE_CACHE_SIZE, null))
 					.ifPresent(lit -> {
 						try {
@@ -304,6 +400,38 @@ public class LmdbStoreConfig extends BaseSailConfig {
 							"Boolean value required for " + LmdbStoreSchema.AUTO_GROW + " property, found " + lit);
 				}
 			});
+
+			Models.objectLiteral(m.getStatements(implNode, LmdbStoreSchema.GROUP_COMMIT_WINDOW, null))
+					.ifPresent(lit -> {
+						try {
+							setGroupCommitWindow(lit.longValue());
+						} catch (NumberFormatException e) {
+							throw new SailConfigException(
+									"Long value required for " + LmdbStoreSchema.GROUP_COMMIT_WINDOW
+											+ " property, found " + lit);
+						}
+					});
+
+			Models.objectLiteral(m.getStatements(implNode, LmdbStoreSchema.ONLINE_REINDEX, null)).ifPresent(lit -> {
+				try {
+					setOnlineReindex(lit.booleanValue());
+				} catch (IllegalArgumentException e) {
+					throw new SailConfigException(
+							"Boolean value required for " + LmdbStoreSchema.ONLINE_REINDEX + " property, found "
+									+ lit);
+				}
+			});
+
+			Models.objectLiteral(m.getStatements(implNode, LmdbStoreSchema.BULK_LOAD_THRESHOLD, null))
+					.ifPresent(lit -> {
+						try {
+							setBulkLoadThreshold(lit.intValue());
+						} catch (NumberFormatException e) {
+							throw new SailConfigException(
+									"Integer value required for " + LmdbStoreSchema.BULK_LOAD_THRESHOLD
+											+ " property, found " + lit);
+						}
+					});
 		} catch (ModelException e) {
 			throw new SailConfigException(e.getMessage(), e);
 		}
@@ -56,6 +56,11 @@ public class LmdbStoreSchema {
 	 */
 	public final static IRI VALUE_ID_CACHE_SIZE;
 
+	/**
+	 * <tt>http://rdf4j.org/config/sail/lmdb#valueCacheMemory</tt>
+	 */
+	public final static IRI VALUE_CACHE_MEMORY;
+
 	/**
 	 * <tt>http://rdf4j.org/config/sail/lmdb#namespaceCacheSize</tt>
 	 */
@@ -71,6 +76,21 @@ public class LmdbStoreSchema {
 	 */
 	public final static IRI AUTO_GROW;
 
+	/**
+	 * <tt>http://rdf4j.org/config/sail/lmdb#groupCommitWindow</tt>
+	 */
+	public final static IRI GROUP_COMMIT_WINDOW;
+
+	/**
+	 * <tt>http://rdf4j.org/config/sail/lmdb#onlineReindex</tt>
+	 */
+	public final static IRI ONLINE_REINDEX;
+
+	/**
+	 * <tt>http://rdf4j.org/config/sail/lmdb#bulkLoadThreshold</tt>
+	 */
+	public final static IRI BULK_LOAD_THRESHOLD;
+
 	static {
 		ValueFactory factory = SimpleValueFactory.getInstance();
 		TRIPLE_INDEXES = factory.createIRI(NAMESPACE, "tripleIndexes");
@@ -79,8 +99,12 @@ public class LmdbStoreSchema {
 		VALUE_DB_SIZE = factory.createIRI(NAMESPACE, "valueDBSize");
 		VALUE_CACHE_SIZE = factory.createIRI(NAMESPACE, "valueCacheSize");
 		VALUE_ID_CACHE_SIZE = factory.createIRI(NAMESPACE, "valueIDCacheSize");
+		VALUE_CACHE_MEMORY = factory.createIRI(NAMESPACE, "valueCacheMemory");
 		NAMESPACE_CACHE_SIZE = factory.createIRI(NAMESPACE, "namespaceCacheSize");
 		NAMESPACE_ID_CACHE_SIZE = factory.createIRI(NAMESPACE, "namespaceIDCacheSize");
 		AUTO_GROW = factory.createIRI(NAMESPACE, "autoGrow");
+		GROUP_COMMIT_WINDOW = factory.createIRI(NAMESPACE, "groupCommitWindow");
+		ONLINE_REINDEX = factory.createIRI(NAMESPACE, "onlineReindex");
+		BULK_LOAD_THRESHOLD = factory.createIRI(NAMESPACE, "bulkLoadThreshold");
 	}
 }
@@ -11,14 +11,16 @@
 package org.eclipse.rdf4j.sail.lmdb.model;
 
 import java.io.ObjectStreamException;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.base.AbstractLiteral;
 import org.eclipse.rdf4j.model.base.CoreDatatype;
+import org.eclipse.rdf4j.model.base.Utf8Label;
 import org.eclipse.rdf4j.sail.lmdb.ValueStoreRevision;
 
-public class LmdbLiteral extends AbstractLiteral implements LmdbValue {
+public class LmdbLiteral extends AbstractLiteral implements LmdbValue, Utf8Label {
 
 	/*-----------*
 	 * Constants *
@@ -33,7 +35,12 @@ public class LmdbLiteral extends AbstractLiteral implements LmdbValue {
 	/**
 	 * The literal's label.
 	 */
-	private String label;
+	private volatile String label;
+
+	/**
+	 * The literal's UTF-8 encoded label as read from the value store, which is decoded on first use.
+	 */
+	private volatile byte[] labelData;
 
 	/**
 	 * The literal's language tag.
@@ -175,11 +182,39 @@ public class LmdbLiteral extends AbstractLiteral implements LmdbValue {
 	@Override
 	public String getLabel() {
 		init();
+		String label = this.label;
+		if (label == null) {
+			byte[] data = labelData;
+			if (data == null) {
+				// decoded concurrently, the label is assigned before the encoded form is released
+				return this.label;
+			}
+			label = new String(data, StandardCharsets.UTF_8);
+			this.label = label;
+			labelData = null;
+		}
 		return label;
 	}
 
 	public void setLabel(String label) {
 		this.label = label;
+		this.labelData = null;
+	}
+
+	/**
+	 * Sets the UTF-8 encoded label, which is only decoded when the label is first requested.
+	 *
+	 * @param labelData the encoded label, which must not be modified afterwards
+	 */
+	public void setLabel(byte[] labelData) {
+		this.label = null;
+		this.labelData = labelData;
+	}
+
+	@Override
+	public byte[] getLabelUtf8() {
+		init();
+		return labelData;
 	}
 
 	@Override
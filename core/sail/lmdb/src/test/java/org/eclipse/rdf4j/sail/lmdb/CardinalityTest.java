@@ -10,6 +10,18 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.sail.lmdb;
 
+import static org.eclipse.rdf4j.sail.lmdb.LmdbUtil.E;
+import static org.eclipse.rdf4j.sail.lmdb.LmdbUtil.openDatabase;
+import static org.eclipse.rdf4j.sail.lmdb.LmdbUtil.transaction;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.lwjgl.system.MemoryStack.stackPush;
+import static org.lwjgl.util.lmdb.LMDB.MDB_NOTLS;
+import static org.lwjgl.util.lmdb.LMDB.mdb_drop;
+import static org.lwjgl.util.lmdb.LMDB.mdb_env_close;
+import static org.lwjgl.util.lmdb.LMDB.mdb_env_create;
+import static org.lwjgl.util.lmdb.LMDB.mdb_env_open;
+import static org.lwjgl.util.lmdb.LMDB.mdb_env_set_maxdbs;
+
 import java.io.File;
 import java.util.Random;
 
@@ -20,6 +32,8 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryStack;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,9 +48,11 @@ public class CardinalityTest {
 
 	protected TripleStore tripleStore;
 
+	private File dataDir;
+
 	@BeforeEach
 	public void before() throws Exception {
-		File dataDir = new File(tempFolder, "triplestore");
+		dataDir = new File(tempFolder, "triplestore");
 		dataDir.mkdir();
 		tripleStore = new TripleStore(dataDir, new LmdbStoreConfig("spoc,posc"));
 	}
@@ -81,6 +97,86 @@ public class CardinalityTest {
 		}
 	}
 
+	@Test
+	public void testPredicateStatistics() throws Exception {
+		long pred = 10, other = 11, frequentObj = 7;
+		tripleStore.startTransaction();
+		for (int subj = 1000; subj < 2000; subj++) {
+			tripleStore.storeTriple(subj, pred, subj % 2 == 0 ? frequentObj : 100_000 + subj, 1, true);
+		}
+		for (int subj = 1000; subj < 1010; subj++) {
+			tripleStore.storeTriple(subj, other, frequentObj, 0, true);
+		}
+		tripleStore.commit();
+
+		assertEquals(1000, tripleStore.cardinality(-1, pred, -1, -1));
+		assertEquals(10, tripleStore.cardinality(-1, other, -1, -1));
+		assertEquals(500, tripleStore.cardinality(-1, pred, frequentObj, -1));
+		assertEquals(1, tripleStore.cardinality(1500, pred, -1, -1), 0.2);
+		assertEquals(1, tripleStore.cardinality(-1, pred, 101_501, -1), 0.2);
+		assertEquals(1000, tripleStore.cardinality(-1, -1, -1, 1));
+
+		// changes are only visible after commit
+		tripleStore.startTransaction();
+		tripleStore.storeTriple(1, 12, 1, 0, true);
+		tripleStore.removeTriplesByContext(-1, other, -1, -1, true, quad -> {
+		});
+		assertEquals(10, tripleStore.cardinality(-1, other, -1, -1));
+		tripleStore.rollback();
+		assertEquals(0, tripleStore.cardinality(-1, 12, -1, -1));
+		assertEquals(10, tripleStore.cardinality(-1, other, -1, -1));
+
+		tripleStore.startTransaction();
+		tripleStore.removeTriplesByContext(-1, other, -1, -1, true, quad -> {
+		});
+		tripleStore.commit();
+		assertEquals(0, tripleStore.cardinality(-1, other, -1, -1));
+
+		// statistics are persistent
+		tripleStore.close();
+		tripleStore = new TripleStore(dataDir, new LmdbStoreConfig("spoc,posc"));
+		assertEquals(1000, tripleStore.cardinality(-1, pred, -1, -1));
+		assertEquals(500, tripleStore.cardinality(-1, pred, frequentObj, -1));
+	}
+
+	@Test
+	public void testInitialPredicateStatisticsCountQuadsOnce() throws Exception {
+		long pred = 10;
+		tripleStore.startTransaction();
+		for (int subj = 1000; subj < 1010; subj++) {
+			tripleStore.storeTriple(subj, pred, 1, 0, true);
+		}
+		tripleStore.storeTriple(2000, pred, 1, 0, false);
+		tripleStore.commit();
+		// a quad that has been inferred after it was stated is kept in both the explicit and the implicit index
+		tripleStore.startTransaction();
+		tripleStore.storeTriple(1000, pred, 1, 0, false);
+		tripleStore.commit();
+		tripleStore.close();
+
+		// remove the statistics, as if the store had been created by a version without statistics
+		long env;
+		try (MemoryStack stack = stackPush()) {
+			PointerBuffer pp = stack.mallocPointer(1);
+			E(mdb_env_create(pp));
+			env = pp.get(0);
+		}
+		try {
+			E(mdb_env_set_maxdbs(env, 32));
+			E(mdb_env_open(env, dataDir.getAbsolutePath(), MDB_NOTLS, 0664));
+			int dbi = openDatabase(env, "statistics", 0, null);
+			transaction(env, (stack, txn) -> {
+				E(mdb_drop(txn, dbi, false));
+				return null;
+			});
+		} finally {
+			mdb_env_close(env);
+		}
+
+		tripleStore = new TripleStore(dataDir, new LmdbStoreConfig("spoc,posc"));
+		assertEquals(11, tripleStore.cardinality(-1, pred, -1, -1));
+	}
+
 	@AfterEach
 	public void after() throws Exception {
 		tripleStore.close();
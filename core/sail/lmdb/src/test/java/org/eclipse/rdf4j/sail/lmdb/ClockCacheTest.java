@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ClockCache}.
+ */
+public class ClockCacheTest {
+
+	@Test
+	public void testCapacityIsRespected() {
+		ClockCache<Long, String> cache = new ClockCache<>(1000);
+		for (long i = 0; i < 10_000; i++) {
+			cache.put(i, "value" + i, 1);
+		}
+		assertTrue(cache.getWeight() <= 1000);
+		assertEquals(cache.getSize(), cache.getWeight());
+		assertEquals(10_000 - cache.getSize(), cache.getEvictionCount());
+	}
+
+	@Test
+	public void testWeights() {
+		ClockCache<Long, String> cache = new ClockCache<>(10);
+		cache.put(1L, "small", 2);
+		assertEquals("small", cache.get(1L));
+		cache.put(2L, "large", 100);
+		assertNull(cache.get(2L));
+		assertEquals("small", cache.get(1L));
+		assertEquals(2, cache.getWeight());
+	}
+
+	@Test
+	public void testRecentlyUsedEntriesSurvive() {
+		// a single stripe
+		ClockCache<Long, String> cache = new ClockCache<>(16);
+		for (long i = 0; i < 16; i++) {
+			cache.put(i, "value" + i, 1);
+		}
+		for (long round = 0; round < 10; round++) {
+			assertNotNull(cache.get(0L));
+			cache.put(100 + round, "other", 1);
+		}
+		assertEquals("value0", cache.get(0L));
+	}
+
+	@Test
+	public void testReplace() {
+		ClockCache<Long, String> cache = new ClockCache<>(16);
+		for (int i = 0; i < 100; i++) {
+			cache.put(1L, "value" + i, 1);
+		}
+		assertEquals("value99", cache.get(1L));
+		assertEquals(1, cache.getSize());
+		assertEquals(1, cache.getWeight());
+	}
+
+	@Test
+	public void testSetCapacity() {
+		ClockCache<Long, String> cache = new ClockCache<>(1024);
+		for (long i = 0; i < 1024; i++) {
+			cache.put(i, "value" + i, 1);
+		}
+		cache.setCapacity(100);
+		assertTrue(cache.getWeight() <= 100);
+		cache.setCapacity(2048);
+		for (long i = 0; i < 2048; i++) {
+			cache.put(i, "value" + i, 1);
+		}
+		assertTrue(cache.getWeight() > 1024);
+	}
+
+	@Test
+	public void testStatistics() {
+		ClockCache<Long, String> cache = new ClockCache<>(16);
+		assertTrue(Double.isNaN(cache.getHitRate()));
+		cache.put(1L, "one", 1);
+		cache.get(1L);
+		cache.get(1L);
+		cache.get(1L);
+		cache.get(2L);
+		assertEquals(3, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(0.75, cache.getHitRate());
+		cache.resetStatistics();
+		assertEquals(0, cache.getHitCount());
+		assertEquals(0, cache.getMissCount());
+	}
+
+	@Test
+	public void testClear() {
+		ClockCache<Long, String> cache = new ClockCache<>(100);
+		for (long i = 0; i < 50; i++) {
+			cache.put(i, "value" + i, 1);
+		}
+		cache.clear();
+		assertEquals(0, cache.getSize());
+		assertEquals(0, cache.getWeight());
+		assertNull(cache.get(1L));
+	}
+}
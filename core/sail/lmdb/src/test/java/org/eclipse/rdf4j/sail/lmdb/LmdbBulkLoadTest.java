@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.lmdb.config.LmdbStoreConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for adding large transactions to the {@link LmdbStore} in bulk.
+ */
+public class LmdbBulkLoadTest {
+
+	private static final int COUNT = 1000;
+
+	private final ValueFactory F = SimpleValueFactory.getInstance();
+
+	private final IRI CTX = F.createIRI("urn:ctx");
+
+	@TempDir
+	File dataDir;
+
+	private SailRepository createRepository() {
+		LmdbStore sail = new LmdbStore(dataDir, new LmdbStoreConfig("spoc,posc,cspo").setBulkLoadThreshold(100));
+		SailRepository repo = new SailRepository(sail);
+		repo.init();
+		return repo;
+	}
+
+	private void addStatements(RepositoryConnection conn, int from, int to) {
+		for (int i = from; i < to; i++) {
+			IRI subj = F.createIRI("http://example.org/" + i);
+			conn.add(subj, RDF.TYPE, RDFS.RESOURCE);
+			conn.add(subj, RDFS.LABEL, F.createLiteral(i), i % 2 == 0 ? CTX : null);
+		}
+	}
+
+	@Test
+	public void testBulkLoad() {
+		SailRepository repo = createRepository();
+		try (RepositoryConnection conn = repo.getConnection()) {
+			// below the threshold
+			conn.begin();
+			addStatements(conn, 0, 10);
+			conn.commit();
+
+			// overlapping with the existing statements
+			conn.begin(IsolationLevels.NONE);
+			addStatements(conn, 5, COUNT / 2);
+			conn.commit();
+
+			conn.begin(IsolationLevels.SNAPSHOT_READ);
+			addStatements(conn, COUNT / 2, COUNT);
+			conn.commit();
+
+			assertEquals(2 * COUNT, conn.size());
+			assertEquals(COUNT / 2, conn.size(CTX));
+			assertEquals(COUNT, Iterations.asList(conn.getStatements(null, RDF.TYPE, RDFS.RESOURCE, false)).size());
+			assertEquals(1, Iterations.asList(conn.getContextIDs()).size());
+		} finally {
+			repo.shutDown();
+		}
+
+		repo = createRepository();
+		try (RepositoryConnection conn = repo.getConnection()) {
+			assertEquals(2 * COUNT, conn.size());
+			assertTrue(conn.hasStatement(F.createIRI("http://example.org/" + (COUNT - 2)), RDFS.LABEL,
+					F.createLiteral(COUNT - 2), false, CTX));
+
+			conn.begin();
+			conn.remove((IRI) null, null, null, CTX);
+			conn.commit();
+			assertEquals(0, Iterations.asList(conn.getContextIDs()).size());
+			assertEquals(COUNT + COUNT / 2, conn.size());
+		} finally {
+			repo.shutDown();
+		}
+	}
+
+	@Test
+	public void testBulkLoadThresholdConfig() {
+		assertEquals(LmdbStoreConfig.BULK_LOAD_THRESHOLD, new LmdbStoreConfig().getBulkLoadThreshold());
+
+		Model model = new LinkedHashModel();
+		Resource implNode = new LmdbStoreConfig().setBulkLoadThreshold(5000).export(model);
+		LmdbStoreConfig parsed = new LmdbStoreConfig();
+		parsed.parse(model, implNode);
+		assertEquals(5000, parsed.getBulkLoadThreshold());
+	}
+}
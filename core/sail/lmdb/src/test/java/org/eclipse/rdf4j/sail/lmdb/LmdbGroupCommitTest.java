@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.lmdb.config.LmdbStoreConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the group commit mode of the {@link LmdbStore}.
+ */
+public class LmdbGroupCommitTest {
+
+	private static final int WRITERS = 8;
+
+	private static final int TRANSACTIONS = 50;
+
+	@TempDir
+	File dataDir;
+
+	private SailRepository createRepository() {
+		LmdbStoreConfig config = new LmdbStoreConfig("spoc,posc", true).setGroupCommitWindow(1);
+		SailRepository repo = new SailRepository(new LmdbStore(dataDir, config));
+		repo.init();
+		return repo;
+	}
+
+	@Test
+	public void testConcurrentCommits() throws Exception {
+		SailRepository repo = createRepository();
+		ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int w = 0; w < WRITERS; w++) {
+				int writer = w;
+				futures.add(executor.submit(() -> {
+					try (RepositoryConnection conn = repo.getConnection()) {
+						ValueFactory vf = conn.getValueFactory();
+						for (int i = 0; i < TRANSACTIONS; i++) {
+							conn.begin(IsolationLevels.SNAPSHOT_READ);
+							IRI subj = vf.createIRI("http://example.org/" + writer + "/" + i);
+							conn.add(subj, RDFS.LABEL, vf.createLiteral(i));
+							conn.commit();
+							assertTrue(conn.hasStatement(subj, RDFS.LABEL, null, false));
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(1, TimeUnit.MINUTES);
+			}
+		} finally {
+			executor.shutdownNow();
+			repo.shutDown();
+		}
+
+		SailRepository reopened = createRepository();
+		try (RepositoryConnection conn = reopened.getConnection()) {
+			assertEquals(WRITERS * TRANSACTIONS, conn.size());
+		} finally {
+			reopened.shutDown();
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.lmdb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.File;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.query.QueryResults;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.lmdb.config.LmdbStoreConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for changing the triple indexes of a {@link LmdbStore} while it is in use.
+ */
+public class LmdbReindexTest {
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	private final IRI ctx = vf.createIRI("http://example.org/ctx");
+
+	@TempDir
+	File dataDir;
+
+	private void addStatements(RepositoryConnection conn, Model expected, int start, int count) {
+		conn.begin();
+		for (int i = start; i < start + count; i++) {
+			IRI subj = vf.createIRI("http://example.org/s" + i);
+			conn.add(subj, RDFS.LABEL, vf.createLiteral("label " + i));
+			conn.add(subj, RDFS.COMMENT, vf.createLiteral(i), ctx);
+			expected.add(subj, RDFS.LABEL, vf.createLiteral("label " + i));
+			expected.add(subj, RDFS.COMMENT, vf.createLiteral(i), ctx);
+		}
+		conn.commit();
+	}
+
+	private static void assertContents(Model expected, SailRepository repo) {
+		try (RepositoryConnection conn = repo.getConnection()) {
+			assertEquals(expected, QueryResults.asModel(conn.getStatements(null, null, null, false)));
+			assertEquals(expected.filter(null, RDFS.COMMENT, null).size(),
+					QueryResults.asModel(conn.getStatements(null, RDFS.COMMENT, null, false)).size());
+			assertEquals(expected.filter(null, null, null, (IRI) null).size(),
+					QueryResults.asModel(conn.getStatements(null, null, null, false, (IRI) null)).size());
+		}
+	}
+
+	@Test
+	public void testReindexWhileUpdating() throws Exception {
+		Model expected = new LinkedHashModel();
+		LmdbStore sail = new LmdbStore(dataDir, new LmdbStoreConfig("spoc"));
+		SailRepository repo = new SailRepository(sail);
+		repo.init();
+		try (RepositoryConnection conn = repo.getConnection()) {
+			addStatements(conn, expected, 0, 20000);
+
+			sail.reindex("posc,cspo");
+			for (int i = 0; i < 20; i++) {
+				addStatements(conn, expected, 20000 + i * 10, 10);
+
+				IRI subj = vf.createIRI("http://example.org/s" + i * 100);
+				conn.remove(subj, null, null);
+				expected.remove(subj, null, null);
+			}
+
+			sail.awaitReindex();
+			assertFalse(sail.isReindexing());
+			assertEquals(1.0, sail.getReindexProgress());
+		}
+		assertContents(expected, repo);
+		repo.shutDown();
+
+		repo = new SailRepository(new LmdbStore(dataDir, new LmdbStoreConfig()));
+		repo.init();
+		assertContents(expected, repo);
+		repo.shutDown();
+	}
+
+	@Test
+	public void testOnlineReindexOnInit() throws Exception {
+		Model expected = new LinkedHashModel();
+		SailRepository repo = new SailRepository(new LmdbStore(dataDir, new LmdbStoreConfig("spoc,posc")));
+		repo.init();
+		try (RepositoryConnection conn = repo.getConnection()) {
+			addStatements(conn, expected, 0, 1000);
+		}
+		repo.shutDown();
+
+		LmdbStore sail = new LmdbStore(dataDir, new LmdbStoreConfig("spoc,opsc").setOnlineReindex(true));
+		repo = new SailRepository(sail);
+		repo.init();
+		sail.awaitReindex();
+		assertContents(expected, repo);
+		repo.shutDown();
+	}
+}
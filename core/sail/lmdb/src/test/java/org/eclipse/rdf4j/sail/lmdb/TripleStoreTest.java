@@ -11,14 +11,23 @@
 package org.eclipse.rdf4j.sail.lmdb;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
+import org.eclipse.rdf4j.common.order.StatementOrder;
 import org.eclipse.rdf4j.sail.lmdb.TxnManager.Txn;
 import org.eclipse.rdf4j.sail.lmdb.config.LmdbStoreConfig;
 import org.junit.jupiter.api.AfterEach;
@@ -89,6 +98,110 @@ public class TripleStoreTest {
 		assertEquals(Arrays.asList(6L, 7L, 8L), removed.stream().sorted().collect(Collectors.toList()));
 	}
 
+	@Test
+	public void testStoreTriples(@TempDir File tmpDir) throws Exception {
+		tripleStore.startTransaction();
+		tripleStore.storeTriple(1, 2, 3, 1, false);
+		tripleStore.storeTriple(1, 2, 4, 0, true);
+		tripleStore.commit();
+
+		// a small run size to merge multiple runs
+		List<long[]> handled = new ArrayList<>();
+		try (QuadSorter quads = new QuadSorter(tmpDir, new int[] { 0, 1, 2, 3 }, 2)) {
+			quads.add(new long[] { 5, 2, 3, 1 });
+			quads.add(new long[] { 1, 2, 4, 0 });
+			quads.add(new long[] { 1, 2, 3, 1 });
+			quads.add(new long[] { 4, 2, 3, 0 });
+			quads.add(new long[] { 5, 2, 3, 1 });
+
+			tripleStore.startTransaction();
+			assertEquals(3, tripleStore.storeTriples(quads, true, handled::add));
+			tripleStore.commit();
+		}
+		assertEquals(Arrays.asList(1L, 1L, 4L, 5L),
+				handled.stream().map(quad -> quad[0]).collect(Collectors.toList()));
+
+		try (Txn txn = tripleStore.getTxnManager().createReadTxn()) {
+			assertEquals("Store should have 0 inferred statements", 0,
+					count(tripleStore.getTriples(txn, -1, -1, -1, -1, false)));
+			assertEquals("Store should have 4 explicit statements", 4,
+					count(tripleStore.getTriples(txn, -1, -1, -1, -1, true)));
+			// uses the posc index
+			assertEquals(Arrays.asList(1L, 4L, 5L), component(tripleStore.getTriples(txn, -1, 2, 3, -1, true), 0)
+					.stream()
+					.sorted()
+					.collect(Collectors.toList()));
+		}
+	}
+
+	@Test
+	public void testSupportedOrders() throws Exception {
+		assertEquals(EnumSet.of(StatementOrder.S, StatementOrder.P), tripleStore.getSupportedOrders(-1, -1, -1, -1));
+		assertEquals(EnumSet.of(StatementOrder.S, StatementOrder.P), tripleStore.getSupportedOrders(1, -1, -1, -1));
+		assertEquals(EnumSet.of(StatementOrder.S, StatementOrder.P, StatementOrder.O),
+				tripleStore.getSupportedOrders(-1, 2, -1, -1));
+		assertEquals(EnumSet.of(StatementOrder.S, StatementOrder.P, StatementOrder.O),
+				tripleStore.getSupportedOrders(1, 2, -1, -1));
+		assertEquals(EnumSet.allOf(StatementOrder.class), tripleStore.getSupportedOrders(-1, -1, 3, 1));
+	}
+
+	@Test
+	public void testOrderedTriples() throws Exception {
+		tripleStore.startTransaction();
+		tripleStore.storeTriple(9, 2, 3, 0, true);
+		tripleStore.storeTriple(5, 2, 7, 0, true);
+		tripleStore.storeTriple(7, 2, 5, 0, true);
+		tripleStore.storeTriple(1, 2, 9, 0, true);
+		tripleStore.storeTriple(3, 4, 1, 0, true);
+		tripleStore.commit();
+
+		try (Txn txn = tripleStore.getTxnManager().createReadTxn()) {
+			assertEquals(Arrays.asList(3L, 5L, 7L, 9L),
+					component(tripleStore.getTriples(txn, -1, 2, -1, -1, true, StatementOrder.O),
+							TripleStore.OBJ_IDX));
+			assertEquals(Arrays.asList(1L, 5L, 7L, 9L),
+					component(tripleStore.getTriples(txn, -1, 2, -1, -1, true, StatementOrder.S),
+							TripleStore.SUBJ_IDX));
+			assertNull(tripleStore.getTriples(txn, -1, -1, -1, -1, true, StatementOrder.O));
+		}
+	}
+
+	@Test
+	public void testStartTransactionInterruptible() throws Exception {
+		tripleStore.startTransaction();
+		try {
+			AtomicReference<Exception> failure = new AtomicReference<>();
+			Thread waiter = new Thread(() -> {
+				try {
+					tripleStore.startTransaction();
+				} catch (Exception e) {
+					failure.set(e);
+				}
+			});
+			waiter.start();
+			while (waiter.getState() != Thread.State.WAITING) {
+				Thread.sleep(10);
+			}
+			waiter.interrupt();
+			waiter.join(TimeUnit.SECONDS.toMillis(10));
+			assertFalse(waiter.isAlive());
+			assertTrue(failure.get() instanceof InterruptedIOException);
+		} finally {
+			tripleStore.commit();
+		}
+	}
+
+	List<Long> component(RecordIterator it, int idx) {
+		List<Long> values = new ArrayList<>();
+		try (it) {
+			long[] quad;
+			while ((quad = it.next()) != null) {
+				values.add(quad[idx]);
+			}
+		}
+		return values;
+	}
+
 	@AfterEach
 	public void after() throws Exception {
 		tripleStore.close();
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.sail.lmdb;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
@@ -18,6 +19,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -29,6 +31,7 @@ import java.util.Set;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.vocabulary.XSD;
 import org.eclipse.rdf4j.sail.lmdb.config.LmdbStoreConfig;
 import org.eclipse.rdf4j.sail.lmdb.model.LmdbLiteral;
@@ -221,6 +224,76 @@ public class ValueStoreTest {
 		}
 	}
 
+	@Test
+	public void testStoreValues() throws Exception {
+		SimpleValueFactory vf = SimpleValueFactory.getInstance();
+		Value[] values = new Value[5000];
+		for (int i = 0; i < values.length; i++) {
+			switch (i % 3) {
+			case 0:
+				values[i] = vf.createIRI("http://example.org/ns" + (i % 10) + "/", "r" + i);
+				break;
+			case 1:
+				// longer than the maximal key size
+				values[i] = vf.createLiteral("This is a long literal " + i);
+				break;
+			default:
+				values[i] = vf.createLiteral(i);
+			}
+		}
+
+		// committed values
+		valueStore.startTransaction(true);
+		for (int i = 0; i < 2000; i++) {
+			valueStore.storeValue(values[i]);
+		}
+		valueStore.commit();
+
+		valueStore.startTransaction(true);
+		// values that are not visible to read transactions
+		for (int i = 2000; i < 3000; i++) {
+			valueStore.storeValue(values[i]);
+		}
+		long[] ids = valueStore.storeValues(values);
+		valueStore.commit();
+
+		Set<Long> distinctIds = new HashSet<>();
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(values[i], valueStore.getValue(ids[i]));
+			assertEquals(ids[i], valueStore.getId(values[i]));
+			distinctIds.add(ids[i]);
+		}
+		assertEquals(values.length, distinctIds.size());
+	}
+
+	@Test
+	public void testEncodedLabels() throws Exception {
+		SimpleValueFactory vf = SimpleValueFactory.getInstance();
+		Literal[] literals = { vf.createLiteral("plain \u00e4\u00f6\u00fc \ud83d\ude00"),
+				vf.createLiteral("tagged", "de"), vf.createLiteral(42), vf.createLiteral("") };
+		long[] ids = new long[literals.length];
+		valueStore.startTransaction(true);
+		for (int i = 0; i < literals.length; i++) {
+			ids[i] = valueStore.storeValue(literals[i]);
+		}
+		valueStore.commit();
+		valueStore.clearCaches();
+
+		for (int i = 0; i < literals.length; i++) {
+			LmdbLiteral value = (LmdbLiteral) valueStore.getValue(ids[i]);
+			assertArrayEquals(literals[i].getLabel().getBytes(StandardCharsets.UTF_8), value.getLabelUtf8());
+			assertEquals(literals[i], value);
+			// the encoded label is released once it has been decoded
+			assertNull(value.getLabelUtf8());
+			assertEquals(literals[i].getLabel(), value.getLabel());
+
+			LmdbLiteral lazyValue = new LmdbLiteral(valueStore.getRevision(), ids[i]);
+			assertEquals(literals[i].getLanguage(), lazyValue.getLanguage());
+			assertEquals(literals[i].getDatatype(), lazyValue.getDatatype());
+			assertEquals(literals[i].getLabel(), lazyValue.getLabel());
+		}
+	}
+
 	@AfterEach
 	public void after() throws Exception {
 		valueStore.close();
@@ -13,6 +13,8 @@ package org.eclipse.rdf4j.sail.lmdb.benchmark;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.FileUtils;
@@ -29,10 +31,12 @@ import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
@@ -40,7 +44,8 @@ import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 /**
- * Benchmarks insertion performance with synthetic data.
+ * Benchmarks insertion performance with synthetic data. The concurrent benchmarks show the throughput gained by
+ * grouping the syncs of concurrent commits.
  */
 @State(Scope.Benchmark)
 @Warmup(iterations = 20)
@@ -51,12 +56,37 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 @OutputTimeUnit(TimeUnit.SECONDS)
 public class TransactionsPerSecondForceSyncBenchmark {
 
+	/**
+	 * The group commit window in milliseconds, <tt>-1</tt> syncs every commit on its own.
+	 */
+	@Param({ "-1", "0", "1" })
+	public long groupCommitWindow;
+
 	private SailRepository repository;
 	private File file;
 
 	SailRepositoryConnection connection;
 	int i;
 
+	private final List<SailRepositoryConnection> writerConnections = new CopyOnWriteArrayList<>();
+
+	/**
+	 * A connection for each thread of the concurrent benchmarks.
+	 */
+	@State(Scope.Thread)
+	public static class Writer {
+
+		SailRepositoryConnection connection;
+		int i;
+
+		@Setup(Level.Iteration)
+		public void beforeIteration(TransactionsPerSecondForceSyncBenchmark benchmark) {
+			i = 0;
+			connection = benchmark.repository.getConnection();
+			benchmark.writerConnections.add(connection);
+		}
+	}
+
 	public static void main(String[] args) throws RunnerException {
 		Options opt = new OptionsBuilder()
 				.include("TransactionsPerSecondForceSyncBenchmark") // adapt to control which benchmark tests to run
@@ -75,7 +105,8 @@ public class TransactionsPerSecondForceSyncBenchmark {
 		i = 0;
 		file = Files.newTemporaryFolder();
 
-		LmdbStore sail = new LmdbStore(file, ConfigUtil.createConfig().setForceSync(true));
+		LmdbStore sail = new LmdbStore(file,
+				ConfigUtil.createConfig().setForceSync(true).setGroupCommitWindow(groupCommitWindow));
 		repository = new SailRepository(sail);
 		connection = repository.getConnection();
 
@@ -89,6 +120,10 @@ public class TransactionsPerSecondForceSyncBenchmark {
 			connection.close();
 			connection = null;
 		}
+		for (SailRepositoryConnection writerConnection : writerConnections) {
+			writerConnection.close();
+		}
+		writerConnections.clear();
 		repository.shutDown();
 		FileUtils.deleteDirectory(file);
 
@@ -143,4 +178,24 @@ public class TransactionsPerSecondForceSyncBenchmark {
 		}
 		connection.commit();
 	}
+
+	@Benchmark
+	@Threads(8)
+	public void concurrentTransactions(Writer writer) {
+		SailRepositoryConnection connection = writer.connection;
+		connection.begin();
+		connection.add(RDFS.RESOURCE, RDFS.LABEL,
+				connection.getValueFactory().createLiteral(Thread.currentThread().getId() + "_" + writer.i++));
+		connection.commit();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public void concurrentTransactionsLevelNone(Writer writer) {
+		SailRepositoryConnection connection = writer.connection;
+		connection.begin(IsolationLevels.NONE);
+		connection.add(RDFS.RESOURCE, RDFS.LABEL,
+				connection.getValueFactory().createLiteral(Thread.currentThread().getId() + "_" + writer.i++));
+		connection.commit();
+	}
 }
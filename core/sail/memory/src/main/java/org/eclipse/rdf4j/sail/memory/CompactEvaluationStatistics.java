@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import java.util.function.Supplier;
+
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+
+/**
+ * Uses the sizes of the row lists of a {@link CompactStatementTable} to give cost estimates, in the same way as
+ * {@link MemEvaluationStatistics} uses the statement lists of the values.
+ */
+class CompactEvaluationStatistics extends EvaluationStatistics {
+
+	private final CompactValueDictionary dictionary;
+	private final Supplier<CompactStatementTable> table;
+
+	CompactEvaluationStatistics(CompactValueDictionary dictionary, Supplier<CompactStatementTable> table) {
+		this.dictionary = dictionary;
+		this.table = table;
+	}
+
+	@Override
+	protected CardinalityCalculator createCardinalityCalculator() {
+		return new CompactCardinalityCalculator();
+	}
+
+	protected class CompactCardinalityCalculator extends CardinalityCalculator {
+
+		@Override
+		public double getCardinality(StatementPattern sp) {
+
+			Value subj = getConstantValue(sp.getSubjectVar());
+			if (!(subj != null && subj.isResource())) {
+				// can happen when a previous optimizer has inlined a comparison operator
+				subj = null;
+			}
+			Value pred = getConstantValue(sp.getPredicateVar());
+			if (!(pred != null && pred.isIRI())) {
+				pred = null;
+			}
+			Value obj = getConstantValue(sp.getObjectVar());
+			Value context = getConstantValue(sp.getContextVar());
+			if (!(context != null && context.isResource())) {
+				context = null;
+			}
+
+			CompactStatementTable table = CompactEvaluationStatistics.this.table.get();
+			int min = table.size();
+			Value[] values = { subj, pred, obj, context };
+			int[] positions = { CompactStatementTable.SUBJECT, CompactStatementTable.PREDICATE,
+					CompactStatementTable.OBJECT, CompactStatementTable.CONTEXT };
+			for (int i = 0; i < values.length; i++) {
+				if (values[i] != null) {
+					int id = dictionary.getId(values[i]);
+					if (id == CompactValueDictionary.NULL_ID) {
+						// there are no statements with a value that is not in the dictionary
+						return 0;
+					}
+					min = Math.min(min, table.count(positions[i], id));
+					if (min == 0) {
+						return 0;
+					}
+				}
+			}
+			return min;
+		}
+
+		protected Value getConstantValue(Var var) {
+			if (var != null) {
+				return var.getValue();
+			}
+
+			return null;
+		}
+	}
+}
@@ -0,0 +1,938 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.time.StopWatch;
+import org.eclipse.rdf4j.common.concurrent.locks.ExclusiveReentrantLockManager;
+import org.eclipse.rdf4j.common.concurrent.locks.Lock;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
+import org.eclipse.rdf4j.common.iteration.EmptyIteration;
+import org.eclipse.rdf4j.common.transaction.IsolationLevel;
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Namespace;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Triple;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.GenericStatement;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.eclipse.rdf4j.sail.SailConflictException;
+import org.eclipse.rdf4j.sail.SailException;
+import org.eclipse.rdf4j.sail.base.BackingSailSource;
+import org.eclipse.rdf4j.sail.base.SailDataset;
+import org.eclipse.rdf4j.sail.base.SailSink;
+import org.eclipse.rdf4j.sail.base.SailSource;
+import org.eclipse.rdf4j.sail.base.SailStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An implementation of {@link SailStore} that keeps committed statements in a {@link CompactStatementTable}. Values are
+ * interned to integer IDs by a {@link CompactValueDictionary} and statements are stored as rows of primitive columns,
+ * which needs a fraction of the heap used by the {@link MemorySailStore} for its statement and value objects.
+ * <p>
+ * Snapshot isolation works as in the {@link MemorySailStore}: every row records the snapshot versions in which it was
+ * added and removed. Removed rows are dropped by compacting the table into a new table once no snapshot that can see
+ * them is in use anymore. The compaction also releases the values that are not used by the new table. Readers that
+ * still use the old table resolve its IDs with the values of the dictionary at the time it was replaced.
+ */
+class CompactMemorySailStore implements SailStore {
+
+	private final static Logger logger = LoggerFactory.getLogger(CompactMemorySailStore.class);
+
+	private static final int ANY = -1;
+
+	/**
+	 * Tables with fewer removed rows than this are not compacted.
+	 */
+	private static final int MIN_REMOVED_TO_COMPACT = 1000;
+
+	private static final EmptyIteration<CompactStatement> EMPTY_ITERATION = new EmptyIteration<>();
+
+	private final ValueFactory valueFactory = SimpleValueFactory.getInstance();
+
+	private final CompactValueDictionary dictionary = new CompactValueDictionary();
+
+	/**
+	 * The statements, replaced by a compacted copy from time to time.
+	 */
+	private volatile CompactStatementTable table = new CompactStatementTable();
+
+	/**
+	 * Identifies the current snapshot.
+	 */
+	private volatile int currentSnapshot;
+
+	private final MemorySailStore.SnapshotMonitor snapshotMonitor;
+
+	/**
+	 * Store for namespace prefix info.
+	 */
+	private final MemNamespaceStore namespaceStore = new MemNamespaceStore();
+
+	/**
+	 * Lock manager used to prevent concurrent writes, also held while the table is compacted.
+	 */
+	private final ExclusiveReentrantLockManager txnLockManager = new ExclusiveReentrantLockManager();
+
+	/**
+	 * Thread that compacts the table, see {@link #scheduleCompaction()}.
+	 */
+	private volatile Thread compactionThread;
+
+	/**
+	 * Lock object used to synchronize concurrent access to {@link #compactionThread}.
+	 */
+	private final Object compactionThreadLockObject = new Object();
+
+	public CompactMemorySailStore(boolean debug) {
+		snapshotMonitor = new MemorySailStore.SnapshotMonitor(debug);
+	}
+
+	@Override
+	public ValueFactory getValueFactory() {
+		return valueFactory;
+	}
+
+	@Override
+	public void close() {
+		synchronized (compactionThreadLockObject) {
+			if (compactionThread != null) {
+				compactionThread.interrupt();
+				compactionThread = null;
+			}
+		}
+		table = new CompactStatementTable();
+		dictionary.clear();
+		namespaceStore.clear();
+	}
+
+	CompactValueDictionary getDictionary() {
+		return dictionary;
+	}
+
+	@Override
+	public EvaluationStatistics getEvaluationStatistics() {
+		return new CompactEvaluationStatistics(dictionary, () -> table);
+	}
+
+	@Override
+	public SailSource getExplicitSailSource() {
+		return new CompactSailSource(true);
+	}
+
+	@Override
+	public SailSource getInferredSailSource() {
+		return new CompactSailSource(false);
+	}
+
+	/**
+	 * Creates an iteration over the rows that match the specified pattern of subject, predicate, object and contexts.
+	 * Only explicit or inferred statements are returned if <var>explicit</var> is set. A negative snapshot returns all
+	 * rows that are still in the table.
+	 */
+	private CloseableIteration<CompactStatement> createStatementIterator(CompactStatementTable table, Resource subj,
+			IRI pred, Value obj, Boolean explicit, int snapshot, Resource... contexts) {
+		if (explicit != null && !explicit && !table.mayHaveInferred()) {
+			return EMPTY_ITERATION;
+		}
+
+		if (table.size() == 0) {
+			return EMPTY_ITERATION;
+		}
+
+		int subjId = getId(subj);
+		int predId = getId(pred);
+		int objId = getId(obj);
+		if (subjId == CompactValueDictionary.NULL_ID || predId == CompactValueDictionary.NULL_ID
+				|| objId == CompactValueDictionary.NULL_ID) {
+			// non-existent value
+			return EMPTY_ITERATION;
+		}
+
+		int[] contextIds;
+		if (contexts.length == 0) {
+			contextIds = null;
+		} else if (contexts.length == 1 && contexts[0] == null) {
+			contextIds = new int[] { CompactValueDictionary.NULL_ID };
+		} else {
+			Set<Integer> contextSet = new LinkedHashSet<>(2 * contexts.length);
+			for (Resource context : contexts) {
+				if (context == null) {
+					contextSet.add(CompactValueDictionary.NULL_ID);
+				} else {
+					int id = dictionary.getId(context);
+					if (id != CompactValueDictionary.NULL_ID) {
+						contextSet.add(id);
+					}
+				}
+			}
+
+			if (contextSet.isEmpty()) {
+				// no known contexts specified
+				return EMPTY_ITERATION;
+			}
+			contextIds = contextSet.stream().mapToInt(Integer::intValue).toArray();
+		}
+
+		// iterate over the smallest row list, or over the whole table if no value is bound
+		CompactStatementTable.RowList rows = null;
+		int rowCount = table.size();
+		int[] positions = { CompactStatementTable.SUBJECT, CompactStatementTable.PREDICATE,
+				CompactStatementTable.OBJECT, CompactStatementTable.CONTEXT };
+		int[] ids = { subjId, predId, objId,
+				contextIds != null && contextIds.length == 1 ? contextIds[0] : CompactValueDictionary.NULL_ID };
+		for (int i = 0; i < positions.length; i++) {
+			if (ids[i] == ANY || ids[i] == CompactValueDictionary.NULL_ID) {
+				continue;
+			}
+			CompactStatementTable.RowList candidate = table.getRows(positions[i], ids[i]);
+			if (candidate == null) {
+				return EMPTY_ITERATION;
+			}
+			if (candidate.size() < rowCount) {
+				rows = candidate;
+				rowCount = candidate.size();
+			}
+		}
+
+		return new CompactStatementIterator(table, rows, subjId, predId, objId, contextIds, explicit, snapshot);
+	}
+
+	private int getId(Value value) {
+		return value == null ? ANY : dictionary.getId(value);
+	}
+
+	/**
+	 * @return the value with the supplied ID in the supplied table, which may have been replaced by a compacted table
+	 */
+	private Value getValue(CompactStatementTable table, int id) {
+		// read the values before checking whether the table has been retired, see compact()
+		Value[] values = dictionary.getValues();
+		Value[] retiredValues = table.getRetiredValues();
+		return retiredValues != null ? retiredValues[id] : values[id];
+	}
+
+	private CompactStatement createStatement(CompactStatementTable table, int row) {
+		int context = table.getContext(row);
+		return new CompactStatement((Resource) getValue(table, table.getSubject(row)),
+				(IRI) getValue(table, table.getPredicate(row)), getValue(table, table.getObject(row)),
+				context == CompactValueDictionary.NULL_ID ? null : (Resource) getValue(table, context), table, row);
+	}
+
+	/**
+	 * Schedules a compaction of the table if a substantial part of its rows has been removed.
+	 */
+	private void scheduleCompaction() {
+		CompactStatementTable table = this.table;
+		int removed = table.getRemovedCount();
+		if (removed < MIN_REMOVED_TO_COMPACT || removed < table.size() / 4) {
+			return;
+		}
+
+		Thread toCheckCompactionThread = compactionThread;
+		if (toCheckCompactionThread == null || !toCheckCompactionThread.isAlive()) {
+			synchronized (compactionThreadLockObject) {
+				toCheckCompactionThread = compactionThread;
+				if (toCheckCompactionThread == null || !toCheckCompactionThread.isAlive()) {
+					Runnable runnable = () -> {
+						try {
+							// give readers of recent snapshots some time to finish
+							Thread.sleep(1000);
+							compact();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							logger.info("compaction interrupted");
+						}
+					};
+
+					toCheckCompactionThread = compactionThread = new Thread(runnable,
+							"MemoryStore compaction");
+					toCheckCompactionThread.setDaemon(true);
+					toCheckCompactionThread.start();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Replaces the table by a copy without the rows that are not visible in any snapshot that is still in use, and
+	 * releases the values that are not used by the copy. Most rows are copied while writers continue, which are only
+	 * blocked while the rows that they changed in the meantime are brought up to date. Readers continue to use the old
+	 * table.
+	 */
+	protected void compact() throws InterruptedException {
+		CompactStatementTable table;
+		CompactStatementTable.Compaction compaction;
+		int idLimit;
+		Lock lock = txnLockManager.getExclusiveLock();
+		try {
+			int highestUnusedTillSnapshot = snapshotMonitor.getFirstUnusedOrElse(currentSnapshot - 1);
+			table = this.table;
+			compaction = table.startCompaction(highestUnusedTillSnapshot);
+			idLimit = dictionary.getIdLimit();
+		} finally {
+			lock.release();
+		}
+
+		StopWatch stopWatch = null;
+		if (logger.isDebugEnabled()) {
+			stopWatch = StopWatch.createStarted();
+			logger.debug("Started compacting statements.");
+		}
+
+		boolean finished = false;
+		try {
+			compaction.copyRows();
+			CompactValueDictionary.Release release = dictionary.prepareRelease(compaction.getUsedIds(), idLimit);
+
+			lock = txnLockManager.getExclusiveLock();
+			try {
+				CompactStatementTable compacted = compaction.finish();
+				// readers of the old table must be able to resolve its IDs after they have been released, and
+				// readers of the new table must not see released IDs, so the order of these steps matters
+				table.retire(dictionary.getValues());
+				dictionary.release(release, compaction.getLateUsedIds());
+				this.table = compacted;
+				finished = true;
+
+				if (logger.isDebugEnabled() && stopWatch != null) {
+					stopWatch.stop();
+					logger.debug("Compacting statements took {} seconds, {} statements remaining.",
+							stopWatch.getTime(TimeUnit.SECONDS), compacted.size());
+				}
+			} finally {
+				lock.release();
+			}
+		} finally {
+			if (!finished) {
+				compaction.abort();
+			}
+		}
+	}
+
+	private final class CompactSailSource extends BackingSailSource {
+
+		private final boolean explicit;
+
+		public CompactSailSource(boolean explicit) {
+			this.explicit = explicit;
+		}
+
+		@Override
+		public SailSink sink(IsolationLevel level) throws SailException {
+			return new CompactSailSink(explicit, level.isCompatibleWith(IsolationLevels.SERIALIZABLE));
+		}
+
+		@Override
+		public CompactSailDataset dataset(IsolationLevel level) throws SailException {
+			if (level.isCompatibleWith(IsolationLevels.SNAPSHOT_READ)) {
+				return new CompactSailDataset(explicit, currentSnapshot);
+			} else {
+				return new CompactSailDataset(explicit);
+			}
+		}
+	}
+
+	private final class CompactSailSink implements SailSink {
+
+		private volatile boolean closed = false;
+
+		private final boolean explicit;
+
+		private final int serializable;
+		private final MemorySailStore.SnapshotMonitor.ReservedSnapshot reservedSnapshot;
+
+		private int nextSnapshot;
+
+		private Set<StatementPattern> observations;
+		private volatile Lock txnLock;
+
+		private boolean requireCleanup;
+
+		public CompactSailSink(boolean explicit, boolean serializable) throws SailException {
+			this.explicit = explicit;
+			if (serializable) {
+				this.serializable = currentSnapshot;
+				this.reservedSnapshot = snapshotMonitor.reserve(this.serializable, this);
+			} else {
+				this.serializable = Integer.MAX_VALUE;
+				this.reservedSnapshot = null;
+			}
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			if (explicit) {
+				sb.append("explicit ");
+			} else {
+				sb.append("inferred ");
+			}
+			if (txnLock != null) {
+				sb.append("snapshot ").append(nextSnapshot);
+			} else {
+				sb.append(super.toString());
+			}
+			return sb.toString();
+		}
+
+		@Override
+		public synchronized void prepare() throws SailException {
+			acquireExclusiveTransactionLock();
+			if (observations != null) {
+				CompactStatementTable table = CompactMemorySailStore.this.table;
+				for (StatementPattern p : observations) {
+					Resource subj = (Resource) p.getSubjectVar().getValue();
+					IRI pred = (IRI) p.getPredicateVar().getValue();
+					Value obj = p.getObjectVar().getValue();
+					Var ctxVar = p.getContextVar();
+					Resource[] contexts;
+					if (ctxVar == null) {
+						contexts = new Resource[0];
+					} else {
+						contexts = new Resource[] { (Resource) ctxVar.getValue() };
+					}
+					try (CloseableIteration<CompactStatement> iter = createStatementIterator(table, subj, pred, obj,
+							null, -1, contexts)) {
+						while (iter.hasNext()) {
+							CompactStatement st = iter.next();
+							int since = table.getSinceSnapshot(st.row);
+							int till = table.getTillSnapshot(st.row);
+							if (serializable < since && since < nextSnapshot
+									|| serializable < till && till < nextSnapshot) {
+								throw new SailConflictException("Observed State has Changed");
+							}
+						}
+					}
+				}
+			}
+		}
+
+		@Override
+		public synchronized void flush() throws SailException {
+			if (txnLock != null && txnLock.isActive()) {
+				currentSnapshot = Math.max(currentSnapshot, nextSnapshot);
+				if (requireCleanup) {
+					scheduleCompaction();
+				}
+			}
+		}
+
+		@Override
+		public void close() {
+			if (!closed) {
+				closed = true;
+				try {
+					if (reservedSnapshot != null) {
+						reservedSnapshot.release();
+					}
+				} finally {
+					try {
+						releaseLock();
+					} finally {
+						observations = null;
+					}
+				}
+			}
+		}
+
+		synchronized private void releaseLock() {
+			if (txnLock != null) {
+				assert txnLock.isActive();
+				txnLock.release();
+				txnLock = null;
+			}
+		}
+
+		@Override
+		public synchronized void setNamespace(String prefix, String name) {
+			acquireExclusiveTransactionLock();
+			namespaceStore.setNamespace(prefix, name);
+		}
+
+		@Override
+		public synchronized void removeNamespace(String prefix) {
+			acquireExclusiveTransactionLock();
+			namespaceStore.removeNamespace(prefix);
+		}
+
+		@Override
+		public synchronized void clearNamespaces() {
+			acquireExclusiveTransactionLock();
+			namespaceStore.clear();
+		}
+
+		@Override
+		public synchronized void observe(Resource subj, IRI pred, Value obj, Resource... contexts)
+				throws SailException {
+			if (observations == null) {
+				observations = new HashSet<>();
+			}
+			if (contexts == null) {
+				observations.add(new StatementPattern(new Var("s", subj), new Var("p", pred), new Var("o", obj),
+						new Var("g", null)));
+			} else if (contexts.length == 0) {
+				observations.add(new StatementPattern(new Var("s", subj), new Var("p", pred), new Var("o", obj)));
+			} else {
+				for (Resource ctx : contexts) {
+					observations.add(new StatementPattern(new Var("s", subj), new Var("p", pred), new Var("o", obj),
+							new Var("g", ctx)));
+				}
+			}
+		}
+
+		@Override
+		public synchronized void clear(Resource... contexts) {
+			acquireExclusiveTransactionLock();
+			requireCleanup = true;
+			deprecateMatching(null, null, null, contexts);
+		}
+
+		@Override
+		public synchronized void approve(Resource subj, IRI pred, Value obj, Resource ctx) {
+			acquireExclusiveTransactionLock();
+			addStatement(subj, pred, obj, ctx);
+		}
+
+		@Override
+		public synchronized void approveAll(Set<Statement> approved, Set<Resource> approvedContexts) {
+			acquireExclusiveTransactionLock();
+			for (Statement statement : approved) {
+				addStatement(statement.getSubject(), statement.getPredicate(), statement.getObject(),
+						statement.getContext());
+			}
+		}
+
+		@Override
+		public synchronized void deprecateAll(Set<Statement> deprecated) {
+			acquireExclusiveTransactionLock();
+			requireCleanup = true;
+			for (Statement statement : deprecated) {
+				innerDeprecate(statement);
+			}
+		}
+
+		@Override
+		public synchronized void deprecate(Statement statement) throws SailException {
+			acquireExclusiveTransactionLock();
+			requireCleanup = true;
+			innerDeprecate(statement);
+		}
+
+		private void innerDeprecate(Statement statement) {
+			if (statement instanceof LinkedHashModel.ModelStatement) {
+				// The Changeset uses a LinkedHashModel to store it's changes. It still keeps a reference to the
+				// original statement that can be retrieved here.
+				statement = ((LinkedHashModel.ModelStatement) statement).getStatement();
+			}
+			CompactStatementTable table = CompactMemorySailStore.this.table;
+			if (statement instanceof CompactStatement && ((CompactStatement) statement).table == table) {
+				int row = ((CompactStatement) statement).row;
+				if (table.isInSnapshot(row, nextSnapshot) && table.isExplicit(row) == explicit) {
+					table.setTillSnapshot(row, nextSnapshot);
+				}
+			} else {
+				deprecateMatching(statement.getSubject(), statement.getPredicate(), statement.getObject(),
+						statement.getContext());
+			}
+		}
+
+		private boolean deprecateMatching(Resource subj, IRI pred, Value obj, Resource... contexts) {
+			boolean deprecated = false;
+			CompactStatementTable table = CompactMemorySailStore.this.table;
+			try (CloseableIteration<CompactStatement> iter = createStatementIterator(table, subj, pred, obj,
+					explicit, nextSnapshot, contexts)) {
+				while (iter.hasNext()) {
+					deprecated = true;
+					table.setTillSnapshot(iter.next().row, nextSnapshot);
+				}
+			}
+			return deprecated;
+		}
+
+		private void acquireExclusiveTransactionLock() throws SailException {
+			if (txnLock == null) {
+				synchronized (this) {
+					if (txnLock == null) {
+						try {
+							txnLock = txnLockManager.getExclusiveLock();
+							nextSnapshot = currentSnapshot + 1;
+						} catch (InterruptedException e) {
+							throw convertToSailException(e);
+						}
+					}
+				}
+			}
+		}
+
+		private void addStatement(Resource subj, IRI pred, Value obj, Resource context) throws SailException {
+			int subjId = dictionary.getOrCreateId(subj);
+			int predId = dictionary.getOrCreateId(pred);
+			int objId = dictionary.getOrCreateId(obj);
+			int contextId = context == null ? CompactValueDictionary.NULL_ID : dictionary.getOrCreateId(context);
+
+			CompactStatementTable table = CompactMemorySailStore.this.table;
+			int existing = findExact(table, subjId, predId, objId, contextId);
+			if (existing >= 0) {
+				if (!table.isExplicit(existing) && explicit) {
+					// Implicit statement is now added explicitly
+					table.setTillSnapshot(existing, nextSnapshot);
+				} else {
+					// statement already exists
+					return;
+				}
+			}
+
+			table.add(subjId, predId, objId, contextId, explicit, nextSnapshot);
+		}
+
+		/**
+		 * @return the row of the statement in the next snapshot with exactly the supplied values, or -1 if there is no
+		 *         such statement
+		 */
+		private int findExact(CompactStatementTable table, int subjId, int predId, int objId, int contextId) {
+			CompactStatementTable.RowList rows = table.getRows(CompactStatementTable.SUBJECT, subjId);
+			if (rows == null) {
+				return -1;
+			}
+			CompactStatementTable.RowList candidate = table.getRows(CompactStatementTable.OBJECT, objId);
+			if (candidate == null) {
+				return -1;
+			}
+			if (candidate.size() < rows.size()) {
+				rows = candidate;
+			}
+			if (contextId != CompactValueDictionary.NULL_ID) {
+				candidate = table.getRows(CompactStatementTable.CONTEXT, contextId);
+				if (candidate == null) {
+					return -1;
+				}
+				if (candidate.size() < rows.size()) {
+					rows = candidate;
+				}
+			}
+
+			int size = rows.size();
+			int[] rowNumbers = rows.rows();
+			// recently added rows are the most likely to match
+			for (int i = size - 1; i >= 0; i--) {
+				int row = rowNumbers[i];
+				if (table.getSubject(row) == subjId && table.getPredicate(row) == predId
+						&& table.getObject(row) == objId && table.getContext(row) == contextId
+						&& table.isInSnapshot(row, nextSnapshot)) {
+					return row;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		public boolean deprecateByQuery(Resource subj, IRI pred, Value obj, Resource[] contexts) {
+			acquireExclusiveTransactionLock();
+			requireCleanup = true;
+			return deprecateMatching(subj, pred, obj, contexts);
+		}
+	}
+
+	private final class CompactSailDataset implements SailDataset {
+
+		private final boolean explicit;
+
+		private final int snapshot;
+		private final MemorySailStore.SnapshotMonitor.ReservedSnapshot reservedSnapshot;
+		private volatile boolean closed;
+
+		public CompactSailDataset(boolean explicit) throws SailException {
+			this.explicit = explicit;
+			this.snapshot = -1;
+			this.reservedSnapshot = null;
+		}
+
+		public CompactSailDataset(boolean explicit, int snapshot) throws SailException {
+			this.explicit = explicit;
+			this.snapshot = snapshot;
+			this.reservedSnapshot = snapshotMonitor.reserve(snapshot, this);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			if (explicit) {
+				sb.append("explicit ");
+			} else {
+				sb.append("inferred ");
+			}
+			if (snapshot >= 0) {
+				sb.append("snapshot ").append(snapshot);
+			} else {
+				sb.append(super.toString());
+			}
+			return sb.toString();
+		}
+
+		@Override
+		public void close() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			if (reservedSnapshot != null) {
+				reservedSnapshot.release();
+			}
+		}
+
+		@Override
+		public String getNamespace(String prefix) throws SailException {
+			return namespaceStore.getNamespace(prefix);
+		}
+
+		@Override
+		public CloseableIteration<? extends Namespace> getNamespaces() {
+			return new CloseableIteratorIteration<>(namespaceStore.iterator());
+		}
+
+		@Override
+		public CloseableIteration<? extends Resource> getContextIDs() throws SailException {
+			CompactStatementTable table = CompactMemorySailStore.this.table;
+			int snapshot = getCurrentSnapshot();
+
+			Set<Resource> contextIDs = new LinkedHashSet<>(32);
+			CompactStatementTable.RowList contextIds = table.getContextIds();
+			int contextCount = contextIds.size();
+			int[] ids = contextIds.rows();
+			for (int c = 0; c < contextCount; c++) {
+				CompactStatementTable.RowList rows = table.getRows(CompactStatementTable.CONTEXT, ids[c]);
+				int size = rows.size();
+				int[] rowNumbers = rows.rows();
+				for (int i = 0; i < size; i++) {
+					if (table.isInSnapshot(rowNumbers[i], snapshot)) {
+						contextIDs.add((Resource) getValue(table, ids[c]));
+						break;
+					}
+				}
+			}
+
+			return new CloseableIteratorIteration<>(contextIDs.iterator());
+		}
+
+		@Override
+		public CloseableIteration<CompactStatement> getStatements(Resource subj, IRI pred, Value obj,
+				Resource... contexts) throws SailException {
+			while (true) {
+				CompactStatementTable table = CompactMemorySailStore.this.table;
+				CloseableIteration<CompactStatement> iter = createStatementIterator(table, subj, pred, obj, explicit,
+						getCurrentSnapshot(), contexts);
+				if (table == CompactMemorySailStore.this.table) {
+					return iter;
+				}
+				// the IDs may have been looked up after the table was compacted and its unused values were released
+				iter.close();
+			}
+		}
+
+		@Override
+		public CloseableIteration<? extends Triple> getTriples(Resource subj, IRI pred, Value obj)
+				throws SailException {
+			// there is no separate index for triples, so we iterate over all statements to find matches
+			CompactStatementTable table = CompactMemorySailStore.this.table;
+			int snapshot = getCurrentSnapshot();
+
+			Set<Triple> triples = new LinkedHashSet<>();
+			int size = table.size();
+			for (int row = 0; row < size; row++) {
+				if (snapshot >= 0 && !table.isInSnapshot(row, snapshot)) {
+					continue;
+				}
+				addMatchingTriple(getValue(table, table.getSubject(row)), subj, pred, obj, triples);
+				addMatchingTriple(getValue(table, table.getObject(row)), subj, pred, obj, triples);
+			}
+			return new CloseableIteratorIteration<>(triples.iterator());
+		}
+
+		private void addMatchingTriple(Value value, Resource subj, IRI pred, Value obj, Set<Triple> triples) {
+			if (value.isTriple()) {
+				Triple triple = (Triple) value;
+				if ((subj == null || subj.equals(triple.getSubject()))
+						&& (pred == null || pred.equals(triple.getPredicate()))
+						&& (obj == null || obj.equals(triple.getObject()))) {
+					triples.add(triple);
+				}
+			}
+		}
+
+		private int getCurrentSnapshot() {
+			if (snapshot >= 0) {
+				return snapshot;
+			} else {
+				return currentSnapshot;
+			}
+		}
+	}
+
+	private SailException convertToSailException(InterruptedException e) {
+		Thread.currentThread().interrupt();
+		return new SailException(e);
+	}
+
+	/**
+	 * A statement that remembers the row it was read from, so it can be removed without looking it up again.
+	 */
+	static final class CompactStatement extends GenericStatement<Resource, IRI, Value> {
+
+		private static final long serialVersionUID = 2462541207305407435L;
+
+		private final transient CompactStatementTable table;
+
+		private final transient int row;
+
+		CompactStatement(Resource subject, IRI predicate, Value object, Resource context,
+				CompactStatementTable table, int row) {
+			super(subject, predicate, object, context);
+			this.table = table;
+			this.row = row;
+		}
+	}
+
+	/**
+	 * Iterates over the rows of a table, or over the rows in a row list, that match a statement pattern.
+	 */
+	private final class CompactStatementIterator implements CloseableIteration<CompactStatement> {
+
+		private final CompactStatementTable table;
+
+		/**
+		 * The rows to iterate over, null to iterate over all rows of the table.
+		 */
+		private final int[] rows;
+
+		private final int rowCount;
+
+		private final int subj;
+
+		private final int pred;
+
+		private final int obj;
+
+		/**
+		 * The IDs of the contexts to match, null if any context is OK.
+		 */
+		private final int[] contexts;
+
+		private final boolean explicit;
+
+		private final boolean explicitNotSpecified;
+
+		private final int snapshot;
+
+		private int index;
+
+		private CompactStatement nextElement;
+
+		private boolean closed;
+
+		CompactStatementIterator(CompactStatementTable table, CompactStatementTable.RowList rows, int subj, int pred,
+				int obj, int[] contexts, Boolean explicit, int snapshot) {
+			this.table = table;
+			if (rows == null) {
+				this.rowCount = table.size();
+				this.rows = null;
+			} else {
+				// read the size before the array
+				this.rowCount = rows.size();
+				this.rows = rows.rows();
+			}
+			this.subj = subj;
+			this.pred = pred;
+			this.obj = obj;
+			this.contexts = contexts;
+			this.explicitNotSpecified = explicit == null;
+			this.explicit = explicit != null && explicit;
+			this.snapshot = snapshot;
+		}
+
+		private CompactStatement getNextElement() {
+			while (index < rowCount) {
+				int row = rows == null ? index : rows[index];
+				index++;
+				if ((subj == ANY || table.getSubject(row) == subj)
+						&& (pred == ANY || table.getPredicate(row) == pred)
+						&& (obj == ANY || table.getObject(row) == obj)
+						&& matchesContext(row)
+						&& (explicitNotSpecified || table.isExplicit(row) == explicit)
+						&& (snapshot < 0 || table.isInSnapshot(row, snapshot))) {
+					return createStatement(table, row);
+				}
+			}
+			return null;
+		}
+
+		private boolean matchesContext(int row) {
+			if (contexts == null) {
+				return true;
+			}
+			int context = table.getContext(row);
+			for (int c : contexts) {
+				if (c == context) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (closed) {
+				return false;
+			}
+			if (nextElement == null) {
+				nextElement = getNextElement();
+				if (nextElement == null) {
+					close();
+				}
+			}
+			return nextElement != null;
+		}
+
+		@Override
+		public CompactStatement next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			CompactStatement result = nextElement;
+			nextElement = null;
+			return result;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+}
@@ -0,0 +1,471 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.eclipse.rdf4j.model.Value;
+
+/**
+ * Columnar storage for the statements of a {@link CompactMemorySailStore}. Every statement is a row of primitive
+ * columns holding the IDs of its subject, predicate, object and context, the snapshot versions in which it was added
+ * and removed and whether it is explicit. Rows are stored in fixed size segments, so growing the table never copies
+ * existing rows.
+ * <p>
+ * For each position there is an index from value ID to the rows that use the value in that position. Rows are only
+ * ever appended, so these row lists are sorted by row number.
+ * <p>
+ * Rows are added by a single writer while any number of readers access the table concurrently. A row is published by
+ * increasing the size of the table and by appending it to the row lists; only its removal snapshot can change after
+ * that. Removed rows stay in the table until it is compacted into a new table by a {@link Compaction}.
+ */
+class CompactStatementTable {
+
+	static final int SUBJECT = 0;
+
+	static final int PREDICATE = 1;
+
+	static final int OBJECT = 2;
+
+	static final int CONTEXT = 3;
+
+	private static final int SEGMENT_SHIFT = 16;
+
+	private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+
+	private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	private static final VarHandle INT_ARRAY = MethodHandles.arrayElementVarHandle(int[].class);
+
+	private static final VarHandle ROW_LIST_ARRAY = MethodHandles.arrayElementVarHandle(RowList[].class);
+
+	private static final VarHandle INDEX_ARRAY = MethodHandles.arrayElementVarHandle(RowList[][].class);
+
+	private volatile Segment[] segments = new Segment[0];
+
+	private volatile int size;
+
+	/**
+	 * The number of rows that have been removed in some snapshot.
+	 */
+	private volatile int removed;
+
+	/**
+	 * The number of rows that have been added as inferred statements.
+	 */
+	private volatile int inferred;
+
+	/**
+	 * Row lists indexed by value ID, one array for each position.
+	 */
+	private final RowList[][] indexes = new RowList[4][];
+
+	/**
+	 * The IDs of the values that are used as context, in the order of their first use.
+	 */
+	private final RowList contextIds = new RowList();
+
+	/**
+	 * Collects the rows that are removed while a {@link Compaction} copies this table, or <var>null</var>.
+	 */
+	private volatile RowList removedRows;
+
+	/**
+	 * The values of the dictionary when this table was replaced by a compacted table, or <var>null</var>.
+	 */
+	private volatile Value[] retiredValues;
+
+	CompactStatementTable() {
+		Arrays.fill(indexes, new RowList[0]);
+	}
+
+	/**
+	 * @return the number of rows in this table, including removed rows
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of rows that have been removed in some snapshot
+	 */
+	int getRemovedCount() {
+		return removed;
+	}
+
+	/**
+	 * @return <var>true</var> if any row has been added as an inferred statement
+	 */
+	boolean mayHaveInferred() {
+		return inferred > 0;
+	}
+
+	/**
+	 * Appends a row. Must only be called by the writer.
+	 *
+	 * @return the number of the new row
+	 */
+	int add(int subj, int pred, int obj, int context, boolean explicit, int sinceSnapshot) {
+		int row = size;
+		if (row == Integer.MAX_VALUE) {
+			throw new IllegalStateException("Maximum number of statements reached");
+		}
+		Segment[] segments = this.segments;
+		int segmentIndex = row >>> SEGMENT_SHIFT;
+		if (segmentIndex == segments.length) {
+			segments = Arrays.copyOf(segments, segmentIndex + 1);
+			segments[segmentIndex] = new Segment();
+			this.segments = segments;
+		}
+		Segment segment = segments[segmentIndex];
+		int i = row & SEGMENT_MASK;
+		segment.subjects[i] = subj;
+		segment.predicates[i] = pred;
+		segment.objects[i] = obj;
+		segment.contexts[i] = context;
+		segment.sinceSnapshots[i] = sinceSnapshot;
+		segment.explicit[i] = explicit;
+		INT_ARRAY.setRelease(segment.tillSnapshots, i, Integer.MAX_VALUE);
+		if (!explicit) {
+			inferred++;
+		}
+		size = row + 1;
+
+		addToIndex(SUBJECT, subj, row);
+		addToIndex(PREDICATE, pred, row);
+		addToIndex(OBJECT, obj, row);
+		if (context != CompactValueDictionary.NULL_ID) {
+			addToIndex(CONTEXT, context, row);
+		}
+		return row;
+	}
+
+	private void addToIndex(int position, int id, int row) {
+		RowList[] index = indexes[position];
+		if (id >= index.length) {
+			index = Arrays.copyOf(index, Math.max(id + 1, index.length + (index.length >> 1)));
+			INDEX_ARRAY.setRelease(indexes, position, index);
+		}
+		RowList rows = (RowList) ROW_LIST_ARRAY.getAcquire(index, id);
+		if (rows == null) {
+			rows = new RowList();
+			rows.add(row);
+			ROW_LIST_ARRAY.setRelease(index, id, rows);
+			if (position == CONTEXT) {
+				contextIds.add(id);
+			}
+		} else {
+			rows.add(row);
+		}
+	}
+
+	/**
+	 * @return the rows that use the value with the supplied ID in the supplied position, or <var>null</var> if there
+	 *         are none
+	 */
+	RowList getRows(int position, int id) {
+		RowList[] index = (RowList[]) INDEX_ARRAY.getAcquire(indexes, position);
+		if (id >= index.length) {
+			return null;
+		}
+		return (RowList) ROW_LIST_ARRAY.getAcquire(index, id);
+	}
+
+	/**
+	 * @return the IDs of the values that are used as context in some row, including removed rows
+	 */
+	RowList getContextIds() {
+		return contextIds;
+	}
+
+	/**
+	 * @return the number of rows that use the value with the supplied ID in the supplied position, including removed
+	 *         rows
+	 */
+	int count(int position, int id) {
+		RowList rows = getRows(position, id);
+		return rows == null ? 0 : rows.size();
+	}
+
+	int getSubject(int row) {
+		return segment(row).subjects[row & SEGMENT_MASK];
+	}
+
+	int getPredicate(int row) {
+		return segment(row).predicates[row & SEGMENT_MASK];
+	}
+
+	int getObject(int row) {
+		return segment(row).objects[row & SEGMENT_MASK];
+	}
+
+	int getContext(int row) {
+		return segment(row).contexts[row & SEGMENT_MASK];
+	}
+
+	boolean isExplicit(int row) {
+		return segment(row).explicit[row & SEGMENT_MASK];
+	}
+
+	int getSinceSnapshot(int row) {
+		return segment(row).sinceSnapshots[row & SEGMENT_MASK];
+	}
+
+	int getTillSnapshot(int row) {
+		return (int) INT_ARRAY.getAcquire(segment(row).tillSnapshots, row & SEGMENT_MASK);
+	}
+
+	/**
+	 * Marks a row as removed in the supplied snapshot. Must only be called by the writer.
+	 */
+	void setTillSnapshot(int row, int snapshot) {
+		int[] tillSnapshots = segment(row).tillSnapshots;
+		int i = row & SEGMENT_MASK;
+		if ((int) INT_ARRAY.getAcquire(tillSnapshots, i) == Integer.MAX_VALUE) {
+			removed++;
+		}
+		INT_ARRAY.setRelease(tillSnapshots, i, snapshot);
+		RowList removedRows = this.removedRows;
+		if (removedRows != null) {
+			removedRows.add(row);
+		}
+	}
+
+	boolean isInSnapshot(int row, int snapshot) {
+		Segment segment = segment(row);
+		int i = row & SEGMENT_MASK;
+		return snapshot >= segment.sinceSnapshots[i]
+				&& snapshot < (int) INT_ARRAY.getAcquire(segment.tillSnapshots, i);
+	}
+
+	/**
+	 * Starts a compaction of this table. Must only be called by the writer.
+	 *
+	 * @param highestUnusedTillSnapshot rows that were removed in this snapshot or earlier are not copied
+	 */
+	Compaction startCompaction(int highestUnusedTillSnapshot) {
+		return new Compaction(this, highestUnusedTillSnapshot);
+	}
+
+	/**
+	 * Records that this table has been replaced by a compacted table.
+	 *
+	 * @param values the values of the dictionary before any of them are released
+	 */
+	void retire(Value[] values) {
+		retiredValues = values;
+	}
+
+	/**
+	 * @return the values of the dictionary when this table was replaced by a compacted table, or <var>null</var> if it
+	 *         is still in use
+	 */
+	Value[] getRetiredValues() {
+		return retiredValues;
+	}
+
+	private Segment segment(int row) {
+		return segments[row >>> SEGMENT_SHIFT];
+	}
+
+	private static final class Segment {
+
+		final int[] subjects = new int[SEGMENT_SIZE];
+
+		final int[] predicates = new int[SEGMENT_SIZE];
+
+		final int[] objects = new int[SEGMENT_SIZE];
+
+		final int[] contexts = new int[SEGMENT_SIZE];
+
+		final int[] sinceSnapshots = new int[SEGMENT_SIZE];
+
+		final int[] tillSnapshots = new int[SEGMENT_SIZE];
+
+		final boolean[] explicit = new boolean[SEGMENT_SIZE];
+	}
+
+	/**
+	 * A sorted list of row numbers that grows by appending. Readers must read the {@link #size()} before the
+	 * {@link #rows()}, the array is always replaced before the size is increased past its previous length.
+	 */
+	static final class RowList {
+
+		private volatile int[] rows = new int[2];
+
+		private volatile int size;
+
+		int size() {
+			return size;
+		}
+
+		int[] rows() {
+			return rows;
+		}
+
+		void add(int row) {
+			int size = this.size;
+			int[] rows = this.rows;
+			if (size == rows.length) {
+				rows = Arrays.copyOf(rows, size + (size >> 1) + 1);
+				this.rows = rows;
+			}
+			rows[size] = row;
+			this.size = size + 1;
+		}
+
+		void trim() {
+			int size = this.size;
+			if (size < rows.length) {
+				rows = Arrays.copyOf(rows, size);
+			}
+		}
+	}
+
+	/**
+	 * Copies the rows of a table that are still visible in snapshots after a given snapshot into a new table, retaining
+	 * their relative order. Most rows are copied by {@link #copyRows()} while the writer continues to modify the
+	 * table. The rows that have been added or removed since the compaction was started are copied or updated by
+	 * {@link #finish()}, which must be called by the writer.
+	 */
+	static final class Compaction {
+
+		private final CompactStatementTable source;
+
+		private final CompactStatementTable target = new CompactStatementTable();
+
+		private final int highestUnusedTillSnapshot;
+
+		private final RowList removedRows = new RowList();
+
+		/**
+		 * The rows of the source table that are copied by {@link #copyRows()}.
+		 */
+		private final int copyEnd;
+
+		/**
+		 * The row in the target table of each row of the source table, or -1 if it has not been copied.
+		 */
+		private int[] rowMap;
+
+		/**
+		 * The IDs of the values that are used by the rows in the target table.
+		 */
+		private final BitSet usedIds = new BitSet();
+
+		/**
+		 * The IDs of the values that are used by the rows copied by {@link #finish()}.
+		 */
+		private final BitSet lateUsedIds = new BitSet();
+
+		private Compaction(CompactStatementTable source, int highestUnusedTillSnapshot) {
+			this.source = source;
+			this.highestUnusedTillSnapshot = highestUnusedTillSnapshot;
+			this.copyEnd = source.size;
+			this.rowMap = new int[copyEnd];
+			source.removedRows = removedRows;
+		}
+
+		/**
+		 * Copies the rows that existed when the compaction was started. May be called concurrently with the writer.
+		 */
+		void copyRows() throws InterruptedException {
+			for (int row = 0; row < copyEnd; row++) {
+				if ((row & SEGMENT_MASK) == 0 && Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+				copyRow(row, usedIds);
+			}
+		}
+
+		/**
+		 * @return the IDs of the values that are used by the rows that have been copied
+		 */
+		BitSet getUsedIds() {
+			return usedIds;
+		}
+
+		/**
+		 * @return the IDs of the values that are used by the rows that have been copied by {@link #finish()}
+		 */
+		BitSet getLateUsedIds() {
+			return lateUsedIds;
+		}
+
+		/**
+		 * Copies the rows that have been added since the compaction was started and updates the rows that have been
+		 * removed since. Must only be called by the writer.
+		 *
+		 * @return the compacted table
+		 */
+		CompactStatementTable finish() {
+			int size = source.size;
+			rowMap = Arrays.copyOf(rowMap, size);
+			for (int row = copyEnd; row < size; row++) {
+				copyRow(row, lateUsedIds);
+			}
+			usedIds.or(lateUsedIds);
+
+			int removedCount = removedRows.size();
+			int[] removed = removedRows.rows();
+			for (int i = 0; i < removedCount; i++) {
+				int row = removed[i];
+				int copy = rowMap[row];
+				if (copy >= 0 && target.getTillSnapshot(copy) == Integer.MAX_VALUE) {
+					target.setTillSnapshot(copy, source.getTillSnapshot(row));
+				}
+			}
+			source.removedRows = null;
+
+			for (RowList[] index : target.indexes) {
+				for (RowList rows : index) {
+					if (rows != null) {
+						rows.trim();
+					}
+				}
+			}
+			return target;
+		}
+
+		/**
+		 * Stops collecting the rows that are removed from the source table.
+		 */
+		void abort() {
+			source.removedRows = null;
+		}
+
+		private void copyRow(int row, BitSet used) {
+			int till = source.getTillSnapshot(row);
+			if (till > highestUnusedTillSnapshot) {
+				int subj = source.getSubject(row);
+				int pred = source.getPredicate(row);
+				int obj = source.getObject(row);
+				int context = source.getContext(row);
+				int copy = target.add(subj, pred, obj, context, source.isExplicit(row), source.getSinceSnapshot(row));
+				if (till != Integer.MAX_VALUE) {
+					target.setTillSnapshot(copy, till);
+				}
+				rowMap[row] = copy;
+				used.set(subj);
+				used.set(pred);
+				used.set(obj);
+				if (context != CompactValueDictionary.NULL_ID) {
+					used.set(context);
+				}
+			} else {
+				rowMap[row] = -1;
+			}
+		}
+	}
+}
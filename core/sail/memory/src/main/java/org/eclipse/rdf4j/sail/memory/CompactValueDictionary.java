@@ -0,0 +1,348 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.locks.StampedLock;
+
+import org.eclipse.rdf4j.model.Value;
+
+/**
+ * Interns the values used by a {@link CompactMemorySailStore} to dense integer IDs, starting at 1. The ID 0 is never
+ * assigned and is used for "no value", e.g. the default context.
+ * <p>
+ * IDs are looked up in an open addressing hash table of <var>long</var>s that each pack the hash code of a value and its
+ * ID, so the dictionary only needs a reference and 8 to 16 bytes of table space per value on top of the value itself.
+ * Values are only ever added by the single thread that holds the transaction lock of the store. Lookups are lock-free
+ * unless they overlap with a resize of the table.
+ * <p>
+ * Values that are no longer used by any statement are released when the statement table is compacted, see
+ * {@link #prepareRelease(BitSet, int)}. Their IDs are assigned to new values again. Released values are not removed
+ * from the array of values, but the array is replaced, so that readers of the previous statement table can keep
+ * resolving its IDs with the previous array.
+ */
+class CompactValueDictionary {
+
+	/**
+	 * The ID that is never assigned to a value.
+	 */
+	static final int NULL_ID = 0;
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final StampedLock lock = new StampedLock();
+
+	/**
+	 * The values, indexed by their ID. Entries are only ever added to an array, so readers can use any version of this
+	 * array that they read after obtaining the ID. Releasing values replaces the array.
+	 */
+	private volatile Value[] values = new Value[INITIAL_CAPACITY];
+
+	/**
+	 * The next ID to assign, once no released IDs are left.
+	 */
+	private volatile int nextId = 1;
+
+	/**
+	 * The number of values in this dictionary.
+	 */
+	private int size;
+
+	/**
+	 * IDs of released values, which are assigned again before new IDs. Some of them may be in use again, see
+	 * {@link #release(Release, BitSet)}.
+	 */
+	private int[] freeIds = new int[0];
+
+	private int freeIdCount;
+
+	/**
+	 * Hash table with the hash code of a value in the upper and its ID in the lower 32 bits, 0 for empty slots. The
+	 * table is kept at most half full.
+	 */
+	private volatile long[] table = new long[INITIAL_CAPACITY * 2];
+
+	/**
+	 * @return the ID of the supplied value, or {@link #NULL_ID} if it has not been added to this dictionary
+	 */
+	int getId(Value value) {
+		int hash = value.hashCode();
+		long stamp = lock.tryOptimisticRead();
+		int id = find(table, values, value, hash);
+		if (!lock.validate(stamp)) {
+			stamp = lock.readLock();
+			try {
+				id = find(table, values, value, hash);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		return id;
+	}
+
+	/**
+	 * @return the ID of the supplied value, which is added to this dictionary if necessary
+	 */
+	int getOrCreateId(Value value) {
+		int id = getId(value);
+		if (id != NULL_ID) {
+			return id;
+		}
+
+		long stamp = lock.writeLock();
+		try {
+			int hash = value.hashCode();
+			id = find(table, values, value, hash);
+			if (id != NULL_ID) {
+				return id;
+			}
+
+			Value[] values = this.values;
+			id = nextFreeId(values);
+			if (id == NULL_ID) {
+				id = nextId;
+				if (id == Integer.MAX_VALUE) {
+					throw new IllegalStateException("Maximum number of values reached");
+				}
+				if (id == values.length) {
+					values = Arrays.copyOf(values, (int) Math.min(Integer.MAX_VALUE - 8L, values.length * 2L));
+				}
+				nextId = id + 1;
+			}
+			values[id] = value;
+			this.values = values;
+
+			long[] table = this.table;
+			if (++size * 2L > table.length) {
+				table = rehash(table, table.length * 2);
+			}
+			insert(table, hash, id);
+			this.table = table;
+			return id;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * @return a released ID that is not in use again, or {@link #NULL_ID} if there is none
+	 */
+	private int nextFreeId(Value[] values) {
+		while (freeIdCount > 0) {
+			int id = freeIds[--freeIdCount];
+			if (values[id] == null) {
+				return id;
+			}
+		}
+		return NULL_ID;
+	}
+
+	/**
+	 * @return the value with the supplied ID
+	 */
+	Value getValue(int id) {
+		return values[id];
+	}
+
+	/**
+	 * @return the values indexed by their ID, the array must not be modified
+	 */
+	Value[] getValues() {
+		return values;
+	}
+
+	/**
+	 * @return the number of values in this dictionary
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return the highest ID that has been assigned, plus one
+	 */
+	int getIdLimit() {
+		return nextId;
+	}
+
+	/**
+	 * Prepares the release of all values below the supplied ID limit that are not used anymore. This builds the new
+	 * array of values and hash table and may run concurrently with the writer, as long as the writer does not assign IDs
+	 * that are below the limit and not in use.
+	 *
+	 * @param used    the IDs of the values that are in use
+	 * @param idLimit the {@link #getIdLimit() ID limit} when the used IDs were determined
+	 * @return the release, to be completed by {@link #release(Release, BitSet)}
+	 */
+	Release prepareRelease(BitSet used, int idLimit) {
+		Value[] current = this.values;
+		Value[] values = new Value[current.length];
+		int size = used.cardinality();
+		long[] table = new long[capacityFor(size)];
+		for (int id = used.nextSetBit(1); id >= 0 && id < idLimit; id = used.nextSetBit(id + 1)) {
+			values[id] = current[id];
+			insert(table, values[id].hashCode(), id);
+		}
+
+		int[] freeIds = new int[idLimit - 1 - size];
+		int freeIdCount = 0;
+		// assign low IDs first, as they are popped from the end
+		for (int id = used.previousClearBit(idLimit - 1); id > 0; id = used.previousClearBit(id - 1)) {
+			freeIds[freeIdCount++] = id;
+		}
+		return new Release(idLimit, values, table, size, freeIds, freeIdCount);
+	}
+
+	/**
+	 * Releases the values that are not used anymore. Must only be called by the writer.
+	 *
+	 * @param release  the prepared release
+	 * @param lateUsed the IDs below the ID limit of the release that have been used since it was prepared
+	 */
+	void release(Release release, BitSet lateUsed) {
+		long stamp = lock.writeLock();
+		try {
+			Value[] current = this.values;
+			Value[] values = release.values;
+			if (values.length < current.length) {
+				values = Arrays.copyOf(values, current.length);
+			}
+			long[] table = release.table;
+			int size = release.size;
+
+			// IDs that are used again, or that have been assigned since the release was prepared
+			for (int id = lateUsed.nextSetBit(1); id >= 0 && id < release.idLimit; id = lateUsed.nextSetBit(id + 1)) {
+				if (values[id] == null) {
+					values[id] = current[id];
+					size++;
+					table = insertAndGrow(table, size, values[id].hashCode(), id);
+				}
+			}
+			for (int id = release.idLimit; id < nextId; id++) {
+				if (current[id] != null) {
+					values[id] = current[id];
+					size++;
+					table = insertAndGrow(table, size, values[id].hashCode(), id);
+				}
+			}
+
+			this.values = values;
+			this.table = table;
+			this.size = size;
+			freeIds = release.freeIds;
+			freeIdCount = release.freeIdCount;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	void clear() {
+		long stamp = lock.writeLock();
+		try {
+			values = new Value[INITIAL_CAPACITY];
+			table = new long[INITIAL_CAPACITY * 2];
+			nextId = 1;
+			size = 0;
+			freeIds = new int[0];
+			freeIdCount = 0;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	private static int capacityFor(int size) {
+		int capacity = INITIAL_CAPACITY * 2;
+		while (capacity < size * 2L) {
+			capacity *= 2;
+		}
+		return capacity;
+	}
+
+	private static long[] insertAndGrow(long[] table, int size, int hash, int id) {
+		if (size * 2L > table.length) {
+			table = rehash(table, table.length * 2);
+		}
+		insert(table, hash, id);
+		return table;
+	}
+
+	private static int find(long[] table, Value[] values, Value value, int hash) {
+		int mask = table.length - 1;
+		int i = mix(hash) & mask;
+		for (int probes = 0; probes < table.length; probes++) {
+			long slot = table[i];
+			if (slot == 0L) {
+				return NULL_ID;
+			}
+			int id = (int) slot;
+			if ((int) (slot >>> 32) == hash && id < values.length) {
+				Value candidate = values[id];
+				if (candidate != null && candidate.equals(value)) {
+					return id;
+				}
+			}
+			i = (i + 1) & mask;
+		}
+		return NULL_ID;
+	}
+
+	private static void insert(long[] table, int hash, int id) {
+		int mask = table.length - 1;
+		int i = mix(hash) & mask;
+		while (table[i] != 0L) {
+			i = (i + 1) & mask;
+		}
+		table[i] = ((long) hash << 32) | (id & 0xFFFFFFFFL);
+	}
+
+	private static long[] rehash(long[] table, int capacity) {
+		long[] result = new long[capacity];
+		for (long slot : table) {
+			if (slot != 0L) {
+				insert(result, (int) (slot >>> 32), (int) slot);
+			}
+		}
+		return result;
+	}
+
+	private static int mix(int hash) {
+		int h = hash * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * The new array of values and hash table of a release of unused values, see {@link #prepareRelease(BitSet, int)}.
+	 */
+	static final class Release {
+
+		private final int idLimit;
+
+		private final Value[] values;
+
+		private final long[] table;
+
+		private final int size;
+
+		private final int[] freeIds;
+
+		private final int freeIdCount;
+
+		private Release(int idLimit, Value[] values, long[] table, int size, int[] freeIds, int freeIdCount) {
+			this.idLimit = idLimit;
+			this.values = values;
+			this.table = table;
+			this.size = size;
+			this.freeIds = freeIds;
+			this.freeIdCount = freeIdCount;
+		}
+	}
+}
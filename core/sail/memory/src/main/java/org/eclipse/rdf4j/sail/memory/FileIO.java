@@ -43,9 +43,6 @@ import org.eclipse.rdf4j.rio.helpers.RDFStarUtil;
 import org.eclipse.rdf4j.sail.SailException;
 import org.eclipse.rdf4j.sail.base.SailDataset;
 import org.eclipse.rdf4j.sail.base.SailSink;
-import org.eclipse.rdf4j.sail.memory.model.MemIRI;
-import org.eclipse.rdf4j.sail.memory.model.MemResource;
-import org.eclipse.rdf4j.sail.memory.model.MemValue;
 import org.eclipse.rdf4j.sail.memory.model.MemValueFactory;
 
 /**
@@ -102,19 +99,19 @@ class FileIO {
 	 * Variables *
 	 *-----------*/
 
-	private final MemValueFactory vf;
+	private final ValueFactory vf;
 
 	private final CharsetEncoder charsetEncoder = StandardCharsets.UTF_8.newEncoder();
 
 	private final CharsetDecoder charsetDecoder = StandardCharsets.UTF_8.newDecoder();
 
-	private int formatVersion;
+	private int formatVersion = BMSF_VERSION;
 
 	/*--------------*
 	 * Constructors *
 	 *--------------*/
 
-	public FileIO(MemValueFactory vf) {
+	public FileIO(ValueFactory vf) {
 		this.vf = vf;
 	}
 
@@ -255,22 +252,23 @@ class FileIO {
 
 	private void readStatement(boolean hasContext, boolean isExplicit, DataInputStream dataIn, SailSink explicit,
 			SailSink inferred) throws IOException, ClassCastException, SailException {
-		MemResource memSubj = (MemResource) readValue(dataIn);
-		MemIRI memPred = (MemIRI) readValue(dataIn);
-		MemValue memObj = (MemValue) readValue(dataIn);
-		MemResource memContext = null;
+		// the value factory of a compact store does not create Mem* values
+		Resource subj = (Resource) readValue(dataIn);
+		IRI pred = (IRI) readValue(dataIn);
+		Value obj = readValue(dataIn);
+		Resource context = null;
 		if (hasContext) {
-			memContext = (MemResource) readValue(dataIn);
+			context = (Resource) readValue(dataIn);
 		}
 
 		if (isExplicit) {
-			explicit.approve(memSubj, memPred, memObj, memContext);
+			explicit.approve(subj, pred, obj, context);
 		} else {
-			inferred.approve(memSubj, memPred, memObj, memContext);
+			inferred.approve(subj, pred, obj, context);
 		}
 	}
 
-	private void writeValue(Value value, DataOutputStream dataOut) throws IOException {
+	void writeValue(Value value, DataOutputStream dataOut) throws IOException {
 		if (value.isIRI()) {
 			dataOut.writeByte(URI_MARKER);
 			writeString(((IRI) value).stringValue(), dataOut);
@@ -300,7 +298,7 @@ class FileIO {
 		}
 	}
 
-	private Value readValue(DataInputStream dataIn) throws IOException, ClassCastException {
+	Value readValue(DataInputStream dataIn) throws IOException, ClassCastException {
 		int valueTypeMarker = dataIn.readByte();
 
 		if (valueTypeMarker == URI_MARKER) {
@@ -323,19 +321,22 @@ class FileIO {
 		} else if (valueTypeMarker == RDFSTAR_TRIPLE_MARKER) {
 			IRI rdfStarEncodedTriple = (IRI) readValue(dataIn);
 			Triple triple = (Triple) RDFStarUtil.fromRDFEncodedValue(rdfStarEncodedTriple, vf);
-			return vf.getOrCreateMemTriple(triple);
+			if (vf instanceof MemValueFactory) {
+				return ((MemValueFactory) vf).getOrCreateMemTriple(triple);
+			}
+			return triple;
 		} else {
 			throw new IOException("Invalid value type marker: " + valueTypeMarker);
 		}
 	}
 
-	private void writeString(String s, DataOutputStream dataOut) throws IOException {
+	void writeString(String s, DataOutputStream dataOut) throws IOException {
 		ByteBuffer byteBuf = charsetEncoder.encode(CharBuffer.wrap(s));
 		dataOut.writeInt(byteBuf.remaining());
 		dataOut.write(byteBuf.array(), 0, byteBuf.remaining());
 	}
 
-	private String readString(DataInputStream dataIn) throws IOException {
+	String readString(DataInputStream dataIn) throws IOException {
 		if (formatVersion == 1) {
 			return readStringV1(dataIn);
 		} else {
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of the indexes in the main statement list of a {@link MemorySailStore} at which the statements of each
+ * snapshot were inserted. A statement never moves within the list, so the snapshot in which a deprecated statement was
+ * added tells the snapshot cleanup which part of the list it needs to visit to remove it.
+ * <p>
+ * Each entry covers the snapshots from its own snapshot up to the snapshot of the next entry. When the number of
+ * entries reaches the capacity, neighbouring entries are merged into one entry that covers both index ranges, so older
+ * snapshots are tracked with less precision instead of using more memory.
+ */
+class InsertionRanges {
+
+	private static final int DEFAULT_CAPACITY = 4096;
+
+	private final int capacity;
+
+	private int[] snapshots = new int[16];
+
+	private int[] fromIndexes = new int[16];
+
+	private int[] toIndexes = new int[16];
+
+	private int size;
+
+	InsertionRanges() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	InsertionRanges(int capacity) {
+		this.capacity = Math.max(2, capacity);
+	}
+
+	/**
+	 * Records that statements of the supplied snapshot were inserted at indexes in the supplied range. Snapshots must
+	 * be recorded in non-decreasing order.
+	 *
+	 * @param fromIndex the lowest index, inclusive
+	 * @param toIndex   the highest index, inclusive
+	 */
+	synchronized void record(int snapshot, int fromIndex, int toIndex) {
+		int last = size - 1;
+		if (last >= 0 && snapshots[last] >= snapshot) {
+			assert snapshots[last] == snapshot;
+			fromIndexes[last] = Math.min(fromIndexes[last], fromIndex);
+			toIndexes[last] = Math.max(toIndexes[last], toIndex);
+			return;
+		}
+		if (size == capacity) {
+			merge();
+		} else if (size == snapshots.length) {
+			int newLength = Math.min(capacity, size * 2);
+			snapshots = Arrays.copyOf(snapshots, newLength);
+			fromIndexes = Arrays.copyOf(fromIndexes, newLength);
+			toIndexes = Arrays.copyOf(toIndexes, newLength);
+		}
+		snapshots[size] = snapshot;
+		fromIndexes[size] = fromIndex;
+		toIndexes[size] = toIndex;
+		size++;
+	}
+
+	/**
+	 * Halves the number of entries by merging each pair of neighbouring entries.
+	 */
+	private void merge() {
+		int merged = 0;
+		for (int i = 0; i < size; i += 2) {
+			snapshots[merged] = snapshots[i];
+			fromIndexes[merged] = fromIndexes[i];
+			toIndexes[merged] = toIndexes[i];
+			if (i + 1 < size) {
+				fromIndexes[merged] = Math.min(fromIndexes[merged], fromIndexes[i + 1]);
+				toIndexes[merged] = Math.max(toIndexes[merged], toIndexes[i + 1]);
+			}
+			merged++;
+		}
+		size = merged;
+	}
+
+	/**
+	 * Returns the index ranges that the statements of the supplied snapshots were inserted at.
+	 *
+	 * @param sortedSnapshots distinct snapshots in ascending order
+	 * @return sorted, non-overlapping ranges as pairs of an inclusive start and an exclusive end index, or
+	 *         <var>null</var> if any of the snapshots is older than the tracked snapshots
+	 */
+	synchronized int[] getRanges(int[] sortedSnapshots) {
+		if (sortedSnapshots.length == 0) {
+			return new int[0];
+		}
+		if (size == 0 || sortedSnapshots[0] < snapshots[0]) {
+			return null;
+		}
+
+		// collect the distinct entries that cover the snapshots
+		int[] entries = new int[Math.min(size, sortedSnapshots.length)];
+		int count = 0;
+		int entry = 0;
+		for (int snapshot : sortedSnapshots) {
+			while (entry + 1 < size && snapshots[entry + 1] <= snapshot) {
+				entry++;
+			}
+			if (count == 0 || entries[count - 1] != entry) {
+				entries[count++] = entry;
+			}
+		}
+
+		long[] ranges = new long[count];
+		for (int i = 0; i < count; i++) {
+			ranges[i] = ((long) fromIndexes[entries[i]] << 32) | toIndexes[entries[i]];
+		}
+		Arrays.sort(ranges);
+
+		int[] result = new int[count * 2];
+		int resultSize = 0;
+		for (long range : ranges) {
+			int from = (int) (range >>> 32);
+			int to = (int) range + 1;
+			if (resultSize > 0 && from <= result[resultSize - 1]) {
+				result[resultSize - 1] = Math.max(result[resultSize - 1], to);
+			} else {
+				result[resultSize++] = from;
+				result[resultSize++] = to;
+			}
+		}
+		return Arrays.copyOf(result, resultSize);
+	}
+
+	synchronized void clear() {
+		size = 0;
+	}
+}
@@ -0,0 +1,492 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.sail.memory.model.MemIRI;
+import org.eclipse.rdf4j.sail.memory.model.MemResource;
+import org.eclipse.rdf4j.sail.memory.model.MemStatement;
+import org.eclipse.rdf4j.sail.memory.model.MemStatementList;
+import org.eclipse.rdf4j.sail.memory.model.MemValue;
+
+/**
+ * Statistics about the statements of a {@link MemorySailStore} that are maintained on every commit and used by
+ * {@link MemEvaluationStatistics} to estimate the cardinality of joins:
+ * <ul>
+ * <li>for each predicate the number of statements, the number of distinct subjects and an estimate of the number of
+ * distinct objects;</li>
+ * <li>for each predicate a histogram of the types of its objects, that is the number of IRIs, blank nodes, triples and
+ * literals of each datatype;</li>
+ * <li>the characteristic sets of the subjects: for each distinct set of predicates that subjects are described with,
+ * the number of such subjects and the number of statements with each of the predicates.</li>
+ * </ul>
+ * The statistics are updated by a single writer, the sink that holds the transaction lock, while any number of readers
+ * use them concurrently. Readers may see the statistics of a commit that is only partially applied.
+ */
+class MemCardinalityStatistics {
+
+	/**
+	 * The maximum number of characteristic sets that are kept. Subjects whose set of predicates is not among them when
+	 * the limit has been reached are not counted in any characteristic set.
+	 */
+	private static final int MAX_CHARACTERISTIC_SETS = 10_000;
+
+	private static final Comparator<MemIRI> PREDICATE_ORDER = Comparator.comparing(MemIRI::stringValue);
+
+	private final ConcurrentHashMap<MemIRI, PredicateStatistics> predicates = new ConcurrentHashMap<>();
+
+	private final ConcurrentHashMap<List<MemIRI>, CharacteristicSet> characteristicSets = new ConcurrentHashMap<>();
+
+	/**
+	 * The number of distinct subjects.
+	 */
+	private volatile long subjectCount;
+
+	/**
+	 * The snapshot that the last update was for, and the predicates that the subjects that were updated in that
+	 * snapshot have been counted with. A transaction commits its explicit and inferred statements with separate sinks
+	 * in the same snapshot, the second update needs to know how the first one counted the subjects.
+	 */
+	private int updatedSnapshot = -1;
+
+	private final Map<MemResource, Map<MemIRI, Integer>> updatedSubjects = new IdentityHashMap<>();
+
+	/**
+	 * Updates the statistics with the statements that a sink has added and deprecated in the supplied snapshot. Must
+	 * only be called by the sink that holds the transaction lock, after the changes have been committed.
+	 */
+	void update(int snapshot, Collection<MemStatement> added, Collection<MemStatement> deprecated)
+			throws InterruptedException {
+		if (snapshot != updatedSnapshot) {
+			updatedSnapshot = snapshot;
+			updatedSubjects.clear();
+		}
+
+		Map<MemResource, Boolean> subjects = new IdentityHashMap<>();
+		Map<MemIRI, PredicateStatistics> removedFrom = new IdentityHashMap<>();
+		if (added != null) {
+			for (MemStatement st : added) {
+				// statements that were added and removed in the same snapshot never became visible
+				if (st.isInSnapshot(snapshot)) {
+					getOrCreate(st.getPredicate()).add(st.getObject());
+					subjects.put(st.getSubject(), Boolean.TRUE);
+				}
+			}
+		}
+		if (deprecated != null) {
+			for (MemStatement st : deprecated) {
+				if (st.getSinceSnapshot() < snapshot) {
+					PredicateStatistics stats = predicates.get(st.getPredicate());
+					if (stats != null) {
+						stats.remove(st.getObject());
+						removedFrom.put(st.getPredicate(), stats);
+					}
+					subjects.put(st.getSubject(), Boolean.TRUE);
+				}
+			}
+		}
+
+		for (MemResource subject : subjects.keySet()) {
+			Map<MemIRI, Integer> counted = updatedSubjects.get(subject);
+			if (counted == null) {
+				counted = getPredicates(subject, snapshot - 1);
+			}
+			Map<MemIRI, Integer> current = getPredicates(subject, snapshot);
+			updateCharacteristicSets(counted, current);
+			updatedSubjects.put(subject, current);
+		}
+
+		for (Map.Entry<MemIRI, PredicateStatistics> entry : removedFrom.entrySet()) {
+			PredicateStatistics stats = entry.getValue();
+			if (stats.isEmpty()) {
+				predicates.remove(entry.getKey(), stats);
+			} else if (stats.needsRebuild()) {
+				stats.rebuildDistinctObjects(entry.getKey(), snapshot);
+			}
+		}
+	}
+
+	private PredicateStatistics getOrCreate(MemIRI predicate) {
+		return predicates.computeIfAbsent(predicate, k -> new PredicateStatistics());
+	}
+
+	/**
+	 * @return the number of statements with each predicate that the subject has in the supplied snapshot
+	 */
+	private static Map<MemIRI, Integer> getPredicates(MemResource subject, int snapshot) throws InterruptedException {
+		MemStatementList statements = subject.getSubjectStatementList();
+		Map<MemIRI, Integer> result = new HashMap<>();
+		for (MemStatement st : statements.getStatements()) {
+			if (st != null && st.isInSnapshot(snapshot)) {
+				result.merge(st.getPredicate(), 1, Integer::sum);
+			}
+		}
+		return result;
+	}
+
+	private void updateCharacteristicSets(Map<MemIRI, Integer> before, Map<MemIRI, Integer> after) {
+		if (before.equals(after)) {
+			return;
+		}
+		if (before.isEmpty()) {
+			subjectCount = subjectCount + 1;
+		} else if (after.isEmpty()) {
+			subjectCount = Math.max(0, subjectCount - 1);
+		}
+
+		if (!before.isEmpty()) {
+			CharacteristicSet set = characteristicSets.get(key(before));
+			if (set != null) {
+				set.remove(before);
+				if (set.subjects == 0) {
+					characteristicSets.remove(set.key);
+				}
+			}
+		}
+		if (!after.isEmpty()) {
+			List<MemIRI> key = key(after);
+			CharacteristicSet set = characteristicSets.get(key);
+			if (set == null && characteristicSets.size() < MAX_CHARACTERISTIC_SETS) {
+				set = new CharacteristicSet(key);
+				characteristicSets.put(key, set);
+			}
+			if (set != null) {
+				set.add(after);
+			}
+		}
+
+		for (MemIRI predicate : after.keySet()) {
+			if (!before.containsKey(predicate)) {
+				PredicateStatistics stats = getOrCreate(predicate);
+				stats.distinctSubjects = stats.distinctSubjects + 1;
+			}
+		}
+		for (MemIRI predicate : before.keySet()) {
+			if (!after.containsKey(predicate)) {
+				PredicateStatistics stats = predicates.get(predicate);
+				if (stats != null) {
+					stats.distinctSubjects = Math.max(0, stats.distinctSubjects - 1);
+				}
+			}
+		}
+	}
+
+	private static List<MemIRI> key(Map<MemIRI, Integer> predicates) {
+		MemIRI[] key = predicates.keySet().toArray(new MemIRI[0]);
+		Arrays.sort(key, PREDICATE_ORDER);
+		return List.of(key);
+	}
+
+	/**
+	 * @return the statistics of the supplied predicate, or <var>null</var> if there are no statements with it
+	 */
+	PredicateStatistics get(IRI predicate) {
+		return predicates.get(predicate);
+	}
+
+	/**
+	 * @return the number of distinct subjects
+	 */
+	long getSubjectCount() {
+		return subjectCount;
+	}
+
+	/**
+	 * @return the number of distinct predicates
+	 */
+	int getPredicateCount() {
+		return predicates.size();
+	}
+
+	/**
+	 * Estimates the number of solutions of a star of statement patterns that share their subject and have the
+	 * supplied predicates, from the characteristic sets that include all of the predicates. A predicate that is
+	 * included more than once is counted as often.
+	 *
+	 * @return the estimated number of solutions, or a negative value if there are no characteristic sets
+	 */
+	double getStarCardinality(Collection<? extends IRI> starPredicates) {
+		if (characteristicSets.isEmpty()) {
+			return -1;
+		}
+		double cardinality = 0;
+		for (CharacteristicSet set : characteristicSets.values()) {
+			long subjects = set.subjects;
+			if (subjects <= 0) {
+				continue;
+			}
+			double setCardinality = subjects;
+			for (IRI predicate : starPredicates) {
+				int index = set.indexOf(predicate);
+				if (index < 0) {
+					setCardinality = 0;
+					break;
+				}
+				setCardinality *= Math.max(0, (double) set.occurrences.get(index) / subjects);
+			}
+			cardinality += setCardinality;
+		}
+		return cardinality;
+	}
+
+	/**
+	 * Statistics of the statements with a single predicate.
+	 */
+	static class PredicateStatistics {
+
+		private volatile long size;
+
+		private volatile long distinctSubjects;
+
+		private volatile long distinctObjects;
+
+		private volatile long iris;
+
+		private volatile long bnodes;
+
+		private volatile long triples;
+
+		private final Map<IRI, AtomicLong> datatypes = new ConcurrentHashMap<>();
+
+		private final HyperLogLog objects = new HyperLogLog();
+
+		/**
+		 * The number of statements removed since the distinct objects were last counted.
+		 */
+		private long removedSinceRebuild;
+
+		long getSize() {
+			return size;
+		}
+
+		long getDistinctSubjects() {
+			return distinctSubjects;
+		}
+
+		long getDistinctObjects() {
+			return Math.min(distinctObjects, size);
+		}
+
+		/**
+		 * @return the fraction of the objects that are IRIs, blank nodes or triples and can therefore be the subject of
+		 *         other statements
+		 */
+		double getResourceObjectRatio() {
+			long size = this.size;
+			return size == 0 ? 0 : Math.min(1.0, (double) (iris + bnodes + triples) / size);
+		}
+
+		/**
+		 * @return the fraction of the objects that are IRIs
+		 */
+		double getIRIObjectRatio() {
+			long size = this.size;
+			return size == 0 ? 0 : Math.min(1.0, (double) iris / size);
+		}
+
+		/**
+		 * @return the fraction of the objects of this predicate whose type, the kind of value or the datatype of the
+		 *         literal, is shared with the objects of the other predicate, assuming that the objects of both
+		 *         predicates are distributed alike within each type
+		 */
+		double getTypeOverlap(PredicateStatistics other) {
+			long size = this.size;
+			long otherSize = other.size;
+			if (size == 0 || otherSize == 0) {
+				return 0;
+			}
+			double overlap = Math.min((double) iris / size, (double) other.iris / otherSize)
+					+ Math.min((double) bnodes / size, (double) other.bnodes / otherSize)
+					+ Math.min((double) triples / size, (double) other.triples / otherSize);
+			for (Map.Entry<IRI, AtomicLong> entry : datatypes.entrySet()) {
+				AtomicLong otherCount = other.datatypes.get(entry.getKey());
+				if (otherCount != null) {
+					overlap += Math.min((double) entry.getValue().get() / size, (double) otherCount.get() / otherSize);
+				}
+			}
+			return Math.max(0, Math.min(1.0, overlap));
+		}
+
+		boolean isEmpty() {
+			return size <= 0 && distinctSubjects <= 0;
+		}
+
+		private void add(MemValue object) {
+			size = size + 1;
+			count(object, 1);
+			objects.add(object);
+			distinctObjects = objects.estimate();
+		}
+
+		private void remove(MemValue object) {
+			size = Math.max(0, size - 1);
+			count(object, -1);
+			removedSinceRebuild++;
+		}
+
+		/**
+		 * @return <var>true</var> if so many statements have been removed that the distinct objects should be counted
+		 *         again
+		 */
+		private boolean needsRebuild() {
+			return removedSinceRebuild > Math.max(1000, size / 4);
+		}
+
+		private void count(Value object, int delta) {
+			if (object.isIRI()) {
+				iris = iris + delta;
+			} else if (object.isBNode()) {
+				bnodes = bnodes + delta;
+			} else if (object.isTriple()) {
+				triples = triples + delta;
+			} else if (object.isLiteral()) {
+				IRI datatype = ((Literal) object).getDatatype();
+				AtomicLong count = datatypes.computeIfAbsent(datatype, k -> new AtomicLong());
+				if (count.addAndGet(delta) <= 0) {
+					datatypes.remove(datatype);
+				}
+			}
+		}
+
+		/**
+		 * Counts the distinct objects again, the estimate of the distinct objects can not account for removed
+		 * statements.
+		 */
+		private void rebuildDistinctObjects(MemIRI predicate, int snapshot) throws InterruptedException {
+			HyperLogLog rebuilt = new HyperLogLog();
+			for (MemStatement st : predicate.getPredicateStatementList().getStatements()) {
+				if (st != null && st.isInSnapshot(snapshot)) {
+					rebuilt.add(st.getObject());
+				}
+			}
+			objects.copyFrom(rebuilt);
+			distinctObjects = objects.estimate();
+			removedSinceRebuild = 0;
+		}
+	}
+
+	/**
+	 * The subjects that are described with exactly the same set of predicates.
+	 */
+	private static final class CharacteristicSet {
+
+		private final List<MemIRI> key;
+
+		private final MemIRI[] predicates;
+
+		private volatile long subjects;
+
+		/**
+		 * The number of statements with each of the {@link #predicates}.
+		 */
+		private final AtomicLongArray occurrences;
+
+		CharacteristicSet(List<MemIRI> key) {
+			this.key = key;
+			this.predicates = key.toArray(new MemIRI[0]);
+			this.occurrences = new AtomicLongArray(predicates.length);
+		}
+
+		int indexOf(IRI predicate) {
+			for (int i = 0; i < predicates.length; i++) {
+				if (predicates[i].equals(predicate)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		void add(Map<MemIRI, Integer> counts) {
+			subjects = subjects + 1;
+			for (int i = 0; i < predicates.length; i++) {
+				occurrences.addAndGet(i, counts.get(predicates[i]));
+			}
+		}
+
+		void remove(Map<MemIRI, Integer> counts) {
+			if (subjects <= 0) {
+				return;
+			}
+			subjects = subjects - 1;
+			for (int i = 0; i < predicates.length; i++) {
+				occurrences.addAndGet(i, -counts.get(predicates[i]));
+			}
+		}
+	}
+
+	/**
+	 * A HyperLogLog sketch that estimates the number of distinct values that have been added to it, with a standard
+	 * error of about 3% in 1 KB.
+	 */
+	static final class HyperLogLog {
+
+		private static final int PRECISION = 10;
+
+		private static final int REGISTERS = 1 << PRECISION;
+
+		private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+		private final byte[] registers = new byte[REGISTERS];
+
+		void add(Object value) {
+			long hash = mix(value.hashCode());
+			int index = (int) (hash >>> (64 - PRECISION));
+			byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+			if (rank > registers[index]) {
+				registers[index] = rank;
+			}
+		}
+
+		long estimate() {
+			double sum = 0;
+			int zeros = 0;
+			for (byte register : registers) {
+				sum += 1.0 / (1L << register);
+				if (register == 0) {
+					zeros++;
+				}
+			}
+			double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+			if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+				// linear counting is more accurate for small cardinalities
+				estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+			}
+			return Math.round(estimate);
+		}
+
+		void copyFrom(HyperLogLog other) {
+			System.arraycopy(other.registers, 0, registers, 0, REGISTERS);
+		}
+
+		private static long mix(long hash) {
+			// the finalizer of MurmurHash3 spreads the bits of the 32 bit hash codes over the whole long
+			hash ^= hash >>> 33;
+			hash *= 0xff51afd7ed558ccdL;
+			hash ^= hash >>> 33;
+			hash *= 0xc4ceb9fe1a85ec53L;
+			hash ^= hash >>> 33;
+			return hash;
+		}
+	}
+}
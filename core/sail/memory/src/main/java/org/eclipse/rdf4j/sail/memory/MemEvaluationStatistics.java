@@ -10,12 +10,23 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.sail.memory;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.algebra.Join;
 import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.TupleExpr;
 import org.eclipse.rdf4j.query.algebra.Var;
 import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.eclipse.rdf4j.sail.memory.MemCardinalityStatistics.PredicateStatistics;
 import org.eclipse.rdf4j.sail.memory.model.MemIRI;
 import org.eclipse.rdf4j.sail.memory.model.MemResource;
 import org.eclipse.rdf4j.sail.memory.model.MemStatementList;
@@ -23,20 +34,105 @@ import org.eclipse.rdf4j.sail.memory.model.MemValue;
 import org.eclipse.rdf4j.sail.memory.model.MemValueFactory;
 
 /**
- * Uses the MemoryStore's statement sizes to give cost estimates based on the size of the expected results. This process
- * could be improved with repository statistics about size and distribution of statements.
+ * Uses the MemoryStore's statement sizes to give cost estimates based on the size of the expected results. When the
+ * store maintains {@link MemCardinalityStatistics}, the number of distinct values, the types of the objects and the
+ * characteristic sets of the subjects are used to estimate the cardinality of joins.
  *
  * @author Arjohn Kampman
  * @author James Leigh
  */
 class MemEvaluationStatistics extends EvaluationStatistics {
 
+	// No statistics are kept about contexts, a variable in the context position is assumed to take this many values.
+	private static final double CONTEXT_DISTINCT_VALUES = 10;
+
 	private final MemValueFactory valueFactory;
 	private final MemStatementList memStatementList;
+	private final MemCardinalityStatistics cardinalityStatistics;
 
 	MemEvaluationStatistics(MemValueFactory valueFactory, MemStatementList memStatementList) {
+		this(valueFactory, memStatementList, null);
+	}
+
+	MemEvaluationStatistics(MemValueFactory valueFactory, MemStatementList memStatementList,
+			MemCardinalityStatistics cardinalityStatistics) {
 		this.valueFactory = valueFactory;
 		this.memStatementList = memStatementList;
+		this.cardinalityStatistics = cardinalityStatistics;
+	}
+
+	/**
+	 * Estimates the results of a statement pattern per solution of the variables that are already bound by dividing
+	 * its cardinality by the number of distinct values of each bound variable, assuming that the values that are bound
+	 * are among the values of the pattern.
+	 */
+	@Override
+	public double getJoinCardinality(Set<String> boundVars, TupleExpr expr) {
+		if (cardinalityStatistics == null || !(expr instanceof StatementPattern)) {
+			return -1;
+		}
+
+		StatementPattern sp = (StatementPattern) expr;
+		double patternCardinality = getCardinality(sp);
+		if (patternCardinality == 0 || boundVars.isEmpty()) {
+			return patternCardinality;
+		}
+
+		double cardinality = patternCardinality;
+		boolean hasUnboundVars = false;
+		Set<String> seen = new HashSet<>(4);
+		for (Var var : sp.getVarList()) {
+			if (var.hasValue() || !seen.add(var.getName())) {
+				continue;
+			}
+			if (boundVars.contains(var.getName())) {
+				cardinality /= Math.max(1, getDistinctValues(sp, var, patternCardinality));
+			} else {
+				hasUnboundVars = true;
+			}
+		}
+
+		if (!hasUnboundVars) {
+			// all variables are bound, the pattern only checks if the statement exists
+			cardinality = Math.min(cardinality, 1);
+		}
+		return cardinality;
+	}
+
+	/**
+	 * @return the estimated number of distinct values of the variable in the results of the statement pattern, which
+	 *         is at most the cardinality of the pattern
+	 */
+	private double getDistinctValues(StatementPattern sp, Var var, double cardinality) {
+		IRI pred = getConstantIRI(sp.getPredicateVar());
+		double distinct;
+		if (var == sp.getSubjectVar()) {
+			if (pred != null) {
+				PredicateStatistics stats = cardinalityStatistics.get(pred);
+				distinct = stats == null ? 0 : stats.getDistinctSubjects();
+			} else {
+				distinct = cardinalityStatistics.getSubjectCount();
+			}
+		} else if (var == sp.getObjectVar()) {
+			if (pred != null) {
+				PredicateStatistics stats = cardinalityStatistics.get(pred);
+				distinct = stats == null ? 0 : stats.getDistinctObjects();
+			} else {
+				distinct = cardinality;
+			}
+		} else if (var == sp.getPredicateVar()) {
+			distinct = cardinalityStatistics.getPredicateCount();
+		} else {
+			distinct = CONTEXT_DISTINCT_VALUES;
+		}
+		return Math.min(distinct, cardinality);
+	}
+
+	private static IRI getConstantIRI(Var var) {
+		if (var != null && var.hasValue() && var.getValue().isIRI()) {
+			return (IRI) var.getValue();
+		}
+		return null;
 	}
 
 	@Override
@@ -148,6 +244,206 @@ class MemEvaluationStatistics extends EvaluationStatistics {
 
 			return null;
 		}
+
+		@Override
+		public void meet(Join node) {
+			List<StatementPattern> patterns = new ArrayList<>();
+			if (cardinalityStatistics == null || !collectStatementPatterns(node, patterns)) {
+				super.meet(node);
+				return;
+			}
+
+			// patterns that share their subject and have a constant predicate are estimated together as a star, from
+			// the characteristic sets
+			Map<String, List<StatementPattern>> stars = new LinkedHashMap<>();
+			List<JoinEstimate> remaining = new ArrayList<>();
+			for (StatementPattern sp : patterns) {
+				if (!sp.getSubjectVar().hasValue() && getConstantIRI(sp.getPredicateVar()) != null) {
+					stars.computeIfAbsent(sp.getSubjectVar().getName(), k -> new ArrayList<>()).add(sp);
+				} else {
+					remaining.add(estimate(sp));
+				}
+			}
+			for (List<StatementPattern> star : stars.values()) {
+				remaining.add(star.size() == 1 ? estimate(star.get(0)) : estimateStar(star));
+			}
+
+			// join the estimates, preferring estimates that share a variable with the ones that are already joined
+			JoinEstimate result = remaining.remove(0);
+			while (!remaining.isEmpty()) {
+				int next = 0;
+				for (int i = 0; i < remaining.size(); i++) {
+					if (result.sharesVariableWith(remaining.get(i))) {
+						next = i;
+						break;
+					}
+				}
+				result = result.join(remaining.remove(next));
+			}
+			cardinality = result.cardinality;
+		}
+
+		private boolean collectStatementPatterns(TupleExpr expr, List<StatementPattern> patterns) {
+			if (expr instanceof Join) {
+				return collectStatementPatterns(((Join) expr).getLeftArg(), patterns)
+						&& collectStatementPatterns(((Join) expr).getRightArg(), patterns);
+			} else if (expr instanceof StatementPattern) {
+				patterns.add((StatementPattern) expr);
+				return true;
+			}
+			return false;
+		}
+
+		private JoinEstimate estimate(StatementPattern sp) {
+			JoinEstimate estimate = new JoinEstimate(getCardinality(sp));
+			estimate.addVars(sp, estimate.cardinality);
+			return estimate;
+		}
+
+		private JoinEstimate estimateStar(List<StatementPattern> star) {
+			List<IRI> predicates = new ArrayList<>(star.size());
+			double selectivity = 1;
+			for (StatementPattern sp : star) {
+				IRI pred = getConstantIRI(sp.getPredicateVar());
+				predicates.add(pred);
+				if (sp.getObjectVar().hasValue() || sp.getContextVar() != null && sp.getContextVar().hasValue()) {
+					// the fraction of the statements with the predicate that match the constants
+					PredicateStatistics stats = cardinalityStatistics.get(pred);
+					long size = stats == null ? 0 : stats.getSize();
+					selectivity *= size == 0 ? 0 : Math.min(1, getCardinality(sp) / size);
+				}
+			}
+
+			double starCardinality = cardinalityStatistics.getStarCardinality(predicates);
+			if (starCardinality < 0) {
+				JoinEstimate result = estimate(star.get(0));
+				for (int i = 1; i < star.size(); i++) {
+					result = result.join(estimate(star.get(i)));
+				}
+				return result;
+			}
+
+			JoinEstimate estimate = new JoinEstimate(starCardinality * selectivity);
+			for (StatementPattern sp : star) {
+				estimate.addVars(sp, estimate.cardinality);
+			}
+			return estimate;
+		}
+	}
+
+	/**
+	 * The estimated cardinality of a join of statement patterns, with the estimated number of distinct values of its
+	 * variables and the positions that they are used in.
+	 */
+	private class JoinEstimate {
+
+		private final double cardinality;
+
+		private final Map<String, Double> distinctValues = new HashMap<>();
+
+		/**
+		 * Variables in the object position of a pattern with a constant predicate, and that predicate.
+		 */
+		private final Map<String, IRI> objectPredicates = new HashMap<>();
+
+		/**
+		 * Variables in the subject or context position, which can only be bound to resources.
+		 */
+		private final Set<String> resourceVars = new HashSet<>();
+
+		/**
+		 * Variables in the predicate position, which can only be bound to IRIs.
+		 */
+		private final Set<String> iriVars = new HashSet<>();
+
+		JoinEstimate(double cardinality) {
+			this.cardinality = cardinality;
+		}
+
+		void addVars(StatementPattern sp, double patternCardinality) {
+			IRI pred = getConstantIRI(sp.getPredicateVar());
+			for (Var var : sp.getVarList()) {
+				if (var.hasValue()) {
+					continue;
+				}
+				String name = var.getName();
+				distinctValues.merge(name, getDistinctValues(sp, var, patternCardinality), Math::min);
+				if (var == sp.getObjectVar()) {
+					if (pred != null) {
+						objectPredicates.putIfAbsent(name, pred);
+					}
+				} else if (var == sp.getPredicateVar()) {
+					iriVars.add(name);
+				} else {
+					resourceVars.add(name);
+				}
+			}
+		}
+
+		boolean sharesVariableWith(JoinEstimate other) {
+			for (String name : distinctValues.keySet()) {
+				if (other.distinctValues.containsKey(name)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Estimates the cardinality of the join with another estimate, assuming that the values of a shared variable
+		 * on the side with fewer distinct values are all among the values on the other side.
+		 */
+		JoinEstimate join(JoinEstimate other) {
+			double cardinality = this.cardinality * other.cardinality;
+			for (Map.Entry<String, Double> entry : distinctValues.entrySet()) {
+				Double otherDistinct = other.distinctValues.get(entry.getKey());
+				if (otherDistinct != null) {
+					cardinality /= Math.max(1, Math.max(entry.getValue(), otherDistinct));
+					cardinality *= getTypeCompatibility(this, other, entry.getKey());
+				}
+			}
+
+			JoinEstimate result = new JoinEstimate(cardinality);
+			for (JoinEstimate estimate : List.of(this, other)) {
+				for (Map.Entry<String, Double> entry : estimate.distinctValues.entrySet()) {
+					result.distinctValues.merge(entry.getKey(), Math.min(entry.getValue(), cardinality), Math::min);
+				}
+				estimate.objectPredicates.forEach(result.objectPredicates::putIfAbsent);
+				result.resourceVars.addAll(estimate.resourceVars);
+				result.iriVars.addAll(estimate.iriVars);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * @return the fraction of the join results on the shared variable that remain when the types of the values are
+	 *         taken into account: objects that are joined with subjects must be resources, objects that are joined with
+	 *         predicates must be IRIs, and objects that are joined with objects must have the same type
+	 */
+	private double getTypeCompatibility(JoinEstimate left, JoinEstimate right, String name) {
+		IRI leftPredicate = left.objectPredicates.get(name);
+		IRI rightPredicate = right.objectPredicates.get(name);
+		PredicateStatistics leftStats = leftPredicate == null ? null : cardinalityStatistics.get(leftPredicate);
+		PredicateStatistics rightStats = rightPredicate == null ? null : cardinalityStatistics.get(rightPredicate);
+
+		if (leftStats != null && rightStats != null) {
+			return leftStats.getTypeOverlap(rightStats);
+		} else if (leftStats != null) {
+			return getTypeCompatibility(leftStats, right, name);
+		} else if (rightStats != null) {
+			return getTypeCompatibility(rightStats, left, name);
+		}
+		return 1;
+	}
+
+	private double getTypeCompatibility(PredicateStatistics objectStats, JoinEstimate other, String name) {
+		if (other.iriVars.contains(name)) {
+			return objectStats.getIRIObjectRatio();
+		} else if (other.resourceVars.contains(name)) {
+			return objectStats.getResourceObjectRatio();
+		}
+		return 1;
 	}
 
 }
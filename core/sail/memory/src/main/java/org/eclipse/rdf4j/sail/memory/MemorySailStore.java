@@ -10,18 +10,29 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.sail.memory;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
 import java.lang.ref.Cleaner;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.lang3.time.StopWatch;
 import org.eclipse.rdf4j.common.concurrent.locks.ExclusiveReentrantLockManager;
@@ -67,6 +78,13 @@ import org.slf4j.LoggerFactory;
 
 /**
  * An implementation of {@link SailStore} that keeps committed statements in a {@link MemStatementList}.
+ * <p>
+ * In multi-writer mode, a transaction gets its snapshot when it first writes, and the snapshots are published strictly
+ * in that order. A commit therefore waits until every transaction that started writing earlier has been committed or
+ * rolled back: a transaction that is kept open after its first write holds up the commits of all transactions that
+ * started writing after it, although they can still write their changes. A thread must not commit a transaction while
+ * a transaction that it started writing earlier, on another connection, is still open, as the commit would wait for
+ * the thread itself. Rolling back does not wait for other transactions.
  *
  * @author James Leigh
  */
@@ -89,6 +107,16 @@ class MemorySailStore implements SailStore {
 	// we prioritise cleanup if there is less than 128 MB of free memory.
 	private static final double CLEANUP_MINIMUM_FREE_MEMORY_RATIO = 1.0 / 8;
 
+	// The number of deprecated statements that the snapshot cleanup processes at a time, between batches it checks if it
+	// has been interrupted and if memory is running low.
+	private static final int CLEANUP_BATCH_SIZE = 100_000;
+
+	// The number of indexes of the main statement list that a single task of the parallel snapshot cleanup visits.
+	private static final int CLEANUP_CHUNK_SIZE = 16 * 1024;
+
+	// Snapshot cleanup is only scheduled for stores with at least this many statements or deprecated statements.
+	private static final int CLEANUP_MINIMUM_STATEMENTS = 1000;
+
 	public static final EmptyIteration<MemStatement> EMPTY_ITERATION = (EmptyIteration<MemStatement>) StatementPatternQueryEvaluationStep.EMPTY_ITERATION;
 	public static final EmptyIteration<MemTriple> EMPTY_TRIPLE_ITERATION = new EmptyIteration<>();
 	public static final MemResource[] EMPTY_CONTEXT = {};
@@ -149,6 +177,75 @@ class MemorySailStore implements SailStore {
 	 */
 	private final Object snapshotCleanupThreadLockObject = new Object();
 
+	/**
+	 * Statements that have been deprecated by committed transactions and have not yet been removed by the snapshot
+	 * cleanup, one list per transaction.
+	 */
+	private final ConcurrentLinkedQueue<List<MemStatement>> deprecatedStatements = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Where the statements of each snapshot were inserted into {@link #statements}, used by the snapshot cleanup to only
+	 * visit the parts of the list that can contain deprecated statements.
+	 */
+	private final InsertionRanges insertionRanges = new InsertionRanges();
+
+	/**
+	 * The number of deprecated statements in {@link #deprecatedStatements}.
+	 */
+	private final LongAdder snapshotCleanupBacklog = new LongAdder();
+
+	/**
+	 * The number of statements that the snapshot cleanup has removed from {@link #statements}.
+	 */
+	private final LongAdder cleanedStatements = new LongAdder();
+
+	private volatile boolean snapshotCleanupRunning;
+
+	/**
+	 * Log that committed changes are appended to, null if changes are not logged.
+	 */
+	private volatile WriteAheadLog writeAheadLog;
+
+	/**
+	 * Statistics that are maintained on every commit to estimate the cardinality of joins, null if they are not
+	 * maintained.
+	 */
+	private volatile MemCardinalityStatistics cardinalityStatistics;
+
+	/**
+	 * Whether transactions write their changes concurrently instead of holding the exclusive transaction lock. See
+	 * {@link #enableMultiWriter()}.
+	 */
+	private volatile boolean multiWriter;
+
+	/**
+	 * The highest snapshot that has been assigned to a transaction in multi-writer mode.
+	 */
+	private final AtomicInteger lastWriteSnapshot = new AtomicInteger();
+
+	/**
+	 * The highest snapshot whose transaction has been published or aborted in multi-writer mode. Transactions are
+	 * published in the order of their snapshots.
+	 */
+	private volatile int completedWriteSnapshot;
+
+	/**
+	 * Snapshots above {@link #completedWriteSnapshot} whose transactions have already been aborted. They are skipped
+	 * once the transactions with a lower snapshot have completed. Guarded by {@link #publishLock}.
+	 */
+	private final Set<Integer> abortedWriteSnapshots = new HashSet<>();
+
+	private final ReentrantLock publishLock = new ReentrantLock();
+
+	private final Condition writeSnapshotCompleted = publishLock.newCondition();
+
+	/**
+	 * The transaction that each writer is writing in multi-writer mode, keyed by the {@link #connectionView() view} of
+	 * the connection, so that the explicit and the inferred sink of a transaction share a snapshot. A sink that is not
+	 * created through a connection view writes a transaction of its own.
+	 */
+	private final Map<Object, WriteTicket> writeTickets = new ConcurrentHashMap<>();
+
 	public MemorySailStore(boolean debug) {
 		snapshotMonitor = new SnapshotMonitor(debug);
 	}
@@ -168,27 +265,145 @@ class MemorySailStore implements SailStore {
 		}
 		valueFactory.clear();
 		statements.clear();
+		deprecatedStatements.clear();
+		insertionRanges.clear();
+		snapshotCleanupBacklog.reset();
 		namespaceStore.clear();
 		invalidateCache();
 	}
 
+	/**
+	 * @return the number of deprecated statements that are waiting to be removed by the snapshot cleanup
+	 */
+	long getSnapshotCleanupBacklog() {
+		return snapshotCleanupBacklog.sum();
+	}
+
+	/**
+	 * @return the number of statements that the snapshot cleanup has removed since the store was created
+	 */
+	long getCleanedStatementCount() {
+		return cleanedStatements.sum();
+	}
+
+	boolean isSnapshotCleanupRunning() {
+		return snapshotCleanupRunning;
+	}
+
 	private void invalidateCache() {
 		iteratorCache.invalidateCache();
 	}
 
+	/**
+	 * Sets the log that the changes of subsequent transactions are appended to when they are committed.
+	 */
+	void setWriteAheadLog(WriteAheadLog writeAheadLog) {
+		this.writeAheadLog = writeAheadLog;
+	}
+
+	/**
+	 * Starts maintaining cardinality statistics for the statements that subsequent transactions add and remove. Must
+	 * be called before any statements are added.
+	 */
+	void enableCardinalityStatistics() {
+		this.cardinalityStatistics = new MemCardinalityStatistics();
+	}
+
+	/**
+	 * Lets transactions write their changes at the same time instead of one after the other. Each transaction is
+	 * assigned the snapshot that it writes in when it starts writing, the statements that it adds stay invisible until
+	 * that snapshot is published. Only the validation of the observed statements and the publication of the snapshot
+	 * are serialised, in the order of the snapshots. Must be called before any statements are added.
+	 */
+	void enableMultiWriter() {
+		int snapshot = currentSnapshot;
+		lastWriteSnapshot.set(snapshot);
+		completedWriteSnapshot = snapshot;
+		multiWriter = true;
+	}
+
+	/**
+	 * Writes the current contents of the store to the data file and deletes the log segments that are no longer needed
+	 * afterwards.
+	 */
+	void checkpoint(File syncFile, File dataFile) throws IOException, SailException {
+		WriteAheadLog log = writeAheadLog;
+		MemorySailDataset explicit = null;
+		MemorySailDataset inferred = null;
+		try {
+			List<File> superseded;
+			// commits are published while holding the lock on the log, so the snapshot contains exactly the changes
+			// that were logged to the superseded segments
+			synchronized (log) {
+				int snapshot = currentSnapshot;
+				explicit = new MemorySailDataset(true, snapshot);
+				inferred = new MemorySailDataset(false, snapshot);
+				superseded = log.rotate();
+			}
+			new FileIO(valueFactory).write(explicit, inferred, syncFile, dataFile);
+			log.delete(superseded);
+		} finally {
+			try {
+				if (explicit != null) {
+					explicit.close();
+				}
+			} finally {
+				if (inferred != null) {
+					inferred.close();
+				}
+			}
+		}
+	}
+
 	@Override
 	public EvaluationStatistics getEvaluationStatistics() {
-		return new MemEvaluationStatistics(valueFactory, statements);
+		return new MemEvaluationStatistics(valueFactory, statements, cardinalityStatistics);
 	}
 
 	@Override
 	public SailSource getExplicitSailSource() {
-		return new MemorySailSource(true);
+		return new MemorySailSource(true, null);
 	}
 
 	@Override
 	public SailSource getInferredSailSource() {
-		return new MemorySailSource(false);
+		return new MemorySailSource(false, null);
+	}
+
+	/**
+	 * Creates a view of this store for a single connection. In multi-writer mode, the sinks of the sources of the view
+	 * belong to the transaction of the connection, independently of the thread that they are used from.
+	 *
+	 * @return a view of this store that shares everything but the sources
+	 */
+	SailStore connectionView() {
+		return new SailStore() {
+
+			@Override
+			public ValueFactory getValueFactory() {
+				return MemorySailStore.this.getValueFactory();
+			}
+
+			@Override
+			public EvaluationStatistics getEvaluationStatistics() {
+				return MemorySailStore.this.getEvaluationStatistics();
+			}
+
+			@Override
+			public SailSource getExplicitSailSource() {
+				return new MemorySailSource(true, this);
+			}
+
+			@Override
+			public SailSource getInferredSailSource() {
+				return new MemorySailSource(false, this);
+			}
+
+			@Override
+			public void close() {
+				// the store is closed by the sail
+			}
+		};
 	}
 
 	/**
@@ -364,8 +579,13 @@ class MemorySailStore implements SailStore {
 	}
 
 	/**
-	 * Removes statements from old snapshots from the main statement list and resets the snapshot to 1 for the rest of
-	 * the statements.
+	 * Removes statements from old snapshots from the main statement list and from the statement lists of their values.
+	 * <p>
+	 * Only the statements that committed transactions have deprecated are cleaned, in batches of
+	 * {@value #CLEANUP_BATCH_SIZE}. For each batch the statement lists of the values of the deprecated statements, and
+	 * the parts of the main statement list that the statements were inserted into, are cleaned in parallel by the
+	 * common {@link ForkJoinPool}. Statements that were deprecated in snapshots that are still in use are kept for a
+	 * later cleanup.
 	 *
 	 * @throws InterruptedException
 	 */
@@ -377,92 +597,194 @@ class MemorySailStore implements SailStore {
 					highestUnusedTillSnapshot, currentSnapshot);
 		}
 
+		snapshotCleanupRunning = true;
 		try {
 
 			boolean prioritiseCleaning = false;
 
 			StopWatch stopWatch = null;
+			long cleanedBefore = 0;
 			if (logger.isDebugEnabled()) {
 				stopWatch = StopWatch.createStarted();
+				cleanedBefore = cleanedStatements.sum();
 				logger.debug("Started cleaning snapshots.");
 			}
 
 			prioritiseCleaning = prioritiseSnapshotCleaningIfLowOnMemory(prioritiseCleaning);
 
-			// Sets used to keep track of which lists have already been processed
-			HashSet<MemValue> processedSubjects = new HashSet<>();
-			HashSet<MemValue> processedPredicates = new HashSet<>();
-			HashSet<MemValue> processedObjects = new HashSet<>();
-			HashSet<MemValue> processedContexts = new HashSet<>();
-
-			MemStatement[] statements = this.statements.getStatements();
-
-			/*
-			 * The order of the statement list won't change from lastStmtPos down while we don't have the write lock (it
-			 * might shrink or grow) as (1) new statements are always appended last, (2) we are the only process that
-			 * removes statements, (3) this list is cleared on close.
-			 */
+			List<MemStatement> stale = new ArrayList<>();
+			List<MemStatement> stillInUse = new ArrayList<>();
+			List<MemStatement> deprecated;
+			while ((deprecated = deprecatedStatements.poll()) != null) {
+				for (MemStatement st : deprecated) {
+					int tillSnapshot = st.getTillSnapshot();
+					if (tillSnapshot <= highestUnusedTillSnapshot) {
+						stale.add(st);
+					} else if (tillSnapshot != Integer.MAX_VALUE) {
+						stillInUse.add(st);
+					} else {
+						// the deprecation was undone
+						snapshotCleanupBacklog.decrement();
+					}
+				}
+			}
+			if (!stillInUse.isEmpty()) {
+				deprecatedStatements.add(stillInUse);
+			}
 
-			for (int i = statements.length - 1; i >= 0; i--) {
-				if (Thread.currentThread().isInterrupted()) {
+			Thread cleanupThread = Thread.currentThread();
+			for (int i = 0; i < stale.size(); i += CLEANUP_BATCH_SIZE) {
+				if (cleanupThread.isInterrupted()) {
 					break;
 				}
 
-				MemStatement st = statements[i];
-				if (st == null) {
-					continue;
-				}
+				List<MemStatement> batch = stale.subList(i, Math.min(stale.size(), i + CLEANUP_BATCH_SIZE));
+				cleanSnapshots(batch, highestUnusedTillSnapshot, cleanupThread);
+				snapshotCleanupBacklog.add(-batch.size());
 
-				if (st.getTillSnapshot() <= highestUnusedTillSnapshot) {
-					MemResource subj = st.getSubject();
-					if (processedSubjects.add(subj)) {
-						subj.cleanSnapshotsFromSubjectStatements(highestUnusedTillSnapshot);
-					}
+				prioritiseCleaning = prioritiseSnapshotCleaningIfLowOnMemory(prioritiseCleaning);
+			}
 
-					MemIRI pred = st.getPredicate();
-					if (processedPredicates.add(pred)) {
-						pred.cleanSnapshotsFromPredicateStatements(highestUnusedTillSnapshot);
-					}
+			if (logger.isDebugEnabled() && stopWatch != null) {
+				stopWatch.stop();
+				logger.debug("Cleaning snapshots removed {} statements and took {} seconds.",
+						cleanedStatements.sum() - cleanedBefore, stopWatch.getTime(TimeUnit.SECONDS));
+			}
 
-					MemValue obj = st.getObject();
-					if (processedObjects.add(obj)) {
-						obj.cleanSnapshotsFromObjectStatements(highestUnusedTillSnapshot);
-					}
+		} finally {
+			snapshotCleanupRunning = false;
+			statements.setPrioritiseCleanup(false);
+		}
+	}
 
-					MemResource context = st.getContext();
-					if (context != null && processedContexts.add(context)) {
-						context.cleanSnapshotsFromContextStatements(highestUnusedTillSnapshot);
-					}
+	private void cleanSnapshots(List<MemStatement> stale, int highestUnusedTillSnapshot, Thread cleanupThread)
+			throws InterruptedException {
+		// each statement list of a value only needs to be cleaned once
+		Set<MemStatementList> valueLists = Collections.newSetFromMap(new IdentityHashMap<>());
+		int[] sinceSnapshots = new int[stale.size()];
+		for (int i = 0; i < sinceSnapshots.length; i++) {
+			MemStatement st = stale.get(i);
+			valueLists.add(st.getSubject().getSubjectStatementList());
+			valueLists.add(st.getPredicate().getPredicateStatementList());
+			valueLists.add(st.getObject().getObjectStatementList());
+			MemResource context = st.getContext();
+			if (context != null) {
+				valueLists.add(context.getContextStatementList());
+			}
+			sinceSnapshots[i] = st.getSinceSnapshot();
+		}
 
-					// stale statement
-					this.statements.optimisticRemove(st, i);
-					prioritiseCleaning = prioritiseSnapshotCleaningIfLowOnMemory(prioritiseCleaning);
-				}
+		MemStatementList[] lists = valueLists.toArray(new MemStatementList[0]);
+		ForkJoinPool.commonPool().invoke(new CleanupTask(0, lists.length, 64, cleanupThread, (from, to) -> {
+			for (int i = from; i < to; i++) {
+				lists[i].cleanSnapshots(highestUnusedTillSnapshot);
+			}
+		}));
 
-				if (i % 100_000 == 0) {
-					if (getFreeToAllocateMemory() < CLEANUP_MINIMUM_FREE_MEMORY / 2) {
-						prioritiseCleaning = prioritiseSnapshotCleaningIfLowOnMemory(prioritiseCleaning);
-						processedSubjects = new HashSet<>();
-						processedPredicates = new HashSet<>();
-						processedObjects = new HashSet<>();
-						processedContexts = new HashSet<>();
-						System.gc();
+		MemStatement[] statements = this.statements.getStatements();
+		int[] ranges = insertionRanges.getRanges(distinct(sinceSnapshots));
+		if (ranges == null) {
+			ranges = new int[] { 0, statements.length };
+		}
+		int[] chunks = splitIntoChunks(ranges, statements.length);
+		ForkJoinPool.commonPool().invoke(new CleanupTask(0, chunks.length / 2, 1, cleanupThread, (from, to) -> {
+			for (int i = from; i < to; i++) {
+				int removed = 0;
+				for (int j = chunks[i * 2]; j < chunks[i * 2 + 1]; j++) {
+					MemStatement st = statements[j];
+					if (st != null && st.getTillSnapshot() <= highestUnusedTillSnapshot
+							&& this.statements.optimisticRemove(st, j)) {
+						removed++;
 					}
 				}
+				cleanedStatements.add(removed);
 			}
+		}));
+	}
 
-			processedSubjects.clear();
-			processedPredicates.clear();
-			processedObjects.clear();
-			processedContexts.clear();
+	private static int[] distinct(int[] values) {
+		if (values.length == 0) {
+			return values;
+		}
+		Arrays.sort(values);
+		int size = 1;
+		for (int i = 1; i < values.length; i++) {
+			if (values[i] != values[size - 1]) {
+				values[size++] = values[i];
+			}
+		}
+		return Arrays.copyOf(values, size);
+	}
 
-			if (logger.isDebugEnabled() && stopWatch != null) {
-				stopWatch.stop();
-				logger.debug("Cleaning snapshots took {} seconds.", stopWatch.getTime(TimeUnit.SECONDS));
+	/**
+	 * Splits the supplied ranges, pairs of an inclusive start and an exclusive end index, into ranges of at most
+	 * {@value #CLEANUP_CHUNK_SIZE} indexes below the supplied length.
+	 */
+	private static int[] splitIntoChunks(int[] ranges, int length) {
+		int count = 0;
+		for (int i = 0; i < ranges.length; i += 2) {
+			int end = Math.min(ranges[i + 1], length);
+			if (ranges[i] < end) {
+				count += (end - ranges[i] + CLEANUP_CHUNK_SIZE - 1) / CLEANUP_CHUNK_SIZE;
 			}
+		}
+		int[] chunks = new int[count * 2];
+		int chunk = 0;
+		for (int i = 0; i < ranges.length; i += 2) {
+			int end = Math.min(ranges[i + 1], length);
+			for (int from = ranges[i]; from < end; from += CLEANUP_CHUNK_SIZE) {
+				chunks[chunk++] = from;
+				chunks[chunk++] = Math.min(end, from + CLEANUP_CHUNK_SIZE);
+			}
+		}
+		return chunks;
+	}
 
-		} finally {
-			statements.setPrioritiseCleanup(false);
+	@FunctionalInterface
+	private interface RangeCleanup {
+		void clean(int from, int to) throws InterruptedException;
+	}
+
+	/**
+	 * Runs a {@link RangeCleanup} over a range of indexes by recursively splitting the range until it is no larger than
+	 * the threshold. Stops early when the thread that started the cleanup has been interrupted.
+	 */
+	private static final class CleanupTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int from;
+		private final int to;
+		private final int threshold;
+		private final transient Thread cleanupThread;
+		private final transient RangeCleanup cleanup;
+
+		CleanupTask(int from, int to, int threshold, Thread cleanupThread, RangeCleanup cleanup) {
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+			this.cleanupThread = cleanupThread;
+			this.cleanup = cleanup;
+		}
+
+		@Override
+		protected void compute() {
+			if (cleanupThread.isInterrupted()) {
+				return;
+			}
+			if (to - from <= threshold) {
+				try {
+					cleanup.clean(from, to);
+				} catch (InterruptedException e) {
+					// the worker thread was interrupted, the statements in this range are left in place and are still
+					// filtered out by their snapshot versions
+					Thread.currentThread().interrupt();
+				}
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new CleanupTask(from, middle, threshold, cleanupThread, cleanup),
+						new CleanupTask(middle, to, threshold, cleanupThread, cleanup));
+			}
 		}
 	}
 
@@ -501,8 +823,9 @@ class MemorySailStore implements SailStore {
 	}
 
 	protected void scheduleSnapshotCleanup() {
-		// we don't schedule snapshot cleanup on small memory stores
-		if (statements.size() < 1000) {
+		// we don't schedule snapshot cleanup on small memory stores, unless many statements are waiting to be removed
+		if (statements.size() < CLEANUP_MINIMUM_STATEMENTS
+				&& snapshotCleanupBacklog.sum() < CLEANUP_MINIMUM_STATEMENTS) {
 			return;
 		}
 
@@ -539,13 +862,19 @@ class MemorySailStore implements SailStore {
 
 		private final boolean explicit;
 
-		public MemorySailSource(boolean explicit) {
+		/**
+		 * The writer that the sinks of this source write for, or <var>null</var> if each sink is a writer of its own.
+		 */
+		private final Object writer;
+
+		public MemorySailSource(boolean explicit, Object writer) {
 			this.explicit = explicit;
+			this.writer = writer;
 		}
 
 		@Override
 		public SailSink sink(IsolationLevel level) throws SailException {
-			return new MemorySailSink(explicit, level.isCompatibleWith(IsolationLevels.SERIALIZABLE));
+			return new MemorySailSink(explicit, level.isCompatibleWith(IsolationLevels.SERIALIZABLE), writer);
 		}
 
 		@Override
@@ -558,6 +887,193 @@ class MemorySailStore implements SailStore {
 		}
 	}
 
+	/**
+	 * Waits until the transactions with a lower snapshot than the supplied snapshot have been published or aborted. This
+	 * is where a commit is held up by transactions that started writing earlier, see the class documentation.
+	 */
+	private void awaitWriteSnapshot(int snapshot) throws InterruptedException {
+		publishLock.lock();
+		try {
+			while (completedWriteSnapshot < snapshot - 1) {
+				writeSnapshotCompleted.await();
+			}
+		} finally {
+			publishLock.unlock();
+		}
+	}
+
+	private void completeWriteSnapshot(int snapshot) {
+		publishLock.lock();
+		try {
+			if (completedWriteSnapshot < snapshot - 1) {
+				// only an aborted snapshot completes before its predecessors, it was never made visible
+				abortedWriteSnapshots.add(snapshot);
+				return;
+			}
+			assert completedWriteSnapshot == snapshot - 1;
+			int completed = snapshot;
+			while (abortedWriteSnapshots.remove(completed + 1)) {
+				completed++;
+			}
+			completedWriteSnapshot = completed;
+			writeSnapshotCompleted.signalAll();
+		} finally {
+			publishLock.unlock();
+		}
+	}
+
+	/**
+	 * The snapshot that a transaction writes in when the store is in multi-writer mode, shared by the sinks of the
+	 * writer that the transaction belongs to. The snapshot is published once all of these sinks have been flushed,
+	 * or aborted when one of them is closed without having been flushed. Snapshots are published in order, so a
+	 * transaction that is still writing holds up the publication of the transactions that started writing after it,
+	 * but not their writes. An aborted snapshot was never visible, so its changes are reverted right away and it is
+	 * skipped once the snapshots before it have completed.
+	 */
+	private final class WriteTicket {
+
+		private final Object owner;
+
+		private final int snapshot = lastWriteSnapshot.incrementAndGet();
+
+		/**
+		 * Whether transactions with a lower snapshot were still writing when this transaction started, in which case
+		 * they may have added the same statements.
+		 */
+		private final boolean overlapped = completedWriteSnapshot < snapshot - 1;
+
+		private final List<MemorySailSink> sinks = new ArrayList<>(2);
+
+		private final Set<MemorySailSink> unflushed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		private boolean published;
+
+		private boolean aborted;
+
+		WriteTicket(Object owner) {
+			this.owner = owner;
+		}
+
+		/**
+		 * @return <var>false</var> if the snapshot has already been published or aborted
+		 */
+		synchronized boolean join(MemorySailSink sink) {
+			if (published || aborted) {
+				return false;
+			}
+			if (!sinks.contains(sink)) {
+				sinks.add(sink);
+			}
+			unflushed.add(sink);
+			return true;
+		}
+
+		synchronized void flushed(MemorySailSink sink) throws SailException {
+			if (aborted) {
+				throw new SailException("Transaction has been aborted");
+			}
+			if (published) {
+				return;
+			}
+			unflushed.remove(sink);
+			if (unflushed.isEmpty()) {
+				publish();
+			}
+		}
+
+		synchronized void closed(MemorySailSink sink) {
+			if (!published && !aborted && unflushed.contains(sink)) {
+				abort();
+			}
+		}
+
+		private void publish() throws SailException {
+			try {
+				awaitWriteSnapshot(snapshot);
+			} catch (InterruptedException e) {
+				abort();
+				throw convertToSailException(e);
+			}
+
+			try {
+				try {
+					// all transactions with a lower snapshot have been published, so any change to the observed
+					// statements or any statement that was added concurrently is visible now
+					for (MemorySailSink sink : sinks) {
+						sink.validateObservations();
+						if (overlapped) {
+							sink.removeConcurrentDuplicates();
+						}
+					}
+					invalidateCache();
+					commit();
+				} catch (IOException e) {
+					undo();
+					throw new SailException("Failed to write transaction to log", e);
+				} catch (InterruptedException e) {
+					undo();
+					throw convertToSailException(e);
+				} catch (RuntimeException e) {
+					undo();
+					throw e;
+				}
+				published = true;
+				for (MemorySailSink sink : sinks) {
+					sink.afterCommit();
+				}
+			} finally {
+				complete();
+			}
+		}
+
+		/**
+		 * Writes the changes of the sinks to the log, if they are logged, and then makes the snapshot visible.
+		 */
+		private void commit() throws IOException {
+			Runnable publish = () -> currentSnapshot = Math.max(currentSnapshot, snapshot);
+			MemorySailSink last = null;
+			for (MemorySailSink sink : sinks) {
+				if (sink.logged != null && !sink.logged.isEmpty()) {
+					last = sink;
+				}
+			}
+			if (last == null) {
+				publish.run();
+				return;
+			}
+			for (MemorySailSink sink : sinks) {
+				if (sink.logged != null && !sink.logged.isEmpty()) {
+					try {
+						sink.logged.commit(sink == last ? publish : () -> {
+						});
+					} finally {
+						sink.logged.clear();
+					}
+				}
+			}
+		}
+
+		private void abort() {
+			try {
+				undo();
+			} finally {
+				complete();
+			}
+		}
+
+		private void undo() {
+			aborted = true;
+			for (MemorySailSink sink : sinks) {
+				sink.undo();
+			}
+		}
+
+		private void complete() {
+			writeTickets.remove(owner, this);
+			completeWriteSnapshot(snapshot);
+		}
+	}
+
 	private final class MemorySailSink implements SailSink {
 
 		private volatile boolean closed = false;
@@ -572,10 +1088,44 @@ class MemorySailStore implements SailStore {
 		private Set<StatementPattern> observations;
 		private volatile Lock txnLock;
 
+		/**
+		 * The snapshot that this sink writes in when the store is in multi-writer mode.
+		 */
+		private WriteTicket ticket;
+
 		private boolean requireCleanup;
 
-		public MemorySailSink(boolean explicit, boolean serializable) throws SailException {
+		/**
+		 * The statements deprecated by this sink that have not yet been handed to the snapshot cleanup.
+		 */
+		private List<MemStatement> deprecated;
+
+		/**
+		 * The statements added by this sink, only collected when cardinality statistics are maintained or in multi-writer
+		 * mode.
+		 */
+		private List<MemStatement> added;
+
+		private final MemCardinalityStatistics statistics = cardinalityStatistics;
+
+		/**
+		 * The lowest and highest index in the main statement list that this sink has inserted statements at.
+		 */
+		private int lowestInsertedIndex = Integer.MAX_VALUE;
+		private int highestInsertedIndex = -1;
+
+		private final WriteAheadLog.Changes logged;
+
+		/**
+		 * The writer whose transaction this sink belongs to in multi-writer mode.
+		 */
+		private final Object writer;
+
+		public MemorySailSink(boolean explicit, boolean serializable, Object writer) throws SailException {
 			this.explicit = explicit;
+			this.writer = writer == null ? this : writer;
+			WriteAheadLog log = writeAheadLog;
+			this.logged = log == null ? null : log.newChanges();
 			if (serializable) {
 				this.serializable = currentSnapshot;
 				this.reservedSnapshot = snapshotMonitor.reserve(this.serializable, this);
@@ -594,7 +1144,7 @@ class MemorySailStore implements SailStore {
 			} else {
 				sb.append("inferred ");
 			}
-			if (txnLock != null) {
+			if (txnLock != null || ticket != null) {
 				sb.append("snapshot ").append(nextSnapshot);
 			} else {
 				sb.append(super.toString());
@@ -604,7 +1154,18 @@ class MemorySailStore implements SailStore {
 
 		@Override
 		public synchronized void prepare() throws SailException {
-			acquireExclusiveTransactionLock();
+			acquireWriteAccess();
+			if (!multiWriter) {
+				// in multi-writer mode the observations are validated when the transaction is published
+				validateObservations();
+			}
+		}
+
+		/**
+		 * Checks that none of the statements that this sink observed have been added or removed by a transaction that
+		 * was committed after the snapshot that the observations were made in.
+		 */
+		private void validateObservations() throws SailException {
 			if (observations != null) {
 				for (StatementPattern p : observations) {
 					Resource subj = (Resource) p.getSubjectVar().getValue();
@@ -623,6 +1184,10 @@ class MemorySailStore implements SailStore {
 							MemStatement st = iter.next();
 							int since = st.getSinceSnapshot();
 							int till = st.getTillSnapshot();
+							if (since == till) {
+								// added by a transaction that was aborted, never visible
+								continue;
+							}
 							if (serializable < since && since < nextSnapshot
 									|| serializable < till && till < nextSnapshot) {
 								throw new SailConflictException("Observed State has Changed");
@@ -638,20 +1203,157 @@ class MemorySailStore implements SailStore {
 
 		@Override
 		public synchronized void flush() throws SailException {
-			if (txnLock != null && txnLock.isActive()) {
+			if (multiWriter) {
+				if (ticket != null) {
+					ticket.flushed(this);
+				}
+			} else if (txnLock != null && txnLock.isActive()) {
 				invalidateCache();
-				currentSnapshot = Math.max(currentSnapshot, nextSnapshot);
-				if (requireCleanup) {
-					scheduleSnapshotCleanup();
+				if (logged != null && !logged.isEmpty()) {
+					try {
+						logged.commit(() -> currentSnapshot = Math.max(currentSnapshot, nextSnapshot));
+					} catch (IOException e) {
+						for (MemStatement st : logged.undo(nextSnapshot)) {
+							addDeprecated(st);
+						}
+						throw new SailException("Failed to write transaction to log", e);
+					} finally {
+						logged.clear();
+					}
+				} else {
+					currentSnapshot = Math.max(currentSnapshot, nextSnapshot);
+				}
+				afterCommit();
+			}
+		}
+
+		/**
+		 * Updates the statistics and hands the changes to the snapshot cleanup once the snapshot has been published.
+		 */
+		private void afterCommit() {
+			if (statistics != null) {
+				try {
+					statistics.update(nextSnapshot, added, deprecated);
+				} catch (InterruptedException e) {
+					// the transaction has already been committed, the statistics are only estimates
+					Thread.currentThread().interrupt();
+				}
+			}
+			added = null;
+			publishChanges();
+			if (requireCleanup) {
+				scheduleSnapshotCleanup();
+			}
+		}
+
+		/**
+		 * Reverts the statement changes of this sink in multi-writer mode. The statements that it added are hidden by
+		 * deprecating them in the snapshot that they were added in.
+		 */
+		private void undo() {
+			int snapshot = nextSnapshot;
+			if (deprecated != null) {
+				for (MemStatement st : deprecated) {
+					if (st.getSinceSnapshot() != snapshot) {
+						st.compareAndSetTillSnapshot(snapshot, Integer.MAX_VALUE);
+					}
+				}
+			}
+			if (added != null) {
+				for (MemStatement st : added) {
+					if (st.getTillSnapshot() != snapshot) {
+						st.setTillSnapshot(snapshot);
+						addDeprecated(st);
+					}
+				}
+				added = null;
+			}
+			if (logged != null) {
+				logged.clear();
+			}
+			requireCleanup = true;
+			publishChanges();
+		}
+
+		/**
+		 * Hides the statements that this sink added in multi-writer mode when a transaction with a lower snapshot added
+		 * the same statement while this sink was writing.
+		 */
+		private void removeConcurrentDuplicates() throws InterruptedException {
+			if (added == null) {
+				return;
+			}
+			for (MemStatement st : added) {
+				if (st.getTillSnapshot() != Integer.MAX_VALUE) {
+					// removed again by this transaction
+					continue;
+				}
+				MemStatement existing = getOtherStatement(st);
+				if (existing == null) {
+					continue;
+				}
+				if (st.isExplicit() && !existing.isExplicit()) {
+					// an implicit statement is now added explicitly
+					markDeprecated(existing, nextSnapshot);
+				} else {
+					st.setTillSnapshot(nextSnapshot);
+					addDeprecated(st);
+					requireCleanup = true;
+				}
+			}
+		}
+
+		/**
+		 * @return another statement with the same subject, predicate, object and context as the supplied statement
+		 *         that is visible in the snapshot of this sink, or null if there is none
+		 */
+		private MemStatement getOtherStatement(MemStatement st) throws InterruptedException {
+			MemStatementList statementList = getSmallestMemStatementList(st.getSubject(), st.getPredicate(),
+					st.getObject(), st.getContext());
+			MemStatement[] statements = statementList.getStatements();
+			int lastIndexToCheck = statementList.getGuaranteedLastIndexInUse();
+			for (int i = 0; i <= lastIndexToCheck; i++) {
+				MemStatement other = statements[i];
+				if (other != null && other != st
+						&& other.exactMatch(st.getSubject(), st.getPredicate(), st.getObject(), st.getContext())
+						&& other.isInSnapshot(nextSnapshot)) {
+					return other;
 				}
 			}
+			return null;
+		}
+
+		/**
+		 * Hands the insertion ranges and the deprecated statements of this sink to the snapshot cleanup.
+		 */
+		private synchronized void publishChanges() {
+			if (highestInsertedIndex >= 0) {
+				insertionRanges.record(nextSnapshot, lowestInsertedIndex, highestInsertedIndex);
+				lowestInsertedIndex = Integer.MAX_VALUE;
+				highestInsertedIndex = -1;
+			}
+			if (deprecated != null) {
+				deprecatedStatements.add(deprecated);
+				snapshotCleanupBacklog.add(deprecated.size());
+				deprecated = null;
+			}
 		}
 
 		@Override
 		public void close() {
 			if (!closed) {
 				closed = true;
+				WriteTicket ticket = this.ticket;
 				try {
+					if (ticket != null) {
+						// the changes are published or reverted by the ticket, which aborts the transaction if this sink
+						// has not been flushed
+						ticket.closed(this);
+					} else {
+						// changes that were not flushed, for instance because writing them to the log failed, have still
+						// been made to the statements
+						publishChanges();
+					}
 					if (reservedSnapshot != null) {
 						reservedSnapshot.release();
 					}
@@ -659,7 +1361,11 @@ class MemorySailStore implements SailStore {
 					try {
 						releaseLock();
 					} finally {
-						observations = null;
+						if (ticket == null) {
+							// the observations of a sink in multi-writer mode are validated when the ticket is published,
+							// which can be after the sink has been closed
+							observations = null;
+						}
 					}
 
 				}
@@ -677,22 +1383,37 @@ class MemorySailStore implements SailStore {
 
 		@Override
 		public synchronized void setNamespace(String prefix, String name) {
-			acquireExclusiveTransactionLock();
-			namespaceStore.setNamespace(prefix, name);
+			acquireWriteAccess();
+			synchronized (namespaceStore) {
+				namespaceStore.setNamespace(prefix, name);
+			}
+			if (logged != null) {
+				logged.namespaceSet(prefix, name);
+			}
 
 		}
 
 		@Override
 		public synchronized void removeNamespace(String prefix) {
-			acquireExclusiveTransactionLock();
-			namespaceStore.removeNamespace(prefix);
+			acquireWriteAccess();
+			synchronized (namespaceStore) {
+				namespaceStore.removeNamespace(prefix);
+			}
+			if (logged != null) {
+				logged.namespaceRemoved(prefix);
+			}
 
 		}
 
 		@Override
 		public synchronized void clearNamespaces() {
-			acquireExclusiveTransactionLock();
-			namespaceStore.clear();
+			acquireWriteAccess();
+			synchronized (namespaceStore) {
+				namespaceStore.clear();
+			}
+			if (logged != null) {
+				logged.namespacesCleared();
+			}
 
 		}
 
@@ -717,14 +1438,14 @@ class MemorySailStore implements SailStore {
 
 		@Override
 		public synchronized void clear(Resource... contexts) {
-			acquireExclusiveTransactionLock();
+			acquireWriteAccess();
 			invalidateCache();
 			requireCleanup = true;
 			try (CloseableIteration<MemStatement> iter = createStatementIterator(null, null, null,
 					explicit, nextSnapshot, contexts)) {
 				while (iter.hasNext()) {
 					MemStatement st = iter.next();
-					st.setTillSnapshot(nextSnapshot);
+					markDeprecated(st, nextSnapshot);
 				}
 			} catch (InterruptedException e) {
 				throw convertToSailException(e);
@@ -734,7 +1455,7 @@ class MemorySailStore implements SailStore {
 
 		@Override
 		public synchronized void approve(Resource subj, IRI pred, Value obj, Resource ctx) {
-			acquireExclusiveTransactionLock();
+			acquireWriteAccess();
 			invalidateCache();
 			try {
 				addStatement(subj, pred, obj, ctx, explicit);
@@ -746,7 +1467,7 @@ class MemorySailStore implements SailStore {
 
 		@Override
 		public synchronized void approveAll(Set<Statement> approved, Set<Resource> approvedContexts) {
-			acquireExclusiveTransactionLock();
+			acquireWriteAccess();
 			invalidateCache();
 			try {
 				for (Statement statement : approved) {
@@ -761,7 +1482,7 @@ class MemorySailStore implements SailStore {
 
 		@Override
 		public synchronized void deprecateAll(Set<Statement> deprecated) {
-			acquireExclusiveTransactionLock();
+			acquireWriteAccess();
 			invalidateCache();
 			requireCleanup = true;
 			int nextSnapshot = this.nextSnapshot;
@@ -773,7 +1494,7 @@ class MemorySailStore implements SailStore {
 
 		@Override
 		public synchronized void deprecate(Statement statement) throws SailException {
-			acquireExclusiveTransactionLock();
+			acquireWriteAccess();
 			invalidateCache();
 			requireCleanup = true;
 			innerDeprecate(statement, nextSnapshot);
@@ -785,7 +1506,7 @@ class MemorySailStore implements SailStore {
 				MemStatement toDeprecate = (MemStatement) statement;
 				if ((nextSnapshot < 0 || toDeprecate.isInSnapshot(nextSnapshot))
 						&& toDeprecate.isExplicit() == explicit) {
-					toDeprecate.setTillSnapshot(nextSnapshot);
+					markDeprecated(toDeprecate, nextSnapshot);
 				}
 			} else if (statement instanceof LinkedHashModel.ModelStatement
 					&& ((LinkedHashModel.ModelStatement) statement).getStatement() instanceof MemStatement) {
@@ -794,7 +1515,7 @@ class MemorySailStore implements SailStore {
 				MemStatement toDeprecate = (MemStatement) ((LinkedHashModel.ModelStatement) statement).getStatement();
 				if ((nextSnapshot < 0 || toDeprecate.isInSnapshot(nextSnapshot))
 						&& toDeprecate.isExplicit() == explicit) {
-					toDeprecate.setTillSnapshot(nextSnapshot);
+					markDeprecated(toDeprecate, nextSnapshot);
 				}
 			} else {
 				try (CloseableIteration<MemStatement> iter = createStatementIterator(
@@ -802,7 +1523,7 @@ class MemorySailStore implements SailStore {
 						statement.getContext())) {
 					while (iter.hasNext()) {
 						MemStatement st = iter.next();
-						st.setTillSnapshot(nextSnapshot);
+						markDeprecated(st, nextSnapshot);
 					}
 				} catch (InterruptedException e) {
 					throw convertToSailException(e);
@@ -810,8 +1531,36 @@ class MemorySailStore implements SailStore {
 			}
 		}
 
-		private void acquireExclusiveTransactionLock() throws SailException {
-			if (txnLock == null) {
+		private void markDeprecated(MemStatement st, int nextSnapshot) {
+			if (multiWriter) {
+				if (!st.compareAndSetTillSnapshot(Integer.MAX_VALUE, nextSnapshot)) {
+					if (st.getTillSnapshot() > nextSnapshot) {
+						// removed by a transaction that started writing after this one, which may still be aborted
+						throw new SailConflictException("Statement has been removed by a concurrent transaction");
+					}
+					// already removed by this transaction or by one that precedes it
+					return;
+				}
+			} else {
+				st.setTillSnapshot(nextSnapshot);
+			}
+			addDeprecated(st);
+			if (logged != null) {
+				logged.deprecated(st);
+			}
+		}
+
+		private void addDeprecated(MemStatement st) {
+			if (deprecated == null) {
+				deprecated = new ArrayList<>();
+			}
+			deprecated.add(st);
+		}
+
+		private void acquireWriteAccess() throws SailException {
+			if (multiWriter) {
+				joinWriteTicket();
+			} else if (txnLock == null) {
 				synchronized (this) {
 					if (txnLock == null) {
 						try {
@@ -826,6 +1575,22 @@ class MemorySailStore implements SailStore {
 			}
 		}
 
+		private synchronized void joinWriteTicket() {
+			if (ticket != null && ticket.join(this)) {
+				return;
+			}
+			while (true) {
+				WriteTicket current = writeTickets.computeIfAbsent(writer, WriteTicket::new);
+				if (current.join(this)) {
+					ticket = current;
+					nextSnapshot = current.snapshot;
+					return;
+				}
+				// published or aborted, but not yet removed
+				writeTickets.remove(writer, current);
+			}
+		}
+
 		private MemStatement addStatement(Resource subj, IRI pred, Value obj, Resource context, boolean explicit)
 				throws SailException, InterruptedException {
 			if (!explicit) {
@@ -850,8 +1615,19 @@ class MemorySailStore implements SailStore {
 
 			// completely new statement
 			MemStatement st = new MemStatement(memSubj, memPred, memObj, memContext, explicit, nextSnapshot);
-			statements.add(st);
+			int index = statements.add(st);
+			lowestInsertedIndex = Math.min(lowestInsertedIndex, index);
+			highestInsertedIndex = Math.max(highestInsertedIndex, index);
 			st.addToComponentLists();
+			if (statistics != null || multiWriter) {
+				if (added == null) {
+					added = new ArrayList<>();
+				}
+				added.add(st);
+			}
+			if (logged != null) {
+				logged.added(st);
+			}
 			invalidateCache();
 			return st;
 		}
@@ -863,10 +1639,16 @@ class MemorySailStore implements SailStore {
 
 			MemStatement memStatement = statementList.getExact(memSubj, memPred, memObj, memContext,
 					nextSnapshot);
+			if (memStatement != null && multiWriter && memStatement.getSinceSnapshot() != this.nextSnapshot
+					&& memStatement.getSinceSnapshot() > completedWriteSnapshot) {
+				// added by a concurrent transaction that may still be aborted, the duplicate is removed when this
+				// transaction is published
+				return false;
+			}
 			if (memStatement != null) {
 				if (!memStatement.isExplicit() && explicit) {
 					// Implicit statement is now added explicitly
-					memStatement.setTillSnapshot(this.nextSnapshot);
+					markDeprecated(memStatement, this.nextSnapshot);
 				} else {
 					// statement already exists
 					return true;
@@ -906,7 +1688,7 @@ class MemorySailStore implements SailStore {
 
 		@Override
 		public boolean deprecateByQuery(Resource subj, IRI pred, Value obj, Resource[] contexts) {
-			acquireExclusiveTransactionLock();
+			acquireWriteAccess();
 			boolean deprecated = false;
 			requireCleanup = true;
 			invalidateCache();
@@ -916,7 +1698,7 @@ class MemorySailStore implements SailStore {
 				while (iter.hasNext()) {
 					deprecated = true;
 					MemStatement st = iter.next();
-					st.setTillSnapshot(nextSnapshot);
+					markDeprecated(st, nextSnapshot);
 				}
 			} catch (InterruptedException e) {
 				throw convertToSailException(e);
@@ -15,6 +15,7 @@ import java.io.IOException;
 import java.util.Timer;
 import java.util.TimerTask;
 
+import org.eclipse.rdf4j.common.annotation.Experimental;
 import org.eclipse.rdf4j.common.concurrent.locks.Lock;
 import org.eclipse.rdf4j.common.transaction.IsolationLevels;
 import org.eclipse.rdf4j.model.ValueFactory;
@@ -62,6 +63,11 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 
 	protected static final String SYNC_FILE_NAME = "memorystore.sync";
 
+	/**
+	 * The default size (in bytes) that the write-ahead log may grow to before a checkpoint is written.
+	 */
+	public static final long DEFAULT_CHECKPOINT_THRESHOLD = 64 * 1024 * 1024;
+
 	/*-----------*
 	 * Variables *
 	 *-----------*/
@@ -100,6 +106,40 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 	 */
 	private volatile long syncDelay = 0L;
 
+	/**
+	 * Whether committed changes are appended to a write-ahead log instead of rewriting the data file.
+	 *
+	 * @see #setWriteAheadLog
+	 */
+	private volatile boolean writeAheadLog = false;
+
+	/**
+	 * @see #setCheckpointThreshold
+	 */
+	private volatile long checkpointThreshold = DEFAULT_CHECKPOINT_THRESHOLD;
+
+	/**
+	 * Whether statements are kept in a compact columnar table instead of statement objects.
+	 *
+	 * @see #setCompactStorage
+	 */
+	private volatile boolean compactStorage = false;
+
+	/**
+	 * @see #setCardinalityStatistics
+	 */
+	private volatile boolean cardinalityStatistics = false;
+
+	/**
+	 * @see #setMultiWriter
+	 */
+	private volatile boolean multiWriter = false;
+
+	/**
+	 * The write-ahead log, null if it is not used.
+	 */
+	private volatile WriteAheadLog wal;
+
 	/**
 	 * Semaphore used to synchronize concurrent access to {@link #syncWithLock()} .
 	 */
@@ -203,6 +243,195 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 		return syncDelay;
 	}
 
+	/**
+	 * Enables or disables the write-ahead log of a persistent MemoryStore. When enabled, the changes of each transaction
+	 * are appended to a log file when the transaction is committed, so the cost of a commit is proportional to the size
+	 * of the transaction rather than the size of the store. The data file is only rewritten when a checkpoint is made:
+	 * in the background once the log has grown beyond the {@link #setCheckpointThreshold checkpoint threshold}, when
+	 * {@link #sync()} is called and when the store is shut down. After a crash, the log is replayed on top of the data
+	 * file.
+	 * <p>
+	 * With the write-ahead log enabled, the {@link #setSyncDelay sync delay} is the time to wait before starting a
+	 * checkpoint once the threshold has been exceeded; a negative value postpones checkpoints until shutdown.
+	 * <p>
+	 * The default value for this parameter is <var>false</var>.
+	 *
+	 * @param writeAheadLog <var>true</var> to log committed changes instead of rewriting the data file
+	 */
+	@Experimental
+	public void setWriteAheadLog(boolean writeAheadLog) {
+		if (isInitialized()) {
+			throw new IllegalStateException("sail has already been initialized");
+		}
+
+		this.writeAheadLog = writeAheadLog;
+	}
+
+	/**
+	 * @return <var>true</var> if committed changes are appended to a write-ahead log
+	 * @see #setWriteAheadLog
+	 */
+	@Experimental
+	public boolean getWriteAheadLog() {
+		return writeAheadLog;
+	}
+
+	/**
+	 * Sets the size (in bytes) that the write-ahead log may grow to before a checkpoint is written in the background.
+	 * <p>
+	 * The default value for this parameter is {@value #DEFAULT_CHECKPOINT_THRESHOLD}.
+	 *
+	 * @param checkpointThreshold the maximum size of the log in bytes
+	 * @see #setWriteAheadLog
+	 */
+	@Experimental
+	public void setCheckpointThreshold(long checkpointThreshold) {
+		if (isInitialized()) {
+			throw new IllegalStateException("sail has already been initialized");
+		}
+
+		this.checkpointThreshold = checkpointThreshold;
+	}
+
+	/**
+	 * @return the size (in bytes) that the write-ahead log may grow to before a checkpoint is written
+	 * @see #setCheckpointThreshold
+	 */
+	@Experimental
+	public long getCheckpointThreshold() {
+		return checkpointThreshold;
+	}
+
+	/**
+	 * Enables or disables compact storage. In compact mode, values are interned to integer IDs and statements are stored
+	 * as rows of primitive columns with an index of row numbers per value and position, instead of as statement objects
+	 * that are linked from statement lists in each of their values. This reduces the heap used per statement several
+	 * times over and leaves far fewer objects for the garbage collector to trace, at the cost of somewhat slower
+	 * lookups. Removed statements are dropped by compacting the table in the background, which blocks writers (but not
+	 * readers) while it runs.
+	 * <p>
+	 * Compact storage can not be combined with the {@link #setWriteAheadLog write-ahead log}.
+	 * <p>
+	 * The default value for this parameter is <var>false</var>.
+	 *
+	 * @param compactStorage <var>true</var> to store statements in compact columnar form
+	 */
+	@Experimental
+	public void setCompactStorage(boolean compactStorage) {
+		if (isInitialized()) {
+			throw new IllegalStateException("sail has already been initialized");
+		}
+
+		this.compactStorage = compactStorage;
+	}
+
+	/**
+	 * @return <var>true</var> if statements are stored in compact columnar form
+	 * @see #setCompactStorage
+	 */
+	@Experimental
+	public boolean getCompactStorage() {
+		return compactStorage;
+	}
+
+	/**
+	 * Enables or disables the maintenance of cardinality statistics. When enabled, the store keeps, for each predicate,
+	 * the number of distinct subjects, an estimate of the number of distinct objects and a histogram of the types of
+	 * the objects, as well as the characteristic sets of the subjects: the distinct sets of predicates that subjects
+	 * are described with. The statistics are updated on every commit and let the query optimizer estimate the size of
+	 * joins, which gives better join orders for data with a skewed distribution, at the cost of slower commits and
+	 * some additional memory.
+	 * <p>
+	 * Cardinality statistics are not available with {@link #setCompactStorage compact storage}.
+	 * <p>
+	 * The default value for this parameter is <var>false</var>.
+	 *
+	 * @param cardinalityStatistics <var>true</var> to maintain cardinality statistics
+	 */
+	@Experimental
+	public void setCardinalityStatistics(boolean cardinalityStatistics) {
+		if (isInitialized()) {
+			throw new IllegalStateException("sail has already been initialized");
+		}
+
+		this.cardinalityStatistics = cardinalityStatistics;
+	}
+
+	/**
+	 * @return <var>true</var> if cardinality statistics are maintained
+	 * @see #setCardinalityStatistics
+	 */
+	@Experimental
+	public boolean getCardinalityStatistics() {
+		return cardinalityStatistics;
+	}
+
+	/**
+	 * Enables or disables multi-writer mode. By default, a transaction holds an exclusive lock while it writes its
+	 * changes to the store, so concurrent transactions commit one after the other. In multi-writer mode, transactions
+	 * write their changes concurrently and only the validation and publication of the changes is serialised:
+	 * transactions are published in the order in which they started writing, after checking that the statements that
+	 * they observed have not been changed by a transaction that was published in the meantime. A transaction fails
+	 * with a {@link org.eclipse.rdf4j.sail.SailConflictException} if it removes a statement that a concurrent
+	 * transaction also removes. As transactions are published in order, a transaction that is kept open after it started
+	 * writing delays the commits of all transactions that started writing after it. Rollbacks are not delayed.
+	 * <p>
+	 * Multi-writer mode is not available with {@link #setCompactStorage compact storage}.
+	 * <p>
+	 * The default value for this parameter is <var>false</var>.
+	 *
+	 * @param multiWriter <var>true</var> to let transactions write concurrently
+	 */
+	@Experimental
+	public void setMultiWriter(boolean multiWriter) {
+		if (isInitialized()) {
+			throw new IllegalStateException("sail has already been initialized");
+		}
+
+		this.multiWriter = multiWriter;
+	}
+
+	/**
+	 * @return <var>true</var> if transactions write concurrently
+	 * @see #setMultiWriter
+	 */
+	@Experimental
+	public boolean getMultiWriter() {
+		return multiWriter;
+	}
+
+	/**
+	 * Returns the number of removed statements that are still held in memory until the snapshot cleanup removes them.
+	 * Statements can only be removed once no transaction uses a snapshot in which they are visible.
+	 *
+	 * @return the number of removed statements that are waiting for the snapshot cleanup, or 0 if the sail is not
+	 *         initialized or uses {@link #setCompactStorage compact storage}
+	 */
+	@Experimental
+	public long getSnapshotCleanupBacklog() {
+		SailStore store = this.store;
+		return store instanceof MemorySailStore ? ((MemorySailStore) store).getSnapshotCleanupBacklog() : 0;
+	}
+
+	/**
+	 * @return the number of removed statements that the snapshot cleanup has released since the sail was initialized,
+	 *         or 0 if the sail is not initialized or uses {@link #setCompactStorage compact storage}
+	 */
+	@Experimental
+	public long getCleanedStatementCount() {
+		SailStore store = this.store;
+		return store instanceof MemorySailStore ? ((MemorySailStore) store).getCleanedStatementCount() : 0;
+	}
+
+	/**
+	 * @return <var>true</var> if the snapshot cleanup is currently removing statements
+	 */
+	@Experimental
+	public boolean isSnapshotCleanupRunning() {
+		SailStore store = this.store;
+		return store instanceof MemorySailStore && ((MemorySailStore) store).isSnapshotCleanupRunning();
+	}
+
 	/**
 	 * @return Returns the {@link EvaluationStrategy}.
 	 */
@@ -258,7 +487,24 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 	protected void initializeInternal() throws SailException {
 		logger.debug("Initializing MemoryStore...");
 
-		this.store = new MemorySailStore(debugEnabled());
+		if (compactStorage && writeAheadLog) {
+			throw new SailException("The write-ahead log is not supported with compact storage");
+		}
+
+		MemorySailStore memorySailStore = null;
+		if (compactStorage) {
+			this.store = new CompactMemorySailStore(debugEnabled());
+		} else {
+			memorySailStore = new MemorySailStore(debugEnabled());
+			if (cardinalityStatistics) {
+				memorySailStore.enableCardinalityStatistics();
+			}
+			if (multiWriter) {
+				memorySailStore.enableMultiWriter();
+			}
+			this.store = memorySailStore;
+		}
+		boolean replayed = false;
 
 		if (persist) {
 			File dataDir = getDataDir();
@@ -279,16 +525,28 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 				if (dirLock == null) {
 					logger.warn("Failed to lock directory: {}", dataDir);
 				}
+				if (writeAheadLog) {
+					wal = new WriteAheadLog(dataDir, (MemValueFactory) store.getValueFactory());
+				}
 				// Don't try to read empty files: this will result in an
 				// IOException, and the file doesn't contain any data anyway.
-				if (dataFile.length() == 0L) {
+				if (dataFile.length() == 0L && wal == null) {
 					logger.warn("Ignoring empty data file: {}", dataFile);
 				} else {
 					SailSink explicit = store.getExplicitSailSource().sink(IsolationLevels.NONE);
 					SailSink inferred = store.getInferredSailSource().sink(IsolationLevels.NONE);
 					try {
-						new FileIO((MemValueFactory) store.getValueFactory()).read(dataFile, explicit, inferred);
-						logger.debug("Data file read successfully");
+						if (dataFile.length() == 0L) {
+							logger.warn("Ignoring empty data file: {}", dataFile);
+						} else {
+							new FileIO(store.getValueFactory()).read(dataFile, explicit, inferred);
+							logger.debug("Data file read successfully");
+						}
+						if (wal != null) {
+							long count = wal.replay(explicit, inferred, dirLock != null);
+							logger.debug("Replayed {} transactions from the write-ahead log", count);
+							replayed = count > 0;
+						}
 					} catch (IOException e) {
 						logger.error("Failed to read data file", e);
 						throw new SailException(e);
@@ -318,18 +576,28 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 					logger.debug("Initializing data file...");
 					try (SailDataset explicit = store.getExplicitSailSource().dataset(IsolationLevels.SNAPSHOT);
 							SailDataset inferred = store.getInferredSailSource().dataset(IsolationLevels.SNAPSHOT)) {
-						new FileIO((MemValueFactory) store.getValueFactory()).write(explicit, inferred, syncFile,
+						new FileIO(store.getValueFactory()).write(explicit, inferred, syncFile,
 								dataFile);
 					}
 					logger.debug("Data file initialized");
+
+					if (writeAheadLog) {
+						wal = new WriteAheadLog(dataDir, (MemValueFactory) store.getValueFactory());
+					}
 				} catch (IOException | SailException e) {
 					logger.debug("Failed to initialize data file", e);
 					throw new SailException("Failed to initialize data file " + dataFile, e);
 				}
 			}
+
+			if (wal != null && dirLock != null) {
+				wal.open();
+				memorySailStore.setWriteAheadLog(wal);
+			}
 		}
 
-		contentsChanged = false;
+		// log segments that were replayed are compacted by the next checkpoint
+		contentsChanged = replayed && dirLock != null;
 
 		logger.debug("MemoryStore initialized");
 	}
@@ -344,6 +612,14 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 			dataFile = null;
 			syncFile = null;
 		} finally {
+			if (wal != null) {
+				try {
+					wal.close();
+				} catch (IOException e) {
+					logger.warn("Failed to close write-ahead log", e);
+				}
+				wal = null;
+			}
 			if (dirLock != null) {
 				dirLock.release();
 			}
@@ -389,7 +665,9 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 			return;
 		}
 
-		if (syncDelay == 0L) {
+		if (wal != null) {
+			scheduleCheckpoint();
+		} else if (syncDelay == 0L) {
 			// Sync immediately
 			sync();
 		} else if (syncDelay > 0L) {
@@ -423,7 +701,50 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 		}
 	}
 
+	/**
+	 * Schedules a checkpoint on the sync timer if the write-ahead log has grown beyond the checkpoint threshold.
+	 * Committed changes are already durable in the log, so checkpoints do not have to run on the committing thread.
+	 */
+	private void scheduleCheckpoint() {
+		WriteAheadLog log = wal;
+		if (log == null || syncDelay < 0L || log.size() < checkpointThreshold) {
+			return;
+		}
+
+		synchronized (syncTimerSemaphore) {
+			if (syncTimerTask != null) {
+				// a checkpoint is already pending
+				return;
+			}
+			if (syncTimer == null) {
+				// Create the syncTimer on a deamon thread
+				syncTimer = new Timer("MemoryStore synchronization", true);
+			}
+
+			syncTimerTask = new TimerTask() {
+
+				@Override
+				public void run() {
+					synchronized (syncTimerSemaphore) {
+						syncTimerTask = null;
+					}
+					try {
+						sync();
+					} catch (SailException e) {
+						logger.warn("Unable to write checkpoint on timer", e);
+					}
+				}
+			};
+
+			syncTimer.schedule(syncTimerTask, syncDelay);
+		}
+	}
+
 	protected void cancelSyncTask() {
+		if (wal != null) {
+			// checkpoints run concurrently with transactions and are not postponed
+			return;
+		}
 		synchronized (syncTimerSemaphore) {
 			if (syncTimerTask != null) {
 				syncTimerTask.cancel();
@@ -444,17 +765,32 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 	/**
 	 * Synchronizes the contents of this repository with the data that is stored on disk. Data will only be written when
 	 * the contents of the repository and data in the file are out of sync.
+	 * <p>
+	 * When the {@link #setWriteAheadLog write-ahead log} is used, this writes a checkpoint: the data file is rewritten
+	 * and the log segments that it supersedes are deleted.
 	 */
 	public void sync() throws SailException {
 		// syncSemaphore prevents concurrent file synchronizations
 		synchronized (syncSemaphore) {
-			if (persist && contentsChanged) {
+			if (persist && contentsChanged && wal != null) {
+				logger.debug("writing checkpoint...");
+				// reset first, changes that are committed during the checkpoint are not necessarily included
+				contentsChanged = false;
+				try {
+					((MemorySailStore) store).checkpoint(syncFile, dataFile);
+					logger.debug("Checkpoint written");
+				} catch (IOException e) {
+					contentsChanged = true;
+					logger.error("Failed to write checkpoint", e);
+					throw new SailException(e);
+				}
+			} else if (persist && contentsChanged) {
 				logger.debug("syncing data to file...");
 				try {
 					IsolationLevels level = IsolationLevels.SNAPSHOT;
 					try (SailDataset explicit = store.getExplicitSailSource().dataset(level);
 							SailDataset inferred = store.getInferredSailSource().dataset(level)) {
-						new FileIO((MemValueFactory) store.getValueFactory()).write(explicit, inferred, syncFile,
+						new FileIO(store.getValueFactory()).write(explicit, inferred, syncFile,
 								dataFile);
 					}
 					contentsChanged = false;
@@ -470,4 +806,15 @@ public class MemoryStore extends AbstractNotifyingSail implements FederatedServi
 	SailStore getSailStore() {
 		return store;
 	}
+
+	/**
+	 * @return the store that a new connection uses, which in multi-writer mode ties the transactions of the connection
+	 *         to the connection rather than to the thread that they are written from
+	 */
+	SailStore getConnectionSailStore() {
+		if (multiWriter && store instanceof MemorySailStore) {
+			return ((MemorySailStore) store).connectionView();
+		}
+		return store;
+	}
 }
@@ -42,7 +42,7 @@ public class MemoryStoreConnection extends SailSourceConnection implements Threa
 	 *--------------*/
 
 	protected MemoryStoreConnection(MemoryStore sail) {
-		super(sail, sail.getSailStore(), sail.getEvaluationStrategyFactory());
+		super(sail, sail.getConnectionSailStore(), sail.getEvaluationStrategyFactory());
 		this.sail = sail;
 		sailChangedEvent = new DefaultSailChangedEvent(sail);
 	}
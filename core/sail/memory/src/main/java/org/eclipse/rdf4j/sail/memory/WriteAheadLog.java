@@ -0,0 +1,517 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.sail.SailException;
+import org.eclipse.rdf4j.sail.base.SailSink;
+import org.eclipse.rdf4j.sail.memory.model.MemStatement;
+import org.eclipse.rdf4j.sail.memory.model.MemValueFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An append-only log of the changes committed to a persistent {@link MemoryStore}. Every commit is appended to the log
+ * as a single checksummed frame, so the cost of a commit is proportional to the size of the transaction instead of the
+ * size of the store.
+ * <p>
+ * The log consists of numbered segment files. A checkpoint starts a new segment, writes a snapshot of the store to the
+ * data file and then deletes the older segments. On startup, the remaining segments are replayed on top of the data
+ * file. A frame that was only partially written when the process stopped is detected by its checksum and discarded.
+ * <p>
+ * Frames only contain additions and removals of individual statements and namespaces. Replaying such a sequence of
+ * changes a second time does not alter the result, so segments that survive a crash between writing the data file and
+ * deleting them can safely be replayed again.
+ */
+class WriteAheadLog implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(WriteAheadLog.class);
+
+	/*-----------*
+	 * Constants *
+	 *-----------*/
+
+	private static final String FILE_PREFIX = "memorystore.";
+
+	private static final String FILE_SUFFIX = ".wal";
+
+	/**
+	 * Magic number for Binary Memory Store Log files
+	 */
+	private static final byte[] MAGIC_NUMBER = new byte[] { 'B', 'M', 'S', 'L' };
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_LENGTH = MAGIC_NUMBER.length + 1;
+
+	// length and checksum of a frame
+	private static final int FRAME_OVERHEAD = 8;
+
+	/* RECORD TYPES */
+	private static final int ADD_MARKER = 1;
+
+	private static final int REMOVE_MARKER = 2;
+
+	private static final int SET_NAMESPACE_MARKER = 3;
+
+	private static final int REMOVE_NAMESPACE_MARKER = 4;
+
+	private static final int CLEAR_NAMESPACES_MARKER = 5;
+
+	/*-----------*
+	 * Variables *
+	 *-----------*/
+
+	private final File dir;
+
+	private final MemValueFactory vf;
+
+	/**
+	 * All segments that have not been superseded by a checkpoint yet, oldest first.
+	 */
+	private final List<File> segments = new ArrayList<>();
+
+	/**
+	 * Whether the log has been opened for writing.
+	 */
+	private boolean writable;
+
+	/**
+	 * The segment that new frames are appended to, null until the first frame after opening the log or after a
+	 * checkpoint is appended.
+	 */
+	private FileChannel channel;
+
+	private long segmentNumber;
+
+	private volatile long segmentSize;
+
+	/**
+	 * Set when a frame could not be written nor removed again, in which case the current segment can not be appended
+	 * to until the next checkpoint.
+	 */
+	private boolean broken;
+
+	/*--------------*
+	 * Constructors *
+	 *--------------*/
+
+	WriteAheadLog(File dir, MemValueFactory vf) {
+		this.dir = dir;
+		this.vf = vf;
+
+		File[] files = dir.listFiles((d, name) -> getSegmentNumber(name) >= 0);
+		if (files != null) {
+			Arrays.sort(files, Comparator.comparingLong(f -> getSegmentNumber(f.getName())));
+			segments.addAll(Arrays.asList(files));
+		}
+		if (!segments.isEmpty()) {
+			segmentNumber = getSegmentNumber(segments.get(segments.size() - 1).getName());
+		}
+	}
+
+	/*---------*
+	 * Methods *
+	 *---------*/
+
+	/**
+	 * Replays all segments of the log.
+	 *
+	 * @param explicit sink for explicit statements and namespaces
+	 * @param inferred sink for inferred statements
+	 * @param repair   whether an incomplete frame at the end of the log should be removed
+	 * @return the number of replayed transactions
+	 */
+	synchronized long replay(SailSink explicit, SailSink inferred, boolean repair) throws IOException, SailException {
+		FileIO io = new FileIO(vf);
+		long count = 0;
+		for (int i = 0; i < segments.size(); i++) {
+			File segment = segments.get(i);
+			boolean last = i == segments.size() - 1;
+			count += replay(segment, last, repair, io, explicit, inferred);
+		}
+		if (repair) {
+			segments.removeIf(segment -> !segment.exists());
+		}
+		return count;
+	}
+
+	private long replay(File segment, boolean last, boolean repair, FileIO io, SailSink explicit, SailSink inferred)
+			throws IOException, SailException {
+		long fileLength = segment.length();
+		long validLength = 0;
+		long count = 0;
+
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(segment.toPath())))) {
+			if (fileLength >= HEADER_LENGTH) {
+				byte[] magicNumber = new byte[MAGIC_NUMBER.length];
+				in.readFully(magicNumber);
+				if (!Arrays.equals(magicNumber, MAGIC_NUMBER)) {
+					throw new IOException("File is not a MemoryStore log file: " + segment);
+				}
+				int version = in.readByte();
+				if (version != VERSION) {
+					throw new IOException("Incompatible log format version: " + version);
+				}
+				validLength = HEADER_LENGTH;
+
+				while (fileLength - validLength >= FRAME_OVERHEAD) {
+					int length = in.readInt();
+					if (length < 0 || length > fileLength - validLength - FRAME_OVERHEAD) {
+						break;
+					}
+					byte[] data = new byte[length];
+					in.readFully(data);
+					int checksum = in.readInt();
+					if (checksum != checksum(data)) {
+						break;
+					}
+					apply(data, io, explicit, inferred);
+					validLength += length + FRAME_OVERHEAD;
+					count++;
+				}
+			}
+		}
+
+		if (validLength < fileLength || validLength == 0) {
+			if (!last) {
+				throw new IOException("Corrupt MemoryStore log file: " + segment);
+			}
+			logger.warn("Ignoring incomplete transaction at the end of log file {}", segment);
+			if (repair) {
+				if (validLength == 0) {
+					Files.delete(segment.toPath());
+				} else {
+					try (FileChannel ch = FileChannel.open(segment.toPath(), StandardOpenOption.WRITE)) {
+						ch.truncate(validLength);
+						ch.force(true);
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	private void apply(byte[] data, FileIO io, SailSink explicit, SailSink inferred)
+			throws IOException, SailException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		while (in.available() > 0) {
+			int marker = in.readByte();
+			switch (marker) {
+			case ADD_MARKER:
+			case REMOVE_MARKER:
+				SailSink sink = in.readBoolean() ? explicit : inferred;
+				Resource subj = (Resource) io.readValue(in);
+				IRI pred = (IRI) io.readValue(in);
+				Value obj = io.readValue(in);
+				Resource context = in.readBoolean() ? (Resource) io.readValue(in) : null;
+				if (marker == ADD_MARKER) {
+					sink.approve(subj, pred, obj, context);
+				} else {
+					sink.deprecate(vf.createStatement(subj, pred, obj, context));
+				}
+				break;
+			case SET_NAMESPACE_MARKER:
+				explicit.setNamespace(io.readString(in), io.readString(in));
+				break;
+			case REMOVE_NAMESPACE_MARKER:
+				explicit.removeNamespace(io.readString(in));
+				break;
+			case CLEAR_NAMESPACES_MARKER:
+				explicit.clearNamespaces();
+				break;
+			default:
+				throw new IOException("Invalid record type marker: " + marker);
+			}
+		}
+	}
+
+	/**
+	 * Opens the log for writing. New frames are appended to a new segment.
+	 */
+	synchronized void open() {
+		writable = true;
+	}
+
+	/**
+	 * @return the number of bytes written to the log since the last checkpoint
+	 */
+	long size() {
+		return segmentSize;
+	}
+
+	/**
+	 * Closes the current segment. Frames that are appended after this call are written to a new segment.
+	 *
+	 * @return the previous segments, which can be deleted once a checkpoint that contains all of their changes has been
+	 *         written
+	 */
+	synchronized List<File> rotate() throws IOException {
+		List<File> previous = new ArrayList<>(segments);
+		closeChannel();
+		segmentSize = 0;
+		broken = false;
+		return previous;
+	}
+
+	/**
+	 * Deletes segments that have been superseded by a checkpoint.
+	 *
+	 * @param superseded segments returned by {@link #rotate()}
+	 */
+	synchronized void delete(List<File> superseded) throws IOException {
+		for (File segment : superseded) {
+			Files.deleteIfExists(segment.toPath());
+			segments.remove(segment);
+		}
+	}
+
+	private void startSegment() throws IOException {
+		File segment = new File(dir, FILE_PREFIX + (++segmentNumber) + FILE_SUFFIX);
+		FileChannel ch = FileChannel.open(segment.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+			header.put(MAGIC_NUMBER);
+			header.put((byte) VERSION);
+			header.flip();
+			write(ch, header);
+			ch.force(true);
+		} catch (IOException e) {
+			ch.close();
+			Files.deleteIfExists(segment.toPath());
+			throw e;
+		}
+
+		segments.add(segment);
+		channel = ch;
+		segmentSize = HEADER_LENGTH;
+	}
+
+	/**
+	 * Appends a frame with the supplied changes and forces it to disk.
+	 *
+	 * @param changes the changes of a transaction
+	 * @param publish action that makes the changes visible, this is executed while the log is locked so it can not
+	 *                interleave with {@link #rotate()}
+	 */
+	private synchronized void append(Changes changes, Runnable publish) throws IOException {
+		if (!writable) {
+			throw new IOException("Log is not open for writing");
+		}
+		if (broken) {
+			throw new IOException("Log can not be written until the next checkpoint");
+		}
+		if (channel == null) {
+			startSegment();
+		}
+
+		byte[] data = changes.bytes.toByteArray();
+		ByteBuffer frame = ByteBuffer.allocate(data.length + FRAME_OVERHEAD);
+		frame.putInt(data.length);
+		frame.put(data);
+		frame.putInt(checksum(data));
+		frame.flip();
+
+		try {
+			write(channel, frame);
+			channel.force(false);
+		} catch (IOException e) {
+			// remove the partial frame, so the segment remains readable
+			try {
+				channel.truncate(segmentSize);
+				channel.position(segmentSize);
+			} catch (IOException e1) {
+				e.addSuppressed(e1);
+				broken = true;
+			}
+			throw e;
+		}
+		segmentSize += frame.limit();
+
+		publish.run();
+	}
+
+	private static void write(FileChannel ch, ByteBuffer buf) throws IOException {
+		while (buf.hasRemaining()) {
+			ch.write(buf);
+		}
+	}
+
+	private static int checksum(byte[] data) {
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		return (int) crc.getValue();
+	}
+
+	private static long getSegmentNumber(String fileName) {
+		if (fileName.startsWith(FILE_PREFIX) && fileName.endsWith(FILE_SUFFIX)) {
+			try {
+				return Long.parseLong(
+						fileName.substring(FILE_PREFIX.length(), fileName.length() - FILE_SUFFIX.length()));
+			} catch (NumberFormatException e) {
+				// not a segment
+			}
+		}
+		return -1;
+	}
+
+	private void closeChannel() throws IOException {
+		if (channel != null) {
+			try {
+				channel.close();
+			} finally {
+				channel = null;
+			}
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		closeChannel();
+	}
+
+	/**
+	 * Creates a buffer for the changes of a single transaction.
+	 */
+	Changes newChanges() {
+		return new Changes();
+	}
+
+	/**
+	 * The changes of a single transaction, which are kept in memory until they are committed. The affected statements
+	 * are tracked as well, so the changes can be undone if they can not be written to the log.
+	 */
+	class Changes {
+
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		private final DataOutputStream out = new DataOutputStream(bytes);
+
+		private final FileIO io = new FileIO(vf);
+
+		private final List<MemStatement> added = new ArrayList<>();
+
+		private final List<MemStatement> deprecated = new ArrayList<>();
+
+		private Changes() {
+		}
+
+		void added(MemStatement st) {
+			writeStatement(ADD_MARKER, st);
+			added.add(st);
+		}
+
+		void deprecated(MemStatement st) {
+			writeStatement(REMOVE_MARKER, st);
+			deprecated.add(st);
+		}
+
+		void namespaceSet(String prefix, String name) {
+			try {
+				out.writeByte(SET_NAMESPACE_MARKER);
+				io.writeString(prefix, out);
+				io.writeString(name, out);
+			} catch (IOException e) {
+				throw new SailException(e);
+			}
+		}
+
+		void namespaceRemoved(String prefix) {
+			try {
+				out.writeByte(REMOVE_NAMESPACE_MARKER);
+				io.writeString(prefix, out);
+			} catch (IOException e) {
+				throw new SailException(e);
+			}
+		}
+
+		void namespacesCleared() {
+			try {
+				out.writeByte(CLEAR_NAMESPACES_MARKER);
+			} catch (IOException e) {
+				throw new SailException(e);
+			}
+		}
+
+		boolean isEmpty() {
+			return bytes.size() == 0;
+		}
+
+		/**
+		 * Writes the changes to the log and then makes them visible.
+		 *
+		 * @param publish action that makes the changes visible
+		 */
+		void commit(Runnable publish) throws IOException {
+			append(this, publish);
+		}
+
+		/**
+		 * Reverts the statement changes made in the given snapshot. Namespace changes are not versioned and can not be
+		 * reverted.
+		 *
+		 * @return the statements that were added in the snapshot, which are deprecated by the undo
+		 */
+		List<MemStatement> undo(int snapshot) {
+			for (MemStatement st : deprecated) {
+				st.setTillSnapshot(Integer.MAX_VALUE);
+			}
+			for (MemStatement st : added) {
+				st.setTillSnapshot(snapshot);
+			}
+			return new ArrayList<>(added);
+		}
+
+		void clear() {
+			bytes.reset();
+			added.clear();
+			deprecated.clear();
+		}
+
+		private void writeStatement(int marker, MemStatement st) {
+			try {
+				out.writeByte(marker);
+				out.writeBoolean(st.isExplicit());
+				io.writeValue(st.getSubject(), out);
+				io.writeValue(st.getPredicate(), out);
+				io.writeValue(st.getObject(), out);
+				Resource context = st.getContext();
+				out.writeBoolean(context != null);
+				if (context != null) {
+					io.writeValue(context, out);
+				}
+			} catch (IOException e) {
+				throw new SailException(e);
+			}
+		}
+	}
+}
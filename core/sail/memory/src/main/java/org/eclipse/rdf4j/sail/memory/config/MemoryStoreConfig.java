@@ -14,14 +14,17 @@ import static org.eclipse.rdf4j.model.util.Values.literal;
 import static org.eclipse.rdf4j.sail.memory.config.MemoryStoreSchema.PERSIST;
 import static org.eclipse.rdf4j.sail.memory.config.MemoryStoreSchema.SYNC_DELAY;
 
+import org.eclipse.rdf4j.common.annotation.Experimental;
 import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.impl.BooleanLiteral;
 import org.eclipse.rdf4j.model.util.Configurations;
 import org.eclipse.rdf4j.model.util.ModelException;
+import org.eclipse.rdf4j.model.util.Models;
 import org.eclipse.rdf4j.model.vocabulary.CONFIG;
 import org.eclipse.rdf4j.sail.base.config.BaseSailConfig;
 import org.eclipse.rdf4j.sail.config.SailConfigException;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
 
 /**
  * @author Arjohn Kampman
@@ -32,6 +35,16 @@ public class MemoryStoreConfig extends BaseSailConfig {
 
 	private long syncDelay = 0L;
 
+	private boolean writeAheadLog = false;
+
+	private long checkpointThreshold = MemoryStore.DEFAULT_CHECKPOINT_THRESHOLD;
+
+	private boolean compactStorage = false;
+
+	private boolean cardinalityStatistics = false;
+
+	private boolean multiWriter = false;
+
 	public MemoryStoreConfig() {
 		super(MemoryStoreFactory.SAIL_TYPE);
 	}
@@ -62,6 +75,86 @@ public class MemoryStoreConfig extends BaseSailConfig {
 		this.syncDelay = syncDelay;
 	}
 
+	/**
+	 * @see MemoryStore#setWriteAheadLog(boolean)
+	 */
+	@Experimental
+	public boolean getWriteAheadLog() {
+		return writeAheadLog;
+	}
+
+	/**
+	 * @see MemoryStore#setWriteAheadLog(boolean)
+	 */
+	@Experimental
+	public void setWriteAheadLog(boolean writeAheadLog) {
+		this.writeAheadLog = writeAheadLog;
+	}
+
+	/**
+	 * @see MemoryStore#setCheckpointThreshold(long)
+	 */
+	@Experimental
+	public long getCheckpointThreshold() {
+		return checkpointThreshold;
+	}
+
+	/**
+	 * @see MemoryStore#setCheckpointThreshold(long)
+	 */
+	@Experimental
+	public void setCheckpointThreshold(long checkpointThreshold) {
+		this.checkpointThreshold = checkpointThreshold;
+	}
+
+	/**
+	 * @see MemoryStore#setCompactStorage(boolean)
+	 */
+	@Experimental
+	public boolean getCompactStorage() {
+		return compactStorage;
+	}
+
+	/**
+	 * @see MemoryStore#setCompactStorage(boolean)
+	 */
+	@Experimental
+	public void setCompactStorage(boolean compactStorage) {
+		this.compactStorage = compactStorage;
+	}
+
+	/**
+	 * @see MemoryStore#setCardinalityStatistics(boolean)
+	 */
+	@Experimental
+	public boolean getCardinalityStatistics() {
+		return cardinalityStatistics;
+	}
+
+	/**
+	 * @see MemoryStore#setCardinalityStatistics(boolean)
+	 */
+	@Experimental
+	public void setCardinalityStatistics(boolean cardinalityStatistics) {
+		this.cardinalityStatistics = cardinalityStatistics;
+	}
+
+	/**
+	 * @see MemoryStore#setMultiWriter(boolean)
+	 */
+	@Experimental
+	public boolean getMultiWriter() {
+		return multiWriter;
+	}
+
+	/**
+	 * @see MemoryStore#setMultiWriter(boolean)
+	 */
+	@Experimental
+	public void setMultiWriter(boolean multiWriter) {
+		this.multiWriter = multiWriter;
+	}
+
 	@Override
 	public Resource export(Model m) {
 		if (Configurations.useLegacyConfig()) {
@@ -79,6 +172,8 @@ public class MemoryStoreConfig extends BaseSailConfig {
 			m.add(implNode, CONFIG.Mem.syncDelay, literal(syncDelay));
 		}
 
+		exportStorageSettings(m, implNode);
+
 		return implNode;
 	}
 
@@ -94,9 +189,34 @@ public class MemoryStoreConfig extends BaseSailConfig {
 			m.add(implNode, SYNC_DELAY, literal(syncDelay));
 		}
 
+		// the storage settings have no legacy equivalent
+		exportStorageSettings(m, implNode);
+
 		return implNode;
 	}
 
+	private void exportStorageSettings(Model m, Resource implNode) {
+		if (writeAheadLog) {
+			m.add(implNode, CONFIG.Mem.writeAheadLog, BooleanLiteral.TRUE);
+		}
+
+		if (checkpointThreshold != MemoryStore.DEFAULT_CHECKPOINT_THRESHOLD) {
+			m.add(implNode, CONFIG.Mem.checkpointThreshold, literal(checkpointThreshold));
+		}
+
+		if (compactStorage) {
+			m.add(implNode, CONFIG.Mem.compactStorage, BooleanLiteral.TRUE);
+		}
+
+		if (cardinalityStatistics) {
+			m.add(implNode, CONFIG.Mem.cardinalityStatistics, BooleanLiteral.TRUE);
+		}
+
+		if (multiWriter) {
+			m.add(implNode, CONFIG.Mem.multiWriter, BooleanLiteral.TRUE);
+		}
+	}
+
 	@Override
 	public void parse(Model graph, Resource implNode) throws SailConfigException {
 		super.parse(graph, implNode);
@@ -122,6 +242,56 @@ public class MemoryStoreConfig extends BaseSailConfig {
 											+ syncDelayValue);
 						}
 					});
+
+			Models.objectLiteral(graph.getStatements(implNode, CONFIG.Mem.writeAheadLog, null))
+					.ifPresent(walValue -> {
+						try {
+							setWriteAheadLog(walValue.booleanValue());
+						} catch (IllegalArgumentException e) {
+							throw new SailConfigException("Boolean value required for " + CONFIG.Mem.writeAheadLog
+									+ " property, found " + walValue);
+						}
+					});
+
+			Models.objectLiteral(graph.getStatements(implNode, CONFIG.Mem.checkpointThreshold, null))
+					.ifPresent(thresholdValue -> {
+						try {
+							setCheckpointThreshold(thresholdValue.longValue());
+						} catch (NumberFormatException e) {
+							throw new SailConfigException("Long integer value required for "
+									+ CONFIG.Mem.checkpointThreshold + " property, found " + thresholdValue);
+						}
+					});
+
+			Models.objectLiteral(graph.getStatements(implNode, CONFIG.Mem.compactStorage, null))
+					.ifPresent(compactValue -> {
+						try {
+							setCompactStorage(compactValue.booleanValue());
+						} catch (IllegalArgumentException e) {
+							throw new SailConfigException("Boolean value required for " + CONFIG.Mem.compactStorage
+									+ " property, found " + compactValue);
+						}
+					});
+
+			Models.objectLiteral(graph.getStatements(implNode, CONFIG.Mem.cardinalityStatistics, null))
+					.ifPresent(statisticsValue -> {
+						try {
+							setCardinalityStatistics(statisticsValue.booleanValue());
+						} catch (IllegalArgumentException e) {
+							throw new SailConfigException("Boolean value required for "
+									+ CONFIG.Mem.cardinalityStatistics + " property, found " + statisticsValue);
+						}
+					});
+
+			Models.objectLiteral(graph.getStatements(implNode, CONFIG.Mem.multiWriter, null))
+					.ifPresent(multiWriterValue -> {
+						try {
+							setMultiWriter(multiWriterValue.booleanValue());
+						} catch (IllegalArgumentException e) {
+							throw new SailConfigException("Boolean value required for " + CONFIG.Mem.multiWriter
+									+ " property, found " + multiWriterValue);
+						}
+					});
 		} catch (ModelException e) {
 			throw new SailConfigException(e.getMessage(), e);
 		}
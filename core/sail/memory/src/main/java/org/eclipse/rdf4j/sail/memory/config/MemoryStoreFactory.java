@@ -58,6 +58,11 @@ public class MemoryStoreFactory implements SailFactory {
 			memConfig.getDefaultQueryEvaluationMode().ifPresent(memoryStore::setDefaultQueryEvaluationMode);
 			memoryStore.setPersist(memConfig.getPersist());
 			memoryStore.setSyncDelay(memConfig.getSyncDelay());
+			memoryStore.setWriteAheadLog(memConfig.getWriteAheadLog());
+			memoryStore.setCheckpointThreshold(memConfig.getCheckpointThreshold());
+			memoryStore.setCompactStorage(memConfig.getCompactStorage());
+			memoryStore.setCardinalityStatistics(memConfig.getCardinalityStatistics());
+			memoryStore.setMultiWriter(memConfig.getMultiWriter());
 
 			if (memConfig.getIterationCacheSyncThreshold() > 0) {
 				memoryStore.setIterationCacheSyncThreshold(memConfig.getIterationCacheSyncThreshold());
@@ -92,6 +92,15 @@ public class MemStatement extends GenericStatement<MemResource, MemIRI, MemValue
 		TILL_SNAPSHOT.setRelease(this, snapshot);
 	}
 
+	/**
+	 * Atomically sets the snapshot in which this statement was revoked if it currently has the expected value.
+	 *
+	 * @return <var>true</var> if the snapshot was set
+	 */
+	public boolean compareAndSetTillSnapshot(int expected, int snapshot) {
+		return TILL_SNAPSHOT.compareAndSet(this, expected, snapshot);
+	}
+
 	public int getTillSnapshot() {
 		return (int) TILL_SNAPSHOT.getAcquire(this);
 	}
@@ -62,7 +62,12 @@ public class MemStatementList {
 		return ((int) SIZE.getAcquire(this)) == 0;
 	}
 
-	public void add(MemStatement st) throws InterruptedException {
+	/**
+	 * Adds a statement to this list.
+	 *
+	 * @return the index at which the statement was inserted, which stays valid until the statement is removed
+	 */
+	public int add(MemStatement st) throws InterruptedException {
 
 		if (((boolean) PRIORITISE_CLEANUP.getOpaque(this))) {
 			long start = System.currentTimeMillis();
@@ -111,7 +116,7 @@ public class MemStatementList {
 
 							updateGuaranteedLastIndexInUse(i);
 
-							return;
+							return i;
 						}
 					} else if (previouslyInsertedIndex < 0 && i == length - 1) {
 						// The array is full but no threads have made it to the code line where the
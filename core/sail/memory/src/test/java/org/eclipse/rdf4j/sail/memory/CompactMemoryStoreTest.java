@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import static org.eclipse.rdf4j.sail.memory.CompactValueDictionary.NULL_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.sail.NotifyingSail;
+import org.eclipse.rdf4j.sail.SailConnection;
+import org.eclipse.rdf4j.sail.SailException;
+import org.eclipse.rdf4j.testsuite.sail.RDFNotifyingStoreTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * An extension of RDFStoreTest for testing a {@link MemoryStore} with compact storage.
+ */
+public class CompactMemoryStoreTest extends RDFNotifyingStoreTest {
+
+	@TempDir
+	File tempDir;
+
+	@Override
+	protected NotifyingSail createSail() throws SailException {
+		MemoryStore sail = new MemoryStore();
+		sail.setCompactStorage(true);
+		return sail;
+	}
+
+	@Test
+	public void testCompactionKeepsSnapshot() throws Exception {
+		MemoryStore store = new MemoryStore();
+		store.setCompactStorage(true);
+		store.init();
+		try {
+			ValueFactory vf = store.getValueFactory();
+			IRI foo = vf.createIRI("http://example.org/foo");
+
+			try (SailConnection con = store.getConnection()) {
+				con.begin();
+				for (int i = 0; i < 5000; i++) {
+					con.addStatement(vf.createIRI("http://example.org/s" + i), RDFS.LABEL, vf.createLiteral(i));
+				}
+				con.addStatement(foo, RDF.TYPE, RDFS.CLASS);
+				con.commit();
+			}
+
+			try (SailConnection reader = store.getConnection()) {
+				reader.begin(IsolationLevels.SNAPSHOT);
+				assertEquals(5001, reader.size());
+
+				try (SailConnection con = store.getConnection()) {
+					con.begin();
+					con.removeStatements(null, RDFS.LABEL, null);
+					con.commit();
+				}
+
+				// the removed statements are still visible in the snapshot of the reader
+				((CompactMemorySailStore) store.getSailStore()).compact();
+				assertEquals(5001, reader.size());
+				reader.commit();
+			}
+
+			((CompactMemorySailStore) store.getSailStore()).compact();
+			try (SailConnection con = store.getConnection()) {
+				assertEquals(1, con.size());
+				assertTrue(con.hasStatement(foo, RDF.TYPE, RDFS.CLASS, false));
+				assertFalse(con.hasStatement(null, RDFS.LABEL, null, false));
+
+				con.begin();
+				con.addStatement(foo, RDFS.LABEL, vf.createLiteral("foo"));
+				con.commit();
+				assertEquals(2, con.size());
+			}
+		} finally {
+			store.shutDown();
+		}
+	}
+
+	@Test
+	public void testCompactionReleasesValues() throws Exception {
+		MemoryStore store = new MemoryStore();
+		store.setCompactStorage(true);
+		store.init();
+		try {
+			ValueFactory vf = store.getValueFactory();
+			CompactMemorySailStore sailStore = (CompactMemorySailStore) store.getSailStore();
+			CompactValueDictionary dictionary = sailStore.getDictionary();
+			IRI foo = vf.createIRI("http://example.org/foo");
+			IRI graph = vf.createIRI("http://example.org/graph");
+
+			try (SailConnection con = store.getConnection()) {
+				con.begin();
+				for (int i = 0; i < 5000; i++) {
+					con.addStatement(foo, RDFS.LABEL, vf.createLiteral("old " + i), graph);
+				}
+				con.addStatement(foo, RDF.TYPE, RDFS.CLASS);
+				con.commit();
+			}
+			int idLimit = dictionary.getIdLimit();
+
+			try (SailConnection reader = store.getConnection()) {
+				// a reader without isolation does not reserve a snapshot, but continues to read the table it started with
+				reader.begin(IsolationLevels.NONE);
+				try (CloseableIteration<? extends Statement> iter = reader.getStatements(foo, RDFS.LABEL, null,
+						false)) {
+					assertTrue(iter.hasNext());
+					iter.next();
+
+					try (SailConnection con = store.getConnection()) {
+						con.begin();
+						con.removeStatements(foo, RDFS.LABEL, null);
+						con.commit();
+					}
+					// the removed statements may only be dropped once later snapshots have been used
+					for (int i = 0; i < 2; i++) {
+						try (SailConnection con = store.getConnection()) {
+							con.begin();
+							con.addStatement(foo, RDFS.COMMENT, vf.createLiteral("new " + i));
+							con.commit();
+						}
+					}
+
+					sailStore.compact();
+					assertEquals(6, dictionary.size());
+					assertEquals(NULL_ID, dictionary.getId(vf.createLiteral("old 0")));
+					assertEquals(NULL_ID, dictionary.getId(graph));
+
+					// the IDs of the released values are assigned to new values
+					try (SailConnection con = store.getConnection()) {
+						con.begin();
+						for (int i = 2; i < 5000; i++) {
+							con.addStatement(foo, RDFS.COMMENT, vf.createLiteral("new " + i));
+						}
+						con.commit();
+					}
+					assertEquals(idLimit + 3, dictionary.getIdLimit());
+
+					int count = 0;
+					while (iter.hasNext()) {
+						assertTrue(((Literal) iter.next().getObject()).getLabel().startsWith("old "));
+						count++;
+					}
+					assertEquals(4999, count);
+				}
+				reader.commit();
+			}
+
+			try (SailConnection con = store.getConnection()) {
+				assertEquals(5001, con.size());
+				assertFalse(con.hasStatement(null, RDFS.LABEL, null, false));
+				assertTrue(con.hasStatement(foo, RDFS.COMMENT, vf.createLiteral("new 0"), false));
+				assertFalse(con.getContextIDs().hasNext());
+			}
+		} finally {
+			store.shutDown();
+		}
+	}
+
+	@Test
+	public void testPersistence() throws Exception {
+		MemoryStore store = new MemoryStore(tempDir);
+		store.setCompactStorage(true);
+		store.init();
+		try (SailConnection con = store.getConnection()) {
+			ValueFactory vf = store.getValueFactory();
+			con.begin();
+			con.setNamespace("ex", "http://example.org/");
+			con.addStatement(vf.createIRI("http://example.org/foo"), RDF.TYPE, RDFS.CLASS,
+					vf.createIRI("http://example.org/graph"));
+			con.addStatement(vf.createBNode(), RDFS.LABEL, vf.createLiteral("bar", "en"));
+			con.commit();
+		} finally {
+			store.shutDown();
+		}
+
+		store = new MemoryStore(tempDir);
+		store.setCompactStorage(true);
+		store.init();
+		try (SailConnection con = store.getConnection()) {
+			assertEquals(2, con.size());
+			assertEquals("http://example.org/", con.getNamespace("ex"));
+			assertEquals(1, con.size(store.getValueFactory().createIRI("http://example.org/graph")));
+		} finally {
+			store.shutDown();
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.DC;
+import org.eclipse.rdf4j.model.vocabulary.FOAF;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.query.algebra.Join;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.eclipse.rdf4j.sail.SailConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MemCardinalityStatisticsTest {
+
+	private MemoryStore store;
+
+	private ValueFactory vf;
+
+	@BeforeEach
+	public void setUp() {
+		store = new MemoryStore();
+		store.setCardinalityStatistics(true);
+		store.init();
+		vf = store.getValueFactory();
+
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			for (int i = 0; i < 100; i++) {
+				IRI person = vf.createIRI("http://example.org/person" + i);
+				con.addStatement(person, RDF.TYPE, FOAF.PERSON);
+				con.addStatement(person, FOAF.NAME, vf.createLiteral("person " + i));
+				if (i < 10) {
+					con.addStatement(person, FOAF.MBOX, vf.createIRI("mailto:person" + i + "@example.org"));
+				}
+			}
+			for (int i = 0; i < 1000; i++) {
+				IRI document = vf.createIRI("http://example.org/document" + i);
+				con.addStatement(document, RDF.TYPE, FOAF.DOCUMENT);
+				con.addStatement(document, DC.TITLE, vf.createLiteral("document " + i));
+			}
+			con.commit();
+		}
+	}
+
+	@AfterEach
+	public void tearDown() {
+		store.shutDown();
+	}
+
+	@Test
+	public void testStarUsesCharacteristicSets() {
+		StatementPattern type = new StatementPattern(new Var("s"), new Var("p", RDF.TYPE), new Var("t"));
+		StatementPattern mbox = new StatementPattern(new Var("s"), new Var("p2", FOAF.MBOX), new Var("m"));
+
+		// only the 10 persons with a mailbox have both predicates
+		assertEquals(10, statistics().getCardinality(new Join(type, mbox)), 0.01);
+
+		try (SailConnection con = store.getConnection()) {
+			con.begin();
+			for (int i = 0; i < 5; i++) {
+				con.removeStatements(vf.createIRI("http://example.org/person" + i), FOAF.MBOX, null);
+			}
+			con.commit();
+		}
+
+		type = new StatementPattern(new Var("s"), new Var("p", RDF.TYPE), new Var("t"));
+		mbox = new StatementPattern(new Var("s"), new Var("p2", FOAF.MBOX), new Var("m"));
+		assertEquals(5, statistics().getCardinality(new Join(type, mbox)), 0.01);
+	}
+
+	@Test
+	public void testJoinCardinalityUsesDistinctValues() {
+		StatementPattern name = new StatementPattern(new Var("s"), new Var("p", FOAF.NAME), new Var("n"));
+		StatementPattern type = new StatementPattern(new Var("s"), new Var("p", RDF.TYPE), new Var("t"));
+
+		EvaluationStatistics statistics = statistics();
+		assertEquals(100, statistics.getJoinCardinality(Set.of(), name), 0.01);
+		// every person has exactly one name
+		assertEquals(1, statistics.getJoinCardinality(Set.of("s"), name), 0.01);
+		// rdf:type has only two distinct objects, which are counted approximately
+		assertEquals(550, statistics.getJoinCardinality(Set.of("t"), type), 5);
+	}
+
+	@Test
+	public void testJoinUsesObjectTypes() {
+		StatementPattern title = new StatementPattern(new Var("d"), new Var("p", DC.TITLE), new Var("x"));
+		StatementPattern type = new StatementPattern(new Var("x"), new Var("p2", RDF.TYPE), new Var("t"));
+
+		// titles are literals, which are never the subject of a statement
+		assertEquals(0, statistics().getCardinality(new Join(title, type)), 0.01);
+	}
+
+	private EvaluationStatistics statistics() {
+		return store.getSailStore().getEvaluationStatistics();
+	}
+}
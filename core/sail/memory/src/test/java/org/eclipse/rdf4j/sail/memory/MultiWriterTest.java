@@ -0,0 +1,326 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.sail.SailConflictException;
+import org.eclipse.rdf4j.sail.SailConnection;
+import org.eclipse.rdf4j.sail.base.SailDataset;
+import org.eclipse.rdf4j.sail.base.SailSink;
+import org.eclipse.rdf4j.sail.base.SailSource;
+import org.eclipse.rdf4j.sail.inferencer.InferencerConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MultiWriterTest {
+
+	private static final String NS = "http://example.org/";
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(8);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testConcurrentTransactions() throws Exception {
+		MemoryStore sail = new MemoryStore();
+		sail.setMultiWriter(true);
+		sail.init();
+		try {
+			ValueFactory vf = sail.getValueFactory();
+			IRI shared = vf.createIRI(NS, "shared");
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				int writer = t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 50; i++) {
+						try (SailConnection con = sail.getConnection()) {
+							con.begin(IsolationLevels.SNAPSHOT_READ);
+							for (int j = 0; j < 20; j++) {
+								con.addStatement(vf.createIRI(NS, "s" + writer + "-" + i), vf.createIRI(NS, "p"),
+										vf.createLiteral(j));
+							}
+							// every transaction also adds the same statement
+							con.addStatement(shared, shared, shared);
+							con.commit();
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(1, TimeUnit.MINUTES);
+			}
+
+			try (SailConnection con = sail.getConnection()) {
+				assertEquals(8 * 50 * 20 + 1, con.size());
+				try (CloseableIteration<? extends Statement> statements = con.getStatements(shared, null, null,
+						false)) {
+					assertTrue(statements.hasNext());
+					statements.next();
+					assertFalse(statements.hasNext());
+				}
+			}
+		} finally {
+			sail.shutDown();
+		}
+	}
+
+	@Test
+	public void testSnapshotsArePublishedInOrder() throws Exception {
+		try (MemorySailStore store = new MemorySailStore(false)) {
+			store.enableMultiWriter();
+			ValueFactory vf = store.getValueFactory();
+			IRI pred = vf.createIRI(NS, "p");
+			SailSource source = store.getExplicitSailSource();
+
+			SailSink first = source.sink(IsolationLevels.NONE);
+			first.approve(vf.createIRI(NS, "first"), pred, vf.createLiteral(1), null);
+
+			// the second transaction writes from another thread, but can only be published after the first one
+			Future<?> second = executor.submit(() -> {
+				SailSink sink = source.sink(IsolationLevels.NONE);
+				try {
+					sink.approve(vf.createIRI(NS, "second"), pred, vf.createLiteral(2), null);
+					sink.flush();
+				} finally {
+					sink.close();
+				}
+			});
+			assertThrows(TimeoutException.class, () -> second.get(200, TimeUnit.MILLISECONDS));
+			assertEquals(0, count(source));
+
+			first.flush();
+			first.close();
+			second.get(1, TimeUnit.MINUTES);
+			assertEquals(2, count(source));
+		}
+	}
+
+	@Test
+	public void testAbortedTransactionIsReverted() throws Exception {
+		try (MemorySailStore store = new MemorySailStore(false)) {
+			store.enableMultiWriter();
+			ValueFactory vf = store.getValueFactory();
+			IRI pred = vf.createIRI(NS, "p");
+			Statement removed = vf.createStatement(vf.createIRI(NS, "removed"), pred, vf.createLiteral(0));
+			SailSource source = store.getExplicitSailSource();
+
+			SailSink sink = source.sink(IsolationLevels.NONE);
+			sink.approve(removed.getSubject(), pred, removed.getObject(), null);
+			sink.flush();
+			sink.close();
+
+			// closed without being flushed
+			sink = source.sink(IsolationLevels.NONE);
+			sink.approve(vf.createIRI(NS, "added"), pred, vf.createLiteral(1), null);
+			sink.deprecate(removed);
+			sink.close();
+
+			sink = source.sink(IsolationLevels.NONE);
+			sink.approve(vf.createIRI(NS, "committed"), pred, vf.createLiteral(2), null);
+			sink.flush();
+			sink.close();
+
+			try (SailDataset dataset = source.dataset(IsolationLevels.SNAPSHOT)) {
+				assertEquals(1, count(dataset, vf.createIRI(NS, "removed")));
+				assertEquals(0, count(dataset, vf.createIRI(NS, "added")));
+				assertEquals(1, count(dataset, vf.createIRI(NS, "committed")));
+			}
+		}
+	}
+
+	@Test
+	public void testConcurrentRemovalConflicts() throws Exception {
+		try (MemorySailStore store = new MemorySailStore(false)) {
+			store.enableMultiWriter();
+			ValueFactory vf = store.getValueFactory();
+			IRI pred = vf.createIRI(NS, "p");
+			Statement statement = vf.createStatement(vf.createIRI(NS, "s"), pred, vf.createLiteral(0));
+			SailSource source = store.getExplicitSailSource();
+
+			SailSink sink = source.sink(IsolationLevels.NONE);
+			sink.approve(statement.getSubject(), pred, statement.getObject(), null);
+			sink.flush();
+			sink.close();
+
+			SailSink first = source.sink(IsolationLevels.NONE);
+			first.approve(vf.createIRI(NS, "first"), pred, vf.createLiteral(1), null);
+
+			// the second transaction removes the statement before the first one, which precedes it
+			executor.submit(() -> {
+				SailSink second = source.sink(IsolationLevels.NONE);
+				second.deprecate(statement);
+				// not flushed yet, the first transaction has to be published first
+				return null;
+			}).get(1, TimeUnit.MINUTES);
+
+			assertThrows(SailConflictException.class, () -> first.deprecate(statement));
+			first.close();
+		}
+	}
+
+	@Test
+	public void testObservedStateIsValidatedOnPublish() throws Exception {
+		MemoryStore sail = new MemoryStore();
+		sail.setMultiWriter(true);
+		sail.init();
+		try {
+			ValueFactory vf = sail.getValueFactory();
+			IRI subj = vf.createIRI(NS, "s");
+			IRI pred = vf.createIRI(NS, "p");
+
+			try (SailConnection reader = sail.getConnection(); SailConnection writer = sail.getConnection()) {
+				reader.begin(IsolationLevels.SERIALIZABLE);
+				assertFalse(reader.hasStatement(subj, pred, null, false));
+
+				writer.begin(IsolationLevels.SERIALIZABLE);
+				writer.addStatement(subj, pred, vf.createLiteral(1));
+				writer.commit();
+
+				reader.addStatement(subj, pred, vf.createLiteral(2));
+				assertThrows(SailConflictException.class, reader::commit);
+				reader.rollback();
+			}
+
+			try (SailConnection con = sail.getConnection()) {
+				assertEquals(1, con.size());
+			}
+		} finally {
+			sail.shutDown();
+		}
+	}
+
+	@Test
+	public void testInterleavedTransactionsOnOneThread() throws Exception {
+		MemoryStore sail = new MemoryStore();
+		sail.setMultiWriter(true);
+		sail.init();
+		try {
+			ValueFactory vf = sail.getValueFactory();
+			IRI pred = vf.createIRI(NS, "p");
+			IRI committed = vf.createIRI(NS, "committed");
+			IRI rolledBack = vf.createIRI(NS, "rolledBack");
+
+			try (InferencerConnection first = (InferencerConnection) sail.getConnection();
+					InferencerConnection second = (InferencerConnection) sail.getConnection()) {
+				first.begin(IsolationLevels.SNAPSHOT_READ);
+				first.addStatement(committed, pred, vf.createLiteral(1));
+				first.addInferredStatement(committed, pred, vf.createLiteral(2));
+				first.prepare();
+
+				// both transactions have started writing before either of them completes
+				second.begin(IsolationLevels.SNAPSHOT_READ);
+				second.addStatement(rolledBack, pred, vf.createLiteral(1));
+				second.addInferredStatement(rolledBack, pred, vf.createLiteral(2));
+				second.prepare();
+
+				first.commit();
+				second.rollback();
+			}
+
+			try (SailConnection con = sail.getConnection()) {
+				assertEquals(1, con.size());
+				assertTrue(con.hasStatement(committed, pred, vf.createLiteral(1), false));
+				assertTrue(con.hasStatement(committed, pred, vf.createLiteral(2), true));
+				assertFalse(con.hasStatement(rolledBack, null, null, true));
+			}
+		} finally {
+			sail.shutDown();
+		}
+	}
+
+	@Test
+	public void testRollbackDoesNotWaitForEarlierWriters() throws Exception {
+		MemoryStore sail = new MemoryStore();
+		sail.setMultiWriter(true);
+		sail.init();
+		try {
+			ValueFactory vf = sail.getValueFactory();
+			IRI pred = vf.createIRI(NS, "p");
+			IRI committed = vf.createIRI(NS, "committed");
+			IRI rolledBack = vf.createIRI(NS, "rolledBack");
+			IRI later = vf.createIRI(NS, "later");
+
+			try (SailConnection first = sail.getConnection(); SailConnection second = sail.getConnection()) {
+				first.begin(IsolationLevels.SNAPSHOT_READ);
+				first.addStatement(committed, pred, vf.createLiteral(1));
+				first.prepare();
+
+				// the first transaction stays open on this thread while the second one is rolled back
+				second.begin(IsolationLevels.SNAPSHOT_READ);
+				second.addStatement(rolledBack, pred, vf.createLiteral(1));
+				second.prepare();
+				assertTimeoutPreemptively(Duration.ofSeconds(10), second::rollback);
+
+				first.commit();
+			}
+
+			try (SailConnection con = sail.getConnection()) {
+				con.begin(IsolationLevels.SNAPSHOT_READ);
+				con.addStatement(later, pred, vf.createLiteral(1));
+				con.commit();
+			}
+
+			try (SailConnection con = sail.getConnection()) {
+				assertEquals(2, con.size());
+				assertTrue(con.hasStatement(committed, pred, vf.createLiteral(1), false));
+				assertTrue(con.hasStatement(later, pred, vf.createLiteral(1), false));
+				assertFalse(con.hasStatement(rolledBack, null, null, true));
+			}
+		} finally {
+			sail.shutDown();
+		}
+	}
+
+	private static int count(SailSource source) throws Exception {
+		try (SailDataset dataset = source.dataset(IsolationLevels.SNAPSHOT)) {
+			return count(dataset, null);
+		}
+	}
+
+	private static int count(SailDataset dataset, IRI subj) throws Exception {
+		int count = 0;
+		try (CloseableIteration<? extends Statement> iter = dataset.getStatements(subj, null, null)) {
+			while (iter.hasNext()) {
+				iter.next();
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.sail.base.SailDataset;
+import org.eclipse.rdf4j.sail.base.SailSink;
+import org.eclipse.rdf4j.sail.base.SailSource;
+import org.eclipse.rdf4j.sail.memory.model.MemValueFactory;
+import org.junit.jupiter.api.Test;
+
+public class SnapshotCleanupTest {
+
+	@Test
+	public void testCleanupWaitsForSnapshotsInUse() throws Exception {
+		// fewer than 1000 statements, so that the cleanup is not scheduled in the background
+		try (MemorySailStore store = new MemorySailStore(false)) {
+			MemValueFactory vf = (MemValueFactory) store.getValueFactory();
+			IRI pred = vf.createIRI("http://example.org/p");
+
+			try (SailSource source = store.getExplicitSailSource()) {
+				SailSink sink = source.sink(IsolationLevels.NONE);
+				for (int i = 0; i < 500; i++) {
+					sink.approve(vf.createIRI("http://example.org/s" + i), pred, vf.createLiteral(i), null);
+				}
+				sink.flush();
+				sink.close();
+
+				SailDataset dataset = source.dataset(IsolationLevels.SNAPSHOT);
+
+				sink = source.sink(IsolationLevels.NONE);
+				for (int i = 0; i < 500; i += 2) {
+					sink.deprecate(vf.createStatement(vf.createIRI("http://example.org/s" + i), pred,
+							vf.createLiteral(i)));
+				}
+				sink.flush();
+				sink.close();
+				assertEquals(250, store.getSnapshotCleanupBacklog());
+
+				// the deprecated statements are still visible in the snapshot of the dataset
+				store.cleanSnapshots();
+				assertEquals(250, store.getSnapshotCleanupBacklog());
+				assertEquals(0, store.getCleanedStatementCount());
+				assertEquals(500, count(dataset));
+				dataset.close();
+
+				// advance the current snapshot and release a later snapshot, so that the snapshot in which the
+				// statements were removed is no longer in use
+				sink = source.sink(IsolationLevels.NONE);
+				sink.approve(vf.createIRI("http://example.org/s"), vf.createIRI("http://example.org/q"),
+						vf.createLiteral("q"), null);
+				sink.flush();
+				sink.close();
+				source.dataset(IsolationLevels.SNAPSHOT).close();
+
+				store.cleanSnapshots();
+				assertEquals(0, store.getSnapshotCleanupBacklog());
+				assertEquals(250, store.getCleanedStatementCount());
+				assertEquals(250, vf.getMemURI(pred).getPredicateStatementCount());
+
+				try (SailDataset current = source.dataset(IsolationLevels.SNAPSHOT)) {
+					assertEquals(251, count(current));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testInsertionRanges() {
+		InsertionRanges ranges = new InsertionRanges(4);
+		ranges.record(2, 0, 9);
+		ranges.record(3, 10, 19);
+		ranges.record(3, 40, 49);
+		ranges.record(5, 20, 29);
+
+		assertNull(ranges.getRanges(new int[] { 1 }));
+		assertArrayEquals(new int[] { 0, 10 }, ranges.getRanges(new int[] { 2 }));
+		assertArrayEquals(new int[] { 10, 50 }, ranges.getRanges(new int[] { 3, 4 }));
+		assertArrayEquals(new int[] { 0, 10, 20, 30 }, ranges.getRanges(new int[] { 2, 5 }));
+
+		// merges neighbouring entries when the capacity is reached
+		ranges.record(6, 100, 109);
+		ranges.record(7, 110, 119);
+		assertArrayEquals(new int[] { 0, 50 }, ranges.getRanges(new int[] { 2 }));
+		assertArrayEquals(new int[] { 20, 110 }, ranges.getRanges(new int[] { 5, 6 }));
+		assertArrayEquals(new int[] { 110, 120 }, ranges.getRanges(new int[] { 7 }));
+	}
+
+	private static int count(SailDataset dataset) throws Exception {
+		int count = 0;
+		try (CloseableIteration<? extends Statement> iter = dataset.getStatements(null, null, null)) {
+			while (iter.hasNext()) {
+				iter.next();
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.rdf4j.common.io.FileUtil;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.sail.SailConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the write-ahead log of a persistent {@link MemoryStore}.
+ */
+public class WriteAheadLogTest {
+
+	@TempDir
+	File tempDir;
+
+	private File dataDir;
+
+	private IRI foo;
+
+	private IRI bar;
+
+	private IRI graph;
+
+	@BeforeEach
+	public void setUp() {
+		dataDir = new File(tempDir, "store");
+		ValueFactory vf = SimpleValueFactory.getInstance();
+		foo = vf.createIRI("http://example.org/foo");
+		bar = vf.createIRI("http://example.org/bar");
+		graph = vf.createIRI("http://example.org/graph");
+	}
+
+	@Test
+	public void testCommitDoesNotRewriteDataFile() throws Exception {
+		MemoryStore store = createStore(dataDir);
+		try {
+			File dataFile = new File(dataDir, MemoryStore.DATA_FILE_NAME);
+			byte[] before = Files.readAllBytes(dataFile.toPath());
+
+			try (SailConnection con = store.getConnection()) {
+				con.begin();
+				con.addStatement(foo, RDF.TYPE, RDFS.CLASS);
+				con.commit();
+			}
+
+			assertArrayEquals(before, Files.readAllBytes(dataFile.toPath()));
+			assertEquals(1, logFiles(dataDir).length);
+		} finally {
+			store.shutDown();
+		}
+
+		// shutdown writes a checkpoint
+		assertEquals(0, logFiles(dataDir).length);
+		store = createStore(dataDir);
+		try (SailConnection con = store.getConnection()) {
+			assertTrue(con.hasStatement(foo, RDF.TYPE, RDFS.CLASS, false));
+		} finally {
+			store.shutDown();
+		}
+	}
+
+	@Test
+	public void testRecovery() throws Exception {
+		File copy = new File(tempDir, "copy");
+
+		MemoryStore store = createStore(dataDir);
+		try {
+			try (SailConnection con = store.getConnection()) {
+				con.begin();
+				con.setNamespace("ex", "http://example.org/");
+				con.addStatement(foo, RDF.TYPE, RDFS.CLASS);
+				con.addStatement(bar, RDF.TYPE, RDFS.CLASS, graph);
+				con.addStatement(bar, RDFS.LABEL, store.getValueFactory().createLiteral("bar", "en"));
+				con.commit();
+
+				con.begin();
+				con.removeStatements(foo, null, null);
+				con.addStatement(foo, RDFS.SUBCLASSOF, bar);
+				con.commit();
+
+				con.begin();
+				con.clear(graph);
+				con.commit();
+			}
+
+			// simulate a crash by copying the files of the running store
+			copyFiles(dataDir, copy);
+		} finally {
+			store.shutDown();
+		}
+
+		store = createStore(copy);
+		try (SailConnection con = store.getConnection()) {
+			assertEquals("http://example.org/", con.getNamespace("ex"));
+			assertFalse(con.hasStatement(foo, RDF.TYPE, RDFS.CLASS, false));
+			assertTrue(con.hasStatement(foo, RDFS.SUBCLASSOF, bar, false));
+			assertFalse(con.hasStatement(bar, RDF.TYPE, RDFS.CLASS, false));
+			assertTrue(con.hasStatement(bar, RDFS.LABEL, null, false));
+			assertEquals(2, con.size());
+		} finally {
+			store.shutDown();
+		}
+	}
+
+	@Test
+	public void testIncompleteTransactionIgnored() throws Exception {
+		File copy = new File(tempDir, "copy");
+
+		MemoryStore store = createStore(dataDir);
+		try {
+			try (SailConnection con = store.getConnection()) {
+				con.begin();
+				con.addStatement(foo, RDF.TYPE, RDFS.CLASS);
+				con.commit();
+			}
+			copyFiles(dataDir, copy);
+		} finally {
+			store.shutDown();
+		}
+
+		// a frame that was not completely written
+		File log = logFiles(copy)[0];
+		long length = log.length();
+		Files.write(log.toPath(), new byte[] { 0, 0, 1, 0, 42 }, StandardOpenOption.APPEND);
+
+		store = createStore(copy);
+		try {
+			assertEquals(length, log.length());
+			try (SailConnection con = store.getConnection()) {
+				assertTrue(con.hasStatement(foo, RDF.TYPE, RDFS.CLASS, false));
+				assertEquals(1, con.size());
+
+				con.begin();
+				con.addStatement(bar, RDF.TYPE, RDFS.CLASS);
+				con.commit();
+			}
+			FileUtil.deleteDir(dataDir);
+			copyFiles(copy, dataDir);
+		} finally {
+			store.shutDown();
+		}
+
+		store = createStore(dataDir);
+		try (SailConnection con = store.getConnection()) {
+			assertEquals(2, con.size());
+		} finally {
+			store.shutDown();
+		}
+	}
+
+	@Test
+	public void testCheckpoint() throws Exception {
+		MemoryStore store = createStore(dataDir);
+		try {
+			try (SailConnection con = store.getConnection()) {
+				for (int i = 0; i < 10; i++) {
+					con.begin();
+					con.addStatement(foo, RDFS.LABEL, store.getValueFactory().createLiteral(i));
+					con.commit();
+				}
+			}
+			assertEquals(1, logFiles(dataDir).length);
+
+			store.sync();
+			assertEquals(0, logFiles(dataDir).length);
+
+			try (SailConnection con = store.getConnection()) {
+				con.begin();
+				con.removeStatements(foo, RDFS.LABEL, store.getValueFactory().createLiteral(0));
+				con.commit();
+			}
+			assertEquals(1, logFiles(dataDir).length);
+		} finally {
+			store.shutDown();
+		}
+
+		store = createStore(dataDir);
+		try (SailConnection con = store.getConnection()) {
+			assertEquals(9, con.size());
+		} finally {
+			store.shutDown();
+		}
+	}
+
+	private MemoryStore createStore(File dir) {
+		MemoryStore store = new MemoryStore(dir);
+		store.setWriteAheadLog(true);
+		store.setSyncDelay(-1);
+		store.init();
+		return store;
+	}
+
+	private static File[] logFiles(File dir) {
+		return dir.listFiles((d, name) -> name.endsWith(".wal"));
+	}
+
+	/**
+	 * Copies the data and log files of a store, which is what remains of a store that is not shut down properly.
+	 */
+	private static void copyFiles(File from, File to) throws IOException {
+		Files.createDirectories(to.toPath());
+		for (File file : from.listFiles(File::isFile)) {
+			Files.copy(file.toPath(), new File(to, file.getName()).toPath());
+		}
+	}
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+
+package org.eclipse.rdf4j.sail.memory.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the query plans of the MemoryStore with and without cardinality statistics on skewed data, where the sizes
+ * of the statement lists alone are a poor estimate of the join sizes.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@BenchmarkMode({ Mode.AverageTime })
+@Fork(value = 1, jvmArgs = { "-Xms2G", "-Xmx2G" })
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CardinalityStatisticsBenchmark {
+
+	private static final String NS = "http://example.org/";
+
+	private static final int PERSONS = 100_000;
+
+	private static final int COMPANIES = 1_000;
+
+	private static final int CITIES = 50;
+
+	private static final String PREFIXES = "PREFIX ex: <" + NS + ">\n";
+
+	// every person has a name, but the persons with a manager never have an email address
+	private static final String STAR = PREFIXES
+			+ "SELECT * WHERE { ?p a ex:Person ; ex:name ?n ; ex:manager ?m ; ex:email ?e . }";
+
+	private static final String CHAIN = PREFIXES
+			+ "SELECT * WHERE { ?p ex:knows ?f . ?f ex:worksFor ?c . ?c ex:locatedIn ex:city1 . ?c ex:name ?cn . }";
+
+	// names are literals, which never appear as subjects
+	private static final String LITERAL_AS_SUBJECT = PREFIXES
+			+ "SELECT * WHERE { ?p ex:worksFor ?c . ?p ex:name ?n . ?n ex:locatedIn ?city . }";
+
+	private static final String SKEWED_OBJECTS = PREFIXES
+			+ "SELECT * WHERE { ?p ex:worksFor ?c . ?c a ex:Startup . ?p ex:knows ?f . ?f ex:manager ?m . }";
+
+	@Param({ "false", "true" })
+	public boolean cardinalityStatistics;
+
+	private SailRepository repository;
+
+	@Setup(Level.Trial)
+	public void beforeClass() {
+		MemoryStore store = new MemoryStore();
+		store.setCardinalityStatistics(cardinalityStatistics);
+		repository = new SailRepository(store);
+
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			ValueFactory vf = connection.getValueFactory();
+			IRI person = vf.createIRI(NS, "Person");
+			IRI company = vf.createIRI(NS, "Company");
+			IRI startup = vf.createIRI(NS, "Startup");
+			IRI name = vf.createIRI(NS, "name");
+			IRI email = vf.createIRI(NS, "email");
+			IRI manager = vf.createIRI(NS, "manager");
+			IRI knows = vf.createIRI(NS, "knows");
+			IRI worksFor = vf.createIRI(NS, "worksFor");
+			IRI locatedIn = vf.createIRI(NS, "locatedIn");
+
+			connection.begin(IsolationLevels.NONE);
+			for (int i = 0; i < COMPANIES; i++) {
+				IRI c = vf.createIRI(NS, "company" + i);
+				connection.add(c, RDF.TYPE, i % 100 == 0 ? startup : company);
+				connection.add(c, name, vf.createLiteral("company " + i));
+				// most companies are located in the first few cities
+				connection.add(c, locatedIn, vf.createIRI(NS, "city" + Math.min(i % 100, CITIES - 1)));
+			}
+			for (int i = 0; i < PERSONS; i++) {
+				IRI p = vf.createIRI(NS, "person" + i);
+				connection.add(p, RDF.TYPE, person);
+				connection.add(p, name, vf.createLiteral("person " + i));
+				if (i % 2 == 0) {
+					connection.add(p, manager, vf.createIRI(NS, "person" + (i / 2)));
+				} else if (i % 10 == 1) {
+					connection.add(p, email, vf.createLiteral("person" + i + "@example.org"));
+				}
+				// a small number of companies employ most of the persons
+				int employer = (int) Math.min(COMPANIES - 1, Math.abs(Math.round(COMPANIES * Math.pow(
+						(double) i / PERSONS, 4))));
+				connection.add(p, worksFor, vf.createIRI(NS, "company" + employer));
+				for (int j = 1; j <= 3; j++) {
+					connection.add(p, knows, vf.createIRI(NS, "person" + ((i * 31 + j * 7919) % PERSONS)));
+				}
+			}
+			connection.commit();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void afterClass() {
+		repository.shutDown();
+	}
+
+	@Benchmark
+	public long star() {
+		return count(STAR);
+	}
+
+	@Benchmark
+	public long chain() {
+		return count(CHAIN);
+	}
+
+	@Benchmark
+	public long literalAsSubject() {
+		return count(LITERAL_AS_SUBJECT);
+	}
+
+	@Benchmark
+	public long skewedObjects() {
+		return count(SKEWED_OBJECTS);
+	}
+
+	private long count(String query) {
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			try (TupleQueryResult result = connection.prepareTupleQuery(query).evaluate()) {
+				try (Stream<BindingSet> stream = result.stream()) {
+					return stream.count();
+				}
+			}
+		}
+	}
+}
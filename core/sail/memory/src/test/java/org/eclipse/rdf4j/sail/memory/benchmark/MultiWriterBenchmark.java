@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.memory.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Concurrent writers that add disjoint statements, with and without multi-writer mode.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@BenchmarkMode({ Mode.AverageTime })
+@Fork(value = 1, jvmArgs = { "-Xms2G", "-Xmx2G" })
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MultiWriterBenchmark {
+
+	private static final String NS = "http://example.org/";
+
+	private static final int TRANSACTIONS_PER_WRITER = 100;
+
+	private static final int STATEMENTS_PER_TRANSACTION = 1000;
+
+	@Param({ "false", "true" })
+	public boolean multiWriter;
+
+	@Param({ "1", "4", "16" })
+	public int writers;
+
+	private SailRepository repository;
+
+	private ExecutorService executorService;
+
+	private final AtomicInteger iteration = new AtomicInteger();
+
+	@Setup(Level.Trial)
+	public void beforeClass() {
+		executorService = Executors.newFixedThreadPool(writers);
+	}
+
+	@TearDown(Level.Trial)
+	public void afterClass() {
+		executorService.shutdownNow();
+	}
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+		MemoryStore store = new MemoryStore();
+		store.setMultiWriter(multiWriter);
+		repository = new SailRepository(store);
+		repository.init();
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDown() {
+		repository.shutDown();
+	}
+
+	@Benchmark
+	public long disjointWrites() throws InterruptedException, ExecutionException {
+		int run = iteration.incrementAndGet();
+		CountDownLatch startSignal = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>(writers);
+		for (int writer = 0; writer < writers; writer++) {
+			String prefix = NS + run + "/" + writer + "/";
+			futures.add(executorService.submit(() -> {
+				startSignal.await();
+				ValueFactory vf = repository.getValueFactory();
+				IRI predicate = vf.createIRI(NS, "value");
+				try (SailRepositoryConnection connection = repository.getConnection()) {
+					for (int t = 0; t < TRANSACTIONS_PER_WRITER; t++) {
+						connection.begin(IsolationLevels.SNAPSHOT_READ);
+						for (int i = 0; i < STATEMENTS_PER_TRANSACTION; i++) {
+							connection.add(vf.createIRI(prefix + t + "/" + i), predicate, vf.createLiteral(i));
+						}
+						connection.commit();
+					}
+				}
+				return null;
+			}));
+		}
+
+		startSignal.countDown();
+		for (Future<?> future : futures) {
+			future.get();
+		}
+
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			return connection.size();
+		}
+	}
+}
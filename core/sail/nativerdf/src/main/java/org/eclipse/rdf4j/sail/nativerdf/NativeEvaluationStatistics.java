@@ -81,33 +81,33 @@ class NativeEvaluationStatistics extends EvaluationStatistics {
 	}
 
 	private double cardinality(Resource subj, IRI pred, Value obj, Resource context) throws IOException {
-		int subjID = NativeValue.UNKNOWN_ID;
+		long subjID = NativeValue.UNKNOWN_ID;
 		if (subj != null) {
-			subjID = valueStore.getID(subj);
+			subjID = valueStore.getLongID(subj);
 			if (subjID == NativeValue.UNKNOWN_ID) {
 				return 0;
 			}
 		}
 
-		int predID = NativeValue.UNKNOWN_ID;
+		long predID = NativeValue.UNKNOWN_ID;
 		if (pred != null) {
-			predID = valueStore.getID(pred);
+			predID = valueStore.getLongID(pred);
 			if (predID == NativeValue.UNKNOWN_ID) {
 				return 0;
 			}
 		}
 
-		int objID = NativeValue.UNKNOWN_ID;
+		long objID = NativeValue.UNKNOWN_ID;
 		if (obj != null) {
-			objID = valueStore.getID(obj);
+			objID = valueStore.getLongID(obj);
 			if (objID == NativeValue.UNKNOWN_ID) {
 				return 0;
 			}
 		}
 
-		int contextID = NativeValue.UNKNOWN_ID;
+		long contextID = NativeValue.UNKNOWN_ID;
 		if (context != null) {
-			contextID = valueStore.getID(context);
+			contextID = valueStore.getLongID(context);
 			if (contextID == NativeValue.UNKNOWN_ID) {
 				return 0;
 			}
@@ -14,6 +14,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -26,9 +27,11 @@ import java.util.concurrent.locks.ReentrantLock;
 import org.eclipse.rdf4j.common.iteration.CloseableIteration;
 import org.eclipse.rdf4j.common.iteration.CloseableIteratorIteration;
 import org.eclipse.rdf4j.common.iteration.ConvertingIteration;
+import org.eclipse.rdf4j.common.iteration.DualUnionIteration;
 import org.eclipse.rdf4j.common.iteration.EmptyIteration;
 import org.eclipse.rdf4j.common.iteration.FilterIteration;
 import org.eclipse.rdf4j.common.iteration.UnionIteration;
+import org.eclipse.rdf4j.common.order.StatementOrder;
 import org.eclipse.rdf4j.common.transaction.IsolationLevel;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Namespace;
@@ -78,6 +81,11 @@ class NativeSailStore implements SailStore {
 	 */
 	private final AtomicBoolean storeTxnStarted = new AtomicBoolean(false);
 
+	/**
+	 * Compares values by their internal IDs which is the order used by the {@link TripleStore} indexes.
+	 */
+	private final Comparator<Value> valueIdComparator = (v1, v2) -> Long.compare(sortKey(v1), sortKey(v2));
+
 	/**
 	 * Creates a new {@link NativeSailStore} with the default cache sizes.
 	 */
@@ -91,12 +99,57 @@ class NativeSailStore implements SailStore {
 	 */
 	public NativeSailStore(File dataDir, String tripleIndexes, boolean forceSync, int valueCacheSize,
 			int valueIDCacheSize, int namespaceCacheSize, int namespaceIDCacheSize) throws IOException, SailException {
+		this(dataDir, tripleIndexes, forceSync, false, valueCacheSize, valueIDCacheSize, namespaceCacheSize,
+				namespaceIDCacheSize);
+	}
+
+	/**
+	 * Creates a new {@link NativeSailStore} whose triple indexes optionally use compressed leaf nodes.
+	 */
+	public NativeSailStore(File dataDir, String tripleIndexes, boolean forceSync, boolean compressIndexes,
+			int valueCacheSize, int valueIDCacheSize, int namespaceCacheSize, int namespaceIDCacheSize)
+			throws IOException, SailException {
+		this(dataDir, tripleIndexes, forceSync, compressIndexes, false, valueCacheSize, valueIDCacheSize,
+				namespaceCacheSize, namespaceIDCacheSize);
+	}
+
+	/**
+	 * Creates a new {@link NativeSailStore} whose triple indexes optionally use compressed leaf nodes and that
+	 * optionally uses 64-bit value IDs. The ID size only applies to new stores, existing stores keep the ID size that
+	 * they were created with.
+	 */
+	public NativeSailStore(File dataDir, String tripleIndexes, boolean forceSync, boolean compressIndexes,
+			boolean longValueIDs, int valueCacheSize, int valueIDCacheSize, int namespaceCacheSize,
+			int namespaceIDCacheSize) throws IOException, SailException {
+		this(dataDir, tripleIndexes, forceSync, compressIndexes, longValueIDs, false, valueCacheSize,
+				valueIDCacheSize, namespaceCacheSize, namespaceIDCacheSize);
+	}
+
+	/**
+	 * Creates a new {@link NativeSailStore} that optionally reads its value and index files through memory-mapped
+	 * segments instead of positional channel reads.
+	 */
+	public NativeSailStore(File dataDir, String tripleIndexes, boolean forceSync, boolean compressIndexes,
+			boolean longValueIDs, boolean memoryMappedReads, int valueCacheSize, int valueIDCacheSize,
+			int namespaceCacheSize, int namespaceIDCacheSize) throws IOException, SailException {
+		this(dataDir, tripleIndexes, forceSync, compressIndexes, longValueIDs, memoryMappedReads, false,
+				valueCacheSize, valueIDCacheSize, namespaceCacheSize, namespaceIDCacheSize);
+	}
+
+	/**
+	 * Creates a new {@link NativeSailStore} that optionally builds changed triple indexes of an existing store in the
+	 * background, see {@link #reindex(String)}.
+	 */
+	public NativeSailStore(File dataDir, String tripleIndexes, boolean forceSync, boolean compressIndexes,
+			boolean longValueIDs, boolean memoryMappedReads, boolean onlineReindex, int valueCacheSize,
+			int valueIDCacheSize, int namespaceCacheSize, int namespaceIDCacheSize) throws IOException, SailException {
 		boolean initialized = false;
 		try {
 			namespaceStore = new NamespaceStore(dataDir);
 			valueStore = new ValueStore(dataDir, forceSync, valueCacheSize, valueIDCacheSize, namespaceCacheSize,
-					namespaceIDCacheSize);
-			tripleStore = new TripleStore(dataDir, tripleIndexes, forceSync);
+					namespaceIDCacheSize, longValueIDs, memoryMappedReads);
+			tripleStore = new TripleStore(dataDir, tripleIndexes, forceSync, compressIndexes,
+					valueStore.hasLongIDs(), memoryMappedReads, onlineReindex);
 			contextStore = new ContextStore(this, dataDir);
 			initialized = true;
 		} finally {
@@ -157,7 +210,7 @@ class NativeSailStore implements SailStore {
 		return new NativeSailSource(false);
 	}
 
-	List<Integer> getContextIDs(Resource... contexts) throws IOException {
+	List<Long> getContextIDs(Resource... contexts) throws IOException {
 		assert contexts.length > 0 : "contexts must not be empty";
 
 		// Filter duplicates
@@ -165,12 +218,12 @@ class NativeSailStore implements SailStore {
 		Collections.addAll(contextSet, contexts);
 
 		// Fetch IDs, filtering unknown resources from the result
-		List<Integer> contextIDs = new ArrayList<>(contextSet.size());
+		List<Long> contextIDs = new ArrayList<>(contextSet.size());
 		for (Resource context : contextSet) {
 			if (context == null) {
-				contextIDs.add(0);
+				contextIDs.add(0L);
 			} else {
-				int contextID = valueStore.getID(context);
+				long contextID = valueStore.getLongID(context);
 				if (contextID != NativeValue.UNKNOWN_ID) {
 					contextIDs.add(contextID);
 				}
@@ -187,7 +240,7 @@ class NativeSailStore implements SailStore {
 			// Iterator over all statements
 			stIter1 = createStatementIterator(null, null, null, true);
 		} else {
-			stIter1 = new NativeStatementIterator(btreeIter, valueStore);
+			stIter1 = new NativeStatementIterator(btreeIter, valueStore, tripleStore);
 		}
 
 		FilterIteration<Statement> stIter2 = new FilterIteration<>(
@@ -223,40 +276,57 @@ class NativeSailStore implements SailStore {
 	 */
 	CloseableIteration<? extends Statement> createStatementIterator(Resource subj, IRI pred, Value obj,
 			boolean explicit, Resource... contexts) throws IOException {
-		int subjID = NativeValue.UNKNOWN_ID;
+		return createStatementIterator(null, subj, pred, obj, explicit, contexts);
+	}
+
+	/**
+	 * Creates a statement iterator based on the supplied pattern that returns the statements in the given order.
+	 *
+	 * @param order    The order in which the statements are returned, or <var>null</var> if the order is not
+	 *                 relevant.
+	 * @param subj     The subject of the pattern, or <var>null</var> to indicate a wildcard.
+	 * @param pred     The predicate of the pattern, or <var>null</var> to indicate a wildcard.
+	 * @param obj      The object of the pattern, or <var>null</var> to indicate a wildcard.
+	 * @param contexts The context(s) of the pattern. Note that this parameter is a vararg and as such is optional. If
+	 *                 no contexts are supplied the method operates on the entire repository.
+	 * @return A StatementIterator that can be used to iterate over the statements that match the specified pattern.
+	 */
+	CloseableIteration<? extends Statement> createStatementIterator(StatementOrder order, Resource subj, IRI pred,
+			Value obj, boolean explicit, Resource... contexts) throws IOException {
+		long subjID = NativeValue.UNKNOWN_ID;
 		if (subj != null) {
-			subjID = valueStore.getID(subj);
+			subjID = valueStore.getLongID(subj);
 			if (subjID == NativeValue.UNKNOWN_ID) {
 				return new EmptyIteration<>();
 			}
 		}
 
-		int predID = NativeValue.UNKNOWN_ID;
+		long predID = NativeValue.UNKNOWN_ID;
 		if (pred != null) {
-			predID = valueStore.getID(pred);
+			predID = valueStore.getLongID(pred);
 			if (predID == NativeValue.UNKNOWN_ID) {
 				return new EmptyIteration<>();
 			}
 		}
 
-		int objID = NativeValue.UNKNOWN_ID;
+		long objID = NativeValue.UNKNOWN_ID;
 		if (obj != null) {
-			objID = valueStore.getID(obj);
+			objID = valueStore.getLongID(obj);
 
 			if (objID == NativeValue.UNKNOWN_ID) {
 				return new EmptyIteration<>();
 			}
 		}
 
-		List<Integer> contextIDList = new ArrayList<>(contexts.length);
+		List<Long> contextIDList = new ArrayList<>(contexts.length);
 		if (contexts.length == 0) {
 			contextIDList.add(NativeValue.UNKNOWN_ID);
 		} else {
 			for (Resource context : contexts) {
 				if (context == null) {
-					contextIDList.add(0);
+					contextIDList.add(0L);
 				} else if (!context.isTriple()) {
-					int contextID = valueStore.getID(context);
+					long contextID = valueStore.getLongID(context);
 
 					if (contextID != NativeValue.UNKNOWN_ID) {
 						contextIDList.add(contextID);
@@ -267,47 +337,81 @@ class NativeSailStore implements SailStore {
 
 		ArrayList<NativeStatementIterator> perContextIterList = new ArrayList<>(contextIDList.size());
 
-		for (int contextID : contextIDList) {
-			RecordIterator btreeIter = tripleStore.getTriples(subjID, predID, objID, contextID, explicit, false);
+		try {
+			for (long contextID : contextIDList) {
+				RecordIterator btreeIter = tripleStore.getTriples(subjID, predID, objID, contextID, explicit, false,
+						order);
+				if (btreeIter == null) {
+					throw new SailException("Statement order " + order + " is not supported for pattern");
+				}
 
-			perContextIterList.add(new NativeStatementIterator(btreeIter, valueStore));
+				perContextIterList.add(new NativeStatementIterator(btreeIter, valueStore, tripleStore));
+			}
+		} catch (Throwable t) {
+			for (NativeStatementIterator iter : perContextIterList) {
+				iter.close();
+			}
+			throw t;
 		}
 
 		if (perContextIterList.size() == 1) {
 			return perContextIterList.get(0);
-		} else {
+		} else if (order == null || perContextIterList.isEmpty()) {
 			return new UnionIteration<>(perContextIterList);
+		} else {
+			// merge the sorted per-context iterators to retain the requested order
+			Comparator<Statement> cmp = order.getComparator(valueIdComparator);
+			CloseableIteration<? extends Statement> result = perContextIterList.get(0);
+			for (int i = 1; i < perContextIterList.size(); i++) {
+				result = DualUnionIteration.getWildcardInstance(cmp, result, perContextIterList.get(i));
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Returns the ID of the given value that determines its position in the sort order of the triple indexes.
+	 */
+	private long sortKey(Value value) {
+		if (value == null) {
+			// the null context
+			return 0;
+		}
+		try {
+			return valueStore.getLongID(value);
+		} catch (IOException e) {
+			throw new SailException(e);
 		}
 	}
 
 	double cardinality(Resource subj, IRI pred, Value obj, Resource context) throws IOException {
-		int subjID = NativeValue.UNKNOWN_ID;
+		long subjID = NativeValue.UNKNOWN_ID;
 		if (subj != null) {
-			subjID = valueStore.getID(subj);
+			subjID = valueStore.getLongID(subj);
 			if (subjID == NativeValue.UNKNOWN_ID) {
 				return 0;
 			}
 		}
 
-		int predID = NativeValue.UNKNOWN_ID;
+		long predID = NativeValue.UNKNOWN_ID;
 		if (pred != null) {
-			predID = valueStore.getID(pred);
+			predID = valueStore.getLongID(pred);
 			if (predID == NativeValue.UNKNOWN_ID) {
 				return 0;
 			}
 		}
 
-		int objID = NativeValue.UNKNOWN_ID;
+		long objID = NativeValue.UNKNOWN_ID;
 		if (obj != null) {
-			objID = valueStore.getID(obj);
+			objID = valueStore.getLongID(obj);
 			if (objID == NativeValue.UNKNOWN_ID) {
 				return 0;
 			}
 		}
 
-		int contextID = NativeValue.UNKNOWN_ID;
+		long contextID = NativeValue.UNKNOWN_ID;
 		if (context != null) {
-			contextID = valueStore.getID(context);
+			contextID = valueStore.getLongID(context);
 			if (contextID == NativeValue.UNKNOWN_ID) {
 				return 0;
 			}
@@ -320,6 +424,41 @@ class NativeSailStore implements SailStore {
 		this.tripleStore.disableTxnStatus();
 	}
 
+	/**
+	 * Starts changing the triple indexes while the store remains available for reading and writing.
+	 *
+	 * @param tripleIndexes The new triple indexes, e.g. <var>spoc,posc</var>.
+	 * @see TripleStore#startReindex(String)
+	 */
+	public void reindex(String tripleIndexes) throws SailException {
+		try {
+			tripleStore.startReindex(tripleIndexes);
+		} catch (IOException e) {
+			throw new SailException(e);
+		}
+	}
+
+	public boolean isReindexing() {
+		return tripleStore.isReindexing();
+	}
+
+	public double getReindexProgress() {
+		return tripleStore.getReindexProgress();
+	}
+
+	/**
+	 * Waits until the running change of the triple indexes has finished.
+	 *
+	 * @throws SailException If building the new indexes failed.
+	 */
+	public void awaitReindex() throws SailException, InterruptedException {
+		try {
+			tripleStore.awaitReindex();
+		} catch (IOException e) {
+			throw new SailException(e);
+		}
+	}
+
 	private final class NativeSailSource extends BackingSailSource {
 
 		private final boolean explicit;
@@ -460,13 +599,13 @@ class NativeSailStore implements SailStore {
 					Value obj = statement.getObject();
 					Resource context = statement.getContext();
 
-					int subjID = valueStore.storeValue(subj);
-					int predID = valueStore.storeValue(pred);
-					int objID = valueStore.storeValue(obj);
+					long subjID = valueStore.storeLongID(subj);
+					long predID = valueStore.storeLongID(pred);
+					long objID = valueStore.storeLongID(obj);
 
-					int contextID = 0;
+					long contextID = 0;
 					if (context != null) {
-						contextID = valueStore.storeValue(context);
+						contextID = valueStore.storeLongID(context);
 					}
 
 					boolean wasNew = tripleStore.storeTriple(subjID, predID, objID, contextID, explicit);
@@ -517,18 +656,18 @@ class NativeSailStore implements SailStore {
 			sinkStoreAccessLock.lock();
 			try {
 				startTriplestoreTransaction();
-				int subjID = valueStore.storeValue(subj);
-				int predID = valueStore.storeValue(pred);
-				int objID = valueStore.storeValue(obj);
+				long subjID = valueStore.storeLongID(subj);
+				long predID = valueStore.storeLongID(pred);
+				long objID = valueStore.storeLongID(obj);
 
 				if (contexts.length == 0) {
 					contexts = new Resource[] { null };
 				}
 
 				for (Resource context : contexts) {
-					int contextID = 0;
+					long contextID = 0;
 					if (context != null) {
-						contextID = valueStore.storeValue(context);
+						contextID = valueStore.storeLongID(context);
 					}
 
 					boolean wasNew = tripleStore.storeTriple(subjID, predID, objID, contextID, explicit);
@@ -557,29 +696,29 @@ class NativeSailStore implements SailStore {
 			sinkStoreAccessLock.lock();
 			try {
 				startTriplestoreTransaction();
-				int subjID = NativeValue.UNKNOWN_ID;
+				long subjID = NativeValue.UNKNOWN_ID;
 				if (subj != null) {
-					subjID = valueStore.getID(subj);
+					subjID = valueStore.getLongID(subj);
 					if (subjID == NativeValue.UNKNOWN_ID) {
 						return 0;
 					}
 				}
-				int predID = NativeValue.UNKNOWN_ID;
+				long predID = NativeValue.UNKNOWN_ID;
 				if (pred != null) {
-					predID = valueStore.getID(pred);
+					predID = valueStore.getLongID(pred);
 					if (predID == NativeValue.UNKNOWN_ID) {
 						return 0;
 					}
 				}
-				int objID = NativeValue.UNKNOWN_ID;
+				long objID = NativeValue.UNKNOWN_ID;
 				if (obj != null) {
-					objID = valueStore.getID(obj);
+					objID = valueStore.getLongID(obj);
 					if (objID == NativeValue.UNKNOWN_ID) {
 						return 0;
 					}
 				}
 
-				final int[] contextIds = new int[contexts.length == 0 ? 1 : contexts.length];
+				final long[] contextIds = new long[contexts.length == 0 ? 1 : contexts.length];
 				if (contexts.length == 0) { // remove from all contexts
 					contextIds[0] = NativeValue.UNKNOWN_ID;
 				} else {
@@ -588,20 +727,21 @@ class NativeSailStore implements SailStore {
 						if (context == null) {
 							contextIds[i] = 0;
 						} else {
-							int id = valueStore.getID(context);
-							// unknown_id cannot be used (would result in removal from all contexts)
+							long id = valueStore.getLongID(context);
+							// unknown_id cannot be used (would result in removal from all contexts). The replacement
+							// must not match an existing ID when it is truncated to the 32-bit ID of a triple record.
 							contextIds[i] = (id != NativeValue.UNKNOWN_ID) ? id : Integer.MIN_VALUE;
 						}
 					}
 				}
 
 				long removeCount = 0;
-				for (int contextId : contextIds) {
-					Map<Integer, Long> result = tripleStore.removeTriplesByContext(subjID, predID, objID, contextId,
+				for (long contextId : contextIds) {
+					Map<Long, Long> result = tripleStore.removeTriplesByContext(subjID, predID, objID, contextId,
 							explicit);
 
-					for (Entry<Integer, Long> entry : result.entrySet()) {
-						Integer entryContextId = entry.getKey();
+					for (Entry<Long, Long> entry : result.entrySet()) {
+						Long entryContextId = entry.getKey();
 						if (entryContextId > 0) {
 							Resource modifiedContext = (Resource) valueStore.getValue(entryContextId);
 							contextStore.decrementBy(modifiedContext, entry.getValue());
@@ -671,6 +811,31 @@ class NativeSailStore implements SailStore {
 				throw new SailException("Unable to get statements", e);
 			}
 		}
+
+		@Override
+		public CloseableIteration<? extends Statement> getStatements(StatementOrder statementOrder, Resource subj,
+				IRI pred, Value obj, Resource... contexts) throws SailException {
+			try {
+				return createStatementIterator(statementOrder, subj, pred, obj, explicit, contexts);
+			} catch (IOException e) {
+				throw new SailException("Unable to get statements", e);
+			}
+		}
+
+		@Override
+		public Set<StatementOrder> getSupportedOrders(Resource subj, IRI pred, Value obj, Resource... contexts) {
+			// only the bound or unbound state of the components is relevant for the choice of an index
+			long subjID = subj == null ? NativeValue.UNKNOWN_ID : 0;
+			long predID = pred == null ? NativeValue.UNKNOWN_ID : 0;
+			long objID = obj == null ? NativeValue.UNKNOWN_ID : 0;
+			long contextID = contexts.length == 0 ? NativeValue.UNKNOWN_ID : 0;
+			return tripleStore.getSupportedOrders(subjID, predID, objID, contextID);
+		}
+
+		@Override
+		public Comparator<Value> getComparator() {
+			return valueIdComparator;
+		}
 	}
 
 }
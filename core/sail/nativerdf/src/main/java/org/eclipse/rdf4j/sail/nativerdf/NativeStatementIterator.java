@@ -14,7 +14,6 @@ import static org.eclipse.rdf4j.sail.nativerdf.NativeStore.SOFT_FAIL_ON_CORRUPT_
 
 import java.io.IOException;
 
-import org.eclipse.rdf4j.common.io.ByteArrayUtil;
 import org.eclipse.rdf4j.common.iteration.LookAheadIteration;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Resource;
@@ -44,6 +43,8 @@ class NativeStatementIterator extends LookAheadIteration<Statement> {
 
 	private final ValueStore valueStore;
 
+	private final TripleStore tripleStore;
+
 	/*--------------*
 	 * Constructors *
 	 *--------------*/
@@ -51,9 +52,10 @@ class NativeStatementIterator extends LookAheadIteration<Statement> {
 	/**
 	 * Creates a new NativeStatementIterator.
 	 */
-	public NativeStatementIterator(RecordIterator btreeIter, ValueStore valueStore) {
+	public NativeStatementIterator(RecordIterator btreeIter, ValueStore valueStore, TripleStore tripleStore) {
 		this.btreeIter = btreeIter;
 		this.valueStore = valueStore;
+		this.tripleStore = tripleStore;
 	}
 
 	/*---------*
@@ -75,17 +77,17 @@ class NativeStatementIterator extends LookAheadIteration<Statement> {
 				return null;
 			}
 
-			int subjID = ByteArrayUtil.getInt(nextValue, TripleStore.SUBJ_IDX);
+			long subjID = tripleStore.getSubjectID(nextValue);
 			Resource subj = valueStore.getResource(subjID);
 
-			int predID = ByteArrayUtil.getInt(nextValue, TripleStore.PRED_IDX);
+			long predID = tripleStore.getPredicateID(nextValue);
 			IRI pred = valueStore.getIRI(predID);
 
-			int objID = ByteArrayUtil.getInt(nextValue, TripleStore.OBJ_IDX);
+			long objID = tripleStore.getObjectID(nextValue);
 			Value obj = valueStore.getValue(objID);
 
 			Resource context = null;
-			int contextID = ByteArrayUtil.getInt(nextValue, TripleStore.CONTEXT_IDX);
+			long contextID = tripleStore.getContextID(nextValue);
 			if (contextID != 0) {
 				context = valueStore.getResource(contextID);
 			}
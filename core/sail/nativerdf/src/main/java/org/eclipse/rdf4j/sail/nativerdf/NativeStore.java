@@ -133,6 +133,29 @@ public class NativeStore extends AbstractNotifyingSail implements FederatedServi
 	 */
 	private volatile boolean forceSync = false;
 
+	/**
+	 * Flag indicating whether the leaf nodes of the triple indexes are stored in compressed form. By default, this
+	 * feature is disabled.
+	 */
+	private volatile boolean compressIndexes = false;
+
+	/**
+	 * Flag indicating whether new stores are created with 64-bit value IDs. By default, this feature is disabled.
+	 */
+	private volatile boolean longValueIDs = false;
+
+	/**
+	 * Flag indicating whether the value and index files are read through memory-mapped segments. By default, this
+	 * feature is disabled.
+	 */
+	private volatile boolean memoryMappedReads = false;
+
+	/**
+	 * Flag indicating whether changed triple indexes of an existing store are built in the background after
+	 * initialization. By default, this feature is disabled.
+	 */
+	private volatile boolean onlineReindex = false;
+
 	private volatile int valueCacheSize = ValueStore.VALUE_CACHE_SIZE;
 
 	private volatile int valueIDCacheSize = ValueStore.VALUE_ID_CACHE_SIZE;
@@ -143,6 +166,8 @@ public class NativeStore extends AbstractNotifyingSail implements FederatedServi
 
 	private SailStore store;
 
+	private NativeSailStore nativeSailStore;
+
 	// used to decide if store is writable, is true if the store was writable during initialization
 	private boolean isWritable;
 
@@ -245,6 +270,128 @@ public class NativeStore extends AbstractNotifyingSail implements FederatedServi
 		return forceSync;
 	}
 
+	/**
+	 * Specifies whether the leaf nodes of the triple indexes should be stored in compressed form, must be called
+	 * before initialization. Compressed indexes need considerably less disk space and fewer reads for range scans, at
+	 * the expense of some CPU time for encoding and decoding nodes. Existing indexes that use a different format are
+	 * converted when the store is initialized. By default, this feature is disabled.
+	 */
+	public void setCompressIndexes(boolean compressIndexes) {
+		if (isInitialized()) {
+			throw new IllegalStateException("sail has already been intialized");
+		}
+
+		this.compressIndexes = compressIndexes;
+	}
+
+	public boolean getCompressIndexes() {
+		return compressIndexes;
+	}
+
+	/**
+	 * Specifies whether a new store should use 64-bit value IDs, must be called before initialization. By default,
+	 * value IDs are 32-bit integers, which limits a store to some two billion distinct values and namespaces. The ID
+	 * size is fixed when the store is created, existing stores keep using the ID size that they were created with. By
+	 * default, this feature is disabled.
+	 */
+	public void setLongValueIDs(boolean longValueIDs) {
+		if (isInitialized()) {
+			throw new IllegalStateException("sail has already been intialized");
+		}
+
+		this.longValueIDs = longValueIDs;
+	}
+
+	public boolean getLongValueIDs() {
+		return longValueIDs;
+	}
+
+	/**
+	 * Specifies whether the value and index files should be read through memory-mapped segments instead of through
+	 * positional file channel reads, must be called before initialization. This avoids a system call for every value or
+	 * index node that is not cached and mostly benefits read-heavy workloads on stores that fit in the operating
+	 * system's page cache. Memory-mapped files can not be truncated or deleted on some platforms, e.g. Windows, while
+	 * they are mapped. By default, this feature is disabled.
+	 */
+	public void setMemoryMappedReads(boolean memoryMappedReads) {
+		if (isInitialized()) {
+			throw new IllegalStateException("sail has already been intialized");
+		}
+
+		this.memoryMappedReads = memoryMappedReads;
+	}
+
+	public boolean getMemoryMappedReads() {
+		return memoryMappedReads;
+	}
+
+	/**
+	 * Specifies whether a change of the triple indexes of an existing store should be applied in the background after
+	 * initialization, see {@link #reindex(String)}, must be called before initialization. Otherwise, the new indexes
+	 * are built during initialization, which can take a long time for large stores. By default, this feature is
+	 * disabled.
+	 */
+	public void setOnlineReindex(boolean onlineReindex) {
+		if (isInitialized()) {
+			throw new IllegalStateException("sail has already been intialized");
+		}
+
+		this.onlineReindex = onlineReindex;
+	}
+
+	public boolean getOnlineReindex() {
+		return onlineReindex;
+	}
+
+	/**
+	 * Changes the triple indexes of this store while it remains available. New indexes are built in the background
+	 * from the existing statements, while queries use the existing indexes and updates are applied to both the
+	 * existing and the new indexes. Once all statements have been copied, the store switches to the new set of indexes.
+	 * The files of removed indexes are deleted when the store is shut down.
+	 *
+	 * @param tripleIndexes The new triple indexes, e.g. <var>spoc,posc</var>.
+	 * @throws SailException If the indexes are invalid or already being changed.
+	 */
+	public void reindex(String tripleIndexes) throws SailException {
+		if (!isInitialized()) {
+			throw new IllegalStateException("sail has not been initialized");
+		}
+
+		nativeSailStore.reindex(tripleIndexes);
+		this.tripleIndexes = tripleIndexes;
+	}
+
+	/**
+	 * Checks whether the triple indexes are being changed, see {@link #reindex(String)}.
+	 */
+	public boolean isReindexing() {
+		NativeSailStore nativeSailStore = this.nativeSailStore;
+		return nativeSailStore != null && nativeSailStore.isReindexing();
+	}
+
+	/**
+	 * Gets the estimated fraction of the statements that have been copied to the new indexes by the running or last
+	 * change of the triple indexes.
+	 *
+	 * @return A value between <var>0</var> and <var>1</var>.
+	 */
+	public double getReindexProgress() {
+		NativeSailStore nativeSailStore = this.nativeSailStore;
+		return nativeSailStore == null ? 1.0 : nativeSailStore.getReindexProgress();
+	}
+
+	/**
+	 * Waits until the running change of the triple indexes has finished.
+	 *
+	 * @throws SailException If building the new indexes failed.
+	 */
+	public void awaitReindex() throws SailException, InterruptedException {
+		NativeSailStore nativeSailStore = this.nativeSailStore;
+		if (nativeSailStore != null) {
+			nativeSailStore.awaitReindex();
+		}
+	}
+
 	public void setValueCacheSize(int valueCacheSize) {
 		this.valueCacheSize = valueCacheSize;
 	}
@@ -352,8 +499,10 @@ public class NativeStore extends AbstractNotifyingSail implements FederatedServi
 				Files.writeString(versionPath, VERSION, StandardCharsets.UTF_8,
 						StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
 			}
-			final NativeSailStore mainStore = new NativeSailStore(dataDir, tripleIndexes, forceSync, valueCacheSize,
-					valueIDCacheSize, namespaceCacheSize, namespaceIDCacheSize);
+			final NativeSailStore mainStore = new NativeSailStore(dataDir, tripleIndexes, forceSync, compressIndexes,
+					longValueIDs, memoryMappedReads, onlineReindex, valueCacheSize, valueIDCacheSize,
+					namespaceCacheSize, namespaceIDCacheSize);
+			this.nativeSailStore = mainStore;
 			this.store = new SnapshotSailStore(mainStore, () -> new MemoryOverflowIntoNativeStore()) {
 
 				@Override
@@ -490,7 +639,9 @@ public class NativeStore extends AbstractNotifyingSail implements FederatedServi
 	private boolean upgradeStore(File dataDir, String version) throws IOException, SailException {
 		if (version == null) {
 			// either a new store or a pre-2.8.2 store
-			ValueStore valueStore = new ValueStore(dataDir);
+			ValueStore valueStore = new ValueStore(dataDir, false, ValueStore.VALUE_CACHE_SIZE,
+					ValueStore.VALUE_ID_CACHE_SIZE, ValueStore.NAMESPACE_CACHE_SIZE, ValueStore.NAMESPACE_ID_CACHE_SIZE,
+					longValueIDs);
 			try {
 				valueStore.checkConsistency();
 				return true; // good enough
@@ -17,9 +17,12 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -27,8 +30,14 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.eclipse.rdf4j.common.io.ByteArrayUtil;
+import org.eclipse.rdf4j.common.order.StatementOrder;
 import org.eclipse.rdf4j.sail.SailException;
 import org.eclipse.rdf4j.sail.nativerdf.TxnStatusFile.TxnStatus;
 import org.eclipse.rdf4j.sail.nativerdf.btree.BTree;
@@ -56,6 +65,27 @@ class TripleStore implements Closeable {
 	private static final long MIN_FREE_MEMORY_BEFORE_OVERFLOW = isAssertionsEnabled() ? Long.MAX_VALUE
 			: 1024 * 1024 * 128;
 
+	/**
+	 * The number of added records that are collected before they are inserted into the indexes other than the first
+	 * one.
+	 */
+	private static final int PENDING_RECORDS_BATCH_SIZE = isAssertionsEnabled() ? 64 : 16 * 1024;
+
+	/**
+	 * The maximum number of records that are sorted at once to update an index in index order.
+	 */
+	private static final int INDEX_ORDER_CHUNK_SIZE = 64 * 1024;
+
+	/**
+	 * The number of triples that an online reindex copies to the new indexes at once, while blocking updates.
+	 */
+	private static final int REINDEX_CHUNK_SIZE = isAssertionsEnabled() ? 64 : INDEX_ORDER_CHUNK_SIZE;
+
+	/**
+	 * The field order of the records in the cache of updated triples of a transaction.
+	 */
+	private static final String UPDATED_TRIPLES_CACHE_ORDER = "spoc";
+
 	/**
 	 * The default triple indexes.
 	 */
@@ -83,27 +113,15 @@ class TripleStore implements Closeable {
 	 * <li>version 1: Introduces configurable triple indexes and the properties file.
 	 * <li>version 10: Introduces a context field, essentially making this a quad store.
 	 * <li>version 10a: Introduces transaction flags, this is backwards compatible with version 10.
+	 * <li>version 11: Uses 64-bit value IDs. Stores that use 32-bit value IDs keep version 10.
 	 * </ul>
 	 */
 	private static final int SCHEME_VERSION = 10;
 
-	// 17 bytes are used to represent a triple:
-	// byte 0-3 : subject
-	// byte 4-7 : predicate
-	// byte 8-11: object
-	// byte 12-15: context
-	// byte 16: additional flag(s)
-	static final int RECORD_LENGTH = 17;
-
-	static final int SUBJ_IDX = 0;
-
-	static final int PRED_IDX = 4;
-
-	static final int OBJ_IDX = 8;
-
-	static final int CONTEXT_IDX = 12;
-
-	static final int FLAG_IDX = 16;
+	/**
+	 * The version number for triple stores that use 64-bit value IDs.
+	 */
+	private static final int LONG_ID_SCHEME_VERSION = 11;
 
 	/**
 	 * Bit field indicating that a statement has been explicitly added (instead of being inferred).
@@ -143,16 +161,83 @@ class TripleStore implements Closeable {
 	private final Properties properties;
 
 	/**
-	 * The list of triple indexes that are used to store and retrieve triples.
+	 * The list of triple indexes that are used to store and retrieve triples. Once the store has been initialized, the
+	 * list is not modified anymore, but replaced as a whole when the set of indexes is changed by an online reindex.
+	 */
+	private volatile List<TripleIndex> indexes = new ArrayList<>();
+
+	/**
+	 * New indexes that are being built by an online reindex. They receive all updates, but are not used for reading
+	 * triples until all existing triples have been copied to them.
+	 */
+	private volatile List<TripleIndex> buildingIndexes = Collections.emptyList();
+
+	/**
+	 * Indexes that have been removed by an online reindex. Iterators of running queries may still read them, so their
+	 * files are deleted when the store is closed.
+	 */
+	private final List<TripleIndex> retiredIndexes = new ArrayList<>();
+
+	/**
+	 * Guards the set of indexes while it is changed by an online reindex. Updates of the indexes hold the read lock,
+	 * the copying of triples to new indexes and the switch to the new set of indexes hold the write lock.
 	 */
-	private final List<TripleIndex> indexes = new ArrayList<>();
+	private final ReentrantReadWriteLock indexesLock = new ReentrantReadWriteLock();
+
+	/**
+	 * The running or last online reindex, or <var>null</var>.
+	 */
+	private volatile IndexBuild indexBuild;
 
 	private final boolean forceSync;
 
+	/**
+	 * Flag indicating whether the leaf nodes of the index B-Trees are stored in compressed form.
+	 */
+	private final boolean compressIndexes;
+
+	/**
+	 * Flag indicating whether the index B-Trees are read through memory-mapped segments of their files.
+	 */
+	private final boolean memoryMapped;
+
 	private final TxnStatusFile txnStatusFile;
 
 	private volatile SortedRecordCache updatedTriplesCache;
 
+	/**
+	 * Records that have been inserted into the first index, but not yet into the other indexes. The first index is used
+	 * to look up the current state of a triple and is therefore always up-to-date, the other indexes are updated in
+	 * batches by background threads.
+	 */
+	private List<byte[]> pendingRecords = new ArrayList<>();
+
+	/**
+	 * The background updates of the indexes that are still running for the last batch of pending records.
+	 */
+	private List<Future<?>> pendingIndexUpdates = Collections.emptyList();
+
+	/**
+	 * Executor for updating multiple indexes concurrently, created on first use.
+	 */
+	private ExecutorService indexUpdateExecutor;
+
+	// The size of a value ID in bytes, a triple is represented by four IDs followed by a byte for additional flag(s):
+	// subject, predicate, object, context, flag(s)
+	private final int idSize;
+
+	private final int recordLength;
+
+	private final int subjIdx;
+
+	private final int predIdx;
+
+	private final int objIdx;
+
+	private final int contextIdx;
+
+	private final int flagIdx;
+
 	/*--------------*
 	 * Constructors *
 	 *--------------*/
@@ -162,11 +247,76 @@ class TripleStore implements Closeable {
 	}
 
 	public TripleStore(File dir, String indexSpecStr, boolean forceSync) throws IOException, SailException {
+		this(dir, indexSpecStr, forceSync, false);
+	}
+
+	/**
+	 * Creates a new triple store.
+	 *
+	 * @param compressIndexes Flag indicating whether the indexes should use compressed leaf nodes. Existing indexes
+	 *                        that use a different format are converted.
+	 */
+	public TripleStore(File dir, String indexSpecStr, boolean forceSync, boolean compressIndexes)
+			throws IOException, SailException {
+		this(dir, indexSpecStr, forceSync, compressIndexes, false);
+	}
+
+	/**
+	 * Creates a new triple store.
+	 *
+	 * @param compressIndexes Flag indicating whether the indexes should use compressed leaf nodes. Existing indexes
+	 *                        that use a different format are converted.
+	 * @param longIDs         Flag indicating whether the triples refer to values using 64-bit IDs. This must match the
+	 *                        ID size of existing triple data.
+	 */
+	public TripleStore(File dir, String indexSpecStr, boolean forceSync, boolean compressIndexes, boolean longIDs)
+			throws IOException, SailException {
+		this(dir, indexSpecStr, forceSync, compressIndexes, longIDs, false);
+	}
+
+	/**
+	 * Creates a new triple store.
+	 *
+	 * @param compressIndexes Flag indicating whether the indexes should use compressed leaf nodes. Existing indexes
+	 *                        that use a different format are converted.
+	 * @param longIDs         Flag indicating whether the triples refer to values using 64-bit IDs. This must match the
+	 *                        ID size of existing triple data.
+	 * @param memoryMapped    Flag indicating whether the index files should be read through memory-mapped segments.
+	 */
+	public TripleStore(File dir, String indexSpecStr, boolean forceSync, boolean compressIndexes, boolean longIDs,
+			boolean memoryMapped) throws IOException, SailException {
+		this(dir, indexSpecStr, forceSync, compressIndexes, longIDs, memoryMapped, false);
+	}
+
+	/**
+	 * Creates a new triple store.
+	 *
+	 * @param compressIndexes Flag indicating whether the indexes should use compressed leaf nodes. Existing indexes
+	 *                        that use a different format are converted.
+	 * @param longIDs         Flag indicating whether the triples refer to values using 64-bit IDs. This must match the
+	 *                        ID size of existing triple data.
+	 * @param memoryMapped    Flag indicating whether the index files should be read through memory-mapped segments.
+	 * @param onlineReindex   Flag indicating whether a change of the indexes of an existing store is applied in the
+	 *                        background, see {@link #startReindex(String)}, instead of while creating the triple store.
+	 */
+	public TripleStore(File dir, String indexSpecStr, boolean forceSync, boolean compressIndexes, boolean longIDs,
+			boolean memoryMapped, boolean onlineReindex) throws IOException, SailException {
 		this.dir = dir;
 		this.forceSync = forceSync;
+		this.compressIndexes = compressIndexes;
+		this.memoryMapped = memoryMapped;
+		this.idSize = longIDs ? Long.BYTES : Integer.BYTES;
+		this.subjIdx = 0;
+		this.predIdx = idSize;
+		this.objIdx = 2 * idSize;
+		this.contextIdx = 3 * idSize;
+		this.flagIdx = 4 * idSize;
+		this.recordLength = flagIdx + 1;
 		this.txnStatusFile = new TxnStatusFile(dir);
+		int schemeVersion = longIDs ? LONG_ID_SCHEME_VERSION : SCHEME_VERSION;
 
 		File propFile = new File(dir, PROPERTIES_FILE);
+		String reindexSpecStr = null;
 
 		if (!propFile.exists()) {
 			// newly created native store
@@ -184,7 +334,7 @@ class TripleStore implements Closeable {
 		} else {
 			// Read triple properties file and check format version number
 			properties = loadProperties(propFile);
-			checkVersion();
+			checkVersion(longIDs);
 
 			// Initialize existing indexes
 			Set<String> indexSpecs = getIndexSpecs();
@@ -206,24 +356,37 @@ class TripleStore implements Closeable {
 				indexSpecStr = properties.getProperty(INDEXES_KEY);
 			} else if (!reqIndexSpecs.equals(indexSpecs)) {
 				// Set of indexes needs to be changed
-				reindex(indexSpecs, reqIndexSpecs);
+				if (onlineReindex) {
+					// keep using the existing indexes until the new ones have been built
+					reindexSpecStr = indexSpecStr;
+					indexSpecStr = properties.getProperty(INDEXES_KEY);
+				} else {
+					reindex(indexSpecs, reqIndexSpecs);
+				}
 			}
+
+			// Convert indexes that use a different node format
+			convertIndexes();
 		}
 
-		if (!String.valueOf(SCHEME_VERSION).equals(properties.getProperty(VERSION_KEY))
+		if (!String.valueOf(schemeVersion).equals(properties.getProperty(VERSION_KEY))
 				|| !indexSpecStr.equals(properties.getProperty(INDEXES_KEY))) {
 			// Store up-to-date properties
-			properties.setProperty(VERSION_KEY, String.valueOf(SCHEME_VERSION));
+			properties.setProperty(VERSION_KEY, String.valueOf(schemeVersion));
 			properties.setProperty(INDEXES_KEY, indexSpecStr);
 			storeProperties(propFile);
 		}
+
+		if (reindexSpecStr != null) {
+			startReindex(reindexSpecStr);
+		}
 	}
 
 	/*---------*
 	 * Methods *
 	 *---------*/
 
-	private void checkVersion() throws SailException {
+	private void checkVersion(boolean longIDs) throws SailException {
 		// Check version number
 		String versionStr = properties.getProperty(VERSION_KEY);
 		if (versionStr == null) {
@@ -233,8 +396,11 @@ class TripleStore implements Closeable {
 				int version = Integer.parseInt(versionStr);
 				if (version < 10) {
 					throw new SailException("Directory contains incompatible triple data");
-				} else if (version > SCHEME_VERSION) {
+				} else if (version > LONG_ID_SCHEME_VERSION) {
 					throw new SailException("Directory contains data that uses a newer data format");
+				} else if ((version == LONG_ID_SCHEME_VERSION) != longIDs) {
+					throw new SailException("Directory contains triple data with "
+							+ (longIDs ? "32-bit" : "64-bit") + " value IDs, which does not match the value store");
 				}
 			} catch (NumberFormatException e) {
 				logger.warn("Malformed version number in TripleStore's properties file");
@@ -478,8 +644,184 @@ class TripleStore implements Closeable {
 		}
 	}
 
+	/**
+	 * Rewrites all indexes whose node format does not match {@link #compressIndexes}. The values of such an index are
+	 * copied to a new B-Tree file that replaces the files of the existing index.
+	 */
+	private void convertIndexes() throws IOException {
+		for (int i = 0; i < indexes.size(); i++) {
+			TripleIndex index = indexes.get(i);
+			if (index.getBTree().isCompressed() == compressIndexes) {
+				continue;
+			}
+
+			String fieldSeq = new String(index.getFieldSeq());
+			logger.info("Converting index '{}' to {} nodes...", fieldSeq,
+					compressIndexes ? "compressed" : "uncompressed");
+
+			String filenamePrefix = getFilenamePrefix(fieldSeq);
+			String convertedPrefix = filenamePrefix + "-converted";
+			TripleIndex convertedIndex = new TripleIndex(fieldSeq, convertedPrefix, true);
+			boolean converted = false;
+			try (RecordIterator sourceIter = index.getBTree().iterateAll()) {
+				BTree convertedBTree = convertedIndex.getBTree();
+				byte[] value;
+				while ((value = sourceIter.next()) != null) {
+					convertedBTree.insert(value);
+				}
+				convertedBTree.close();
+				converted = true;
+			} finally {
+				if (!converted) {
+					convertedIndex.getBTree().delete();
+				}
+			}
+			index.getBTree().close();
+
+			// The allocated nodes are determined from the B-Tree if the allocation file is missing, which keeps the
+			// index readable if the conversion is interrupted at any point
+			Files.deleteIfExists(new File(dir, filenamePrefix + ".alloc").toPath());
+			Files.move(new File(dir, convertedPrefix + ".dat").toPath(),
+					new File(dir, filenamePrefix + ".dat").toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			Files.move(new File(dir, convertedPrefix + ".alloc").toPath(),
+					new File(dir, filenamePrefix + ".alloc").toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+
+			indexes.set(i, new TripleIndex(fieldSeq, false));
+			logger.info("Index '{}' converted", fieldSeq);
+		}
+	}
+
+	private static String getFilenamePrefix(String fieldSeq) {
+		return "triples-" + fieldSeq;
+	}
+
+	/**
+	 * Starts changing the set of triple indexes without making the triple store unavailable. New indexes are built in
+	 * the background from the triples of the first index, while triples can be read using the existing indexes and
+	 * all updates are applied to both the existing and the new indexes. Once the new indexes are complete, the triple
+	 * store switches to the new set of indexes. Removed indexes are deleted when the triple store is closed.
+	 *
+	 * @param indexSpecStr The new set of indexes, e.g. <var>spoc,posc</var>.
+	 * @throws SailException If the index specification is invalid or if the indexes are already being changed.
+	 */
+	public void startReindex(String indexSpecStr) throws IOException, SailException {
+		Set<String> indexSpecs = parseIndexSpecList(indexSpecStr);
+		if (indexSpecs.isEmpty()) {
+			throw new SailException("No triple indexes specified");
+		}
+
+		indexesLock.writeLock().lock();
+		try {
+			if (isReindexing()) {
+				throw new SailException("Triple indexes are already being changed");
+			}
+
+			Set<String> currentIndexSpecs = new HashSet<>();
+			for (TripleIndex index : indexes) {
+				currentIndexSpecs.add(index.toString());
+			}
+			Set<String> addedIndexSpecs = new HashSet<>(indexSpecs);
+			addedIndexSpecs.removeAll(currentIndexSpecs);
+			for (TripleIndex index : retiredIndexes) {
+				if (addedIndexSpecs.contains(index.toString())) {
+					throw new SailException("Index '" + index
+							+ "' has been removed and can not be added again before the store has been restarted");
+				}
+			}
+
+			// the records of the current batch are inserted into the existing indexes only
+			flushPendingRecords();
+
+			List<TripleIndex> addedIndexes = new ArrayList<>();
+			for (String fieldSeq : addedIndexSpecs) {
+				logger.debug("Initializing new index '{}'...", fieldSeq);
+				addedIndexes.add(new TripleIndex(fieldSeq, true));
+			}
+
+			IndexBuild build = new IndexBuild(indexSpecStr, indexSpecs, addedIndexes);
+			indexBuild = build;
+			if (addedIndexes.isEmpty()) {
+				// indexes are only removed or reordered
+				build.switchIndexes();
+			} else {
+				logger.info("Changing triple indexes to '{}', building index(es) {} in the background", indexSpecStr,
+						addedIndexSpecs);
+				buildingIndexes = addedIndexes;
+				build.thread.start();
+			}
+		} finally {
+			indexesLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Checks whether the triple indexes are being changed by {@link #startReindex(String)}.
+	 */
+	public boolean isReindexing() {
+		IndexBuild build = indexBuild;
+		return build != null && build.thread.isAlive();
+	}
+
+	/**
+	 * Gets the progress of the running or last change of the triple indexes.
+	 *
+	 * @return The estimated fraction of the triples that have been copied to the new indexes, between <var>0</var> and
+	 *         <var>1</var>.
+	 */
+	public double getReindexProgress() {
+		IndexBuild build = indexBuild;
+		return build == null ? 1.0 : build.getProgress();
+	}
+
+	/**
+	 * Waits until the running change of the triple indexes has finished.
+	 *
+	 * @throws IOException If building the new indexes failed.
+	 */
+	public void awaitReindex() throws IOException, InterruptedException {
+		IndexBuild build = indexBuild;
+		if (build != null) {
+			build.thread.join();
+			if (build.failure != null) {
+				throw new IOException("Failed to change triple indexes to '" + build.indexSpecStr + "'",
+						build.failure);
+			}
+		}
+	}
+
+	/**
+	 * Stops a running change of the triple indexes and waits until the new indexes are not modified anymore.
+	 */
+	private void cancelReindex() {
+		IndexBuild build = indexBuild;
+		if (build != null && build.thread.isAlive()) {
+			build.cancelled = true;
+
+			boolean interrupted = false;
+			while (build.thread.isAlive()) {
+				try {
+					build.thread.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
 	@Override
 	public void close() throws IOException {
+		try {
+			cancelReindex();
+			discardPendingRecords();
+		} finally {
+			shutDownIndexUpdateExecutor();
+		}
+
 		try {
 			List<Throwable> caughtExceptions = new ArrayList<>();
 			for (TripleIndex index : indexes) {
@@ -490,6 +832,17 @@ class TripleStore implements Closeable {
 					caughtExceptions.add(e);
 				}
 			}
+			for (TripleIndex index : retiredIndexes) {
+				try {
+					if (index.getBTree().delete()) {
+						logger.debug("Deleted file(s) for removed {} index", index);
+					} else {
+						logger.warn("Unable to delete file(s) for removed {} index", index);
+					}
+				} catch (Throwable e) {
+					caughtExceptions.add(e);
+				}
+			}
 			if (!caughtExceptions.isEmpty()) {
 				throw new IOException(caughtExceptions.get(0));
 			}
@@ -507,12 +860,12 @@ class TripleStore implements Closeable {
 		}
 	}
 
-	public RecordIterator getTriples(int subj, int pred, int obj, int context) {
+	public RecordIterator getTriples(long subj, long pred, long obj, long context) {
 		// Return all triples except those that were added but not yet committed
 		return getTriples(subj, pred, obj, context, 0, ADDED_FLAG);
 	}
 
-	public RecordIterator getTriples(int subj, int pred, int obj, int context, boolean readTransaction) {
+	public RecordIterator getTriples(long subj, long pred, long obj, long context, boolean readTransaction) {
 		if (readTransaction) {
 			// Don't read removed statements
 			return getTriples(subj, pred, obj, context, 0, TripleStore.REMOVED_FLAG);
@@ -538,8 +891,31 @@ class TripleStore implements Closeable {
 		}
 	}
 
-	public RecordIterator getTriples(int subj, int pred, int obj, int context, boolean explicit,
+	public RecordIterator getTriples(long subj, long pred, long obj, long context, boolean explicit,
 			boolean readTransaction) {
+		return getTriples(subj, pred, obj, context, explicit, readTransaction, null);
+	}
+
+	/**
+	 * Returns the triples matching the given pattern. If a statement order is specified then the triples are read from
+	 * an index that returns them sorted by the IDs of the component selected by <var>order</var>.
+	 *
+	 * @param order The order in which the triples should be returned, or <var>null</var> if the order is not relevant.
+	 * @return An iterator over the matching triples, or <var>null</var> if no index is able to deliver the requested
+	 *         order for the given pattern.
+	 */
+	public RecordIterator getTriples(long subj, long pred, long obj, long context, boolean explicit,
+			boolean readTransaction, StatementOrder order) {
+		TripleIndex index;
+		if (order == null) {
+			index = getBestIndex(subj, pred, obj, context);
+		} else {
+			index = getBestIndex(subj, pred, obj, context, order);
+			if (index == null) {
+				return null;
+			}
+		}
+
 		int flags = 0;
 		int flagsMask = 0;
 
@@ -555,7 +931,9 @@ class TripleStore implements Closeable {
 			}
 		}
 
-		RecordIterator btreeIter = getTriples(subj, pred, obj, context, flags, flagsMask);
+		boolean doRangeSearch = index.getPatternScore(subj, pred, obj, context) > 0;
+		RecordIterator btreeIter = getTriplesUsingIndex(subj, pred, obj, context, flags, flagsMask, index,
+				doRangeSearch);
 
 		if (readTransaction && explicit) {
 			// Filter implicit statements from the result
@@ -568,6 +946,25 @@ class TripleStore implements Closeable {
 		return btreeIter;
 	}
 
+	/**
+	 * Determines the statement orders that can be delivered by one of the existing indexes for the given pattern.
+	 *
+	 * @param subj    The subject for the pattern, or <var>-1</var> for a wildcard.
+	 * @param pred    The predicate for the pattern, or <var>-1</var> for a wildcard.
+	 * @param obj     The object for the pattern, or <var>-1</var> for a wildcard.
+	 * @param context The context for the pattern, or <var>-1</var> for a wildcard.
+	 * @return The set of supported statement orders.
+	 */
+	public Set<StatementOrder> getSupportedOrders(long subj, long pred, long obj, long context) {
+		EnumSet<StatementOrder> supportedOrders = EnumSet.noneOf(StatementOrder.class);
+		for (StatementOrder order : StatementOrder.values()) {
+			if (getBestIndex(subj, pred, obj, context, order) != null) {
+				supportedOrders.add(order);
+			}
+		}
+		return supportedOrders;
+	}
+
 	public void disableTxnStatus() {
 		txnStatusFile.disable();
 	}
@@ -576,7 +973,7 @@ class TripleStore implements Closeable {
 	 * Inner class ExplicitStatementFilter *
 	 *-------------------------------------*/
 
-	private static class ExplicitStatementFilter implements RecordIterator {
+	private class ExplicitStatementFilter implements RecordIterator {
 
 		private final RecordIterator wrappedIter;
 
@@ -589,7 +986,7 @@ class TripleStore implements Closeable {
 			byte[] result;
 
 			while ((result = wrappedIter.next()) != null) {
-				byte flags = result[TripleStore.FLAG_IDX];
+				byte flags = result[flagIdx];
 				boolean explicit = (flags & TripleStore.EXPLICIT_FLAG) != 0;
 				boolean toggled = (flags & TripleStore.TOGGLE_EXPLICIT_FLAG) != 0;
 
@@ -614,7 +1011,7 @@ class TripleStore implements Closeable {
 		}
 	} // end inner class ExplicitStatementFilter
 
-	private static class ImplicitStatementFilter implements RecordIterator {
+	private class ImplicitStatementFilter implements RecordIterator {
 
 		private final RecordIterator wrappedIter;
 
@@ -627,7 +1024,7 @@ class TripleStore implements Closeable {
 			byte[] result;
 
 			while ((result = wrappedIter.next()) != null) {
-				byte flags = result[TripleStore.FLAG_IDX];
+				byte flags = result[flagIdx];
 				boolean explicit = (flags & TripleStore.EXPLICIT_FLAG) != 0;
 
 				if (!explicit) {
@@ -650,7 +1047,7 @@ class TripleStore implements Closeable {
 		}
 	} // end inner class ImplicitStatementFilter
 
-	private RecordIterator getTriples(int subj, int pred, int obj, int context, int flags, int flagsMask) {
+	private RecordIterator getTriples(long subj, long pred, long obj, long context, int flags, int flagsMask) {
 		TripleIndex index = getBestIndex(subj, pred, obj, context);
 		boolean doRangeSearch = index.getPatternScore(subj, pred, obj, context) > 0;
 		return getTriplesUsingIndex(subj, pred, obj, context, flags, flagsMask, index, doRangeSearch);
@@ -667,8 +1064,17 @@ class TripleStore implements Closeable {
 		return null;
 	}
 
-	private RecordIterator getTriplesUsingIndex(int subj, int pred, int obj, int context, int flags, int flagsMask,
+	private RecordIterator getTriplesUsingIndex(long subj, long pred, long obj, long context, int flags, int flagsMask,
 			TripleIndex index, boolean rangeSearch) {
+		if ((flagsMask & ADDED_FLAG) == 0 && index != indexes.get(0)) {
+			// triples that have been added in the current transaction are visible
+			try {
+				flushPendingRecords();
+			} catch (IOException e) {
+				throw new SailException(e);
+			}
+		}
+
 		byte[] searchKey = getSearchKey(subj, pred, obj, context, flags);
 		byte[] searchMask = getSearchMask(subj, pred, obj, context, flagsMask);
 
@@ -684,7 +1090,7 @@ class TripleStore implements Closeable {
 		}
 	}
 
-	protected double cardinality(int subj, int pred, int obj, int context) throws IOException {
+	protected double cardinality(long subj, long pred, long obj, long context) throws IOException {
 		TripleIndex index = getBestIndex(subj, pred, obj, context);
 		BTree btree = index.btree;
 
@@ -701,7 +1107,7 @@ class TripleStore implements Closeable {
 		return rangeSize;
 	}
 
-	protected TripleIndex getBestIndex(int subj, int pred, int obj, int context) {
+	protected TripleIndex getBestIndex(long subj, long pred, long obj, long context) {
 		int bestScore = -1;
 		TripleIndex bestIndex = null;
 
@@ -716,82 +1122,123 @@ class TripleStore implements Closeable {
 		return bestIndex;
 	}
 
-	public void clear() throws IOException {
+	/**
+	 * Selects the index with the highest pattern score among those indexes that return the matching triples sorted
+	 * according to the given statement order.
+	 *
+	 * @return The best index, or <var>null</var> if no index is sorted in the requested order for the given pattern.
+	 */
+	protected TripleIndex getBestIndex(long subj, long pred, long obj, long context, StatementOrder order) {
+		int bestScore = -1;
+		TripleIndex bestIndex = null;
+
 		for (TripleIndex index : indexes) {
-			index.getBTree().clear();
+			if (index.isSortedBy(order, subj, pred, obj, context)) {
+				int score = index.getPatternScore(subj, pred, obj, context);
+				if (score > bestScore) {
+					bestScore = score;
+					bestIndex = index;
+				}
+			}
+		}
+
+		return bestIndex;
+	}
+
+	public void clear() throws IOException {
+		indexesLock.readLock().lock();
+		try {
+			discardPendingRecords();
+			indexes.get(0).getBTree().clear();
+			for (TripleIndex index : getSecondaryIndexes()) {
+				index.getBTree().clear();
+			}
+
+			IndexBuild build = indexBuild;
+			if (build != null) {
+				build.restart = true;
+			}
+		} finally {
+			indexesLock.readLock().unlock();
 		}
 	}
 
-	public boolean storeTriple(int subj, int pred, int obj, int context) throws IOException {
+	public boolean storeTriple(long subj, long pred, long obj, long context) throws IOException {
 		return storeTriple(subj, pred, obj, context, true);
 	}
 
-	public boolean storeTriple(int subj, int pred, int obj, int context, boolean explicit) throws IOException {
-		boolean stAdded;
-
-		byte[] data = getData(subj, pred, obj, context, 0);
-		byte[] storedData = indexes.get(0).getBTree().get(data);
+	public boolean storeTriple(long subj, long pred, long obj, long context, boolean explicit) throws IOException {
+		indexesLock.readLock().lock();
+		try {
+			boolean stAdded;
 
-		if (storedData == null) {
-			// Statement does not yet exist
-			data[FLAG_IDX] |= ADDED_FLAG;
-			if (explicit) {
-				data[FLAG_IDX] |= EXPLICIT_FLAG;
-			}
+			byte[] data = getData(subj, pred, obj, context, 0);
+			byte[] storedData = indexes.get(0).getBTree().get(data);
 
-			stAdded = true;
-		} else {
-			// Statement already exists, only modify its flags, see txn-flags.txt
-			// for a description of the flag transformations
-			byte flags = storedData[FLAG_IDX];
-			boolean wasExplicit = (flags & EXPLICIT_FLAG) != 0;
-			boolean wasAdded = (flags & ADDED_FLAG) != 0;
-			boolean wasRemoved = (flags & REMOVED_FLAG) != 0;
-			boolean wasToggled = (flags & TOGGLE_EXPLICIT_FLAG) != 0;
-
-			if (wasAdded) {
-				// Statement has been added in the current transaction and is
-				// invisible to other connections, we can simply modify its flags
-				data[FLAG_IDX] |= ADDED_FLAG;
-				if (explicit || wasExplicit) {
-					data[FLAG_IDX] |= EXPLICIT_FLAG;
-				}
-			} else {
-				// Committed statement, must keep explicit flag the same
-				if (wasExplicit) {
-					data[FLAG_IDX] |= EXPLICIT_FLAG;
+			if (storedData == null) {
+				// Statement does not yet exist
+				data[flagIdx] |= ADDED_FLAG;
+				if (explicit) {
+					data[flagIdx] |= EXPLICIT_FLAG;
 				}
 
-				if (explicit) {
-					if (!wasExplicit) {
-						// Make inferred statement explicit
-						data[FLAG_IDX] |= TOGGLE_EXPLICIT_FLAG;
+				stAdded = true;
+			} else {
+				// Statement already exists, only modify its flags, see txn-flags.txt
+				// for a description of the flag transformations
+				byte flags = storedData[flagIdx];
+				boolean wasExplicit = (flags & EXPLICIT_FLAG) != 0;
+				boolean wasAdded = (flags & ADDED_FLAG) != 0;
+				boolean wasRemoved = (flags & REMOVED_FLAG) != 0;
+				boolean wasToggled = (flags & TOGGLE_EXPLICIT_FLAG) != 0;
+
+				if (wasAdded) {
+					// Statement has been added in the current transaction and is
+					// invisible to other connections, we can simply modify its flags
+					data[flagIdx] |= ADDED_FLAG;
+					if (explicit || wasExplicit) {
+						data[flagIdx] |= EXPLICIT_FLAG;
 					}
 				} else {
-					if (wasRemoved) {
-						if (wasExplicit) {
-							// Re-add removed explicit statement as inferred
-							data[FLAG_IDX] |= TOGGLE_EXPLICIT_FLAG;
+					// Committed statement, must keep explicit flag the same
+					if (wasExplicit) {
+						data[flagIdx] |= EXPLICIT_FLAG;
+					}
+
+					if (explicit) {
+						if (!wasExplicit) {
+							// Make inferred statement explicit
+							data[flagIdx] |= TOGGLE_EXPLICIT_FLAG;
+						}
+					} else {
+						if (wasRemoved) {
+							if (wasExplicit) {
+								// Re-add removed explicit statement as inferred
+								data[flagIdx] |= TOGGLE_EXPLICIT_FLAG;
+							}
+						} else if (wasToggled) {
+							data[flagIdx] |= TOGGLE_EXPLICIT_FLAG;
 						}
-					} else if (wasToggled) {
-						data[FLAG_IDX] |= TOGGLE_EXPLICIT_FLAG;
 					}
 				}
+
+				// Statement is new if it was removed before
+				stAdded = wasRemoved;
 			}
 
-			// Statement is new if it was removed before
-			stAdded = wasRemoved;
-		}
+			if (storedData == null || !Arrays.equals(data, storedData)) {
+				indexes.get(0).getBTree().insert(data);
+				if (indexes.size() > 1 || !buildingIndexes.isEmpty()) {
+					addPendingRecord(data);
+				}
 
-		if (storedData == null || !Arrays.equals(data, storedData)) {
-			for (TripleIndex index : indexes) {
-				index.getBTree().insert(data);
+				updatedTriplesCache.storeRecord(data);
 			}
 
-			updatedTriplesCache.storeRecord(data);
+			return stAdded;
+		} finally {
+			indexesLock.readLock().unlock();
 		}
-
-		return stAdded;
 	}
 
 	/**
@@ -803,11 +1250,11 @@ class TripleStore implements Closeable {
 	 * @param context The context for the pattern, or <var>-1</var> for a wildcard.
 	 * @return The number of triples that were removed.
 	 * @throws IOException
-	 * @deprecated Use {@link #removeTriplesByContext(int, int, int, int)} instead.
+	 * @deprecated Use {@link #removeTriplesByContext(long, long, long, long)} instead.
 	 */
 	@Deprecated(since = "2.5.3")
-	public int removeTriples(int subj, int pred, int obj, int context) throws IOException {
-		Map<Integer, Long> countPerContext = removeTriplesByContext(subj, pred, obj, context);
+	public int removeTriples(long subj, long pred, long obj, long context) throws IOException {
+		Map<Long, Long> countPerContext = removeTriplesByContext(subj, pred, obj, context);
 		return (int) countPerContext.values().stream().mapToLong(Long::longValue).sum();
 	}
 
@@ -822,9 +1269,14 @@ class TripleStore implements Closeable {
 	 * @throws IOException
 	 * @since 2.5.3
 	 */
-	public Map<Integer, Long> removeTriplesByContext(int subj, int pred, int obj, int context) throws IOException {
-		RecordIterator iter = getTriples(subj, pred, obj, context, 0, 0);
-		return removeTriples(iter);
+	public Map<Long, Long> removeTriplesByContext(long subj, long pred, long obj, long context) throws IOException {
+		indexesLock.readLock().lock();
+		try {
+			RecordIterator iter = getTriples(subj, pred, obj, context, 0, 0);
+			return removeTriples(iter);
+		} finally {
+			indexesLock.readLock().unlock();
+		}
 	}
 
 	/**
@@ -839,11 +1291,11 @@ class TripleStore implements Closeable {
 	 *                 that match the pattern.
 	 * @return The number of triples that were removed.
 	 * @throws IOException
-	 * @deprecated since 2.5.3. use {@link #removeTriplesByContext(int, int, int, int, boolean)} instead.
+	 * @deprecated since 2.5.3. use {@link #removeTriplesByContext(long, long, long, long, boolean)} instead.
 	 */
 	@Deprecated(since = "2.5.3")
-	public int removeTriples(int subj, int pred, int obj, int context, boolean explicit) throws IOException {
-		Map<Integer, Long> countPerContext = removeTriplesByContext(subj, pred, obj, context, explicit);
+	public int removeTriples(long subj, long pred, long obj, long context, boolean explicit) throws IOException {
+		Map<Long, Long> countPerContext = removeTriplesByContext(subj, pred, obj, context, explicit);
 		return (int) countPerContext.values().stream().mapToLong(Long::longValue).sum();
 	}
 
@@ -858,15 +1310,20 @@ class TripleStore implements Closeable {
 	 * @return A mapping of each modified context to the number of statements removed in that context.
 	 * @throws IOException
 	 */
-	public Map<Integer, Long> removeTriplesByContext(int subj, int pred, int obj, int context, boolean explicit)
+	public Map<Long, Long> removeTriplesByContext(long subj, long pred, long obj, long context, boolean explicit)
 			throws IOException {
-		byte flags = explicit ? EXPLICIT_FLAG : 0;
-		try (RecordIterator iter = getTriples(subj, pred, obj, context, flags, EXPLICIT_FLAG)) {
-			return removeTriples(iter);
+		indexesLock.readLock().lock();
+		try {
+			byte flags = explicit ? EXPLICIT_FLAG : 0;
+			try (RecordIterator iter = getTriples(subj, pred, obj, context, flags, EXPLICIT_FLAG)) {
+				return removeTriples(iter);
+			}
+		} finally {
+			indexesLock.readLock().unlock();
 		}
 	}
 
-	private Map<Integer, Long> removeTriples(RecordIterator iter) throws IOException {
+	private Map<Long, Long> removeTriples(RecordIterator iter) throws IOException {
 
 		byte[] data = iter.next();
 		if (data == null) {
@@ -874,7 +1331,10 @@ class TripleStore implements Closeable {
 			return Collections.emptyMap();
 		}
 
-		final HashMap<Integer, Long> perContextCounts = new HashMap<>();
+		// the removed flag must not be overwritten by pending records
+		flushPendingRecords();
+
+		final HashMap<Long, Long> perContextCounts = new HashMap<>();
 
 		// Store the values that need to be removed in a tmp file and then
 		// iterate over this file to set the REMOVED flag
@@ -882,10 +1342,10 @@ class TripleStore implements Closeable {
 		try {
 			try (iter) {
 				while (data != null) {
-					if ((data[FLAG_IDX] & REMOVED_FLAG) == 0) {
-						data[FLAG_IDX] |= REMOVED_FLAG;
+					if ((data[flagIdx] & REMOVED_FLAG) == 0) {
+						data[flagIdx] |= REMOVED_FLAG;
 						removedTriplesCache.storeRecord(data);
-						int context = ByteArrayUtil.getInt(data, CONTEXT_IDX);
+						long context = getContextID(data);
 						perContextCounts.merge(context, 1L, Long::sum);
 					}
 					data = iter.next();
@@ -894,7 +1354,7 @@ class TripleStore implements Closeable {
 						logger.debug("Overflowing RecordCache to disk due to low free mem.");
 						assert removedTriplesCache instanceof InMemRecordCache;
 						InMemRecordCache old = (InMemRecordCache) removedTriplesCache;
-						removedTriplesCache = new SequentialRecordCache(dir, RECORD_LENGTH);
+						removedTriplesCache = new SequentialRecordCache(dir, recordLength);
 						removedTriplesCache.storeRecords(old);
 						old.clear();
 					}
@@ -904,15 +1364,17 @@ class TripleStore implements Closeable {
 			updatedTriplesCache.storeRecords(removedTriplesCache);
 
 			// Set the REMOVED flag by overwriting the affected records
-			for (TripleIndex index : indexes) {
+			RecordCache removedRecords = removedTriplesCache;
+			updateIndexes(index -> {
 				BTree btree = index.getBTree();
 
-				try (RecordIterator recIter = removedTriplesCache.getRecords()) {
-					while ((data = recIter.next()) != null) {
-						btree.insert(data);
+				try (RecordIterator recIter = new IndexOrderRecordIterator(removedRecords.getRecords(), index)) {
+					byte[] record;
+					while ((record = recIter.next()) != null) {
+						btree.insert(record);
 					}
 				}
-			}
+			});
 		} finally {
 			removedTriplesCache.discard();
 		}
@@ -942,7 +1404,8 @@ class TripleStore implements Closeable {
 		// some 10% of the number of triples
 		long maxRecords = indexes.get(0).getBTree().getValueCountEstimate() / 10L;
 		if (updatedTriplesCache == null) {
-			updatedTriplesCache = new SortedRecordCache(dir, RECORD_LENGTH, maxRecords, new TripleComparator("spoc"));
+			updatedTriplesCache = new SortedRecordCache(dir, recordLength, maxRecords,
+					new TripleComparator(UPDATED_TRIPLES_CACHE_ORDER));
 		} else {
 			assert updatedTriplesCache
 					.getRecordCount() == 0L : "updatedTripleCache should have been cleared upon commit or rollback";
@@ -951,63 +1414,70 @@ class TripleStore implements Closeable {
 	}
 
 	public void commit() throws IOException {
-		txnStatusFile.setTxnStatus(TxnStatus.COMMITTING);
+		indexesLock.readLock().lock();
+		try {
+			flushPendingRecords();
 
-		// updatedTriplesCache will be null when recovering from a crashed commit
-		boolean validCache = updatedTriplesCache != null && updatedTriplesCache.isValid();
+			txnStatusFile.setTxnStatus(TxnStatus.COMMITTING);
 
-		for (TripleIndex index : indexes) {
-			BTree btree = index.getBTree();
+			// updatedTriplesCache will be null when recovering from a crashed commit
+			boolean validCache = updatedTriplesCache != null && updatedTriplesCache.isValid();
 
-			RecordIterator iter;
-			if (validCache) {
-				// Use the cached set of updated triples
-				iter = updatedTriplesCache.getRecords();
-			} else {
-				// Cache is invalid; too much updates(?). Iterate over all triples
-				iter = btree.iterateAll();
-			}
+			updateIndexes(index -> {
+				BTree btree = index.getBTree();
 
-			try {
-				byte[] data;
-				while ((data = iter.next()) != null) {
-					byte flags = data[FLAG_IDX];
-					boolean wasAdded = (flags & ADDED_FLAG) != 0;
-					boolean wasRemoved = (flags & REMOVED_FLAG) != 0;
-					boolean wasToggled = (flags & TOGGLE_EXPLICIT_FLAG) != 0;
+				RecordIterator iter;
+				if (validCache) {
+					// Use the cached set of updated triples, sorted in the order of the index
+					iter = getUpdatedTriplesInIndexOrder(index);
+				} else {
+					// Cache is invalid; too much updates(?). Iterate over all triples
+					iter = btree.iterateAll();
+				}
 
-					if (wasRemoved) {
-						btree.remove(data);
-					} else if (wasAdded || wasToggled) {
-						if (wasToggled) {
-							data[FLAG_IDX] ^= EXPLICIT_FLAG;
-						}
-						if (wasAdded) {
-							data[FLAG_IDX] ^= ADDED_FLAG;
-						}
+				try {
+					byte[] data;
+					while ((data = iter.next()) != null) {
+						byte flags = data[flagIdx];
+						boolean wasAdded = (flags & ADDED_FLAG) != 0;
+						boolean wasRemoved = (flags & REMOVED_FLAG) != 0;
+						boolean wasToggled = (flags & TOGGLE_EXPLICIT_FLAG) != 0;
+
+						if (wasRemoved) {
+							btree.remove(data);
+						} else if (wasAdded || wasToggled) {
+							if (wasToggled) {
+								data[flagIdx] ^= EXPLICIT_FLAG;
+							}
+							if (wasAdded) {
+								data[flagIdx] ^= ADDED_FLAG;
+							}
 
-						if (validCache) {
-							// We're iterating the cache
-							btree.insert(data);
-						} else {
-							// We're iterating the BTree itself
-							iter.set(data);
+							if (validCache) {
+								// We're iterating the cache
+								btree.insert(data);
+							} else {
+								// We're iterating the BTree itself
+								iter.set(data);
+							}
 						}
 					}
+				} finally {
+					iter.close();
 				}
-			} finally {
-				iter.close();
-			}
-		}
+			});
 
-		if (updatedTriplesCache != null) {
-			updatedTriplesCache.clear();
-		}
+			if (updatedTriplesCache != null) {
+				updatedTriplesCache.clear();
+			}
 
-		sync();
+			sync();
 
-		txnStatusFile.setTxnStatus(TxnStatus.NONE);
-		// checkAllCommitted();
+			txnStatusFile.setTxnStatus(TxnStatus.NONE);
+			// checkAllCommitted();
+		} finally {
+			indexesLock.readLock().unlock();
+		}
 	}
 
 	private void checkAllCommitted() throws IOException {
@@ -1016,7 +1486,7 @@ class TripleStore implements Closeable {
 			BTree btree = index.getBTree();
 			try (RecordIterator iter = btree.iterateAll()) {
 				for (byte[] data = iter.next(); data != null; data = iter.next()) {
-					byte flags = data[FLAG_IDX];
+					byte flags = data[flagIdx];
 					boolean wasAdded = (flags & ADDED_FLAG) != 0;
 					boolean wasRemoved = (flags & REMOVED_FLAG) != 0;
 					boolean wasToggled = (flags & TOGGLE_EXPLICIT_FLAG) != 0;
@@ -1029,66 +1499,75 @@ class TripleStore implements Closeable {
 	}
 
 	public void rollback() throws IOException {
-		txnStatusFile.setTxnStatus(TxnStatus.ROLLING_BACK);
+		indexesLock.readLock().lock();
+		try {
+			flushPendingRecords();
 
-		// updatedTriplesCache will be null when recovering from a crash
-		boolean validCache = updatedTriplesCache != null && updatedTriplesCache.isValid();
+			txnStatusFile.setTxnStatus(TxnStatus.ROLLING_BACK);
 
-		byte txnFlagsMask = ~(ADDED_FLAG | REMOVED_FLAG | TOGGLE_EXPLICIT_FLAG);
+			// updatedTriplesCache will be null when recovering from a crash
+			boolean validCache = updatedTriplesCache != null && updatedTriplesCache.isValid();
 
-		for (TripleIndex index : indexes) {
-			BTree btree = index.getBTree();
+			byte txnFlagsMask = ~(ADDED_FLAG | REMOVED_FLAG | TOGGLE_EXPLICIT_FLAG);
 
-			RecordIterator iter;
-			if (validCache) {
-				// Use the cached set of updated triples
-				iter = updatedTriplesCache.getRecords();
-			} else {
-				// Cache is invalid; too much updates(?). Iterate over all triples
-				iter = btree.iterateAll();
-			}
+			updateIndexes(index -> {
+				BTree btree = index.getBTree();
 
-			try {
-				byte[] data;
-				while ((data = iter.next()) != null) {
-					byte flags = data[FLAG_IDX];
-					boolean wasAdded = (flags & ADDED_FLAG) != 0;
-					boolean wasRemoved = (flags & REMOVED_FLAG) != 0;
-					boolean wasToggled = (flags & TOGGLE_EXPLICIT_FLAG) != 0;
+				RecordIterator iter;
+				if (validCache) {
+					// Use the cached set of updated triples, sorted in the order of the index
+					iter = getUpdatedTriplesInIndexOrder(index);
+				} else {
+					// Cache is invalid; too much updates(?). Iterate over all triples
+					iter = btree.iterateAll();
+				}
 
-					if (wasAdded) {
-						btree.remove(data);
-					} else {
-						if (wasRemoved || wasToggled) {
-							data[FLAG_IDX] &= txnFlagsMask;
+				try {
+					byte[] data;
+					while ((data = iter.next()) != null) {
+						byte flags = data[flagIdx];
+						boolean wasAdded = (flags & ADDED_FLAG) != 0;
+						boolean wasRemoved = (flags & REMOVED_FLAG) != 0;
+						boolean wasToggled = (flags & TOGGLE_EXPLICIT_FLAG) != 0;
 
-							if (validCache) {
-								// We're iterating the cache
-								btree.insert(data);
-							} else {
-								// We're iterating the BTree itself
-								iter.set(data);
+						if (wasAdded) {
+							btree.remove(data);
+						} else {
+							if (wasRemoved || wasToggled) {
+								data[flagIdx] &= txnFlagsMask;
+
+								if (validCache) {
+									// We're iterating the cache
+									btree.insert(data);
+								} else {
+									// We're iterating the BTree itself
+									iter.set(data);
+								}
 							}
 						}
 					}
+				} finally {
+					iter.close();
 				}
-			} finally {
-				iter.close();
-			}
-		}
+			});
 
-		if (updatedTriplesCache != null) {
-			updatedTriplesCache.clear();
-		}
+			if (updatedTriplesCache != null) {
+				updatedTriplesCache.clear();
+			}
 
-		sync();
+			sync();
 
-		txnStatusFile.setTxnStatus(TxnStatus.NONE);
+			txnStatusFile.setTxnStatus(TxnStatus.NONE);
+		} finally {
+			indexesLock.readLock().unlock();
+		}
 	}
 
 	protected void sync() throws IOException {
 		List<Throwable> exceptions = new ArrayList<>();
-		for (TripleIndex index : indexes) {
+		List<TripleIndex> syncedIndexes = new ArrayList<>(indexes);
+		syncedIndexes.addAll(buildingIndexes);
+		for (TripleIndex index : syncedIndexes) {
 			try {
 				index.getBTree().sync();
 			} catch (Throwable e) {
@@ -1100,62 +1579,282 @@ class TripleStore implements Closeable {
 		}
 	}
 
-	private byte[] getData(int subj, int pred, int obj, int context, int flags) {
-		byte[] data = new byte[RECORD_LENGTH];
+	/**
+	 * Gets an iterator over the records of the current transaction in the order of the specified index. The records
+	 * are cached in SPOC order, which results in random page accesses for indexes with a different field order.
+	 */
+	private RecordIterator getUpdatedTriplesInIndexOrder(TripleIndex index) {
+		RecordIterator iter = updatedTriplesCache.getRecords();
+		if (UPDATED_TRIPLES_CACHE_ORDER.equals(new String(index.getFieldSeq()))) {
+			return iter;
+		}
+		return new IndexOrderRecordIterator(iter, index);
+	}
+
+	/**
+	 * Inserts a record that has been stored in the first index into the other indexes, which is done in batches by
+	 * background threads.
+	 */
+	private synchronized void addPendingRecord(byte[] data) throws IOException {
+		pendingRecords.add(data);
+		if (pendingRecords.size() >= PENDING_RECORDS_BATCH_SIZE) {
+			submitPendingRecords();
+		}
+	}
+
+	/**
+	 * Starts the insertion of the pending records into the indexes other than the first one, after the insertion of
+	 * the previous batch has finished.
+	 */
+	private synchronized void submitPendingRecords() throws IOException {
+		awaitPendingIndexUpdates();
+
+		if (!pendingRecords.isEmpty()) {
+			List<byte[]> records = pendingRecords;
+			pendingRecords = new ArrayList<>();
+
+			pendingIndexUpdates = submitIndexUpdates(getSecondaryIndexes(), index -> {
+				byte[][] sortedRecords = records.toArray(new byte[records.size()][]);
+				// the sort is stable, later versions of a record overwrite earlier ones
+				Arrays.sort(sortedRecords, index::compareRecords);
+
+				BTree btree = index.getBTree();
+				for (byte[] record : sortedRecords) {
+					btree.insert(record);
+				}
+			});
+		}
+	}
+
+	private synchronized void awaitPendingIndexUpdates() throws IOException {
+		List<Future<?>> futures = pendingIndexUpdates;
+		pendingIndexUpdates = Collections.emptyList();
+		awaitIndexUpdates(futures, null);
+	}
+
+	/**
+	 * Makes sure that all pending records have been inserted into all indexes.
+	 */
+	private synchronized void flushPendingRecords() throws IOException {
+		submitPendingRecords();
+		awaitPendingIndexUpdates();
+	}
+
+	private synchronized void discardPendingRecords() throws IOException {
+		pendingRecords = new ArrayList<>();
+		awaitPendingIndexUpdates();
+	}
+
+	/**
+	 * Applies an update to all indexes. Every index is a separate B-Tree with its own file and lock, so the indexes are
+	 * updated concurrently, the first index by the calling thread.
+	 */
+	private void updateIndexes(IndexUpdate update) throws IOException {
+		List<Future<?>> futures = submitIndexUpdates(getSecondaryIndexes(), update);
+
+		Throwable exception = null;
+		try {
+			update.apply(indexes.get(0));
+		} catch (Throwable e) {
+			exception = e;
+		}
+
+		awaitIndexUpdates(futures, exception);
+	}
+
+	/**
+	 * Gets the indexes that are updated in addition to the first index, including the indexes that are being built by
+	 * an online reindex.
+	 */
+	private List<TripleIndex> getSecondaryIndexes() {
+		List<TripleIndex> indexes = this.indexes;
+		List<TripleIndex> buildingIndexes = this.buildingIndexes;
+		if (buildingIndexes.isEmpty()) {
+			return indexes.subList(1, indexes.size());
+		}
+
+		List<TripleIndex> secondaryIndexes = new ArrayList<>(indexes.subList(1, indexes.size()));
+		secondaryIndexes.addAll(buildingIndexes);
+		return secondaryIndexes;
+	}
+
+	private List<Future<?>> submitIndexUpdates(List<TripleIndex> indexes, IndexUpdate update) {
+		if (indexes.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		ExecutorService executor = getIndexUpdateExecutor();
+		List<Future<?>> futures = new ArrayList<>(indexes.size());
+		for (TripleIndex index : indexes) {
+			futures.add(executor.submit(() -> {
+				update.apply(index);
+				return null;
+			}));
+		}
+		return futures;
+	}
+
+	/**
+	 * Waits until the supplied index updates have finished. The wait is not aborted by interrupts, since the indexes
+	 * must not be modified by the updates anymore once this method returns; the interrupt status of the thread is
+	 * restored instead.
+	 *
+	 * @param exception An exception that has already been thrown by another update, or <var>null</var>.
+	 */
+	private static void awaitIndexUpdates(List<Future<?>> futures, Throwable exception) throws IOException {
+		boolean interrupted = false;
+		for (Future<?> future : futures) {
+			while (true) {
+				try {
+					future.get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					if (exception == null) {
+						exception = e.getCause();
+					} else {
+						exception.addSuppressed(e.getCause());
+					}
+					break;
+				}
+			}
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (exception instanceof IOException) {
+			throw (IOException) exception;
+		} else if (exception instanceof RuntimeException) {
+			throw (RuntimeException) exception;
+		} else if (exception instanceof Error) {
+			throw (Error) exception;
+		} else if (exception != null) {
+			throw new IOException(exception);
+		}
+	}
+
+	private synchronized ExecutorService getIndexUpdateExecutor() {
+		if (indexUpdateExecutor == null) {
+			indexUpdateExecutor = Executors.newCachedThreadPool(r -> {
+				Thread t = Executors.defaultThreadFactory().newThread(r);
+				// index updates are always awaited by the thread that started them
+				t.setDaemon(true);
+				t.setName("NativeStore index update thread " + t.getId());
+				return t;
+			});
+		}
+		return indexUpdateExecutor;
+	}
+
+	private synchronized void shutDownIndexUpdateExecutor() {
+		if (indexUpdateExecutor != null) {
+			indexUpdateExecutor.shutdown();
+			indexUpdateExecutor = null;
+		}
+	}
+
+	/**
+	 * Gets the subject ID of a triple record.
+	 */
+	public long getSubjectID(byte[] data) {
+		return getID(data, subjIdx);
+	}
+
+	/**
+	 * Gets the predicate ID of a triple record.
+	 */
+	public long getPredicateID(byte[] data) {
+		return getID(data, predIdx);
+	}
+
+	/**
+	 * Gets the object ID of a triple record.
+	 */
+	public long getObjectID(byte[] data) {
+		return getID(data, objIdx);
+	}
+
+	/**
+	 * Gets the context ID of a triple record.
+	 */
+	public long getContextID(byte[] data) {
+		return getID(data, contextIdx);
+	}
+
+	private long getID(byte[] data, int offset) {
+		if (idSize == Long.BYTES) {
+			return ByteArrayUtil.getLong(data, offset);
+		}
+		return ByteArrayUtil.getInt(data, offset);
+	}
+
+	private void putID(long id, byte[] data, int offset) {
+		if (idSize == Long.BYTES) {
+			ByteArrayUtil.putLong(id, data, offset);
+		} else {
+			ByteArrayUtil.putInt((int) id, data, offset);
+		}
+	}
+
+	private byte[] getData(long subj, long pred, long obj, long context, int flags) {
+		byte[] data = new byte[recordLength];
 
-		ByteArrayUtil.putInt(subj, data, SUBJ_IDX);
-		ByteArrayUtil.putInt(pred, data, PRED_IDX);
-		ByteArrayUtil.putInt(obj, data, OBJ_IDX);
-		ByteArrayUtil.putInt(context, data, CONTEXT_IDX);
-		data[FLAG_IDX] = (byte) flags;
+		putID(subj, data, subjIdx);
+		putID(pred, data, predIdx);
+		putID(obj, data, objIdx);
+		putID(context, data, contextIdx);
+		data[flagIdx] = (byte) flags;
 
 		return data;
 	}
 
-	private byte[] getSearchKey(int subj, int pred, int obj, int context, int flags) {
+	private byte[] getSearchKey(long subj, long pred, long obj, long context, int flags) {
 		return getData(subj, pred, obj, context, flags);
 	}
 
-	private byte[] getSearchMask(int subj, int pred, int obj, int context, int flags) {
-		byte[] mask = new byte[RECORD_LENGTH];
+	private byte[] getSearchMask(long subj, long pred, long obj, long context, int flags) {
+		byte[] mask = new byte[recordLength];
 
 		if (subj != -1) {
-			ByteArrayUtil.putInt(0xffffffff, mask, SUBJ_IDX);
+			putID(-1L, mask, subjIdx);
 		}
 		if (pred != -1) {
-			ByteArrayUtil.putInt(0xffffffff, mask, PRED_IDX);
+			putID(-1L, mask, predIdx);
 		}
 		if (obj != -1) {
-			ByteArrayUtil.putInt(0xffffffff, mask, OBJ_IDX);
+			putID(-1L, mask, objIdx);
 		}
 		if (context != -1) {
-			ByteArrayUtil.putInt(0xffffffff, mask, CONTEXT_IDX);
+			putID(-1L, mask, contextIdx);
 		}
-		mask[FLAG_IDX] = (byte) flags;
+		mask[flagIdx] = (byte) flags;
 
 		return mask;
 	}
 
-	private byte[] getMinValue(int subj, int pred, int obj, int context) {
-		byte[] minValue = new byte[RECORD_LENGTH];
+	private byte[] getMinValue(long subj, long pred, long obj, long context) {
+		byte[] minValue = new byte[recordLength];
 
-		ByteArrayUtil.putInt((subj == -1 ? 0x00000000 : subj), minValue, SUBJ_IDX);
-		ByteArrayUtil.putInt((pred == -1 ? 0x00000000 : pred), minValue, PRED_IDX);
-		ByteArrayUtil.putInt((obj == -1 ? 0x00000000 : obj), minValue, OBJ_IDX);
-		ByteArrayUtil.putInt((context == -1 ? 0x00000000 : context), minValue, CONTEXT_IDX);
-		minValue[FLAG_IDX] = (byte) 0;
+		putID((subj == -1 ? 0L : subj), minValue, subjIdx);
+		putID((pred == -1 ? 0L : pred), minValue, predIdx);
+		putID((obj == -1 ? 0L : obj), minValue, objIdx);
+		putID((context == -1 ? 0L : context), minValue, contextIdx);
+		minValue[flagIdx] = (byte) 0;
 
 		return minValue;
 	}
 
-	private byte[] getMaxValue(int subj, int pred, int obj, int context) {
-		byte[] maxValue = new byte[RECORD_LENGTH];
+	private byte[] getMaxValue(long subj, long pred, long obj, long context) {
+		byte[] maxValue = new byte[recordLength];
 
-		ByteArrayUtil.putInt((subj == -1 ? 0xffffffff : subj), maxValue, SUBJ_IDX);
-		ByteArrayUtil.putInt((pred == -1 ? 0xffffffff : pred), maxValue, PRED_IDX);
-		ByteArrayUtil.putInt((obj == -1 ? 0xffffffff : obj), maxValue, OBJ_IDX);
-		ByteArrayUtil.putInt((context == -1 ? 0xffffffff : context), maxValue, CONTEXT_IDX);
-		maxValue[FLAG_IDX] = (byte) 0xff;
+		putID((subj == -1 ? -1L : subj), maxValue, subjIdx);
+		putID((pred == -1 ? -1L : pred), maxValue, predIdx);
+		putID((obj == -1 ? -1L : obj), maxValue, objIdx);
+		putID((context == -1 ? -1L : context), maxValue, contextIdx);
+		maxValue[flagIdx] = (byte) 0xff;
 
 		return maxValue;
 	}
@@ -1178,6 +1877,231 @@ class TripleStore implements Closeable {
 	 * Inner class TripleIndex *
 	 *-------------------------*/
 
+	/**
+	 * An update of a single index.
+	 */
+	@FunctionalInterface
+	private interface IndexUpdate {
+
+		void apply(TripleIndex index) throws IOException;
+	}
+
+	/**
+	 * A RecordIterator that returns the records of another iterator in the order of an index. The records are read and
+	 * sorted in chunks of limited size, so that updates of the index access its pages mostly sequentially without
+	 * requiring all records to be kept in memory.
+	 */
+	private static class IndexOrderRecordIterator implements RecordIterator {
+
+		private final RecordIterator wrappedIter;
+
+		private final TripleIndex index;
+
+		private final List<byte[]> chunk = new ArrayList<>();
+
+		private int chunkIdx;
+
+		public IndexOrderRecordIterator(RecordIterator wrappedIter, TripleIndex index) {
+			this.wrappedIter = wrappedIter;
+			this.index = index;
+		}
+
+		@Override
+		public byte[] next() throws IOException {
+			if (chunkIdx == chunk.size()) {
+				chunk.clear();
+				chunkIdx = 0;
+
+				byte[] record;
+				while (chunk.size() < INDEX_ORDER_CHUNK_SIZE && (record = wrappedIter.next()) != null) {
+					chunk.add(record);
+				}
+				chunk.sort(index::compareRecords);
+			}
+
+			if (chunkIdx < chunk.size()) {
+				return chunk.get(chunkIdx++);
+			}
+			return null;
+		}
+
+		@Override
+		public void set(byte[] record) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() throws IOException {
+			wrappedIter.close();
+		}
+	}
+
+	/**
+	 * An online change of the set of triple indexes. A background thread copies the triples of the first index to the
+	 * new indexes in chunks, every chunk while holding the write lock of {@link #indexesLock} so that it doesn't
+	 * overwrite concurrent updates of the new indexes. The last chunk is followed by the switch to the new set of
+	 * indexes.
+	 */
+	private class IndexBuild implements Runnable {
+
+		private final String indexSpecStr;
+
+		private final Set<String> indexSpecs;
+
+		private final List<TripleIndex> addedIndexes;
+
+		private final long tripleCount;
+
+		private final Thread thread;
+
+		private volatile long copiedCount;
+
+		private volatile boolean completed;
+
+		/**
+		 * Set when the indexes have been cleared, which invalidates the iterator over the triples of the first index.
+		 */
+		private volatile boolean restart;
+
+		private volatile boolean cancelled;
+
+		private volatile Throwable failure;
+
+		public IndexBuild(String indexSpecStr, Set<String> indexSpecs, List<TripleIndex> addedIndexes)
+				throws IOException {
+			this.indexSpecStr = indexSpecStr;
+			this.indexSpecs = indexSpecs;
+			this.addedIndexes = addedIndexes;
+			this.tripleCount = indexes.get(0).getBTree().getValueCountEstimate();
+			this.thread = new Thread(this, "NativeStore reindex thread");
+			thread.setDaemon(true);
+		}
+
+		public double getProgress() {
+			if (completed) {
+				return 1.0;
+			}
+			return tripleCount == 0 ? 0.0 : Math.min(1.0, (double) copiedCount / tripleCount);
+		}
+
+		@Override
+		public void run() {
+			try {
+				copyTriples();
+			} catch (Throwable e) {
+				failure = e;
+				logger.error("Failed to change triple indexes to '{}'", indexSpecStr, e);
+				abort();
+			}
+		}
+
+		private void copyTriples() throws IOException {
+			RecordIterator sourceIter = null;
+			int reportedPercentage = 0;
+			try {
+				while (true) {
+					indexesLock.writeLock().lock();
+					try {
+						if (cancelled) {
+							logger.info("Change of triple indexes to '{}' cancelled", indexSpecStr);
+							abort();
+							return;
+						}
+
+						// records of the pending batches must not overwrite the copied ones later
+						flushPendingRecords();
+
+						if (sourceIter == null || restart) {
+							if (sourceIter != null) {
+								sourceIter.close();
+							}
+							restart = false;
+							sourceIter = indexes.get(0).getBTree().iterateAll();
+						}
+
+						List<byte[]> chunk = new ArrayList<>();
+						byte[] record;
+						while (chunk.size() < REINDEX_CHUNK_SIZE && (record = sourceIter.next()) != null) {
+							chunk.add(record);
+						}
+						for (TripleIndex index : addedIndexes) {
+							chunk.sort(index::compareRecords);
+							BTree btree = index.getBTree();
+							for (byte[] value : chunk) {
+								btree.insert(value);
+							}
+						}
+						copiedCount += chunk.size();
+
+						if (chunk.size() < REINDEX_CHUNK_SIZE) {
+							switchIndexes();
+							return;
+						}
+					} finally {
+						indexesLock.writeLock().unlock();
+					}
+
+					int percentage = (int) (getProgress() * 100);
+					if (percentage >= reportedPercentage + 10) {
+						reportedPercentage = percentage - percentage % 10;
+						logger.info("Changing triple indexes to '{}': {}% of {} triples copied", indexSpecStr,
+								reportedPercentage, tripleCount);
+					}
+				}
+			} finally {
+				if (sourceIter != null) {
+					sourceIter.close();
+				}
+			}
+		}
+
+		/**
+		 * Replaces the current set of indexes with the new one, must be called while holding the write lock of
+		 * {@link #indexesLock}.
+		 */
+		void switchIndexes() throws IOException {
+			for (TripleIndex index : addedIndexes) {
+				index.getBTree().sync();
+			}
+
+			Map<String, TripleIndex> currentIndexes = new HashMap<>();
+			for (TripleIndex index : indexes) {
+				currentIndexes.put(index.toString(), index);
+			}
+			for (TripleIndex index : addedIndexes) {
+				currentIndexes.put(index.toString(), index);
+			}
+
+			List<TripleIndex> newIndexes = new ArrayList<>();
+			for (String fieldSeq : indexSpecs) {
+				newIndexes.add(currentIndexes.remove(fieldSeq));
+			}
+
+			properties.setProperty(INDEXES_KEY, indexSpecStr);
+			storeProperties(new File(dir, PROPERTIES_FILE));
+
+			indexes = newIndexes;
+			buildingIndexes = Collections.emptyList();
+			retiredIndexes.addAll(currentIndexes.values());
+			completed = true;
+			logger.info("Triple indexes changed to '{}'", indexSpecStr);
+		}
+
+		/**
+		 * Stops updating the new indexes. Batches of pending records may still be inserted into them, so their files
+		 * are deleted when the store is closed.
+		 */
+		private void abort() {
+			indexesLock.writeLock().lock();
+			try {
+				buildingIndexes = Collections.emptyList();
+				retiredIndexes.addAll(addedIndexes);
+			} finally {
+				indexesLock.writeLock().unlock();
+			}
+		}
+	}
+
 	private class TripleIndex {
 
 		private final TripleComparator tripleComparator;
@@ -1185,22 +2109,24 @@ class TripleStore implements Closeable {
 		private final BTree btree;
 
 		public TripleIndex(String fieldSeq, boolean deleteExistingIndexFile) throws IOException {
+			this(fieldSeq, getFilenamePrefix(fieldSeq), deleteExistingIndexFile);
+		}
+
+		public TripleIndex(String fieldSeq, String filenamePrefix, boolean deleteExistingIndexFile)
+				throws IOException {
 			if (deleteExistingIndexFile) {
-				File indexFile = new File(dir, getFilenamePrefix(fieldSeq) + ".dat");
+				File indexFile = new File(dir, filenamePrefix + ".dat");
 				if (indexFile.exists()) {
 					indexFile.delete();
 				}
-				File alloxFile = new File(dir, getFilenamePrefix(fieldSeq) + ".alloc");
+				File alloxFile = new File(dir, filenamePrefix + ".alloc");
 				if (alloxFile.exists()) {
 					alloxFile.delete();
 				}
 			}
 			tripleComparator = new TripleComparator(fieldSeq);
-			btree = new BTree(dir, getFilenamePrefix(fieldSeq), 2048, RECORD_LENGTH, tripleComparator, forceSync);
-		}
-
-		private String getFilenamePrefix(String fieldSeq) {
-			return "triples-" + fieldSeq;
+			btree = new BTree(dir, filenamePrefix, 2048, recordLength, tripleComparator, forceSync,
+					compressIndexes, memoryMapped);
 		}
 
 		public char[] getFieldSeq() {
@@ -1211,12 +2137,19 @@ class TripleStore implements Closeable {
 			return btree;
 		}
 
+		/**
+		 * Compares two triple records according to the field order of this index.
+		 */
+		public int compareRecords(byte[] record1, byte[] record2) {
+			return tripleComparator.compareBTreeValues(record1, record2, 0, record2.length);
+		}
+
 		/**
 		 * Determines the 'score' of this index on the supplied pattern of subject, predicate, object and context IDs.
 		 * The higher the score, the better the index is suited for matching the pattern. Lowest score is 0, which means
 		 * that the index will perform a sequential scan.
 		 */
-		public int getPatternScore(int subj, int pred, int obj, int context) {
+		public int getPatternScore(long subj, long pred, long obj, long context) {
 			int score = 0;
 
 			for (char field : tripleComparator.getFieldSeq()) {
@@ -1258,6 +2191,46 @@ class TripleStore implements Closeable {
 			return score;
 		}
 
+		/**
+		 * Checks if a range scan on this index for the supplied pattern returns the matching triples sorted by the
+		 * component selected by <var>order</var>. This is the case if the component is bound by the pattern or if all
+		 * fields preceding the component in this index's field sequence are bound.
+		 */
+		public boolean isSortedBy(StatementOrder order, long subj, long pred, long obj, long context) {
+			char field;
+			long value;
+			switch (order) {
+			case S:
+				field = 's';
+				value = subj;
+				break;
+			case P:
+				field = 'p';
+				value = pred;
+				break;
+			case O:
+				field = 'o';
+				value = obj;
+				break;
+			case C:
+				field = 'c';
+				value = context;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown statement order: " + order);
+			}
+			if (value >= 0) {
+				// all matching triples share the same value for this component
+				return true;
+			}
+			char[] fieldSeq = getFieldSeq();
+			int position = 0;
+			while (fieldSeq[position] != field) {
+				position++;
+			}
+			return position <= getPatternScore(subj, pred, obj, context);
+		}
+
 		@Override
 		public String toString() {
 			return new String(getFieldSeq());
@@ -1272,7 +2245,7 @@ class TripleStore implements Closeable {
 	 * A RecordComparator that can be used to create indexes with a configurable order of the subject, predicate, object
 	 * and context fields.
 	 */
-	private static class TripleComparator implements RecordComparator {
+	private class TripleComparator implements RecordComparator {
 
 		private final char[] fieldSeq;
 
@@ -1291,23 +2264,23 @@ class TripleStore implements Closeable {
 
 				switch (field) {
 				case 's':
-					fieldIdx = SUBJ_IDX;
+					fieldIdx = subjIdx;
 					break;
 				case 'p':
-					fieldIdx = PRED_IDX;
+					fieldIdx = predIdx;
 					break;
 				case 'o':
-					fieldIdx = OBJ_IDX;
+					fieldIdx = objIdx;
 					break;
 				case 'c':
-					fieldIdx = CONTEXT_IDX;
+					fieldIdx = contextIdx;
 					break;
 				default:
 					throw new IllegalArgumentException(
 							"invalid character '" + field + "' in field sequence: " + new String(fieldSeq));
 				}
 
-				int diff = ByteArrayUtil.compareRegion(key, fieldIdx, data, offset + fieldIdx, 4);
+				int diff = ByteArrayUtil.compareRegion(key, fieldIdx, data, offset + fieldIdx, idSize);
 
 				if (diff != 0) {
 					return diff;
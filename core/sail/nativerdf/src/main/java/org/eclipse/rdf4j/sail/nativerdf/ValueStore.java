@@ -97,6 +97,11 @@ public class ValueStore extends SimpleValueFactory {
 	 */
 	private final DataStore dataStore;
 
+	/**
+	 * The size of the value IDs that are embedded in the data of IRIs and literals, in bytes.
+	 */
+	private final int idSize;
+
 	/**
 	 * Lock manager used to prevent the removal of values over multiple method calls. Note that values can still be
 	 * added when read locks are active.
@@ -112,23 +117,23 @@ public class ValueStore extends SimpleValueFactory {
 	/**
 	 * A simple cache containing the [VALUE_CACHE_SIZE] most-recently used values stored by their ID.
 	 */
-	private final ConcurrentCache<Integer, NativeValue> valueCache;
+	private final ConcurrentCache<Long, NativeValue> valueCache;
 
 	/**
 	 * A simple cache containing the [ID_CACHE_SIZE] most-recently used value-IDs stored by their value.
 	 */
-	private final ConcurrentCache<NativeValue, Integer> valueIDCache;
+	private final ConcurrentCache<NativeValue, Long> valueIDCache;
 
 	/**
 	 * A simple cache containing the [NAMESPACE_CACHE_SIZE] most-recently used namespaces stored by their ID.
 	 */
-	private final ConcurrentCache<Integer, String> namespaceCache;
+	private final ConcurrentCache<Long, String> namespaceCache;
 
 	/**
 	 * A simple cache containing the [NAMESPACE_ID_CACHE_SIZE] most-recently used namespace-IDs stored by their
 	 * namespace.
 	 */
-	private final ConcurrentCache<String, Integer> namespaceIDCache;
+	private final ConcurrentCache<String, Long> namespaceIDCache;
 
 	/*--------------*
 	 * Constructors *
@@ -144,8 +149,32 @@ public class ValueStore extends SimpleValueFactory {
 
 	public ValueStore(File dataDir, boolean forceSync, int valueCacheSize, int valueIDCacheSize, int namespaceCacheSize,
 			int namespaceIDCacheSize) throws IOException {
+		this(dataDir, forceSync, valueCacheSize, valueIDCacheSize, namespaceCacheSize, namespaceIDCacheSize, false);
+	}
+
+	public ValueStore(File dataDir, boolean forceSync, int valueCacheSize, int valueIDCacheSize, int namespaceCacheSize,
+			int namespaceIDCacheSize, boolean longIDs) throws IOException {
+		this(dataDir, forceSync, valueCacheSize, valueIDCacheSize, namespaceCacheSize, namespaceIDCacheSize, longIDs,
+				false);
+	}
+
+	/**
+	 * Creates a new ValueStore or opens an existing one.
+	 *
+	 * @param longIDs      Flag indicating whether a new store should use 64-bit value IDs. Existing stores keep the ID
+	 *                     size that they were created with.
+	 * @param memoryMapped Flag indicating whether the value files should be read through memory-mapped segments.
+	 */
+	public ValueStore(File dataDir, boolean forceSync, int valueCacheSize, int valueIDCacheSize, int namespaceCacheSize,
+			int namespaceIDCacheSize, boolean longIDs, boolean memoryMapped) throws IOException {
 		super();
-		dataStore = new DataStore(dataDir, FILENAME_PREFIX, forceSync);
+		dataStore = new DataStore(dataDir, FILENAME_PREFIX, forceSync, longIDs, memoryMapped);
+		idSize = dataStore.hasLongIDs() ? Long.BYTES : Integer.BYTES;
+
+		if (longIDs && !dataStore.hasLongIDs()) {
+			logger.warn("Existing value store in {} uses 32-bit value IDs, 64-bit IDs are only used for new stores",
+					dataDir);
+		}
 
 		valueCache = new ConcurrentCache<>(valueCacheSize);
 		valueIDCache = new ConcurrentCache<>(valueIDCacheSize);
@@ -160,6 +189,13 @@ public class ValueStore extends SimpleValueFactory {
 	 * Methods *
 	 *---------*/
 
+	/**
+	 * Checks whether this value store uses 64-bit value IDs.
+	 */
+	public boolean hasLongIDs() {
+		return idSize == Long.BYTES;
+	}
+
 	/**
 	 * Creates a new revision object for this value store, invalidating any IDs cached in NativeValue objects that were
 	 * created by this value store.
@@ -187,10 +223,10 @@ public class ValueStore extends SimpleValueFactory {
 	 * @return The value for the ID, or <var>null</var> no such value could be found.
 	 * @throws IOException If an I/O error occurred.
 	 */
-	public NativeValue getValue(int id) throws IOException {
+	public NativeValue getValue(long id) throws IOException {
 
 		// Check value cache
-		Integer cacheID = id;
+		Long cacheID = id;
 		NativeValue resultValue = valueCache.get(cacheID);
 
 		if (resultValue == null) {
@@ -211,6 +247,14 @@ public class ValueStore extends SimpleValueFactory {
 
 	}
 
+	/**
+	 * @deprecated use {@link #getValue(long)}
+	 */
+	@Deprecated(since = "5.1.3")
+	public NativeValue getValue(int id) throws IOException {
+		return getValue((long) id);
+	}
+
 	/**
 	 * Gets the Resource for the specified ID.
 	 *
@@ -218,7 +262,7 @@ public class ValueStore extends SimpleValueFactory {
 	 * @return The Resource for the ID, or <var>null</var> no such value could be found.
 	 * @throws IOException If an I/O error occurred.
 	 */
-	public <T extends NativeValue & Resource> T getResource(int id) throws IOException {
+	public <T extends NativeValue & Resource> T getResource(long id) throws IOException {
 
 		NativeValue resultValue = getValue(id);
 
@@ -233,6 +277,14 @@ public class ValueStore extends SimpleValueFactory {
 		return (T) resultValue;
 	}
 
+	/**
+	 * @deprecated use {@link #getResource(long)}
+	 */
+	@Deprecated(since = "5.1.3")
+	public <T extends NativeValue & Resource> T getResource(int id) throws IOException {
+		return getResource((long) id);
+	}
+
 	/**
 	 * Gets the IRI for the specified ID.
 	 *
@@ -240,7 +292,7 @@ public class ValueStore extends SimpleValueFactory {
 	 * @return The IRI for the ID, or <var>null</var> no such value could be found.
 	 * @throws IOException If an I/O error occurred.
 	 */
-	public <T extends NativeValue & IRI> T getIRI(int id) throws IOException {
+	public <T extends NativeValue & IRI> T getIRI(long id) throws IOException {
 
 		NativeValue resultValue = getValue(id);
 
@@ -258,6 +310,14 @@ public class ValueStore extends SimpleValueFactory {
 		return (T) resultValue;
 	}
 
+	/**
+	 * @deprecated use {@link #getIRI(long)}
+	 */
+	@Deprecated(since = "5.1.3")
+	public <T extends NativeValue & IRI> T getIRI(int id) throws IOException {
+		return getIRI((long) id);
+	}
+
 	/**
 	 * Gets the ID for the specified value.
 	 *
@@ -265,7 +325,7 @@ public class ValueStore extends SimpleValueFactory {
 	 * @return The ID for the specified value, or {@link NativeValue#UNKNOWN_ID} if no such ID could be found.
 	 * @throws IOException If an I/O error occurred.
 	 */
-	public int getID(Value value) throws IOException {
+	public long getLongID(Value value) throws IOException {
 		// Try to get the internal ID from the value itself
 		boolean isOwnValue = isOwnValue(value);
 
@@ -273,7 +333,7 @@ public class ValueStore extends SimpleValueFactory {
 			NativeValue nativeValue = (NativeValue) value;
 
 			if (revisionIsCurrent(nativeValue)) {
-				int id = nativeValue.getInternalID();
+				long id = nativeValue.getInternalLongID();
 
 				if (id != NativeValue.UNKNOWN_ID) {
 					return id;
@@ -282,10 +342,10 @@ public class ValueStore extends SimpleValueFactory {
 		}
 
 		// Check cache
-		Integer cachedID = valueIDCache.get(value);
+		Long cachedID = valueIDCache.get(value);
 
 		if (cachedID != null) {
-			int id = cachedID.intValue();
+			long id = cachedID.longValue();
 
 			if (isOwnValue) {
 				// Store id in value for fast access in any consecutive calls
@@ -303,10 +363,10 @@ public class ValueStore extends SimpleValueFactory {
 		}
 
 		if (data != null) {
-			int id = dataStore.getID(data);
+			long id = dataStore.getLongID(data);
 
 			if (id == NativeValue.UNKNOWN_ID && value instanceof Literal) {
-				id = dataStore.getID(literal2legacy((Literal) value));
+				id = dataStore.getLongID(literal2legacy((Literal) value));
 			}
 
 			if (id != NativeValue.UNKNOWN_ID) {
@@ -317,7 +377,7 @@ public class ValueStore extends SimpleValueFactory {
 					// Store id in cache
 					NativeValue nv = getNativeValue(value);
 					nv.setInternalID(id, revision);
-					valueIDCache.put(nv, Integer.valueOf(id));
+					valueIDCache.put(nv, Long.valueOf(id));
 				}
 			}
 
@@ -327,6 +387,15 @@ public class ValueStore extends SimpleValueFactory {
 		return NativeValue.UNKNOWN_ID;
 	}
 
+	/**
+	 * @throws ArithmeticException if the ID does not fit in an int, which only happens in stores with 64-bit IDs
+	 * @deprecated use {@link #getLongID(Value)}, which supports stores with 64-bit IDs
+	 */
+	@Deprecated(since = "5.1.3")
+	public int getID(Value value) throws IOException {
+		return Math.toIntExact(getLongID(value));
+	}
+
 	/**
 	 * Stores the supplied value and returns the ID that has been assigned to it. In case the value was already present,
 	 * the value will not be stored again and the ID of the existing value is returned.
@@ -335,7 +404,7 @@ public class ValueStore extends SimpleValueFactory {
 	 * @return The ID that has been assigned to the value.
 	 * @throws IOException If an I/O error occurred.
 	 */
-	public int storeValue(Value value) throws IOException {
+	public long storeLongID(Value value) throws IOException {
 		// Try to get the internal ID from the value itself
 		boolean isOwnValue = isOwnValue(value);
 
@@ -344,7 +413,7 @@ public class ValueStore extends SimpleValueFactory {
 
 			if (revisionIsCurrent(nativeValue)) {
 				// Value's ID is still current
-				int id = nativeValue.getInternalID();
+				long id = nativeValue.getInternalLongID();
 
 				if (id != NativeValue.UNKNOWN_ID) {
 					return id;
@@ -353,10 +422,10 @@ public class ValueStore extends SimpleValueFactory {
 		}
 
 		// ID not stored in value itself, try the ID cache
-		Integer cachedID = valueIDCache.get(value);
+		Long cachedID = valueIDCache.get(value);
 
 		if (cachedID != null) {
-			int id = cachedID.intValue();
+			long id = cachedID.longValue();
 
 			if (isOwnValue) {
 				// Store id in value for fast access in any consecutive calls
@@ -370,7 +439,7 @@ public class ValueStore extends SimpleValueFactory {
 		// store which will handle duplicates
 		byte[] valueData = value2data(value, true);
 
-		int id = dataStore.storeData(valueData);
+		long id = dataStore.storeLongID(valueData);
 
 		NativeValue nv = isOwnValue ? (NativeValue) value : getNativeValue(value);
 
@@ -383,6 +452,15 @@ public class ValueStore extends SimpleValueFactory {
 		return id;
 	}
 
+	/**
+	 * @throws ArithmeticException if the ID does not fit in an int, which only happens in stores with 64-bit IDs
+	 * @deprecated use {@link #storeLongID(Value)}, which supports stores with 64-bit IDs
+	 */
+	@Deprecated(since = "5.1.3")
+	public int storeValue(Value value) throws IOException {
+		return Math.toIntExact(storeLongID(value));
+	}
+
 	/**
 	 * Removes all values from the ValueStore.
 	 *
@@ -432,8 +510,8 @@ public class ValueStore extends SimpleValueFactory {
 	 * @throws IOException
 	 */
 	public void checkConsistency() throws SailException, IOException {
-		int maxID = dataStore.getMaxID();
-		for (int id = 1; id <= maxID; id++) {
+		long maxID = dataStore.getMaxLongID();
+		for (long id = 1; id <= maxID; id++) {
 			byte[] data = dataStore.getData(id);
 			if (isNamespaceData(data)) {
 				String namespace = data2namespace(data);
@@ -449,7 +527,7 @@ public class ValueStore extends SimpleValueFactory {
 						"Store must be manually exported and imported to fix namespaces like " + namespace);
 			} else {
 				Value value = this.data2value(id, data);
-				if (id != this.getID(copy(value))) {
+				if (id != this.getLongID(copy(value))) {
 					throw new SailException(
 							"Store must be manually exported and imported to merge values like " + value);
 				}
@@ -499,7 +577,7 @@ public class ValueStore extends SimpleValueFactory {
 	}
 
 	private byte[] uri2data(IRI uri, boolean create) throws IOException {
-		int nsID = getNamespaceID(uri.getNamespace(), create);
+		long nsID = getNamespaceID(uri.getNamespace(), create);
 
 		if (nsID == -1) {
 			// Unknown namespace means unknown URI
@@ -510,10 +588,10 @@ public class ValueStore extends SimpleValueFactory {
 		byte[] localNameData = uri.getLocalName().getBytes(StandardCharsets.UTF_8);
 
 		// Combine parts in a single byte array
-		byte[] uriData = new byte[5 + localNameData.length];
+		byte[] uriData = new byte[1 + idSize + localNameData.length];
 		uriData[0] = URI_VALUE;
-		ByteArrayUtil.putInt(nsID, uriData, 1);
-		ByteArrayUtil.put(localNameData, uriData, 5);
+		putValueID(nsID, uriData, 1);
+		ByteArrayUtil.put(localNameData, uriData, 1 + idSize);
 
 		return uriData;
 	}
@@ -543,12 +621,12 @@ public class ValueStore extends SimpleValueFactory {
 	private byte[] literal2data(String label, Optional<String> lang, IRI dt, boolean create)
 			throws IOException, UnsupportedEncodingException {
 		// Get datatype ID
-		int datatypeID = NativeValue.UNKNOWN_ID;
+		long datatypeID = NativeValue.UNKNOWN_ID;
 
 		if (create) {
-			datatypeID = storeValue(dt);
+			datatypeID = storeLongID(dt);
 		} else if (dt != null) {
-			datatypeID = getID(dt);
+			datatypeID = getLongID(dt);
 
 			if (datatypeID == NativeValue.UNKNOWN_ID) {
 				// Unknown datatype means unknown literal
@@ -568,23 +646,45 @@ public class ValueStore extends SimpleValueFactory {
 		byte[] labelData = label.getBytes(StandardCharsets.UTF_8);
 
 		// Combine parts in a single byte array
-		byte[] literalData = new byte[6 + langDataLength + labelData.length];
+		int langOffset = 2 + idSize;
+		byte[] literalData = new byte[langOffset + langDataLength + labelData.length];
 		literalData[0] = LITERAL_VALUE;
-		ByteArrayUtil.putInt(datatypeID, literalData, 1);
-		literalData[5] = (byte) langDataLength;
+		putValueID(datatypeID, literalData, 1);
+		literalData[langOffset - 1] = (byte) langDataLength;
 		if (langData != null) {
-			ByteArrayUtil.put(langData, literalData, 6);
+			ByteArrayUtil.put(langData, literalData, langOffset);
 		}
-		ByteArrayUtil.put(labelData, literalData, 6 + langDataLength);
+		ByteArrayUtil.put(labelData, literalData, langOffset + langDataLength);
 
 		return literalData;
 	}
 
+	/**
+	 * Writes a value ID that is embedded in the data of another value, using the ID size of this store.
+	 */
+	private void putValueID(long id, byte[] data, int offset) {
+		if (idSize == Long.BYTES) {
+			ByteArrayUtil.putLong(id, data, offset);
+		} else {
+			ByteArrayUtil.putInt((int) id, data, offset);
+		}
+	}
+
+	/**
+	 * Reads a value ID that is embedded in the data of another value, using the ID size of this store.
+	 */
+	private long readValueID(byte[] data, int offset) {
+		if (idSize == Long.BYTES) {
+			return ByteArrayUtil.getLong(data, offset);
+		}
+		return ByteArrayUtil.getInt(data, offset);
+	}
+
 	private boolean isNamespaceData(byte[] data) {
 		return data[0] != URI_VALUE && data[0] != BNODE_VALUE && data[0] != LITERAL_VALUE;
 	}
 
-	private NativeValue data2value(int id, byte[] data) throws IOException {
+	private NativeValue data2value(long id, byte[] data) throws IOException {
 		if (data.length == 0) {
 			if (SOFT_FAIL_ON_CORRUPT_DATA_AND_REPAIR_INDEXES) {
 				logger.error("Soft fail on corrupt data: Empty data array for value with id {}", id);
@@ -610,14 +710,16 @@ public class ValueStore extends SimpleValueFactory {
 		}
 	}
 
-	private <T extends IRI & NativeValue> T data2uri(int id, byte[] data) throws IOException {
+	private <T extends IRI & NativeValue> T data2uri(long id, byte[] data) throws IOException {
 		String namespace = null;
 
 		try {
-			int nsID = ByteArrayUtil.getInt(data, 1);
+			long nsID = readValueID(data, 1);
 			namespace = getNamespace(nsID);
 
-			String localName = new String(data, 5, data.length - 5, StandardCharsets.UTF_8);
+			int localNameOffset = 1 + idSize;
+			String localName = new String(data, localNameOffset, data.length - localNameOffset,
+					StandardCharsets.UTF_8);
 
 			return (T) new NativeIRI(revision, namespace, localName, id);
 		} catch (Throwable e) {
@@ -632,15 +734,15 @@ public class ValueStore extends SimpleValueFactory {
 
 	}
 
-	private NativeBNode data2bnode(int id, byte[] data) {
+	private NativeBNode data2bnode(long id, byte[] data) {
 		String nodeID = new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
 		return new NativeBNode(revision, nodeID, id);
 	}
 
-	private <T extends NativeValue & Literal> T data2literal(int id, byte[] data) throws IOException {
+	private <T extends NativeValue & Literal> T data2literal(long id, byte[] data) throws IOException {
 		try {
 			// Get datatype
-			int datatypeID = ByteArrayUtil.getInt(data, 1);
+			long datatypeID = readValueID(data, 1);
 			IRI datatype = null;
 			if (datatypeID != NativeValue.UNKNOWN_ID) {
 				datatype = (IRI) getValue(datatypeID);
@@ -648,13 +750,15 @@ public class ValueStore extends SimpleValueFactory {
 
 			// Get language tag
 			String lang = null;
-			int langLength = data[5];
+			int langOffset = 2 + idSize;
+			int langLength = data[langOffset - 1];
 			if (langLength > 0) {
-				lang = new String(data, 6, langLength, StandardCharsets.UTF_8);
+				lang = new String(data, langOffset, langLength, StandardCharsets.UTF_8);
 			}
 
 			// Get label
-			String label = new String(data, 6 + langLength, data.length - 6 - langLength, StandardCharsets.UTF_8);
+			int labelOffset = langOffset + langLength;
+			String label = new String(data, labelOffset, data.length - labelOffset, StandardCharsets.UTF_8);
 
 			if (lang != null) {
 				return (T) new NativeLiteral(revision, label, lang, id);
@@ -677,19 +781,19 @@ public class ValueStore extends SimpleValueFactory {
 		return new String(data, StandardCharsets.UTF_8);
 	}
 
-	private int getNamespaceID(String namespace, boolean create) throws IOException {
-		Integer cacheID = namespaceIDCache.get(namespace);
+	private long getNamespaceID(String namespace, boolean create) throws IOException {
+		Long cacheID = namespaceIDCache.get(namespace);
 		if (cacheID != null) {
 			return cacheID;
 		}
 
 		byte[] namespaceData = namespace.getBytes(StandardCharsets.UTF_8);
 
-		int id;
+		long id;
 		if (create) {
-			id = dataStore.storeData(namespaceData);
+			id = dataStore.storeLongID(namespaceData);
 		} else {
-			id = dataStore.getID(namespaceData);
+			id = dataStore.getLongID(namespaceData);
 		}
 
 		if (id != -1) {
@@ -699,8 +803,8 @@ public class ValueStore extends SimpleValueFactory {
 		return id;
 	}
 
-	private String getNamespace(int id) throws IOException {
-		Integer cacheID = id;
+	private String getNamespace(long id) throws IOException {
+		Long cacheID = id;
 		String namespace = namespaceCache.get(cacheID);
 
 		if (namespace == null) {
@@ -827,8 +931,8 @@ public class ValueStore extends SimpleValueFactory {
 		File dataDir = new File(args[0]);
 		ValueStore valueStore = new ValueStore(dataDir);
 
-		int maxID = valueStore.dataStore.getMaxID();
-		for (int id = 1; id <= maxID; id++) {
+		long maxID = valueStore.dataStore.getMaxLongID();
+		for (long id = 1; id <= maxID; id++) {
 			byte[] data = valueStore.dataStore.getData(id);
 			if (valueStore.isNamespaceData(data)) {
 				String ns = valueStore.data2namespace(data);
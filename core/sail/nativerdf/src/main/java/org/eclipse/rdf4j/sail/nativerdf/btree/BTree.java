@@ -39,6 +39,12 @@ import org.slf4j.LoggerFactory;
  * </ul>
  * The first reference was used to implement this class.
  * <p>
+ * Optionally, the values of leaf nodes can be stored in compressed form using {@link LeafCompression prefix
+ * compression}. The capacity of compressed leaf nodes is determined by the size of their encoded values instead of a
+ * fixed number of values, which allows a leaf node to hold many more values when adjacent values share long prefixes.
+ * Nodes are decoded when they are read from disk, so searches and iterators operate on the uncompressed form. Inner
+ * nodes are always stored uncompressed. The format of a B-Tree is determined when its file is created.
+ * <p>
  *
  * @author Arjohn Kampman
  * @author Enrico Minack
@@ -63,6 +69,11 @@ public class BTree implements Closeable {
 	 */
 	static final byte FILE_FORMAT_VERSION = 1;
 
+	/**
+	 * The file format version number of BTree files with compressed leaf nodes.
+	 */
+	static final byte COMPRESSED_FILE_FORMAT_VERSION = 2;
+
 	/**
 	 * The length of the header field.
 	 */
@@ -150,6 +161,40 @@ public class BTree implements Closeable {
 	 */
 	final int nodeSize;
 
+	/**
+	 * Flag indicating whether the values of leaf nodes are stored in compressed form.
+	 */
+	final boolean compressed;
+
+	/**
+	 * The maximum size of an encoded value in a compressed leaf node. Value derived from valueSize.
+	 */
+	final int maxEncodedValueSize;
+
+	/**
+	 * The number of bytes that are available for the encoded values of a compressed leaf node. Value derived from
+	 * nodeSize.
+	 */
+	final int leafDataSize;
+
+	/**
+	 * The minimum size of the encoded values of a compressed leaf node (except for the root). A leaf node below this
+	 * size can always be merged with a sibling that can't give up a value. Value derived from leafDataSize.
+	 */
+	final int minLeafDataSize;
+
+	/**
+	 * The maximum number of values of a leaf node plus one, analogous to branchFactor. For compressed leaf nodes this
+	 * is an upper bound that follows from the minimum size of an encoded value. Value derived from leafDataSize.
+	 */
+	final int leafBranchFactor;
+
+	/**
+	 * The size of the data array of a node in memory, which has room for one more value and node ID than a node
+	 * can hold. Value derived from branchFactor, leafBranchFactor and slotSize.
+	 */
+	final int nodeBufferSize;
+
 	/*-----------*
 	 * Variables *
 	 *-----------*/
@@ -242,6 +287,54 @@ public class BTree implements Closeable {
 	 */
 	public BTree(File dataDir, String filenamePrefix, int blockSize, int valueSize, RecordComparator comparator,
 			boolean forceSync) throws IOException {
+		this(dataDir, filenamePrefix, blockSize, valueSize, comparator, forceSync, false);
+	}
+
+	/**
+	 * Creates a new BTree that uses the supplied <var>RecordComparator</var> to compare the values that are or will be
+	 * stored in the B-Tree.
+	 *
+	 * @param dataDir        The directory for the BTree data.
+	 * @param filenamePrefix The prefix for all files used by this BTree.
+	 * @param blockSize      The size (in bytes) of a file block for a single node. Ideally, the size specified is the
+	 *                       size of a block in the used file system.
+	 * @param valueSize      The size (in bytes) of the fixed-length values that are or will be stored in the B-Tree.
+	 * @param comparator     The <var>RecordComparator</var> to use for determining whether one value is smaller, larger
+	 *                       or equal to another.
+	 * @param forceSync      Flag indicating whether updates should be synced to disk forcefully by calling
+	 *                       {@link FileChannel#force(boolean)}. This may have a severe impact on write performance.
+	 * @param compressed     Flag indicating whether the values of leaf nodes should be compressed. This only applies
+	 *                       if the B-Tree file is created; existing files keep their format, see
+	 *                       {@link #isCompressed()}.
+	 * @throws IOException In case the initialization of the B-Tree file failed.
+	 */
+	public BTree(File dataDir, String filenamePrefix, int blockSize, int valueSize, RecordComparator comparator,
+			boolean forceSync, boolean compressed) throws IOException {
+		this(dataDir, filenamePrefix, blockSize, valueSize, comparator, forceSync, compressed, false);
+	}
+
+	/**
+	 * Creates a new BTree that uses the supplied <var>RecordComparator</var> to compare the values that are or will be
+	 * stored in the B-Tree.
+	 *
+	 * @param dataDir        The directory for the BTree data.
+	 * @param filenamePrefix The prefix for all files used by this BTree.
+	 * @param blockSize      The size (in bytes) of a file block for a single node. Ideally, the size specified is the
+	 *                       size of a block in the used file system.
+	 * @param valueSize      The size (in bytes) of the fixed-length values that are or will be stored in the B-Tree.
+	 * @param comparator     The <var>RecordComparator</var> to use for determining whether one value is smaller, larger
+	 *                       or equal to another.
+	 * @param forceSync      Flag indicating whether updates should be synced to disk forcefully by calling
+	 *                       {@link FileChannel#force(boolean)}. This may have a severe impact on write performance.
+	 * @param compressed     Flag indicating whether the values of leaf nodes should be compressed. This only applies
+	 *                       if the B-Tree file is created; existing files keep their format, see
+	 *                       {@link #isCompressed()}.
+	 * @param memoryMapped   Flag indicating whether nodes should be read from memory-mapped segments of the B-Tree
+	 *                       file instead of through positional channel reads.
+	 * @throws IOException In case the initialization of the B-Tree file failed.
+	 */
+	public BTree(File dataDir, String filenamePrefix, int blockSize, int valueSize, RecordComparator comparator,
+			boolean forceSync, boolean compressed, boolean memoryMapped) throws IOException {
 		if (dataDir == null) {
 			throw new IllegalArgumentException("dataDir must not be null");
 		}
@@ -262,7 +355,7 @@ public class BTree implements Closeable {
 		}
 
 		File file = new File(dataDir, filenamePrefix + ".dat");
-		this.nioFile = new NioFile(file);
+		this.nioFile = new NioFile(file, "rw", memoryMapped);
 		this.comparator = comparator;
 		this.forceSync = forceSync;
 
@@ -275,6 +368,7 @@ public class BTree implements Closeable {
 			this.valueSize = valueSize;
 			this.rootNodeID = 0;
 			this.height = 0;
+			this.compressed = compressed;
 
 			writeFileHeader();
 
@@ -292,6 +386,7 @@ public class BTree implements Closeable {
 			this.blockSize = buf.getInt();
 			this.valueSize = buf.getInt();
 			this.rootNodeID = buf.getInt();
+			this.compressed = Arrays.equals(MAGIC_NUMBER, magicNumber) && version == COMPRESSED_FILE_FORMAT_VERSION;
 
 			if (rootNodeID == 0 && NativeStore.SOFT_FAIL_ON_CORRUPT_DATA_AND_REPAIR_INDEXES) {
 				if (nioFile.size() > blockSize) {
@@ -301,9 +396,9 @@ public class BTree implements Closeable {
 			}
 
 			if (Arrays.equals(MAGIC_NUMBER, magicNumber)) {
-				if (version > FILE_FORMAT_VERSION) {
+				if (version > COMPRESSED_FILE_FORMAT_VERSION) {
 					throw new IOException("Unable to read BTree file " + file + "; it uses a newer file format");
-				} else if (version != FILE_FORMAT_VERSION) {
+				} else if (version != FILE_FORMAT_VERSION && version != COMPRESSED_FILE_FORMAT_VERSION) {
 					throw new IOException(
 							"Unable to read BTree file " + file + "; invalid file format version: " + version);
 				}
@@ -333,6 +428,21 @@ public class BTree implements Closeable {
 		minValueCount = (branchFactor - 1) / 2;
 		nodeSize = 8 + (branchFactor - 1) * slotSize;
 
+		maxEncodedValueSize = LeafCompression.maxEncodedLength(this.valueSize);
+		leafDataSize = nodeSize - 8;
+		// the encoded values of an underflowing node, a sibling and their median value must fit into one node
+		minLeafDataSize = leafDataSize / 2 - maxEncodedValueSize;
+		if (this.compressed) {
+			if (leafDataSize < 4 * maxEncodedValueSize) {
+				throw new IllegalArgumentException("block size to small for compressed nodes");
+			}
+			// distinct values share at most valueSize - 1 bytes, so each encoded value takes at least two bytes
+			leafBranchFactor = 1 + leafDataSize / 2;
+		} else {
+			leafBranchFactor = branchFactor;
+		}
+		nodeBufferSize = 8 + Math.max(branchFactor, leafBranchFactor) * slotSize;
+
 		// System.out.println("blockSize=" + this.blockSize);
 		// System.out.println("valueSize=" + this.valueSize);
 		// System.out.println("slotSize=" + this.slotSize);
@@ -345,6 +455,13 @@ public class BTree implements Closeable {
 	 * Methods *
 	 *---------*/
 
+	/**
+	 * Checks whether the values of the leaf nodes of this BTree are stored in compressed form.
+	 */
+	public boolean isCompressed() {
+		return compressed;
+	}
+
 	/**
 	 * Gets the file that this BTree operates on.
 	 */
@@ -763,7 +880,16 @@ public class BTree implements Closeable {
 			// Do not replace the value if it's identical to the old
 			// value to prevent possibly unnecessary disk writes
 			if (!Arrays.equals(value, insertResult.oldValue)) {
-				node.setValue(valueIdx, value);
+				if (compressed && node.isLeaf()) {
+					// the new value may take more space in encoded form, re-insert it so that the node is split if
+					// necessary
+					node.removeValueRight(valueIdx);
+					byte[] oldValue = insertResult.oldValue;
+					insertResult = insertInNode(value, nodeID, valueIdx, node);
+					insertResult.oldValue = oldValue;
+				} else {
+					node.setValue(valueIdx, value);
+				}
 			}
 		} else {
 			// valueIdx references the first value that is larger than the key
@@ -949,7 +1075,9 @@ public class BTree implements Closeable {
 	}
 
 	private void balanceChildNode(Node parentNode, Node childNode, int childIdx) throws IOException {
-		if (childNode.getValueCount() < minValueCount) {
+		if (compressed && childNode.isLeaf()) {
+			balanceCompressedLeafNode(parentNode, childNode, childIdx);
+		} else if (childNode.getValueCount() < minValueCount) {
 			// Child node contains too few values, try to borrow one from its right
 			// sibling
 			Node rightSibling = (childIdx < parentNode.getValueCount()) ? parentNode.getChildNode(childIdx + 1) : null;
@@ -986,6 +1114,43 @@ public class BTree implements Closeable {
 		}
 	}
 
+	/**
+	 * Balances a compressed leaf node based on the size of its encoded values. The thresholds guarantee that a value
+	 * that is rotated into the child node and a merge of the child node with a sibling fit into a node.
+	 */
+	private void balanceCompressedLeafNode(Node parentNode, Node childNode, int childIdx) throws IOException {
+		if (!childNode.isEmpty() && childNode.getEncodedSize() >= minLeafDataSize) {
+			return;
+		}
+
+		Node rightSibling = (childIdx < parentNode.getValueCount()) ? parentNode.getChildNode(childIdx + 1) : null;
+		Node leftSibling = null;
+		try {
+			if (rightSibling != null && rightSibling.getEncodedSize() >= minLeafDataSize + maxEncodedValueSize) {
+				// Right sibling is large enough to give up a value
+				parentNode.rotateLeft(childIdx, childNode, rightSibling);
+				return;
+			}
+
+			leftSibling = (childIdx > 0) ? parentNode.getChildNode(childIdx - 1) : null;
+			if (leftSibling != null && leftSibling.getEncodedSize() >= minLeafDataSize + maxEncodedValueSize) {
+				// Left sibling is large enough to give up a value
+				parentNode.rotateRight(childIdx, leftSibling, childNode);
+			} else if (leftSibling != null) {
+				leftSibling.mergeWithRightSibling(parentNode.removeValueRight(childIdx - 1), childNode);
+			} else {
+				childNode.mergeWithRightSibling(parentNode.removeValueRight(childIdx), rightSibling);
+			}
+		} finally {
+			if (leftSibling != null) {
+				leftSibling.release();
+			}
+			if (rightSibling != null) {
+				rightSibling.release();
+			}
+		}
+	}
+
 	/**
 	 * Removes all values from the B-Tree.
 	 *
@@ -1057,7 +1222,7 @@ public class BTree implements Closeable {
 	private void writeFileHeader() throws IOException {
 		ByteBuffer buf = ByteBuffer.allocate(HEADER_LENGTH);
 		buf.put(MAGIC_NUMBER);
-		buf.put(FILE_FORMAT_VERSION);
+		buf.put(compressed ? COMPRESSED_FILE_FORMAT_VERSION : FILE_FORMAT_VERSION);
 		buf.putInt(blockSize);
 		buf.putInt(valueSize);
 		buf.putInt(rootNodeID);
@@ -1087,18 +1252,28 @@ public class BTree implements Closeable {
 		out.println("branch factor   = " + branchFactor);
 		out.println("min value count = " + minValueCount);
 		out.println("node size       = " + nodeSize);
+		out.println("compressed      = " + compressed);
 		out.println();
 
 		int nodeCount = 0;
 		int valueCount = 0;
 
-		ByteBuffer buf = ByteBuffer.allocate(nodeSize);
+		byte[] nodeData = new byte[nodeBufferSize];
+		ByteBuffer buf = ByteBuffer.wrap(nodeData);
 		for (long offset = blockSize; offset < nioFile.size(); offset += blockSize) {
+			buf.limit(nodeSize);
 			nioFile.read(buf, offset);
 			buf.rewind();
 
 			int nodeID = offset2nodeID(offset);
 			int count = buf.getInt();
+			if (compressed && ByteArrayUtil.getInt(nodeData, 4) == 0) {
+				// decode the values of the leaf node into the uncompressed layout
+				byte[] encoded = Arrays.copyOfRange(nodeData, 8, nodeSize);
+				Arrays.fill(nodeData, 8, nodeData.length, (byte) 0);
+				LeafCompression.decode(encoded, 0, count, slotSize, valueSize, nodeData);
+				buf.limit(nodeData.length);
+			}
 			nodeCount++;
 			valueCount += count;
 			out.print("node " + nodeID + ": ");
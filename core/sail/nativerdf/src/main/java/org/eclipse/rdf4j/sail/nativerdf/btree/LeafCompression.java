@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.nativerdf.btree;
+
+/**
+ * Encoding of the values of leaf nodes in compressed B-Trees. Values are stored in sorted order, so adjacent values
+ * usually share a long common prefix, for example the subject and predicate IDs in an SPOC index. Each value is
+ * therefore encoded as the length of the prefix that it shares with the previous value, written as an unsigned varint,
+ * followed by the remaining bytes of the value. The first value of a node is encoded with a prefix length of
+ * <var>0</var>.
+ * <p>
+ * The methods operate on the in-memory layout of a {@link Node}, which stores the value with index <var>i</var> at
+ * offset <var>8 + i * slotSize</var>.
+ */
+final class LeafCompression {
+
+	private LeafCompression() {
+	}
+
+	/**
+	 * Returns the number of bytes of an unsigned varint.
+	 */
+	static int varintLength(int value) {
+		int length = 1;
+		while ((value >>>= 7) != 0) {
+			length++;
+		}
+		return length;
+	}
+
+	/**
+	 * Returns the maximum number of bytes of a single encoded value, which is a value that shares no prefix with its
+	 * predecessor.
+	 */
+	static int maxEncodedLength(int valueSize) {
+		return 1 + valueSize;
+	}
+
+	/**
+	 * Returns the length of the common prefix of two values in the node data.
+	 */
+	static int commonPrefix(byte[] data, int offset1, int offset2, int valueSize) {
+		int i = 0;
+		while (i < valueSize && data[offset1 + i] == data[offset2 + i]) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Returns the encoded length of the value at <var>valueIdx</var>, given that it follows the value at
+	 * <var>prevIdx</var>, or is the first value of a node if <var>prevIdx</var> is negative.
+	 */
+	static int encodedLength(byte[] data, int prevIdx, int valueIdx, int slotSize, int valueSize) {
+		int prefix = prevIdx < 0 ? 0
+				: commonPrefix(data, valueOffset(prevIdx, slotSize), valueOffset(valueIdx, slotSize), valueSize);
+		return varintLength(prefix) + valueSize - prefix;
+	}
+
+	/**
+	 * Returns the number of bytes that are required to encode the values with index <var>0</var> (inclusive) to
+	 * <var>count</var> (exclusive).
+	 */
+	static int encodedLength(byte[] data, int count, int slotSize, int valueSize) {
+		int length = 0;
+		for (int i = 0; i < count; i++) {
+			length += encodedLength(data, i - 1, i, slotSize, valueSize);
+		}
+		return length;
+	}
+
+	/**
+	 * Encodes the first <var>count</var> values of the node data.
+	 *
+	 * @return the offset in <var>dest</var> after the last encoded value
+	 */
+	static int encode(byte[] data, int count, int slotSize, int valueSize, byte[] dest, int destOffset) {
+		int pos = destOffset;
+		for (int i = 0; i < count; i++) {
+			int offset = valueOffset(i, slotSize);
+			int prefix = i == 0 ? 0 : commonPrefix(data, valueOffset(i - 1, slotSize), offset, valueSize);
+
+			int v = prefix;
+			while ((v & ~0x7F) != 0) {
+				dest[pos++] = (byte) ((v & 0x7F) | 0x80);
+				v >>>= 7;
+			}
+			dest[pos++] = (byte) v;
+
+			System.arraycopy(data, offset + prefix, dest, pos, valueSize - prefix);
+			pos += valueSize - prefix;
+		}
+		return pos;
+	}
+
+	/**
+	 * Decodes <var>count</var> values into the node data, leaving the child node IDs untouched.
+	 */
+	static void decode(byte[] src, int srcOffset, int count, int slotSize, int valueSize, byte[] data) {
+		int pos = srcOffset;
+		for (int i = 0; i < count; i++) {
+			int prefix = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = src[pos++];
+				prefix |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+
+			int offset = valueOffset(i, slotSize);
+			if (prefix > 0) {
+				System.arraycopy(data, valueOffset(i - 1, slotSize), data, offset, prefix);
+			}
+			System.arraycopy(src, pos, data, offset + prefix, valueSize - prefix);
+			pos += valueSize - prefix;
+		}
+	}
+
+	private static int valueOffset(int valueIdx, int slotSize) {
+		return 8 + valueIdx * slotSize;
+	}
+}
@@ -71,7 +71,7 @@ class Node {
 
 		// Allocate enough room to store one more value and node ID;
 		// this greatly simplifies the algorithm for splitting a node.
-		this.data = new byte[tree.nodeSize + tree.slotSize];
+		this.data = new byte[tree.nodeBufferSize];
 	}
 
 	public int getID() {
@@ -130,9 +130,27 @@ class Node {
 	}
 
 	public boolean isFull() {
+		if (isCompressedLeaf()) {
+			return valueCount == tree.leafBranchFactor - 1
+					|| getEncodedSize() + tree.maxEncodedValueSize > tree.leafDataSize;
+		}
 		return valueCount == tree.branchFactor - 1;
 	}
 
+	/**
+	 * Checks whether this node is a leaf node whose values are stored in compressed form.
+	 */
+	private boolean isCompressedLeaf() {
+		return tree.compressed && isLeaf();
+	}
+
+	/**
+	 * Returns the number of bytes that are required to store the values of this node in compressed form.
+	 */
+	public int getEncodedSize() {
+		return LeafCompression.encodedLength(data, valueCount, tree.slotSize, tree.valueSize);
+	}
+
 	public byte[] getValue(int valueIdx) {
 		assert valueIdx >= 0 : "valueIdx must be positive, is: " + valueIdx;
 		assert valueIdx < valueCount : "valueIdx out of range (" + valueIdx + " >= " + valueCount + ")";
@@ -323,14 +341,20 @@ class Node {
 		// can be done because data got one spare slot when it was allocated.
 		insertValueNodeIDPair(newValueIdx, newValue, newNodeID);
 
-		assert valueCount == tree.branchFactor : "Node contains " + valueCount + " values, expected "
-				+ tree.branchFactor;
+		int medianIdx;
+		if (isCompressedLeaf()) {
+			// Split the encoded values into two halves of about the same size
+			medianIdx = getEncodedMedianIdx();
+		} else {
+			assert valueCount == tree.branchFactor : "Node contains " + valueCount + " values, expected "
+					+ tree.branchFactor;
+			medianIdx = tree.branchFactor / 2;
+		}
+		int totalValueCount = valueCount;
 
-		// Node now contains exactly [branchFactor] values. The median
-		// value at index [branchFactor/2] is moved to the parent
-		// node, the values left of the median stay in this node, the
-		// values right of the median are moved to the new node.
-		int medianIdx = tree.branchFactor / 2;
+		// The median value is moved to the parent node, the values
+		// left of the median stay in this node, the values right of
+		// the median are moved to the new node.
 		int medianOffset = valueIdx2offset(medianIdx);
 		int splitOffset = medianOffset + tree.valueSize;
 
@@ -346,7 +370,7 @@ class Node {
 
 		// Update the value counts
 		setValueCount(medianIdx);
-		newNode.setValueCount(tree.branchFactor - medianIdx - 1);
+		newNode.setValueCount(totalValueCount - medianIdx - 1);
 		newNode.dataChanged = true;
 
 		notifyNodeSplit(newNode, medianIdx);
@@ -355,10 +379,30 @@ class Node {
 		return medianValue;
 	}
 
+	/**
+	 * Returns the index of the value at which the encoded values of this compressed leaf node are split in halves of
+	 * about the same size.
+	 */
+	private int getEncodedMedianIdx() {
+		int halfSize = getEncodedSize() / 2;
+		int size = 0;
+		int medianIdx = 0;
+		while (medianIdx < valueCount - 2) {
+			size += LeafCompression.encodedLength(data, medianIdx - 1, medianIdx, tree.slotSize, tree.valueSize);
+			if (size >= halfSize) {
+				break;
+			}
+			medianIdx++;
+		}
+		// keep at least one value in each half
+		return Math.max(1, medianIdx);
+	}
+
 	public void mergeWithRightSibling(byte[] medianValue, Node rightSibling) throws IOException {
 		assert valueCount + rightSibling.getValueCount()
-				+ 1 < tree.branchFactor : "Nodes contain too many values to be merged; left: " + valueCount
-						+ "; right: " + rightSibling.getValueCount();
+				+ 1 < (isCompressedLeaf() ? tree.leafBranchFactor : tree.branchFactor)
+				: "Nodes contain too many values to be merged; left: " + valueCount + "; right: "
+						+ rightSibling.getValueCount();
 
 		// Append median value from parent node
 		insertValueNodeIDPair(valueCount, medianValue, 0);
@@ -470,13 +514,32 @@ class Node {
 				+ tree.nodeSize + " bytes)";
 
 		valueCount = ByteArrayUtil.getInt(data, 0);
+
+		if (isCompressedLeaf() && valueCount > 0) {
+			// The values follow the header in encoded form, decode them into the regular slots
+			byte[] encoded = Arrays.copyOfRange(data, 8, tree.nodeSize);
+			clearData(8, tree.nodeSize);
+			LeafCompression.decode(encoded, 0, valueCount, tree.slotSize, tree.valueSize, data);
+		}
 	}
 
 	public void write() throws IOException {
-		ByteBuffer buf = ByteBuffer.wrap(data);
+		ByteBuffer buf;
+		if (isCompressedLeaf()) {
+			// Write the header (value count and a zero node ID marking a leaf) followed by the encoded values
+			if (getEncodedSize() > tree.leafDataSize) {
+				throw new IOException("Compressed values of " + this + " exceed the node size in " + tree.getFile());
+			}
+			byte[] encoded = new byte[tree.nodeSize];
+			System.arraycopy(data, 0, encoded, 0, 8);
+			LeafCompression.encode(data, valueCount, tree.slotSize, tree.valueSize, encoded, 8);
+			buf = ByteBuffer.wrap(encoded);
+		} else {
+			buf = ByteBuffer.wrap(data);
 
-		// Don't write the spare slot in data to the file:
-		buf.limit(tree.nodeSize);
+			// Don't write the spare slot in data to the file:
+			buf.limit(tree.nodeSize);
+		}
 
 		int bytesWritten = tree.nioFile.write(buf, tree.nodeID2offset(id));
 		assert bytesWritten == tree.nodeSize : "Write operation didn't write the entire node (" + bytesWritten + " of "
@@ -11,9 +11,13 @@
 package org.eclipse.rdf4j.sail.nativerdf.config;
 
 import static org.eclipse.rdf4j.model.util.Values.literal;
+import static org.eclipse.rdf4j.sail.nativerdf.config.NativeStoreSchema.COMPRESS_INDEXES;
 import static org.eclipse.rdf4j.sail.nativerdf.config.NativeStoreSchema.FORCE_SYNC;
+import static org.eclipse.rdf4j.sail.nativerdf.config.NativeStoreSchema.LONG_VALUE_IDS;
+import static org.eclipse.rdf4j.sail.nativerdf.config.NativeStoreSchema.MEMORY_MAPPED_READS;
 import static org.eclipse.rdf4j.sail.nativerdf.config.NativeStoreSchema.NAMESPACE_CACHE_SIZE;
 import static org.eclipse.rdf4j.sail.nativerdf.config.NativeStoreSchema.NAMESPACE_ID_CACHE_SIZE;
+import static org.eclipse.rdf4j.sail.nativerdf.config.NativeStoreSchema.ONLINE_REINDEX;
 import static org.eclipse.rdf4j.sail.nativerdf.config.NativeStoreSchema.TRIPLE_INDEXES;
 import static org.eclipse.rdf4j.sail.nativerdf.config.NativeStoreSchema.VALUE_CACHE_SIZE;
 import static org.eclipse.rdf4j.sail.nativerdf.config.NativeStoreSchema.VALUE_ID_CACHE_SIZE;
@@ -33,6 +37,10 @@ public class NativeStoreConfig extends BaseSailConfig {
 
 	private String tripleIndexes;
 	private boolean forceSync = false;
+	private boolean compressIndexes = false;
+	private boolean longValueIDs = false;
+	private boolean memoryMappedReads = false;
+	private boolean onlineReindex = false;
 	private int valueCacheSize = -1;
 	private int valueIDCacheSize = -1;
 	private int namespaceCacheSize = -1;
@@ -72,6 +80,38 @@ public class NativeStoreConfig extends BaseSailConfig {
 		this.forceSync = forceSync;
 	}
 
+	public boolean getCompressIndexes() {
+		return compressIndexes;
+	}
+
+	public void setCompressIndexes(boolean compressIndexes) {
+		this.compressIndexes = compressIndexes;
+	}
+
+	public boolean getLongValueIDs() {
+		return longValueIDs;
+	}
+
+	public void setLongValueIDs(boolean longValueIDs) {
+		this.longValueIDs = longValueIDs;
+	}
+
+	public boolean getMemoryMappedReads() {
+		return memoryMappedReads;
+	}
+
+	public void setMemoryMappedReads(boolean memoryMappedReads) {
+		this.memoryMappedReads = memoryMappedReads;
+	}
+
+	public boolean getOnlineReindex() {
+		return onlineReindex;
+	}
+
+	public void setOnlineReindex(boolean onlineReindex) {
+		this.onlineReindex = onlineReindex;
+	}
+
 	public int getValueCacheSize() {
 		return valueCacheSize;
 	}
@@ -119,6 +159,18 @@ public class NativeStoreConfig extends BaseSailConfig {
 		if (forceSync) {
 			m.add(implNode, CONFIG.Native.forceSync, literal(forceSync));
 		}
+		if (compressIndexes) {
+			m.add(implNode, CONFIG.Native.compressIndexes, literal(compressIndexes));
+		}
+		if (longValueIDs) {
+			m.add(implNode, CONFIG.Native.longValueIDs, literal(longValueIDs));
+		}
+		if (memoryMappedReads) {
+			m.add(implNode, CONFIG.Native.memoryMappedReads, literal(memoryMappedReads));
+		}
+		if (onlineReindex) {
+			m.add(implNode, CONFIG.Native.onlineReindex, literal(onlineReindex));
+		}
 		if (valueCacheSize >= 0) {
 			m.add(implNode, CONFIG.Native.valueCacheSize, literal(valueCacheSize));
 		}
@@ -145,6 +197,18 @@ public class NativeStoreConfig extends BaseSailConfig {
 		if (forceSync) {
 			m.add(implNode, FORCE_SYNC, literal(forceSync));
 		}
+		if (compressIndexes) {
+			m.add(implNode, COMPRESS_INDEXES, literal(compressIndexes));
+		}
+		if (longValueIDs) {
+			m.add(implNode, LONG_VALUE_IDS, literal(longValueIDs));
+		}
+		if (memoryMappedReads) {
+			m.add(implNode, MEMORY_MAPPED_READS, literal(memoryMappedReads));
+		}
+		if (onlineReindex) {
+			m.add(implNode, ONLINE_REINDEX, literal(onlineReindex));
+		}
 		if (valueCacheSize >= 0) {
 			m.add(implNode, VALUE_CACHE_SIZE, literal(valueCacheSize));
 		}
@@ -181,6 +245,50 @@ public class NativeStoreConfig extends BaseSailConfig {
 						}
 					});
 
+			Configurations.getLiteralValue(m, implNode, CONFIG.Native.compressIndexes, COMPRESS_INDEXES)
+					.ifPresent(lit -> {
+						try {
+							setCompressIndexes(lit.booleanValue());
+						} catch (IllegalArgumentException e) {
+							throw new SailConfigException(
+									"Boolean value required for " + CONFIG.Native.compressIndexes
+											+ " property, found " + lit);
+						}
+					});
+
+			Configurations.getLiteralValue(m, implNode, CONFIG.Native.longValueIDs, LONG_VALUE_IDS)
+					.ifPresent(lit -> {
+						try {
+							setLongValueIDs(lit.booleanValue());
+						} catch (IllegalArgumentException e) {
+							throw new SailConfigException(
+									"Boolean value required for " + CONFIG.Native.longValueIDs
+											+ " property, found " + lit);
+						}
+					});
+
+			Configurations.getLiteralValue(m, implNode, CONFIG.Native.memoryMappedReads, MEMORY_MAPPED_READS)
+					.ifPresent(lit -> {
+						try {
+							setMemoryMappedReads(lit.booleanValue());
+						} catch (IllegalArgumentException e) {
+							throw new SailConfigException(
+									"Boolean value required for " + CONFIG.Native.memoryMappedReads
+											+ " property, found " + lit);
+						}
+					});
+
+			Configurations.getLiteralValue(m, implNode, CONFIG.Native.onlineReindex, ONLINE_REINDEX)
+					.ifPresent(lit -> {
+						try {
+							setOnlineReindex(lit.booleanValue());
+						} catch (IllegalArgumentException e) {
+							throw new SailConfigException(
+									"Boolean value required for " + CONFIG.Native.onlineReindex
+											+ " property, found " + lit);
+						}
+					});
+
 			Configurations.getLiteralValue(m, implNode, CONFIG.Native.valueCacheSize, VALUE_CACHE_SIZE)
 					.ifPresent(lit -> {
 						try {
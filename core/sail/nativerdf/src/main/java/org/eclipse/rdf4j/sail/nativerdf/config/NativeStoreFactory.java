@@ -58,6 +58,10 @@ public class NativeStoreFactory implements SailFactory {
 			nativeConfig.getDefaultQueryEvaluationMode().ifPresent(nativeStore::setDefaultQueryEvaluationMode);
 			nativeStore.setTripleIndexes(nativeConfig.getTripleIndexes());
 			nativeStore.setForceSync(nativeConfig.getForceSync());
+			nativeStore.setCompressIndexes(nativeConfig.getCompressIndexes());
+			nativeStore.setLongValueIDs(nativeConfig.getLongValueIDs());
+			nativeStore.setMemoryMappedReads(nativeConfig.getMemoryMappedReads());
+			nativeStore.setOnlineReindex(nativeConfig.getOnlineReindex());
 
 			if (nativeConfig.getValueCacheSize() >= 0) {
 				nativeStore.setValueCacheSize(nativeConfig.getValueCacheSize());
@@ -73,6 +73,34 @@ public class NativeStoreSchema {
 	 */
 	public final static IRI NAMESPACE_ID_CACHE_SIZE;
 
+	/**
+	 * <var>http://www.openrdf.org/config/sail/native#compressIndexes</var>
+	 *
+	 * @deprecated use {@link CONFIG.Native#compressIndexes} instead.
+	 */
+	public final static IRI COMPRESS_INDEXES;
+
+	/**
+	 * <var>http://www.openrdf.org/config/sail/native#longValueIDs</var>
+	 *
+	 * @deprecated use {@link CONFIG.Native#longValueIDs} instead.
+	 */
+	public final static IRI LONG_VALUE_IDS;
+
+	/**
+	 * <var>http://www.openrdf.org/config/sail/native#memoryMappedReads</var>
+	 *
+	 * @deprecated use {@link CONFIG.Native#memoryMappedReads} instead.
+	 */
+	public final static IRI MEMORY_MAPPED_READS;
+
+	/**
+	 * <var>http://www.openrdf.org/config/sail/native#onlineReindex</var>
+	 *
+	 * @deprecated use {@link CONFIG.Native#onlineReindex} instead.
+	 */
+	public final static IRI ONLINE_REINDEX;
+
 	static {
 		ValueFactory factory = SimpleValueFactory.getInstance();
 		TRIPLE_INDEXES = factory.createIRI(NAMESPACE, "tripleIndexes");
@@ -81,5 +109,9 @@ public class NativeStoreSchema {
 		VALUE_ID_CACHE_SIZE = factory.createIRI(NAMESPACE, "valueIDCacheSize");
 		NAMESPACE_CACHE_SIZE = factory.createIRI(NAMESPACE, "namespaceCacheSize");
 		NAMESPACE_ID_CACHE_SIZE = factory.createIRI(NAMESPACE, "namespaceIDCacheSize");
+		COMPRESS_INDEXES = factory.createIRI(NAMESPACE, "compressIndexes");
+		LONG_VALUE_IDS = factory.createIRI(NAMESPACE, "longValueIDs");
+		MEMORY_MAPPED_READS = factory.createIRI(NAMESPACE, "memoryMappedReads");
+		ONLINE_REINDEX = factory.createIRI(NAMESPACE, "onlineReindex");
 	}
 }
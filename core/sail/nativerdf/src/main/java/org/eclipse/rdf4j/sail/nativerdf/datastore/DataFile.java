@@ -73,7 +73,16 @@ public class DataFile implements Closeable {
 	}
 
 	public DataFile(File file, boolean forceSync) throws IOException {
-		this.nioFile = new NioFile(file);
+		this(file, forceSync, false);
+	}
+
+	/**
+	 * Creates a new data file or opens an existing one.
+	 *
+	 * @param memoryMapped Flag indicating whether reads should be served from memory-mapped segments of the file.
+	 */
+	public DataFile(File file, boolean forceSync, boolean memoryMapped) throws IOException {
+		this.nioFile = new NioFile(file, "rw", memoryMapped);
 		this.forceSync = forceSync;
 
 		try {
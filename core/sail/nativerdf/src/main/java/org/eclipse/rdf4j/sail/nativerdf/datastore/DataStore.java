@@ -35,6 +35,9 @@ public class DataStore implements Closeable {
 
 	private final HashFile hashFile;
 
+	// The largest ID that can be assigned by this store
+	private final long maxAssignableID;
+
 	/*--------------*
 	 * Constructors *
 	 *--------------*/
@@ -44,9 +47,28 @@ public class DataStore implements Closeable {
 	}
 
 	public DataStore(File dataDir, String filePrefix, boolean forceSync) throws IOException {
-		dataFile = new DataFile(new File(dataDir, filePrefix + ".dat"), forceSync);
-		idFile = new IDFile(new File(dataDir, filePrefix + ".id"), forceSync);
-		hashFile = new HashFile(new File(dataDir, filePrefix + ".hash"), forceSync);
+		this(dataDir, filePrefix, forceSync, false);
+	}
+
+	public DataStore(File dataDir, String filePrefix, boolean forceSync, boolean longIDs) throws IOException {
+		this(dataDir, filePrefix, forceSync, longIDs, false);
+	}
+
+	/**
+	 * Creates a new DataStore or opens an existing one.
+	 *
+	 * @param longIDs      Flag indicating whether a new store should use 64-bit IDs. This flag is ignored for
+	 *                     existing stores, which keep the ID size that they were created with.
+	 * @param memoryMapped Flag indicating whether the data, ID and hash files should be read through memory-mapped
+	 *                     segments.
+	 */
+	public DataStore(File dataDir, String filePrefix, boolean forceSync, boolean longIDs, boolean memoryMapped)
+			throws IOException {
+		dataFile = new DataFile(new File(dataDir, filePrefix + ".dat"), forceSync, memoryMapped);
+		idFile = new IDFile(new File(dataDir, filePrefix + ".id"), forceSync, memoryMapped);
+		hashFile = new HashFile(new File(dataDir, filePrefix + ".hash"), forceSync, 512,
+				longIDs && idFile.getMaxID() == 0, memoryMapped);
+		maxAssignableID = hashFile.hasLongIDs() ? Long.MAX_VALUE : Integer.MAX_VALUE;
 	}
 
 	/*---------*
@@ -60,7 +82,7 @@ public class DataStore implements Closeable {
 	 * @return The value for the ID, or <var>null</var> if no such value could be found.
 	 * @throws IOException If an I/O error occurred.
 	 */
-	public byte[] getData(int id) throws IOException {
+	public byte[] getData(long id) throws IOException {
 		assert id > 0 : "id must be larger than 0, is: " + id;
 
 		// Data not in cache or cache not used, fetch from file
@@ -73,6 +95,14 @@ public class DataStore implements Closeable {
 		return null;
 	}
 
+	/**
+	 * @deprecated use {@link #getData(long)}
+	 */
+	@Deprecated(since = "5.1.3")
+	public byte[] getData(int id) throws IOException {
+		return getData((long) id);
+	}
+
 	/**
 	 * Gets the ID for the specified value.
 	 *
@@ -80,10 +110,10 @@ public class DataStore implements Closeable {
 	 * @return The ID for the specified value, or <var>-1</var> if no such ID could be found.
 	 * @throws IOException If an I/O error occurred.
 	 */
-	public int getID(byte[] queryData) throws IOException {
+	public long getLongID(byte[] queryData) throws IOException {
 		assert queryData != null : "queryData must not be null";
 
-		int id;
+		long id;
 
 		// Value not in cache or cache not used, fetch from file
 		int hash = getDataHash(queryData);
@@ -105,15 +135,41 @@ public class DataStore implements Closeable {
 		return id;
 	}
 
+	/**
+	 * @throws ArithmeticException if the ID does not fit in an int, which only happens in stores with 64-bit IDs
+	 * @deprecated use {@link #getLongID(byte[])}, which supports stores with 64-bit IDs
+	 */
+	@Deprecated(since = "5.1.3")
+	public int getID(byte[] queryData) throws IOException {
+		return Math.toIntExact(getLongID(queryData));
+	}
+
 	/**
 	 * Returns the maximum value-ID that is in use.
 	 *
 	 * @return The largest ID, or <var>0</var> if the store does not contain any values.
 	 */
-	public int getMaxID() {
+	public long getMaxLongID() {
 		return idFile.getMaxID();
 	}
 
+	/**
+	 * @throws ArithmeticException if the ID does not fit in an int, which only happens in stores with 64-bit IDs
+	 * @deprecated use {@link #getMaxLongID()}, which supports stores with 64-bit IDs
+	 */
+	@Deprecated(since = "5.1.3")
+	public int getMaxID() {
+		return Math.toIntExact(getMaxLongID());
+	}
+
+	/**
+	 * Checks whether this store uses 64-bit IDs. Stores with 32-bit IDs can hold at most {@link Integer#MAX_VALUE}
+	 * values.
+	 */
+	public boolean hasLongIDs() {
+		return hashFile.hasLongIDs();
+	}
+
 	/**
 	 * Stores the supplied value and returns the ID that has been assigned to it. In case the data to store is already
 	 * present, the ID of this existing data is returned.
@@ -122,13 +178,16 @@ public class DataStore implements Closeable {
 	 * @return The ID that has been assigned to the value.
 	 * @throws IOException If an I/O error occurred.
 	 */
-	public int storeData(byte[] data) throws IOException {
+	public long storeLongID(byte[] data) throws IOException {
 		assert data != null : "data must not be null";
 
-		int id = getID(data);
+		long id = getLongID(data);
 
 		if (id == -1) {
 			// Data not stored yet, store it under a new ID.
+			if (idFile.getMaxID() >= maxAssignableID) {
+				throw new IOException("Unable to store data; the maximum number of IDs has been reached");
+			}
 			long offset = dataFile.storeData(data);
 			id = idFile.storeOffset(offset);
 			hashFile.storeID(getDataHash(data), id);
@@ -137,6 +196,15 @@ public class DataStore implements Closeable {
 		return id;
 	}
 
+	/**
+	 * @throws ArithmeticException if the ID does not fit in an int, which only happens in stores with 64-bit IDs
+	 * @deprecated use {@link #storeLongID(byte[])}, which supports stores with 64-bit IDs
+	 */
+	@Deprecated(since = "5.1.3")
+	public int storeData(byte[] data) throws IOException {
+		return Math.toIntExact(storeLongID(data));
+	}
+
 	/**
 	 * Synchronizes any recent changes to the data to disk.
 	 *
@@ -24,6 +24,12 @@ import org.eclipse.rdf4j.common.io.NioFile;
 
 /**
  * Class supplying access to a hash file.
+ * <p>
+ * Hash files with file format version 1 store 32-bit IDs. When the number of items exceeds the load factor, the number
+ * of buckets is doubled and all items are rehashed in one go. Version 2 stores 64-bit IDs and grows incrementally
+ * using linear hashing: every time the load factor is exceeded, a single bucket is split into itself and a new bucket
+ * that is appended to the file. The overflow buckets of version 2 files are kept in a separate file, so that the table
+ * can grow without moving them, and overflow buckets that are released by a split are reused.
  *
  * @author Arjohn Kampman
  */
@@ -36,6 +42,9 @@ public class HashFile implements Closeable {
 	// The size of an item (32-bit hash + 32-bit ID), in bytes
 	private static final int ITEM_SIZE = 8;
 
+	// The size of an item in version 2 files (32-bit hash + 64-bit ID), in bytes
+	private static final int LONG_ITEM_SIZE = 12;
+
 	/**
 	 * Magic number "Native Hash File" to detect whether the file is actually a hash file. The first three bytes of the
 	 * file should be equal to this magic number.
@@ -47,35 +56,84 @@ public class HashFile implements Closeable {
 	 */
 	private static final byte FILE_FORMAT_VERSION = 1;
 
+	/**
+	 * File format version of hash files with 64-bit IDs and linear hashing.
+	 */
+	private static final byte LONG_ID_FILE_FORMAT_VERSION = 2;
+
 	/**
 	 * The size of the file header in bytes. The file header contains the following data: magic number (3 bytes) file
 	 * format version (1 byte), number of buckets (4 bytes), bucket size (4 bytes) and number of stored items (4 bytes).
 	 */
 	private static final long HEADER_LENGTH = 16;
 
+	/**
+	 * The size of the file header of version 2 files in bytes. The file header contains the following data: magic
+	 * number (3 bytes), file format version (1 byte), bucket size (4 bytes), number of buckets at the start of the
+	 * current split round (4 bytes), split pointer (4 bytes), number of stored items (8 bytes), number of overflow
+	 * buckets (4 bytes) and the ID of the first free overflow bucket (4 bytes).
+	 */
+	private static final long LONG_ID_HEADER_LENGTH = 32;
+
 	private static final int INIT_BUCKET_SIZE = 8;
 
+	/**
+	 * Linear hashing stops splitting buckets beyond this number of buckets, which keeps the bucket numbers of the next
+	 * split round within the integer range.
+	 */
+	private static final int MAX_BUCKET_COUNT = 1 << 30;
+
+	/**
+	 * Suffix of the file that contains the overflow buckets of version 2 files.
+	 */
+	private static final String OVERFLOW_FILE_SUFFIX = ".ovf";
+
 	/*-----------*
 	 * Variables *
 	 *-----------*/
 
 	private final NioFile nioFile;
 
+	// The file containing the overflow buckets, this is the hash file itself for version 1 files
+	private final NioFile overflowFile;
+
 	private final boolean forceSync;
 
+	// Flag indicating whether the file stores 64-bit IDs and uses linear hashing (file format version 2)
+	private final boolean longIDs;
+
+	private final long headerLength;
+
+	// The size of an item in bytes
+	private final int itemSize;
+
 	// The number of (non-overflow) buckets in the hash file
 	private volatile int bucketCount;
 
+	// The number of buckets at the start of the current round of bucket splits (version 2 only)
+	private volatile int levelBucketCount;
+
+	// The number of the next bucket to split; buckets below this number have already been split in the current round
+	// (version 2 only)
+	private volatile int splitPointer;
+
+	// The number of overflow buckets in the overflow file (version 2 only)
+	private int overflowBucketCount;
+
+	// The ID of the first overflow bucket in the list of released overflow buckets, or 0 if the list is empty
+	// (version 2 only)
+	private int freeOverflowBucketID;
+
 	// The number of items that can be stored in a bucket
 	private final int bucketSize;
 
 	// The number of items in the hash file
-	private volatile int itemCount;
+	private volatile long itemCount;
 
 	// Load factor (fixed, for now)
 	private final float loadFactor;
 
-	// recordSize = ITEM_SIZE * bucketSize + 4
+	// recordSize = itemSize * bucketSize + 4
 	private final int recordSize;
 
 	// first prime > 5MB
@@ -102,30 +160,43 @@ public class HashFile implements Closeable {
 	}
 
 	public HashFile(File file, boolean forceSync, int initialSize) throws IOException {
-		this.nioFile = new NioFile(file);
+		this(file, forceSync, initialSize, false);
+	}
+
+	public HashFile(File file, boolean forceSync, int initialSize, boolean longIDs) throws IOException {
+		this(file, forceSync, initialSize, longIDs, false);
+	}
+
+	/**
+	 * Creates a new hash file or opens an existing one.
+	 *
+	 * @param longIDs      Flag indicating whether a new hash file should store 64-bit IDs. This flag is ignored for
+	 *                     existing files, which keep the format that they were created with.
+	 * @param memoryMapped Flag indicating whether reads should be served from memory-mapped segments of the file.
+	 */
+	public HashFile(File file, boolean forceSync, int initialSize, boolean longIDs, boolean memoryMapped)
+			throws IOException {
+		this.nioFile = new NioFile(file, "rw", memoryMapped);
 		this.forceSync = forceSync;
 		loadFactor = 0.75f;
 
+		NioFile overflowFile = null;
 		try {
 			if (nioFile.size() == 0L) {
 				// Empty file, insert bucket count, bucket size
 				// and item count at the start of the file
 
+				this.longIDs = longIDs;
 				// the bucket count handles sizes not divisible by INIT_BUCKET_SIZE
 				bucketCount = (int) Math.ceil(initialSize * 1.0 / INIT_BUCKET_SIZE);
+				levelBucketCount = bucketCount;
 				bucketSize = INIT_BUCKET_SIZE;
 				itemCount = 0;
-				recordSize = ITEM_SIZE * bucketSize + 4;
-
-				// Initialize the file by writing <_bucketCount> empty buckets
-				writeEmptyBuckets(HEADER_LENGTH, bucketCount);
-
-				sync();
 			} else {
 				// Read bucket count, bucket size and item count from the file
-				ByteBuffer buf = ByteBuffer.allocate((int) HEADER_LENGTH);
+				ByteBuffer buf = ByteBuffer.allocate((int) LONG_ID_HEADER_LENGTH);
 				nioFile.read(buf, 0L);
-				buf.rewind();
+				buf.flip();
 
 				if (buf.remaining() < HEADER_LENGTH) {
 					throw new IOException("File too short to be a compatible hash file");
@@ -134,24 +205,60 @@ public class HashFile implements Closeable {
 				byte[] magicNumber = new byte[MAGIC_NUMBER.length];
 				buf.get(magicNumber);
 				byte version = buf.get();
-				bucketCount = buf.getInt();
-				bucketSize = buf.getInt();
-				itemCount = buf.getInt();
 
 				if (!Arrays.equals(MAGIC_NUMBER, magicNumber)) {
 					throw new IOException("File doesn't contain compatible hash file data");
 				}
 
-				if (version > FILE_FORMAT_VERSION) {
+				if (version > LONG_ID_FILE_FORMAT_VERSION) {
 					throw new IOException("Unable to read hash file; it uses a newer file format");
-				} else if (version != FILE_FORMAT_VERSION) {
+				} else if (version == LONG_ID_FILE_FORMAT_VERSION) {
+					if (buf.remaining() < LONG_ID_HEADER_LENGTH - MAGIC_NUMBER.length - 1) {
+						throw new IOException("File too short to be a compatible hash file");
+					}
+					this.longIDs = true;
+					bucketSize = buf.getInt();
+					levelBucketCount = buf.getInt();
+					splitPointer = buf.getInt();
+					itemCount = buf.getLong();
+					overflowBucketCount = buf.getInt();
+					freeOverflowBucketID = buf.getInt();
+					bucketCount = levelBucketCount + splitPointer;
+				} else if (version == FILE_FORMAT_VERSION) {
+					this.longIDs = false;
+					bucketCount = buf.getInt();
+					bucketSize = buf.getInt();
+					itemCount = buf.getInt();
+				} else {
 					throw new IOException("Unable to read hash file; invalid file format version: " + version);
 				}
 
-				recordSize = ITEM_SIZE * bucketSize + 4;
 				loadedHashFileFromDisk = itemCount > 0;
 			}
 
+			if (this.longIDs) {
+				headerLength = LONG_ID_HEADER_LENGTH;
+				itemSize = LONG_ITEM_SIZE;
+				overflowFile = new NioFile(new File(file.getParentFile(), file.getName() + OVERFLOW_FILE_SUFFIX), "rw",
+						memoryMapped);
+			} else {
+				headerLength = HEADER_LENGTH;
+				itemSize = ITEM_SIZE;
+				overflowFile = nioFile;
+			}
+			this.overflowFile = overflowFile;
+			recordSize = itemSize * bucketSize + 4;
+
+			if (nioFile.size() == 0L) {
+				// Initialize the file by writing <_bucketCount> empty buckets
+				writeEmptyBuckets(headerLength, bucketCount);
+				if (this.longIDs) {
+					overflowFile.truncate(0L);
+				}
+
+				sync();
+			}
+
 			if (!loadedHashFileFromDisk) {
 				// 41943049 is ~5MB, and a prime
 				if (initialSize > 41943049) {
@@ -164,7 +271,13 @@ public class HashFile implements Closeable {
 				poorMansBloomFilter = null;
 			}
 		} catch (IOException e) {
-			this.nioFile.close();
+			try {
+				if (overflowFile != null && overflowFile != nioFile) {
+					overflowFile.close();
+				}
+			} finally {
+				this.nioFile.close();
+			}
 			throw e;
 		}
 	}
@@ -177,10 +290,17 @@ public class HashFile implements Closeable {
 		return nioFile.getFile();
 	}
 
-	public int getItemCount() {
+	public long getItemCount() {
 		return itemCount;
 	}
 
+	/**
+	 * Checks whether this hash file stores 64-bit IDs.
+	 */
+	public boolean hasLongIDs() {
+		return longIDs;
+	}
+
 	/**
 	 * Gets an iterator that iterates over the IDs with hash codes that match the specified hash code.
 	 */
@@ -199,7 +319,9 @@ public class HashFile implements Closeable {
 	/**
 	 * Stores ID under the specified hash code in this hash file.
 	 */
-	public void storeID(int hash, int id) throws IOException {
+	public void storeID(int hash, long id) throws IOException {
+		assert longIDs || id <= Integer.MAX_VALUE : "id does not fit in 32 bits: " + id;
+
 		structureLock.readLock().lock();
 		if (!loadedHashFileFromDisk) {
 			poorMansBloomFilter.set(getBloomFilterIndex(hash), true);
@@ -215,18 +337,23 @@ public class HashFile implements Closeable {
 		if (++itemCount >= loadFactor * bucketCount * bucketSize) {
 			structureLock.writeLock().lock();
 			try {
-				increaseHashTable();
+				if (longIDs) {
+					splitBucket();
+				} else {
+					increaseHashTable();
+				}
 			} finally {
 				structureLock.writeLock().unlock();
 			}
 		}
 	}
 
-	private void storeID(long bucketOffset, int hash, int id) throws IOException {
+	private void storeID(long bucketOffset, int hash, long id) throws IOException {
 		ByteBuffer bucket = ByteBuffer.allocate(recordSize);
+		NioFile bucketFile = nioFile;
 
 		while (true) {
-			nioFile.read(bucket, bucketOffset);
+			bucketFile.read(bucket, bucketOffset);
 
 			// Find first empty slot in bucket
 			int slotID = findEmptySlotInBucket(bucket);
@@ -234,29 +361,34 @@ public class HashFile implements Closeable {
 			if (slotID >= 0) {
 				// Empty slot found, store dataOffset in it
 
-				ByteBuffer diff = ByteBuffer.allocate(8);
+				ByteBuffer diff = ByteBuffer.allocate(itemSize);
 				diff.putInt(hash);
-				diff.putInt(id);
+				if (longIDs) {
+					diff.putLong(id);
+				} else {
+					diff.putInt((int) id);
+				}
 				diff.rewind();
 
-				nioFile.write(diff, bucketOffset + ITEM_SIZE * slotID);
+				bucketFile.write(diff, bucketOffset + itemSize * slotID);
 				break;
 			} else {
 				// No empty slot found, check if bucket has an overflow bucket
-				int overflowID = bucket.getInt(ITEM_SIZE * bucketSize);
+				int overflowID = bucket.getInt(itemSize * bucketSize);
 
 				if (overflowID == 0) {
 					// No overflow bucket yet, create one
 					overflowID = createOverflowBucket();
 
 					// Link overflow bucket to current bucket
-					bucket.putInt(ITEM_SIZE * bucketSize, overflowID);
+					bucket.putInt(itemSize * bucketSize, overflowID);
 					bucket.rewind();
-					nioFile.write(bucket, bucketOffset);
+					bucketFile.write(bucket, bucketOffset);
 				}
 
 				// Continue searching for an empty slot in the overflow bucket
 				bucketOffset = getOverflowBucketOffset(overflowID);
+				bucketFile = overflowFile;
 				bucket.clear();
 			}
 		}
@@ -264,13 +396,21 @@ public class HashFile implements Closeable {
 
 	public void clear() throws IOException {
 		structureLock.writeLock().lock();
-		poorMansBloomFilter.clear();
+		if (poorMansBloomFilter != null) {
+			poorMansBloomFilter.clear();
+		}
 		try {
 			// Truncate the file to remove any overflow buffers
-			nioFile.truncate(HEADER_LENGTH + (long) bucketCount * recordSize);
+			nioFile.truncate(headerLength + (long) bucketCount * recordSize);
 
 			// Overwrite normal buckets with empty ones
-			writeEmptyBuckets(HEADER_LENGTH, bucketCount);
+			writeEmptyBuckets(headerLength, bucketCount);
+
+			if (longIDs) {
+				overflowFile.truncate(0L);
+				overflowBucketCount = 0;
+				freeOverflowBucketID = 0;
+			}
 
 			itemCount = 0;
 		} finally {
@@ -292,17 +432,29 @@ public class HashFile implements Closeable {
 
 		if (forceSync) {
 			nioFile.force(false);
+			if (longIDs) {
+				overflowFile.force(false);
+			}
 		}
 	}
 
 	public void sync(boolean force) throws IOException {
 		sync();
 		nioFile.force(force);
+		if (longIDs) {
+			overflowFile.force(force);
+		}
 	}
 
 	@Override
 	public void close() throws IOException {
-		nioFile.close();
+		try {
+			if (longIDs) {
+				overflowFile.close();
+			}
+		} finally {
+			nioFile.close();
+		}
 	}
 
 	/*-----------------*
@@ -329,12 +481,22 @@ public class HashFile implements Closeable {
 	 * Writes the bucket count, bucket size and item count to the file header.
 	 */
 	private void writeFileHeader() throws IOException {
-		ByteBuffer buf = ByteBuffer.allocate((int) HEADER_LENGTH);
+		ByteBuffer buf = ByteBuffer.allocate((int) headerLength);
 		buf.put(MAGIC_NUMBER);
-		buf.put(FILE_FORMAT_VERSION);
-		buf.putInt(bucketCount);
-		buf.putInt(bucketSize);
-		buf.putInt(itemCount);
+		if (longIDs) {
+			buf.put(LONG_ID_FILE_FORMAT_VERSION);
+			buf.putInt(bucketSize);
+			buf.putInt(levelBucketCount);
+			buf.putInt(splitPointer);
+			buf.putLong(itemCount);
+			buf.putInt(overflowBucketCount);
+			buf.putInt(freeOverflowBucketID);
+		} else {
+			buf.put(FILE_FORMAT_VERSION);
+			buf.putInt(bucketCount);
+			buf.putInt(bucketSize);
+			buf.putInt((int) itemCount);
+		}
 		buf.rewind();
 
 		nioFile.write(buf, 0L);
@@ -344,17 +506,29 @@ public class HashFile implements Closeable {
 	 * Returns the offset of the bucket for the specified hash code.
 	 */
 	private long getBucketOffset(int hash) {
-		int bucketNo = hash % bucketCount;
-		if (bucketNo < 0) {
-			bucketNo += bucketCount;
+		int bucketNo;
+		if (longIDs) {
+			bucketNo = Math.floorMod(hash, levelBucketCount);
+			if (bucketNo < splitPointer) {
+				// The bucket has already been split in this round
+				bucketNo = (int) Math.floorMod((long) hash, 2L * levelBucketCount);
+			}
+		} else {
+			bucketNo = hash % bucketCount;
+			if (bucketNo < 0) {
+				bucketNo += bucketCount;
+			}
 		}
-		return HEADER_LENGTH + (long) bucketNo * recordSize;
+		return headerLength + (long) bucketNo * recordSize;
 	}
 
 	/**
 	 * Returns the offset of the overflow bucket with the specified ID.
 	 */
 	private long getOverflowBucketOffset(int bucketID) {
+		if (longIDs) {
+			return (bucketID - 1L) * recordSize;
+		}
 		return HEADER_LENGTH + ((long) bucketCount + (long) bucketID - 1L) * recordSize;
 	}
 
@@ -362,16 +536,42 @@ public class HashFile implements Closeable {
 	 * Creates a new overflow bucket and returns its ID.
 	 */
 	private int createOverflowBucket() throws IOException {
+		if (longIDs) {
+			int bucketID;
+			if (freeOverflowBucketID != 0) {
+				// Reuse a released overflow bucket
+				bucketID = freeOverflowBucketID;
+				freeOverflowBucketID = overflowFile.readInt(getOverflowBucketOffset(bucketID) + itemSize * bucketSize);
+			} else {
+				bucketID = ++overflowBucketCount;
+			}
+			writeEmptyBuckets(overflowFile, getOverflowBucketOffset(bucketID), 1);
+			return bucketID;
+		}
+
 		long offset = nioFile.size();
 		writeEmptyBuckets(offset, 1);
 		return (int) ((offset - HEADER_LENGTH) / recordSize) - bucketCount + 1;
 	}
 
+	/**
+	 * Adds an overflow bucket to the list of released overflow buckets, which is linked through the overflow IDs of
+	 * the buckets.
+	 */
+	private void releaseOverflowBucket(int bucketID) throws IOException {
+		overflowFile.writeInt(freeOverflowBucketID, getOverflowBucketOffset(bucketID) + itemSize * bucketSize);
+		freeOverflowBucketID = bucketID;
+	}
+
 	private void writeEmptyBuckets(long fileOffset, int bucketCount) throws IOException {
+		writeEmptyBuckets(nioFile, fileOffset, bucketCount);
+	}
+
+	private void writeEmptyBuckets(NioFile file, long fileOffset, int bucketCount) throws IOException {
 		ByteBuffer emptyBucket = ByteBuffer.allocate(recordSize);
 
 		for (int i = 0; i < bucketCount; i++) {
-			nioFile.write(emptyBucket, fileOffset + i * (long) recordSize);
+			file.write(emptyBucket, fileOffset + i * (long) recordSize);
 			emptyBucket.rewind();
 		}
 	}
@@ -379,7 +579,7 @@ public class HashFile implements Closeable {
 	private int findEmptySlotInBucket(ByteBuffer bucket) {
 		for (int slotNo = 0; slotNo < bucketSize; slotNo++) {
 			// Check for offsets that are equal to 0
-			if (bucket.getInt(ITEM_SIZE * slotNo + 4) == 0) {
+			if (getID(bucket, slotNo) == 0) {
 				return slotNo;
 			}
 		}
@@ -387,6 +587,141 @@ public class HashFile implements Closeable {
 		return -1;
 	}
 
+	private long getID(ByteBuffer bucket, int slotNo) {
+		if (longIDs) {
+			return bucket.getLong(itemSize * slotNo + 4);
+		}
+		return bucket.getInt(itemSize * slotNo + 4);
+	}
+
+	/**
+	 * Splits the bucket at the split pointer in a hash file with linear hashing. The items of the bucket and its
+	 * overflow buckets are divided between the bucket itself and a new bucket at the end of the table. Splitting a
+	 * single bucket at a time spreads the cost of growing the table over many insertions, while lookups only need to
+	 * check the split pointer to find the right bucket.
+	 * <p>
+	 * The split never leaves an item unreachable on disk: the new bucket is written first, then the file header with
+	 * the advanced split pointer, and only then the old bucket is rewritten without the moved items. If the process
+	 * stops before the header is written, the old bucket still holds all items. If it stops after that, the old bucket
+	 * may still hold copies of moved items, which are dropped when it is split again.
+	 */
+	private void splitBucket() throws IOException {
+		if (bucketCount >= MAX_BUCKET_COUNT) {
+			// Stop growing, items are stored in overflow buckets instead
+			return;
+		}
+
+		long bucketOffset = headerLength + (long) splitPointer * recordSize;
+		long newBucketOffset = headerLength + (long) bucketCount * recordSize;
+
+		// Collect the items of the bucket and the IDs of its overflow buckets
+		int[] hashes = new int[bucketSize];
+		long[] ids = new long[bucketSize];
+		int count = 0;
+		int[] overflowIDs = new int[4];
+		int overflowCount = 0;
+
+		ByteBuffer bucket = ByteBuffer.allocate(recordSize);
+		nioFile.read(bucket, bucketOffset);
+		while (true) {
+			for (int slotNo = 0; slotNo < bucketSize; slotNo++) {
+				long id = getID(bucket, slotNo);
+				int hash = bucket.getInt(itemSize * slotNo);
+				// skip copies of items that were moved by an interrupted split
+				if (id != 0 && getBucketOffset(hash) == bucketOffset) {
+					if (count == ids.length) {
+						hashes = Arrays.copyOf(hashes, count * 2);
+						ids = Arrays.copyOf(ids, count * 2);
+					}
+					hashes[count] = hash;
+					ids[count] = id;
+					count++;
+				}
+			}
+
+			int overflowID = bucket.getInt(itemSize * bucketSize);
+			if (overflowID == 0) {
+				break;
+			}
+			if (overflowCount == overflowIDs.length) {
+				overflowIDs = Arrays.copyOf(overflowIDs, overflowCount * 2);
+			}
+			overflowIDs[overflowCount++] = overflowID;
+			bucket.clear();
+			overflowFile.read(bucket, getOverflowBucketOffset(overflowID));
+		}
+
+		// Advance the split pointer, which determines the bucket of every item
+		bucketCount++;
+		if (++splitPointer == levelBucketCount) {
+			// All buckets have been split, start a new round
+			levelBucketCount *= 2;
+			splitPointer = 0;
+		}
+
+		// Divide the items, keeping the moved items at the end of the arrays
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			if (getBucketOffset(hashes[i]) == bucketOffset) {
+				int hash = hashes[kept];
+				long id = ids[kept];
+				hashes[kept] = hashes[i];
+				ids[kept] = ids[i];
+				hashes[i] = hash;
+				ids[i] = id;
+				kept++;
+			}
+		}
+
+		// Append the new bucket, make it reachable and only then remove the moved items from the old bucket
+		writeBucket(newBucketOffset, hashes, ids, kept, count);
+		if (forceSync) {
+			overflowFile.force(false);
+			nioFile.force(false);
+		}
+		writeFileHeader();
+		if (forceSync) {
+			nioFile.force(false);
+		}
+		writeBucket(bucketOffset, hashes, ids, 0, kept);
+
+		for (int i = 0; i < overflowCount; i++) {
+			releaseOverflowBucket(overflowIDs[i]);
+		}
+	}
+
+	/**
+	 * Writes the items in a range of the supplied arrays to a bucket in a file with linear hashing, replacing its
+	 * contents. Any overflow buckets that are needed are written before the bucket that links to them, so the bucket
+	 * still holds its previous items if writing is interrupted.
+	 */
+	private void writeBucket(long bucketOffset, int[] hashes, long[] ids, int start, int end) throws IOException {
+		int overflowCount = Math.max(0, (end - start - 1) / bucketSize);
+		int[] overflowIDs = new int[overflowCount];
+		for (int i = 0; i < overflowCount; i++) {
+			overflowIDs[i] = createOverflowBucket();
+		}
+
+		ByteBuffer bucket = ByteBuffer.allocate(recordSize);
+		for (int i = overflowCount; i >= 0; i--) {
+			bucket.clear();
+			for (int item = start + i * bucketSize; item < Math.min(end, start + (i + 1) * bucketSize); item++) {
+				bucket.putInt(hashes[item]);
+				bucket.putLong(ids[item]);
+			}
+			while (bucket.position() < itemSize * bucketSize) {
+				bucket.put((byte) 0);
+			}
+			bucket.putInt(i < overflowCount ? overflowIDs[i] : 0);
+			bucket.flip();
+			if (i == 0) {
+				nioFile.write(bucket, bucketOffset);
+			} else {
+				overflowFile.write(bucket, getOverflowBucketOffset(overflowIDs[i - 1]));
+			}
+		}
+	}
+
 	/**
 	 * Double the number of buckets in the hash file and rehashes the stored items.
 	 */
@@ -507,7 +842,7 @@ public class HashFile implements Closeable {
 		}
 
 		@Override
-		public int next() {
+		public long next() {
 			return -1;
 		}
 	};
@@ -550,18 +885,21 @@ public class HashFile implements Closeable {
 		 * Returns the next ID that has been mapped to the specified hash code, or <var>-1</var> if no more IDs were
 		 * found.
 		 */
-		public int next() throws IOException {
+		public long next() throws IOException {
 			while (bucketBuffer != null) {
 				// Search in current bucket
 				while (++slotNo < bucketSize) {
-					if (bucketBuffer.getInt(ITEM_SIZE * slotNo) == queryHash) {
-						return bucketBuffer.getInt(ITEM_SIZE * slotNo + 4);
+					if (bucketBuffer.getInt(itemSize * slotNo) == queryHash) {
+						long id = getID(bucketBuffer, slotNo);
+						if (id != 0) {
+							return id;
+						}
 					}
 				}
 
 				// No matching hash code in current bucket, check overflow
 				// bucket
-				int overflowID = bucketBuffer.getInt(ITEM_SIZE * bucketSize);
+				int overflowID = bucketBuffer.getInt(itemSize * bucketSize);
 				if (overflowID == 0) {
 					// No overflow bucket, end the search
 					bucketBuffer = null;
@@ -570,7 +908,7 @@ public class HashFile implements Closeable {
 					// Continue with overflow bucket
 					bucketBuffer.clear();
 					long bucketOffset = getOverflowBucketOffset(overflowID);
-					nioFile.read(bucketBuffer, bucketOffset);
+					overflowFile.read(bucketBuffer, bucketOffset);
 					slotNo = -1;
 				}
 			}
@@ -90,7 +90,16 @@ public class IDFile implements Closeable {
 	}
 
 	public IDFile(File file, boolean forceSync) throws IOException {
-		this.nioFile = new NioFile(file);
+		this(file, forceSync, false);
+	}
+
+	/**
+	 * Creates a new ID file or opens an existing one.
+	 *
+	 * @param memoryMapped Flag indicating whether reads should be served from memory-mapped segments of the file.
+	 */
+	public IDFile(File file, boolean forceSync, boolean memoryMapped) throws IOException {
+		this.nioFile = new NioFile(file, "rw", memoryMapped);
 		this.forceSync = forceSync;
 
 		try {
@@ -138,18 +147,18 @@ public class IDFile implements Closeable {
 	 *
 	 * @return The largest ID, or <var>0</var> if the file does not contain any data.
 	 */
-	public int getMaxID() {
-		return (int) (nioFileSize / ITEM_SIZE) - 1;
+	public long getMaxID() {
+		return nioFileSize / ITEM_SIZE - 1;
 	}
 
 	/**
 	 * Stores the offset of a new data entry, returning the ID under which is stored.
 	 */
-	public int storeOffset(long offset) throws IOException {
+	public long storeOffset(long offset) throws IOException {
 		long fileSize = nioFileSize;
 		nioFile.writeLong(offset, fileSize);
 		nioFileSize += ITEM_SIZE;
-		return (int) (fileSize / ITEM_SIZE);
+		return fileSize / ITEM_SIZE;
 	}
 
 	/**
@@ -158,7 +167,7 @@ public class IDFile implements Closeable {
 	 * @param id     The ID to set the offset for, must be larger than 0.
 	 * @param offset The (new) offset for the specified ID.
 	 */
-	public void setOffset(int id, long offset) throws IOException {
+	public void setOffset(long id, long offset) throws IOException {
 		assert id > 0 : "id must be larger than 0, is: " + id;
 
 		nioFile.writeLong(offset, ITEM_SIZE * id);
@@ -170,8 +179,8 @@ public class IDFile implements Closeable {
 		// 2. the relevant cache line is from before the writeLong operation above, in which case we update it
 		// 3. the relevant cache line is from right after the write in which case updating it doesnt matter
 
-		int cacheLookupIndex = id >> cacheLineShift;
-		int cacheLineLookupIndex = id % cacheLineSize;
+		int cacheLookupIndex = (int) (id >> cacheLineShift);
+		int cacheLineLookupIndex = (int) (id % cacheLineSize);
 
 		Long[] cacheLine = getCacheLine(cacheLookupIndex);
 
@@ -187,14 +196,14 @@ public class IDFile implements Closeable {
 	 * @param id The ID to get the offset for, must be larger than 0.
 	 * @return The offset for the ID.
 	 */
-	public long getOffset(int id) throws IOException {
+	public long getOffset(long id) throws IOException {
 		assert id > 0 : "id must be larger than 0, is: " + id;
 
 		// the index used to lookup the cache line
-		int cacheLookupIndex = id >> cacheLineShift;
+		int cacheLookupIndex = (int) (id >> cacheLineShift);
 
 		// the index used to lookup the actual value inside the cache line
-		int cacheLineLookupIndex = id % cacheLineSize;
+		int cacheLineLookupIndex = (int) (id % cacheLineSize);
 
 		// the cache line which is of size cacheLineSize
 		Long[] cacheLine = getCacheLine(cacheLookupIndex);
@@ -208,7 +217,7 @@ public class IDFile implements Closeable {
 		if (getMaxID() > cacheLineSize && id < getMaxID() - cacheLineSize) {
 
 			// doing one big read is considerably faster than doing a single read per id
-			byte[] bytes = nioFile.readBytes(ITEM_SIZE * (cacheLookupIndex << cacheLineShift),
+			byte[] bytes = nioFile.readBytes(ITEM_SIZE * ((long) cacheLookupIndex << cacheLineShift),
 					(int) (ITEM_SIZE * cacheLineSize));
 
 			cacheLine = convertBytesToLongs(bytes);
@@ -32,7 +32,7 @@ public class CorruptIRI extends CorruptValue implements IRI {
 	private static final long serialVersionUID = -6995615243794525852L;
 	private final String namespace;
 
-	public CorruptIRI(ValueStoreRevision revision, int internalID, String namespace, byte[] data) {
+	public CorruptIRI(ValueStoreRevision revision, long internalID, String namespace, byte[] data) {
 		super(revision, internalID, data);
 		this.namespace = namespace;
 	}
@@ -48,7 +48,7 @@ public class CorruptIRI extends CorruptValue implements IRI {
 		} catch (Throwable ignored) {
 		}
 
-		return "CorruptIRI_with_ID_" + getInternalID();
+		return "CorruptIRI_with_ID_" + getInternalLongID();
 	}
 
 	@Override
@@ -81,13 +81,13 @@ public class CorruptIRI extends CorruptValue implements IRI {
 			return true;
 		}
 
-		if (o instanceof CorruptIRI && getInternalID() != NativeValue.UNKNOWN_ID) {
+		if (o instanceof CorruptIRI && getInternalLongID() != NativeValue.UNKNOWN_ID) {
 			CorruptIRI otherCorruptValue = (CorruptIRI) o;
 
-			if (otherCorruptValue.getInternalID() != NativeValue.UNKNOWN_ID
+			if (otherCorruptValue.getInternalLongID() != NativeValue.UNKNOWN_ID
 					&& getValueStoreRevision().equals(otherCorruptValue.getValueStoreRevision())) {
 				// CorruptValue is from the same revision of the same native store with both IDs set
-				return getInternalID() == otherCorruptValue.getInternalID();
+				return getInternalLongID() == otherCorruptValue.getInternalLongID();
 			}
 		}
 
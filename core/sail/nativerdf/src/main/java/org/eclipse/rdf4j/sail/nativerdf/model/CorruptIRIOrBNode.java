@@ -32,7 +32,7 @@ public class CorruptIRIOrBNode extends CorruptValue implements IRI, BNode {
 
 	private static final long serialVersionUID = 3709784393454516043L;
 
-	public CorruptIRIOrBNode(ValueStoreRevision revision, int internalID, byte[] data) {
+	public CorruptIRIOrBNode(ValueStoreRevision revision, long internalID, byte[] data) {
 		super(revision, internalID, data);
 	}
 
@@ -47,7 +47,7 @@ public class CorruptIRIOrBNode extends CorruptValue implements IRI, BNode {
 		} catch (Throwable ignored) {
 		}
 
-		return "CorruptIRIOrBNode_with_ID_" + getInternalID();
+		return "CorruptIRIOrBNode_with_ID_" + getInternalLongID();
 	}
 
 	@Override
@@ -82,13 +82,13 @@ public class CorruptIRIOrBNode extends CorruptValue implements IRI, BNode {
 			return true;
 		}
 
-		if (o instanceof CorruptIRIOrBNode && getInternalID() != NativeValue.UNKNOWN_ID) {
+		if (o instanceof CorruptIRIOrBNode && getInternalLongID() != NativeValue.UNKNOWN_ID) {
 			CorruptIRIOrBNode otherCorruptValue = (CorruptIRIOrBNode) o;
 
-			if (otherCorruptValue.getInternalID() != NativeValue.UNKNOWN_ID
+			if (otherCorruptValue.getInternalLongID() != NativeValue.UNKNOWN_ID
 					&& getValueStoreRevision().equals(otherCorruptValue.getValueStoreRevision())) {
 				// CorruptValue is from the same revision of the same native store with both IDs set
-				return getInternalID() == otherCorruptValue.getInternalID();
+				return getInternalLongID() == otherCorruptValue.getInternalLongID();
 			}
 		}
 
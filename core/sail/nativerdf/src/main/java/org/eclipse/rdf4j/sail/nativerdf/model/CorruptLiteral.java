@@ -38,12 +38,12 @@ public class CorruptLiteral extends CorruptValue implements Literal {
 
 	private static final IRI CORRUPT = Values.iri("urn:corrupt");
 
-	public CorruptLiteral(ValueStoreRevision revision, int internalID, byte[] data) {
+	public CorruptLiteral(ValueStoreRevision revision, long internalID, byte[] data) {
 		super(revision, internalID, data);
 	}
 
 	public String stringValue() {
-		return "CorruptLiteral_with_ID_" + getInternalID();
+		return "CorruptLiteral_with_ID_" + getInternalLongID();
 	}
 
 	@Override
@@ -51,12 +51,12 @@ public class CorruptLiteral extends CorruptValue implements Literal {
 		byte[] data = getData();
 		try {
 			if (data != null && data.length < 1024) {
-				return "CorruptUnknownValue with ID " + getInternalID() + " with possible data: "
+				return "CorruptUnknownValue with ID " + getInternalLongID() + " with possible data: "
 						+ new String(data, StandardCharsets.UTF_8);
 			}
 		} catch (Throwable ignored) {
 		}
-		return "CorruptUnknownValue_with_ID_" + getInternalID();
+		return "CorruptUnknownValue_with_ID_" + getInternalLongID();
 	}
 
 	@Override
@@ -130,13 +130,13 @@ public class CorruptLiteral extends CorruptValue implements Literal {
 			return true;
 		}
 
-		if (o instanceof CorruptLiteral && getInternalID() != NativeValue.UNKNOWN_ID) {
+		if (o instanceof CorruptLiteral && getInternalLongID() != NativeValue.UNKNOWN_ID) {
 			CorruptLiteral otherCorruptValue = (CorruptLiteral) o;
 
-			if (otherCorruptValue.getInternalID() != NativeValue.UNKNOWN_ID
+			if (otherCorruptValue.getInternalLongID() != NativeValue.UNKNOWN_ID
 					&& getValueStoreRevision().equals(otherCorruptValue.getValueStoreRevision())) {
 				// CorruptValue is from the same revision of the same native store with both IDs set
-				return getInternalID() == otherCorruptValue.getInternalID();
+				return getInternalLongID() == otherCorruptValue.getInternalLongID();
 			}
 		}
 
@@ -36,7 +36,7 @@ public class CorruptUnknownValue extends CorruptValue implements Literal {
 
 	private static final long serialVersionUID = -6650510290226676279L;
 
-	public CorruptUnknownValue(ValueStoreRevision revision, int internalID, byte[] data) {
+	public CorruptUnknownValue(ValueStoreRevision revision, long internalID, byte[] data) {
 		super(revision, internalID, data);
 	}
 
@@ -45,12 +45,12 @@ public class CorruptUnknownValue extends CorruptValue implements Literal {
 		byte[] data = getData();
 		try {
 			if (data != null && data.length < 1024) {
-				return "CorruptUnknownValue with ID " + getInternalID() + " with possible data: "
+				return "CorruptUnknownValue with ID " + getInternalLongID() + " with possible data: "
 						+ new String(data, StandardCharsets.UTF_8);
 			}
 		} catch (Throwable ignored) {
 		}
-		return "CorruptUnknownValue_with_ID_" + getInternalID();
+		return "CorruptUnknownValue_with_ID_" + getInternalLongID();
 	}
 
 	@Override
@@ -124,13 +124,13 @@ public class CorruptUnknownValue extends CorruptValue implements Literal {
 			return true;
 		}
 
-		if (o instanceof CorruptUnknownValue && getInternalID() != NativeValue.UNKNOWN_ID) {
+		if (o instanceof CorruptUnknownValue && getInternalLongID() != NativeValue.UNKNOWN_ID) {
 			CorruptUnknownValue otherCorruptValue = (CorruptUnknownValue) o;
 
-			if (otherCorruptValue.getInternalID() != NativeValue.UNKNOWN_ID
+			if (otherCorruptValue.getInternalLongID() != NativeValue.UNKNOWN_ID
 					&& getValueStoreRevision().equals(otherCorruptValue.getValueStoreRevision())) {
 				// CorruptValue is from the same revision of the same native store with both IDs set
-				return getInternalID() == otherCorruptValue.getInternalID();
+				return getInternalLongID() == otherCorruptValue.getInternalLongID();
 			}
 		}
 
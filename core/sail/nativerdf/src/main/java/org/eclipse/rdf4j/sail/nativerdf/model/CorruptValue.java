@@ -31,15 +31,15 @@ public class CorruptValue implements NativeValue {
 
 	private final byte[] data;
 	private volatile ValueStoreRevision revision;
-	private volatile int internalID;
+	private volatile long internalID;
 
-	public CorruptValue(ValueStoreRevision revision, int internalID, byte[] data) {
+	public CorruptValue(ValueStoreRevision revision, long internalID, byte[] data) {
 		setInternalID(internalID, revision);
 		this.data = data;
 	}
 
 	@Override
-	public void setInternalID(int internalID, ValueStoreRevision revision) {
+	public void setInternalID(long internalID, ValueStoreRevision revision) {
 		this.internalID = internalID;
 		this.revision = revision;
 	}
@@ -50,7 +50,7 @@ public class CorruptValue implements NativeValue {
 	}
 
 	@Override
-	public int getInternalID() {
+	public long getInternalLongID() {
 		return internalID;
 	}
 
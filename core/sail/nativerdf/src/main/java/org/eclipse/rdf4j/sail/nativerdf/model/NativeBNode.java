@@ -27,13 +27,13 @@ public class NativeBNode extends SimpleBNode implements NativeResource {
 
 	private volatile ValueStoreRevision revision;
 
-	private volatile int internalID;
+	private volatile long internalID;
 
 	/*--------------*
 	 * Constructors *
 	 *--------------*/
 
-	protected NativeBNode(ValueStoreRevision revision, int internalID) {
+	protected NativeBNode(ValueStoreRevision revision, long internalID) {
 		super();
 		setInternalID(internalID, revision);
 	}
@@ -42,7 +42,7 @@ public class NativeBNode extends SimpleBNode implements NativeResource {
 		this(revision, nodeID, UNKNOWN_ID);
 	}
 
-	public NativeBNode(ValueStoreRevision revision, String nodeID, int internalID) {
+	public NativeBNode(ValueStoreRevision revision, String nodeID, long internalID) {
 		super(nodeID);
 		setInternalID(internalID, revision);
 	}
@@ -52,7 +52,7 @@ public class NativeBNode extends SimpleBNode implements NativeResource {
 	 *---------*/
 
 	@Override
-	public void setInternalID(int internalID, ValueStoreRevision revision) {
+	public void setInternalID(long internalID, ValueStoreRevision revision) {
 		this.internalID = internalID;
 		this.revision = revision;
 	}
@@ -63,7 +63,7 @@ public class NativeBNode extends SimpleBNode implements NativeResource {
 	}
 
 	@Override
-	public int getInternalID() {
+	public long getInternalLongID() {
 		return internalID;
 	}
 
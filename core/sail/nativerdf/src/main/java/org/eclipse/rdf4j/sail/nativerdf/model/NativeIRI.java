@@ -23,13 +23,13 @@ public class NativeIRI extends SimpleIRI implements NativeResource {
 
 	private volatile ValueStoreRevision revision;
 
-	private volatile int internalID;
+	private volatile long internalID;
 
 	/*--------------*
 	 * Constructors *
 	 *--------------*/
 
-	protected NativeIRI(ValueStoreRevision revision, int internalID) {
+	protected NativeIRI(ValueStoreRevision revision, long internalID) {
 		super();
 		setInternalID(internalID, revision);
 	}
@@ -38,7 +38,7 @@ public class NativeIRI extends SimpleIRI implements NativeResource {
 		this(revision, uri, UNKNOWN_ID);
 	}
 
-	public NativeIRI(ValueStoreRevision revision, String uri, int internalID) {
+	public NativeIRI(ValueStoreRevision revision, String uri, long internalID) {
 		super(uri);
 		setInternalID(internalID, revision);
 	}
@@ -47,7 +47,7 @@ public class NativeIRI extends SimpleIRI implements NativeResource {
 		this(revision, namespace + localname);
 	}
 
-	public NativeIRI(ValueStoreRevision revision, String namespace, String localname, int internalID) {
+	public NativeIRI(ValueStoreRevision revision, String namespace, String localname, long internalID) {
 		this(revision, namespace + localname, internalID);
 	}
 
@@ -56,7 +56,7 @@ public class NativeIRI extends SimpleIRI implements NativeResource {
 	 *---------*/
 
 	@Override
-	public void setInternalID(int internalID, ValueStoreRevision revision) {
+	public void setInternalID(long internalID, ValueStoreRevision revision) {
 		this.internalID = internalID;
 		this.revision = revision;
 	}
@@ -67,7 +67,7 @@ public class NativeIRI extends SimpleIRI implements NativeResource {
 	}
 
 	@Override
-	public int getInternalID() {
+	public long getInternalLongID() {
 		return internalID;
 	}
 
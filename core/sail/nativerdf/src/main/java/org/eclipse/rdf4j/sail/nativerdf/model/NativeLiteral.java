@@ -29,13 +29,13 @@ public class NativeLiteral extends SimpleLiteral implements NativeValue {
 
 	private volatile ValueStoreRevision revision;
 
-	private volatile int internalID;
+	private volatile long internalID;
 
 	/*--------------*
 	 * Constructors *
 	 *--------------*/
 
-	protected NativeLiteral(ValueStoreRevision revision, int internalID) {
+	protected NativeLiteral(ValueStoreRevision revision, long internalID) {
 		super();
 		setInternalID(internalID, revision);
 	}
@@ -44,7 +44,7 @@ public class NativeLiteral extends SimpleLiteral implements NativeValue {
 		this(revision, label, UNKNOWN_ID);
 	}
 
-	public NativeLiteral(ValueStoreRevision revision, String label, int internalID) {
+	public NativeLiteral(ValueStoreRevision revision, String label, long internalID) {
 		super(label);
 		setInternalID(internalID, revision);
 	}
@@ -53,7 +53,7 @@ public class NativeLiteral extends SimpleLiteral implements NativeValue {
 		this(revision, label, lang, UNKNOWN_ID);
 	}
 
-	public NativeLiteral(ValueStoreRevision revision, String label, String lang, int internalID) {
+	public NativeLiteral(ValueStoreRevision revision, String label, String lang, long internalID) {
 		super(label, lang);
 		setInternalID(internalID, revision);
 	}
@@ -66,12 +66,12 @@ public class NativeLiteral extends SimpleLiteral implements NativeValue {
 		this(revision, label, datatype, UNKNOWN_ID);
 	}
 
-	public NativeLiteral(ValueStoreRevision revision, String label, IRI datatype, int internalID) {
+	public NativeLiteral(ValueStoreRevision revision, String label, IRI datatype, long internalID) {
 		super(label, datatype);
 		setInternalID(internalID, revision);
 	}
 
-	public NativeLiteral(ValueStoreRevision revision, String label, CoreDatatype datatype, int internalID) {
+	public NativeLiteral(ValueStoreRevision revision, String label, CoreDatatype datatype, long internalID) {
 		super(label, datatype);
 		setInternalID(internalID, revision);
 	}
@@ -81,7 +81,7 @@ public class NativeLiteral extends SimpleLiteral implements NativeValue {
 	 *---------*/
 
 	@Override
-	public void setInternalID(int internalID, ValueStoreRevision revision) {
+	public void setInternalID(long internalID, ValueStoreRevision revision) {
 		this.internalID = internalID;
 		this.revision = revision;
 	}
@@ -92,7 +92,7 @@ public class NativeLiteral extends SimpleLiteral implements NativeValue {
 	}
 
 	@Override
-	public int getInternalID() {
+	public long getInternalLongID() {
 		return internalID;
 	}
 
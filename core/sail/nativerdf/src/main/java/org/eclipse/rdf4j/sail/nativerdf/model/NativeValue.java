@@ -15,19 +15,36 @@ import org.eclipse.rdf4j.sail.nativerdf.ValueStoreRevision;
 
 public interface NativeValue extends Value {
 
-	int UNKNOWN_ID = -1;
+	long UNKNOWN_ID = -1;
 
 	/**
 	 * Sets the ID that is used for this value in a specific revision of the value store.
 	 */
-	void setInternalID(int id, ValueStoreRevision revision);
+	void setInternalID(long id, ValueStoreRevision revision);
+
+	/**
+	 * @deprecated use {@link #setInternalID(long, ValueStoreRevision)}
+	 */
+	@Deprecated(since = "5.1.3")
+	default void setInternalID(int id, ValueStoreRevision revision) {
+		setInternalID((long) id, revision);
+	}
 
 	/**
 	 * Gets the ID that is used in the native store for this Value.
 	 *
 	 * @return The value's ID, or {@link #UNKNOWN_ID} if not yet set.
 	 */
-	int getInternalID();
+	long getInternalLongID();
+
+	/**
+	 * @throws ArithmeticException if the ID does not fit in an int, which only happens in stores with 64-bit IDs
+	 * @deprecated use {@link #getInternalLongID()}, which supports stores with 64-bit IDs
+	 */
+	@Deprecated(since = "5.1.3")
+	default int getInternalID() {
+		return Math.toIntExact(getInternalLongID());
+	}
 
 	/**
 	 * Gets the revision of the value store that created this value. The value's internal ID is only valid when it's
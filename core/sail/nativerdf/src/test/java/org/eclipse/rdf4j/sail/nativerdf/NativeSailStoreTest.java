@@ -10,20 +10,35 @@
  *******************************************************************************/
 package org.eclipse.rdf4j.sail.nativerdf;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
 
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.order.StatementOrder;
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
 import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.Sail;
+import org.eclipse.rdf4j.sail.SailConflictException;
+import org.eclipse.rdf4j.sail.SailConnection;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -126,6 +141,80 @@ public class NativeSailStoreTest {
 		}
 	}
 
+	@Test
+	public void testOrderedStatements() {
+		try (RepositoryConnection conn = repo.getConnection()) {
+			conn.add(F.createIRI("http://example.org/3"), RDFS.LABEL, F.createLiteral("three"), CTX_1);
+			conn.add(F.createIRI("http://example.org/4"), RDFS.LABEL, F.createLiteral("four"), CTX_2);
+		}
+
+		try (SailConnection conn = ((SailRepository) repo).getSail().getConnection()) {
+			Comparator<Value> comparator = conn.getComparator();
+			assertNotNull(comparator);
+
+			for (StatementOrder order : new StatementOrder[] { StatementOrder.S, StatementOrder.O }) {
+				List<Statement> statements;
+				try (CloseableIteration<? extends Statement> iter = conn.getStatements(order, null, RDFS.LABEL, null,
+						false)) {
+					statements = iter.stream().collect(Collectors.toList());
+				}
+				assertEquals(5, statements.size());
+				assertSorted(statements, order.getComparator(comparator));
+
+				try (CloseableIteration<? extends Statement> iter = conn.getStatements(order, null, RDFS.LABEL, null,
+						false, CTX_1, CTX_2)) {
+					statements = iter.stream().collect(Collectors.toList());
+				}
+				assertEquals(4, statements.size());
+				assertSorted(statements, order.getComparator(comparator));
+			}
+		}
+	}
+
+	@Test
+	public void testOrderedStatementsInSerializableTransaction() {
+		Sail sail = ((SailRepository) repo).getSail();
+		try (SailConnection conn = sail.getConnection()) {
+			conn.begin(IsolationLevels.SERIALIZABLE);
+			List<Statement> statements;
+			try (CloseableIteration<? extends Statement> iter = conn.getStatements(StatementOrder.S, null, RDFS.LABEL,
+					null, true)) {
+				statements = iter.stream().collect(Collectors.toList());
+			}
+			assertEquals(3, statements.size());
+
+			try (SailConnection other = sail.getConnection()) {
+				other.begin(IsolationLevels.SERIALIZABLE);
+				other.addStatement(F.createIRI("http://example.org/3"), RDFS.LABEL, F.createLiteral("three"));
+				other.commit();
+			}
+
+			// the ordered scan must have been observed, so the concurrent change is a conflict
+			conn.addStatement(F.createIRI("http://example.org/4"), RDFS.LABEL, F.createLiteral("four"));
+			assertThrows(SailConflictException.class, conn::commit);
+			conn.rollback();
+		}
+
+		try (RepositoryConnection conn = repo.getConnection()) {
+			conn.begin(IsolationLevels.SERIALIZABLE);
+			conn.add(F.createIRI("http://example.org/3"), RDFS.COMMENT, F.createLiteral("pending"));
+			// joins the store's ordered datasets with the changeset, which has no order
+			TupleQuery query = conn.prepareTupleQuery(
+					"select * { ?s <" + RDFS.LABEL + "> ?label . ?s <" + RDFS.COMMENT + "> ?comment }");
+			try (TupleQueryResult result = query.evaluate()) {
+				assertEquals(1, result.stream().count());
+			}
+			conn.commit();
+		}
+	}
+
+	private void assertSorted(List<Statement> statements, Comparator<Statement> comparator) {
+		for (int i = 1; i < statements.size(); i++) {
+			assertTrue(comparator.compare(statements.get(i - 1), statements.get(i)) <= 0,
+					"Statements are not sorted: " + statements);
+		}
+	}
+
 	@AfterEach
 	public void after() {
 		repo.shutDown();
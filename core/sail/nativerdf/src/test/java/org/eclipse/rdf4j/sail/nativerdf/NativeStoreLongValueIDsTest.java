@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.nativerdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.model.vocabulary.XSD;
+import org.eclipse.rdf4j.query.QueryResults;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for native stores that use 64-bit value IDs.
+ */
+public class NativeStoreLongValueIDsTest {
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+	@TempDir
+	File dataDir;
+
+	private Model createData() {
+		Model data = new LinkedHashModel();
+		IRI ctx = vf.createIRI("http://example.org/ctx");
+		for (int i = 0; i < 1000; i++) {
+			IRI subj = vf.createIRI("http://example.org/s" + i);
+			data.add(subj, RDFS.LABEL, vf.createLiteral("label " + i, "en"));
+			data.add(subj, RDFS.COMMENT, vf.createLiteral(String.valueOf(i), XSD.INT), ctx);
+			data.add(subj, RDFS.SEEALSO, vf.createBNode("b" + i));
+		}
+		return data;
+	}
+
+	private SailRepository createRepository(boolean longValueIDs) {
+		NativeStore sail = new NativeStore(dataDir, "spoc,posc,cosp");
+		sail.setLongValueIDs(longValueIDs);
+		return new SailRepository(sail);
+	}
+
+	private static void assertContents(Model expected, SailRepository repo) {
+		try (RepositoryConnection conn = repo.getConnection()) {
+			assertEquals(expected.size(), conn.size());
+			assertEquals(expected, QueryResults.asModel(conn.getStatements(null, null, null, true)));
+			assertEquals(expected.filter(null, RDFS.COMMENT, null).size(),
+					QueryResults.asModel(conn.getStatements(null, RDFS.COMMENT, null, true)).size());
+		}
+	}
+
+	@Test
+	public void testLongValueIDs() throws Exception {
+		Model data = createData();
+
+		SailRepository repo = createRepository(true);
+		try (RepositoryConnection conn = repo.getConnection()) {
+			conn.add(data);
+			conn.remove(vf.createIRI("http://example.org/s0"), null, null);
+		}
+		data.remove(vf.createIRI("http://example.org/s0"), null, null);
+		assertContents(data, repo);
+		repo.shutDown();
+
+		assertTrue(new File(dataDir, "values.hash.ovf").exists());
+
+		// the ID size is fixed when the store is created
+		repo = createRepository(false);
+		assertContents(data, repo);
+		repo.shutDown();
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testIntIDMethods() throws Exception {
+		ValueStore valueStore = new ValueStore(dataDir);
+		try {
+			IRI iri = vf.createIRI("http://example.org/s");
+			int id = valueStore.storeValue(iri);
+			assertEquals(valueStore.getLongID(iri), id);
+			assertEquals(id, valueStore.getID(iri));
+			assertEquals(id, valueStore.getValue(id).getInternalID());
+			assertEquals(iri, valueStore.getIRI(id));
+		} finally {
+			valueStore.close();
+		}
+	}
+
+	@Test
+	public void testExistingStoreKeepsIntIDs() throws Exception {
+		Model data = createData();
+
+		SailRepository repo = createRepository(false);
+		try (RepositoryConnection conn = repo.getConnection()) {
+			conn.add(data);
+		}
+		repo.shutDown();
+
+		repo = createRepository(true);
+		assertContents(data, repo);
+		repo.shutDown();
+
+		assertFalse(new File(dataDir, "values.hash.ovf").exists());
+	}
+
+	@Test
+	public void testRemoveFromUnknownContextWithIntIDs() throws Exception {
+		Model data = createData();
+
+		SailRepository repo = createRepository(false);
+		try (RepositoryConnection conn = repo.getConnection()) {
+			conn.add(data);
+			// the unknown context must neither be mistaken for a wildcard nor for another context
+			conn.remove((IRI) null, null, null, vf.createIRI("http://example.org/unknown"));
+		}
+		assertContents(data, repo);
+		repo.shutDown();
+	}
+}
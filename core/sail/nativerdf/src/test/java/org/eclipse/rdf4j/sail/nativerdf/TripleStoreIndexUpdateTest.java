@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.nativerdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.eclipse.rdf4j.sail.nativerdf.btree.RecordIterator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that all indexes of a {@link TripleStore} are kept consistent when they are updated concurrently.
+ */
+public class TripleStoreIndexUpdateTest {
+
+	private static final String INDEXES = "spoc,posc,opsc,cspo";
+
+	private static final int VALUE_COUNT = 10;
+
+	@TempDir
+	File dataDir;
+
+	private static List<Long> randomTriple(Random random) {
+		return List.of((long) random.nextInt(VALUE_COUNT * 20) + 1, (long) random.nextInt(VALUE_COUNT) + 1,
+				(long) random.nextInt(VALUE_COUNT * 20) + 1, (long) random.nextInt(VALUE_COUNT));
+	}
+
+	private static long count(TripleStore tripleStore, long subj, long pred, long obj, long context,
+			boolean readTransaction) throws Exception {
+		long count = 0;
+		try (RecordIterator iter = tripleStore.getTriples(subj, pred, obj, context, readTransaction)) {
+			while (iter.next() != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static long expectedCount(Set<List<Long>> triples, int field, long id) {
+		return triples.stream().filter(t -> t.get(field) == id).count();
+	}
+
+	/**
+	 * Compares the triple store with the expected triples, using patterns that are matched with each of the indexes.
+	 */
+	private static void assertTriples(Set<List<Long>> expected, TripleStore tripleStore, boolean readTransaction)
+			throws Exception {
+		assertEquals(expected.size(), count(tripleStore, -1, -1, -1, -1, readTransaction));
+		for (long id = 1; id <= VALUE_COUNT; id++) {
+			assertEquals(expectedCount(expected, 0, id), count(tripleStore, id, -1, -1, -1, readTransaction));
+			assertEquals(expectedCount(expected, 1, id), count(tripleStore, -1, id, -1, -1, readTransaction));
+			assertEquals(expectedCount(expected, 2, id), count(tripleStore, -1, -1, id, -1, readTransaction));
+			assertEquals(expectedCount(expected, 3, id), count(tripleStore, -1, -1, -1, id, readTransaction));
+		}
+	}
+
+	@Test
+	public void testCommit() throws Exception {
+		Random random = new Random(42);
+		Set<List<Long>> expected = new HashSet<>();
+
+		TripleStore tripleStore = new TripleStore(dataDir, INDEXES);
+		try {
+			tripleStore.startTransaction();
+			for (int i = 0; i < 5000; i++) {
+				List<Long> triple = randomTriple(random);
+				tripleStore.storeTriple(triple.get(0), triple.get(1), triple.get(2), triple.get(3));
+				expected.add(triple);
+
+				if (i % 1000 == 999) {
+					// the transaction sees its own additions in all indexes
+					assertTriples(expected, tripleStore, true);
+				}
+			}
+
+			tripleStore.removeTriplesByContext(-1, 1, -1, -1);
+			expected.removeIf(t -> t.get(1) == 1);
+			assertTriples(expected, tripleStore, true);
+
+			tripleStore.commit();
+			assertTriples(expected, tripleStore, false);
+		} finally {
+			tripleStore.close();
+		}
+
+		tripleStore = new TripleStore(dataDir, INDEXES);
+		try {
+			assertTriples(expected, tripleStore, false);
+		} finally {
+			tripleStore.close();
+		}
+	}
+
+	@Test
+	public void testRollback() throws Exception {
+		Random random = new Random(43);
+		Set<List<Long>> expected = new HashSet<>();
+
+		TripleStore tripleStore = new TripleStore(dataDir, INDEXES);
+		try {
+			tripleStore.startTransaction();
+			for (int i = 0; i < 2000; i++) {
+				List<Long> triple = randomTriple(random);
+				tripleStore.storeTriple(triple.get(0), triple.get(1), triple.get(2), triple.get(3));
+				expected.add(triple);
+			}
+			tripleStore.commit();
+
+			tripleStore.startTransaction();
+			for (int i = 0; i < 2000; i++) {
+				List<Long> triple = randomTriple(random);
+				tripleStore.storeTriple(triple.get(0), triple.get(1), triple.get(2), triple.get(3));
+			}
+			tripleStore.removeTriplesByContext(-1, -1, -1, 2);
+			tripleStore.rollback();
+
+			assertTriples(expected, tripleStore, false);
+			assertTriples(expected, tripleStore, true);
+		} finally {
+			tripleStore.close();
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.nativerdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.eclipse.rdf4j.sail.SailException;
+import org.eclipse.rdf4j.sail.nativerdf.btree.RecordIterator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for changing the indexes of a {@link TripleStore} while it is being updated.
+ */
+public class TripleStoreReindexTest {
+
+	private static final int VALUE_COUNT = 10;
+
+	@TempDir
+	File dataDir;
+
+	private static List<Long> randomTriple(Random random) {
+		return List.of((long) random.nextInt(VALUE_COUNT * 20) + 1, (long) random.nextInt(VALUE_COUNT) + 1,
+				(long) random.nextInt(VALUE_COUNT * 20) + 1, (long) random.nextInt(VALUE_COUNT));
+	}
+
+	private static void addTriples(TripleStore tripleStore, Set<List<Long>> expected, Random random, int count)
+			throws Exception {
+		tripleStore.startTransaction();
+		for (int i = 0; i < count; i++) {
+			List<Long> triple = randomTriple(random);
+			tripleStore.storeTriple(triple.get(0), triple.get(1), triple.get(2), triple.get(3));
+			expected.add(triple);
+		}
+		tripleStore.commit();
+	}
+
+	private static long count(TripleStore tripleStore, long subj, long pred, long obj, long context)
+			throws Exception {
+		long count = 0;
+		try (RecordIterator iter = tripleStore.getTriples(subj, pred, obj, context, false)) {
+			while (iter.next() != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static long expectedCount(Set<List<Long>> triples, int field, long id) {
+		return triples.stream().filter(t -> t.get(field) == id).count();
+	}
+
+	/**
+	 * Compares the triple store with the expected triples, using patterns that are matched with each of the indexes.
+	 */
+	private static void assertTriples(Set<List<Long>> expected, TripleStore tripleStore) throws Exception {
+		assertEquals(expected.size(), count(tripleStore, -1, -1, -1, -1));
+		for (long id = 1; id <= VALUE_COUNT; id++) {
+			assertEquals(expectedCount(expected, 0, id), count(tripleStore, id, -1, -1, -1));
+			assertEquals(expectedCount(expected, 1, id), count(tripleStore, -1, id, -1, -1));
+			assertEquals(expectedCount(expected, 2, id), count(tripleStore, -1, -1, id, -1));
+			assertEquals(expectedCount(expected, 3, id), count(tripleStore, -1, -1, -1, id));
+		}
+	}
+
+	@Test
+	public void testReindexWithConcurrentUpdates() throws Exception {
+		Random random = new Random(42);
+		Set<List<Long>> expected = new HashSet<>();
+
+		TripleStore tripleStore = new TripleStore(dataDir, "spoc,posc");
+		try {
+			addTriples(tripleStore, expected, random, 20000);
+
+			tripleStore.startReindex("spoc,opsc,cspo");
+			assertThrows(SailException.class, () -> tripleStore.startReindex("spoc"));
+
+			for (int i = 0; i < 50; i++) {
+				addTriples(tripleStore, expected, random, 20);
+
+				long pred = random.nextInt(VALUE_COUNT) + 1;
+				long context = random.nextInt(VALUE_COUNT);
+				tripleStore.startTransaction();
+				tripleStore.removeTriplesByContext(-1, pred, -1, context);
+				if (i % 5 == 0) {
+					tripleStore.rollback();
+				} else {
+					tripleStore.commit();
+					expected.removeIf(t -> t.get(1) == pred && t.get(3) == context);
+				}
+
+				// reads are served by the existing indexes
+				assertEquals(expected.size(), count(tripleStore, -1, -1, -1, -1));
+			}
+
+			tripleStore.awaitReindex();
+			assertFalse(tripleStore.isReindexing());
+			assertEquals(1.0, tripleStore.getReindexProgress());
+			assertTriples(expected, tripleStore);
+
+			addTriples(tripleStore, expected, random, 100);
+			assertTriples(expected, tripleStore);
+		} finally {
+			tripleStore.close();
+		}
+
+		assertFalse(new File(dataDir, "triples-posc.dat").exists());
+		assertTrue(new File(dataDir, "triples-opsc.dat").exists());
+
+		TripleStore reopenedStore = new TripleStore(dataDir, "spoc,opsc,cspo");
+		try {
+			assertTriples(expected, reopenedStore);
+		} finally {
+			reopenedStore.close();
+		}
+	}
+
+	@Test
+	public void testOnlineReindexOnOpen() throws Exception {
+		Random random = new Random(43);
+		Set<List<Long>> expected = new HashSet<>();
+
+		TripleStore tripleStore = new TripleStore(dataDir, "spoc");
+		try {
+			addTriples(tripleStore, expected, random, 2000);
+		} finally {
+			tripleStore.close();
+		}
+
+		tripleStore = new TripleStore(dataDir, "posc,cspo", false, false, false, false, true);
+		try {
+			tripleStore.awaitReindex();
+			assertTriples(expected, tripleStore);
+		} finally {
+			tripleStore.close();
+		}
+
+		assertFalse(new File(dataDir, "triples-spoc.dat").exists());
+
+		tripleStore = new TripleStore(dataDir, null);
+		try {
+			assertTriples(expected, tripleStore);
+		} finally {
+			tripleStore.close();
+		}
+	}
+}
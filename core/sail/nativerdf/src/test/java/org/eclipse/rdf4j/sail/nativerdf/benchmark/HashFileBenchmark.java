@@ -116,7 +116,7 @@ public class HashFileBenchmark {
 			HashFile.IDIterator idIterator = hashFile.getIDIterator(integers.get(i));
 
 			while (true) {
-				int next = idIterator.next();
+				long next = idIterator.next();
 				if (next >= 0) {
 					count++;
 				} else {
@@ -144,7 +144,7 @@ public class HashFileBenchmark {
 			HashFile.IDIterator idIterator = hashFile.getIDIterator(integer);
 
 			while (true) {
-				int next = idIterator.next();
+				long next = idIterator.next();
 				if (next >= 0) {
 					count++;
 				} else {
@@ -169,7 +169,7 @@ public class HashFileBenchmark {
 			HashFile.IDIterator idIterator = hashFile.getIDIterator(random.nextInt());
 
 			while (true) {
-				int next = idIterator.next();
+				long next = idIterator.next();
 				if (next >= 0) {
 					count++;
 				} else {
@@ -186,7 +186,7 @@ public class HashFileBenchmark {
 	}
 
 	@Benchmark()
-	public int fillHashfileKnownSize() throws IOException {
+	public long fillHashfileKnownSize() throws IOException {
 		int testSize = COUNT / 10;
 
 		File file = File.createTempFile("hashfile", "hash", tempFolder);
@@ -208,7 +208,7 @@ public class HashFileBenchmark {
 	}
 
 	@Benchmark()
-	public int fillHashfileUnknownSize() throws IOException {
+	public long fillHashfileUnknownSize() throws IOException {
 		int testSize = COUNT / 10;
 
 		File file = File.createTempFile("hashfile", "hash", tempFolder);
@@ -228,4 +228,27 @@ public class HashFileBenchmark {
 
 	}
 
+	@Benchmark()
+	public long fillHashfileUnknownSizeLongIDs() throws IOException {
+		int testSize = COUNT / 10;
+
+		File file = File.createTempFile("hashfile", "hash", tempFolder);
+		File overflowFile = new File(file.getParentFile(), file.getName() + ".ovf");
+
+		try (HashFile hashFile = new HashFile(file, false, 512, true)) {
+			Random random = new Random(RANDOM_SEED);
+
+			for (int i = 0; i < testSize; i++) {
+				int hash = random.nextInt();
+				hashFile.storeID(hash, i);
+			}
+
+			return hashFile.getItemCount();
+		} finally {
+			file.delete();
+			overflowFile.delete();
+		}
+
+	}
+
 }
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+
+package org.eclipse.rdf4j.sail.nativerdf.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.assertj.core.util.Files;
+import org.eclipse.rdf4j.common.iteration.CloseableIteration;
+import org.eclipse.rdf4j.common.order.StatementOrder;
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.query.Dataset;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.algebra.evaluation.EvaluationStrategy;
+import org.eclipse.rdf4j.query.algebra.evaluation.TripleSource;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.eclipse.rdf4j.query.algebra.evaluation.impl.StrictEvaluationStrategyFactory;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.repository.sail.SailRepositoryConnection;
+import org.eclipse.rdf4j.sail.nativerdf.NativeStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares merge joins that are based on ordered index scans with nested-loop joins for subject-star queries.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@BenchmarkMode({ Mode.AverageTime })
+@Fork(value = 1, jvmArgs = { "-Xms1G", "-Xmx1G" })
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MergeJoinBenchmark {
+
+	private static final String NS = "http://example.org/";
+
+	private static final String STAR_2 = "PREFIX ex: <" + NS + ">\n"
+			+ "SELECT * WHERE { ?s ex:p1 ?o1 ; ex:p2 ?o2 . }";
+
+	private static final String STAR_4 = "PREFIX ex: <" + NS + ">\n"
+			+ "SELECT * WHERE { ?s ex:p1 ?o1 ; ex:p2 ?o2 ; ex:p3 ?o3 ; ex:p4 ?o4 . }";
+
+	@Param({ "true", "false" })
+	public boolean mergeJoin;
+
+	@Param({ "100000" })
+	public int subjects;
+
+	private SailRepository repository;
+
+	private File file;
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include("MergeJoinBenchmark") // adapt to run other benchmark tests
+				.forks(1)
+				.build();
+
+		new Runner(opt).run();
+	}
+
+	@Setup(Level.Trial)
+	public void beforeClass() {
+		file = Files.newTemporaryFolder();
+
+		NativeStore store = new NativeStore(file, "spoc,psoc");
+		if (!mergeJoin) {
+			// hide the ordered scans from the optimizer to force nested-loop joins
+			store.setEvaluationStrategyFactory(new StrictEvaluationStrategyFactory() {
+				@Override
+				public EvaluationStrategy createEvaluationStrategy(Dataset dataset, TripleSource tripleSource,
+						EvaluationStatistics evaluationStatistics) {
+					return super.createEvaluationStrategy(dataset, new UnorderedTripleSource(tripleSource),
+							evaluationStatistics);
+				}
+			});
+		}
+		repository = new SailRepository(store);
+
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			ValueFactory vf = connection.getValueFactory();
+			IRI[] predicates = new IRI[4];
+			for (int i = 0; i < predicates.length; i++) {
+				predicates[i] = vf.createIRI(NS, "p" + (i + 1));
+			}
+
+			connection.begin(IsolationLevels.NONE);
+			for (int i = 0; i < subjects; i++) {
+				IRI subject = vf.createIRI(NS, "s" + i);
+				for (int j = 0; j < predicates.length; j++) {
+					// leave out some properties to make the join selective
+					if (i % (j + 2) != 0) {
+						connection.add(subject, predicates[j], vf.createLiteral(i * predicates.length + j));
+					}
+				}
+			}
+			connection.commit();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void afterClass() throws IOException {
+		repository.shutDown();
+		FileUtils.deleteDirectory(file);
+	}
+
+	@Benchmark
+	public long star2() {
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			return connection
+					.prepareTupleQuery(STAR_2)
+					.evaluate()
+					.stream()
+					.count();
+		}
+	}
+
+	@Benchmark
+	public long star4() {
+		try (SailRepositoryConnection connection = repository.getConnection()) {
+			return connection
+					.prepareTupleQuery(STAR_4)
+					.evaluate()
+					.stream()
+					.count();
+		}
+	}
+
+	/**
+	 * A {@link TripleSource} that does not expose any statement orders of its delegate.
+	 */
+	private static class UnorderedTripleSource implements TripleSource {
+
+		private final TripleSource delegate;
+
+		UnorderedTripleSource(TripleSource delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public CloseableIteration<? extends Statement> getStatements(Resource subj, IRI pred, Value obj,
+				Resource... contexts) throws QueryEvaluationException {
+			return delegate.getStatements(subj, pred, obj, contexts);
+		}
+
+		@Override
+		public Set<StatementOrder> getSupportedOrders(Resource subj, IRI pred, Value obj, Resource... contexts) {
+			return Set.of();
+		}
+
+		@Override
+		public ValueFactory getValueFactory() {
+			return delegate.getValueFactory();
+		}
+	}
+}
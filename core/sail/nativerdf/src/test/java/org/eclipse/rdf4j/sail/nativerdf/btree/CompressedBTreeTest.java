@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.nativerdf.btree;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for B-Trees with prefix-compressed leaf nodes.
+ */
+public class CompressedBTreeTest {
+
+	private static final int VALUE_SIZE = 17;
+
+	private static final int VALUE_COUNT = 10000;
+
+	@TempDir
+	File tmpDir;
+
+	private BTree createBTree(boolean compressed) throws Exception {
+		return new BTree(tmpDir, "test", 2048, VALUE_SIZE, new DefaultRecordComparator(), false, compressed);
+	}
+
+	/**
+	 * Creates a value that resembles a statement record of a triple index, with few distinct values in the leading
+	 * positions.
+	 */
+	private static byte[] createValue(Random random) {
+		byte[] value = new byte[VALUE_SIZE];
+		value[3] = (byte) random.nextInt(50);
+		value[7] = (byte) random.nextInt(5);
+		int object = random.nextInt(100000);
+		value[9] = (byte) (object >>> 16);
+		value[10] = (byte) (object >>> 8);
+		value[11] = (byte) object;
+		value[16] = (byte) random.nextInt(3);
+		return value;
+	}
+
+	private static void assertContents(TreeSet<byte[]> expected, BTree btree) throws Exception {
+		try (RecordIterator iter = btree.iterateAll()) {
+			for (byte[] expectedValue : expected) {
+				assertArrayEquals(expectedValue, iter.next());
+			}
+			assertNull(iter.next());
+		}
+	}
+
+	@Test
+	public void testInsertAndRemove() throws Exception {
+		Random random = new Random(42);
+		TreeSet<byte[]> expected = new TreeSet<>(Arrays::compareUnsigned);
+
+		try (BTree btree = createBTree(true)) {
+			assertTrue(btree.isCompressed());
+
+			for (int i = 0; i < VALUE_COUNT; i++) {
+				byte[] value = createValue(random);
+				btree.insert(value);
+				expected.add(value);
+			}
+			assertContents(expected, btree);
+
+			List<byte[]> values = new ArrayList<>(expected);
+			Collections.shuffle(values, random);
+			for (byte[] value : values.subList(0, values.size() / 2)) {
+				assertNotNull(btree.remove(value));
+				expected.remove(value);
+			}
+			assertContents(expected, btree);
+
+			for (byte[] value : expected) {
+				assertArrayEquals(value, btree.get(value));
+			}
+		}
+
+		// the node format is read from the file
+		try (BTree btree = createBTree(false)) {
+			assertTrue(btree.isCompressed());
+			assertContents(expected, btree);
+
+			for (byte[] value : new ArrayList<>(expected)) {
+				btree.remove(value);
+			}
+			try (RecordIterator iter = btree.iterateAll()) {
+				assertNull(iter.next());
+			}
+		}
+	}
+
+	@Test
+	public void testIteratorWithConcurrentInserts() throws Exception {
+		Random random = new Random(43);
+		TreeSet<byte[]> expected = new TreeSet<>(Arrays::compareUnsigned);
+
+		try (BTree btree = createBTree(true)) {
+			for (int i = 0; i < VALUE_COUNT; i++) {
+				byte[] value = createValue(random);
+				btree.insert(value);
+				expected.add(value);
+			}
+
+			try (RecordIterator iter = btree.iterateAll()) {
+				byte[] first = iter.next();
+				// force splits of the nodes of the active iterator
+				for (int i = 0; i < VALUE_COUNT; i++) {
+					byte[] value = createValue(random);
+					btree.insert(value);
+					expected.add(value);
+				}
+
+				byte[] previous = first;
+				byte[] value;
+				while ((value = iter.next()) != null) {
+					assertTrue(Arrays.compareUnsigned(previous, value) < 0);
+					previous = value;
+				}
+			}
+			assertContents(expected, btree);
+		}
+	}
+
+	@Test
+	public void testCompressedFileIsSmaller() throws Exception {
+		long[] fileSizes = new long[2];
+		for (int i = 0; i < 2; i++) {
+			Random random = new Random(44);
+			try (BTree btree = createBTree(i == 1)) {
+				for (int j = 0; j < VALUE_COUNT; j++) {
+					btree.insert(createValue(random));
+				}
+				btree.sync();
+				fileSizes[i] = new File(tmpDir, "test.dat").length();
+			}
+			assertTrue(new File(tmpDir, "test.dat").delete());
+			assertTrue(new File(tmpDir, "test.alloc").delete());
+		}
+		assertTrue(fileSizes[1] < fileSizes[0]);
+	}
+}
@@ -67,7 +67,7 @@ public class DataStorePerfTest {
 				long startTime = System.nanoTime();
 
 				for (int i = 1; i <= stringCount; i++) {
-					dataStore.storeData(String.valueOf(i).getBytes());
+					dataStore.storeLongID(String.valueOf(i).getBytes());
 				}
 
 				dataStore.sync();
@@ -79,7 +79,7 @@ public class DataStorePerfTest {
 				startTime = System.nanoTime();
 
 				for (int i = 1; i <= stringCount; i++) {
-					int sID = dataStore.getID(String.valueOf(i).getBytes());
+					long sID = dataStore.getLongID(String.valueOf(i).getBytes());
 					if (sID == -1) {
 						throw new RuntimeException("Failed to get ID for string \"" + i + "\"");
 					}
@@ -92,7 +92,7 @@ public class DataStorePerfTest {
 				System.out.println("Fetching data for all IDs...");
 				startTime = System.nanoTime();
 
-				for (int id = 1; id <= stringCount; id++) {
+				for (long id = 1; id <= stringCount; id++) {
 					String s = new String(dataStore.getData(id));
 					if (s == null) {
 						throw new RuntimeException("Failed to get data for ID " + id);
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.sail.nativerdf.datastore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link HashFile}, in particular for hash files with 64-bit IDs that grow using linear hashing.
+ */
+public class HashFileTest {
+
+	private static final int ID_COUNT = 20000;
+
+	// IDs that do not fit in 32 bits
+	private static final long ID_OFFSET = 1L << 40;
+
+	@TempDir
+	File tmpDir;
+
+	private static boolean containsID(HashFile hashFile, int hash, long id) throws IOException {
+		HashFile.IDIterator iter = hashFile.getIDIterator(hash);
+		try {
+			long next;
+			while ((next = iter.next()) >= 0) {
+				if (next == id) {
+					return true;
+				}
+			}
+			return false;
+		} finally {
+			iter.close();
+		}
+	}
+
+	private static void assertContainsIDs(HashFile hashFile, int count) throws IOException {
+		Random random = new Random(42);
+		for (int i = 1; i <= count; i++) {
+			int hash = random.nextInt(ID_COUNT);
+			assertTrue(containsID(hashFile, hash, ID_OFFSET + i), "missing id " + i);
+		}
+	}
+
+	@Test
+	public void testLongIDsWithIncrementalGrowth() throws Exception {
+		File file = new File(tmpDir, "values.hash");
+
+		try (HashFile hashFile = new HashFile(file, false, 16, true)) {
+			assertTrue(hashFile.hasLongIDs());
+
+			long fileSize = file.length();
+			Random random = new Random(42);
+			for (int i = 1; i <= ID_COUNT; i++) {
+				// many hash collisions force the use of overflow buckets
+				hashFile.storeID(random.nextInt(ID_COUNT), ID_OFFSET + i);
+
+				// the table grows by at most a single bucket per insertion
+				assertTrue(file.length() - fileSize <= 12 * 8 + 4);
+				fileSize = file.length();
+			}
+
+			assertEquals(ID_COUNT, hashFile.getItemCount());
+			assertContainsIDs(hashFile, ID_COUNT);
+			assertFalse(containsID(hashFile, ID_COUNT + 1, ID_OFFSET + 1));
+			hashFile.sync();
+		}
+
+		assertTrue(new File(tmpDir, "values.hash.ovf").exists());
+
+		// the format is read from the file
+		try (HashFile hashFile = new HashFile(file, false, 16, false)) {
+			assertTrue(hashFile.hasLongIDs());
+			assertEquals(ID_COUNT, hashFile.getItemCount());
+			assertContainsIDs(hashFile, ID_COUNT);
+
+			hashFile.clear();
+			assertEquals(0, hashFile.getItemCount());
+			assertFalse(containsID(hashFile, new Random(42).nextInt(ID_COUNT), ID_OFFSET + 1));
+
+			Random random = new Random(42);
+			for (int i = 1; i <= 100; i++) {
+				hashFile.storeID(random.nextInt(ID_COUNT), ID_OFFSET + i);
+			}
+			assertContainsIDs(hashFile, 100);
+		}
+	}
+
+	@Test
+	public void testSplitsAreVisibleWithoutSync() throws Exception {
+		File file = new File(tmpDir, "values.hash");
+
+		try (HashFile hashFile = new HashFile(file, false, 16, true)) {
+			hashFile.sync();
+
+			Random random = new Random(42);
+			for (int i = 1; i <= ID_COUNT; i++) {
+				hashFile.storeID(random.nextInt(ID_COUNT), ID_OFFSET + i);
+			}
+
+			// a file that is opened before it has been synced or closed, as after a crash, finds every split item
+			try (HashFile reopened = new HashFile(file, false, 16, true)) {
+				assertContainsIDs(reopened, ID_COUNT);
+			}
+		}
+	}
+
+	@Test
+	public void testExistingFileKeepsIntIDs() throws Exception {
+		File file = new File(tmpDir, "values.hash");
+
+		try (HashFile hashFile = new HashFile(file, false)) {
+			assertFalse(hashFile.hasLongIDs());
+			for (int i = 1; i <= 1000; i++) {
+				hashFile.storeID(i % 100, i);
+			}
+			hashFile.sync();
+		}
+
+		try (HashFile hashFile = new HashFile(file, false, 512, true)) {
+			assertFalse(hashFile.hasLongIDs());
+			assertEquals(1000, hashFile.getItemCount());
+			for (int i = 1; i <= 1000; i++) {
+				assertTrue(containsID(hashFile, i % 100, i));
+			}
+		}
+
+		assertFalse(new File(tmpDir, "values.hash.ovf").exists());
+	}
+}
@@ -38,6 +38,7 @@ import org.eclipse.rdf4j.console.command.Open;
 import org.eclipse.rdf4j.console.command.PrintHelp;
 import org.eclipse.rdf4j.console.command.PrintInfo;
 import org.eclipse.rdf4j.console.command.QueryEvaluator;
+import org.eclipse.rdf4j.console.command.Reindex;
 import org.eclipse.rdf4j.console.command.SetParameters;
 import org.eclipse.rdf4j.console.command.Show;
 import org.eclipse.rdf4j.console.command.Sparql;
@@ -240,6 +241,7 @@ public class Console {
 		register(new Verify(consoleIO, settingMap));
 		register(new Load(consoleIO, STATE, settingMap));
 		register(new Clear(consoleIO, STATE));
+		register(new Reindex(consoleIO, STATE));
 		register(new Export(consoleIO, STATE, settingMap));
 		register(new Convert(consoleIO, STATE, settingMap));
 		// parameters
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Eclipse RDF4J contributors.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Distribution License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ *******************************************************************************/
+package org.eclipse.rdf4j.console.command;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+import org.eclipse.rdf4j.console.ConsoleIO;
+import org.eclipse.rdf4j.console.ConsoleState;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.config.RepositoryConfig;
+import org.eclipse.rdf4j.repository.config.RepositoryConfigException;
+import org.eclipse.rdf4j.repository.manager.RepositoryManager;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.repository.sail.config.SailRepositoryConfig;
+import org.eclipse.rdf4j.sail.Sail;
+import org.eclipse.rdf4j.sail.SailException;
+import org.eclipse.rdf4j.sail.StackableSail;
+import org.eclipse.rdf4j.sail.config.DelegatingSailImplConfig;
+import org.eclipse.rdf4j.sail.config.SailImplConfig;
+import org.eclipse.rdf4j.sail.lmdb.LmdbStore;
+import org.eclipse.rdf4j.sail.lmdb.config.LmdbStoreConfig;
+import org.eclipse.rdf4j.sail.nativerdf.NativeStore;
+import org.eclipse.rdf4j.sail.nativerdf.config.NativeStoreConfig;
+
+/**
+ * Reindex command, changes the triple indexes of a native or LMDB store while it remains available.
+ */
+public class Reindex extends ConsoleCommand {
+
+	/**
+	 * The interval in milliseconds at which the progress is reported.
+	 */
+	private static final long PROGRESS_INTERVAL = 1000;
+
+	@Override
+	public String getName() {
+		return "reindex";
+	}
+
+	@Override
+	public String getHelpShort() {
+		return "Changes the triple indexes of a native or LMDB store";
+	}
+
+	@Override
+	public String getHelpLong() {
+		return PrintHelp.USAGE + "reindex <indexes>   Changes the triple indexes, e.g. spoc,posc,opsc\n"
+				+ "The repository remains available while the new indexes are built.\n";
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param consoleIO
+	 * @param state
+	 */
+	public Reindex(ConsoleIO consoleIO, ConsoleState state) {
+		super(consoleIO, state);
+	}
+
+	@Override
+	public void execute(String... tokens) {
+		Repository repository = state.getRepository();
+
+		if (repository == null) {
+			writeUnopenedError();
+		} else if (tokens.length != 2) {
+			writeln(getHelpLong());
+		} else {
+			reindex(repository, tokens[1]);
+		}
+	}
+
+	/**
+	 * Starts changing the triple indexes, stores them in the repository configuration and waits until the new indexes
+	 * have been built.
+	 *
+	 * @param repository repository to be reindexed
+	 * @param indexes    the new triple indexes
+	 */
+	private void reindex(Repository repository, String indexes) {
+		Sail sail = repository instanceof SailRepository ? ((SailRepository) repository).getSail() : null;
+		while (sail instanceof StackableSail) {
+			sail = ((StackableSail) sail).getBaseSail();
+		}
+
+		BooleanSupplier reindexing;
+		DoubleSupplier progress;
+		try {
+			if (sail instanceof NativeStore) {
+				NativeStore nativeStore = (NativeStore) sail;
+				nativeStore.reindex(indexes);
+				reindexing = nativeStore::isReindexing;
+				progress = nativeStore::getReindexProgress;
+			} else if (sail instanceof LmdbStore) {
+				LmdbStore lmdbStore = (LmdbStore) sail;
+				lmdbStore.reindex(indexes);
+				reindexing = lmdbStore::isReindexing;
+				progress = lmdbStore::getReindexProgress;
+			} else {
+				writeError("Reindexing is only supported for local native and LMDB stores");
+				return;
+			}
+		} catch (SailException | IllegalStateException e) {
+			writeError("Failed to change triple indexes", e);
+			return;
+		}
+		writeInfo("Changing triple indexes to " + indexes + "...");
+
+		try {
+			updateConfig(indexes);
+		} catch (RepositoryException | RepositoryConfigException e) {
+			writeError("Failed to store triple indexes in repository configuration", e);
+		}
+
+		try {
+			int reported = -1;
+			while (reindexing.getAsBoolean()) {
+				int percentage = (int) (progress.getAsDouble() * 100);
+				if (percentage != reported) {
+					writeInfo(percentage + "% of the statements copied");
+					reported = percentage;
+				}
+				Thread.sleep(PROGRESS_INTERVAL);
+			}
+			if (sail instanceof NativeStore) {
+				((NativeStore) sail).awaitReindex();
+			} else {
+				((LmdbStore) sail).awaitReindex();
+			}
+			writeInfo("Triple indexes changed to " + indexes);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			writeError("Interrupted, the triple indexes are still being changed in the background");
+		} catch (SailException e) {
+			writeError("Failed to change triple indexes", e);
+		}
+	}
+
+	/**
+	 * Stores the new triple indexes in the configuration of the repository, so that they are used when the repository
+	 * is opened again.
+	 *
+	 * @param indexes the new triple indexes
+	 */
+	private void updateConfig(String indexes) {
+		RepositoryManager manager = state.getManager();
+		RepositoryConfig config = manager == null ? null : manager.getRepositoryConfig(state.getRepositoryID());
+		if (config == null || !(config.getRepositoryImplConfig() instanceof SailRepositoryConfig)) {
+			return;
+		}
+
+		SailImplConfig sailConfig = ((SailRepositoryConfig) config.getRepositoryImplConfig()).getSailImplConfig();
+		while (sailConfig instanceof DelegatingSailImplConfig) {
+			sailConfig = ((DelegatingSailImplConfig) sailConfig).getDelegate();
+		}
+		if (sailConfig instanceof NativeStoreConfig) {
+			((NativeStoreConfig) sailConfig).setTripleIndexes(indexes);
+		} else if (sailConfig instanceof LmdbStoreConfig) {
+			((LmdbStoreConfig) sailConfig).setTripleIndexes(indexes);
+		} else {
+			return;
+		}
+		manager.addRepositoryConfig(config);
+	}
+}